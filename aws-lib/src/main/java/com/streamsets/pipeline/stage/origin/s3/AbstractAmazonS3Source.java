@@ -16,35 +16,44 @@
 package com.streamsets.pipeline.stage.origin.s3;
 
 import com.amazonaws.AmazonClientException;
-import com.amazonaws.services.s3.model.S3ObjectSummary;
-import com.streamsets.pipeline.api.BatchMaker;
+import com.google.common.base.Throwables;
+import com.streamsets.pipeline.api.BatchContext;
+import com.streamsets.pipeline.api.Source;
 import com.streamsets.pipeline.api.StageException;
-import com.streamsets.pipeline.api.base.BaseSource;
+import com.streamsets.pipeline.api.base.BasePushSource;
 import com.streamsets.pipeline.common.InterfaceAudience;
 import com.streamsets.pipeline.common.InterfaceStability;
 import com.streamsets.pipeline.lib.event.CommonEvents;
+import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 @InterfaceAudience.LimitedPrivate
 @InterfaceStability.Evolving
-public abstract class AbstractAmazonS3Source extends BaseSource {
+public abstract class AbstractAmazonS3Source extends BasePushSource {
 
   private final static Logger LOG = LoggerFactory.getLogger(AbstractAmazonS3Source.class);
 
   private static final String OFFSET_SEPARATOR = "::";
   private static final String ZERO = "0";
+  // key of the offset committed by the single threaded origin before it read its first object
+  private static final String NULL_KEY = "null";
 
-  protected long noMoreDataRecordCount;
-  protected long noMoreDataErrorCount;
-  protected long noMoreDataFileCount;
+  private long noMoreDataRecordCount;
+  private long noMoreDataErrorCount;
+  private long noMoreDataFileCount;
 
   protected final S3ConfigBean s3ConfigBean;
   protected S3Spooler spooler;
-  protected S3ObjectSummary currentObject;
+  private ExecutorService executorService;
 
   public AbstractAmazonS3Source(S3ConfigBean s3ConfigBean) {
     this.s3ConfigBean = s3ConfigBean;
@@ -59,30 +68,18 @@ public abstract class AbstractAmazonS3Source extends BaseSource {
   protected abstract void initChild(List<ConfigIssue> issues);
 
   /**
-   * Concrete classes must implement this method and perfom
-   * production of records based on an s3Object.
-   * @param s3Object
-   * @param offset
-   * @param maxBatchSize
-   * @param batchMaker
-   * @return the offset
-   * @throws StageException
-   * @throws BadSpoolObjectException
+   * Concrete classes must implement this method and return the
+   * runnable that produces batches for the given origin thread,
+   * reading the objects handed out by the {@link S3Spooler}.
+   * @param threadNumber
+   * @param batchSize
+   * @return the runnable
    */
-  protected abstract String produce (S3ObjectSummary s3Object,
-                                     String offset,
-                                     int maxBatchSize,
-                                     BatchMaker batchMaker)
-    throws StageException, BadSpoolObjectException;
+  protected abstract Runnable createRunnable(int threadNumber, int batchSize);
 
-
-
-  public S3ObjectSummary getCurrentObject() {
-    return currentObject;
-  }
-
-  public void setCurrentObject(S3ObjectSummary currentObject) {
-    this.currentObject = currentObject;
+  @Override
+  public int getNumberOfThreads() {
+    return s3ConfigBean.numberOfThreads;
   }
 
   @Override
@@ -111,6 +108,8 @@ public abstract class AbstractAmazonS3Source extends BaseSource {
 
   @Override
   public void destroy() {
+    shutdownExecutorIfNeeded();
+    executorService = null;
     s3ConfigBean.destroy();
     if(spooler != null) {
       spooler.destroy();
@@ -119,54 +118,101 @@ public abstract class AbstractAmazonS3Source extends BaseSource {
   }
 
   @Override
-  public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+  public void produce(Map<String, String> lastOffsets, int maxBatchSize) throws StageException {
     int batchSize = Math.min(s3ConfigBean.basicConfig.maxBatchSize, maxBatchSize);
 
-    //parse offset string into S3Offset data structure
-    S3Offset s3Offset = S3Offset.fromString(lastSourceOffset);
-
-    spooler.postProcessOlderObjectIfNeeded(s3Offset);
-
-    //check if we have an object to produce records from. Otherwise get from spooler.
-    if (needToFetchNextObjectFromSpooler(s3Offset)) {
-      s3Offset = fetchNextObjectFromSpooler(s3Offset);
-      LOG.debug("Object '{}' with offset '{}' fetched from Spooler", s3Offset.getKey(), s3Offset.getOffset());
-    } else {
-      //check if the current object was modified between batches
-      LOG.debug("Checking if Object '{}' has been modified between batches", getCurrentObject().getKey());
-      if (!getCurrentObject().getETag().equals(s3Offset.geteTag())) {
-        //send the current object to error archive and get next object from spooler
-        LOG.debug("Object '{}' has been modified between batches. Sending the object to error",
-          getCurrentObject().getKey());
+    try {
+      spooler.restore(handleLastSourceOffset(lastOffsets));
+    } catch (AmazonClientException e) {
+      throw new StageException(Errors.S3_SPOOLDIR_23, e.toString(), e);
+    }
+
+    try {
+      executorService = new SafeScheduledExecutorService(getNumberOfThreads(), AmazonS3Runnable.S3_THREAD_PREFIX);
+      ExecutorCompletionService<Future> completionService = new ExecutorCompletionService<>(executorService);
+
+      for (int threadNumber = 0; threadNumber < getNumberOfThreads(); threadNumber++) {
+        completionService.submit(createRunnable(threadNumber, batchSize), null);
+      }
+
+      for (int i = 0; i < getNumberOfThreads(); i++) {
         try {
-          spooler.handleCurrentObjectAsError();
-        } catch (AmazonClientException e) {
-          throw new StageException(Errors.S3_SPOOLDIR_24, e.toString(), e);
+          completionService.take().get();
+        } catch (ExecutionException e) {
+          LOG.error(
+              "ExecutionException when attempting to wait for all runnables to complete, after context was" +
+                  " stopped: {}",
+              e.getMessage(),
+              e
+          );
+          final Throwable rootCause = Throwables.getRootCause(e);
+          if (rootCause instanceof StageException) {
+            throw (StageException) rootCause;
+          }
+          throw new StageException(Errors.S3_SPOOLDIR_26, rootCause.toString(), rootCause);
+        } catch (InterruptedException e) {
+          LOG.error(
+              "InterruptedException when attempting to wait for all runnables to complete, after context " +
+                  "was stopped: {}",
+              e.getMessage(),
+              e
+          );
+          Thread.currentThread().interrupt();
         }
-        s3Offset = fetchNextObjectFromSpooler(s3Offset);
       }
+    } finally {
+      shutdownExecutorIfNeeded();
     }
+  }
 
-    if (getCurrentObject() != null) {
-      try {
-        // we ask for a batch from the currentObject starting at offset
-        s3Offset.setOffset(produce(getCurrentObject(), s3Offset.getOffset(), batchSize, batchMaker));
-      } catch (BadSpoolObjectException ex) {
-        LOG.error(Errors.S3_SPOOLDIR_01.getMessage(), ex.getObject(), ex.getPos(), ex.toString(), ex);
-        getContext().reportError(Errors.S3_SPOOLDIR_01, ex.getObject(), ex.getPos(), ex.toString());
-        try {
-          spooler.handleCurrentObjectAsError();
-        } catch (AmazonClientException e) {
-          throw new StageException(Errors.S3_SPOOLDIR_24, e.toString(), e);
+  private void shutdownExecutorIfNeeded() {
+    if (executorService != null && !executorService.isTerminated()) {
+      LOG.info("Shutting down executor service");
+      executorService.shutdown();
+    }
+  }
+
+  /**
+   * Parses the per object offsets of the previous run. The single offset of the single threaded origin is
+   * converted to an offset for its object.
+   */
+  private List<S3Offset> handleLastSourceOffset(Map<String, String> lastOffsets) throws StageException {
+    List<S3Offset> offsets = new ArrayList<>();
+    if (lastOffsets == null) {
+      return offsets;
+    }
+    for (Map.Entry<String, String> entry : lastOffsets.entrySet()) {
+      if (entry.getValue() == null) {
+        continue;
+      }
+      S3Offset offset = S3Offset.fromString(entry.getValue());
+      if (Source.POLL_SOURCE_OFFSET_KEY.equals(entry.getKey())) {
+        //Remove Poll Source Offset key from the offset.
+        getContext().commitOffset(Source.POLL_SOURCE_OFFSET_KEY, null);
+        if (NULL_KEY.equals(offset.getKey())) {
+          continue;
         }
-        // we set the offset to -1 to indicate we are done with the current object and we should fetch a new one
-        // from the spooler
-        s3Offset.setOffset(S3Constants.MINUS_ONE);
+        getContext().commitOffset(offset.getKey(), offset.toString());
       }
-    } else if (noMoreDataRecordCount > 0 || noMoreDataErrorCount > 0) {
+      offsets.add(offset);
+    }
+    return offsets;
+  }
+
+  synchronized void updateNoMoreDataCounts(long recordCount, long errorCount, long fileCount) {
+    noMoreDataRecordCount += recordCount;
+    noMoreDataErrorCount += errorCount;
+    noMoreDataFileCount += fileCount;
+  }
+
+  /**
+   * Sends the no-more-data event once all the listed objects were processed by all the threads.
+   */
+  synchronized void sendNoMoreDataEventIfNeeded(BatchContext batchContext) {
+    if ((noMoreDataRecordCount > 0 || noMoreDataErrorCount > 0) && spooler.isIdle()) {
       LOG.info("sending no-more-data event.  records {} errors {} files {} ",
           noMoreDataRecordCount, noMoreDataErrorCount, noMoreDataFileCount);
-      CommonEvents.NO_MORE_DATA.create(getContext())
+      CommonEvents.NO_MORE_DATA.create(getContext(), batchContext)
           .with("record-count", noMoreDataRecordCount)
           .with("error-count", noMoreDataErrorCount)
           .with("file-count", noMoreDataFileCount)
@@ -175,88 +221,6 @@ public abstract class AbstractAmazonS3Source extends BaseSource {
       noMoreDataErrorCount = 0;
       noMoreDataFileCount = 0;
     }
-    return s3Offset.toString();
-  }
-
-  private S3Offset fetchNextObjectFromSpooler(S3Offset s3Offset) throws StageException {
-    setCurrentObject(null);
-    try {
-      //The next object found in queue is mostly eligible since we process objects in chronological order.
-
-      //However after processing a few files, if the configuration is changed [say relax the prefix] and an older file
-      //gets selected for processing, it must be ignored.
-      S3ObjectSummary nextAvailObj = null;
-      do {
-        if (nextAvailObj != null) {
-          LOG.warn("Ignoring object '{}' in spool directory as is lesser than offset object '{}'",
-            nextAvailObj.getKey(), s3Offset.getKey());
-        }
-        nextAvailObj = spooler.poolForObject(s3Offset, s3ConfigBean.basicConfig.maxWaitTime, TimeUnit.MILLISECONDS);
-      } while (!isEligible(nextAvailObj, s3Offset));
-
-      if (nextAvailObj == null) {
-        // no object to process
-        LOG.debug("No new object available in spool directory after '{}' secs, producing empty batch",
-          s3ConfigBean.basicConfig.maxWaitTime/1000);
-      } else {
-        setCurrentObject(nextAvailObj);
-
-        // if the current offset object is null or the object returned by the spooler is greater than the current offset
-        // object we take the object returned by the spooler as the new object and set the offset to zero.
-        // if not, it means the spooler returned us the current object, we just keep processing it from the last
-        // offset we processed (known via offset tracking)
-        if (s3Offset.getKey() == null ||
-          isLaterThan(nextAvailObj.getKey(), nextAvailObj.getLastModified().getTime(), s3Offset.getKey(),
-            Long.parseLong(s3Offset.getTimestamp()))) {
-          s3Offset = new S3Offset(getCurrentObject().getKey(), ZERO, getCurrentObject().getETag(),
-            String.valueOf(getCurrentObject().getLastModified().getTime()));
-        }
-      }
-    } catch (InterruptedException ex) {
-      // the spooler was interrupted while waiting for an object, we log and return, the pipeline agent will invoke us
-      // again to wait for an object again
-      LOG.warn("Pooling interrupted");
-    } catch (AmazonClientException e) {
-      throw new StageException(Errors.S3_SPOOLDIR_23, e.toString(), e);
-    }
-    return s3Offset;
-  }
-
-  private boolean needToFetchNextObjectFromSpooler(S3Offset s3Offset) {
-    return
-      // we don't have an object half way processed in the current agent execution
-      getCurrentObject() == null ||
-      // we don't have an object half way processed from a previous agent execution via offset tracking
-      s3Offset.getKey() == null ||
-      // the current object has been fully processed
-        S3Constants.MINUS_ONE.equals(s3Offset.getOffset());
-  }
-
-  private boolean isEligible(S3ObjectSummary nextAvailObj, S3Offset s3Offset) {
-    ObjectOrdering objectOrdering = s3ConfigBean.s3FileConfig.objectOrdering;
-    switch (objectOrdering) {
-      case TIMESTAMP:
-        return (nextAvailObj == null) ||
-            (nextAvailObj.getLastModified().getTime() >= Long.parseLong(s3Offset.getTimestamp()));
-      case LEXICOGRAPHICAL:
-        return (nextAvailObj == null || s3Offset.getKey() == null) ||
-            (nextAvailObj.getKey().compareTo(s3Offset.getKey()) > 0);
-      default:
-        throw new IllegalArgumentException("Unknown ordering: " + objectOrdering.getLabel());
-    }
-  }
-
-  private boolean isLaterThan(String nextKey, long nextTimeStamp, String originalKey, long originalTimestamp) {
-    ObjectOrdering objectOrdering = s3ConfigBean.s3FileConfig.objectOrdering;
-    switch (objectOrdering) {
-      case TIMESTAMP:
-        return (nextTimeStamp > originalTimestamp) ||
-            (nextTimeStamp == originalTimestamp && nextKey.compareTo(originalKey) > 0);
-      case LEXICOGRAPHICAL:
-        return nextKey.compareTo(originalKey) > 0;
-      default:
-        throw new IllegalArgumentException("Unknown ordering: " + objectOrdering.getLabel());
-    }
   }
 
   static class S3Offset {
@@ -0,0 +1,461 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.s3;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.google.common.base.Throwables;
+import com.streamsets.pipeline.api.BatchContext;
+import com.streamsets.pipeline.api.BatchMaker;
+import com.streamsets.pipeline.api.PushSource;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.api.ext.io.ObjectLengthException;
+import com.streamsets.pipeline.api.ext.io.OverrunException;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.api.service.dataformats.DataFormatParserService;
+import com.streamsets.pipeline.api.service.dataformats.DataParser;
+import com.streamsets.pipeline.api.service.dataformats.DataParserException;
+import com.streamsets.pipeline.api.service.dataformats.RecoverableDataParserException;
+import com.streamsets.pipeline.lib.hashing.HashingUtil;
+import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the objects handed out by the {@link S3Spooler}, one object at a time, and produces batches for one origin
+ * thread. Each batch carries the offset of the object it was read from.
+ */
+public class AmazonS3Runnable implements Runnable {
+  public static final String S3_THREAD_PREFIX = "Amazon S3 Runner - ";
+  public static final String S3_METRICS = "Amazon S3 Metrics for Thread - ";
+
+  private final static Logger LOG = LoggerFactory.getLogger(AmazonS3Runnable.class);
+  private static final long DEFAULT_FETCH_SIZE = 1024 * 1024L;
+  private static final String BUCKET = "bucket";
+  private static final String OBJECT_KEY = "objectKey";
+  private static final String OWNER = "owner";
+  private static final String SIZE = "size";
+  private static final String CONTENT_LENGTH = "Content-Length";
+  private static final String THREAD_NAME = "Thread Name";
+  private static final String STATUS = "Status";
+  private static final String CURRENT_OBJECT = "Current Object";
+  private static final String OFFSET = "Current Offset";
+
+  private enum Status {
+    SPOOLING,
+    READING,
+    BATCH_GENERATED,
+  }
+
+  private final AbstractAmazonS3Source source;
+  private final PushSource.Context context;
+  private final int threadNumber;
+  private final int batchSize;
+  private final S3ConfigBean s3ConfigBean;
+  private final S3Spooler spooler;
+  private final DataFormatParserService dataParser;
+  private final Map<String, Object> gaugeMap;
+
+  private ErrorRecordHandler errorRecordHandler;
+  private DataParser parser;
+  private S3Object object;
+  private S3ObjectSummary currentObject;
+  private AbstractAmazonS3Source.S3Offset currentOffset;
+  private boolean currentObjectInError;
+
+  private long recordCount;
+  private long errorCount;
+  private long fileCount;
+
+  public AmazonS3Runnable(
+      AbstractAmazonS3Source source,
+      PushSource.Context context,
+      int threadNumber,
+      int batchSize,
+      S3ConfigBean s3ConfigBean,
+      S3Spooler spooler,
+      DataFormatParserService dataParser
+  ) {
+    this.source = source;
+    this.context = context;
+    this.threadNumber = threadNumber;
+    this.batchSize = batchSize;
+    this.s3ConfigBean = s3ConfigBean;
+    this.spooler = spooler;
+    this.dataParser = dataParser;
+    this.gaugeMap = context.createGauge(S3_METRICS + threadNumber).getValue();
+  }
+
+  @Override
+  public void run() {
+    Thread.currentThread().setName(S3_THREAD_PREFIX + threadNumber);
+    gaugeMap.put(THREAD_NAME, Thread.currentThread().getName());
+    gaugeMap.put(STATUS, "");
+    gaugeMap.put(CURRENT_OBJECT, "");
+    gaugeMap.put(OFFSET, "");
+
+    try {
+      while (!context.isStopped()) {
+        BatchContext batchContext = context.startBatch();
+        errorRecordHandler = new DefaultErrorRecordHandler(context, batchContext);
+        try {
+          produce(batchContext);
+        } catch (StageException ex) {
+          //Way to throw stage exception from runnable to main source thread
+          Throwables.propagate(ex);
+        }
+      }
+    } finally {
+      closeObject();
+    }
+  }
+
+  private void produce(BatchContext batchContext) throws StageException {
+    recordCount = 0;
+    errorCount = 0;
+    fileCount = 0;
+
+    if (currentObject == null) {
+      updateGauge(Status.SPOOLING);
+      fetchNextObjectFromSpooler();
+    }
+
+    if (currentObject == null) {
+      source.sendNoMoreDataEventIfNeeded(batchContext);
+      context.processBatch(batchContext);
+      return;
+    }
+
+    String objectKey = currentObject.getKey();
+    if (!currentObjectInError) {
+      updateGauge(Status.READING);
+      try {
+        // we ask for a batch from the currentObject starting at offset
+        currentOffset.setOffset(
+            produce(currentObject, currentOffset.getOffset(), batchSize, batchContext.getBatchMaker())
+        );
+      } catch (BadSpoolObjectException ex) {
+        LOG.error(Errors.S3_SPOOLDIR_01.getMessage(), ex.getObject(), ex.getPos(), ex.toString(), ex);
+        context.reportError(Errors.S3_SPOOLDIR_01, ex.getObject(), ex.getPos(), ex.toString());
+        handleCurrentObjectAsError();
+      }
+    }
+    source.updateNoMoreDataCounts(recordCount, errorCount, fileCount);
+
+    context.processBatch(batchContext, objectKey, currentOffset.toString());
+
+    if (S3Constants.MINUS_ONE.equals(currentOffset.getOffset())) {
+      // the object is fully processed, post process it and drop the offsets that are not needed anymore
+      if (!currentObjectInError) {
+        try {
+          spooler.postProcess(objectKey);
+        } catch (AmazonClientException e) {
+          throw new StageException(Errors.S3_SPOOLDIR_24, e.toString(), e);
+        }
+      }
+      for (String obsoleteKey : spooler.finish(currentOffset)) {
+        context.commitOffset(obsoleteKey, null);
+      }
+      currentObject = null;
+      currentOffset = null;
+      currentObjectInError = false;
+    }
+    updateGauge(Status.BATCH_GENERATED);
+  }
+
+  private void fetchNextObjectFromSpooler() throws StageException {
+    try {
+      S3ObjectSummary nextAvailObj = spooler.poolForObject(
+          s3ConfigBean.basicConfig.maxWaitTime,
+          TimeUnit.MILLISECONDS
+      );
+      if (nextAvailObj == null) {
+        // no object to process
+        LOG.debug("No new object available in spool directory after '{}' secs, producing empty batch",
+            s3ConfigBean.basicConfig.maxWaitTime/1000);
+        return;
+      }
+      currentObject = nextAvailObj;
+      currentOffset = spooler.getOffset(nextAvailObj);
+      LOG.debug("Object '{}' with offset '{}' fetched from Spooler", currentObject.getKey(), currentOffset.getOffset());
+
+      //check if the object was modified since a previous run partially processed it
+      if (!currentObject.getETag().equals(currentOffset.geteTag())) {
+        LOG.debug("Object '{}' has been modified between batches. Sending the object to error",
+            currentObject.getKey());
+        handleCurrentObjectAsError();
+      }
+    } catch (InterruptedException ex) {
+      // the spooler was interrupted while waiting for an object, we log and return, the runner loop will invoke us
+      // again to wait for an object again
+      LOG.warn("Pooling interrupted");
+      Thread.currentThread().interrupt();
+    } catch (AmazonClientException e) {
+      throw new StageException(Errors.S3_SPOOLDIR_23, e.toString(), e);
+    }
+  }
+
+  private void handleCurrentObjectAsError() throws StageException {
+    closeObject();
+    try {
+      spooler.handleObjectAsError(currentObject.getKey());
+    } catch (AmazonClientException e) {
+      throw new StageException(Errors.S3_SPOOLDIR_24, e.toString(), e);
+    }
+    // we set the offset to -1 to indicate we are done with the current object and we should fetch a new one
+    // from the spooler
+    currentOffset.setOffset(S3Constants.MINUS_ONE);
+    currentObjectInError = true;
+  }
+
+  /**
+   * Produces records from the given object starting at the given offset. If the object is fully processed it
+   * returns -1, otherwise the offset to continue from in the next batch.
+   */
+  private String produce(S3ObjectSummary s3Object, String offset, int maxBatchSize, BatchMaker batchMaker)
+      throws StageException, BadSpoolObjectException {
+    try {
+      if (parser == null) {
+        String recordId = s3ConfigBean.s3Config.bucket + s3ConfigBean.s3Config.delimiter + s3Object.getKey();
+        if (dataParser.isWholeFileFormat()) {
+          handleWholeFileDataFormat(s3Object, recordId);
+        } else {
+          //Get S3 object instead of stream because we want to call close on the object when we close the
+          // parser (and stream)
+          if(context.isPreview()) {
+            long fetchSize = s3Object.getSize() > DEFAULT_FETCH_SIZE ? DEFAULT_FETCH_SIZE : s3Object.getSize();
+            if(fetchSize > 0) {
+              object = AmazonS3Util.getObjectRange(
+                  s3ConfigBean.s3Config.getS3Client(),
+                  s3ConfigBean.s3Config.bucket,
+                  s3Object.getKey(),
+                  fetchSize,
+                  s3ConfigBean.sseConfig.useCustomerSSEKey,
+                  s3ConfigBean.sseConfig.customerKey,
+                  s3ConfigBean.sseConfig.customerKeyMd5
+              );
+            }  else {
+              LOG.warn("Size of object with key '{}' is 0", s3Object.getKey());
+              object = AmazonS3Util.getObject(
+                  s3ConfigBean.s3Config.getS3Client(),
+                  s3ConfigBean.s3Config.bucket,
+                  s3Object.getKey(),
+                  s3ConfigBean.sseConfig.useCustomerSSEKey,
+                  s3ConfigBean.sseConfig.customerKey,
+                  s3ConfigBean.sseConfig.customerKeyMd5
+              );
+            }
+          } else {
+            object = AmazonS3Util.getObject(
+                s3ConfigBean.s3Config.getS3Client(),
+                s3ConfigBean.s3Config.bucket,
+                s3Object.getKey(),
+                s3ConfigBean.sseConfig.useCustomerSSEKey,
+                s3ConfigBean.sseConfig.customerKey,
+                s3ConfigBean.sseConfig.customerKeyMd5
+            );
+          }
+          parser = dataParser.getParser(recordId, object.getObjectContent(), offset);
+        }
+        //we don't use S3 GetObject range capabilities to skip the already process offset because the parsers cannot
+        // pick up from a non root doc depth in the case of a single object with records.
+      }
+      int i = 0;
+      while(i < maxBatchSize) {
+        try {
+          Record record;
+
+          try {
+            record = parser.parse();
+          } catch(RecoverableDataParserException ex) {
+            // Propagate partially parsed record to error stream
+            record = ex.getUnparsedRecord();
+            setHeaders(record, object);
+            errorRecordHandler.onError(new OnRecordErrorException(record, ex.getErrorCode(), ex.getParams()));
+
+            // We'll simply continue reading pass this recoverable error
+            continue;
+          }
+
+          if (record != null) {
+            setHeaders(record, object);
+            batchMaker.addRecord(record);
+            recordCount++;
+            i++;
+            offset = parser.getOffset();
+          } else {
+            parser.close();
+            parser = null;
+            if (object != null) {
+              object.close();
+              object = null;
+            }
+            fileCount++;
+            offset = S3Constants.MINUS_ONE;
+            break;
+          }
+        } catch (ObjectLengthException ex) {
+          String exOffset = offset;
+          offset = S3Constants.MINUS_ONE;
+          errorRecordHandler.onError(Errors.S3_SPOOLDIR_02, s3Object.getKey(), exOffset, ex);
+          errorCount++;
+        }
+      }
+    } catch (AmazonClientException e) {
+      LOG.error("Error processing object with key '{}' offset '{}'", s3Object.getKey(), offset, e);
+      throw new StageException(Errors.S3_SPOOLDIR_25, e.toString(), e);
+    } catch (IOException | DataParserException ex) {
+      if(ex.getCause() instanceof AbortedException) {
+        //If the pipeline was stopped, the amazon s3 client thread catches the interrupt and throws aborted exception
+        //do not treat this as an error. Instead produce what ever you have and move one.
+
+      } else {
+        offset = S3Constants.MINUS_ONE;
+        String exOffset;
+        if (ex instanceof OverrunException) {
+          exOffset = String.valueOf(((OverrunException) ex).getStreamOffset());
+        } else {
+          try {
+            exOffset = (parser != null) ? parser.getOffset() : S3Constants.MINUS_ONE;
+          } catch (IOException ex1) {
+            LOG.warn("Could not get the object offset to report with error, reason: {}", ex1.toString(), ex);
+            exOffset = S3Constants.MINUS_ONE;
+          }
+        }
+
+        switch (context.getOnErrorRecord()) {
+          case DISCARD:
+            break;
+          case TO_ERROR:
+            // we failed to produce a record, which leaves the input file in an unknown state. all we can do here is
+            // throw an exception.
+            throw new BadSpoolObjectException(s3Object.getKey(), exOffset, ex);
+          case STOP_PIPELINE:
+            context.reportError(Errors.S3_SPOOLDIR_03, s3Object.getKey(), exOffset, ex.toString(), ex);
+            throw new StageException(Errors.S3_SPOOLDIR_03, s3Object.getKey(), exOffset, ex.toString(), ex);
+          default:
+            throw new IllegalStateException(Utils.format("Unknown OnError value '{}'",
+                context.getOnErrorRecord(), ex));
+        }
+      }
+    } finally {
+      if (S3Constants.MINUS_ONE.equals(offset)) {
+        closeObject();
+      }
+    }
+    return offset;
+  }
+
+  private void closeObject() {
+    if (parser != null) {
+      try {
+        parser.close();
+      } catch (IOException ex) {
+        LOG.debug("Exception while closing parser : '{}'", ex.toString(), ex);
+      }
+      parser = null;
+    }
+    if (object != null) {
+      try {
+        object.close();
+      } catch (IOException ex) {
+        LOG.debug("Exception while closing S3 object : '{}'", ex.toString(), ex);
+      }
+      object = null;
+    }
+  }
+
+  private void updateGauge(Status status) {
+    gaugeMap.put(STATUS, status.name());
+    gaugeMap.put(CURRENT_OBJECT, currentObject == null ? "" : currentObject.getKey());
+    gaugeMap.put(OFFSET, currentOffset == null ? "" : currentOffset.getOffset());
+  }
+
+  private void setHeaders(Record record, S3Object object) {
+    if(s3ConfigBean.enableMetaData) {
+      // if metadata is enabled, set the metadata to the header
+      Map<String, Object> metaData = AmazonS3Util.getMetaData(object);
+      for(Map.Entry<String, Object> entry : metaData.entrySet()) {
+        //Content-Length is partial for whole file format, so not populating it here
+        //Users can always look at /record/fileInfo/size to get the real size.
+        boolean shouldAddThisMetadata = !(dataParser.isWholeFileFormat() && entry.getKey().equals(CONTENT_LENGTH));
+        if (shouldAddThisMetadata) {
+          String value = entry.getValue() == null ? "" : entry.getValue().toString();
+          record.getHeader().setAttribute(entry.getKey(), value);
+        }
+      }
+      // set file name to the header
+      record.getHeader().setAttribute("Name", object.getKey());
+    }
+  }
+
+  //For whole file we do not care whether it is a preview or not,
+  //as the record is just the metadata along with file ref.
+  private void handleWholeFileDataFormat(S3ObjectSummary s3ObjectSummary, String recordId) throws StageException, IOException {
+    S3Object partialS3ObjectForMetadata = null;
+    //partialObject with fetchSize 1 byte.
+    //This is mostly used for extracting metadata and such.
+    partialS3ObjectForMetadata = AmazonS3Util.getObjectRange(
+        s3ConfigBean.s3Config.getS3Client(),
+        s3ConfigBean.s3Config.bucket,
+        s3ObjectSummary.getKey(),
+        1,
+        s3ConfigBean.sseConfig.useCustomerSSEKey,
+        s3ConfigBean.sseConfig.customerKey,
+        s3ConfigBean.sseConfig.customerKeyMd5
+    );
+    S3FileRef.Builder s3FileRefBuilder = new S3FileRef.Builder()
+        .s3Client(s3ConfigBean.s3Config.getS3Client())
+        .s3ObjectSummary(s3ObjectSummary)
+        .useSSE(s3ConfigBean.sseConfig.useCustomerSSEKey)
+        .customerKey(s3ConfigBean.sseConfig.customerKey)
+        .customerKeyMd5(s3ConfigBean.sseConfig.customerKeyMd5)
+        .bufferSize((int)dataParser.suggestedWholeFileBufferSize())
+        .createMetrics(true)
+        .totalSizeInBytes(s3ObjectSummary.getSize())
+        .rateLimit(dataParser.wholeFileRateLimit());
+    if (dataParser.isWholeFileChecksumRequired()) {
+      s3FileRefBuilder.verifyChecksum(true)
+          .checksumAlgorithm(HashingUtil.HashType.MD5)
+          //128 bit hex encoded md5 checksum.
+          .checksum(partialS3ObjectForMetadata.getObjectMetadata().getETag());
+    }
+    Map<String, Object> metadata = AmazonS3Util.getMetaData(partialS3ObjectForMetadata);
+    metadata.put(BUCKET, s3ObjectSummary.getBucketName());
+    metadata.put(OBJECT_KEY, s3ObjectSummary.getKey());
+    metadata.put(OWNER, s3ObjectSummary.getOwner());
+    metadata.put(SIZE, s3ObjectSummary.getSize());
+    metadata.put(HeaderAttributeConstants.FILE_NAME, s3ObjectSummary.getKey());
+
+    if (metadata.containsKey(CONTENT_LENGTH)) {
+      metadata.remove(CONTENT_LENGTH);
+    }
+    parser = dataParser.getParser(recordId, metadata, s3FileRefBuilder.build());
+    //Object is assigned so that setHeaders() function can use this to get metadata
+    //information about the object
+    object = partialS3ObjectForMetadata;
+  }
+}
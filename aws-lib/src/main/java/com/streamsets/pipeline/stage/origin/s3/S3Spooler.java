@@ -20,42 +20,73 @@ import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.codahale.metrics.Meter;
 import com.google.common.base.Preconditions;
-import com.streamsets.pipeline.api.Source;
+import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.config.PostProcessingOptions;
 import com.streamsets.pipeline.lib.util.AntPathMatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Lists the objects to process and hands them out to the origin threads, one object per thread at a time.
+ *
+ * Every object handed out gets its own offset entry, keyed by object key. Entries of finished objects are removed once
+ * no earlier object is still being processed, except for the latest one: on restart, listing resumes after the
+ * earliest committed entry, finished objects are skipped and partially processed objects are resumed.
+ */
 public class S3Spooler {
 
   private static final Logger LOG = LoggerFactory.getLogger(S3Spooler.class);
+  private static final String ZERO = "0";
 
-  private final Source.Context context;
+  private final PushSource.Context context;
   private final S3ConfigBean s3ConfigBean;
   private final AmazonS3 s3Client;
   private AntPathMatcher pathMatcher;
 
-  public S3Spooler(Source.Context context, S3ConfigBean s3ConfigBean) {
+  public S3Spooler(PushSource.Context context, S3ConfigBean s3ConfigBean) {
     this.context = context;
     this.s3ConfigBean = s3ConfigBean;
     this.s3Client = s3ConfigBean.s3Config.getS3Client();
   }
 
-  private S3ObjectSummary currentObject;
   private ArrayBlockingQueue<S3ObjectSummary> objectQueue;
   private Meter spoolQueueMeter;
+  private Comparator<AmazonS3Source.S3Offset> offsetComparator;
+
+  // offset of the last listed object, the next listing starts after it
+  private AmazonS3Source.S3Offset listingOffset;
+  // partially processed objects of the previous run, handed out before any newly listed object
+  private final Deque<S3ObjectSummary> resumeQueue = new ArrayDeque<>();
+  // offsets committed by the previous run that were not handed out yet, by object key
+  private final Map<String, AmazonS3Source.S3Offset> restoredOffsets = new HashMap<>();
+  // objects being processed by a thread, by object key
+  private final Map<String, AmazonS3Source.S3Offset> claimedOffsets = new HashMap<>();
+  // finished objects whose offset entry is still committed
+  private TreeSet<AmazonS3Source.S3Offset> finishedOffsets;
 
   public void init() {
     try {
       objectQueue = new ArrayBlockingQueue<>(s3ConfigBean.s3FileConfig.poolSize);
       spoolQueueMeter = context.createMeter("spoolQueue");
       pathMatcher = new AntPathMatcher(s3ConfigBean.s3Config.delimiter);
+      offsetComparator = createOffsetComparator(s3ConfigBean.s3FileConfig.objectOrdering);
+      finishedOffsets = new TreeSet<>(offsetComparator);
+      listingOffset = new AmazonS3Source.S3Offset(null, ZERO, null, ZERO);
     } catch (Exception ex) {
       throw new RuntimeException(ex);
     }
@@ -68,8 +99,59 @@ public class S3Spooler {
     }
   }
 
-  S3ObjectSummary findAndQueueObjects(AmazonS3Source.S3Offset s3offset, boolean checkCurrent)
-    throws AmazonClientException {
+  private static Comparator<AmazonS3Source.S3Offset> createOffsetComparator(ObjectOrdering objectOrdering) {
+    switch (objectOrdering) {
+      case TIMESTAMP:
+        return Comparator.<AmazonS3Source.S3Offset>comparingLong(o -> Long.parseLong(o.getTimestamp()))
+            .thenComparing(AmazonS3Source.S3Offset::getKey);
+      case LEXICOGRAPHICAL:
+        return Comparator.comparing(AmazonS3Source.S3Offset::getKey);
+      default:
+        throw new IllegalArgumentException("Unknown ordering: " + objectOrdering.getLabel());
+    }
+  }
+
+  /**
+   * Restores the offsets committed by a previous run: post processes the finished objects if it did not happen yet,
+   * queues the partially processed objects and makes the listing start after the earliest one.
+   */
+  public synchronized void restore(Collection<AmazonS3Source.S3Offset> offsets) throws AmazonClientException {
+    for (AmazonS3Source.S3Offset offset : offsets) {
+      if (offset.getKey() == null) {
+        continue;
+      }
+      if (listingOffset.getKey() == null || offsetComparator.compare(offset, listingOffset) < 0) {
+        listingOffset = new AmazonS3Source.S3Offset(
+            offset.getKey(),
+            S3Constants.MINUS_ONE,
+            offset.geteTag(),
+            offset.getTimestamp()
+        );
+      }
+      if (S3Constants.MINUS_ONE.equals(offset.getOffset())) {
+        postProcessOlderObjectIfNeeded(offset);
+        restoredOffsets.put(offset.getKey(), offset);
+        finishedOffsets.add(offset);
+      } else {
+        S3ObjectSummary objectSummary = AmazonS3Util.getObjectSummary(
+            s3Client,
+            s3ConfigBean.s3Config.bucket,
+            offset.getKey()
+        );
+        if (objectSummary != null) {
+          LOG.debug("Resuming object '{}' from offset '{}'", offset.getKey(), offset.getOffset());
+          restoredOffsets.put(offset.getKey(), offset);
+          claimedOffsets.put(offset.getKey(), offset);
+          resumeQueue.add(objectSummary);
+        } else {
+          LOG.warn("Object '{}' was partially processed but does not exist anymore", offset.getKey());
+          finishedOffsets.add(offset);
+        }
+      }
+    }
+  }
+
+  S3ObjectSummary findAndQueueObjects() throws AmazonClientException {
     List<S3ObjectSummary> s3ObjectSummaries;
     ObjectOrdering objectOrdering = s3ConfigBean.s3FileConfig.objectOrdering;
     switch (objectOrdering) {
@@ -78,7 +160,7 @@ public class S3Spooler {
             s3Client,
             s3ConfigBean,
             pathMatcher,
-            s3offset,
+            listingOffset,
             objectQueue.remainingCapacity()
         );
         break;
@@ -87,7 +169,7 @@ public class S3Spooler {
             s3Client,
             s3ConfigBean,
             pathMatcher,
-            s3offset,
+            listingOffset,
             objectQueue.remainingCapacity()
         );
         break;
@@ -95,19 +177,33 @@ public class S3Spooler {
         throw new IllegalArgumentException("Unknown ordering: " + objectOrdering.getLabel());
     }
     for (S3ObjectSummary objectSummary : s3ObjectSummaries) {
-      addObjectToQueue(objectSummary, checkCurrent);
+      AmazonS3Source.S3Offset restored = restoredOffsets.get(objectSummary.getKey());
+      if (restored != null &&
+          restored.getTimestamp().equals(String.valueOf(objectSummary.getLastModified().getTime()))) {
+        // finished or resumed by the previous run, the listing won't return it again
+        restoredOffsets.remove(objectSummary.getKey());
+        LOG.debug("Object '{}' already has offset '{}', ignoring", objectSummary.getKey(), restored.getOffset());
+      } else {
+        addObjectToQueue(objectSummary);
+      }
     }
     spoolQueueMeter.mark(objectQueue.size());
     LOG.debug("Found '{}' files", objectQueue.size());
-    return (s3ObjectSummaries.isEmpty()) ? null : s3ObjectSummaries.get(s3ObjectSummaries.size() - 1);
+    if (s3ObjectSummaries.isEmpty()) {
+      return null;
+    }
+    S3ObjectSummary last = s3ObjectSummaries.get(s3ObjectSummaries.size() - 1);
+    listingOffset = new AmazonS3Source.S3Offset(
+        last.getKey(),
+        S3Constants.MINUS_ONE,
+        last.getETag(),
+        String.valueOf(last.getLastModified().getTime())
+    );
+    return last;
   }
 
-  void addObjectToQueue(S3ObjectSummary objectSummary, boolean checkCurrent) {
+  void addObjectToQueue(S3ObjectSummary objectSummary) {
     Preconditions.checkNotNull(objectSummary, "file cannot be null");
-    if (checkCurrent) {
-      Preconditions.checkState(currentObject == null ||
-        currentObject.getLastModified().compareTo(objectSummary.getLastModified()) < 0);
-    }
     if (!objectQueue.contains(objectSummary)) {
       objectQueue.add(objectSummary);
       spoolQueueMeter.mark(objectQueue.size());
@@ -116,30 +212,77 @@ public class S3Spooler {
     }
   }
 
-  public S3ObjectSummary poolForObject(AmazonS3Source.S3Offset s3Offset, long wait, TimeUnit timeUnit)
-    throws InterruptedException, AmazonClientException {
+  /**
+   * Hands out the next object to process to the calling thread, waiting the given time if there is none. The object
+   * offset entry is committed before returning so that a restart never skips an object that was handed out.
+   */
+  public S3ObjectSummary poolForObject(long wait, TimeUnit timeUnit) throws InterruptedException, AmazonClientException {
     Preconditions.checkArgument(wait >= 0, "wait must be zero or greater");
     Preconditions.checkNotNull(timeUnit, "timeUnit cannot be null");
 
-    if(objectQueue.isEmpty()) {
-      findAndQueueObjects(s3Offset, false);
+    S3ObjectSummary next;
+    synchronized (this) {
+      next = resumeQueue.poll();
+      if (next == null) {
+        while (objectQueue.isEmpty() && findAndQueueObjects() != null) {
+          LOG.debug("Listed objects were all processed before, listing again");
+        }
+        next = objectQueue.poll();
+        if (next != null) {
+          restoredOffsets.remove(next.getKey());
+          AmazonS3Source.S3Offset offset = new AmazonS3Source.S3Offset(
+              next.getKey(),
+              ZERO,
+              next.getETag(),
+              String.valueOf(next.getLastModified().getTime())
+          );
+          claimedOffsets.put(next.getKey(), offset);
+          context.commitOffset(next.getKey(), offset.toString());
+        }
+      }
     }
-
-    S3ObjectSummary next = null;
-    try {
+    if (next == null) {
       LOG.debug("Polling for file, waiting '{}' ms", TimeUnit.MILLISECONDS.convert(wait, timeUnit));
-      next = objectQueue.poll(wait, timeUnit);
-    } catch (InterruptedException ex) {
-      next = null;
-    } finally {
-      LOG.debug("Polling for file returned '{}'", next);
-      if (next != null) {
-        currentObject = next;
-      }
+      timeUnit.sleep(wait);
     }
+    LOG.debug("Polling for file returned '{}'", next);
     return next;
   }
 
+  /**
+   * Returns the offset to start reading the given object from, the object must have been handed out by
+   * {@link #poolForObject(long, TimeUnit)}.
+   */
+  public synchronized AmazonS3Source.S3Offset getOffset(S3ObjectSummary objectSummary) {
+    return claimedOffsets.get(objectSummary.getKey());
+  }
+
+  /**
+   * Marks the object of the given (already committed) offset as finished, and returns the keys of the offset entries
+   * that are not needed anymore and should be removed.
+   */
+  public synchronized List<String> finish(AmazonS3Source.S3Offset offset) {
+    claimedOffsets.remove(offset.getKey());
+    finishedOffsets.removeIf(finished -> finished.getKey().equals(offset.getKey()));
+    finishedOffsets.add(offset);
+
+    AmazonS3Source.S3Offset watermark = claimedOffsets.values().stream().min(offsetComparator).orElse(null);
+    SortedSet<AmazonS3Source.S3Offset> done = watermark == null ? finishedOffsets : finishedOffsets.headSet(watermark);
+    List<String> obsoleteKeys = new ArrayList<>();
+    // keep the latest finished object before the watermark, the listing starts after it on restart
+    while (done.size() > 1) {
+      obsoleteKeys.add(finishedOffsets.pollFirst().getKey());
+    }
+    return obsoleteKeys;
+  }
+
+  /**
+   * Returns true if there is no object being processed or waiting to be processed.
+   */
+  public synchronized boolean isIdle() {
+    return claimedOffsets.isEmpty() && resumeQueue.isEmpty() && objectQueue.isEmpty();
+  }
+
   void postProcessOrErrorHandle(String postProcessObjectKey, PostProcessingOptions postProcessing, String postProcessBucket,
                                 String postProcessFolder, S3ArchivingOption archivingOption) {
     switch (postProcessing) {
@@ -188,21 +331,22 @@ public class S3Spooler {
     s3Client.deleteObject(s3ConfigBean.s3Config.bucket, postProcessObjectKey);
   }
 
-  public void handleCurrentObjectAsError() {
-    if (currentObject != null) {
-      //Move to error prefix only if the error bucket and prefix is specified and is different from
-      //source bucket and prefix
-      Utils.checkNotNull(s3ConfigBean.errorConfig, "s3ConfigBean.errorConfig");
-      postProcessOrErrorHandle(currentObject.getKey(), s3ConfigBean.errorConfig.errorHandlingOption,
-          s3ConfigBean.errorConfig.errorBucket, s3ConfigBean.errorConfig.errorPrefix,
-          s3ConfigBean.errorConfig.archivingOption);
-      currentObject = null;
-    } else {
-      LOG.debug("Current object is null");
-    }
+  public void handleObjectAsError(String objectKey) {
+    //Move to error prefix only if the error bucket and prefix is specified and is different from
+    //source bucket and prefix
+    Utils.checkNotNull(s3ConfigBean.errorConfig, "s3ConfigBean.errorConfig");
+    postProcessOrErrorHandle(objectKey, s3ConfigBean.errorConfig.errorHandlingOption,
+        s3ConfigBean.errorConfig.errorBucket, s3ConfigBean.errorConfig.errorPrefix,
+        s3ConfigBean.errorConfig.archivingOption);
+  }
+
+  public void postProcess(String objectKey) {
+    postProcessOrErrorHandle(objectKey, s3ConfigBean.postProcessingConfig.postProcessing,
+        s3ConfigBean.postProcessingConfig.postProcessBucket, s3ConfigBean.postProcessingConfig.postProcessPrefix,
+        s3ConfigBean.postProcessingConfig.archivingOption);
   }
 
-  public void postProcessOlderObjectIfNeeded(AmazonS3Source.S3Offset s3Offset) {
+  void postProcessOlderObjectIfNeeded(AmazonS3Source.S3Offset s3Offset) {
     //If sdc was shutdown after reading an object but before post processing it, handle it now.
 
     //The scenario is detected as follows:
@@ -219,11 +363,8 @@ public class S3Spooler {
       S3ObjectSummary objectSummary = AmazonS3Util.getObjectSummary(s3Client, s3ConfigBean.s3Config.bucket, s3Offset.getKey());
       if(objectSummary != null &&
         objectSummary.getLastModified().compareTo(new Date(Long.parseLong(s3Offset.getTimestamp()))) == 0) {
-        postProcessOrErrorHandle(s3Offset.getKey(), s3ConfigBean.postProcessingConfig.postProcessing,
-          s3ConfigBean.postProcessingConfig.postProcessBucket, s3ConfigBean.postProcessingConfig.postProcessPrefix,
-          s3ConfigBean.postProcessingConfig.archivingOption);
+        postProcess(s3Offset.getKey());
       }
     }
-    currentObject = null;
   }
 }
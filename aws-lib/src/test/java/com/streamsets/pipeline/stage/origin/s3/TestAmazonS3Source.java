@@ -24,16 +24,16 @@ import com.amazonaws.services.s3.iterable.S3Objects;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
-import com.streamsets.pipeline.api.BatchMaker;
 import com.streamsets.pipeline.api.EventRecord;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Source;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.service.dataformats.DataFormatParserService;
 import com.streamsets.pipeline.config.PostProcessingOptions;
 import com.streamsets.pipeline.lib.io.fileref.FileRefUtil;
-import com.streamsets.pipeline.sdk.SourceRunner;
+import com.streamsets.pipeline.sdk.PushSourceRunner;
 import com.streamsets.pipeline.sdk.StageRunner;
 import com.streamsets.pipeline.sdk.service.SdkJsonDataFormatParserService;
 import com.streamsets.pipeline.sdk.service.SdkWholeFileDataFormatParserService;
@@ -54,9 +54,17 @@ import org.junit.Test;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class TestAmazonS3Source extends AmazonS3TestSuite {
 
@@ -178,117 +186,83 @@ public class TestAmazonS3Source extends AmazonS3TestSuite {
 
   @Test
   public void testProduceFullFile() throws Exception {
+    AmazonS3Source source = createSource();
+    PushSourceRunner runner = new PushSourceRunner.Builder(AmazonS3DSource.class, source)
+      .addService(DataFormatParserService.class, new SdkJsonDataFormatParserService())
+      .addOutputLane("lane")
+      .build();
+    runner.runInit();
     try {
-      AmazonS3Source source = createSource();
-      SourceRunner runner = new SourceRunner.Builder(AmazonS3DSource.class, source)
-        .addService(DataFormatParserService.class, new SdkJsonDataFormatParserService())
-        .addOutputLane("lane")
-        .build();
-      runner.runInit();
-      try {
-
-        BatchMaker batchMaker = SourceRunner.createTestBatchMaker("lane");
-        String offset = source.produce(null, 60000, batchMaker);
-        Assert.assertNotNull(offset);
-        Assert.assertTrue(offset.contains("file1.log::-1::"));
-
-        StageRunner.Output output = SourceRunner.getOutput(batchMaker);
-        List<Record> records = output.getRecords().get("lane");
-        Assert.assertEquals(1, records.size());
-
-        //produce records from next file
-        batchMaker = SourceRunner.createTestBatchMaker("lane");
-        offset = source.produce(offset, 60000, batchMaker);
-        Assert.assertNotNull(offset);
-        Assert.assertTrue(offset.contains("file2.log::-1::"));
-
-        output = SourceRunner.getOutput(batchMaker);
-        records = output.getRecords().get("lane");
-        Assert.assertEquals(1, records.size());
-
-        //produce records from next file
-        batchMaker = SourceRunner.createTestBatchMaker("lane");
-        offset = source.produce(offset, 60000, batchMaker);
-        Assert.assertNotNull(offset);
-        Assert.assertTrue(offset.contains("file3.log::-1::"));
-
-        output = SourceRunner.getOutput(batchMaker);
-        records = output.getRecords().get("lane");
-        Assert.assertEquals(1, records.size());
+      // batches produced once all the objects are read
+      List<StageRunner.Output> idleOutputs = Collections.synchronizedList(new ArrayList<>());
+      List<Map<String, String>> idleOffsets = Collections.synchronizedList(new ArrayList<>());
+      AtomicInteger objectBatches = new AtomicInteger();
+      List<StageRunner.Output> outputs = runUntil(
+          runner,
+          new HashMap<>(),
+          batches -> batches.size() == 3 && !idleOutputs.isEmpty(),
+          output -> {
+            if (!output.getRecords().get("lane").isEmpty()) {
+              objectBatches.incrementAndGet();
+            } else if (objectBatches.get() == 3) {
+              idleOutputs.add(output);
+              idleOffsets.add(new HashMap<>(runner.getOffsets()));
+            }
+          }
+      );
 
-        batchMaker = SourceRunner.createTestBatchMaker("lane");
-        offset = source.produce(offset, 60000, batchMaker);
-        Assert.assertNotNull(offset);
-        Assert.assertTrue(offset.contains("file3.log::-1::"));
+      Assert.assertEquals(3, outputs.size());
+      assertObjectBatch(outputs.get(0), "file1.log");
+      assertObjectBatch(outputs.get(1), "file2.log");
+      assertObjectBatch(outputs.get(2), "file3.log");
 
-        output = SourceRunner.getOutput(batchMaker);
-        records = output.getRecords().get("lane");
-        Assert.assertEquals(0, records.size());
+      // no more records, the offset stays on the last object
+      Assert.assertEquals(0, idleOutputs.get(0).getRecords().get("lane").size());
+      Assert.assertTrue(idleOffsets.get(0).get("file3.log").contains("file3.log::-1::"));
 
-      } finally {
-        runner.runDestroy();
-      }
-    } catch (Exception e) {
-      System.out.println("Hoops");
-      e.printStackTrace();
-      throw  e;
+      // only the offset of the last finished object is kept
+      Map<String, String> offsets = runner.getOffsets();
+      Assert.assertEquals(1, offsets.size());
+      Assert.assertTrue(offsets.get("file3.log").contains("file3.log::-1::"));
+    } finally {
+      runner.runDestroy();
     }
   }
 
   @Test
   public void testNoMoreDataEvent() throws Exception {
     AmazonS3Source source = createSource();
-    SourceRunner runner = new SourceRunner.Builder(AmazonS3DSource.class, source)
+    PushSourceRunner runner = new PushSourceRunner.Builder(AmazonS3DSource.class, source)
       .addService(DataFormatParserService.class, new SdkJsonDataFormatParserService())
       .addOutputLane("lane")
       .build();
     runner.runInit();
     try {
+      // number of events when each object batch and the batch with the event were produced
+      List<Integer> eventCounts = Collections.synchronizedList(new ArrayList<>());
+      List<Integer> eventBatchRecords = Collections.synchronizedList(new ArrayList<>());
+      List<StageRunner.Output> outputs = runUntil(
+          runner,
+          new HashMap<>(),
+          batches -> !runner.getEventRecords().isEmpty(),
+          output -> {
+            if (!output.getRecords().get("lane").isEmpty()) {
+              eventCounts.add(runner.getEventRecords().size());
+            }
+            if (!runner.getEventRecords().isEmpty() && eventBatchRecords.isEmpty()) {
+              eventBatchRecords.add(output.getRecords().get("lane").size());
+            }
+          }
+      );
 
-      BatchMaker batchMaker = SourceRunner.createTestBatchMaker("lane");
-      String offset = source.produce(null, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("file1.log::-1::"));
-
-      StageRunner.Output output = SourceRunner.getOutput(batchMaker);
-      List<Record> records = output.getRecords().get("lane");
-      Assert.assertEquals(1, records.size());
-
-      Assert.assertEquals(0, runner.getEventRecords().size());
-
-      //produce records from next file
-      batchMaker = SourceRunner.createTestBatchMaker("lane");
-      offset = source.produce(offset, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("file2.log::-1::"));
-
-      output = SourceRunner.getOutput(batchMaker);
-      records = output.getRecords().get("lane");
-      Assert.assertEquals(1, records.size());
-
-      Assert.assertEquals(0, runner.getEventRecords().size());
-
-      //produce records from next file
-      batchMaker = SourceRunner.createTestBatchMaker("lane");
-      offset = source.produce(offset, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("file3.log::-1::"));
-
-      output = SourceRunner.getOutput(batchMaker);
-      records = output.getRecords().get("lane");
-      Assert.assertEquals(1, records.size());
-
-      Assert.assertEquals(0, runner.getEventRecords().size());
-
-      batchMaker = SourceRunner.createTestBatchMaker("lane");
-      offset = source.produce(offset, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("file3.log::-1::"));
-
-      output = SourceRunner.getOutput(batchMaker);
-      records = output.getRecords().get("lane");
-      Assert.assertEquals(0, records.size());
+      Assert.assertEquals(3, outputs.size());
+      assertObjectBatch(outputs.get(0), "file1.log");
+      assertObjectBatch(outputs.get(1), "file2.log");
+      assertObjectBatch(outputs.get(2), "file3.log");
 
+      // the event is only sent by the batch after the last object, which has no records
+      Assert.assertEquals(Arrays.asList(0, 0, 0), eventCounts);
+      Assert.assertEquals(Collections.singletonList(0), eventBatchRecords);
       Assert.assertEquals(1, runner.getEventRecords().size());
 
       EventRecord eventRecord = runner.getEventRecords().get(0);
@@ -304,95 +278,80 @@ public class TestAmazonS3Source extends AmazonS3TestSuite {
   @Test
   public void testLexicographicalOrdering() throws Exception {
     AmazonS3Source source = createSourceWithLexicographicalOrdering();
-    SourceRunner runner = new SourceRunner.Builder(AmazonS3DSource.class, source)
+    PushSourceRunner runner = new PushSourceRunner.Builder(AmazonS3DSource.class, source)
       .addService(DataFormatParserService.class, new SdkJsonDataFormatParserService())
       .addOutputLane("lane")
       .build();
     runner.runInit();
     try {
       //In lexicographical order, Canada/file*.log -> USA/file*.log -> file*.log are expected.
+      List<StageRunner.Output> outputs = runUntil(runner, new HashMap<>(), batches -> batches.size() == 9);
+
+      Assert.assertEquals(9, outputs.size());
+      assertObjectBatch(outputs.get(0), "Canada/file10.log");
+      assertObjectBatch(outputs.get(1), "Canada/file11.log");
+      assertObjectBatch(outputs.get(2), "Canada/file12.log");
+      assertObjectBatch(outputs.get(3), "USA/file7.log");
+      assertObjectBatch(outputs.get(4), "USA/file8.log");
+      assertObjectBatch(outputs.get(5), "USA/file9.log");
+      assertObjectBatch(outputs.get(6), "file4.log");
+      assertObjectBatch(outputs.get(7), "file5.log");
+      assertObjectBatch(outputs.get(8), "file6.log");
+    } finally {
+      runner.runDestroy();
+    }
+  }
 
-      BatchMaker batchMaker = SourceRunner.createTestBatchMaker("lane");
-      String offset = source.produce(null, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("Canada/file10.log::-1::"));
-
-      StageRunner.Output output = SourceRunner.getOutput(batchMaker);
-      List<Record> records = output.getRecords().get("lane");
-      Assert.assertEquals(1, records.size());
-
-      batchMaker = SourceRunner.createTestBatchMaker("lane");
-      offset = source.produce(offset, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("Canada/file11.log::-1::"));
-
-      output = SourceRunner.getOutput(batchMaker);
-      records = output.getRecords().get("lane");
-      Assert.assertEquals(1, records.size());
-
-      batchMaker = SourceRunner.createTestBatchMaker("lane");
-      offset = source.produce(offset, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("Canada/file12.log::-1::"));
-
-      output = SourceRunner.getOutput(batchMaker);
-      records = output.getRecords().get("lane");
-      Assert.assertEquals(1, records.size());
-
-      batchMaker = SourceRunner.createTestBatchMaker("lane");
-      offset = source.produce(offset, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("USA/file7.log::-1::"));
-
-      output = SourceRunner.getOutput(batchMaker);
-      records = output.getRecords().get("lane");
-      Assert.assertEquals(1, records.size());
-
-      batchMaker = SourceRunner.createTestBatchMaker("lane");
-      offset = source.produce(offset, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("USA/file8.log::-1::"));
-
-      output = SourceRunner.getOutput(batchMaker);
-      records = output.getRecords().get("lane");
-      Assert.assertEquals(1, records.size());
-
-      batchMaker = SourceRunner.createTestBatchMaker("lane");
-      offset = source.produce(offset, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("USA/file9.log::-1::"));
-
-      output = SourceRunner.getOutput(batchMaker);
-      records = output.getRecords().get("lane");
-      Assert.assertEquals(1, records.size());
-
-      batchMaker = SourceRunner.createTestBatchMaker("lane");
-      offset = source.produce(null, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("file4.log::-1::"));
-
-      output = SourceRunner.getOutput(batchMaker);
-      records = output.getRecords().get("lane");
-      Assert.assertEquals(1, records.size());
-
-      batchMaker = SourceRunner.createTestBatchMaker("lane");
-      offset = source.produce(null, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("file5.log::-1::"));
-
-      output = SourceRunner.getOutput(batchMaker);
-      records = output.getRecords().get("lane");
-      Assert.assertEquals(1, records.size());
-
-      batchMaker = SourceRunner.createTestBatchMaker("lane");
-      offset = source.produce(null, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("file6.log::-1::"));
-
-      output = SourceRunner.getOutput(batchMaker);
-      records = output.getRecords().get("lane");
-      Assert.assertEquals(1, records.size());
+  @Test
+  public void testMultipleThreads() throws Exception {
+    AmazonS3Source source = createSourceWithLexicographicalOrdering();
+    source.s3ConfigBean.numberOfThreads = 3;
+    PushSourceRunner runner = new PushSourceRunner.Builder(AmazonS3DSource.class, source)
+      .addService(DataFormatParserService.class, new SdkJsonDataFormatParserService())
+      .addOutputLane("lane")
+      .build();
+    runner.runInit();
+    try {
+      List<StageRunner.Output> outputs = runUntil(runner, new HashMap<>(), batches -> batches.size() == 9);
+
+      Assert.assertEquals(9, outputs.size());
+      Set<String> objects = new HashSet<>();
+      for (StageRunner.Output output : outputs) {
+        Assert.assertEquals(1, output.getRecords().get("lane").size());
+        Assert.assertTrue(output.getNewOffset().contains("::-1::"));
+        objects.add(output.getOffsetEntity());
+      }
+      Assert.assertEquals(9, objects.size());
 
+      // all the objects are finished, only the last one in the ordering is kept for the next run
+      Map<String, String> offsets = runner.getOffsets();
+      Assert.assertEquals(1, offsets.size());
+      Assert.assertTrue(offsets.containsKey("NorthAmerica/file6.log"));
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testRestoreOffsets() throws Exception {
+    AmazonS3Source source = createSourceWithLexicographicalOrdering();
+    PushSourceRunner runner = new PushSourceRunner.Builder(AmazonS3DSource.class, source)
+      .addService(DataFormatParserService.class, new SdkJsonDataFormatParserService())
+      .addOutputLane("lane")
+      .build();
+    runner.runInit();
+    try {
+      // offset of the single threaded origin, objects up to USA/file9.log were processed
+      Map<String, String> lastOffsets = new HashMap<>();
+      lastOffsets.put(Source.POLL_SOURCE_OFFSET_KEY, "NorthAmerica/USA/file9.log::-1::etag::0");
+
+      List<StageRunner.Output> outputs = runUntil(runner, lastOffsets, batches -> batches.size() == 3);
+
+      Assert.assertEquals(3, outputs.size());
+      assertObjectBatch(outputs.get(0), "file4.log");
+      assertObjectBatch(outputs.get(1), "file5.log");
+      assertObjectBatch(outputs.get(2), "file6.log");
+      Assert.assertFalse(runner.getOffsets().containsKey(Source.POLL_SOURCE_OFFSET_KEY));
     } finally {
       runner.runDestroy();
     }
@@ -401,7 +360,7 @@ public class TestAmazonS3Source extends AmazonS3TestSuite {
   @Test
   public void testProducePostProcessArchiveDiffBucket() throws Exception {
     AmazonS3Source source = createSourceArchiveDiffBucket();
-    SourceRunner runner = new SourceRunner.Builder(AmazonS3DSource.class, source)
+    PushSourceRunner runner = new PushSourceRunner.Builder(AmazonS3DSource.class, source)
       .addService(DataFormatParserService.class, new SdkJsonDataFormatParserService())
       .addOutputLane("lane")
       .build();
@@ -413,53 +372,37 @@ public class TestAmazonS3Source extends AmazonS3TestSuite {
 
       Assert.assertEquals(0, objectsInPostProcessBucket);
 
-      BatchMaker batchMaker = SourceRunner.createTestBatchMaker("lane");
-      String offset = source.produce(null, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("file1.log::-1::"));
-
-      StageRunner.Output output = SourceRunner.getOutput(batchMaker);
-      List<Record> records = output.getRecords().get("lane");
-      Assert.assertEquals(1, records.size());
-
-      //produce records from next file
-      batchMaker = SourceRunner.createTestBatchMaker("lane");
-      offset = source.produce(offset, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("file2.log::-1::"));
-
-      output = SourceRunner.getOutput(batchMaker);
-      records = output.getRecords().get("lane");
-      Assert.assertEquals(1, records.size());
-
-      //make sure the file is moved to post processing dir
-      //files get moved when source requests new object from spooler. hence the check after the second call to produce
-      Assert.assertEquals(objectsInBucket - 1, getObjectCount(s3client, BUCKET_NAME));
-      Assert.assertEquals(objectsInPostProcessBucket + 1, getObjectCount(s3client, POSTPROCESS_BUCKET));
-
-      //produce records from next file
-      batchMaker = SourceRunner.createTestBatchMaker("lane");
-      offset = source.produce(offset, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("file3.log::-1::"));
-
-      output = SourceRunner.getOutput(batchMaker);
-      records = output.getRecords().get("lane");
-      Assert.assertEquals(1, records.size());
-
-      //make sure the file is moved to post processing dir
-      Assert.assertEquals(objectsInBucket - 2, getObjectCount(s3client, BUCKET_NAME));
-      Assert.assertEquals(objectsInPostProcessBucket + 2, getObjectCount(s3client, POSTPROCESS_BUCKET));
-
-      batchMaker = SourceRunner.createTestBatchMaker("lane");
-      offset = source.produce(offset, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("file3.log::-1::"));
-
-      output = SourceRunner.getOutput(batchMaker);
-      records = output.getRecords().get("lane");
-      Assert.assertEquals(0, records.size());
-
+      // objects in the bucket and in the post processing bucket when each object batch is produced
+      List<Integer> bucketCounts = Collections.synchronizedList(new ArrayList<>());
+      List<Integer> postProcessBucketCounts = Collections.synchronizedList(new ArrayList<>());
+      List<StageRunner.Output> outputs = runUntil(
+          runner,
+          new HashMap<>(),
+          batches -> batches.size() == 3,
+          output -> {
+            if (!output.getRecords().get("lane").isEmpty()) {
+              bucketCounts.add(getObjectCount(s3client, BUCKET_NAME));
+              postProcessBucketCounts.add(getObjectCount(s3client, POSTPROCESS_BUCKET));
+            }
+          }
+      );
+
+      Assert.assertEquals(3, outputs.size());
+      assertObjectBatch(outputs.get(0), "file1.log");
+      assertObjectBatch(outputs.get(1), "file2.log");
+      assertObjectBatch(outputs.get(2), "file3.log");
+
+      //make sure each file is moved to post processing dir after its batch, before the next object is read
+      Assert.assertEquals(
+          Arrays.asList(objectsInBucket, objectsInBucket - 1, objectsInBucket - 2),
+          bucketCounts
+      );
+      Assert.assertEquals(
+          Arrays.asList(objectsInPostProcessBucket, objectsInPostProcessBucket + 1, objectsInPostProcessBucket + 2),
+          postProcessBucketCounts
+      );
+
+      //make sure the files are moved to post processing dir once they are fully processed
       Assert.assertEquals(objectsInBucket - 3, getObjectCount(s3client, BUCKET_NAME));
       Assert.assertEquals(objectsInPostProcessBucket + 3, getObjectCount(s3client, POSTPROCESS_BUCKET));
 
@@ -471,7 +414,7 @@ public class TestAmazonS3Source extends AmazonS3TestSuite {
   @Test
   public void testProducePostProcessArchiveDiffPrefix() throws Exception {
     AmazonS3Source source = createSourceArchiveDiffPrefix();
-    SourceRunner runner = new SourceRunner.Builder(AmazonS3DSource.class, source)
+    PushSourceRunner runner = new PushSourceRunner.Builder(AmazonS3DSource.class, source)
       .addService(DataFormatParserService.class, new SdkJsonDataFormatParserService())
       .addOutputLane("lane")
       .build();
@@ -483,53 +426,34 @@ public class TestAmazonS3Source extends AmazonS3TestSuite {
 
       Assert.assertEquals(0, objectsInPostProcessPrefix);
 
-      BatchMaker batchMaker = SourceRunner.createTestBatchMaker("lane");
-      String offset = source.produce(null, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("file7.log::-1::"));
-
-      StageRunner.Output output = SourceRunner.getOutput(batchMaker);
-      List<Record> records = output.getRecords().get("lane");
-      Assert.assertEquals(1, records.size());
-
-      //produce records from next file
-      batchMaker = SourceRunner.createTestBatchMaker("lane");
-      offset = source.produce(offset, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("file8.log::-1::"));
-
-      output = SourceRunner.getOutput(batchMaker);
-      records = output.getRecords().get("lane");
-      Assert.assertEquals(1, records.size());
-
-      //make sure the file is moved to post processing dir
-      //files get moved when source requests new object from spooler. hence the check after the second call to produce
-      Assert.assertEquals(objectsInPrefix - 1, getObjectCount(s3client, BUCKET_NAME, "NorthAmerica/USA"));
-      Assert.assertEquals(objectsInPostProcessPrefix + 1, getObjectCount(s3client, BUCKET_NAME, POSTPROCESS_PREFIX));
-
-      //produce records from next file
-      batchMaker = SourceRunner.createTestBatchMaker("lane");
-      offset = source.produce(offset, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("file9.log::-1::"));
-
-      output = SourceRunner.getOutput(batchMaker);
-      records = output.getRecords().get("lane");
-      Assert.assertEquals(1, records.size());
-
-      //make sure the file is moved to post processing dir
-      Assert.assertEquals(objectsInPrefix - 2, getObjectCount(s3client, BUCKET_NAME, "NorthAmerica/USA"));
-      Assert.assertEquals(objectsInPostProcessPrefix + 2, getObjectCount(s3client, BUCKET_NAME, POSTPROCESS_PREFIX));
-
-      batchMaker = SourceRunner.createTestBatchMaker("lane");
-      offset = source.produce(offset, 60000, batchMaker);
-      Assert.assertNotNull(offset);
-      Assert.assertTrue(offset.contains("file9.log::-1::"));
-
-      output = SourceRunner.getOutput(batchMaker);
-      records = output.getRecords().get("lane");
-      Assert.assertEquals(0, records.size());
+      // objects in the prefix and in the post processing prefix when each object batch is produced
+      List<Integer> prefixCounts = Collections.synchronizedList(new ArrayList<>());
+      List<Integer> postProcessPrefixCounts = Collections.synchronizedList(new ArrayList<>());
+      List<StageRunner.Output> outputs = runUntil(
+          runner,
+          new HashMap<>(),
+          batches -> batches.size() == 3,
+          output -> {
+            if (!output.getRecords().get("lane").isEmpty()) {
+              prefixCounts.add(getObjectCount(s3client, BUCKET_NAME, "NorthAmerica/USA"));
+              postProcessPrefixCounts.add(getObjectCount(s3client, BUCKET_NAME, POSTPROCESS_PREFIX));
+            }
+          }
+      );
+
+      Assert.assertEquals(3, outputs.size());
+      assertObjectBatch(outputs.get(0), "file7.log");
+      assertObjectBatch(outputs.get(1), "file8.log");
+      assertObjectBatch(outputs.get(2), "file9.log");
 
+      //make sure each file is moved to post processing dir after its batch, before the next object is read
+      Assert.assertEquals(Arrays.asList(objectsInPrefix, objectsInPrefix - 1, objectsInPrefix - 2), prefixCounts);
+      Assert.assertEquals(
+          Arrays.asList(objectsInPostProcessPrefix, objectsInPostProcessPrefix + 1, objectsInPostProcessPrefix + 2),
+          postProcessPrefixCounts
+      );
+
+      //make sure the files are moved to post processing dir once they are fully processed
       Assert.assertEquals(objectsInPrefix - 3, getObjectCount(s3client, BUCKET_NAME, "NorthAmerica/USA"));
       Assert.assertEquals(objectsInPostProcessPrefix + 3, getObjectCount(s3client, BUCKET_NAME, POSTPROCESS_PREFIX));
 
@@ -541,7 +465,7 @@ public class TestAmazonS3Source extends AmazonS3TestSuite {
   @Test
   public void testInvalidConfig() throws StageException {
     AmazonS3Source source = createSourceWithSameBucketsAndPrefix();
-    SourceRunner runner = new SourceRunner.Builder(AmazonS3DSource.class, source)
+    PushSourceRunner runner = new PushSourceRunner.Builder(AmazonS3DSource.class, source)
       .addService(DataFormatParserService.class, new SdkJsonDataFormatParserService())
       .addOutputLane("lane")
       .build();
@@ -552,7 +476,7 @@ public class TestAmazonS3Source extends AmazonS3TestSuite {
   @Test
   public void testInvalidErrorHandlingConfig() throws StageException {
     AmazonS3Source source = createSourceWithWrongErrorHandlingPostProcessing();
-    SourceRunner runner = new SourceRunner.Builder(AmazonS3DSource.class, source)
+    PushSourceRunner runner = new PushSourceRunner.Builder(AmazonS3DSource.class, source)
       .addService(DataFormatParserService.class, new SdkJsonDataFormatParserService())
       .addOutputLane("lane")
       .build();
@@ -563,7 +487,7 @@ public class TestAmazonS3Source extends AmazonS3TestSuite {
   @Test
   public void testValidConfig1() throws StageException {
     AmazonS3Source source = createSourceWithSameBucketDiffPrefix();
-    SourceRunner runner = new SourceRunner.Builder(AmazonS3DSource.class, source)
+    PushSourceRunner runner = new PushSourceRunner.Builder(AmazonS3DSource.class, source)
       .addService(DataFormatParserService.class, new SdkJsonDataFormatParserService())
       .addOutputLane("lane")
       .build();
@@ -574,7 +498,7 @@ public class TestAmazonS3Source extends AmazonS3TestSuite {
   @Test
   public void testValidConfig2() throws StageException {
     AmazonS3Source source = createSourceWithDiffBucketSamePrefix();
-    SourceRunner runner = new SourceRunner.Builder(AmazonS3DSource.class, source)
+    PushSourceRunner runner = new PushSourceRunner.Builder(AmazonS3DSource.class, source)
       .addService(DataFormatParserService.class, new SdkJsonDataFormatParserService())
       .addOutputLane("lane")
       .build();
@@ -598,23 +522,23 @@ public class TestAmazonS3Source extends AmazonS3TestSuite {
   @Test
   public void testWholeFile() throws Exception {
     AmazonS3Source source = createSourceWithWholeFile();
-    SourceRunner runner = new SourceRunner.Builder(AmazonS3DSource.class, source)
+    PushSourceRunner runner = new PushSourceRunner.Builder(AmazonS3DSource.class, source)
       .addService(DataFormatParserService.class, new SdkWholeFileDataFormatParserService())
       .addOutputLane("lane")
       .build();
     runner.runInit();
-    String lastOffset = null;
     try {
       Map<Pair<String, String>, S3ObjectSummary> s3ObjectSummaryMap = getObjectSummaries(s3client, BUCKET_NAME, "folder");
-      for (int i = 0; i < s3ObjectSummaryMap.size(); i++) {
-        BatchMaker batchMaker = SourceRunner.createTestBatchMaker("lane");
-        lastOffset = source.produce(lastOffset, 1000, batchMaker);
-        Assert.assertNotNull(lastOffset);
+      List<StageRunner.Output> outputs = runUntil(
+          runner,
+          new HashMap<>(),
+          batches -> batches.size() == s3ObjectSummaryMap.size()
+      );
+      for (StageRunner.Output output : outputs) {
+        Assert.assertNotNull(output.getNewOffset());
 
-        StageRunner.Output output = SourceRunner.getOutput(batchMaker);
         List<Record> records = output.getRecords().get("lane");
         Assert.assertEquals(1, records.size());
-
         Record record = records.get(0);
         Assert.assertTrue(record.has(FileRefUtil.FILE_INFO_FIELD_PATH));
         Assert.assertTrue(record.has(FileRefUtil.FILE_REF_FIELD_PATH));
@@ -661,6 +585,47 @@ public class TestAmazonS3Source extends AmazonS3TestSuite {
     }
   }
 
+  /**
+   * Runs the origin until the given condition on the batches with records is met.
+   */
+  private static List<StageRunner.Output> runUntil(
+      PushSourceRunner runner,
+      Map<String, String> lastOffsets,
+      Predicate<List<StageRunner.Output>> condition
+  ) throws Exception {
+    return runUntil(runner, lastOffsets, condition, output -> {});
+  }
+
+  /**
+   * Runs the origin until the given condition on the batches with records is met, passing every batch, with or
+   * without records, to the given consumer first.
+   */
+  private static List<StageRunner.Output> runUntil(
+      PushSourceRunner runner,
+      Map<String, String> lastOffsets,
+      Predicate<List<StageRunner.Output>> condition,
+      Consumer<StageRunner.Output> onBatch
+  ) throws Exception {
+    List<StageRunner.Output> outputs = Collections.synchronizedList(new ArrayList<>());
+    runner.runProduce(lastOffsets, 1000, output -> {
+      onBatch.accept(output);
+      if (!output.getRecords().get("lane").isEmpty()) {
+        outputs.add(output);
+      }
+      if (condition.test(outputs)) {
+        runner.setStop();
+      }
+    });
+    runner.waitOnProduce();
+    return outputs;
+  }
+
+  private static void assertObjectBatch(StageRunner.Output output, String objectKeySuffix) {
+    Assert.assertEquals(1, output.getRecords().get("lane").size());
+    Assert.assertTrue(output.getOffsetEntity().endsWith(objectKeySuffix));
+    Assert.assertTrue(output.getNewOffset().contains(objectKeySuffix + "::-1::"));
+  }
+
   private AmazonS3Source createSource() {
 
     S3ConfigBean s3ConfigBean = new S3ConfigBean();
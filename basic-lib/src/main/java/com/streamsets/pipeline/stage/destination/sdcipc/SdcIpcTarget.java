@@ -30,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.util.ArrayList;
@@ -124,6 +125,31 @@ public class SdcIpcTarget extends BaseTarget {
     return conn;
   }
 
+  /**
+   * Reads and closes the response so that the JDK keeps the connection alive and reuses it for the next batch sent to
+   * the same host, instead of connecting, and doing the TLS handshake, for every batch.
+   */
+  static void consumeResponse(HttpURLConnection conn) {
+    try {
+      InputStream is = (conn.getResponseCode() < HttpURLConnection.HTTP_BAD_REQUEST)
+          ? conn.getInputStream()
+          : conn.getErrorStream();
+      if (is != null) {
+        try {
+          byte[] buffer = new byte[1024];
+          while (is.read(buffer) > -1) {
+            // discard
+          }
+        } finally {
+          is.close();
+        }
+      }
+    } catch (IOException ex) {
+      LOG.debug("Could not consume response, closing connection: {}", ex.toString(), ex);
+      conn.disconnect();
+    }
+  }
+
   @Override
   public void write(Batch batch) throws StageException {
     ContextExtensions ext = (ContextExtensions) getContext();
@@ -160,6 +186,7 @@ public class SdcIpcTarget extends BaseTarget {
         } else {
           LOG.debug("Batch for entity '{}' and offset '{}' written out on retry '{}'", batch.getSourceEntity(), batch.getSourceOffset(), retryCount);
         }
+        consumeResponse(conn);
       } catch (IOException ex) {
         errorReason = ex.toString();
         LOG.warn("Batch for entity '{}' and offset '{}' could not be written out: {}", batch.getSourceEntity(), batch.getSourceOffset(), errorReason, ex);
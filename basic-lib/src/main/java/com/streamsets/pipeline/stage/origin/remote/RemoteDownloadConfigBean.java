@@ -207,4 +207,18 @@ public class RemoteDownloadConfigBean {
   )
   public String initialFileToProcess;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "0",
+      label = "Prefetch Threads",
+      description = "Number of threads, each with its own connection, that download the next files to a local " +
+          "temporary directory while the current file is processed. Use 0 to read each file from the remote " +
+          "server when it is processed. Not used for the whole file data format.",
+      displayPosition = 60,
+      group = "REMOTE",
+      min = 0
+  )
+  public int numPrefetchThreads;
+
 }
@@ -25,7 +25,7 @@ import com.streamsets.pipeline.api.StageDef;
 import com.streamsets.pipeline.api.base.configurablestage.DSource;
 
 @StageDef(
-    version = 3,
+    version = 4,
     label = "SFTP FTP Client",
     description = "Uses an SFTP/FTP client to read records from an URL.",
     icon = "sftp-client.png",
@@ -15,6 +15,7 @@
  */
 package com.streamsets.pipeline.stage.origin.remote;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.streamsets.pipeline.api.BatchMaker;
@@ -75,6 +76,7 @@ import java.util.Map;
 import java.util.NavigableSet;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 import static com.streamsets.pipeline.stage.origin.lib.DataFormatParser.DATA_FORMAT_CONFIG_PREFIX;
 
@@ -133,6 +135,8 @@ public class RemoteDownloadSource extends BaseSource {
   private DataParser parser;
   private final FileSystemOptions options = new FileSystemOptions();
   private ErrorRecordHandler errorRecordHandler;
+  private Pattern fileNamePattern;
+  private RemoteFilePrefetcher prefetcher;
 
   public RemoteDownloadSource(RemoteDownloadConfigBean conf) {
     this.conf = conf;
@@ -284,6 +288,18 @@ public class RemoteDownloadSource extends BaseSource {
     if (issues.isEmpty()) {
       rateLimitElEval = FileRefUtil.createElEvalForRateLimit(getContext());;
       rateLimitElVars = getContext().createELVars();
+      if (conf.numPrefetchThreads > 0 && conf.dataFormat != DataFormat.WHOLE_FILE) {
+        try {
+          prefetcher = new RemoteFilePrefetcher(remoteURI, options, conf.numPrefetchThreads);
+        } catch (FileSystemException ex) {
+          issues.add(getContext().createConfigIssue(
+              Groups.REMOTE.getLabel(),
+              CONF_PREFIX + "numPrefetchThreads",
+              Errors.REMOTE_18,
+              ex.getMessage()
+          ));
+        }
+      }
     }
     return issues;
   }
@@ -309,7 +325,7 @@ public class RemoteDownloadSource extends BaseSource {
           Groups.REMOTE.getLabel(), CONF_PREFIX + "filePattern", Errors.REMOTE_13, conf.filePattern));
     } else {
       try {
-        globToRegex(conf.filePattern);
+        fileNamePattern = Pattern.compile(globToRegex(conf.filePattern));
       } catch (IllegalArgumentException ex) {
         issues.add(getContext().createConfigIssue(
             Groups.REMOTE.getLabel(), CONF_PREFIX + "filePattern", Errors.REMOTE_14, conf.filePattern, ex.toString(), ex ));
@@ -410,7 +426,14 @@ public class RemoteDownloadSource extends BaseSource {
                 .build();
             parser = conf.dataFormatConfig.getParserFactory().getParser(currentOffset.offsetStr, metadata, fileRef);
           } else {
-            currentStream = next.remoteObject.getContent().getInputStream();
+            currentStream = prefetcher != null ? prefetcher.open(next) : null;
+            if (currentStream == null) {
+              currentStream = next.remoteObject.getContent().getInputStream();
+            }
+            if (prefetcher != null) {
+              // Download the files after this one while this one is parsed.
+              prefetcher.prefetch(fileQueue);
+            }
             LOG.info("Started reading file: {}", next.filename);
             parser = conf.dataFormatConfig.getParserFactory().getParser(
                 currentOffset.offsetStr, currentStream, currentOffset.offset);
@@ -645,7 +668,7 @@ public class RemoteDownloadSource extends BaseSource {
       }
 
       //check if base name matches - not full path.
-      if (!remoteFile.getName().getBaseName().matches(globToRegex(conf.filePattern))) {
+      if (!fileNamePattern.matcher(remoteFile.getName().getBaseName()).matches()) {
         continue;
       }
 
@@ -705,12 +728,20 @@ public class RemoteDownloadSource extends BaseSource {
     return false;
   }
 
+  @VisibleForTesting
+  RemoteFilePrefetcher getPrefetcher() {
+    return prefetcher;
+  }
+
   @Override
   public void destroy() {
     LOG.info(Utils.format("Destroying {}", getInfo().getInstanceName()));
     try {
       IOUtils.closeQuietly(currentStream);
       IOUtils.closeQuietly(parser);
+      if (prefetcher != null) {
+        prefetcher.close();
+      }
       if (remoteDir != null) {
         remoteDir.close();
         FileSystem fs = remoteDir.getFileSystem();
@@ -720,6 +751,7 @@ public class RemoteDownloadSource extends BaseSource {
       LOG.warn("Error during destroy", ex);
     } finally {
       remoteDir = null;
+      prefetcher = null;
       //This forces the use of same RemoteDownloadSource object
       //not to have dangling reference to old stream (which is closed)
       //Also forces to initialize the next in produce call.
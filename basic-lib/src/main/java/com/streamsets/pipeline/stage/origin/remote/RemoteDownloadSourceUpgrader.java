@@ -39,6 +39,12 @@ public class RemoteDownloadSourceUpgrader implements StageUpgrader {
         // fall through
       case 2:
         upgradeV2ToV3(configs);
+        if (toVersion == 3) {
+          break;
+        }
+        // fall through
+      case 3:
+        upgradeV3ToV4(configs);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", fromVersion));
@@ -46,6 +52,10 @@ public class RemoteDownloadSourceUpgrader implements StageUpgrader {
     return configs;
   }
 
+  private static void upgradeV3ToV4(List<Config> configs) {
+    configs.add(new Config(joiner.join(CONF, "numPrefetchThreads"), 0));
+  }
+
   private static void upgradeV2ToV3(List<Config> configs) {
     DataFormatUpgradeHelper.upgradeAvroParserWithSchemaRegistrySupport(configs);
   }
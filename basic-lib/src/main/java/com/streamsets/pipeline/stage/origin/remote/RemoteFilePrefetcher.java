@@ -0,0 +1,218 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.remote;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.impl.StandardFileSystemManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads the files that are next in line to local temporary files while the origin is still parsing the
+ * current one. Each download thread owns its own file system manager and therefore its own connection to the
+ * remote server, so downloads neither wait on each other nor on the connection the origin uses for listing.
+ */
+class RemoteFilePrefetcher implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(RemoteFilePrefetcher.class);
+  private static final String TMP_FILE_PREFIX = "sdc-remote-download-";
+  private static final long SHUTDOWN_WAIT_SECS = 10;
+
+  private final URI remoteURI;
+  private final FileSystemOptions options;
+  private final int maxPrefetched;
+  private final List<StandardFileSystemManager> allSessions = new ArrayList<>();
+  private final BlockingQueue<StandardFileSystemManager> sessions;
+  private final ExecutorService executor;
+  // Downloads in origin processing order, keyed by file name and modification time.
+  private final Map<String, Future<Path>> downloads = new LinkedHashMap<>();
+  private final AtomicInteger openedCopies = new AtomicInteger();
+
+  RemoteFilePrefetcher(URI remoteURI, FileSystemOptions options, int numThreads) throws FileSystemException {
+    this.remoteURI = remoteURI;
+    this.options = options;
+    this.maxPrefetched = numThreads;
+    this.sessions = new ArrayBlockingQueue<>(numThreads);
+    for (int i = 0; i < numThreads; i++) {
+      StandardFileSystemManager manager = new StandardFileSystemManager();
+      manager.init();
+      allSessions.add(manager);
+      sessions.add(manager);
+    }
+    this.executor = Executors.newFixedThreadPool(
+        numThreads,
+        new ThreadFactoryBuilder().setNameFormat("remote-download-prefetch-%d").setDaemon(true).build()
+    );
+  }
+
+  /**
+   * Schedules downloads for the first files of the given queue until the configured number of files are
+   * downloaded or in flight. Files already scheduled are not downloaded again.
+   */
+  synchronized void prefetch(Iterable<RemoteFile> upcoming) {
+    Iterator<RemoteFile> iterator = upcoming.iterator();
+    while (downloads.size() < maxPrefetched && iterator.hasNext()) {
+      final RemoteFile remoteFile = iterator.next();
+      String key = getKey(remoteFile);
+      if (!downloads.containsKey(key)) {
+        downloads.put(key, executor.submit(() -> download(remoteFile)));
+      }
+    }
+  }
+
+  /**
+   * Returns a stream over the prefetched copy of the given file, waiting for its download to finish, or null
+   * when the file was not prefetched or its download failed. The local copy is deleted when the stream is closed.
+   * Files scheduled ahead of this one were skipped by the origin, so their copies are discarded.
+   */
+  InputStream open(RemoteFile remoteFile) throws IOException {
+    Future<Path> download = null;
+    String key = getKey(remoteFile);
+    synchronized (this) {
+      if (downloads.containsKey(key)) {
+        Iterator<Map.Entry<String, Future<Path>>> iterator = downloads.entrySet().iterator();
+        while (download == null) {
+          Map.Entry<String, Future<Path>> entry = iterator.next();
+          iterator.remove();
+          if (entry.getKey().equals(key)) {
+            download = entry.getValue();
+          } else {
+            deleteWhenDone(entry.getValue());
+          }
+        }
+      }
+    }
+    if (download == null) {
+      return null;
+    }
+    final Path localCopy;
+    try {
+      localCopy = download.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      deleteWhenDone(download);
+      return null;
+    } catch (ExecutionException ex) {
+      LOG.warn("Prefetching file '{}' failed, reading it from the remote server", remoteFile.filename, ex.getCause());
+      return null;
+    }
+    InputStream is = new FilterInputStream(new FileInputStream(localCopy.toFile())) {
+      @Override
+      public void close() throws IOException {
+        try {
+          super.close();
+        } finally {
+          Files.deleteIfExists(localCopy);
+        }
+      }
+    };
+    openedCopies.incrementAndGet();
+    return is;
+  }
+
+  /**
+   * Number of files read from their prefetched copy rather than from the remote server.
+   */
+  @VisibleForTesting
+  int getOpenedCopies() {
+    return openedCopies.get();
+  }
+
+  private Path download(RemoteFile remoteFile) throws IOException, InterruptedException {
+    Path localCopy = Files.createTempFile(TMP_FILE_PREFIX, ".tmp");
+    StandardFileSystemManager session = null;
+    try {
+      session = sessions.take();
+      FileObject root = session.resolveFile(remoteURI.toString(), options);
+      try (FileObject file = root.getFileSystem().resolveFile(remoteFile.filename);
+           InputStream is = file.getContent().getInputStream();
+           OutputStream os = Files.newOutputStream(localCopy)) {
+        IOUtils.copyLarge(is, os);
+      }
+      if (Thread.currentThread().isInterrupted()) {
+        throw new InterruptedException("Prefetch of '" + remoteFile.filename + "' was cancelled");
+      }
+      LOG.debug("Prefetched file '{}'", remoteFile.filename);
+      return localCopy;
+    } catch (IOException | InterruptedException | RuntimeException ex) {
+      Files.deleteIfExists(localCopy);
+      throw ex;
+    } finally {
+      if (session != null) {
+        sessions.add(session);
+      }
+    }
+  }
+
+  private static void deleteWhenDone(Future<Path> download) {
+    if (!download.cancel(true) && download.isDone()) {
+      try {
+        Files.deleteIfExists(download.get());
+      } catch (Exception ex) {
+        LOG.debug("Could not delete prefetched file", ex);
+      }
+    }
+  }
+
+  private static String getKey(RemoteFile remoteFile) {
+    return remoteFile.filename + "::" + remoteFile.lastModified;
+  }
+
+  @Override
+  public synchronized void close() {
+    executor.shutdownNow();
+    for (Future<Path> download : downloads.values()) {
+      deleteWhenDone(download);
+    }
+    downloads.clear();
+    try {
+      if (!executor.awaitTermination(SHUTDOWN_WAIT_SECS, TimeUnit.SECONDS)) {
+        LOG.warn("Prefetch threads did not finish within {} seconds", SHUTDOWN_WAIT_SECS);
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    for (StandardFileSystemManager session : allSessions) {
+      session.close();
+    }
+  }
+}
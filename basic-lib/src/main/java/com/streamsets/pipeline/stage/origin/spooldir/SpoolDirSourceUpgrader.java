@@ -22,6 +22,7 @@ import com.streamsets.pipeline.api.StageUpgrader;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.config.Compression;
 import com.streamsets.pipeline.config.upgrade.DataFormatUpgradeHelper;
+import com.streamsets.pipeline.lib.dirspooler.FileDiscoveryMode;
 import com.streamsets.pipeline.lib.dirspooler.FileOrdering;
 import com.streamsets.pipeline.lib.dirspooler.PathMatcherMode;
 
@@ -93,6 +94,18 @@ public class SpoolDirSourceUpgrader implements StageUpgrader {
         // fall through
       case 9:
         upgradeV9ToV10(configs);
+        if (toVersion == 10) {
+          break;
+        }
+        // fall through
+      case 10:
+        upgradeV10ToV11(configs);
+        if (toVersion == 11) {
+          break;
+        }
+        // fall through
+      case 11:
+        upgradeV11ToV12(configs);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", fromVersion));
@@ -100,6 +113,16 @@ public class SpoolDirSourceUpgrader implements StageUpgrader {
     return configs;
   }
 
+  private void upgradeV11ToV12(List<Config> configs) {
+    configs.add(new Config(joiner.join(CONF, "splitSizeMB"), 0));
+  }
+
+  private void upgradeV10ToV11(List<Config> configs) {
+    configs.add(new Config(joiner.join(CONF, "discoveryMode"), FileDiscoveryMode.SCAN));
+    configs.add(new Config(joiner.join(CONF, "reconciliationPeriod"), 300));
+    configs.add(new Config(joiner.join(CONF, "catalogDir"), ""));
+  }
+
   private void upgradeV9ToV10(List<Config> configs) {
     configs.add(new Config(joiner.join(CONF, "spoolingPeriod"), 5));
   }
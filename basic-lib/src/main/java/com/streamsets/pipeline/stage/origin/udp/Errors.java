@@ -30,6 +30,7 @@ public enum Errors implements ErrorCode {
   UDP_06("collectd Auth File '{}' not found"),
   UDP_07("Insufficient permissions to listen on privileged port {}"),
   UDP_08("Multithreaded UDP server is not available on your platform."),
+  UDP_09("Per worker sockets require epoll to be enabled"),
   ;
 
   private final String msg;
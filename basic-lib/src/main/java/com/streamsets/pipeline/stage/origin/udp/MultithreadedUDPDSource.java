@@ -26,11 +26,12 @@ import com.streamsets.pipeline.api.base.configurablestage.DPushSource;
 import com.streamsets.pipeline.api.impl.Utils;
 
 @StageDef(
-    version = 1,
+    version = 2,
     label = "UDP Multithreaded Source",
     description = "Listens for UDP messages on one or more port(s) and queues incoming packets on an intermediate" +
         " queue, from which multiple worker threads can process them",
     icon = "udp.png",
+    upgrader = MultithreadedUDPSourceUpgrader.class,
     execution = ExecutionMode.STANDALONE,
     recordsByRef = true,
     onlineHelpRefUrl ="index.html?contextID=task_g2k_v5f_5bb"
@@ -67,6 +68,21 @@ public class MultithreadedUDPDSource extends DPushSource {
   )
   public int numWorkerThreads;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Use Per Worker Sockets",
+      description = "Binds one socket per worker thread on each port with SO_REUSEPORT so that the kernel spreads" +
+          " packets across workers, each with its own receiver thread and lock-free packet queue of Packet Queue" +
+          " Size packets. Receiver threads are not used. Requires epoll.",
+      defaultValue = "false",
+      group = "UDP",
+      dependsOn = "configs.enableEpoll",
+      triggeredByValue = "true",
+      displayPosition = 220
+  )
+  public boolean perWorkerSockets;
+
   @Override
   protected PushSource createPushSource() {
     Utils.checkNotNull(configs.dataFormat, "Data format cannot be null");
@@ -75,7 +91,8 @@ public class MultithreadedUDPDSource extends DPushSource {
     return new MultithreadedUDPSource(
         configs,
         packetQueueSize,
-        numWorkerThreads
+        numWorkerThreads,
+        perWorkerSockets
     );
   }
 }
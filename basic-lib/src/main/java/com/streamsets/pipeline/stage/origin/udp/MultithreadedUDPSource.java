@@ -22,8 +22,12 @@ import com.streamsets.pipeline.api.base.BasePushSource;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
+import com.streamsets.pipeline.lib.network.BaseNettyServer;
 import com.streamsets.pipeline.lib.parser.udp.AbstractParser;
 import com.streamsets.pipeline.lib.udp.PacketQueueUDPHandler;
+import com.streamsets.pipeline.lib.udp.PacketRing;
+import com.streamsets.pipeline.lib.udp.PacketRingUDPHandler;
+import com.streamsets.pipeline.lib.udp.PerWorkerSocketUDPServer;
 import com.streamsets.pipeline.lib.udp.UDPConsumingServer;
 import com.streamsets.pipeline.lib.util.ThreadUtil;
 import io.netty.channel.socket.DatagramPacket;
@@ -51,23 +55,35 @@ public class MultithreadedUDPSource extends BasePushSource {
 
   private final SafeScheduledExecutorService executorService;
   private long recordCount;
-  private UDPConsumingServer udpServer;
+  private BaseNettyServer udpServer;
   private AbstractParser parser;
 
   private PacketQueueUDPHandler handler;
+  private List<PacketRing> packetRings;
 
   private final UDPSourceConfigBean configs;
   private final int packetQueueSize;
   private final int numWorkerThreads;
+  private final boolean perWorkerSockets;
 
   public MultithreadedUDPSource(
       UDPSourceConfigBean configs,
       int packetQueueSize,
       int numWorkerThreads
+  ) {
+    this(configs, packetQueueSize, numWorkerThreads, false);
+  }
+
+  public MultithreadedUDPSource(
+      UDPSourceConfigBean configs,
+      int packetQueueSize,
+      int numWorkerThreads,
+      boolean perWorkerSockets
   ) {
     this.configs = configs;
     this.packetQueueSize = packetQueueSize;
     this.numWorkerThreads = numWorkerThreads;
+    this.perWorkerSockets = perWorkerSockets;
 
     executorService = new SafeScheduledExecutorService(this.numWorkerThreads, "UDP_Source_Worker_");
 
@@ -78,14 +94,28 @@ public class MultithreadedUDPSource extends BasePushSource {
     List<ConfigIssue> issues = new ArrayList<>();
 
     boolean valid = configs.init(getContext(), issues);
+    if (perWorkerSockets && !configs.enableEpoll) {
+      issues.add(getContext().createConfigIssue(Groups.UDP.name(), "perWorkerSockets", Errors.UDP_09));
+    }
     this.recordCount = 0;
     if (valid && issues.isEmpty()) {
       parser = configs.getParser();
       final List<InetSocketAddress> addresses = configs.getAddresses();
       if (!addresses.isEmpty()) {
         final Map<String, Object> gaugeMap = getContext().createGauge(PACKET_QUEUE_GAUGE_NAME).getValue();
-        handler = new PacketQueueUDPHandler(gaugeMap, packetQueueSize);
-        udpServer = new UDPConsumingServer(configs.enableEpoll, configs.numThreads, addresses, handler);
+        if (perWorkerSockets) {
+          List<PacketRingUDPHandler> ringHandlers = new ArrayList<>(numWorkerThreads);
+          packetRings = new ArrayList<>(numWorkerThreads);
+          for (int i = 0; i < numWorkerThreads; i++) {
+            PacketRingUDPHandler ringHandler = new PacketRingUDPHandler(gaugeMap, i, packetQueueSize);
+            ringHandlers.add(ringHandler);
+            packetRings.add(ringHandler.getPacketRing());
+          }
+          udpServer = new PerWorkerSocketUDPServer(addresses, ringHandlers);
+        } else {
+          handler = new PacketQueueUDPHandler(gaugeMap, packetQueueSize);
+          udpServer = new UDPConsumingServer(configs.enableEpoll, configs.numThreads, addresses, handler);
+        }
         try {
           udpServer.listen();
           udpServer.start();
@@ -119,6 +149,12 @@ public class MultithreadedUDPSource extends BasePushSource {
       udpServer.destroy();
       udpServer = null;
     }
+    if (packetRings != null) {
+      for (PacketRing packetRing : packetRings) {
+        packetRing.clear();
+      }
+      packetRings = null;
+    }
     super.destroy();
   }
 
@@ -142,6 +178,8 @@ public class MultithreadedUDPSource extends BasePushSource {
 
       List<Future> allFutures = new LinkedList<>();
       IntStream.range(0, numWorkerThreads).forEach(threadNumber -> {
+        // With per worker sockets every worker drains only its own ring.
+        final PacketRing packetRing = perWorkerSockets ? packetRings.get(threadNumber) : null;
         Runnable runnable = new Runnable() {
           @Override
           public void run() {
@@ -157,11 +195,16 @@ public class MultithreadedUDPSource extends BasePushSource {
                 long start = System.currentTimeMillis();
                 //ParseResult result = incomingQueue.poll(remainingTime, TimeUnit.MILLISECONDS);
 
-                final DatagramPacket packet = handler.getPacketQueue().poll(remainingTime, TimeUnit.MILLISECONDS);
+                final DatagramPacket packet = packetRing != null
+                    ? packetRing.poll(remainingTime, TimeUnit.MILLISECONDS)
+                    : handler.getPacketQueue().poll(remainingTime, TimeUnit.MILLISECONDS);
                 List<Record> records = null;
                 if (packet != null) {
                   if (LOG.isTraceEnabled()) {
-                    LOG.trace("Took packet; new size: {}", handler.getPacketQueue().size());
+                    LOG.trace(
+                        "Took packet; new size: {}",
+                        packetRing != null ? packetRing.size() : handler.getPacketQueue().size()
+                    );
                   }
 
                   try {
@@ -23,7 +23,7 @@ import com.streamsets.pipeline.api.StageDef;
 import com.streamsets.pipeline.api.base.configurablestage.DProcessor;
 
 @StageDef(
-    version=2,
+    version=3,
     label="Aggregator",
     description = "Aggregates data that arrives within a window of time",
     icon="aggregation.png",
@@ -23,16 +23,27 @@ import com.streamsets.pipeline.api.el.ELVars;
 import com.streamsets.pipeline.lib.el.RecordEL;
 import com.streamsets.pipeline.lib.el.TimeNowEL;
 import com.streamsets.pipeline.stage.processor.aggregation.aggregator.Aggregator;
+import com.streamsets.pipeline.stage.processor.aggregation.aggregator.AggregatorData;
 import com.streamsets.pipeline.stage.processor.aggregation.aggregator.Aggregators;
-import com.streamsets.pipeline.stage.processor.aggregation.aggregator.GroupByAggregator;
-import com.streamsets.pipeline.stage.processor.aggregation.aggregator.SimpleAggregator;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * An AggregationEvaluator handles an aggregation defined by a configuration including the Metrics reporting.
+ * <p/>
+ * Each pipeline runner thread evaluates records into its own partial aggregation, so runners do not contend on the
+ * aggregator. Partial aggregations are aggregated into the aggregator by {@link #flush()}, at the end of each batch,
+ * and by {@link #flushAll()}, before the window rolls.
  */
 public class AggregationEvaluator {
+
+  private static class Partial {
+    private AggregatorData data;
+  }
+
   private final Processor.Context context;
   private final WindowType windowType;
   private final String timeWindowLabel;
@@ -45,6 +56,12 @@ public class AggregationEvaluator {
   private Aggregator aggregator;
   private boolean groupBy;
   private AggregatorMetric metric;
+  private final List<Partial> partials = new CopyOnWriteArrayList<>();
+  private final ThreadLocal<Partial> threadPartial = ThreadLocal.withInitial(() -> {
+    Partial partial = new Partial();
+    partials.add(partial);
+    return partial;
+  });
 
   public AggregationEvaluator(
       Processor.Context context,
@@ -74,7 +91,11 @@ public class AggregationEvaluator {
     groupBy = config.groupBy;
     if (groupBy) {
       groupByEval = context.createELEval("groupByExpression");
-      aggregator = aggregators.createGroupBy(config.aggregationName, function.getAggregatorClass());
+      aggregator = aggregators.createGroupBy(
+          config.aggregationName,
+          function.getAggregatorClass(),
+          config.maxGroups
+      );
     } else {
       aggregator = aggregators.createSimple(config.aggregationName, function.getAggregatorClass());
     }
@@ -99,12 +120,45 @@ public class AggregationEvaluator {
     RecordEL.setRecordInContext(vars, record);
     TimeNowEL.setTimeNowInContext(vars, new Date());
     if (filterEval == null || filterEval.eval(vars, config.filterPredicate, Boolean.class)) {
-      Number aggregationValue = (Number) valueEval.eval(vars, config.aggregationExpression, aggregator.getValueType());
-      if (groupBy) {
-        String group = groupByEval.eval(vars, config.groupByExpression, String.class);
-        ((GroupByAggregator) aggregator).process(group, aggregationValue);
-      } else {
-        ((SimpleAggregator) aggregator).process(aggregationValue);
+      Object aggregationValue = valueEval.eval(vars, config.aggregationExpression, aggregator.getInputType());
+      String group = (groupBy) ? groupByEval.eval(vars, config.groupByExpression, String.class) : null;
+      Partial partial = threadPartial.get();
+      // only contended by flushAll() when the window rolls
+      synchronized (partial) {
+        if (partial.data == null) {
+          partial.data = aggregators.createPartialData(aggregator);
+        }
+        if (groupBy) {
+          partial.data.process(Collections.singletonMap(group, aggregationValue));
+        } else {
+          partial.data.process(aggregationValue);
+        }
+      }
+    }
+  }
+
+  /**
+   * Aggregates the partial aggregation of the calling pipeline runner thread into the aggregator.
+   */
+  public void flush() {
+    flush(threadPartial.get());
+  }
+
+  /**
+   * Aggregates the partial aggregations of all pipeline runner threads into the aggregator.
+   */
+  public void flushAll() {
+    for (Partial partial : partials) {
+      flush(partial);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void flush(Partial partial) {
+    synchronized (partial) {
+      if (partial.data != null) {
+        aggregator.aggregate(partial.data.getAggregatable());
+        partial.data = null;
       }
     }
   }
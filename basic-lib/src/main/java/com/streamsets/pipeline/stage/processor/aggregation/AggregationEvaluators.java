@@ -118,6 +118,7 @@ public class AggregationEvaluators {
 
   public void destroy() {
     executor.shutdownNow();
+    flushAll();
     Map<Aggregator, AggregatorData> allAggregatorsDataMap = aggregators.stop();
     prepareEvents(allAggregatorsDataMap);
   }
@@ -131,6 +132,7 @@ public class AggregationEvaluators {
     long newWindowCloseTime =
         config.getRollingTimeWindow().getCurrentWindowCloseTimeMillis(config.getTimeZone(), getNowMillis());
     try {
+      flushAll();
       Map<Aggregator, AggregatorData> data = aggregators.roll(newWindowCloseTime);
       prepareEvents(data);
     } catch (Exception ex) {
@@ -164,6 +166,21 @@ public class AggregationEvaluators {
     }
   }
 
+  /**
+   * Aggregates the partial aggregations of the calling pipeline runner thread, to be invoked at the end of each batch.
+   */
+  public void flush() {
+    for (AggregationEvaluator evaluator : evaluators) {
+      evaluator.flush();
+    }
+  }
+
+  private void flushAll() {
+    for (AggregationEvaluator evaluator : evaluators) {
+      evaluator.flushAll();
+    }
+  }
+
   private void createEventRecord(Object data, String eventType, String recordSrcId) {
     EventRecord windowRollEvent = context.createEventRecord(eventType, 1, recordSrcId);
     JsonMapper json = DataCollectorServices.instance().get(JsonMapper.SERVICE_KEY);
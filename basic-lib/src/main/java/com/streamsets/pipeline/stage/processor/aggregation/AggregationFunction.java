@@ -18,9 +18,11 @@ package com.streamsets.pipeline.stage.processor.aggregation;
 import com.streamsets.pipeline.api.Label;
 import com.streamsets.pipeline.stage.processor.aggregation.aggregator.Aggregator;
 import com.streamsets.pipeline.stage.processor.aggregation.aggregator.CountAggregator;
+import com.streamsets.pipeline.stage.processor.aggregation.aggregator.CountDistinctAggregator;
 import com.streamsets.pipeline.stage.processor.aggregation.aggregator.DoubleAvgAggregator;
 import com.streamsets.pipeline.stage.processor.aggregation.aggregator.DoubleMaxAggregator;
 import com.streamsets.pipeline.stage.processor.aggregation.aggregator.DoubleMinAggregator;
+import com.streamsets.pipeline.stage.processor.aggregation.aggregator.DoublePercentileAggregator;
 import com.streamsets.pipeline.stage.processor.aggregation.aggregator.DoubleStdDevAggregator;
 import com.streamsets.pipeline.stage.processor.aggregation.aggregator.DoubleSumAggregator;
 import com.streamsets.pipeline.stage.processor.aggregation.aggregator.LongAvgAggregator;
@@ -39,6 +41,10 @@ public enum AggregationFunction implements Label {
   MAX_INTEGER("MAX (int)", LongMaxAggregator.class),
   SUM_DOUBLE("SUM (double)", DoubleSumAggregator.class),
   SUM_INTEGER("SUM (int)", LongSumAggregator.class),
+  COUNT_DISTINCT("COUNT DISTINCT (approx)", CountDistinctAggregator.class),
+  PERCENTILE_50("PERCENTILE 50 (approx)", DoublePercentileAggregator.P50.class),
+  PERCENTILE_95("PERCENTILE 95 (approx)", DoublePercentileAggregator.P95.class),
+  PERCENTILE_99("PERCENTILE 99 (approx)", DoublePercentileAggregator.P99.class),
   ;
 
   private final String label;
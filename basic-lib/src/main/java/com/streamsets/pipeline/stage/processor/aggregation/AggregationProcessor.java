@@ -75,6 +75,7 @@ public class AggregationProcessor extends SingleLaneProcessor {
       evaluators.evaluate(record);
       singleLaneBatchMaker.addRecord(record);
     }
+    evaluators.flush();
     publishEventRecordsIfAny();
   }
 
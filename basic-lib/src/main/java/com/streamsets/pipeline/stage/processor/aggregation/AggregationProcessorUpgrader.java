@@ -21,7 +21,10 @@ import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.StageUpgrader;
 import com.streamsets.pipeline.api.impl.Utils;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class AggregationProcessorUpgrader implements StageUpgrader {
 
@@ -29,6 +32,8 @@ public class AggregationProcessorUpgrader implements StageUpgrader {
 
   static final String CONFIG = "config";
   static final String EVENT_RECORD_TEXT_FIELD = "eventRecordWithTextField";
+  static final String AGGREGATOR_CONFIGS = "aggregatorConfigs";
+  static final String MAX_GROUPS = "maxGroups";
 
   @Override
   public List<Config> upgrade(String library, String stageName, String stageInstance, int fromVersion, int toVersion,
@@ -36,6 +41,12 @@ public class AggregationProcessorUpgrader implements StageUpgrader {
     switch(fromVersion) {
       case 1:
         upgradeV1ToV2(configs);
+        if (toVersion == 2) {
+          break;
+        }
+        // fall through
+      case 2:
+        upgradeV2ToV3(configs);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", fromVersion));
@@ -47,4 +58,22 @@ public class AggregationProcessorUpgrader implements StageUpgrader {
     // set value to be true to be compatible with existing behavior
     configs.add(new Config(JOINER.join(CONFIG, EVENT_RECORD_TEXT_FIELD), true));
   }
+
+  @SuppressWarnings("unchecked")
+  private void upgradeV2ToV3(List<Config> configs) {
+    String aggregatorConfigsName = JOINER.join(CONFIG, AGGREGATOR_CONFIGS);
+    for (int i = 0; i < configs.size(); i++) {
+      Config config = configs.get(i);
+      if (aggregatorConfigsName.equals(config.getName()) && config.getValue() != null) {
+        List<Map<String, Object>> aggregatorConfigs = new ArrayList<>();
+        for (Map<String, Object> aggregatorConfig : (List<Map<String, Object>>) config.getValue()) {
+          Map<String, Object> upgraded = new LinkedHashMap<>(aggregatorConfig);
+          // unbounded, as before
+          upgraded.put(MAX_GROUPS, 0);
+          aggregatorConfigs.add(upgraded);
+        }
+        configs.set(i, new Config(aggregatorConfigsName, aggregatorConfigs));
+      }
+    }
+  }
 }
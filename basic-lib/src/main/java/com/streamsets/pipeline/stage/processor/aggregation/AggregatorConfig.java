@@ -19,6 +19,7 @@ import com.streamsets.pipeline.api.ConfigDef;
 import com.streamsets.pipeline.api.ValueChooserModel;
 import com.streamsets.pipeline.lib.el.RecordEL;
 import com.streamsets.pipeline.lib.el.TimeNowEL;
+import com.streamsets.pipeline.stage.processor.aggregation.aggregator.GroupByAggregator;
 
 public class AggregatorConfig {
 
@@ -104,7 +105,7 @@ public class AggregatorConfig {
       evaluation = ConfigDef.Evaluation.EXPLICIT,
       group = "AGGREGATIONS",
       dependsOn = "aggregationFunction",
-      triggeredByValue = {"AVG_DOUBLE", "AVG_INTEGER", "STD_DEV", "MIN_DOUBLE", "MIN_INTEGER", "MAX_DOUBLE", "MAX_INTEGER", "SUM_DOUBLE", "SUM_INTEGER"}
+      triggeredByValue = {"AVG_DOUBLE", "AVG_INTEGER", "STD_DEV", "MIN_DOUBLE", "MIN_INTEGER", "MAX_DOUBLE", "MAX_INTEGER", "SUM_DOUBLE", "SUM_INTEGER", "COUNT_DISTINCT", "PERCENTILE_50", "PERCENTILE_95", "PERCENTILE_99"}
   )
   public String aggregationExpression;
 
@@ -134,6 +135,19 @@ public class AggregatorConfig {
   )
   public String groupByExpression;
 
-
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "0",
+      label = "Max Groups",
+      description = "Maximum number of groups to keep per time window, the most frequent ones. Values of all other " +
+          "groups are aggregated into the '" + GroupByAggregator.OTHER_GROUPS + "' group. Use 0 for no limit",
+      displayPosition = 80,
+      dependsOn = "groupBy",
+      triggeredByValue = "true",
+      group = "AGGREGATIONS",
+      min = 0
+  )
+  public int maxGroups;
 
 }
@@ -46,6 +46,8 @@ public abstract class Aggregator<A extends Aggregator, T> {
     }
 
     String getName();
+
+    Aggregatable<A> setName(String name);
   }
 
   private final String name;
@@ -71,6 +73,15 @@ public abstract class Aggregator<A extends Aggregator, T> {
     return valueType;
   }
 
+  /**
+   * Returns the type the values to aggregate must be evaluated to, by default the type of the aggregated value.
+   *
+   * @return the type the values to aggregate must be evaluated to.
+   */
+  public Class<?> getInputType() {
+    return valueType;
+  }
+
   /**
    * Returns the name of the aggregator.
    * @return the name of the aggregator.
@@ -90,6 +101,18 @@ public abstract class Aggregator<A extends Aggregator, T> {
    */
   abstract AggregatorData createAggregatorData(long timeWindowMillis);
 
+  /**
+   * Creates an AggregatorData to accumulate a partial aggregation that is later aggregated into the Aggregator.
+   * <p/>
+   * By default it is the same as {@link #createAggregatorData(long)}.
+   *
+   * @return a new AggregatorData instance.
+   * @param timeWindowMillis
+   */
+  AggregatorData createPartialAggregatorData(long timeWindowMillis) {
+    return createAggregatorData(timeWindowMillis);
+  }
+
   /**
    * Sets the DataProvider for the Aggregator.
    *
@@ -33,6 +33,7 @@ public class Aggregators {
 
   private static final Set<Class<? extends SimpleAggregator>> AGGREGATOR_CLASSES = ImmutableSet.of(
       CountAggregator.class,
+      CountDistinctAggregator.class,
       DoubleAvgAggregator.class,
       LongAvgAggregator.class,
       DoubleMinAggregator.class,
@@ -40,6 +41,9 @@ public class Aggregators {
       DoubleMaxAggregator.class,
       LongMaxAggregator.class,
       DoubleStdDevAggregator.class,
+      DoublePercentileAggregator.P50.class,
+      DoublePercentileAggregator.P95.class,
+      DoublePercentileAggregator.P99.class,
       DoubleSumAggregator.class,
       LongSumAggregator.class
   );
@@ -118,6 +122,21 @@ public class Aggregators {
     }
   }
 
+  /**
+   * Returns the type the values to aggregate must be evaluated to for an aggregator type.
+   *
+   * @param klass the aggregator class.
+   * @return the type the values to aggregate must be evaluated to.
+   */
+  <A extends SimpleAggregator> Class<?> getAggregatorInputType(Class<A> klass) {
+    try {
+      A aggregator = (A) CONSTRUCTORS.get(klass).newInstance("forAggregatorTypeDiscoveryOnly");
+      return aggregator.getInputType();
+    } catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
   /**
    * Creates an AggregatorData.
    *
@@ -145,17 +164,45 @@ public class Aggregators {
    * @param aKlass simple aggregator class backing each group-by element.
    * @return a group-by aggregator.
    */
-  @SuppressWarnings("unchecked")
   public <A extends SimpleAggregator, N extends Number> GroupByAggregator<A, N> createGroupBy(
       String name, Class<? extends Aggregator> aKlass
+  ) {
+    return createGroupBy(name, aKlass, 0);
+  }
+
+  /**
+   * Creates a group-by Agregator that keeps at most a given number of groups, the most frequent ones.
+   *
+   * @param name name of the group-by Aggregator.
+   * @param aKlass simple aggregator class backing each group-by element.
+   * @param maxGroups maximum number of groups to keep, zero for unbounded.
+   * @return a group-by aggregator.
+   */
+  @SuppressWarnings("unchecked")
+  public <A extends SimpleAggregator, N extends Number> GroupByAggregator<A, N> createGroupBy(
+      String name, Class<? extends Aggregator> aKlass, int maxGroups
   ) {
     Utils.checkState(!started, "Already started");
-    GroupByAggregator<A, N> aggregator = new GroupByAggregator(name, aKlass, this);
+    GroupByAggregator<A, N> aggregator = new GroupByAggregator(name, aKlass, this, maxGroups);
     dataProvider.addAggregator(aggregator);
     aggregator.setDataProvider(dataProvider);
     return aggregator;
   }
 
+  /**
+   * Creates an AggregatorData, for the current DataWindow, that is not backing the given Aggregator.
+   * <p/>
+   * It is used to accumulate a partial aggregation without contention, the partial aggregation is later aggregated
+   * into the Aggregator via {@link Aggregator#aggregate(Aggregator.Aggregatable)}.
+   *
+   * @param aggregator the Aggregator to create the partial AggregatorData for.
+   * @return a new AggregatorData instance.
+   */
+  public AggregatorData createPartialData(Aggregator aggregator) {
+    Utils.checkState(started, "Not started");
+    return aggregator.createPartialAggregatorData(dataProvider.getData(aggregator).getTime());
+  }
+
   /**
    * Starts the Aggregators instance.
    *
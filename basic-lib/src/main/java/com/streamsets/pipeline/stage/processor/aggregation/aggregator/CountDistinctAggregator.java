@@ -0,0 +1,131 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.aggregation.aggregator;
+
+import com.streamsets.pipeline.api.impl.Utils;
+
+/**
+ * Approximate Count Distinct Aggregator, backed by a HyperLogLog sketch.
+ * <p/>
+ * The aggregated values can be of any type, they are hashed using their String representation.
+ */
+public class CountDistinctAggregator extends SimpleAggregator<CountDistinctAggregator, Object> {
+
+  public static class CountDistinctAggregatable implements Aggregatable<CountDistinctAggregator> {
+    private String name;
+    private long count;
+    private HyperLogLog sketch;
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    public CountDistinctAggregatable setName(String name) {
+      this.name = name;
+      return this;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public CountDistinctAggregatable setCount(long count) {
+      this.count = count;
+      return this;
+    }
+
+    // not a bean property to keep the sketch out of the window event records
+    HyperLogLog sketch() {
+      return sketch;
+    }
+
+    CountDistinctAggregatable setSketch(HyperLogLog sketch) {
+      this.sketch = sketch;
+      return this;
+    }
+  }
+
+  private class Data extends AggregatorData<CountDistinctAggregator, Object> {
+    private final HyperLogLog sketch;
+
+    public Data(String name, long time) {
+      super(name, time);
+      sketch = new HyperLogLog();
+    }
+
+    @Override
+    public String getName() {
+      return CountDistinctAggregator.this.getName();
+    }
+
+    @Override
+    public void process(Object value) {
+      if (value != null) {
+        synchronized (this) {
+          sketch.add(value);
+        }
+      }
+    }
+
+    @Override
+    public synchronized Object get() {
+      return sketch.estimate();
+    }
+
+    @Override
+    public Aggregatable<CountDistinctAggregator> getAggregatable() {
+      CountDistinctAggregatable aggregatable = new CountDistinctAggregatable().setName(getName());
+      synchronized (this) {
+        aggregatable.setCount(sketch.estimate()).setSketch(sketch.copy());
+      }
+      return aggregatable;
+    }
+
+    @Override
+    public void aggregate(Aggregatable<CountDistinctAggregator> aggregatable) {
+      Utils.checkNotNull(aggregatable, "aggregatable");
+      Utils.checkArgument(
+          getName().equals(aggregatable.getName()),
+          Utils.formatL("Aggregable '{}' does not match this aggregation '{}", aggregatable.getName(), getName())
+      );
+      Utils.checkArgument(aggregatable instanceof CountDistinctAggregatable, Utils.formatL(
+          "Aggregatable '{}' is a '{}' it should be '{}'",
+          getName(),
+          aggregatable.getClass().getSimpleName(),
+          CountDistinctAggregatable.class.getSimpleName()
+      ));
+      synchronized (this) {
+        sketch.merge(((CountDistinctAggregatable) aggregatable).sketch());
+      }
+    }
+  }
+
+  public CountDistinctAggregator(String name) {
+    super(Long.class, name);
+  }
+
+  @Override
+  public Class<?> getInputType() {
+    return Object.class;
+  }
+
+  @Override
+  public AggregatorData createAggregatorData(long timeWindowMillis) {
+    return new Data(getName(), timeWindowMillis);
+  }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.aggregation.aggregator;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Count-min sketch to estimate the frequency of keys in fixed memory. Estimates never undercount.
+ */
+class CountMinSketch {
+  static final int DEPTH = 4;
+  static final int WIDTH = 2048;
+  private static final HashFunction HASH = Hashing.murmur3_128();
+
+  private final long[][] counters;
+
+  CountMinSketch() {
+    counters = new long[DEPTH][WIDTH];
+  }
+
+  private static int[] indexes(String key) {
+    long hash = HASH.hashString(key, StandardCharsets.UTF_8).asLong();
+    int hash1 = (int) hash;
+    int hash2 = (int) (hash >>> 32);
+    int[] indexes = new int[DEPTH];
+    for (int i = 0; i < DEPTH; i++) {
+      indexes[i] = ((hash1 + i * hash2) & Integer.MAX_VALUE) % WIDTH;
+    }
+    return indexes;
+  }
+
+  /**
+   * Adds the count to the key and returns the new frequency estimate of the key.
+   */
+  long add(String key, long count) {
+    int[] indexes = indexes(key);
+    long estimate = Long.MAX_VALUE;
+    for (int i = 0; i < DEPTH; i++) {
+      counters[i][indexes[i]] += count;
+      estimate = Math.min(estimate, counters[i][indexes[i]]);
+    }
+    return estimate;
+  }
+
+  long estimate(String key) {
+    int[] indexes = indexes(key);
+    long estimate = Long.MAX_VALUE;
+    for (int i = 0; i < DEPTH; i++) {
+      estimate = Math.min(estimate, counters[i][indexes[i]]);
+    }
+    return estimate;
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.aggregation.aggregator;
+
+import com.streamsets.pipeline.api.impl.Utils;
+
+/**
+ * Approximate Percentile Aggregator, backed by a t-digest sketch.
+ * <p/>
+ * Aggregators are created by class, so each supported percentile is a concrete subclass.
+ */
+public abstract class DoublePercentileAggregator extends SimpleAggregator<DoublePercentileAggregator, Double> {
+
+  public static class P50 extends DoublePercentileAggregator {
+    public P50(String name) {
+      super(name, 0.50);
+    }
+  }
+
+  public static class P95 extends DoublePercentileAggregator {
+    public P95(String name) {
+      super(name, 0.95);
+    }
+  }
+
+  public static class P99 extends DoublePercentileAggregator {
+    public P99(String name) {
+      super(name, 0.99);
+    }
+  }
+
+  public static class DoublePercentileAggregatable implements Aggregatable<DoublePercentileAggregator> {
+    private String name;
+    private long count;
+    private Double percentile;
+    private TDigest sketch;
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    public DoublePercentileAggregatable setName(String name) {
+      this.name = name;
+      return this;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public DoublePercentileAggregatable setCount(long count) {
+      this.count = count;
+      return this;
+    }
+
+    public Double getPercentile() {
+      return percentile;
+    }
+
+    public DoublePercentileAggregatable setPercentile(Double percentile) {
+      this.percentile = percentile;
+      return this;
+    }
+
+    // not a bean property to keep the sketch out of the window event records
+    TDigest sketch() {
+      return sketch;
+    }
+
+    DoublePercentileAggregatable setSketch(TDigest sketch) {
+      this.sketch = sketch;
+      return this;
+    }
+  }
+
+  private class Data extends AggregatorData<DoublePercentileAggregator, Double> {
+    private final TDigest sketch;
+
+    public Data(String name, long time) {
+      super(name, time);
+      sketch = new TDigest();
+    }
+
+    @Override
+    public String getName() {
+      return DoublePercentileAggregator.this.getName();
+    }
+
+    @Override
+    public void process(Double value) {
+      if (value != null) {
+        synchronized (this) {
+          sketch.add(value);
+        }
+      }
+    }
+
+    @Override
+    public synchronized Double get() {
+      return sketch.quantile(quantile);
+    }
+
+    @Override
+    public Aggregatable<DoublePercentileAggregator> getAggregatable() {
+      DoublePercentileAggregatable aggregatable = new DoublePercentileAggregatable().setName(getName());
+      synchronized (this) {
+        aggregatable.setCount(sketch.size()).setPercentile(get()).setSketch(sketch.copy());
+      }
+      return aggregatable;
+    }
+
+    @Override
+    public void aggregate(Aggregatable<DoublePercentileAggregator> aggregatable) {
+      Utils.checkNotNull(aggregatable, "aggregatable");
+      Utils.checkArgument(
+          getName().equals(aggregatable.getName()),
+          Utils.formatL("Aggregable '{}' does not match this aggregation '{}", aggregatable.getName(), getName())
+      );
+      Utils.checkArgument(aggregatable instanceof DoublePercentileAggregatable, Utils.formatL(
+          "Aggregatable '{}' is a '{}' it should be '{}'",
+          getName(),
+          aggregatable.getClass().getSimpleName(),
+          DoublePercentileAggregatable.class.getSimpleName()
+      ));
+      synchronized (this) {
+        sketch.merge(((DoublePercentileAggregatable) aggregatable).sketch());
+      }
+    }
+  }
+
+  private final double quantile;
+
+  protected DoublePercentileAggregator(String name, double quantile) {
+    super(Double.class, name);
+    this.quantile = quantile;
+  }
+
+  /**
+   * Returns the quantile, between 0 and 1, the aggregator estimates.
+   *
+   * @return the quantile the aggregator estimates.
+   */
+  public double getQuantile() {
+    return quantile;
+  }
+
+  @Override
+  public AggregatorData createAggregatorData(long timeWindowMillis) {
+    return new Data(getName(), timeWindowMillis);
+  }
+
+}
@@ -22,7 +22,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Group-by Aggregator supporting all Simple Aggregators as group-by element.
@@ -32,6 +33,7 @@ public class GroupByAggregator<A extends SimpleAggregator, T> extends Aggregator
   public static class GroupByAggregatable implements Aggregatable<GroupByAggregator> {
     private String name;
     private Map<String, Aggregatable> groups;
+    private Map<String, Long> frequencies;
 
     @Override
     public String getName() {
@@ -51,16 +53,45 @@ public class GroupByAggregator<A extends SimpleAggregator, T> extends Aggregator
       this.groups = groups;
       return this;
     }
+
+    // not a bean property to keep the frequencies out of the window event records
+    Map<String, Long> frequencies() {
+      return frequencies;
+    }
+
+    GroupByAggregatable setFrequencies(Map<String, Long> frequencies) {
+      this.frequencies = frequencies;
+      return this;
+    }
   }
 
+  /**
+   * Group-by data. Unbounded group-by data keeps its groups in a concurrent map, so processing a value of an existing
+   * group does not lock. Bounded group-by data tracks the frequency of every group in a count-min sketch and keeps
+   * only the most frequent groups, the values of all other groups are aggregated into the {@link #OTHER_GROUPS}
+   * group.
+   * <p/>
+   * Partial data of a bounded group-by keeps all its groups, it only counts the values of each group so the shared
+   * data can update its sketch when the partial is aggregated into it.
+   */
   class Data extends AggregatorData<GroupByAggregator<A, T>, Map<String, T>> {
     private final Map<String, AggregatorData<SimpleAggregator, Number>> groups;
-    private final ReentrantReadWriteLock rwLock;
+    private final CountMinSketch sketch;
+    // number of values of each group, only for partial data of a bounded group-by
+    private final Map<String, LongAdder> frequencies;
+    // lower bound of the estimated frequency of the least frequent kept group, saves scanning the groups for
+    // infrequent new groups
+    private long minFrequency;
 
     public Data(String name, long time) {
+      this(name, time, false);
+    }
+
+    Data(String name, long time, boolean partial) {
       super(name, time);
-      groups = new HashMap<>();
-      rwLock = new ReentrantReadWriteLock(true);
+      groups = new ConcurrentHashMap<>();
+      sketch = (maxGroups > 0 && !partial) ? new CountMinSketch() : null;
+      frequencies = (maxGroups > 0 && partial) ? new ConcurrentHashMap<>() : null;
     }
 
     @Override
@@ -77,71 +108,122 @@ public class GroupByAggregator<A extends SimpleAggregator, T> extends Aggregator
 
     @SuppressWarnings("unchecked")
     protected void process(String group, T value) {
-      AggregatorData aggregatorData;
-      rwLock.writeLock().lock();
-      try {
-        aggregatorData = groups.computeIfAbsent(group,
-            k -> GroupByAggregator.this.createElementAggregatorData(group, getTime())
-        );
-      } finally {
-        rwLock.writeLock().unlock();
+      if (sketch == null) {
+        AggregatorData aggregatorData = groups.get(group);
+        if (aggregatorData == null) {
+          aggregatorData = groups.computeIfAbsent(group,
+              k -> GroupByAggregator.this.createElementAggregatorData(group, getTime())
+          );
+        }
+        aggregatorData.process(value);
+        if (frequencies != null) {
+          frequencies.computeIfAbsent(group, k -> new LongAdder()).increment();
+        }
+      } else {
+        synchronized (this) {
+          getBoundedGroupData(group, sketch.add(group, 1)).process(value);
+        }
       }
-      aggregatorData.process(value);
     }
 
+    /**
+     * Returns the data of the group if the group is, or becomes, one of the most frequent groups, otherwise the data
+     * of the {@link #OTHER_GROUPS} group. A group displaced by a more frequent one is aggregated into the
+     * {@link #OTHER_GROUPS} group.
+     */
+    @SuppressWarnings("unchecked")
+    private AggregatorData getBoundedGroupData(String group, long frequency) {
+      AggregatorData aggregatorData = groups.get(group);
+      if (aggregatorData == null) {
+        int kept = groups.size() - (groups.containsKey(OTHER_GROUPS) ? 1 : 0);
+        if (kept < maxGroups) {
+          aggregatorData = GroupByAggregator.this.createElementAggregatorData(group, getTime());
+          groups.put(group, aggregatorData);
+        } else if (frequency > minFrequency) {
+          String leastFrequent = null;
+          long leastFrequency = Long.MAX_VALUE;
+          for (String keptGroup : groups.keySet()) {
+            if (!OTHER_GROUPS.equals(keptGroup)) {
+              long keptFrequency = sketch.estimate(keptGroup);
+              if (keptFrequency < leastFrequency) {
+                leastFrequent = keptGroup;
+                leastFrequency = keptFrequency;
+              }
+            }
+          }
+          minFrequency = leastFrequency;
+          if (frequency > leastFrequency) {
+            getOtherGroupsData().aggregate(groups.remove(leastFrequent).getAggregatable().setName(OTHER_GROUPS));
+            aggregatorData = GroupByAggregator.this.createElementAggregatorData(group, getTime());
+            groups.put(group, aggregatorData);
+          }
+        }
+        if (aggregatorData == null) {
+          aggregatorData = getOtherGroupsData();
+        }
+      }
+      return aggregatorData;
+    }
+
+    private AggregatorData getOtherGroupsData() {
+      return groups.computeIfAbsent(OTHER_GROUPS,
+          k -> GroupByAggregator.this.createElementAggregatorData(OTHER_GROUPS, getTime())
+      );
+    }
 
     @Override
     @SuppressWarnings("unchecked")
     public Map<String, T> get() {
-      rwLock.readLock().lock();
-      try {
-        Map<String, T> map = new HashMap<>();
-        for (Map.Entry<String, AggregatorData<SimpleAggregator, Number>> group : groups.entrySet()) {
-          map.put(group.getKey(), (T) group.getValue().get());
-        }
-        return map;
-      } finally {
-        rwLock.readLock().unlock();
+      Map<String, T> map = new HashMap<>();
+      for (Map.Entry<String, AggregatorData<SimpleAggregator, Number>> group : groups.entrySet()) {
+        map.put(group.getKey(), (T) group.getValue().get());
       }
+      return map;
     }
 
     @SuppressWarnings("unchecked")
     public AggregatorData<SimpleAggregator, Number> getGroupByElementData(String groupName) {
-      rwLock.readLock().lock();
-      try {
-        return groups.get(groupName);
-      } finally {
-        rwLock.readLock().unlock();
-      }
+      return groups.get(groupName);
     }
 
     public Set<String> getGroupByElements() {
-      rwLock.readLock().lock();
-      try {
-        return new HashSet<>(groups.keySet());
-      } finally {
-        rwLock.readLock().unlock();
-      }
+      return new HashSet<>(groups.keySet());
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public Aggregatable<GroupByAggregator<A, T>> getAggregatable() {
       GroupByAggregatable aggregatable = new GroupByAggregatable().setName(getName());
-      rwLock.readLock().lock();
-      try {
-        Map<String, Aggregatable> aggregatableGroups = new HashMap<>();
+      Map<String, Aggregatable> aggregatableGroups = new HashMap<>();
+      if (sketch == null) {
         for (Map.Entry<String, AggregatorData<SimpleAggregator, Number>> group : groups.entrySet()) {
           aggregatableGroups.put(group.getKey(), group.getValue().getAggregatable());
         }
-        aggregatable.setGroups(aggregatableGroups);
-      } finally {
-        rwLock.readLock().unlock();
+        if (frequencies != null) {
+          Map<String, Long> groupFrequencies = new HashMap<>();
+          for (Map.Entry<String, LongAdder> frequency : frequencies.entrySet()) {
+            groupFrequencies.put(frequency.getKey(), frequency.getValue().sum());
+          }
+          aggregatable.setFrequencies(groupFrequencies);
+        }
+      } else {
+        synchronized (this) {
+          Map<String, Long> groupFrequencies = new HashMap<>();
+          for (Map.Entry<String, AggregatorData<SimpleAggregator, Number>> group : groups.entrySet()) {
+            aggregatableGroups.put(group.getKey(), group.getValue().getAggregatable());
+            if (!OTHER_GROUPS.equals(group.getKey())) {
+              groupFrequencies.put(group.getKey(), sketch.estimate(group.getKey()));
+            }
+          }
+          aggregatable.setFrequencies(groupFrequencies);
+        }
       }
+      aggregatable.setGroups(aggregatableGroups);
       return (Aggregatable) aggregatable;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public void aggregate(Aggregatable aggregatable) {
       Utils.checkNotNull(aggregatable, "aggregatable");
       Utils.checkArgument(getName().equals(aggregatable.getName()),
@@ -154,20 +236,40 @@ public class GroupByAggregator<A extends SimpleAggregator, T> extends Aggregator
           GroupByAggregatable.class.getSimpleName()
       ));
 
-      rwLock.writeLock().lock();
-      try {
-        for (Map.Entry<String, Aggregatable> entry : ((GroupByAggregatable) aggregatable).getGroups().entrySet()) {
+      GroupByAggregatable groupByAggregatable = (GroupByAggregatable) aggregatable;
+      if (sketch == null) {
+        for (Map.Entry<String, Aggregatable> entry : groupByAggregatable.getGroups().entrySet()) {
           AggregatorData aggregatorData = groups.computeIfAbsent(entry.getKey(),
               groupByElementName -> GroupByAggregator.this.createElementAggregatorData(groupByElementName, getTime())
           );
           aggregatorData.aggregate(entry.getValue());
         }
-      } finally {
-        rwLock.writeLock().unlock();
+      } else {
+        synchronized (this) {
+          // aggregatables without frequencies, i.e. from window event records, do not change the sketch
+          Map<String, Long> groupFrequencies = groupByAggregatable.frequencies();
+          for (Map.Entry<String, Aggregatable> entry : groupByAggregatable.getGroups().entrySet()) {
+            Long frequency = (groupFrequencies == null) ? null : groupFrequencies.get(entry.getKey());
+            AggregatorData aggregatorData = OTHER_GROUPS.equals(entry.getKey())
+                ? getOtherGroupsData()
+                : getBoundedGroupData(entry.getKey(), sketch.add(entry.getKey(), (frequency == null) ? 0 : frequency));
+            Aggregatable groupAggregatable = entry.getValue();
+            if (aggregatorData.getName().equals(OTHER_GROUPS)) {
+              groupAggregatable.setName(OTHER_GROUPS);
+            }
+            aggregatorData.aggregate(groupAggregatable);
+          }
+        }
       }
     }
   }
 
+  /**
+   * Group that aggregates the values of the groups that are not among the most frequent ones of a bounded group-by.
+   */
+  public static final String OTHER_GROUPS = "__others__";
+
+  private final int maxGroups;
   private final Class<A> aggregatorKlass;
   private final Aggregators aggregators;
 
@@ -177,13 +279,41 @@ public class GroupByAggregator<A extends SimpleAggregator, T> extends Aggregator
    * @param aggregatorKlass Aggregator type to use with each group-by element.
    * @param aggregators Aggregators that is creating the group-by aggregator.
    */
-  @SuppressWarnings("unchecked")
   GroupByAggregator(
       String name, Class<A> aggregatorKlass, Aggregators aggregators
+  ) {
+    this(name, aggregatorKlass, aggregators, 0);
+  }
+
+  /**
+   * Bounded Group-by Aggregator constructor.
+   *  @param name name of the aggregator.
+   * @param aggregatorKlass Aggregator type to use with each group-by element.
+   * @param aggregators Aggregators that is creating the group-by aggregator.
+   * @param maxGroups maximum number of groups to keep, besides the {@link #OTHER_GROUPS} group, zero for unbounded.
+   */
+  @SuppressWarnings("unchecked")
+  GroupByAggregator(
+      String name, Class<A> aggregatorKlass, Aggregators aggregators, int maxGroups
   ) {
     super(aggregators.getAggregatorUnit(aggregatorKlass), name);
     this.aggregators = aggregators;
     this.aggregatorKlass = aggregatorKlass;
+    this.maxGroups = maxGroups;
+  }
+
+  /**
+   * Returns the maximum number of groups kept by the aggregator.
+   *
+   * @return the maximum number of groups kept by the aggregator, zero if unbounded.
+   */
+  public int getMaxGroups() {
+    return maxGroups;
+  }
+
+  @Override
+  public Class<?> getInputType() {
+    return aggregators.getAggregatorInputType(aggregatorKlass);
   }
 
   /**
@@ -214,6 +344,18 @@ public class GroupByAggregator<A extends SimpleAggregator, T> extends Aggregator
     return new Data(getName(), timeWindowMillis);
   }
 
+  /**
+   * Returns partial AggregatorData of the group-by aggregator. Partial data keeps all its groups, the maximum number
+   * of groups is only applied when the partial is aggregated into the aggregator.
+   *
+   * @return partial AggregatorData of the group-by aggregator.
+   * @param timeWindowMillis
+   */
+  @Override
+  AggregatorData createPartialAggregatorData(long timeWindowMillis) {
+    return new Data(getName(), timeWindowMillis, true);
+  }
+
   public AggregatorData createElementAggregatorData(String elementName, long timeWindowMillis) {
     return aggregators.createAggregatorData(getAggregatorClass(), elementName, timeWindowMillis);
   }
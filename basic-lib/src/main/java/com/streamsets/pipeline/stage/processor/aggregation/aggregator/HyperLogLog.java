@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.aggregation.aggregator;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog cardinality estimator.
+ * <p/>
+ * It uses 2^{@link #PRECISION} one byte registers, giving a standard error of about 1.6% regardless of the number of
+ * distinct values. Two HyperLogLogs are merged by keeping the maximum of each register.
+ */
+class HyperLogLog {
+  static final int PRECISION = 12;
+  private static final int REGISTERS = 1 << PRECISION;
+  private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+  private static final HashFunction HASH = Hashing.murmur3_128();
+
+  private final byte[] registers;
+
+  HyperLogLog() {
+    registers = new byte[REGISTERS];
+  }
+
+  private HyperLogLog(byte[] registers) {
+    this.registers = registers;
+  }
+
+  static long hash(Object value) {
+    return HASH.hashString(String.valueOf(value), StandardCharsets.UTF_8).asLong();
+  }
+
+  void add(Object value) {
+    long hash = hash(value);
+    int index = (int) (hash >>> (64 - PRECISION));
+    // the guard bit bounds the rank when all the remaining bits are zero
+    long remaining = (hash << PRECISION) | (1L << (PRECISION - 1));
+    byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+    if (rank > registers[index]) {
+      registers[index] = rank;
+    }
+  }
+
+  void merge(HyperLogLog other) {
+    for (int i = 0; i < REGISTERS; i++) {
+      if (other.registers[i] > registers[i]) {
+        registers[i] = other.registers[i];
+      }
+    }
+  }
+
+  long estimate() {
+    double sum = 0;
+    int zeros = 0;
+    for (byte register : registers) {
+      sum += 1.0 / (1L << register);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+    double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+    if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+      // small range correction, linear counting
+      estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  HyperLogLog copy() {
+    return new HyperLogLog(Arrays.copyOf(registers, REGISTERS));
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.aggregation.aggregator;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Merging t-digest for approximate quantiles.
+ * <p/>
+ * Values are buffered and periodically merged into a sorted list of centroids whose maximum weight shrinks towards
+ * the tails, keeping extreme quantiles accurate with at most a few times {@link #COMPRESSION} centroids. Two digests
+ * are merged by adding the centroids of one to the other.
+ */
+class TDigest {
+  static final double COMPRESSION = 100;
+  private static final int BUFFER_SIZE = (int) (5 * COMPRESSION);
+
+  private double[] means;
+  private long[] weights;
+  private int centroids;
+  private final double[] bufferMeans;
+  private final long[] bufferWeights;
+  private int buffered;
+  private long totalWeight;
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+
+  TDigest() {
+    means = new double[0];
+    weights = new long[0];
+    bufferMeans = new double[BUFFER_SIZE];
+    bufferWeights = new long[BUFFER_SIZE];
+  }
+
+  long size() {
+    return totalWeight;
+  }
+
+  void add(double value) {
+    add(value, 1);
+  }
+
+  private void add(double mean, long weight) {
+    if (buffered == BUFFER_SIZE) {
+      compress();
+    }
+    bufferMeans[buffered] = mean;
+    bufferWeights[buffered] = weight;
+    buffered++;
+    totalWeight += weight;
+    min = Math.min(min, mean);
+    max = Math.max(max, mean);
+  }
+
+  void merge(TDigest other) {
+    other.compress();
+    for (int i = 0; i < other.centroids; i++) {
+      add(other.means[i], other.weights[i]);
+    }
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+  }
+
+  private void compress() {
+    if (buffered == 0) {
+      return;
+    }
+    int count = centroids + buffered;
+    double[] allMeans = Arrays.copyOf(means, count);
+    long[] allWeights = Arrays.copyOf(weights, count);
+    System.arraycopy(bufferMeans, 0, allMeans, centroids, buffered);
+    System.arraycopy(bufferWeights, 0, allWeights, centroids, buffered);
+    buffered = 0;
+
+    Integer[] order = new Integer[count];
+    for (int i = 0; i < count; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparingDouble(i -> allMeans[i]));
+
+    double[] newMeans = new double[count];
+    long[] newWeights = new long[count];
+    int current = 0;
+    long weightSoFar = 0;
+    newMeans[0] = allMeans[order[0]];
+    newWeights[0] = allWeights[order[0]];
+    for (int i = 1; i < count; i++) {
+      double mean = allMeans[order[i]];
+      long weight = allWeights[order[i]];
+      long proposed = newWeights[current] + weight;
+      double q = (weightSoFar + proposed / 2.0) / totalWeight;
+      double limit = 4 * totalWeight * q * (1 - q) / COMPRESSION;
+      if (proposed <= limit) {
+        newMeans[current] += (mean - newMeans[current]) * weight / proposed;
+        newWeights[current] = proposed;
+      } else {
+        weightSoFar += newWeights[current];
+        current++;
+        newMeans[current] = mean;
+        newWeights[current] = weight;
+      }
+    }
+    centroids = current + 1;
+    means = Arrays.copyOf(newMeans, centroids);
+    weights = Arrays.copyOf(newWeights, centroids);
+  }
+
+  /**
+   * Returns the estimated value at the given quantile, <b>NULL</b> if the digest is empty.
+   */
+  Double quantile(double quantile) {
+    compress();
+    if (centroids == 0) {
+      return null;
+    }
+    if (centroids == 1) {
+      return means[0];
+    }
+    double target = quantile * totalWeight;
+    // the center of each centroid is at its cumulative weight plus half of its own weight
+    double center = weights[0] / 2.0;
+    if (target <= center) {
+      return min + (means[0] - min) * (target / center);
+    }
+    for (int i = 1; i < centroids; i++) {
+      double nextCenter = center + (weights[i - 1] + weights[i]) / 2.0;
+      if (target <= nextCenter) {
+        return means[i - 1] + (means[i] - means[i - 1]) * (target - center) / (nextCenter - center);
+      }
+      center = nextCenter;
+    }
+    double tail = totalWeight - center;
+    return means[centroids - 1] + (max - means[centroids - 1]) * Math.min(1, (target - center) / tail);
+  }
+
+  TDigest copy() {
+    TDigest copy = new TDigest();
+    copy.merge(this);
+    return copy;
+  }
+}
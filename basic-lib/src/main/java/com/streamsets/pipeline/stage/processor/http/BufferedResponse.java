@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.http;
+
+import com.google.common.base.Charsets;
+
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+/**
+ * Fully read copy of a JAX-RS {@link Response}. Unlike the response itself it can be consumed any number of times,
+ * which is what allows a single response to be handed to coalesced requests and kept in the response cache.
+ */
+final class BufferedResponse {
+  private final int status;
+  private final String reasonPhrase;
+  private final byte[] body;
+  private final MultivaluedMap<String, String> headers;
+
+  private BufferedResponse(int status, String reasonPhrase, byte[] body, MultivaluedMap<String, String> headers) {
+    this.status = status;
+    this.reasonPhrase = reasonPhrase;
+    this.body = body;
+    this.headers = headers;
+  }
+
+  /**
+   * Reads the entity and headers of the given response and closes it.
+   *
+   * @param response response to buffer
+   * @return buffered copy of the response
+   */
+  static BufferedResponse of(Response response) {
+    try {
+      byte[] body = null;
+      if (response.hasEntity()) {
+        body = response.readEntity(byte[].class);
+      }
+      return new BufferedResponse(
+          response.getStatus(),
+          response.getStatusInfo().getReasonPhrase(),
+          body,
+          new MultivaluedHashMap<>(response.getStringHeaders())
+      );
+    } finally {
+      response.close();
+    }
+  }
+
+  int getStatus() {
+    return status;
+  }
+
+  String getReasonPhrase() {
+    return reasonPhrase;
+  }
+
+  boolean hasBody() {
+    return body != null;
+  }
+
+  /**
+   * @return a new stream over the response body, or null if the response had no entity
+   */
+  InputStream getBody() {
+    return body == null ? null : new ByteArrayInputStream(body);
+  }
+
+  String getBodyAsString() {
+    return body == null ? null : new String(body, Charsets.UTF_8);
+  }
+
+  MultivaluedMap<String, String> getStringHeaders() {
+    return headers;
+  }
+
+  /**
+   * Looks up the first value of the given header, ignoring the case of the header name.
+   *
+   * @param name header name
+   * @return first value of the header or null if absent
+   */
+  String getHeaderString(String name) {
+    for (String key : headers.keySet()) {
+      if (key.equalsIgnoreCase(name)) {
+        return headers.getFirst(key);
+      }
+    }
+    return null;
+  }
+}
@@ -15,6 +15,7 @@
  */
 package com.streamsets.pipeline.stage.processor.http;
 
+import com.codahale.metrics.Timer;
 import com.google.common.util.concurrent.RateLimiter;
 import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.Field;
@@ -44,7 +45,6 @@ import javax.ws.rs.client.AsyncInvoker;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MultivaluedMap;
-import javax.ws.rs.core.Response;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -66,12 +66,18 @@ public class HttpProcessor extends SingleLaneProcessor {
 
   private static final Logger LOG = LoggerFactory.getLogger(HttpProcessor.class);
   private static final String REQUEST_BODY_CONFIG_NAME = "requestBody";
+  private static final String LATENCY_TIMER_PREFIX = "Request Latency ";
+  private static final String OTHER_ENDPOINTS = "(other endpoints)";
+  // Bounds the number of timers when the resource URL path is built from record values
+  private static final int MAX_LATENCY_ENDPOINTS = 100;
 
   private HttpProcessorConfig conf;
   private final HttpClientCommon httpClientCommon;
   private DataParserFactory parserFactory;
   private ErrorRecordHandler errorRecordHandler;
   private RateLimiter rateLimiter;
+  private HttpRequestEngine requestEngine;
+  private final Map<String, Timer> latencyTimers = new HashMap<>();
 
   private ELVars bodyVars;
   private ELEval bodyEval;
@@ -134,6 +140,7 @@ public class HttpProcessor extends SingleLaneProcessor {
 
     if (issues.isEmpty()) {
       parserFactory = conf.dataFormatConfig.getParserFactory();
+      requestEngine = HttpRequestEngine.getShared(getContext().getStageRunnerSharedMap(), conf);
     }
 
     return issues;
@@ -149,7 +156,7 @@ public class HttpProcessor extends SingleLaneProcessor {
   /** {@inheritDoc} */
   @Override
   public void process(Batch batch, SingleLaneBatchMaker batchMaker) throws StageException {
-    List<Future<Response>> responses = new ArrayList<>();
+    List<Future<BufferedResponse>> responses = new ArrayList<>();
     resolvedRecords.clear();
 
     Iterator<Record> records = batch.getRecords();
@@ -179,16 +186,16 @@ public class HttpProcessor extends SingleLaneProcessor {
 
       HttpMethod method = httpClientCommon.getHttpMethod(conf.httpMethod, conf.methodExpression, record);
 
-      rateLimiter.acquire();
+      HeadersAndBody hb;
       if (conf.requestBody != null && !conf.requestBody.isEmpty() && method != HttpMethod.GET) {
         RecordEL.setRecordInContext(bodyVars, record);
         final String requestBody = bodyEval.eval(bodyVars, conf.requestBody, String.class);
-        resolvedRecords.put(record, new HeadersAndBody(resolvedHeaders, requestBody, contentType, method, target));
-        responses.add(asyncInvoker.method(method.getLabel(), Entity.entity(requestBody, contentType)));
+        hb = new HeadersAndBody(resolvedHeaders, requestBody, contentType, method, target);
       } else {
-        resolvedRecords.put(record, new HeadersAndBody(resolvedHeaders, null, null, method, target));
-        responses.add(asyncInvoker.method(method.getLabel()));
+        hb = new HeadersAndBody(resolvedHeaders, null, null, method, target);
       }
+      resolvedRecords.put(record, hb);
+      responses.add(submitRequest(hb, asyncInvoker));
     }
 
     records = batch.getRecords();
@@ -211,20 +218,14 @@ public class HttpProcessor extends SingleLaneProcessor {
   }
 
   private void reprocessIfRequired(SingleLaneBatchMaker batchMaker) throws StageException {
-    Map<Record, Future<Response>> responses = new HashMap<>(resolvedRecords.size());
+    Map<Record, Future<BufferedResponse>> responses = new HashMap<>(resolvedRecords.size());
     for(Map.Entry<Record, HeadersAndBody> entry : resolvedRecords.entrySet()) {
       HeadersAndBody hb = entry.getValue();
-      Future<Response> responseFuture;
       final AsyncInvoker asyncInvoker = hb.target.request()
           .headers(hb.resolvedHeaders).async();
-      if (hb.requestBody != null) {
-        responseFuture = asyncInvoker.method(hb.method.getLabel(), Entity.entity(hb.requestBody, hb.contentType));
-      } else {
-        responseFuture = asyncInvoker.method(hb.method.getLabel());
-      }
-      responses.put(entry.getKey(), responseFuture);
+      responses.put(entry.getKey(), submitRequest(hb, asyncInvoker));
     }
-    for (Map.Entry<Record, Future<Response>> entry : responses.entrySet()) {
+    for (Map.Entry<Record, Future<BufferedResponse>> entry : responses.entrySet()) {
       try {
         Record output = processResponse(entry.getKey(), entry.getValue(), conf.maxRequestCompletionSecs, true);
         if (output != null) {
@@ -236,31 +237,74 @@ public class HttpProcessor extends SingleLaneProcessor {
     }
   }
 
+  /**
+   * Hands a request over to the shared request engine, which may answer it from its response cache or from an
+   * identical request already in flight. The rate limit only applies to requests that are actually sent.
+   *
+   * @param hb resolved request
+   * @param asyncInvoker invoker for the request target
+   * @return future completed with the buffered response
+   */
+  private Future<BufferedResponse> submitRequest(HeadersAndBody hb, AsyncInvoker asyncInvoker) {
+    HttpRequestEngine.RequestKey key = new HttpRequestEngine.RequestKey(
+        hb.method,
+        hb.target.getUri(),
+        hb.resolvedHeaders,
+        hb.requestBody
+    );
+    return requestEngine.submit(
+        key,
+        TimeUnit.SECONDS.toMillis(conf.maxRequestCompletionSecs),
+        getLatencyTimer(key.getEndpoint()),
+        callback -> {
+          rateLimiter.acquire();
+          if (hb.requestBody != null) {
+            asyncInvoker.method(hb.method.getLabel(), Entity.entity(hb.requestBody, hb.contentType), callback);
+          } else {
+            asyncInvoker.method(hb.method.getLabel(), callback);
+          }
+        }
+    );
+  }
+
+  /**
+   * Returns the latency timer of the given endpoint. Endpoints beyond the first {@link #MAX_LATENCY_ENDPOINTS} share
+   * a single timer.
+   */
+  private Timer getLatencyTimer(String endpoint) {
+    Timer timer = latencyTimers.get(endpoint);
+    if (timer == null) {
+      if (latencyTimers.size() >= MAX_LATENCY_ENDPOINTS) {
+        endpoint = OTHER_ENDPOINTS;
+        timer = latencyTimers.get(endpoint);
+      }
+      if (timer == null) {
+        timer = getContext().createTimer(LATENCY_TIMER_PREFIX + endpoint);
+        latencyTimers.put(endpoint, timer);
+      }
+    }
+    return timer;
+  }
 
   /**
    * Waits for the Jersey client to complete an asynchronous request, checks the response code
    * and continues to parse the response if it is deemed ok.
    *
    * @param record the current record to set in context for any expression evaluation
-   * @param responseFuture the async HTTP request future
+   * @param responseFuture the future of the buffered HTTP response
    * @param maxRequestCompletionSecs maximum time to wait for request completion (start to finish)
    * @return parsed record from the request
    * @throws StageException if the request fails, times out, or cannot be parsed
    */
   private Record processResponse(
       Record record,
-      Future<Response> responseFuture,
+      Future<BufferedResponse> responseFuture,
       long maxRequestCompletionSecs,
       boolean failOn403
   ) throws StageException {
 
-    Response response = null;
     try {
-      response = responseFuture.get(maxRequestCompletionSecs, TimeUnit.SECONDS);
-      InputStream responseBody = null;
-      if (response.hasEntity()) {
-        responseBody = response.readEntity(InputStream.class);
-      }
+      BufferedResponse response = responseFuture.get(maxRequestCompletionSecs, TimeUnit.SECONDS);
       if (conf.client.useOAuth2 && response.getStatus() == 403 && !failOn403) {
         HttpStageUtil.getNewOAuth2Token(conf.client.oauth2, httpClientCommon.getClient());
         return null;
@@ -270,11 +314,11 @@ public class HttpProcessor extends SingleLaneProcessor {
             record,
             Errors.HTTP_01,
             response.getStatus(),
-            response.getStatusInfo().getReasonPhrase() + " " + responseBody
+            response.getReasonPhrase() + " " + response.getBodyAsString()
         );
       }
       resolvedRecords.remove(record);
-      Record parsedResponse = parseResponse(responseBody);
+      Record parsedResponse = parseResponse(response.getBody());
       if (parsedResponse != null) {
         record.set(conf.outputField, parsedResponse.get());
         addResponseHeaders(record, response);
@@ -286,10 +330,6 @@ public class HttpProcessor extends SingleLaneProcessor {
     } catch (TimeoutException e) {
       LOG.error("HTTP request future timed out", e.toString(), e);
       throw new OnRecordErrorException(record, Errors.HTTP_03, e.toString());
-    } finally {
-      if (response != null) {
-        response.close();
-      }
     }
   }
 
@@ -330,7 +370,7 @@ public class HttpProcessor extends SingleLaneProcessor {
    * @param response HTTP response
    * @throws StageException when writing headers to a field path that already exists
    */
-  private void addResponseHeaders(Record record, Response response) throws StageException {
+  private void addResponseHeaders(Record record, BufferedResponse response) throws StageException {
     if (conf.headerOutputLocation == HeaderOutputLocation.NONE) {
       return;
     }
@@ -351,7 +391,7 @@ public class HttpProcessor extends SingleLaneProcessor {
    * @param response HTTP response
    * @throws StageException if the field path already exists
    */
-  private void writeResponseHeaderToField(Record record, Response response) throws StageException {
+  private void writeResponseHeaderToField(Record record, BufferedResponse response) throws StageException {
     if (record.has(conf.headerOutputField)) {
       throw new StageException(Errors.HTTP_11, conf.headerOutputField);
     }
@@ -373,7 +413,7 @@ public class HttpProcessor extends SingleLaneProcessor {
    * @param response HTTP response
    * @param header SDC Record header
    */
-  private void writeResponseHeaderToRecordHeader(Response response, Record.Header header) {
+  private void writeResponseHeaderToRecordHeader(BufferedResponse response, Record.Header header) {
     for (Map.Entry<String, List<String>> entry : response.getStringHeaders().entrySet()) {
       if (!entry.getValue().isEmpty()) {
         String firstValue = entry.getValue().get(0);
@@ -198,6 +198,70 @@ public class HttpProcessorConfig {
   )
   public int rateLimit;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.NUMBER,
+      label = "Max Concurrent Requests per Host",
+      defaultValue = "0",
+      description = "Maximum number of requests in flight to a single host across all pipeline runners " +
+          "(0 for unlimited). Further requests wait for a slot up to the maximum request time.",
+      displayPosition = 170,
+      group = "HTTP",
+      min = 0
+  )
+  public int maxRequestsPerHost;
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Coalesce Identical Requests",
+      defaultValue = "false",
+      description = "Identical GET and HEAD requests that are in flight at the same time share a single response",
+      displayPosition = 180,
+      group = "HTTP"
+  )
+  public boolean coalesceRequests;
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Cache Responses",
+      defaultValue = "false",
+      description = "Caches successful GET and HEAD responses across all pipeline runners, honoring the " +
+          "Cache-Control header of the response",
+      displayPosition = 190,
+      group = "HTTP"
+  )
+  public boolean cacheResponses;
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.NUMBER,
+      label = "Default Cache Time to Live (sec)",
+      defaultValue = "60",
+      description = "Time to keep responses without a Cache-Control max-age directive in the cache",
+      displayPosition = 200,
+      group = "HTTP",
+      dependsOn = "cacheResponses",
+      triggeredByValue = "true",
+      min = 0
+  )
+  public long cacheTtlSecs = 60L;
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.NUMBER,
+      label = "Max Cached Responses",
+      defaultValue = "1000",
+      description = "Maximum number of responses kept in the cache",
+      displayPosition = 210,
+      group = "HTTP",
+      dependsOn = "cacheResponses",
+      triggeredByValue = "true",
+      min = 1
+  )
+  public long maxCacheEntries = 1000L;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.NUMBER,
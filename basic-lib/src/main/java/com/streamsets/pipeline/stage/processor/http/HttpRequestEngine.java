@@ -0,0 +1,320 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.http;
+
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.http.HttpMethod;
+
+import javax.ws.rs.client.InvocationCallback;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Dispatches the requests of all {@link HttpProcessor} runners of a pipeline. A single instance is kept in the stage
+ * runner shared map so that the per host in-flight limit, the coalescing of identical in-flight requests and the
+ * response cache span every runner.
+ *
+ * Only GET and HEAD requests are coalesced or served from the cache, as repeating any other method may have side
+ * effects the user relies on.
+ */
+final class HttpRequestEngine {
+  static final String SHARED_MAP_KEY = "HttpRequestEngine";
+
+  private static final String CACHE_CONTROL = "Cache-Control";
+
+  /**
+   * Sends one request, reporting its outcome to the given callback.
+   */
+  interface Dispatcher {
+    void dispatch(InvocationCallback<Response> callback);
+  }
+
+  private final int maxRequestsPerHost;
+  private final boolean coalesceRequests;
+  private final long defaultCacheTtlMillis;
+  private final ConcurrentMap<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+  private final ConcurrentMap<RequestKey, CompletableFuture<BufferedResponse>> inFlight = new ConcurrentHashMap<>();
+  private final Cache<RequestKey, CachedResponse> responseCache;
+
+  /**
+   * @param maxRequestsPerHost maximum number of requests in flight to a single host, 0 for unlimited
+   * @param coalesceRequests whether identical GET and HEAD requests in flight share a single response
+   * @param cacheResponses whether successful GET and HEAD responses are cached
+   * @param defaultCacheTtlSecs time to keep responses that carry no Cache-Control max-age directive
+   * @param maxCacheEntries maximum number of cached responses
+   */
+  HttpRequestEngine(
+      int maxRequestsPerHost,
+      boolean coalesceRequests,
+      boolean cacheResponses,
+      long defaultCacheTtlSecs,
+      long maxCacheEntries
+  ) {
+    this.maxRequestsPerHost = maxRequestsPerHost;
+    this.coalesceRequests = coalesceRequests;
+    this.defaultCacheTtlMillis = TimeUnit.SECONDS.toMillis(defaultCacheTtlSecs);
+    if (cacheResponses) {
+      responseCache = CacheBuilder.newBuilder().maximumSize(maxCacheEntries).build();
+    } else {
+      responseCache = null;
+    }
+  }
+
+  /**
+   * Returns the engine shared by all runners of the stage, creating it on first use.
+   *
+   * @param sharedMap stage runner shared map
+   * @param conf stage configuration
+   * @return shared engine
+   */
+  static HttpRequestEngine getShared(Map<String, Object> sharedMap, HttpProcessorConfig conf) {
+    synchronized (sharedMap) {
+      HttpRequestEngine engine = (HttpRequestEngine) sharedMap.get(SHARED_MAP_KEY);
+      if (engine == null) {
+        engine = new HttpRequestEngine(
+            conf.maxRequestsPerHost,
+            conf.coalesceRequests,
+            conf.cacheResponses,
+            conf.cacheTtlSecs,
+            conf.maxCacheEntries
+        );
+        sharedMap.put(SHARED_MAP_KEY, engine);
+      }
+      return engine;
+    }
+  }
+
+  /**
+   * Submits a request, answering it from the response cache or from an identical request already in flight when
+   * possible. Otherwise blocks until the target host has a free slot and sends the request using the dispatcher.
+   *
+   * @param key identity of the request
+   * @param maxWaitMillis maximum time to wait for a free slot to the target host
+   * @param latencyTimer timer updated with the latency of the request if it is actually sent
+   * @param dispatcher sends the request
+   * @return future completed with the buffered response
+   */
+  Future<BufferedResponse> submit(RequestKey key, long maxWaitMillis, Timer latencyTimer, Dispatcher dispatcher) {
+    boolean idempotent = key.isIdempotent();
+    if (idempotent && responseCache != null) {
+      CachedResponse cached = responseCache.getIfPresent(key);
+      if (cached != null) {
+        if (cached.expiresAt > System.currentTimeMillis()) {
+          return CompletableFuture.completedFuture(cached.response);
+        }
+        responseCache.invalidate(key);
+      }
+    }
+
+    CompletableFuture<BufferedResponse> future = new CompletableFuture<>();
+    if (idempotent && coalesceRequests) {
+      CompletableFuture<BufferedResponse> existing = inFlight.putIfAbsent(key, future);
+      if (existing != null) {
+        return existing;
+      }
+    }
+
+    Semaphore permits = null;
+    if (maxRequestsPerHost > 0) {
+      permits = hostPermits.computeIfAbsent(key.getHost(), host -> new Semaphore(maxRequestsPerHost));
+      try {
+        if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+          complete(key, future, null, null, new TimeoutException(Utils.format(
+              "Timed out waiting for one of the {} request slots to host '{}'",
+              maxRequestsPerHost,
+              key.getHost()
+          )));
+          return future;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        complete(key, future, null, null, e);
+        return future;
+      }
+    }
+
+    final Semaphore acquired = permits;
+    final long start = System.nanoTime();
+    try {
+      dispatcher.dispatch(new InvocationCallback<Response>() {
+        @Override
+        public void completed(Response response) {
+          latencyTimer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+          BufferedResponse buffered;
+          try {
+            buffered = BufferedResponse.of(response);
+          } catch (RuntimeException e) {
+            complete(key, future, acquired, null, e);
+            return;
+          }
+          if (idempotent && responseCache != null) {
+            long ttl = getCacheTtlMillis(buffered, defaultCacheTtlMillis);
+            if (ttl > 0) {
+              responseCache.put(key, new CachedResponse(buffered, System.currentTimeMillis() + ttl));
+            }
+          }
+          complete(key, future, acquired, buffered, null);
+        }
+
+        @Override
+        public void failed(Throwable throwable) {
+          latencyTimer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+          complete(key, future, acquired, null, throwable);
+        }
+      });
+    } catch (RuntimeException e) {
+      complete(key, future, acquired, null, e);
+    }
+    return future;
+  }
+
+  private void complete(
+      RequestKey key,
+      CompletableFuture<BufferedResponse> future,
+      Semaphore permits,
+      BufferedResponse response,
+      Throwable error
+  ) {
+    if (permits != null) {
+      permits.release();
+    }
+    inFlight.remove(key, future);
+    if (error != null) {
+      future.completeExceptionally(error);
+    } else {
+      future.complete(response);
+    }
+  }
+
+  @VisibleForTesting
+  int getInFlightCount() {
+    return inFlight.size();
+  }
+
+  /**
+   * Computes how long a response may be served from the cache. Only successful responses are cached. A max-age
+   * Cache-Control directive takes precedence over the configured default, while no-store and no-cache prevent caching.
+   *
+   * @param response buffered response
+   * @param defaultTtlMillis time to live used when the response has no max-age directive
+   * @return time to live in milliseconds, 0 if the response must not be cached
+   */
+  @VisibleForTesting
+  static long getCacheTtlMillis(BufferedResponse response, long defaultTtlMillis) {
+    if (response.getStatus() < 200 || response.getStatus() >= 300) {
+      return 0;
+    }
+    long ttl = defaultTtlMillis;
+    for (Map.Entry<String, List<String>> header : response.getStringHeaders().entrySet()) {
+      if (!CACHE_CONTROL.equalsIgnoreCase(header.getKey())) {
+        continue;
+      }
+      for (String value : header.getValue()) {
+        for (String directive : value.split(",")) {
+          directive = directive.trim().toLowerCase();
+          if (directive.equals("no-store") || directive.equals("no-cache")) {
+            return 0;
+          } else if (directive.startsWith("max-age=")) {
+            try {
+              ttl = TimeUnit.SECONDS.toMillis(Long.parseLong(directive.substring("max-age=".length()).trim()));
+            } catch (NumberFormatException e) {
+              // Malformed max-age must be treated as stale (RFC 7234 section 4.2.1)
+              return 0;
+            }
+          }
+        }
+      }
+    }
+    return Math.max(ttl, 0);
+  }
+
+  private static final class CachedResponse {
+    final BufferedResponse response;
+    final long expiresAt;
+
+    CachedResponse(BufferedResponse response, long expiresAt) {
+      this.response = response;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  /**
+   * Identity of a request: two requests with equal keys are expected to return the same response.
+   */
+  static final class RequestKey {
+    private final HttpMethod method;
+    private final URI uri;
+    private final MultivaluedMap<String, Object> headers;
+    private final String body;
+
+    RequestKey(HttpMethod method, URI uri, MultivaluedMap<String, Object> headers, String body) {
+      this.method = method;
+      this.uri = uri;
+      this.headers = headers;
+      this.body = body;
+    }
+
+    boolean isIdempotent() {
+      return method == HttpMethod.GET || method == HttpMethod.HEAD;
+    }
+
+    String getHost() {
+      return uri.getScheme() + "://" + uri.getAuthority();
+    }
+
+    /**
+     * @return the request URI without its query string, used to group latency metrics
+     */
+    String getEndpoint() {
+      return getHost() + (uri.getRawPath() == null ? "" : uri.getRawPath());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      RequestKey that = (RequestKey) o;
+      return method == that.method &&
+          Objects.equals(uri, that.uri) &&
+          Objects.equals(headers, that.headers) &&
+          Objects.equals(body, that.body);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(method, uri, headers, body);
+    }
+  }
+}
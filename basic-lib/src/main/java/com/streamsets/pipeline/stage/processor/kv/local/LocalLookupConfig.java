@@ -22,21 +22,50 @@ import com.streamsets.pipeline.stage.processor.kv.LookupMode;
 import com.streamsets.pipeline.stage.processor.kv.LookupModeChooserValues;
 import com.streamsets.pipeline.stage.processor.kv.LookupParameterConfig;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class LocalLookupConfig {
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.MODEL,
+      label = "Store Type",
+      description = "Static values entered in the stage, or a lookup table file memory-mapped and shared by all " +
+          "pipeline runners",
+      defaultValue = "STATIC",
+      displayPosition = 10,
+      group = "LOCAL"
+  )
+  @ValueChooserModel(StoreTypeChooserValues.class)
+  public StoreType storeType = StoreType.STATIC;
+
   @ConfigDef(
       required = false,
       type = ConfigDef.Type.MAP,
       label = "Values",
       displayPosition = 20,
-      group = "LOCAL"
+      group = "LOCAL",
+      dependsOn = "storeType",
+      triggeredByValue = "STATIC"
   )
   public Map<String, String> values = new HashMap<>();
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.STRING,
+      label = "Lookup Table File",
+      description = "Absolute path of a lookup table file generated with the MappedLookupTableGenerator tool " +
+          "from a text file with one tab separated key and value per line",
+      displayPosition = 30,
+      group = "LOCAL",
+      dependsOn = "storeType",
+      triggeredByValue = "FILE"
+  )
+  public String filePath = "";
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.MODEL,
@@ -60,7 +89,7 @@ public class LocalLookupConfig {
   public List<LookupParameterConfig> lookups = new ArrayList<>();
 
   //@Override
-  public LocalStore createStore() {
-    return new LocalStore(this);
+  public LocalStore createStore() throws IOException {
+    return (storeType == StoreType.FILE) ? new MappedLocalStore(this) : new LocalStore(this);
   }
 }
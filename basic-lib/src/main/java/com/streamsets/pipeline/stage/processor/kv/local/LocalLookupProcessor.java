@@ -35,6 +35,7 @@ import com.streamsets.pipeline.stage.processor.kv.LookupParameterConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.HashMap;
@@ -64,7 +65,7 @@ public class LocalLookupProcessor extends BaseProcessor {
   protected List<ConfigIssue> init() {
     List<ConfigIssue> issues = super.init();
 
-    if(this.conf.values.isEmpty()) {
+    if(this.conf.storeType != StoreType.FILE && this.conf.values.isEmpty()) {
       issues.add(getContext().createConfigIssue(
           Groups.LOCAL.name(),
           this.conf.values.toString(),
@@ -75,7 +76,18 @@ public class LocalLookupProcessor extends BaseProcessor {
     if (issues.isEmpty()) {
       error = new DefaultErrorRecordHandler(getContext());
       keyExprEval = getContext().createELEval("keyExpr");
-      store = conf.createStore();
+      try {
+        store = conf.createStore();
+      } catch (IOException e) {
+        LOG.error(Errors.LOOKUP_04.getMessage(), conf.filePath, e.toString(), e);
+        issues.add(getContext().createConfigIssue(
+            Groups.LOCAL.name(),
+            "conf.filePath",
+            Errors.LOOKUP_04,
+            conf.filePath,
+            e.toString()
+        ));
+      }
     }
 
     return issues;
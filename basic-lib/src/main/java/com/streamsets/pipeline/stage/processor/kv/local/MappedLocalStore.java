@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv.local;
+
+import com.google.common.base.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read-only store backed by a memory-mapped {@link MappedLookupTable} shared by all the pipeline runners.
+ */
+public class MappedLocalStore extends LocalStore {
+  private static final Logger LOG = LoggerFactory.getLogger(MappedLocalStore.class);
+
+  private final String filePath;
+  private final MappedLookupTable table;
+
+  public MappedLocalStore(LocalLookupConfig conf) throws IOException {
+    super(conf);
+    filePath = conf.filePath;
+    table = MappedLookupTable.open(new File(conf.filePath));
+  }
+
+  @Override
+  public Optional<String> get(String key) {
+    return Optional.fromNullable(table.get(key));
+  }
+
+  @Override
+  public Map<String, Optional<String>> get(Collection<String> keys) {
+    Map<String, Optional<String>> values = new HashMap<>();
+    for (String key : keys) {
+      values.put(key, get(key));
+    }
+    return values;
+  }
+
+  /**
+   * Lookup table files are read-only and shared by all the pipeline runners, writes are skipped.
+   */
+  @Override
+  public void put(String key, String value) {
+    LOG.debug("Skipping write of key '{}', lookup table file '{}' is read-only", key, filePath);
+  }
+
+  /**
+   * Lookup table files are read-only and shared by all the pipeline runners, writes are skipped.
+   */
+  @Override
+  public void putAll(Map<String, String> entries) {
+    LOG.debug("Skipping write of {} keys, lookup table file '{}' is read-only", entries.size(), filePath);
+  }
+
+  @Override
+  public void close() throws Exception {
+    table.close();
+  }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv.local;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read-only, memory-mapped, open-addressing hash table of UTF-8 keys and values.
+ * <p/>
+ * The table is written once by a {@link Writer} and mapped as is, so opening it does not load or parse the entries
+ * and the entries live in the OS page cache instead of the heap. All the instances of the Local Lookup processor that
+ * open the same file share a single mapping.
+ * <p/>
+ * File layout, all numbers big-endian:
+ * <pre>
+ *   header : int magic, int version, long capacity, long size
+ *   slots  : capacity longs, offset of the entry hashed to the slot, 0 if the slot is empty
+ *   entries: int hash, int key length, key bytes, int value length, value bytes
+ * </pre>
+ * Collisions are resolved by linear probing, the capacity is a power of 2 and at least twice the number of entries.
+ * <p/>
+ * Files are written with {@link Writer}, or {@link #write(Map, File)}, or generated from a tab separated text file
+ * with the {@link MappedLookupTableGenerator} command line tool.
+ */
+public class MappedLookupTable implements Closeable {
+  static final int MAGIC = 0x53444c54;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 24;
+
+  private static final HashFunction HASH = Hashing.murmur3_32();
+
+  // mapped regions are limited to 2GB, larger files are mapped in chunks
+  private static final int CHUNK_BITS = 30;
+  private static final long CHUNK_SIZE = 1L << CHUNK_BITS;
+
+  private static final Map<String, MappedLookupTable> TABLES = new HashMap<>();
+
+  private final String path;
+  private final long lastModified;
+  private final long length;
+  private final MappedByteBuffer[] chunks;
+  private final long capacity;
+  private final long size;
+  private int references;
+
+  private MappedLookupTable(File file) throws IOException {
+    path = file.getCanonicalPath();
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      lastModified = file.lastModified();
+      length = channel.size();
+      if (length < HEADER_SIZE) {
+        throw new IOException(Utils.format("File '{}' is not a lookup table, it is too short", path));
+      }
+      chunks = new MappedByteBuffer[(int) ((length + CHUNK_SIZE - 1) >>> CHUNK_BITS)];
+      for (int i = 0; i < chunks.length; i++) {
+        long start = (long) i << CHUNK_BITS;
+        chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_SIZE, length - start));
+      }
+    }
+    if (getInt(0) != MAGIC) {
+      throw new IOException(Utils.format("File '{}' is not a lookup table", path));
+    }
+    if (getInt(4) != VERSION) {
+      throw new IOException(Utils.format("Lookup table '{}' has unsupported version '{}'", path, getInt(4)));
+    }
+    capacity = getLong(8);
+    size = getLong(16);
+    if (Long.bitCount(capacity) != 1 || HEADER_SIZE + capacity * 8 > length || size > capacity / 2) {
+      throw new IOException(Utils.format("Lookup table '{}' is corrupted, invalid capacity '{}'", path, capacity));
+    }
+  }
+
+  /**
+   * Opens the lookup table in the given file, sharing the mapping with the other users of the same, unmodified, file.
+   * Each call must be paired with a call to {@link #close()}.
+   *
+   * @param file lookup table file written by a {@link Writer}.
+   * @return the lookup table.
+   * @throws IOException if the file could not be mapped or is not a valid lookup table.
+   */
+  public static MappedLookupTable open(File file) throws IOException {
+    String path = file.getCanonicalPath();
+    synchronized (TABLES) {
+      MappedLookupTable table = TABLES.get(path);
+      if (table == null || table.lastModified != file.lastModified() || table.length != file.length()) {
+        table = new MappedLookupTable(file);
+        TABLES.put(path, table);
+      }
+      table.references++;
+      return table;
+    }
+  }
+
+  /**
+   * Releases this reference to the lookup table, the mapping is dropped from the shared tables when the last
+   * reference is released.
+   */
+  @Override
+  public void close() {
+    synchronized (TABLES) {
+      if (references > 0 && --references == 0 && TABLES.get(path) == this) {
+        TABLES.remove(path);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of entries of the lookup table.
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Returns the value of the given key.
+   *
+   * @param key key to look up.
+   * @return the value of the key, or <code>null</code> if the table does not have the key.
+   */
+  public String get(String key) {
+    byte[] value = get(key.getBytes(StandardCharsets.UTF_8));
+    return (value == null) ? null : new String(value, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns the value of the given UTF-8 key.
+   *
+   * @param key UTF-8 bytes of the key to look up.
+   * @return the UTF-8 bytes of the value of the key, or <code>null</code> if the table does not have the key.
+   */
+  public byte[] get(byte[] key) {
+    int hash = hash(key);
+    long mask = capacity - 1;
+    for (long slot = hash & mask; ; slot = (slot + 1) & mask) {
+      long offset = getLong(HEADER_SIZE + slot * 8);
+      if (offset == 0) {
+        return null;
+      }
+      if (getInt(offset) == hash && getInt(offset + 4) == key.length
+          && Arrays.equals(key, getBytes(offset + 8, key.length))) {
+        long valueOffset = offset + 8 + key.length;
+        return getBytes(valueOffset + 4, getInt(valueOffset));
+      }
+    }
+  }
+
+  static int hash(byte[] key) {
+    return HASH.hashBytes(key).asInt();
+  }
+
+  private int getInt(long position) {
+    ByteBuffer chunk = chunks[(int) (position >>> CHUNK_BITS)];
+    int index = (int) (position & (CHUNK_SIZE - 1));
+    if (index + 4 <= chunk.limit()) {
+      return chunk.getInt(index);
+    }
+    return ByteBuffer.wrap(getBytes(position, 4)).getInt();
+  }
+
+  private long getLong(long position) {
+    // slots are 8 bytes aligned, they never span chunks
+    return chunks[(int) (position >>> CHUNK_BITS)].getLong((int) (position & (CHUNK_SIZE - 1)));
+  }
+
+  private byte[] getBytes(long position, int len) {
+    if (position + len > length) {
+      throw new IllegalStateException(Utils.format("Lookup table '{}' is corrupted, entry beyond end of file", path));
+    }
+    byte[] bytes = new byte[len];
+    int read = 0;
+    while (read < len) {
+      long current = position + read;
+      // duplicate to read without moving the position of the shared buffer
+      ByteBuffer chunk = chunks[(int) (current >>> CHUNK_BITS)].duplicate();
+      chunk.position((int) (current & (CHUNK_SIZE - 1)));
+      int count = Math.min(len - read, chunk.remaining());
+      chunk.get(bytes, read, count);
+      read += count;
+    }
+    return bytes;
+  }
+
+  /**
+   * Writes a lookup table file. The file is written to a temporary file in the same directory and atomically moved in
+   * place by {@link #commit()}, so pipelines that have the previous version of the file open keep reading it. Closing
+   * a writer that was not committed, for example after a failed put, deletes the temporary file and leaves the lookup
+   * table file untouched.
+   * <p/>
+   * If a key is put more than once its last value is kept.
+   */
+  public static class Writer implements Closeable {
+    private static final double LOAD_FACTOR = 0.5;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final File tmpFile;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final long[] slots;
+    private final int[] hashes;
+    private final int maxEntries;
+    private long position;
+    private long size;
+    private boolean failed;
+    private boolean committed;
+
+    /**
+     * Creates a writer for the given number of entries.
+     *
+     * @param file lookup table file to write.
+     * @param expectedEntries maximum number of distinct keys that will be put.
+     * @throws IOException if the temporary file could not be created.
+     */
+    public Writer(File file, int expectedEntries) throws IOException {
+      Utils.checkArgument(expectedEntries >= 0, "expectedEntries must be zero or greater");
+      long capacity = Long.highestOneBit(Math.max(16, (long) Math.ceil(expectedEntries / LOAD_FACTOR)) * 2 - 1);
+      Utils.checkArgument(capacity <= Integer.MAX_VALUE, Utils.formatL("Too many entries '{}'", expectedEntries));
+      this.file = file.getAbsoluteFile();
+      // unique name in the same directory, so concurrent writers do not clash and the final move is atomic
+      tmpFile = Files.createTempFile(this.file.getParentFile().toPath(), "." + this.file.getName() + "-", ".tmp")
+          .toFile();
+      try {
+        channel = FileChannel.open(tmpFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+      } catch (IOException ex) {
+        Files.deleteIfExists(tmpFile.toPath());
+        throw ex;
+      }
+      buffer = ByteBuffer.allocate(BUFFER_SIZE);
+      slots = new long[(int) capacity];
+      hashes = new int[(int) capacity];
+      maxEntries = (int) (capacity * LOAD_FACTOR);
+      position = HEADER_SIZE + capacity * 8;
+      channel.position(position);
+    }
+
+    /**
+     * Puts an entry in the lookup table.
+     *
+     * @param key key of the entry.
+     * @param value value of the entry.
+     * @throws IOException if the entry could not be written.
+     */
+    public void put(String key, String value) throws IOException {
+      Utils.checkState(!committed, "Writer has been committed");
+      Utils.checkNotNull(key, "key");
+      Utils.checkNotNull(value, "value");
+      // a failed put may have left a partial entry, the writer cannot be committed anymore
+      failed = true;
+      byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+      byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+      int hash = hash(keyBytes);
+      int mask = slots.length - 1;
+      int slot = hash & mask;
+      while (slots[slot] != 0 && !(hashes[slot] == hash && isKey(slots[slot], keyBytes))) {
+        slot = (slot + 1) & mask;
+      }
+      if (slots[slot] == 0) {
+        Utils.checkState(size < maxEntries, Utils.formatL("Lookup table is full, '{}' entries", size));
+        size++;
+      }
+      slots[slot] = position;
+      hashes[slot] = hash;
+      ByteBuffer header = ByteBuffer.allocate(8).putInt(hash).putInt(keyBytes.length);
+      write(header.array());
+      write(keyBytes);
+      write(ByteBuffer.allocate(4).putInt(valueBytes.length).array());
+      write(valueBytes);
+      failed = false;
+    }
+
+    private boolean isKey(long offset, byte[] key) throws IOException {
+      flush();
+      ByteBuffer entry = ByteBuffer.allocate(4 + key.length);
+      channel.read(entry, offset + 4);
+      entry.flip();
+      if (entry.remaining() < 4 + key.length || entry.getInt() != key.length) {
+        return false;
+      }
+      byte[] bytes = new byte[key.length];
+      entry.get(bytes);
+      return Arrays.equals(key, bytes);
+    }
+
+    private void write(byte[] bytes) throws IOException {
+      if (bytes.length > buffer.remaining()) {
+        flush();
+      }
+      if (bytes.length > buffer.remaining()) {
+        channel.write(ByteBuffer.wrap(bytes));
+      } else {
+        buffer.put(bytes);
+      }
+      position += bytes.length;
+    }
+
+    private void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+
+    /**
+     * Writes the slots and the header and atomically moves the file in place.
+     *
+     * @throws IOException if the file could not be written.
+     */
+    public void commit() throws IOException {
+      Utils.checkState(!failed, "A put failed, the lookup table cannot be committed");
+      Utils.checkState(!committed, "Writer has been committed");
+      // set first, a failed commit is not retried and close() discards the temporary file
+      committed = true;
+      flush();
+      channel.position(HEADER_SIZE);
+      for (long slot : slots) {
+        if (buffer.remaining() < 8) {
+          flush();
+        }
+        buffer.putLong(slot);
+      }
+      flush();
+      buffer.putInt(MAGIC).putInt(VERSION).putLong(slots.length).putLong(size);
+      channel.position(0);
+      flush();
+      channel.force(true);
+      channel.close();
+      setPermissions();
+      Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // temporary files are only readable by their owner, the lookup table keeps the permissions of the file it replaces
+    private void setPermissions() throws IOException {
+      if (Files.getFileStore(tmpFile.toPath()).supportsFileAttributeView(PosixFileAttributeView.class)) {
+        Files.setPosixFilePermissions(
+            tmpFile.toPath(),
+            file.exists() ? Files.getPosixFilePermissions(file.toPath()) : PosixFilePermissions.fromString("rw-r--r--")
+        );
+      }
+    }
+
+    /**
+     * Closes the writer, discarding the temporary file if the writer was not committed or the commit failed.
+     *
+     * @throws IOException if the temporary file could not be deleted.
+     */
+    @Override
+    public void close() throws IOException {
+      try {
+        channel.close();
+      } finally {
+        Files.deleteIfExists(tmpFile.toPath());
+      }
+    }
+  }
+
+  /**
+   * Writes the given entries as a lookup table file.
+   *
+   * @param entries entries to write.
+   * @param file lookup table file to write.
+   * @throws IOException if the file could not be written.
+   */
+  public static void write(Map<String, String> entries, File file) throws IOException {
+    try (Writer writer = new Writer(file, entries.size())) {
+      for (Map.Entry<String, String> entry : entries.entrySet()) {
+        writer.put(entry.getKey(), entry.getValue());
+      }
+      writer.commit();
+    }
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv.local;
+
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.stream.Stream;
+
+/**
+ * Command line tool that generates a lookup table file for the Local Lookup processor from a UTF-8 text file with
+ * one entry per line, the key and the value separated by the first tab character. Empty lines are ignored and, for
+ * duplicate keys, the last value wins.
+ * <p/>
+ * Usage, with the basic stage library jars in the classpath:
+ * <pre>
+ *   java com.streamsets.pipeline.stage.processor.kv.local.MappedLookupTableGenerator \
+ *     &lt;entries file&gt; &lt;lookup table file&gt;
+ * </pre>
+ * The lookup table file is replaced atomically, and only once all the entries are written, so it can be regenerated
+ * while pipelines are reading it.
+ */
+public class MappedLookupTableGenerator {
+  private static final char SEPARATOR = '\t';
+
+  private MappedLookupTableGenerator() {}
+
+  /**
+   * Generates a lookup table file from an entries file.
+   *
+   * @param entriesFile UTF-8 text file with one tab separated key and value per line.
+   * @param file lookup table file to write.
+   * @return the number of entries written, including duplicate keys.
+   * @throws IOException if the entries file could not be read or has a line without a tab, or if the lookup table
+   * file could not be written.
+   */
+  public static long generate(File entriesFile, File file) throws IOException {
+    // the writer sizes the table upfront
+    long entries;
+    try (Stream<String> lines = Files.lines(entriesFile.toPath(), StandardCharsets.UTF_8)) {
+      entries = lines.filter(line -> !line.isEmpty()).count();
+    }
+    Utils.checkArgument(entries <= Integer.MAX_VALUE, Utils.formatL("Too many entries '{}'", entries));
+    try (
+        BufferedReader reader = Files.newBufferedReader(entriesFile.toPath(), StandardCharsets.UTF_8);
+        MappedLookupTable.Writer writer = new MappedLookupTable.Writer(file, (int) entries)
+    ) {
+      long lineNumber = 0;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (!line.isEmpty()) {
+          int separator = line.indexOf(SEPARATOR);
+          if (separator < 0) {
+            throw new IOException(Utils.format("Line {} of '{}' has no tab between key and value", lineNumber,
+                entriesFile));
+          }
+          writer.put(line.substring(0, separator), line.substring(separator + 1));
+        }
+      }
+      writer.commit();
+    }
+    return entries;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println(Utils.format("Usage: {} <entries file> <lookup table file>",
+          MappedLookupTableGenerator.class.getName()));
+      System.exit(1);
+    }
+    long entries = generate(new File(args[0]), new File(args[1]));
+    System.out.println(Utils.format("Wrote {} entries to '{}'", entries, args[1]));
+  }
+}
@@ -817,4 +817,70 @@ public class TestDirectorySpooler {
 
     spooler.destroy();
   }
+
+  @Test
+  public void testWatchDiscoversNewFiles() throws Exception {
+    assertTrue(spoolDir.mkdirs());
+    DirectorySpooler.Builder builder = initializeAndGetBuilder()
+        .setMaxSpoolFiles(10)
+        .setDiscoveryMode(FileDiscoveryMode.WATCH)
+        .setSpoolingPeriodSec(600)
+        .setReconciliationPeriodSec(600);
+    DirectorySpooler spooler = builder.build();
+    spooler.init(null);
+    try {
+      File logFile = new File(spoolDir, "x1.log").getAbsoluteFile();
+      new FileWriter(logFile).close();
+      new FileWriter(new File(spoolDir, "y1.log")).close();
+
+      // no directory scan happens within the wait, the file must come from the watcher
+      WrappedFile file = spooler.poolForFile(intervalMillis, TimeUnit.MILLISECONDS);
+      Assert.assertNotNull(file);
+      Assert.assertEquals(logFile.getAbsolutePath(), file.getAbsolutePath());
+      Assert.assertNull(spooler.poolForFile(1000, TimeUnit.MILLISECONDS));
+    } finally {
+      spooler.destroy();
+    }
+  }
+
+  @Test
+  public void testCatalogSkipsProcessedFiles() throws Exception {
+    assertTrue(spoolDir.mkdirs());
+    File catalogDir = new File(spoolDir.getParentFile(), "catalog");
+    assertTrue(catalogDir.mkdirs());
+    File logFile1 = new File(spoolDir, "x1.log").getAbsoluteFile();
+    new FileWriter(logFile1).close();
+    File logFile2 = new File(spoolDir, "x2.log").getAbsoluteFile();
+    new FileWriter(logFile2).close();
+
+    DirectorySpooler spooler = initializeAndGetBuilder()
+        .setMaxSpoolFiles(10)
+        .setCatalogDir(catalogDir.getAbsolutePath())
+        .build();
+    spooler.init(null);
+    WrappedFile file = spooler.poolForFile(intervalMillis, TimeUnit.MILLISECONDS);
+    Assert.assertEquals(logFile1.getAbsolutePath(), file.getAbsolutePath());
+    spooler.doPostProcessing(file);
+    spooler.destroy();
+
+    // the processed file stays in the directory but is not queued again after a restart
+    spooler = initializeAndGetBuilder()
+        .setMaxSpoolFiles(10)
+        .setCatalogDir(catalogDir.getAbsolutePath())
+        .build();
+    spooler.init(null);
+    Assert.assertEquals(logFile2.getAbsolutePath(), spooler.poolForFile(intervalMillis, TimeUnit.MILLISECONDS).getAbsolutePath());
+    Assert.assertNull(spooler.poolForFile(1000, TimeUnit.MILLISECONDS));
+    spooler.destroy();
+
+    // a modified file is processed again
+    Files.setLastModifiedTime(logFile1.toPath(), FileTime.fromMillis(System.currentTimeMillis() - 1000));
+    spooler = initializeAndGetBuilder()
+        .setMaxSpoolFiles(10)
+        .setCatalogDir(catalogDir.getAbsolutePath())
+        .build();
+    spooler.init(null);
+    Assert.assertEquals(logFile1.getAbsolutePath(), spooler.poolForFile(intervalMillis, TimeUnit.MILLISECONDS).getAbsolutePath());
+    spooler.destroy();
+  }
 }
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.dirspooler;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+public class TestFileCatalog {
+  private File catalogDir;
+  private File spoolDir;
+
+  @Before
+  public void setUp() {
+    File dir = new File("target", UUID.randomUUID().toString());
+    catalogDir = new File(dir, "catalog");
+    spoolDir = new File(dir, "spool");
+    Assert.assertTrue(catalogDir.mkdirs());
+    Assert.assertTrue(spoolDir.mkdirs());
+  }
+
+  private String createFile(String name) throws IOException {
+    File file = new File(spoolDir, name);
+    Assert.assertTrue(file.createNewFile());
+    return file.getAbsolutePath();
+  }
+
+  private int journalLines() throws IOException {
+    return Files.readAllLines(new File(catalogDir, FileCatalog.CATALOG_FILE).toPath(), StandardCharsets.UTF_8).size();
+  }
+
+  @Test
+  public void testReplay() throws Exception {
+    String file1 = createFile("file1.log");
+    String file2 = createFile("file2.log");
+    String file3 = createFile("file3.log");
+
+    try (FileCatalog catalog = new FileCatalog(catalogDir.getAbsolutePath())) {
+      catalog.markProcessed(file1, 1);
+      catalog.markProcessed(file2, 2);
+      catalog.markProcessed(file3, 3);
+      catalog.markProcessed(file3, 4);
+      catalog.forget(file2);
+      // forgetting a file that is not in the catalog does not add a line
+      catalog.forget(file2);
+      Assert.assertEquals(5, journalLines());
+    }
+
+    try (FileCatalog catalog = new FileCatalog(catalogDir.getAbsolutePath())) {
+      Assert.assertEquals(2, catalog.size());
+      Assert.assertTrue(catalog.isProcessed(file1, 1));
+      Assert.assertFalse(catalog.isProcessed(file1, 2));
+      Assert.assertFalse(catalog.isProcessed(file2, 2));
+      Assert.assertFalse(catalog.isProcessed(file3, 3));
+      Assert.assertTrue(catalog.isProcessed(file3, 4));
+      // the journal was rewritten with one line per processed file on startup
+      Assert.assertEquals(2, journalLines());
+    }
+  }
+
+  @Test
+  public void testReplayIgnoresPartialLine() throws Exception {
+    String file1 = createFile("file1.log");
+
+    try (FileCatalog catalog = new FileCatalog(catalogDir.getAbsolutePath())) {
+      catalog.markProcessed(file1, 1);
+    }
+    Files.write(
+        new File(catalogDir, FileCatalog.CATALOG_FILE).toPath(),
+        "+12".getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND
+    );
+
+    try (FileCatalog catalog = new FileCatalog(catalogDir.getAbsolutePath())) {
+      Assert.assertEquals(1, catalog.size());
+      Assert.assertTrue(catalog.isProcessed(file1, 1));
+    }
+  }
+
+  @Test
+  public void testCompactionDropsMissingFiles() throws Exception {
+    String file1 = createFile("file1.log");
+    String file2 = createFile("file2.log");
+
+    try (FileCatalog catalog = new FileCatalog(catalogDir.getAbsolutePath())) {
+      catalog.markProcessed(file1, 1);
+      catalog.markProcessed(file2, 2);
+    }
+    Assert.assertTrue(new File(file1).delete());
+
+    try (FileCatalog catalog = new FileCatalog(catalogDir.getAbsolutePath())) {
+      Assert.assertEquals(1, catalog.size());
+      Assert.assertFalse(catalog.isProcessed(file1, 1));
+      Assert.assertTrue(catalog.isProcessed(file2, 2));
+      Assert.assertEquals(1, journalLines());
+    }
+  }
+
+  @Test
+  public void testCompactionWhileRunning() throws Exception {
+    String file1 = createFile("file1.log");
+    String file2 = createFile("file2.log");
+    int updates = FileCatalog.MIN_LINES_TO_COMPACT + 500;
+
+    try (FileCatalog catalog = new FileCatalog(catalogDir.getAbsolutePath())) {
+      catalog.markProcessed(file1, 1);
+      for (int i = 0; i < updates; i++) {
+        catalog.markProcessed(file2, i);
+      }
+      Assert.assertEquals(2, catalog.size());
+      Assert.assertTrue(catalog.lines() < FileCatalog.MIN_LINES_TO_COMPACT);
+      Assert.assertEquals(catalog.lines(), journalLines());
+    }
+
+    try (FileCatalog catalog = new FileCatalog(catalogDir.getAbsolutePath())) {
+      Assert.assertTrue(catalog.isProcessed(file1, 1));
+      Assert.assertTrue(catalog.isProcessed(file2, updates - 1));
+    }
+  }
+
+  @Test
+  public void testChangesAfterCloseFail() throws Exception {
+    String file1 = createFile("file1.log");
+
+    FileCatalog catalog = new FileCatalog(catalogDir.getAbsolutePath());
+    catalog.markProcessed(file1, 1);
+    catalog.close();
+    // closing twice is fine
+    catalog.close();
+
+    try {
+      catalog.markProcessed(file1, 2);
+      Assert.fail();
+    } catch (IOException ex) {
+      // expected
+    }
+    try {
+      catalog.forget(file1);
+      Assert.fail();
+    } catch (IOException ex) {
+      // expected
+    }
+    Assert.assertTrue(catalog.isProcessed(file1, 1));
+    Assert.assertEquals(1, journalLines());
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.dirspooler;
+
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.lib.parser.DataParser;
+import com.streamsets.pipeline.lib.parser.DataParserFactory;
+import com.streamsets.pipeline.lib.parser.DataParserFactoryBuilder;
+import com.streamsets.pipeline.lib.parser.DataParserFormat;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.streamsets.pipeline.lib.dirspooler.PathMatcherMode.GLOB;
+
+public class TestSplitFile {
+  private WrappedFileSystem fs = new LocalFileSystem("*", GLOB);
+  private WrappedFile file;
+
+  @Before
+  public void setUp() throws Exception {
+    File dir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(dir.mkdirs());
+    File f = new File(dir, "file-0.log");
+    try (Writer writer = new FileWriter(f)) {
+      for (int i = 0; i < 1000; i++) {
+        writer.write("line-" + i + "\n");
+      }
+    }
+    file = fs.getFile(f.getAbsolutePath());
+  }
+
+  @Test
+  public void testPlanAlignsRangesToLines() throws Exception {
+    byte[] bytes = Files.readAllBytes(new File(file.getAbsolutePath()).toPath());
+    SplitFile split = SplitFile.plan(file, "file-0.log", 1000);
+
+    Assert.assertTrue(split.getRanges().size() > 1);
+    long start = 0;
+    for (SplitFile.Range range : split.getRanges()) {
+      Assert.assertEquals(start, range.getStart());
+      Assert.assertTrue(range.getEnd() > range.getStart());
+      Assert.assertEquals('\n', bytes[(int) range.getEnd() - 1]);
+      start = range.getEnd();
+    }
+    Assert.assertEquals(bytes.length, start);
+  }
+
+  @Test
+  public void testCommitAndRestore() throws Exception {
+    SplitFile split = SplitFile.plan(file, "file-0.log", 4000);
+    Assert.assertEquals(3, split.getRanges().size());
+
+    SplitFile.Range first = split.claim();
+    SplitFile.Range second = split.claim();
+    Assert.assertNotSame(first, second);
+
+    Assert.assertFalse(split.commit(first, "-1", 10, 0));
+    Assert.assertFalse(split.commit(second, "20", 5, 1));
+    String offset = split.getOffset();
+    Assert.assertTrue(SplitFile.isSplitOffset(offset));
+    Assert.assertFalse(SplitFile.isFinished(offset));
+
+    // the second range is resumed from its offset, the first one is not handed out again
+    SplitFile restored = SplitFile.restore(file, "file-0.log", offset);
+    Assert.assertEquals(offset, restored.getOffset());
+    SplitFile.Range range = restored.claim();
+    Assert.assertEquals(second.getStart(), range.getStart());
+    Assert.assertEquals("20", range.getOffset());
+    SplitFile.Range last = restored.claim();
+    Assert.assertEquals("0", last.getOffset());
+    Assert.assertNull(restored.claim());
+
+    Assert.assertFalse(restored.commit(range, "-1", 1, 0));
+    Assert.assertTrue(restored.commit(last, "-1", 1, 0));
+    Assert.assertTrue(SplitFile.isFinished(restored.getOffset()));
+  }
+
+  @Test
+  public void testFailedFileFinishesWhenReleased() throws Exception {
+    SplitFile split = SplitFile.plan(file, "file-0.log", 4000);
+    SplitFile.Range first = split.claim();
+    SplitFile.Range second = split.claim();
+
+    Assert.assertFalse(split.fail(first));
+    Assert.assertTrue(split.isFailed());
+    Assert.assertNull(split.claim());
+    Assert.assertTrue(split.release(second));
+  }
+
+  @Test
+  public void testQueueSplitsOnlyLargeFilesFromTheStart() throws Exception {
+    SplitFileQueue queue = new SplitFileQueue(1000, 2);
+    Assert.assertNull(queue.split(file, "file-0.log", "100"));
+    Assert.assertNull(new SplitFileQueue(0, 2).split(file, "file-0.log", "0"));
+
+    SplitFile split = queue.split(file, "file-0.log", "0");
+    Assert.assertNotNull(split);
+    Assert.assertSame(split, queue.claim().getSplitFile());
+
+    Assert.assertNull(queue.finish(split));
+    SplitFile next = queue.split(file, "file-1.log", "0");
+    Assert.assertEquals("file-0.log", queue.finish(next));
+  }
+
+  @Test
+  public void testRecordIdsAreUniqueAcrossRanges() throws Exception {
+    DataParserFactory parserFactory = new DataParserFactoryBuilder(
+        ContextInfoCreator.createSourceContext("s", false, OnRecordError.TO_ERROR, Collections.emptyList()),
+        DataParserFormat.TEXT
+    ).setMaxDataLen(1000).build();
+    SplitFile split = SplitFile.plan(file, "file-0.log", 1000);
+    Assert.assertTrue(split.getRanges().size() > 1);
+
+    Set<String> ids = new HashSet<>();
+    int records = 0;
+    for (SplitFile.Range range : split.getRanges()) {
+      try (DataParser parser = split.openParser(parserFactory, range, "0")) {
+        Record record;
+        while ((record = parser.parse()) != null) {
+          Assert.assertTrue(record.getHeader().getSourceId().startsWith("file-0.log::" + range.getStart() + "::"));
+          ids.add(record.getHeader().getSourceId());
+          records++;
+        }
+      }
+    }
+    Assert.assertEquals(1000, records);
+    Assert.assertEquals(records, ids.size());
+  }
+}
@@ -181,6 +181,32 @@ public class TestSdcIpcTarget {
     }
   }
 
+  @Test
+  public void testConsumeResponse() throws Exception {
+    HttpURLConnection conn = Mockito.mock(MockHttpURLConnection.class);
+    InputStream is = Mockito.spy(new ByteArrayInputStream(new byte[4096]));
+    Mockito.when(conn.getResponseCode()).thenReturn(HttpURLConnection.HTTP_OK);
+    Mockito.when(conn.getInputStream()).thenReturn(is);
+    SdcIpcTarget.consumeResponse(conn);
+    Assert.assertEquals(0, is.available());
+    Mockito.verify(is).close();
+    Mockito.verify(conn, Mockito.never()).disconnect();
+
+    conn = Mockito.mock(MockHttpURLConnection.class);
+    is = Mockito.spy(new ByteArrayInputStream(new byte[10]));
+    Mockito.when(conn.getResponseCode()).thenReturn(HttpURLConnection.HTTP_BAD_REQUEST);
+    Mockito.when(conn.getErrorStream()).thenReturn(is);
+    SdcIpcTarget.consumeResponse(conn);
+    Assert.assertEquals(0, is.available());
+    Mockito.verify(is).close();
+
+    conn = Mockito.mock(MockHttpURLConnection.class);
+    Mockito.when(conn.getResponseCode()).thenReturn(HttpURLConnection.HTTP_OK);
+    Mockito.when(conn.getInputStream()).thenThrow(new IOException());
+    SdcIpcTarget.consumeResponse(conn);
+    Mockito.verify(conn).disconnect();
+  }
+
   private void testWriteError(boolean connectionError, boolean badResponse) throws Exception {
     int writeResponseCode = (badResponse) ? HttpURLConnection.HTTP_BAD_REQUEST : HttpURLConnection.HTTP_OK;
 
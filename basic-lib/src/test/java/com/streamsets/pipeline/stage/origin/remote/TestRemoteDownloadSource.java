@@ -494,6 +494,70 @@ public class TestRemoteDownloadSource {
     destroyAndValidate(runner);
   }
 
+  @Test
+  public void testPrefetchedFilesOrdering() throws Exception {
+    path = "remote-download-source/parseSameTimestamp";
+    File dir =
+        new File(currentThread().getContextClassLoader().
+            getResource("remote-download-source/parseSameTimestamp").getPath());
+    File[] files = dir.listFiles();
+    Assert.assertEquals(3, files.length);
+    for (File f : files) {
+      if (f.getName().equals("panda.txt")) {
+        Assert.assertTrue(f.setLastModified(18000000L));
+      } else if (f.getName().equals("polarbear.txt")) {
+        f.setLastModified(18000000L);
+      } else if (f.getName().equals("sloth.txt")) {
+        f.setLastModified(17000000L);
+      }
+    }
+    setupSSHD(path, false);
+    RemoteDownloadConfigBean configBean = getBean(
+        "sftp://localhost:" + String.valueOf(port) + "/",
+        true,
+        "testuser",
+        "pass",
+        null,
+        null,
+        null,
+        true,
+        DataFormat.JSON,
+        null,
+        false,
+        "*"
+    );
+    configBean.numPrefetchThreads = 2;
+    RemoteDownloadSource origin = new RemoteDownloadSource(configBean);
+    SourceRunner runner = new SourceRunner.Builder(RemoteDownloadDSource.class, origin)
+        .addOutputLane("lane")
+        .build();
+    runner.runInit();
+    List<Record> expected = getExpectedRecords();
+    Record record = RecordCreator.create();
+    record.set(Field.create(new HashMap<String, Field>()));
+    record.set("/name", Field.create("polarbear"));
+    record.set("/age", Field.create("6"));
+    record.set("/characterisitics", Field.create(Arrays.asList(
+        Field.create("cool"),
+        Field.create("cute"),
+        Field.create("huge"),
+        Field.create("round"),
+        Field.create("playful")
+    )));
+    expected.add(record);
+    String offset = RemoteDownloadSource.NOTHING_READ;
+    for (int i = 0; i < 3; i++) {
+      StageRunner.Output op = runner.runProduce(offset, 1000);
+      offset = op.getNewOffset();
+      List<Record> actual = op.getRecords().get("lane");
+      Assert.assertEquals(1, actual.size());
+      Assert.assertEquals(expected.get(i).get(), actual.get(0).get());
+    }
+    // the first file is read from the server, the two after it from the copies prefetched meanwhile
+    Assert.assertEquals(2, origin.getPrefetcher().getOpenedCopies());
+    destroyAndValidate(runner);
+  }
+
   @Test
   public void testInitialFile() throws Exception {
     path = "remote-download-source/parseSameTimestamp";
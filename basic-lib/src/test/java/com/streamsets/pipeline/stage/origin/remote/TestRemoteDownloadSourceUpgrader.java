@@ -34,4 +34,14 @@ public class TestRemoteDownloadSourceUpgrader {
     Assert.assertTrue(configs.isEmpty());
   }
 
+  @Test
+  public void testUpgradeV3ToV4() throws Exception {
+    List<Config> configs = new ArrayList<>();
+
+    configs = new RemoteDownloadSourceUpgrader().upgrade("a", "b", "v", 3, 4, configs);
+    Assert.assertEquals(1, configs.size());
+    Assert.assertEquals("conf.numPrefetchThreads", configs.get(0).getName());
+    Assert.assertEquals(0, configs.get(0).getValue());
+  }
+
 }
@@ -32,11 +32,7 @@ public class TestMultithreadedUDPSource extends BaseUDPSourceTest {
 
   @Override
   protected void initializeRunner(UDPSourceConfigBean conf, int numThreads) throws StageException {
-    multithreadedSource = new MultithreadedUDPSource(
-        conf,
-        500,
-        numThreads
-    );
+    multithreadedSource = createSource(conf, numThreads);
 
     pushRunner = new PushSourceRunner.Builder(
         MultithreadedUDPDSource.class,
@@ -46,6 +42,14 @@ public class TestMultithreadedUDPSource extends BaseUDPSourceTest {
     pushRunner.runInit();
   }
 
+  protected MultithreadedUDPSource createSource(UDPSourceConfigBean conf, int numThreads) {
+    return new MultithreadedUDPSource(
+        conf,
+        500,
+        numThreads
+    );
+  }
+
   @Override
   protected void runProduce(
       DatagramMode dataFormat,
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.udp;
+
+/**
+ * Runs the multithreaded UDP tests with per worker sockets whenever epoll is enabled.
+ */
+public class TestMultithreadedUDPSourcePerWorkerSockets extends TestMultithreadedUDPSource {
+
+  @Override
+  protected MultithreadedUDPSource createSource(UDPSourceConfigBean conf, int numThreads) {
+    return new MultithreadedUDPSource(
+        conf,
+        500,
+        numThreads,
+        conf.enableEpoll
+    );
+  }
+}
@@ -61,10 +61,62 @@ public class TestAggregationEvaluator {
 
     evaluator.evaluate(record);
 
+    // the record is in the partial aggregation of this thread until flushed
+    Assert.assertEquals(0L, evaluator.getAggregator().get());
+    evaluator.flush();
     Assert.assertEquals(1L, evaluator.getAggregator().get());
 
     Assert.assertEquals(1L, ((Map)((Map)evaluator.getMetric().getGaugeData().get(0)).get("value")).get("1"));
 
     aggregators.stop();
   }
+
+  @Test
+  public void testPartialsPerThread() throws Exception {
+    AggregationDProcessor processor = new AggregationDProcessor();
+    processor.config = new AggregationConfigBean();
+    processor.config.timeWindow = TimeWindow.TW_1D;
+    processor.config.timeZoneID = "UTC";
+    processor.config.timeWindowsToRemember = 1;
+    processor.config.aggregatorConfigs = new ArrayList<>();
+    ProcessorRunner runner =
+        new ProcessorRunner.Builder(AggregationDProcessor.class, processor)
+            .addOutputLane("a").build();
+    Processor.Context context = (Processor.Context) runner.getContext();
+
+    AggregatorConfig config = new AggregatorConfig();
+    config.aggregationTitle = "title";
+    config.aggregationFunction = AggregationFunction.COUNT;
+    config.aggregationExpression = "1";
+
+    Aggregators aggregators = new Aggregators(3, WindowType.ROLLING);
+    AggregationEvaluator evaluator = new AggregationEvaluator(context, WindowType.ROLLING, "label", config, aggregators);
+    aggregators.start(1L);
+
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+        try {
+          for (int j = 0; j < 1000; j++) {
+            evaluator.evaluate(RecordCreator.create());
+          }
+        } catch (StageException ex) {
+          throw new RuntimeException(ex);
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    // the partial aggregations of all threads are aggregated when the window rolls
+    Assert.assertEquals(0L, evaluator.getAggregator().get());
+    evaluator.flushAll();
+    Assert.assertEquals(4000L, evaluator.getAggregator().get());
+    evaluator.flushAll();
+    Assert.assertEquals(4000L, evaluator.getAggregator().get());
+
+    aggregators.stop();
+  }
 }
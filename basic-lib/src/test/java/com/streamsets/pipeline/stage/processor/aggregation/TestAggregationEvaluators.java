@@ -72,6 +72,7 @@ public class TestAggregationEvaluators {
     record.set(Field.create(2));
 
     evaluators.evaluate(record);
+    evaluators.flush();
 
     Assert.assertEquals(2L, evaluator.getAggregator().get());
 
@@ -15,12 +15,15 @@
  */
 package com.streamsets.pipeline.stage.processor.aggregation;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.streamsets.pipeline.api.Config;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class TestAggregationProcessorUpgrader {
   @Test
@@ -41,4 +44,23 @@ public class TestAggregationProcessorUpgrader {
     );
     Assert.assertEquals(true, config.getValue());
   }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testUpgradeMaxGroups() throws Exception {
+    String aggregatorConfigsName = AggregationProcessorUpgrader.JOINER.join(
+        AggregationProcessorUpgrader.CONFIG,
+        AggregationProcessorUpgrader.AGGREGATOR_CONFIGS
+    );
+    List<Config> configs = new ArrayList<>();
+    configs.add(new Config(aggregatorConfigsName, ImmutableList.of(ImmutableMap.of("groupBy", true))));
+    new AggregationProcessorUpgrader().upgrade("a", "b", "c", 2, 3, configs);
+
+    Assert.assertEquals(1, configs.size());
+    Assert.assertEquals(aggregatorConfigsName, configs.get(0).getName());
+    List<Map<String, Object>> aggregatorConfigs = (List<Map<String, Object>>) configs.get(0).getValue();
+    Assert.assertEquals(1, aggregatorConfigs.size());
+    Assert.assertEquals(true, aggregatorConfigs.get(0).get("groupBy"));
+    Assert.assertEquals(0, aggregatorConfigs.get(0).get(AggregationProcessorUpgrader.MAX_GROUPS));
+  }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.aggregation.aggregator;
+
+import com.streamsets.pipeline.stage.processor.aggregation.WindowType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestCountDistinctAggregator {
+
+  @Test
+  public void testAggregator() {
+    Aggregators aggregators = new Aggregators(2, WindowType.ROLLING);
+    CountDistinctAggregator aggregator = aggregators.createSimple("a", CountDistinctAggregator.class);
+    aggregators.start(1);
+
+    Aggregators aggregatorsA = new Aggregators(2, WindowType.ROLLING);
+    CountDistinctAggregator aggregatorA = aggregatorsA.createSimple("a", CountDistinctAggregator.class);
+    aggregatorsA.start(1);
+
+    Assert.assertEquals("a", aggregator.getName());
+    Assert.assertEquals(Object.class, aggregator.getInputType());
+    Assert.assertEquals(0L, aggregator.get());
+
+    aggregator.process("x");
+    aggregator.process("x");
+    aggregator.process(1L);
+    Assert.assertEquals(2L, aggregator.get());
+
+    for (int i = 0; i < 10000; i++) {
+      aggregator.process("v" + i);
+    }
+    long estimate = (Long) aggregator.get();
+    Assert.assertTrue("estimate " + estimate, Math.abs(estimate - 10002) < 500);
+
+    Assert.assertEquals("a", aggregator.getAggregatable().getName());
+    Assert.assertEquals(
+        CountDistinctAggregator.CountDistinctAggregatable.class.getSimpleName(),
+        aggregator.getAggregatable().getType()
+    );
+    Assert.assertEquals(
+        estimate,
+        ((CountDistinctAggregator.CountDistinctAggregatable) aggregator.getAggregatable()).getCount()
+    );
+
+    // overlapping values are counted once when the sketches are merged
+    for (int i = 5000; i < 15000; i++) {
+      aggregatorA.process("v" + i);
+    }
+    aggregatorA.aggregate(aggregator.getAggregatable());
+    estimate = (Long) aggregatorA.get();
+    Assert.assertTrue("estimate " + estimate, Math.abs(estimate - 15002) < 750);
+
+    aggregatorsA.stop();
+
+    aggregators.stop();
+  }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.aggregation.aggregator;
+
+import com.streamsets.pipeline.stage.processor.aggregation.WindowType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestDoublePercentileAggregator {
+
+  @Test
+  public void testAggregator() {
+    Aggregators aggregators = new Aggregators(2, WindowType.ROLLING);
+    DoublePercentileAggregator aggregator = aggregators.createSimple("a", DoublePercentileAggregator.P50.class);
+    aggregators.start(1);
+
+    Aggregators aggregatorsA = new Aggregators(2, WindowType.ROLLING);
+    DoublePercentileAggregator aggregatorA = aggregatorsA.createSimple("a", DoublePercentileAggregator.P50.class);
+    aggregatorsA.start(1);
+
+    Assert.assertEquals("a", aggregator.getName());
+    Assert.assertEquals(0.5, aggregator.getQuantile(), 0);
+    Assert.assertNull(aggregator.get());
+
+    for (int i = 1; i <= 10000; i++) {
+      aggregator.process((double) i);
+    }
+    Assert.assertEquals(5000, aggregator.get(), 100);
+
+    Assert.assertEquals("a", aggregator.getAggregatable().getName());
+    Assert.assertEquals(
+        DoublePercentileAggregator.DoublePercentileAggregatable.class.getSimpleName(),
+        aggregator.getAggregatable().getType()
+    );
+    DoublePercentileAggregator.DoublePercentileAggregatable aggregatable =
+        (DoublePercentileAggregator.DoublePercentileAggregatable) aggregator.getAggregatable();
+    Assert.assertEquals(10000, aggregatable.getCount());
+    Assert.assertEquals(5000, aggregatable.getPercentile(), 100);
+
+    for (int i = 10001; i <= 20000; i++) {
+      aggregatorA.process((double) i);
+    }
+    aggregatorA.aggregate(aggregator.getAggregatable());
+    Assert.assertEquals(10000, aggregatorA.get(), 200);
+
+    aggregatorsA.stop();
+
+    aggregators.stop();
+  }
+
+  @Test
+  public void testTailPercentiles() {
+    Aggregators aggregators = new Aggregators(2, WindowType.ROLLING);
+    DoublePercentileAggregator p95 = aggregators.createSimple("p95", DoublePercentileAggregator.P95.class);
+    DoublePercentileAggregator p99 = aggregators.createSimple("p99", DoublePercentileAggregator.P99.class);
+    aggregators.start(1);
+
+    for (int i = 1; i <= 10000; i++) {
+      p95.process((double) i);
+      p99.process((double) i);
+    }
+    Assert.assertEquals(9500, p95.get(), 50);
+    Assert.assertEquals(9900, p99.get(), 20);
+
+    aggregators.stop();
+  }
+
+}
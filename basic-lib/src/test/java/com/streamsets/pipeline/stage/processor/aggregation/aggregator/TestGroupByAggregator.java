@@ -21,6 +21,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.Collections;
+import java.util.Map;
 
 public class TestGroupByAggregator {
 
@@ -70,4 +71,62 @@ public class TestGroupByAggregator {
     aggregators.stop();
   }
 
+  @Test
+  public void testBoundedGroups() {
+    Aggregators aggregators = new Aggregators(2, WindowType.ROLLING);
+    GroupByAggregator aggregator = aggregators.createGroupBy("g", CountAggregator.class, 2);
+    aggregators.start(1);
+
+    Assert.assertEquals(2, aggregator.getMaxGroups());
+
+    for (int i = 0; i < 100; i++) {
+      aggregator.process("a", 1L);
+      aggregator.process("b", 1L);
+      aggregator.process("s" + i, 1L);
+    }
+
+    // only the most frequent groups are kept, the rest are aggregated into a single group
+    Map<String, Long> groups = (Map<String, Long>) aggregator.get();
+    Assert.assertEquals(3, groups.size());
+    Assert.assertEquals((Long) 100L, groups.get("a"));
+    Assert.assertEquals((Long) 100L, groups.get("b"));
+    Assert.assertEquals((Long) 100L, groups.get(GroupByAggregator.OTHER_GROUPS));
+
+    aggregators.stop();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testBoundedGroupsPartials() {
+    Aggregators aggregators = new Aggregators(2, WindowType.ROLLING);
+    GroupByAggregator aggregator = aggregators.createGroupBy("g", CountAggregator.class, 2);
+    aggregators.start(1);
+
+    AggregatorData partialA = aggregators.createPartialData(aggregator);
+    AggregatorData partialB = aggregators.createPartialData(aggregator);
+    for (int i = 0; i < 50; i++) {
+      for (int j = 0; j < 2; j++) {
+        partialA.process(ImmutableMap.of("a", 1L));
+        partialB.process(ImmutableMap.of("b", 1L));
+      }
+      partialA.process(ImmutableMap.of("s" + i, 1L));
+      partialB.process(ImmutableMap.of("s" + (50 + i), 1L));
+    }
+
+    // partials keep all their groups
+    Assert.assertEquals(51, ((Map<String, Long>) partialA.get()).size());
+    Assert.assertEquals((Long) 100L, ((Map<String, Long>) partialA.get()).get("a"));
+
+    // the maximum number of groups is applied when the partials are aggregated
+    aggregator.aggregate(partialA.getAggregatable());
+    aggregator.aggregate(partialB.getAggregatable());
+    Map<String, Long> groups = (Map<String, Long>) aggregator.get();
+    Assert.assertEquals(3, groups.size());
+    Assert.assertEquals((Long) 100L, groups.get("a"));
+    Assert.assertEquals((Long) 100L, groups.get("b"));
+    Assert.assertEquals((Long) 100L, groups.get(GroupByAggregator.OTHER_GROUPS));
+
+    aggregators.stop();
+  }
+
 }
@@ -156,4 +156,19 @@ public class TestHttpProcessorUpgrader {
         "conf.client.requestLoggingConfig.maxEntitySize"
     );
   }
+
+  @Test
+  public void testV11ToV12() throws Exception {
+    List<Config> configs = new ArrayList<>();
+
+    HttpProcessorUpgrader upgrader = new HttpProcessorUpgrader();
+    upgrader.upgrade("lib", "stage", "inst", 11, 12, configs);
+
+    Map<String, Object> configValues = getConfigsAsMap(configs);
+    assertEquals(0, configValues.get("conf.maxRequestsPerHost"));
+    assertEquals(false, configValues.get("conf.coalesceRequests"));
+    assertEquals(false, configValues.get("conf.cacheResponses"));
+    assertEquals(60L, configValues.get("conf.cacheTtlSecs"));
+    assertEquals(1000L, configValues.get("conf.maxCacheEntries"));
+  }
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.http;
+
+import com.codahale.metrics.Timer;
+import com.google.common.base.Charsets;
+import com.streamsets.pipeline.lib.http.HttpMethod;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import javax.ws.rs.client.InvocationCallback;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class TestHttpRequestEngine {
+
+  private static class RecordingDispatcher implements HttpRequestEngine.Dispatcher {
+    private final List<InvocationCallback<Response>> callbacks = new ArrayList<>();
+
+    @Override
+    public void dispatch(InvocationCallback<Response> callback) {
+      callbacks.add(callback);
+    }
+  }
+
+  private static Response mockResponse(int status, String body, String cacheControl) {
+    Response response = Mockito.mock(Response.class);
+    Mockito.when(response.getStatus()).thenReturn(status);
+    Mockito.when(response.getStatusInfo()).thenReturn(Response.Status.fromStatusCode(status));
+    Mockito.when(response.hasEntity()).thenReturn(body != null);
+    if (body != null) {
+      Mockito.when(response.readEntity(byte[].class)).thenReturn(body.getBytes(Charsets.UTF_8));
+    }
+    MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+    if (cacheControl != null) {
+      headers.add("cache-control", cacheControl);
+    }
+    Mockito.when(response.getStringHeaders()).thenReturn(headers);
+    return response;
+  }
+
+  private static HttpRequestEngine.RequestKey key(HttpMethod method, String uri) {
+    return new HttpRequestEngine.RequestKey(method, URI.create(uri), new MultivaluedHashMap<>(), null);
+  }
+
+  @Test
+  public void testIdenticalRequestsAreCoalesced() throws Exception {
+    HttpRequestEngine engine = new HttpRequestEngine(0, true, false, 60, 100);
+    RecordingDispatcher dispatcher = new RecordingDispatcher();
+
+    Future<BufferedResponse> first = engine.submit(key(HttpMethod.GET, "http://h/a"), 1000, new Timer(), dispatcher);
+    Future<BufferedResponse> second = engine.submit(key(HttpMethod.GET, "http://h/a"), 1000, new Timer(), dispatcher);
+    Future<BufferedResponse> other = engine.submit(key(HttpMethod.GET, "http://h/b"), 1000, new Timer(), dispatcher);
+    Assert.assertEquals(2, dispatcher.callbacks.size());
+    Assert.assertEquals(2, engine.getInFlightCount());
+
+    dispatcher.callbacks.get(0).completed(mockResponse(200, "a", null));
+    Assert.assertSame(first.get(), second.get());
+    Assert.assertEquals("a", second.get().getBodyAsString());
+    Assert.assertFalse(other.isDone());
+    Assert.assertEquals(1, engine.getInFlightCount());
+
+    // Once completed, the same request is sent again as caching is disabled
+    engine.submit(key(HttpMethod.GET, "http://h/a"), 1000, new Timer(), dispatcher);
+    Assert.assertEquals(3, dispatcher.callbacks.size());
+  }
+
+  @Test
+  public void testNonIdempotentRequestsAreNotCoalesced() throws Exception {
+    HttpRequestEngine engine = new HttpRequestEngine(0, true, true, 60, 100);
+    RecordingDispatcher dispatcher = new RecordingDispatcher();
+
+    engine.submit(key(HttpMethod.POST, "http://h/a"), 1000, new Timer(), dispatcher);
+    engine.submit(key(HttpMethod.POST, "http://h/a"), 1000, new Timer(), dispatcher);
+    Assert.assertEquals(2, dispatcher.callbacks.size());
+  }
+
+  @Test
+  public void testResponsesAreCached() throws Exception {
+    HttpRequestEngine engine = new HttpRequestEngine(0, false, true, 60, 100);
+    RecordingDispatcher dispatcher = new RecordingDispatcher();
+    Timer timer = new Timer();
+
+    Future<BufferedResponse> first = engine.submit(key(HttpMethod.GET, "http://h/a"), 1000, timer, dispatcher);
+    dispatcher.callbacks.get(0).completed(mockResponse(200, "a", null));
+    Assert.assertEquals(1, timer.getCount());
+
+    Future<BufferedResponse> second = engine.submit(key(HttpMethod.GET, "http://h/a"), 1000, timer, dispatcher);
+    Assert.assertEquals(1, dispatcher.callbacks.size());
+    Assert.assertSame(first.get(), second.get());
+    Assert.assertEquals(1, timer.getCount());
+
+    // no-store responses and errors are not cached
+    engine.submit(key(HttpMethod.GET, "http://h/b"), 1000, timer, dispatcher);
+    dispatcher.callbacks.get(1).completed(mockResponse(200, "b", "private, no-store"));
+    engine.submit(key(HttpMethod.GET, "http://h/b"), 1000, timer, dispatcher);
+    Assert.assertEquals(3, dispatcher.callbacks.size());
+
+    engine.submit(key(HttpMethod.GET, "http://h/c"), 1000, timer, dispatcher);
+    dispatcher.callbacks.get(3).completed(mockResponse(500, "c", null));
+    engine.submit(key(HttpMethod.GET, "http://h/c"), 1000, timer, dispatcher);
+    Assert.assertEquals(5, dispatcher.callbacks.size());
+  }
+
+  @Test
+  public void testCacheTtl() throws Exception {
+    long defaultTtl = TimeUnit.SECONDS.toMillis(60);
+    Assert.assertEquals(defaultTtl, HttpRequestEngine.getCacheTtlMillis(
+        BufferedResponse.of(mockResponse(200, "", null)), defaultTtl));
+    Assert.assertEquals(5000, HttpRequestEngine.getCacheTtlMillis(
+        BufferedResponse.of(mockResponse(200, "", "public, max-age=5")), defaultTtl));
+    Assert.assertEquals(0, HttpRequestEngine.getCacheTtlMillis(
+        BufferedResponse.of(mockResponse(200, "", "max-age=5, no-cache")), defaultTtl));
+    Assert.assertEquals(0, HttpRequestEngine.getCacheTtlMillis(
+        BufferedResponse.of(mockResponse(200, "", "max-age=soon")), defaultTtl));
+    Assert.assertEquals(0, HttpRequestEngine.getCacheTtlMillis(
+        BufferedResponse.of(mockResponse(404, "", "max-age=5")), defaultTtl));
+  }
+
+  @Test
+  public void testExpiredResponsesAreRefetched() throws Exception {
+    HttpRequestEngine engine = new HttpRequestEngine(0, false, true, 60, 100);
+    RecordingDispatcher dispatcher = new RecordingDispatcher();
+
+    engine.submit(key(HttpMethod.GET, "http://h/a"), 1000, new Timer(), dispatcher);
+    dispatcher.callbacks.get(0).completed(mockResponse(200, "a", "max-age=0"));
+    engine.submit(key(HttpMethod.GET, "http://h/a"), 1000, new Timer(), dispatcher);
+    Assert.assertEquals(2, dispatcher.callbacks.size());
+  }
+
+  @Test
+  public void testMaxRequestsPerHost() throws Exception {
+    HttpRequestEngine engine = new HttpRequestEngine(1, false, false, 60, 100);
+    RecordingDispatcher dispatcher = new RecordingDispatcher();
+
+    Future<BufferedResponse> first = engine.submit(key(HttpMethod.GET, "http://h1/a"), 10, new Timer(), dispatcher);
+    // A different host has its own slots
+    engine.submit(key(HttpMethod.GET, "http://h2/a"), 10, new Timer(), dispatcher);
+    Assert.assertEquals(2, dispatcher.callbacks.size());
+
+    Future<BufferedResponse> blocked = engine.submit(key(HttpMethod.GET, "http://h1/b"), 10, new Timer(), dispatcher);
+    Assert.assertEquals(2, dispatcher.callbacks.size());
+    try {
+      blocked.get();
+      Assert.fail();
+    } catch (ExecutionException e) {
+      Assert.assertTrue(e.getCause() instanceof TimeoutException);
+    }
+
+    dispatcher.callbacks.get(0).failed(new RuntimeException("connection reset"));
+    try {
+      first.get();
+      Assert.fail();
+    } catch (ExecutionException e) {
+      Assert.assertEquals("connection reset", e.getCause().getMessage());
+    }
+
+    // The failed request released its slot
+    engine.submit(key(HttpMethod.GET, "http://h1/b"), 10, new Timer(), dispatcher);
+    Assert.assertEquals(3, dispatcher.callbacks.size());
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv.local;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+public class TestMappedLookupTable {
+  private File testDir;
+
+  @Before
+  public void setUp() {
+    testDir = new File("target", UUID.randomUUID().toString()).getAbsoluteFile();
+    Assert.assertTrue(testDir.mkdirs());
+  }
+
+  @Test
+  public void testWriteAndGet() throws Exception {
+    File file = new File(testDir, "table.bin");
+    MappedLookupTable.write(ImmutableMap.of("key1", "value1", "key2", "", "kéy3", "välue3"), file);
+    Assert.assertArrayEquals(new String[] {"table.bin"}, testDir.list());
+
+    try (MappedLookupTable table = MappedLookupTable.open(file)) {
+      Assert.assertEquals(3, table.size());
+      Assert.assertEquals("value1", table.get("key1"));
+      Assert.assertEquals("", table.get("key2"));
+      Assert.assertEquals("välue3", table.get("kéy3"));
+      Assert.assertNull(table.get("key4"));
+      Assert.assertNull(table.get(""));
+    }
+  }
+
+  @Test
+  public void testManyEntries() throws Exception {
+    File file = new File(testDir, "table.bin");
+    Map<String, String> entries = new HashMap<>();
+    for (int i = 0; i < 100000; i++) {
+      entries.put("key" + i, "value" + i);
+    }
+    MappedLookupTable.write(entries, file);
+
+    try (MappedLookupTable table = MappedLookupTable.open(file)) {
+      Assert.assertEquals(entries.size(), table.size());
+      for (Map.Entry<String, String> entry : entries.entrySet()) {
+        Assert.assertEquals(entry.getValue(), table.get(entry.getKey()));
+      }
+      Assert.assertNull(table.get("key100000"));
+    }
+  }
+
+  @Test
+  public void testDuplicateKeys() throws Exception {
+    File file = new File(testDir, "table.bin");
+    try (MappedLookupTable.Writer writer = new MappedLookupTable.Writer(file, 2)) {
+      writer.put("key1", "value1");
+      writer.put("key2", "value2");
+      writer.put("key1", "value3");
+      writer.commit();
+    }
+
+    try (MappedLookupTable table = MappedLookupTable.open(file)) {
+      Assert.assertEquals(2, table.size());
+      Assert.assertEquals("value3", table.get("key1"));
+      Assert.assertEquals("value2", table.get("key2"));
+    }
+  }
+
+  @Test
+  public void testWriterNotCommitted() throws Exception {
+    File file = new File(testDir, "table.bin");
+    MappedLookupTable.write(ImmutableMap.of("key1", "value1"), file);
+
+    try (MappedLookupTable.Writer writer = new MappedLookupTable.Writer(file, 2)) {
+      writer.put("key1", "value2");
+    }
+
+    // the temporary file is discarded and the lookup table file is left untouched
+    Assert.assertArrayEquals(new String[] {"table.bin"}, testDir.list());
+    try (MappedLookupTable table = MappedLookupTable.open(file)) {
+      Assert.assertEquals("value1", table.get("key1"));
+    }
+  }
+
+  @Test
+  public void testShared() throws Exception {
+    File file = new File(testDir, "table.bin");
+    MappedLookupTable.write(ImmutableMap.of("key1", "value1"), file);
+
+    MappedLookupTable table1 = MappedLookupTable.open(file);
+    MappedLookupTable table2 = MappedLookupTable.open(file);
+    Assert.assertSame(table1, table2);
+
+    // a rewritten file is mapped again, the previous mapping stays valid for its users
+    MappedLookupTable.write(ImmutableMap.of("key1", "value2", "key2", "value2"), file);
+    Assert.assertTrue(file.setLastModified(file.lastModified() + 2000));
+    MappedLookupTable table3 = MappedLookupTable.open(file);
+    Assert.assertNotSame(table1, table3);
+    Assert.assertEquals("value1", table1.get("key1"));
+    Assert.assertEquals("value2", table3.get("key1"));
+
+    table1.close();
+    table2.close();
+    Assert.assertSame(table3, MappedLookupTable.open(file));
+    table3.close();
+    table3.close();
+  }
+
+  @Test(expected = IOException.class)
+  public void testInvalidFile() throws Exception {
+    File file = new File(testDir, "table.bin");
+    Files.write(file.toPath(), "key1=value1\nkey2=value2\nkey3=value3".getBytes());
+    MappedLookupTable.open(file);
+  }
+
+  @Test
+  public void testStore() throws Exception {
+    File file = new File(testDir, "table.bin");
+    MappedLookupTable.write(ImmutableMap.of("key1", "value1", "key2", "value2"), file);
+
+    LocalLookupConfig conf = new LocalLookupConfig();
+    conf.storeType = StoreType.FILE;
+    conf.filePath = file.getPath();
+    LocalStore store = conf.createStore();
+    Assert.assertTrue(store instanceof MappedLocalStore);
+    Assert.assertEquals(Optional.of("value1"), store.get("key1"));
+    Assert.assertEquals(
+        ImmutableMap.of("key2", Optional.of("value2"), "key3", Optional.absent()),
+        store.get(ImmutableList.of("key2", "key3"))
+    );
+
+    // writes are skipped, the file is read-only
+    store.put("key3", "value3");
+    store.putAll(ImmutableMap.of("key1", "other", "key4", "value4"));
+    Assert.assertEquals(Optional.of("value1"), store.get("key1"));
+    Assert.assertEquals(Optional.absent(), store.get("key3"));
+    Assert.assertEquals(Optional.absent(), store.get("key4"));
+    store.close();
+  }
+
+  @Test
+  public void testGenerator() throws Exception {
+    File entriesFile = new File(testDir, "entries.txt");
+    String entries = "key1\tvalue1\n\nkey2\t\nkéy3\tvälue\t3\nkey1\tvalue4\n";
+    Files.write(entriesFile.toPath(), entries.getBytes(StandardCharsets.UTF_8));
+    File file = new File(testDir, "table.bin");
+    Assert.assertEquals(4, MappedLookupTableGenerator.generate(entriesFile, file));
+
+    try (MappedLookupTable table = MappedLookupTable.open(file)) {
+      Assert.assertEquals(3, table.size());
+      Assert.assertEquals("value4", table.get("key1"));
+      Assert.assertEquals("", table.get("key2"));
+      Assert.assertEquals("välue\t3", table.get("kéy3"));
+    }
+  }
+
+  @Test
+  public void testGeneratorInvalidLine() throws Exception {
+    File file = new File(testDir, "table.bin");
+    MappedLookupTable.write(ImmutableMap.of("key1", "value1"), file);
+    File entriesFile = new File(testDir, "entries.txt");
+    Files.write(entriesFile.toPath(), "key1\tvalue2\nkey2=value2\n".getBytes(StandardCharsets.UTF_8));
+    try {
+      MappedLookupTableGenerator.generate(entriesFile, file);
+      Assert.fail();
+    } catch (IOException ex) {
+      Assert.assertTrue(ex.getMessage().contains("Line 2"));
+    }
+
+    // the existing lookup table file is left untouched
+    Assert.assertEquals(ImmutableSet.of("table.bin", "entries.txt"), ImmutableSet.copyOf(testDir.list()));
+    try (MappedLookupTable table = MappedLookupTable.open(file)) {
+      Assert.assertEquals("value1", table.get("key1"));
+    }
+  }
+
+}
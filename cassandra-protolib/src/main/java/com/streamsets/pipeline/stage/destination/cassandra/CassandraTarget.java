@@ -24,12 +24,16 @@ import com.datastax.driver.core.ColumnMetadata;
 import com.datastax.driver.core.KeyspaceMetadata;
 import com.datastax.driver.core.PlainTextAuthProvider;
 import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ProtocolVersion;
 import com.datastax.driver.core.RemoteEndpointAwareJdkSSLOptions;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
 import com.datastax.driver.core.TableMetadata;
 import com.datastax.driver.core.TypeCodec;
 import com.datastax.driver.core.exceptions.AuthenticationException;
 import com.datastax.driver.core.exceptions.CodecNotFoundException;
+import com.datastax.driver.core.exceptions.DriverException;
 import com.datastax.driver.core.exceptions.InvalidTypeException;
 import com.datastax.driver.core.exceptions.NoHostAvailableException;
 import com.datastax.driver.dse.auth.DseGSSAPIAuthProvider;
@@ -42,6 +46,7 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
@@ -60,18 +65,21 @@ import javax.annotation.Nullable;
 import javax.security.auth.Subject;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 import java.security.AccessControlContext;
 import java.security.AccessController;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 
 /**
@@ -83,6 +91,7 @@ import java.util.stream.Collectors;
  *   explicitly specify the keyspace in your queries.
  * - If you execute a statement more than once, consider using a prepared statement.
  * - You can reduce the number of network round trips and also have atomic operations by using batches.
+ * - Batches spanning multiple partitions put extra load on the coordinator, prefer single-partition batches.
  *
  */
 public class CassandraTarget extends BaseTarget {
@@ -297,6 +306,14 @@ public class CassandraTarget extends BaseTarget {
   @Override
   @SuppressWarnings("unchecked")
   public void write(Batch batch) throws StageException {
+    if (conf.asyncWrites) {
+      writeAsync(batch);
+    } else {
+      writeSync(batch);
+    }
+  }
+
+  private void writeSync(Batch batch) throws StageException {
     // The batch holding the current batch to INSERT.
     BatchStatement batchedStatement = new BatchStatement(conf.batchType);
 
@@ -326,6 +343,93 @@ public class CassandraTarget extends BaseTarget {
     }
   }
 
+  /**
+   * Groups the records by partition key so that every batch only touches a single partition and submits them with
+   * executeAsync, keeping at most maxConcurrentRequests statements in flight. Only the records belonging to a failed
+   * statement are sent to error.
+   */
+  private void writeAsync(Batch batch) throws StageException {
+    ProtocolVersion protocolVersion = cluster.getConfiguration().getProtocolOptions().getProtocolVersion();
+    CodecRegistry codecRegistry = cluster.getConfiguration().getCodecRegistry();
+
+    // Statements (and their records) keyed by routing key, statements without one are executed on their own.
+    Map<ByteBuffer, List<BoundRecord>> partitions = new LinkedHashMap<>();
+    List<BoundRecord> unrouted = new ArrayList<>();
+
+    Iterator<Record> records = batch.getRecords();
+    while (records.hasNext()) {
+      final Record record = records.next();
+      BoundStatement boundStmt = recordToBoundStatement(record);
+      if (boundStmt == null) {
+        continue;
+      }
+      ByteBuffer routingKey = boundStmt.getRoutingKey(protocolVersion, codecRegistry);
+      if (routingKey == null) {
+        unrouted.add(new BoundRecord(record, boundStmt));
+      } else {
+        partitions.computeIfAbsent(routingKey, k -> new ArrayList<>()).add(new BoundRecord(record, boundStmt));
+      }
+    }
+
+    Semaphore permits = new Semaphore(conf.maxConcurrentRequests);
+    List<PendingWrite> pendingWrites = new ArrayList<>();
+    try {
+      for (List<BoundRecord> partition : partitions.values()) {
+        for (List<BoundRecord> chunk : Lists.partition(partition, conf.maxBatchSize)) {
+          if (chunk.size() == 1) {
+            pendingWrites.add(submit(permits, chunk.get(0).record, chunk.get(0).statement));
+          } else {
+            BatchStatement batchedStatement = new BatchStatement(conf.batchType);
+            List<Record> batchRecords = new ArrayList<>(chunk.size());
+            for (BoundRecord entry : chunk) {
+              batchRecords.add(entry.record);
+              batchedStatement.add(entry.statement);
+            }
+            pendingWrites.add(submit(permits, batchRecords, batchedStatement));
+          }
+        }
+      }
+      for (BoundRecord entry : unrouted) {
+        pendingWrites.add(submit(permits, entry.record, entry.statement));
+      }
+    } catch (InterruptedException e) {
+      // don't leave statements of an aborted batch running in the background
+      for (PendingWrite pending : pendingWrites) {
+        pending.future.cancel(true);
+      }
+      Thread.currentThread().interrupt();
+      throw new StageException(Errors.CASSANDRA_07, e.toString(), e);
+    }
+
+    for (PendingWrite pending : pendingWrites) {
+      try {
+        pending.future.getUninterruptibly();
+      } catch (DriverException e) {
+        LOG.error(Errors.CASSANDRA_11.getMessage(), e.toString(), e);
+        errorRecordHandler.onError(pending.records, new StageException(Errors.CASSANDRA_11, e.toString(), e));
+      }
+    }
+  }
+
+  private PendingWrite submit(
+      Semaphore permits,
+      Record record,
+      Statement statement
+  ) throws InterruptedException {
+    return submit(permits, Collections.singletonList(record), statement);
+  }
+
+  private PendingWrite submit(
+      Semaphore permits,
+      List<Record> records,
+      Statement statement
+  ) throws InterruptedException {
+    permits.acquire();
+    ResultSetFuture future = session.executeAsync(statement);
+    future.addListener(permits::release, MoreExecutors.directExecutor());
+    return new PendingWrite(records, future);
+  }
+
   /**
    * Convert a Record into a fully-bound statement.
    */
@@ -426,4 +530,24 @@ public class CassandraTarget extends BaseTarget {
         throw new IllegalArgumentException("Unrecognized AuthProvider: " + conf.authProviderOption);
     }
   }
+
+  private static class BoundRecord {
+    private final Record record;
+    private final BoundStatement statement;
+
+    private BoundRecord(Record record, BoundStatement statement) {
+      this.record = record;
+      this.statement = statement;
+    }
+  }
+
+  private static class PendingWrite {
+    private final List<Record> records;
+    private final ResultSetFuture future;
+
+    private PendingWrite(List<Record> records, ResultSetFuture future) {
+      this.records = records;
+      this.future = future;
+    }
+  }
 }
@@ -108,6 +108,29 @@ public class CassandraTargetConfig {
   )
   public int maxBatchSize = 65535;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Enable Asynchronous Writes",
+      description = "Groups records by partition key into single-partition batches and submits them concurrently.",
+      displayPosition = 75
+  )
+  public boolean asyncWrites = false;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "64",
+      min = 1,
+      label = "Max Concurrent Requests",
+      description = "Maximum number of asynchronous requests in flight at any time.",
+      displayPosition = 76,
+      dependsOn = "asyncWrites",
+      triggeredByValue = "true"
+  )
+  public int maxConcurrentRequests = 64;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.STRING,
@@ -265,6 +265,60 @@ public class TestCassandraTarget {
     assert (row.getMap("a_map", String.class, Integer.class).containsKey("3"));
   }
 
+  @Test
+  public void testAsyncWriteMultiplePartitions() throws InterruptedException, StageException {
+    final String tableName = "test.trips";
+    List<CassandraFieldMappingConfig> fieldMappings = ImmutableList.of(
+        new CassandraFieldMappingConfig("[0]", "driver_id"),
+        new CassandraFieldMappingConfig("[1]", "trip_id"),
+        new CassandraFieldMappingConfig("[2]", "time")
+    );
+
+    CassandraTargetConfig conf = new CassandraTargetConfig();
+    conf.contactPoints.add("localhost");
+    conf.port = CASSANDRA_NATIVE_PORT;
+    conf.protocolVersion = ProtocolVersion.V4;
+    conf.authProviderOption = AuthProviderOption.NONE;
+    conf.compression = CassandraCompressionCodec.NONE;
+    conf.columnNames = fieldMappings;
+    conf.qualifiedTableName = tableName;
+    conf.asyncWrites = true;
+    conf.maxConcurrentRequests = 2;
+    conf.maxBatchSize = 3;
+
+    Target target = new CassandraTarget(conf);
+    TargetRunner targetRunner = new TargetRunner.Builder(CassandraDTarget.class, target).build();
+
+    List<Record> records = new ArrayList<>();
+    for (int driver = 0; driver < 4; driver++) {
+      for (int trip = 0; trip < 5; trip++) {
+        Record record = RecordCreator.create();
+        List<Field> fields = new ArrayList<>();
+        fields.add(Field.create(driver));
+        fields.add(Field.create(trip));
+        fields.add(Field.create(driver * trip));
+        record.set(Field.create(fields));
+        records.add(record);
+      }
+    }
+
+    targetRunner.runInit();
+    targetRunner.runWrite(records);
+
+    // Should not be any error records.
+    Assert.assertTrue(targetRunner.getErrorRecords().isEmpty());
+    Assert.assertTrue(targetRunner.getErrors().isEmpty());
+
+    targetRunner.runDestroy();
+
+    ResultSet resultSet = session.execute("SELECT * FROM test.trips");
+    List<Row> allRows = resultSet.all();
+    Assert.assertEquals(20, allRows.size());
+    for (Row row : allRows) {
+      Assert.assertEquals(row.getInt("driver_id") * row.getInt("trip_id"), row.getInt("time"));
+    }
+  }
+
   @Test
   public void testWriteRecordsOnErrorDiscard() throws Exception {
     final String tableName = "test.trips";
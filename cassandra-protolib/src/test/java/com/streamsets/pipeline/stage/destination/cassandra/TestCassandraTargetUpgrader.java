@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.cassandra;
+
+import com.streamsets.pipeline.api.Config;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestCassandraTargetUpgrader {
+
+  @Test
+  public void testUpgradeV5toV6() throws Exception {
+    List<Config> configs = new ArrayList<>();
+    configs = new CassandraTargetUpgrader().upgrade("a", "b", "c", 5, 6, configs);
+
+    Assert.assertEquals(2, configs.size());
+    Assert.assertEquals("conf.asyncWrites", configs.get(0).getName());
+    Assert.assertEquals(false, configs.get(0).getValue());
+    Assert.assertEquals("conf.maxConcurrentRequests", configs.get(1).getName());
+    Assert.assertEquals(64, configs.get(1).getValue());
+  }
+
+  @Test
+  public void testUpgradeV4toV6() throws Exception {
+    List<Config> configs = new ArrayList<>();
+    configs.add(new Config("conf.useCredentials", false));
+    configs = new CassandraTargetUpgrader().upgrade("a", "b", "c", 4, 6, configs);
+
+    Assert.assertEquals(3, configs.size());
+    Assert.assertEquals("conf.authProviderOption", configs.get(0).getName());
+    Assert.assertEquals(AuthProviderOption.NONE, configs.get(0).getValue());
+    Assert.assertEquals("conf.asyncWrites", configs.get(1).getName());
+    Assert.assertEquals("conf.maxConcurrentRequests", configs.get(2).getName());
+  }
+}
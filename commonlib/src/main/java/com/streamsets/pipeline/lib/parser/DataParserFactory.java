@@ -16,6 +16,7 @@
 package com.streamsets.pipeline.lib.parser;
 
 import com.streamsets.pipeline.api.FileRef;
+import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.data.DataFactory;
 import com.streamsets.pipeline.api.ext.io.OverrunReader;
@@ -27,21 +28,120 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public abstract class DataParserFactory extends DataFactory {
 
   private static final int DEFAULT_MAX_RECORD_LENGTH = 1024;
 
+  // closed reusable parsers, ready to be reset to the next message of any thread. Owned by the factory so they do
+  // not outlive the stage in the pipeline runner threads
+  private final Queue<DataParser> idleParsers = new ConcurrentLinkedQueue<>();
+  private volatile boolean idleParsersClosed;
+
   protected DataParserFactory(Settings settings) {
     super(settings);
     Utils.checkState(settings.getMaxRecordLen() != 0, "maxDataLen has not been set");
   }
 
+  /**
+   * Returns a parser for a single message. When the format supports it (TEXT, DELIMITED, JSON and LOG), closing the
+   * returned parser keeps it in the factory and a later call resets it to the new message instead of creating a new
+   * parser. Stages using reusable parsers must call {@link #closeIdleParsers()} on destroy.
+   */
+  public DataParser getReusableParser(String id, byte[] data) throws DataParserException {
+    return getReusableParser(id, data, 0, data.length);
+  }
+
+  public DataParser getReusableParser(String id, byte[] data, int offset, int len) throws DataParserException {
+    DataParser parser = idleParsers.poll();
+    if (parser != null) {
+      boolean reset = false;
+      try {
+        reset = resetParser(parser, id, data, offset, len);
+      } finally {
+        if (!reset) {
+          closeQuietly(parser);
+        }
+      }
+      if (reset) {
+        return new ReusableDataParser(parser);
+      }
+    }
+    parser = createReusableParser(id, data, offset, len);
+    return isResettable(parser) ? new ReusableDataParser(parser) : parser;
+  }
+
+  /**
+   * Creates the parser for {@link #getReusableParser}, formats supporting reuse return a parser that
+   * {@link #isResettable} accepts.
+   */
+  protected DataParser createReusableParser(
+      String id,
+      byte[] data,
+      int offset,
+      int len
+  ) throws DataParserException {
+    return getParser(id, data, offset, len);
+  }
+
+  /**
+   * Tells if the given parser, created by this factory, can be reset to a new message by {@link #resetParser}.
+   * Resettable parsers must not hold resources that need closing while they are kept idle.
+   */
+  protected boolean isResettable(DataParser parser) {
+    return false;
+  }
+
+  /**
+   * Resets a parser created by this factory to parse the given message from its beginning, returns false if the
+   * parser could not be reset and a new one has to be created.
+   */
+  protected boolean resetParser(
+      DataParser parser,
+      String id,
+      byte[] data,
+      int offset,
+      int len
+  ) throws DataParserException {
+    return false;
+  }
+
+  /**
+   * Closes the parsers kept for reuse, parsers returned by {@link #getReusableParser} and closed afterwards are not
+   * kept anymore.
+   */
+  public void closeIdleParsers() {
+    idleParsersClosed = true;
+    DataParser parser;
+    while ((parser = idleParsers.poll()) != null) {
+      closeQuietly(parser);
+    }
+  }
+
+  private void releaseParser(DataParser parser) throws IOException {
+    idleParsers.offer(parser);
+    // a parser released while the idle parsers are being closed is closed as well
+    if (idleParsersClosed && idleParsers.remove(parser)) {
+      parser.close();
+    }
+  }
+
+  private static void closeQuietly(DataParser parser) {
+    try {
+      parser.close();
+    } catch (IOException ex) {
+      // the parser is discarded, nothing to do
+    }
+  }
+
   public DataParser getParser(String id, byte[] data, int offset, int len) throws DataParserException {
     return getParser(id, new ByteArrayInputStream(data, offset, len), "0");
   }
@@ -118,4 +218,46 @@ public abstract class DataParserFactory extends DataFactory {
     );
   }
 
+  protected StringBuilder createStringBuilder() {
+    int maxRecordLen = getSettings().getMaxRecordLen();
+    return new StringBuilder(maxRecordLen > 0 ? maxRecordLen : DEFAULT_MAX_RECORD_LENGTH);
+  }
+
+  /**
+   * Parser handed out by {@link #getReusableParser}, closing it gives the parser back to the factory.
+   */
+  private class ReusableDataParser implements DataParser {
+    private final DataParser parser;
+    private boolean closed;
+
+    private ReusableDataParser(DataParser parser) {
+      this.parser = parser;
+    }
+
+    @Override
+    public Record parse() throws IOException, DataParserException {
+      Utils.checkState(!closed, "Parser has been closed");
+      return parser.parse();
+    }
+
+    @Override
+    public String getOffset() throws DataParserException, IOException {
+      Utils.checkState(!closed, "Parser has been closed");
+      return parser.getOffset();
+    }
+
+    @Override
+    public void setTruncated() {
+      parser.setTruncated();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (!closed) {
+        closed = true;
+        releaseParser(parser);
+      }
+    }
+  }
+
 }
@@ -46,6 +46,21 @@ public class WrapperDataParserFactory extends DataParserFactory {
     return new WrapperDataParser(factory.getParser(id, data));
   }
 
+  @Override
+  public DataParser getReusableParser(String id, byte[] data, int offset, int len) throws DataParserException {
+    return new WrapperDataParser(factory.getReusableParser(id, data, offset, len));
+  }
+
+  @Override
+  public DataParser getReusableParser(String id, byte[] data) throws DataParserException {
+    return new WrapperDataParser(factory.getReusableParser(id, data));
+  }
+
+  @Override
+  public void closeIdleParsers() {
+    factory.closeIdleParsers();
+  }
+
   @Override
   public DataParser getParser(String id, String data) throws DataParserException {
     return new WrapperDataParser(factory.getParser(id, data));
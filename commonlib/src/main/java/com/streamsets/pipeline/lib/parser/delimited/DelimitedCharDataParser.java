@@ -39,9 +39,9 @@ import java.util.Map;
 
 public class DelimitedCharDataParser extends AbstractDataParser {
   private final ProtoConfigurableEntity.Context context;
-  private final String readerId;
-  private final OverrunCsvParser parser;
   private final DelimitedDataParserSettings settings;
+  private String readerId;
+  private OverrunCsvParser parser;
 
   private List<Field> headers;
   private boolean eof;
@@ -55,7 +55,6 @@ public class DelimitedCharDataParser extends AbstractDataParser {
   )
     throws IOException {
     this.context = context;
-    this.readerId = readerId;
     this.settings = settings;
 
     switch (settings.getHeader()) {
@@ -69,6 +68,11 @@ public class DelimitedCharDataParser extends AbstractDataParser {
       default:
         throw new ParserRuntimeException(Utils.format("Unknown header error: {}", settings.getHeader()));
     }
+    setInput(readerId, reader, readerOffset);
+  }
+
+  private void setInput(String readerId, OverrunReader reader, long readerOffset) throws IOException {
+    this.readerId = readerId;
     parser = new OverrunCsvParser(
         reader,
         settings.getFormat(),
@@ -76,6 +80,8 @@ public class DelimitedCharDataParser extends AbstractDataParser {
         settings.getSkipStartLines(),
         settings.getMaxObjectLen()
     );
+    // records with extra columns hold the headers list, a new input gets a new one
+    headers = null;
     String[] hs = parser.getHeaders();
     if (settings.getHeader() != CsvHeader.IGNORE_HEADER && hs != null) {
       headers = new ArrayList<>();
@@ -83,6 +89,15 @@ public class DelimitedCharDataParser extends AbstractDataParser {
         headers.add(Field.create(h));
       }
     }
+    eof = false;
+  }
+
+  /**
+   * Points the parser to a new input, keeping its settings and CSV format. The headers are read from the new input.
+   */
+  public void reset(String readerId, OverrunReader reader) throws IOException {
+    parser.close();
+    setInput(readerId, reader, 0);
   }
 
   @Override
@@ -28,6 +28,7 @@ import com.streamsets.pipeline.lib.parser.DataParserFactory;
 import com.streamsets.pipeline.lib.util.DelimitedDataConstants;
 import org.apache.commons.csv.CSVFormat;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
@@ -67,6 +68,30 @@ public class DelimitedDataParserFactory extends DataParserFactory {
     return createParser(id, createReader(reader), offset);
   }
 
+  @Override
+  protected boolean isResettable(DataParser parser) {
+    return parser instanceof DelimitedCharDataParser;
+  }
+
+  @Override
+  protected boolean resetParser(
+      DataParser parser,
+      String id,
+      byte[] data,
+      int offset,
+      int len
+  ) throws DataParserException {
+    if (!isResettable(parser)) {
+      return false;
+    }
+    try {
+      ((DelimitedCharDataParser) parser).reset(id, createReader(new ByteArrayInputStream(data, offset, len)));
+      return true;
+    } catch (IOException ex) {
+      throw new DataParserException(Errors.DELIMITED_PARSER_00, id, 0, ex.toString(), ex);
+    }
+  }
+
   private DataParser createParser(String id, OverrunReader reader, long offset) throws DataParserException {
     Utils.checkState(reader.getPos() == 0, Utils.formatL("reader must be in position '0', it is at '{}'",
                                                          reader.getPos()));
@@ -37,9 +37,10 @@ import java.util.Map;
 
 public class JsonCharDataParser extends AbstractDataParser {
   private final ProtoConfigurableEntity.Context context;
-  private final String readerId;
   private final int maxObjectLen;
-  private final JsonObjectReader parser;
+  private final Mode mode;
+  private String readerId;
+  private JsonObjectReader parser;
   private boolean eof;
 
   public JsonCharDataParser(
@@ -51,8 +52,13 @@ public class JsonCharDataParser extends AbstractDataParser {
       int maxObjectLen
   ) throws IOException {
     this.context = context;
-    this.readerId = readerId;
     this.maxObjectLen = maxObjectLen;
+    this.mode = mode;
+    setInput(readerId, reader, readerOffset);
+  }
+
+  private void setInput(String readerId, OverrunReader reader, long readerOffset) throws IOException {
+    this.readerId = readerId;
     parser = ((ContextExtensions) context).createJsonObjectReader(
         reader,
         readerOffset,
@@ -60,6 +66,15 @@ public class JsonCharDataParser extends AbstractDataParser {
         mode,
         Object.class
     );
+    eof = false;
+  }
+
+  /**
+   * Points the parser to a new input, keeping its context and configuration.
+   */
+  public void reset(String readerId, OverrunReader reader) throws IOException {
+    parser.close();
+    setInput(readerId, reader, 0);
   }
 
   @Override
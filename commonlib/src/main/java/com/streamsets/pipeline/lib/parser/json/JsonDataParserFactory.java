@@ -23,6 +23,7 @@ import com.streamsets.pipeline.lib.parser.DataParser;
 import com.streamsets.pipeline.lib.parser.DataParserException;
 import com.streamsets.pipeline.lib.parser.DataParserFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
@@ -50,6 +51,30 @@ public class JsonDataParserFactory extends DataParserFactory {
     return createParser(id, createReader(reader), offset);
   }
 
+  @Override
+  protected boolean isResettable(DataParser parser) {
+    return parser instanceof JsonCharDataParser;
+  }
+
+  @Override
+  protected boolean resetParser(
+      DataParser parser,
+      String id,
+      byte[] data,
+      int offset,
+      int len
+  ) throws DataParserException {
+    if (!isResettable(parser)) {
+      return false;
+    }
+    try {
+      ((JsonCharDataParser) parser).reset(id, createReader(new ByteArrayInputStream(data, offset, len)));
+      return true;
+    } catch (IOException ex) {
+      throw new DataParserException(Errors.JSON_PARSER_00, id, 0, ex.toString(), ex);
+    }
+  }
+
   private DataParser createParser(String id, OverrunReader reader, long offset) throws DataParserException {
     Utils.checkState(reader.getPos() == 0, Utils.formatL("reader must be in position '0', it is at '{}'",
                                                          reader.getPos()));
@@ -38,10 +38,11 @@ public abstract class LogCharDataParser extends AbstractDataParser {
 
   static final String TEXT_FIELD_NAME = "originalLine";
   static final String TRUNCATED_FIELD_NAME = "truncated";
+  private static final int DEFAULT_LINE_LENGTH = 1024;
 
   private final ProtoConfigurableEntity.Context context;
-  private final String readerId;
-  private final OverrunReader reader;
+  private String readerId;
+  private OverrunReader reader;
   private final int maxObjectLen;
   private final StringBuilder currentLine;
   private final StringBuilder previousLine;
@@ -53,6 +54,10 @@ public abstract class LogCharDataParser extends AbstractDataParser {
   private final GenericObjectPool<StringBuilder> currentLineBuilderPool;
   private final GenericObjectPool<StringBuilder> previousLineBuilderPool;
 
+  /**
+   * Creates a parser borrowing its string builders from the given pools. When the pools are null the parser owns its
+   * string builders and can be {@link #reset} to new input instead of closed.
+   */
   public LogCharDataParser(
       ProtoConfigurableEntity.Context context,
       String readerId,
@@ -65,54 +70,97 @@ public abstract class LogCharDataParser extends AbstractDataParser {
       GenericObjectPool<StringBuilder> previousLineBuilderPool
   ) throws IOException {
     this.context = context;
-    this.readerId = readerId;
-    this.reader = reader;
     this.maxObjectLen = maxObjectLen;
     this.retainOriginalText = retainOriginalText;
-    reader.setEnabled(false);
-    IOUtils.skipFully(reader, readerOffset);
-    reader.setEnabled(true);
     fieldsFromPrevLine = new LinkedHashMap<>();
-    currentOffset = readerOffset;
     this.maxStackTraceLines = maxStackTraceLines;
 
     this.currentLineBuilderPool = currentLineBuilderPool;
+    this.currentLine = borrowStringBuilder(currentLineBuilderPool, maxObjectLen, "current line");
+    this.previousLineBuilderPool = previousLineBuilderPool;
+    try {
+      this.previousLine = borrowStringBuilder(previousLineBuilderPool, maxObjectLen, "previous line");
+    } catch (IOException ex) {
+      returnStringBuilder(currentLineBuilderPool, currentLine, "current line");
+      throw ex;
+    }
     try {
-      this.currentLine = currentLineBuilderPool.borrowObject();
+      setInput(readerId, reader, readerOffset);
+    } catch (IOException ex) {
+      returnStringBuilder(currentLineBuilderPool, currentLine, "current line");
+      returnStringBuilder(previousLineBuilderPool, previousLine, "previous line");
+      throw ex;
+    }
+  }
+
+  private static StringBuilder borrowStringBuilder(
+      GenericObjectPool<StringBuilder> pool,
+      int maxObjectLen,
+      String name
+  ) throws IOException {
+    if (pool == null) {
+      return new StringBuilder(maxObjectLen > 0 ? maxObjectLen : DEFAULT_LINE_LENGTH);
+    }
+    try {
+      StringBuilder stringBuilder = pool.borrowObject();
       LOG.debug(
-          "Borrowed current line string builder from pool. Num Active {}, Num Idle {}",
-          this.currentLineBuilderPool.getNumActive(),
-          this.currentLineBuilderPool.getNumIdle()
+          "Borrowed {} string builder from pool. Num Active {}, Num Idle {}",
+          name,
+          pool.getNumActive(),
+          pool.getNumIdle()
       );
+      return stringBuilder;
     } catch (Exception e) {
       throw new IOException(
           Utils.format(
-              "Error borrowing current line string builder object from pool : {}",
+              "Error borrowing {} string builder object from pool : {}",
+              name,
               e.toString()
           ),
           e
       );
     }
+  }
 
-    this.previousLineBuilderPool = previousLineBuilderPool;
-    try {
-      this.previousLine = previousLineBuilderPool.borrowObject();
+  private static void returnStringBuilder(GenericObjectPool<StringBuilder> pool, StringBuilder sb, String name) {
+    if (pool != null) {
+      pool.returnObject(sb);
       LOG.debug(
-        "Borrowed previous line string builder from pool. Num Active {}, Num Idle {}",
-        this.previousLineBuilderPool.getNumActive(),
-        this.previousLineBuilderPool.getNumIdle()
-      );
-    } catch (Exception e) {
-      throw new IOException(
-        Utils.format(
-          "Error borrowing previous line string builder object from pool : {}",
-          e.toString()
-        ),
-        e
+          "Returned {} string builder to pool. Num Active {}, Num Idle {}",
+          name,
+          pool.getNumActive(),
+          pool.getNumIdle()
       );
     }
   }
 
+  private void setInput(String readerId, OverrunReader reader, long readerOffset) throws IOException {
+    this.readerId = readerId;
+    this.reader = reader;
+    reader.setEnabled(false);
+    IOUtils.skipFully(reader, readerOffset);
+    reader.setEnabled(true);
+    currentOffset = readerOffset;
+    currentLine.setLength(0);
+    previousLine.setLength(0);
+    fieldsFromPrevLine.clear();
+    previousRead = 0;
+    truncated = false;
+  }
+
+  /**
+   * Points the parser to a new input, keeping its string builders. Only for parsers owning their string builders.
+   */
+  public void reset(String readerId, OverrunReader reader) throws IOException {
+    Utils.checkState(isResettable(), "Parser with pooled string builders cannot be reset");
+    this.reader.close();
+    setInput(readerId, reader, 0);
+  }
+
+  public boolean isResettable() {
+    return currentLineBuilderPool == null && previousLineBuilderPool == null;
+  }
+
   private boolean isOverMaxObjectLen(int len) {
     return maxObjectLen > -1 && len > maxObjectLen;
   }
@@ -282,18 +330,8 @@ public abstract class LogCharDataParser extends AbstractDataParser {
 
   @Override
   public void close() throws IOException {
-    currentLineBuilderPool.returnObject(this.currentLine);
-    LOG.debug(
-        "Returned current line string builder to pool. Num Active {}, Num Idle {}",
-        this.currentLineBuilderPool.getNumActive(),
-        this.currentLineBuilderPool.getNumIdle()
-    );
-    previousLineBuilderPool.returnObject(this.previousLine);
-    LOG.debug(
-      "Returned previous line string builder to pool. Num Active {}, Num Idle {}",
-      this.previousLineBuilderPool.getNumActive(),
-      this.previousLineBuilderPool.getNumIdle()
-    );
+    returnStringBuilder(currentLineBuilderPool, currentLine, "current line");
+    returnStringBuilder(previousLineBuilderPool, previousLine, "previous line");
     reader.close();
   }
 
@@ -30,6 +30,7 @@ import com.streamsets.pipeline.lib.parser.shaded.org.aicer.grok.dictionary.GrokD
 import com.streamsets.pipeline.lib.parser.shaded.org.aicer.grok.util.Grok;
 import org.apache.commons.pool2.impl.GenericObjectPool;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
@@ -129,15 +130,56 @@ public class LogDataParserFactory extends DataParserFactory {
 
   @Override
   public DataParser getParser(String id, InputStream is, String offset) throws DataParserException {
-    return createParser(id, createReader(is), Long.parseLong(offset));
+    return createParser(id, createReader(is), Long.parseLong(offset), currentLineBuilderPool, previousLineBuilderPool);
   }
 
   @Override
   public DataParser getParser(String id, Reader reader, long offset) throws DataParserException {
-    return createParser(id, createReader(reader), offset);
+    return createParser(id, createReader(reader), offset, currentLineBuilderPool, previousLineBuilderPool);
   }
 
-  private DataParser createParser(String id, OverrunReader reader, long offset) throws DataParserException {
+  @Override
+  protected DataParser createReusableParser(
+      String id,
+      byte[] data,
+      int offset,
+      int len
+  ) throws DataParserException {
+    // idle reusable parsers are kept by the factory, they own their string builders instead of holding pooled ones
+    return createParser(id, createReader(new ByteArrayInputStream(data, offset, len)), 0, null, null);
+  }
+
+  @Override
+  protected boolean isResettable(DataParser parser) {
+    return parser instanceof LogCharDataParser && ((LogCharDataParser) parser).isResettable();
+  }
+
+  @Override
+  protected boolean resetParser(
+      DataParser parser,
+      String id,
+      byte[] data,
+      int offset,
+      int len
+  ) throws DataParserException {
+    if (!isResettable(parser)) {
+      return false;
+    }
+    try {
+      ((LogCharDataParser) parser).reset(id, createReader(new ByteArrayInputStream(data, offset, len)));
+      return true;
+    } catch (IOException ex) {
+      throw new DataParserException(Errors.LOG_PARSER_00, id, 0, ex.toString(), ex);
+    }
+  }
+
+  private DataParser createParser(
+      String id,
+      OverrunReader reader,
+      long offset,
+      GenericObjectPool<StringBuilder> currentLinePool,
+      GenericObjectPool<StringBuilder> previousLinePool
+  ) throws DataParserException {
     Utils.checkState(reader.getPos() == 0, Utils.formatL("reader must be in position '0', it is at '{}'",
       reader.getPos()));
     try {
@@ -145,32 +187,32 @@ public class LogDataParserFactory extends DataParserFactory {
         case COMMON_LOG_FORMAT:
           return new GrokParser(context, id, reader, offset, maxObjectLen, retainOriginalText,
             getMaxStackTraceLines(), createGrok(Constants.GROK_COMMON_APACHE_LOG_FORMAT,
-            Collections.<String>emptyList()), "Common Log Format", currentLineBuilderPool, previousLineBuilderPool);
+            Collections.<String>emptyList()), "Common Log Format", currentLinePool, previousLinePool);
         case COMBINED_LOG_FORMAT:
           return new GrokParser(context, id, reader, offset, maxObjectLen, retainOriginalText,
             getMaxStackTraceLines(), createGrok(Constants.GROK_COMBINED_APACHE_LOG_FORMAT,
-            Collections.<String>emptyList()), "Combined Log Format", currentLineBuilderPool, previousLineBuilderPool);
+            Collections.<String>emptyList()), "Combined Log Format", currentLinePool, previousLinePool);
         case APACHE_CUSTOM_LOG_FORMAT:
           return new GrokParser(context, id, reader, offset, maxObjectLen, retainOriginalText,
             getMaxStackTraceLines(), createGrok(ApacheCustomLogHelper.translateApacheLayoutToGrok(customLogFormat),
-            Collections.<String>emptyList()), "Apache Access Log Format", currentLineBuilderPool, previousLineBuilderPool);
+            Collections.<String>emptyList()), "Apache Access Log Format", currentLinePool, previousLinePool);
         case APACHE_ERROR_LOG_FORMAT:
           return new GrokParser(context, id, reader, offset, maxObjectLen, retainOriginalText,
             getMaxStackTraceLines(), createGrok(Constants.GROK_APACHE_ERROR_LOG_FORMAT,
             ImmutableList.of(Constants.GROK_APACHE_ERROR_LOG_PATTERNS_FILE_NAME)), "Apache Error Log Format",
-            currentLineBuilderPool, previousLineBuilderPool);
+            currentLinePool, previousLinePool);
         case REGEX:
           return new RegexParser(context, id, reader, offset, maxObjectLen, retainOriginalText,
-            createPattern(regex), fieldPathToGroup, currentLineBuilderPool, previousLineBuilderPool);
+            createPattern(regex), fieldPathToGroup, currentLinePool, previousLinePool);
         case GROK:
           return new GrokParser(context, id, reader, offset, maxObjectLen, retainOriginalText,
             getMaxStackTraceLines(), createGrok(grokPattern, grokDictionaries), "Grok Format",
-            currentLineBuilderPool, previousLineBuilderPool);
+            currentLinePool, previousLinePool);
         case LOG4J:
           return new GrokParser(context, id, reader, offset, maxObjectLen, retainOriginalText,
             getMaxStackTraceLines(), createGrok(Log4jHelper.translateLog4jLayoutToGrok(log4jCustomLogFormat),
             ImmutableList.of(Constants.GROK_LOG4J_LOG_PATTERNS_FILE_NAME)),
-            "Log4j Log Format", currentLineBuilderPool, previousLineBuilderPool);
+            "Log4j Log Format", currentLinePool, previousLinePool);
         case CEF:
           return new CEFParser(
               context,
@@ -179,8 +221,8 @@ public class LogDataParserFactory extends DataParserFactory {
               offset,
               maxObjectLen,
               retainOriginalText,
-              currentLineBuilderPool,
-              previousLineBuilderPool
+              currentLinePool,
+              previousLinePool
           );
         case LEEF:
           return new LEEFParser(
@@ -190,8 +232,8 @@ public class LogDataParserFactory extends DataParserFactory {
               offset,
               maxObjectLen,
               retainOriginalText,
-              currentLineBuilderPool,
-              previousLineBuilderPool
+              currentLinePool,
+              previousLinePool
           );
         default:
           return null;
@@ -39,16 +39,19 @@ public class TextCharDataParser extends AbstractDataParser {
   private static final Logger LOG = LoggerFactory.getLogger(TextCharDataParser.class);
 
   private final ProtoConfigurableEntity.Context context;
-  private final String readerId;
   private final boolean collapseAllLines;
-  private final AbstractOverrunDelimitedReader reader;
+  private final boolean useCustomDelimiter;
+  private final String customDelimiter;
+  private final boolean includeCustomDelimiterInText;
   private final int maxObjectLen;
   private final String fieldTextName;
   private final String fieldTruncatedName;
   private final StringBuilder recordIdSb;
-  private final int recordIdOffset;
   private final GenericObjectPool<StringBuilder> stringBuilderPool;
   private final StringBuilder stringBuilder;
+  private String readerId;
+  private AbstractOverrunDelimitedReader reader;
+  private int recordIdOffset;
 
   private boolean eof;
 
@@ -65,31 +68,132 @@ public class TextCharDataParser extends AbstractDataParser {
       String fieldTextName,
       String fieldTruncatedName,
       GenericObjectPool<StringBuilder> stringBuilderPool
+  ) throws IOException {
+    this(
+        context,
+        readerId,
+        collapseAllLines,
+        useCustomDelimiter,
+        customDelimiter,
+        includeCustomDelimiterInText,
+        reader,
+        readerOffset,
+        maxObjectLen,
+        fieldTextName,
+        fieldTruncatedName,
+        stringBuilderPool,
+        borrowStringBuilder(stringBuilderPool)
+    );
+  }
+
+  /**
+   * Creates a parser owning its string builder, to be kept and {@link #reset} to new input instead of closed.
+   */
+  public TextCharDataParser(
+      ProtoConfigurableEntity.Context context,
+      String readerId,
+      boolean collapseAllLines,
+      boolean useCustomDelimiter,
+      String customDelimiter,
+      boolean includeCustomDelimiterInText,
+      OverrunReader reader,
+      long readerOffset,
+      int maxObjectLen,
+      String fieldTextName,
+      String fieldTruncatedName,
+      StringBuilder stringBuilder
+  ) throws IOException {
+    this(
+        context,
+        readerId,
+        collapseAllLines,
+        useCustomDelimiter,
+        customDelimiter,
+        includeCustomDelimiterInText,
+        reader,
+        readerOffset,
+        maxObjectLen,
+        fieldTextName,
+        fieldTruncatedName,
+        null,
+        stringBuilder
+    );
+  }
+
+  private TextCharDataParser(
+      ProtoConfigurableEntity.Context context,
+      String readerId,
+      boolean collapseAllLines,
+      boolean useCustomDelimiter,
+      String customDelimiter,
+      boolean includeCustomDelimiterInText,
+      OverrunReader reader,
+      long readerOffset,
+      int maxObjectLen,
+      String fieldTextName,
+      String fieldTruncatedName,
+      GenericObjectPool<StringBuilder> stringBuilderPool,
+      StringBuilder stringBuilder
   ) throws IOException {
     this.context = context;
-    this.readerId = readerId;
     this.collapseAllLines = collapseAllLines;
-    this.reader = (!collapseAllLines && useCustomDelimiter)?
-        new OverrunCustomDelimiterReader(reader, maxObjectLen, customDelimiter, includeCustomDelimiterInText):
-        new OverrunLineReader(reader, maxObjectLen);
+    this.useCustomDelimiter = useCustomDelimiter;
+    this.customDelimiter = customDelimiter;
+    this.includeCustomDelimiterInText = includeCustomDelimiterInText;
     this.maxObjectLen = maxObjectLen;
     this.fieldTextName = fieldTextName;
     this.fieldTruncatedName = fieldTruncatedName;
-    reader.setEnabled(false);
-    IOUtils.skipFully(reader, readerOffset);
-    reader.setEnabled(true);
-
     this.stringBuilderPool = stringBuilderPool;
+    this.stringBuilder = stringBuilder;
+    recordIdSb = new StringBuilder(readerId.length() + 15);
     try {
-      this.stringBuilder = stringBuilderPool.borrowObject();
-      LOG.debug("Borrowed string builder from pool. Num Active {}, Num Idle {}", this.stringBuilderPool.getNumActive(), this.stringBuilderPool.getNumIdle());
+      setInput(readerId, reader, readerOffset);
+    } catch (IOException ex) {
+      if (stringBuilderPool != null) {
+        stringBuilderPool.returnObject(stringBuilder);
+      }
+      throw ex;
+    }
+  }
+
+  private static StringBuilder borrowStringBuilder(GenericObjectPool<StringBuilder> stringBuilderPool)
+      throws IOException {
+    try {
+      StringBuilder stringBuilder = stringBuilderPool.borrowObject();
+      LOG.debug("Borrowed string builder from pool. Num Active {}, Num Idle {}", stringBuilderPool.getNumActive(), stringBuilderPool.getNumIdle());
+      return stringBuilder;
     } catch (Exception e) {
       throw new IOException(Utils.format("Error borrowing string builder object from pool : {}", e.toString()), e);
     }
+  }
 
-    recordIdSb = new StringBuilder(readerId.length() + 15);
+  private void setInput(String readerId, OverrunReader reader, long readerOffset) throws IOException {
+    this.readerId = readerId;
+    this.reader = (!collapseAllLines && useCustomDelimiter)?
+        new OverrunCustomDelimiterReader(reader, maxObjectLen, customDelimiter, includeCustomDelimiterInText):
+        new OverrunLineReader(reader, maxObjectLen);
+    reader.setEnabled(false);
+    IOUtils.skipFully(reader, readerOffset);
+    reader.setEnabled(true);
+
+    recordIdSb.setLength(0);
     recordIdSb.append(readerId).append("::");
     recordIdOffset = recordIdSb.length();
+    truncated = false;
+    eof = false;
+  }
+
+  /**
+   * Points the parser to a new input, keeping its string builder. Only for parsers owning their string builder.
+   */
+  public void reset(String readerId, OverrunReader reader) throws IOException {
+    Utils.checkState(stringBuilderPool == null, "Parser with a pooled string builder cannot be reset");
+    this.reader.close();
+    setInput(readerId, reader, 0);
+  }
+
+  public boolean isResettable() {
+    return stringBuilderPool == null;
   }
 
   private boolean isOverMaxObjectLen(int len) {
@@ -161,8 +265,10 @@ public class TextCharDataParser extends AbstractDataParser {
 
   @Override
   public void close() throws IOException {
-    stringBuilderPool.returnObject(this.stringBuilder);
-    LOG.debug("Returned string builder to pool. Num Active {}, Num Idle {}", this.stringBuilderPool.getNumActive(), this.stringBuilderPool.getNumIdle());
+    if (stringBuilderPool != null) {
+      stringBuilderPool.returnObject(this.stringBuilder);
+      LOG.debug("Returned string builder to pool. Num Active {}, Num Idle {}", this.stringBuilderPool.getNumActive(), this.stringBuilderPool.getNumIdle());
+    }
     reader.close();
   }
 
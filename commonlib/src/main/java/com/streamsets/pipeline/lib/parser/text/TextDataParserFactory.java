@@ -24,6 +24,7 @@ import com.streamsets.pipeline.lib.parser.DataParserFactory;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.commons.pool2.impl.GenericObjectPool;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
@@ -74,6 +75,59 @@ public class TextDataParserFactory extends DataParserFactory {
     return createParser(id, createReader(reader), offset);
   }
 
+  @Override
+  protected DataParser createReusableParser(
+      String id,
+      byte[] data,
+      int offset,
+      int len
+  ) throws DataParserException {
+    OverrunReader reader = createReader(new ByteArrayInputStream(data, offset, len));
+    try {
+      // idle reusable parsers are kept by the factory, they own their string builder instead of holding a pooled one
+      return new TextCharDataParser(
+          getSettings().getContext(),
+          id,
+          getSettings().<Boolean>getConfig(MULTI_LINE_KEY),
+          getSettings().<Boolean>getConfig(USE_CUSTOM_DELIMITER_KEY),
+          StringEscapeUtils.unescapeJava(getSettings().<String>getConfig(CUSTOM_DELIMITER_KEY)),
+          getSettings().<Boolean>getConfig(INCLUDE_CUSTOM_DELIMITER_IN_TEXT_KEY),
+          reader,
+          0,
+          getSettings().getMaxRecordLen(),
+          TEXT_FIELD_NAME,
+          TRUNCATED_FIELD_NAME,
+          createStringBuilder()
+      );
+    } catch (IOException ex) {
+      throw new DataParserException(Errors.TEXT_PARSER_00, id, 0, ex.toString(), ex);
+    }
+  }
+
+  @Override
+  protected boolean isResettable(DataParser parser) {
+    return parser instanceof TextCharDataParser && ((TextCharDataParser) parser).isResettable();
+  }
+
+  @Override
+  protected boolean resetParser(
+      DataParser parser,
+      String id,
+      byte[] data,
+      int offset,
+      int len
+  ) throws DataParserException {
+    if (!isResettable(parser)) {
+      return false;
+    }
+    try {
+      ((TextCharDataParser) parser).reset(id, createReader(new ByteArrayInputStream(data, offset, len)));
+      return true;
+    } catch (IOException ex) {
+      throw new DataParserException(Errors.TEXT_PARSER_00, id, 0, ex.toString(), ex);
+    }
+  }
+
   private DataParser createParser(String id, OverrunReader reader, long offset) throws DataParserException {
     Utils.checkState(reader.getPos() == 0, Utils.formatL("reader must be in position '0', it is at '{}'",
       reader.getPos()));
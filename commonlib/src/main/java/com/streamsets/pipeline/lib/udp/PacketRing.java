@@ -0,0 +1,136 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.udp;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.netty.channel.socket.DatagramPacket;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded ring of datagram packets for exactly one producer thread and one consumer thread. Neither side takes a
+ * lock: the receiver thread never blocks on {@link #offer(DatagramPacket)}, and the worker parks for short,
+ * growing intervals while it waits in {@link #poll(long, TimeUnit)}.
+ */
+public class PacketRing {
+  private static final int MAX_CAPACITY = 1 << 30;
+  private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+  private static final long MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  private final AtomicReferenceArray<DatagramPacket> buffer;
+  private final int mask;
+  // Next slot to read, written only by the consumer.
+  private final AtomicLong head = new AtomicLong();
+  // Next slot to write, written only by the producer.
+  private final AtomicLong tail = new AtomicLong();
+
+  public PacketRing(int minCapacity) {
+    int capacity = getCapacity(minCapacity);
+    this.buffer = new AtomicReferenceArray<>(capacity);
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Returns the smallest power of two that is at least the given capacity, at most {@link #MAX_CAPACITY}. Computed
+   * in long, as doubling the highest bit of a capacity above {@link #MAX_CAPACITY} overflows int.
+   */
+  @VisibleForTesting
+  static int getCapacity(int minCapacity) {
+    if (minCapacity <= 1) {
+      return 1;
+    }
+    long capacity = Long.highestOneBit(minCapacity - 1L) << 1;
+    return (int) Math.min(MAX_CAPACITY, capacity);
+  }
+
+  /**
+   * Adds the packet unless the ring is full. Must only be called by the producer thread.
+   *
+   * @return true if the packet was added, false if the ring is full.
+   */
+  public boolean offer(DatagramPacket packet) {
+    long currentTail = tail.get();
+    if (currentTail - head.get() > mask) {
+      return false;
+    }
+    buffer.lazySet((int) (currentTail & mask), packet);
+    tail.lazySet(currentTail + 1);
+    return true;
+  }
+
+  /**
+   * Takes the oldest packet, or returns null if the ring is empty. Must only be called by the consumer thread.
+   */
+  public DatagramPacket poll() {
+    long currentHead = head.get();
+    if (currentHead == tail.get()) {
+      return null;
+    }
+    int index = (int) (currentHead & mask);
+    DatagramPacket packet = buffer.get(index);
+    buffer.lazySet(index, null);
+    head.lazySet(currentHead + 1);
+    return packet;
+  }
+
+  /**
+   * Takes the oldest packet, waiting up to the given time for one to arrive.
+   *
+   * @return the packet or null if none arrived before the timeout.
+   */
+  public DatagramPacket poll(long timeout, TimeUnit unit) throws InterruptedException {
+    DatagramPacket packet = poll();
+    if (packet != null) {
+      return packet;
+    }
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    long parkNanos = MIN_PARK_NANOS;
+    while ((packet = poll()) == null) {
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return null;
+      }
+      LockSupport.parkNanos(Math.min(parkNanos, remaining));
+      parkNanos = Math.min(parkNanos << 1, MAX_PARK_NANOS);
+    }
+    return packet;
+  }
+
+  public int size() {
+    return (int) (tail.get() - head.get());
+  }
+
+  public int capacity() {
+    return mask + 1;
+  }
+
+  /**
+   * Releases every packet still in the ring. Must only be called by the consumer thread, or once the producer
+   * has stopped.
+   */
+  public void clear() {
+    DatagramPacket packet;
+    while ((packet = poll()) != null) {
+      packet.release();
+    }
+  }
+}
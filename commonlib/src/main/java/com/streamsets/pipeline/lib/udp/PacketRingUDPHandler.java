@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.udp;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.DatagramPacket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+/**
+ * Hands the packets received by one worker's sockets to that worker's {@link PacketRing}. It may be shared by
+ * several channels as long as they are all registered with the same single threaded event loop, which makes
+ * that thread the only producer of the ring.
+ */
+@ChannelHandler.Sharable
+public class PacketRingUDPHandler extends SimpleChannelInboundHandler<DatagramPacket> {
+  private static final Logger LOG = LoggerFactory.getLogger(PacketRingUDPHandler.class);
+
+  private final Map<String, Object> gaugeMap;
+  private final String queueSizeKey;
+  private final String droppedPacketsKey;
+  private final String queuedPacketsKey;
+  private final PacketRing ring;
+  // Only touched by the event loop thread.
+  private long droppedPacketCount;
+  private long queuedPacketCount;
+
+  public PacketRingUDPHandler(Map<String, Object> gaugeMap, int workerIndex, int ringSize) {
+    this.gaugeMap = gaugeMap;
+    String suffix = " (Worker " + workerIndex + ")";
+    this.queueSizeKey = PacketQueueUDPHandler.GAUGE_PACKET_QUEUE_SIZE + suffix;
+    this.droppedPacketsKey = PacketQueueUDPHandler.GAUGE_NUM_DROPPED_PACKETS + suffix;
+    this.queuedPacketsKey = PacketQueueUDPHandler.GAUGE_NUM_QUEUED_PACKETS + suffix;
+    this.ring = new PacketRing(ringSize);
+    updateGauges();
+  }
+
+  @Override
+  public void channelReadComplete(ChannelHandlerContext ctx) {
+    // Gauges are refreshed once per read burst rather than once per packet.
+    updateGauges();
+    ctx.flush();
+  }
+
+  @Override
+  public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+    String msg = "Uncaught throwable in UDP Server: " + cause;
+    LOG.error(msg, cause);
+  }
+
+  @Override
+  protected void channelRead0(ChannelHandlerContext ctx, DatagramPacket packet) throws Exception {
+    packet.retain();
+    if (ring.offer(packet)) {
+      queuedPacketCount++;
+    } else {
+      droppedPacketCount++;
+      // allow Netty to collect the buffer
+      packet.release();
+    }
+  }
+
+  private void updateGauges() {
+    gaugeMap.put(queuedPacketsKey, queuedPacketCount);
+    gaugeMap.put(droppedPacketsKey, droppedPacketCount);
+    gaugeMap.put(queueSizeKey, ring.size());
+  }
+
+  public PacketRing getPacketRing() {
+    return ring;
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.udp;
+
+import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.network.BaseNettyServer;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * Epoll UDP server that gives every worker its own receiver thread and its own socket on each address, all bound
+ * with SO_REUSEPORT so that the kernel spreads incoming packets across the workers. Each worker's sockets deliver
+ * to that worker's handler only.
+ */
+public class PerWorkerSocketUDPServer extends BaseNettyServer {
+  private static final Logger LOG = LoggerFactory.getLogger(PerWorkerSocketUDPServer.class);
+
+  private final List<ChannelHandler> handlers;
+
+  public PerWorkerSocketUDPServer(List<InetSocketAddress> addresses, List<? extends ChannelHandler> handlers) {
+    super(true, handlers.size(), addresses);
+    this.handlers = ImmutableList.copyOf(handlers);
+  }
+
+  @Override
+  public void listen() throws Exception {
+    for (int worker = 0; worker < handlers.size(); worker++) {
+      Bootstrap b = bootstrap(enableEpoll).handler(handlers.get(worker));
+      for (InetSocketAddress address : addresses) {
+        LOG.info("Starting server for worker {} on address {}", worker, address);
+        ChannelFuture channelFuture = b.bind(address).sync();
+        channelFutures.add(channelFuture);
+      }
+    }
+  }
+
+  @Override
+  protected Bootstrap bootstrap(boolean enableEpoll) {
+    Utils.checkState(enableEpoll, "Per worker sockets require epoll");
+    // Direct buffers required for Epoll
+    enableDirectBuffers();
+    // A single thread per worker keeps it the only producer for the worker's packet ring.
+    EventLoopGroup group = new EpollEventLoopGroup(1);
+    groups.add(group);
+    return new Bootstrap()
+        .group(group)
+        .channel(EpollDatagramChannel.class)
+        .option(EpollChannelOption.SO_REUSEADDR, true)
+        .option(EpollChannelOption.SO_REUSEPORT, true)
+        .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+  }
+}
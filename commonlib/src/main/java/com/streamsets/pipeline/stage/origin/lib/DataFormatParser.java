@@ -411,7 +411,7 @@ public class DataFormatParser {
 
   public <CT extends Stage.Context & ToErrorContext> List<Record> parse(CT context, String messageId, byte[] payload) throws StageException {
     List<Record> records = new ArrayList<>();
-    try (DataParser parser = parserFactory.getParser(messageId, payload)) {
+    try (DataParser parser = parserFactory.getReusableParser(messageId, payload)) {
       Record record = null;
       do {
         try {
@@ -468,6 +468,15 @@ public class DataFormatParser {
     return messageCharset;
   }
 
+  /**
+   * Closes the parsers kept for reuse by {@link #parse}, stages call it on destroy.
+   */
+  public void destroy() {
+    if (parserFactory != null) {
+      parserFactory.closeIdleParsers();
+    }
+  }
+
   private Map<String, Integer> getFieldPathToGroupMap(List<RegExConfig> fieldPathsToGroupName) {
     if(fieldPathsToGroupName == null) {
       return new HashMap<>();
@@ -125,4 +125,32 @@ public class TestDelimitedDataParserFactory {
     parser.close();
   }
 
+  @Test
+  public void testReusableParser() throws Exception {
+    DataParserFactory factory = new DataParserFactoryBuilder(getContext(), DataParserFormat.DELIMITED)
+        .setMaxDataLen(100)
+        .setMode(CsvMode.CSV)
+        .setMode(CsvHeader.WITH_HEADER)
+        .setMode(CsvRecordType.LIST_MAP)
+        .build();
+
+    DataParser parser = factory.getReusableParser("id1", "a,b\n1,2\n".getBytes());
+    Record record = parser.parse();
+    Assert.assertEquals("id1::4", record.getHeader().getSourceId());
+    Assert.assertEquals("1", record.get("/a").getValueAsString());
+    Assert.assertEquals("2", record.get("/b").getValueAsString());
+    Assert.assertNull(parser.parse());
+    Assert.assertEquals(-1, Long.parseLong(parser.getOffset()));
+    parser.close();
+
+    // the closed parser is reset to the next message, reading its own header
+    parser = factory.getReusableParser("id2", "c,d\n3,4\n".getBytes());
+    record = parser.parse();
+    Assert.assertEquals("id2::4", record.getHeader().getSourceId());
+    Assert.assertEquals("3", record.get("/c").getValueAsString());
+    Assert.assertEquals("4", record.get("/d").getValueAsString());
+    Assert.assertFalse(record.has("/a"));
+    Assert.assertNull(parser.parse());
+    parser.close();
+  }
 }
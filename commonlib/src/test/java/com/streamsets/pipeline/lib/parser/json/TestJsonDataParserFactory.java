@@ -107,4 +107,29 @@ public class TestJsonDataParserFactory {
     parser.close();
   }
 
+  @Test
+  public void testReusableParser() throws Exception {
+    DataParserFactory factory = new DataParserFactoryBuilder(getContext(), DataParserFormat.JSON)
+        .setMaxDataLen(1000)
+        .setMode(JsonMode.MULTIPLE_OBJECTS)
+        .build();
+
+    DataParser parser = factory.getReusableParser("id1", "{\"a\":1}\n{\"a\":2}\n".getBytes());
+    Record record = parser.parse();
+    Assert.assertEquals("id1::0", record.getHeader().getSourceId());
+    Assert.assertEquals(1, record.get("/a").getValueAsInteger());
+    Assert.assertEquals(2, parser.parse().get("/a").getValueAsInteger());
+    Assert.assertNull(parser.parse());
+    Assert.assertEquals(-1, Long.parseLong(parser.getOffset()));
+    parser.close();
+
+    // the closed parser is reset to the next message
+    parser = factory.getReusableParser("id2", "{\"b\":\"x\"}".getBytes());
+    Assert.assertEquals(0, Long.parseLong(parser.getOffset()));
+    record = parser.parse();
+    Assert.assertEquals("id2::0", record.getHeader().getSourceId());
+    Assert.assertEquals("x", record.get("/b").getValueAsString());
+    Assert.assertNull(parser.parse());
+    parser.close();
+  }
 }
@@ -707,4 +707,39 @@ public class TestLogDataParserFactory {
     Assert.assertEquals(0, stringBuilderPool.getNumActive());
   }
 
+  @Test
+  public void testReusableParser() throws Exception {
+    WrapperDataParserFactory factory = (WrapperDataParserFactory) new DataParserFactoryBuilder(
+        getContext(),
+        DataParserFormat.LOG
+    )
+        .setMaxDataLen(100)
+        .setMode(LogMode.COMMON_LOG_FORMAT)
+        .build();
+    LogDataParserFactory logDataParserFactory = (LogDataParserFactory) factory.getFactory();
+
+    String line = "127.0.0.1 ss h [10/Oct/2000:13:55:36 -0700] \"GET /apache_pb.gif HTTP/1.0\" 200 2326";
+    DataParser parser = factory.getReusableParser("id1", (line + "\n" + line.replace("ss", "tt")).getBytes());
+    Record record = parser.parse();
+    Assert.assertEquals("id1::0", record.getHeader().getSourceId());
+    Assert.assertEquals("ss", record.get("/" + Constants.USER_IDENT).getValueAsString());
+    record = parser.parse();
+    Assert.assertEquals("tt", record.get("/" + Constants.USER_IDENT).getValueAsString());
+    Assert.assertNull(parser.parse());
+    parser.close();
+
+    // the closed parser is reset to the next message, nothing is left from the previous one
+    parser = factory.getReusableParser("id2", line.replace("ss", "uu").getBytes());
+    Assert.assertEquals(0, Long.parseLong(parser.getOffset()));
+    record = parser.parse();
+    Assert.assertEquals("id2::0", record.getHeader().getSourceId());
+    Assert.assertEquals("uu", record.get("/" + Constants.USER_IDENT).getValueAsString());
+    Assert.assertEquals(82, Long.parseLong(parser.getOffset()));
+    Assert.assertNull(parser.parse());
+    parser.close();
+
+    // reusable parsers own their string builders, the pools are not touched
+    Assert.assertEquals(0, logDataParserFactory.getCurrentLineBuilderPool().getNumActive());
+    Assert.assertEquals(0, logDataParserFactory.getPreviousLineBuilderPool().getNumActive());
+  }
 }
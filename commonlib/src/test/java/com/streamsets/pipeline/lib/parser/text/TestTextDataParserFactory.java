@@ -252,4 +252,102 @@ public class TestTextDataParserFactory {
     }
 
   }
+
+  @Test
+  public void testReusableParser() throws Exception {
+    DataParserFactoryBuilder dataParserFactoryBuilder = new DataParserFactoryBuilder(getContext(), DataParserFormat.TEXT);
+    WrapperDataParserFactory factory = (WrapperDataParserFactory) dataParserFactoryBuilder
+      .setMaxDataLen(3)
+      .build();
+    GenericObjectPool<StringBuilder> stringBuilderPool =
+        ((TextDataParserFactory) factory.getFactory()).getStringBuilderPool();
+
+    DataParser parser = factory.getReusableParser("id1", "Hello\nBye".getBytes());
+    Record record = parser.parse();
+    Assert.assertEquals("id1::0", record.getHeader().getSourceId());
+    Assert.assertEquals("Hel", record.get("/text").getValueAsString());
+    Assert.assertTrue(record.has("/truncated"));
+    record = parser.parse();
+    Assert.assertEquals("id1::6", record.getHeader().getSourceId());
+    Assert.assertFalse(record.has("/truncated"));
+    Assert.assertNull(parser.parse());
+    Assert.assertEquals(-1, Long.parseLong(parser.getOffset()));
+    parser.close();
+
+    // the closed parser is reset to the next message
+    parser = factory.getReusableParser("id2", "Hi".getBytes());
+    Assert.assertEquals(0, Long.parseLong(parser.getOffset()));
+    record = parser.parse();
+    Assert.assertEquals("id2::0", record.getHeader().getSourceId());
+    Assert.assertEquals("Hi", record.get("/text").getValueAsString());
+    Assert.assertNull(parser.parse());
+
+    // while the idle parser is in use a new one is created
+    DataParser parser2 = factory.getReusableParser("id3", "Other".getBytes());
+    Assert.assertEquals("id3::0", parser2.parse().getHeader().getSourceId());
+    parser2.close();
+    parser.close();
+
+    // reusable parsers own their string builder, the pool is not touched
+    Assert.assertEquals(0, stringBuilderPool.getNumActive());
+    Assert.assertEquals(0, stringBuilderPool.getNumIdle());
+  }
+
+  @Test
+  public void testCloseIdleParsers() throws Exception {
+    DataParserFactoryBuilder dataParserFactoryBuilder = new DataParserFactoryBuilder(getContext(), DataParserFormat.TEXT);
+    WrapperDataParserFactory wrapperFactory = (WrapperDataParserFactory) dataParserFactoryBuilder
+      .setMaxDataLen(100)
+      .build();
+    CountingTextDataParserFactory factory =
+        new CountingTextDataParserFactory(wrapperFactory.getFactory().getSettings());
+
+    factory.getReusableParser("id1", "Hello".getBytes()).close();
+    factory.getReusableParser("id2", "Hello".getBytes()).close();
+    Assert.assertEquals(1, factory.created);
+    Assert.assertEquals(1, factory.reset);
+
+    // idle parsers are kept by the factory, not by the thread that closed them
+    Thread thread = new Thread(() -> {
+      try (DataParser parser = factory.getReusableParser("id3", "Hello".getBytes())) {
+        Assert.assertEquals("id3::0", parser.parse().getHeader().getSourceId());
+      } catch (Exception ex) {
+        throw new RuntimeException(ex);
+      }
+    });
+    thread.start();
+    thread.join();
+    Assert.assertEquals(1, factory.created);
+    Assert.assertEquals(2, factory.reset);
+
+    // once the idle parsers are closed, closed parsers are not kept anymore
+    factory.closeIdleParsers();
+    factory.getReusableParser("id4", "Hello".getBytes()).close();
+    factory.getReusableParser("id5", "Hello".getBytes()).close();
+    Assert.assertEquals(3, factory.created);
+    Assert.assertEquals(2, factory.reset);
+  }
+
+  private static class CountingTextDataParserFactory extends TextDataParserFactory {
+    private int created;
+    private int reset;
+
+    CountingTextDataParserFactory(Settings settings) {
+      super(settings);
+    }
+
+    @Override
+    protected DataParser createReusableParser(String id, byte[] data, int offset, int len)
+        throws DataParserException {
+      created++;
+      return super.createReusableParser(id, data, offset, len);
+    }
+
+    @Override
+    protected boolean resetParser(DataParser parser, String id, byte[] data, int offset, int len)
+        throws DataParserException {
+      reset++;
+      return super.resetParser(parser, id, data, offset, len);
+    }
+  }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.udp;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.socket.DatagramPacket;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+public class TestPacketRing {
+  private static final InetSocketAddress ADDRESS = new InetSocketAddress("127.0.0.1", 2000);
+
+  private static DatagramPacket packet(int value) {
+    return new DatagramPacket(Unpooled.buffer(4).writeInt(value), ADDRESS, ADDRESS);
+  }
+
+  @Test
+  public void testOfferAndPollInOrder() throws Exception {
+    PacketRing ring = new PacketRing(3);
+    Assert.assertEquals(4, ring.capacity());
+    for (int i = 0; i < 4; i++) {
+      Assert.assertTrue(ring.offer(packet(i)));
+    }
+    DatagramPacket dropped = packet(4);
+    Assert.assertFalse(ring.offer(dropped));
+    dropped.release();
+    Assert.assertEquals(4, ring.size());
+
+    for (int i = 0; i < 4; i++) {
+      DatagramPacket packet = ring.poll();
+      Assert.assertEquals(i, packet.content().readInt());
+      packet.release();
+    }
+    Assert.assertNull(ring.poll());
+    Assert.assertNull(ring.poll(10, TimeUnit.MILLISECONDS));
+    Assert.assertEquals(0, ring.size());
+  }
+
+  @Test
+  public void testCapacity() {
+    Assert.assertEquals(1, PacketRing.getCapacity(0));
+    Assert.assertEquals(1, PacketRing.getCapacity(1));
+    Assert.assertEquals(2, PacketRing.getCapacity(2));
+    Assert.assertEquals(1024, PacketRing.getCapacity(1000));
+    Assert.assertEquals(1 << 30, PacketRing.getCapacity(1 << 30));
+    // doubling the highest bit of these overflows int
+    Assert.assertEquals(1 << 30, PacketRing.getCapacity((1 << 30) + 1));
+    Assert.assertEquals(1 << 30, PacketRing.getCapacity(Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testConcurrentProducerAndConsumer() throws Exception {
+    final int count = 100000;
+    final PacketRing ring = new PacketRing(64);
+    Thread producer = new Thread(() -> {
+      for (int i = 0; i < count; i++) {
+        DatagramPacket packet = packet(i);
+        while (!ring.offer(packet)) {
+          Thread.yield();
+        }
+      }
+    });
+    producer.start();
+    for (int i = 0; i < count; i++) {
+      DatagramPacket packet = ring.poll(10, TimeUnit.SECONDS);
+      Assert.assertNotNull(packet);
+      Assert.assertEquals(i, packet.content().readInt());
+      packet.release();
+    }
+    producer.join();
+    Assert.assertNull(ring.poll());
+  }
+
+  @Test
+  public void testClearReleasesPackets() {
+    PacketRing ring = new PacketRing(8);
+    DatagramPacket packet = packet(1);
+    Assert.assertTrue(ring.offer(packet));
+    ring.clear();
+    Assert.assertEquals(0, packet.refCnt());
+    Assert.assertEquals(0, ring.size());
+  }
+}
@@ -674,15 +674,25 @@ public abstract class BaseClusterProvider implements ClusterProvider {
     getLog().info("staticWebDir = '{}'", staticWebDir);
 
     Utils.checkState(staticWebDir.isDirectory(), Utils.format("Expected '{}' to be a directory", staticWebDir));
+    ClusterArchiveCache archiveCache = ClusterArchiveCache.create(runtimeInfo, configuration);
+    int compressionThreads = archiveCache.getCompressionThreads();
     File libsTarGz = new File(stagingDir, "libs.tar.gz");
     try {
-      TarFileCreator.createLibsTarGz(
-          findJars("api", apiCL, null),
-          findJars("container", containerCL, null),
-          streamsetsLibsCl,
-          userLibsCL,
-          staticWebDir,
-          libsTarGz
+      List<URL> apiJars = findJars("api", apiCL, null);
+      List<URL> containerJars = findJars("container", containerCL, null);
+      archiveCache.materialize(
+          "libs",
+          ClusterArchiveCache.digestLibs(apiJars, containerJars, streamsetsLibsCl, userLibsCL, staticWebDir),
+          libsTarGz,
+          outputFile -> TarFileCreator.createLibsTarGz(
+              apiJars,
+              containerJars,
+              streamsetsLibsCl,
+              userLibsCL,
+              staticWebDir,
+              outputFile,
+              compressionThreads
+          )
       );
     } catch (Exception ex) {
       String msg = errorString("Serializing classpath: '{}'", ex);
@@ -690,8 +700,14 @@ public abstract class BaseClusterProvider implements ClusterProvider {
     }
     File resourcesTarGz = new File(stagingDir, "resources.tar.gz");
     try {
-      resourcesDir = createDirectoryClone(resourcesDir, "resources", stagingDir);
-      TarFileCreator.createTarGz(resourcesDir, resourcesTarGz);
+      File resourcesClone = createDirectoryClone(resourcesDir, "resources", stagingDir);
+      resourcesDir = resourcesClone;
+      archiveCache.materialize(
+          "resources",
+          ClusterArchiveCache.digestDirectory(resourcesClone),
+          resourcesTarGz,
+          outputFile -> TarFileCreator.createTarGz(resourcesClone, outputFile, compressionThreads)
+      );
     } catch (Exception ex) {
       String msg = errorString("Serializing resources directory: '{}': {}", resourcesDir.getName(), ex);
       throw new RuntimeException(msg, ex);
@@ -783,7 +799,8 @@ public abstract class BaseClusterProvider implements ClusterProvider {
         }
       }
       rewriteProperties(sdcPropertiesFile, etcDir, sourceConfigs, sourceInfo, clusterToken, Optional.ofNullable(mesosURL));
-      TarFileCreator.createTarGz(etcDir, etcTarGz);
+      // etc carries the pipeline definition and a per launch cluster token, so it is never reused
+      TarFileCreator.createTarGz(etcDir, etcTarGz, compressionThreads);
     } catch (IOException | RuntimeException ex) {
       String msg = errorString("Error while preparing for cluster job submission: {}", ex);
       throw new RuntimeException(msg, ex);
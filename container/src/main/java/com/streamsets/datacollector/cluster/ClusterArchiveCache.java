@@ -0,0 +1,279 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.cluster;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.BaseEncoding;
+import com.streamsets.datacollector.main.RuntimeInfo;
+import com.streamsets.datacollector.util.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Content addressed cache of the archives shipped to the cluster when launching a cluster mode pipeline.
+ * <p/>
+ * Archives are stored under the data directory, named after a digest of everything that goes into them, and
+ * are hard linked (or copied if linking is not possible) into the staging directory of every launch with the
+ * same inputs. Only the most recently used archives of each kind are kept.
+ */
+public class ClusterArchiveCache {
+  private static final Logger LOG = LoggerFactory.getLogger(ClusterArchiveCache.class);
+
+  public static final String ENABLED_KEY = "cluster.archive.cache.enabled";
+  public static final boolean ENABLED_DEFAULT = true;
+  public static final String MAX_ENTRIES_KEY = "cluster.archive.cache.max.entries";
+  public static final int MAX_ENTRIES_DEFAULT = 4;
+  public static final String COMPRESSION_THREADS_KEY = "cluster.archive.compression.threads";
+  public static final int COMPRESSION_THREADS_DEFAULT = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+  static final String CACHE_DIR = "cluster-archive-cache";
+  static final String ARCHIVE_SUFFIX = ".tar.gz";
+
+  // bump whenever the layout of the archives produced by TarFileCreator changes
+  private static final String FORMAT_VERSION = "1";
+
+  private static final ConcurrentMap<String, Object> LOCKS = new ConcurrentHashMap<>();
+
+  /**
+   * Writes an archive to the given file.
+   */
+  public interface ArchiveBuilder {
+    void build(File outputFile) throws IOException;
+  }
+
+  private final File cacheDir;
+  private final boolean enabled;
+  private final int maxEntries;
+  private final int compressionThreads;
+
+  public static ClusterArchiveCache create(RuntimeInfo runtimeInfo, Configuration configuration) {
+    return new ClusterArchiveCache(
+        new File(runtimeInfo.getDataDir(), CACHE_DIR),
+        configuration.get(ENABLED_KEY, ENABLED_DEFAULT),
+        configuration.get(MAX_ENTRIES_KEY, MAX_ENTRIES_DEFAULT),
+        configuration.get(COMPRESSION_THREADS_KEY, COMPRESSION_THREADS_DEFAULT)
+    );
+  }
+
+  @VisibleForTesting
+  ClusterArchiveCache(File cacheDir, boolean enabled, int maxEntries, int compressionThreads) {
+    this.cacheDir = cacheDir;
+    this.enabled = enabled && maxEntries > 0;
+    this.maxEntries = maxEntries;
+    this.compressionThreads = Math.max(1, compressionThreads);
+  }
+
+  public int getCompressionThreads() {
+    return compressionThreads;
+  }
+
+  /**
+   * Places the archive identified by the given name and digest at the target location, building it with the
+   * given builder only if it is not cached yet.
+   *
+   * @return true if the archive was served from the cache
+   */
+  public boolean materialize(String name, String digest, File target, ArchiveBuilder builder) throws IOException {
+    if (!enabled) {
+      builder.build(target);
+      return false;
+    }
+    if (!cacheDir.isDirectory() && !cacheDir.mkdirs() && !cacheDir.isDirectory()) {
+      LOG.warn("Could not create archive cache directory '{}', building '{}' without caching", cacheDir, name);
+      builder.build(target);
+      return false;
+    }
+    File cached = new File(cacheDir, name + "-" + digest + ARCHIVE_SUFFIX);
+    boolean hit;
+    synchronized (LOCKS.computeIfAbsent(cached.getAbsolutePath(), key -> new Object())) {
+      hit = cached.isFile();
+      if (hit) {
+        LOG.info("Reusing cached archive '{}' for '{}'", cached, target);
+        if (!cached.setLastModified(System.currentTimeMillis())) {
+          LOG.debug("Could not update last modified time of '{}'", cached);
+        }
+      } else {
+        File tmp = new File(cacheDir, "." + cached.getName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+          builder.build(tmp);
+          Files.move(tmp.toPath(), cached.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+          Files.deleteIfExists(tmp.toPath());
+        }
+        LOG.info("Cached archive '{}'", cached);
+      }
+      link(cached, target);
+    }
+    if (!hit) {
+      evict(name);
+    }
+    return hit;
+  }
+
+  private static void link(File cached, File target) throws IOException {
+    Files.deleteIfExists(target.toPath());
+    try {
+      Files.createLink(target.toPath(), cached.toPath());
+    } catch (IOException | UnsupportedOperationException ex) {
+      LOG.debug("Could not link '{}' to '{}', copying it: {}", cached, target, ex.toString());
+      Files.copy(cached.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private void evict(String name) {
+    String prefix = name + "-";
+    File[] archives = cacheDir.listFiles(file -> file.getName().startsWith(prefix) &&
+        file.getName().endsWith(ARCHIVE_SUFFIX));
+    if (archives == null || archives.length <= maxEntries) {
+      return;
+    }
+    Arrays.sort(archives, Comparator.comparingLong(File::lastModified).reversed());
+    for (int i = maxEntries; i < archives.length; i++) {
+      synchronized (LOCKS.computeIfAbsent(archives[i].getAbsolutePath(), key -> new Object())) {
+        if (archives[i].delete()) {
+          LOG.info("Evicted cached archive '{}'", archives[i]);
+        } else {
+          LOG.warn("Could not evict cached archive '{}'", archives[i]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Digest of the inputs of {@link TarFileCreator#createLibsTarGz}. Jar files are identified by path, size and
+   * modification time rather than by content as they are large and never modified in place.
+   */
+  public static String digestLibs(List<URL> apiCl, List<URL> containerCL,
+                                  Map<String, List<URL>> streamsetsLibsCl,
+                                  Map<String, List<URL>> userLibsCL,
+                                  File staticWebDir) {
+    Digest digest = new Digest("libs");
+    digest.addClasspath(ClusterModeConstants.API_LIB, apiCl);
+    digest.addClasspath(ClusterModeConstants.CONTAINER_LIB, containerCL);
+    digest.addLibrary(ClusterModeConstants.STREAMSETS_LIBS, streamsetsLibsCl);
+    digest.addLibrary(ClusterModeConstants.USER_LIBS, userLibsCL);
+    digest.addTree(staticWebDir.getName(), staticWebDir, false);
+    return digest.toHex();
+  }
+
+  /**
+   * Digest of the names and contents of all the files under the given directory.
+   */
+  public static String digestDirectory(File dir) throws IOException {
+    Digest digest = new Digest("dir");
+    try {
+      digest.addTree("", dir, true);
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+    return digest.toHex();
+  }
+
+  private static final class Digest {
+    private final MessageDigest md;
+    private final byte[] buffer = new byte[65536];
+
+    Digest(String kind) {
+      try {
+        md = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException ex) {
+        throw new IllegalStateException(ex);
+      }
+      add(FORMAT_VERSION);
+      add(kind);
+    }
+
+    void add(String value) {
+      md.update(value.getBytes(StandardCharsets.UTF_8));
+      md.update((byte) 0);
+    }
+
+    void add(long value) {
+      add(Long.toString(value));
+    }
+
+    void addStat(File file) {
+      add(file.getAbsolutePath());
+      add(file.length());
+      add(file.lastModified());
+    }
+
+    void addClasspath(String prefix, List<URL> urls) {
+      add(prefix);
+      if (urls != null) {
+        for (URL url : urls) {
+          addStat(new File(url.getPath()));
+        }
+      }
+    }
+
+    void addLibrary(String prefix, Map<String, List<URL>> lib) {
+      add(prefix);
+      for (Map.Entry<String, List<URL>> entry : lib.entrySet()) {
+        addClasspath(entry.getKey(), entry.getValue());
+      }
+    }
+
+    void addTree(String path, File file, boolean content) {
+      add(path);
+      if (file.isDirectory()) {
+        add("d");
+        String[] children = file.list();
+        if (children != null) {
+          Arrays.sort(children);
+          for (String child : children) {
+            addTree(path + "/" + child, new File(file, child), content);
+          }
+        }
+      } else if (content) {
+        add(file.length());
+        try (InputStream is = new FileInputStream(file)) {
+          int read;
+          while ((read = is.read(buffer)) != -1) {
+            md.update(buffer, 0, read);
+          }
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      } else {
+        addStat(file);
+      }
+    }
+
+    String toHex() {
+      return BaseEncoding.base16().lowerCase().encode(md.digest());
+    }
+  }
+}
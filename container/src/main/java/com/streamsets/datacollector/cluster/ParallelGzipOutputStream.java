@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.cluster;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip output stream that compresses fixed size blocks on a pool of threads. Every block is written as an
+ * independent gzip member; concatenated members are a valid gzip file that gunzip, tar and
+ * {@link java.util.zip.GZIPInputStream} read as a single stream.
+ * <p/>
+ * Flushing does not end the current block, so callers flushing after every tar entry do not degrade the
+ * compression ratio.
+ */
+final class ParallelGzipOutputStream extends OutputStream {
+  static final int BLOCK_SIZE = 1024 * 1024;
+
+  private final OutputStream out;
+  private final ExecutorService executor;
+  private final int maxPending;
+  private final Deque<Future<byte[]>> pending;
+  private byte[] block;
+  private int count;
+  private boolean closed;
+
+  ParallelGzipOutputStream(OutputStream out, int threads) {
+    this(out, threads, BLOCK_SIZE);
+  }
+
+  ParallelGzipOutputStream(OutputStream out, int threads, int blockSize) {
+    this.out = out;
+    this.executor = Executors.newFixedThreadPool(
+        threads,
+        new ThreadFactoryBuilder().setNameFormat("archive-compressor-%d").setDaemon(true).build()
+    );
+    this.maxPending = threads * 2;
+    this.pending = new ArrayDeque<>(maxPending + 1);
+    this.block = new byte[blockSize];
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    block[count++] = (byte) b;
+    if (count == block.length) {
+      submitBlock();
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    ensureOpen();
+    while (len > 0) {
+      int n = Math.min(len, block.length - count);
+      System.arraycopy(b, off, block, count, n);
+      count += n;
+      off += n;
+      len -= n;
+      if (count == block.length) {
+        submitBlock();
+      }
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      // an empty stream still needs one member to be a valid gzip file
+      if (count > 0 || pending.isEmpty()) {
+        submitBlock();
+      }
+      while (!pending.isEmpty()) {
+        writeNext();
+      }
+      out.flush();
+    } finally {
+      executor.shutdownNow();
+      out.close();
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+  }
+
+  private void submitBlock() throws IOException {
+    final byte[] data = block;
+    final int len = count;
+    pending.add(executor.submit(() -> compress(data, len)));
+    block = new byte[data.length];
+    count = 0;
+    while (pending.size() > maxPending) {
+      writeNext();
+    }
+  }
+
+  private void writeNext() throws IOException {
+    try {
+      out.write(pending.poll().get());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while compressing");
+    } catch (ExecutionException ex) {
+      throw new IOException("Could not compress block: " + ex.getCause(), ex.getCause());
+    }
+  }
+
+  private static byte[] compress(byte[] data, int len) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(len / 2 + 64);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes, 65536)) {
+      gzip.write(data, 0, len);
+    }
+    return bytes.toByteArray();
+  }
+}
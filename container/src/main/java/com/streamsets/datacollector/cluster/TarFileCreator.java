@@ -27,6 +27,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URL;
 import java.util.List;
 import java.util.Map;
@@ -41,36 +42,66 @@ public class TarFileCreator {
                                          Map<String, List<URL>> userLibsCL,
                                          File staticWebDir,
                                          File outputFile) throws IOException {
+    createLibsTarGz(apiCl, containerCL, streamsetsLibsCl, userLibsCL, staticWebDir, outputFile, 1);
+  }
+
+  public static void createLibsTarGz(List<URL> apiCl, List<URL> containerCL,
+                                     Map<String, List<URL>> streamsetsLibsCl,
+                                     Map<String, List<URL>> userLibsCL,
+                                     File staticWebDir,
+                                     File outputFile,
+                                     int compressionThreads) throws IOException {
     long now = System.currentTimeMillis() / 1000L;
-    FileOutputStream dest = new FileOutputStream(outputFile);
-    TarOutputStream out = new TarOutputStream(new BufferedOutputStream(new GZIPOutputStream(dest), 65536));
-    // api-lib
-    String prefix = ClusterModeConstants.API_LIB;
-    out.putNextEntry(new TarEntry(TarHeader.createHeader(prefix, 0L, now, true)));
-    addClasspath(prefix, out, apiCl);
-    prefix = ClusterModeConstants.CONTAINER_LIB;
-    out.putNextEntry(new TarEntry(TarHeader.createHeader(prefix, 0L, now, true)));
-    addClasspath(prefix, out, containerCL);
-    addLibrary(ClusterModeConstants.STREAMSETS_LIBS, now, out, streamsetsLibsCl);
-    addLibrary(ClusterModeConstants.USER_LIBS, now, out, userLibsCL);
-    tarFolder(null, staticWebDir.getAbsolutePath(), out);
-    out.putNextEntry(new TarEntry(TarHeader.createHeader("libs-common-lib", 0L, now, true)));
-    out.flush();
-    out.close();
+    // closing the tar stream on failure may not reach the compressor, so it is closed on its own (again on success)
+    try (OutputStream gzip = openGzip(outputFile, compressionThreads)) {
+      TarOutputStream out = new TarOutputStream(new BufferedOutputStream(gzip, 65536));
+      // api-lib
+      String prefix = ClusterModeConstants.API_LIB;
+      out.putNextEntry(new TarEntry(TarHeader.createHeader(prefix, 0L, now, true)));
+      addClasspath(prefix, out, apiCl);
+      prefix = ClusterModeConstants.CONTAINER_LIB;
+      out.putNextEntry(new TarEntry(TarHeader.createHeader(prefix, 0L, now, true)));
+      addClasspath(prefix, out, containerCL);
+      addLibrary(ClusterModeConstants.STREAMSETS_LIBS, now, out, streamsetsLibsCl);
+      addLibrary(ClusterModeConstants.USER_LIBS, now, out, userLibsCL);
+      tarFolder(null, staticWebDir.getAbsolutePath(), out);
+      out.putNextEntry(new TarEntry(TarHeader.createHeader("libs-common-lib", 0L, now, true)));
+      out.flush();
+      out.close();
+    }
   }
 
   public static void createTarGz(File dir,
                                  File outputFile) throws IOException {
+    createTarGz(dir, outputFile, 1);
+  }
+
+  public static void createTarGz(File dir,
+                                 File outputFile,
+                                 int compressionThreads) throws IOException {
     Utils.checkState(dir.isDirectory(), Utils.formatL("Path {} is not a directory", dir));
     Utils.checkState(dir.canRead(), Utils.formatL("Directory {} cannot be read", dir));
+    try (OutputStream gzip = openGzip(outputFile, compressionThreads)) {
+      TarOutputStream out = new TarOutputStream(new BufferedOutputStream(gzip, 65536));
+      File[] files = dir.listFiles();
+      Utils.checkState(files != null, Utils.formatL("Directory {} could not be read", dir));
+      if(files.length > 0) {
+        tarFolder(null, dir.getAbsolutePath(), out);
+      }
+      out.close();
+    }
+  }
+
+  private static OutputStream openGzip(File outputFile, int compressionThreads) throws IOException {
     FileOutputStream dest = new FileOutputStream(outputFile);
-    TarOutputStream out = new TarOutputStream(new BufferedOutputStream(new GZIPOutputStream(dest), 65536));
-    File[] files = dir.listFiles();
-    Utils.checkState(files != null, Utils.formatL("Directory {} could not be read", dir));
-    if(files.length > 0) {
-      tarFolder(null, dir.getAbsolutePath(), out);
+    try {
+      return (compressionThreads > 1)
+          ? new ParallelGzipOutputStream(dest, compressionThreads)
+          : new GZIPOutputStream(dest);
+    } catch (IOException | RuntimeException ex) {
+      IOUtils.closeQuietly(dest);
+      throw ex;
     }
-    out.close();
   }
 
   private static void addLibrary(final String originalPrefix, long now, TarOutputStream out,
@@ -94,9 +125,9 @@ public class TarFileCreator {
         String name = file.getName();
         if (name.endsWith(".jar")) {
           out.putNextEntry(new TarEntry(file, prefix + "/" + file.getName()));
-          BufferedInputStream src = new BufferedInputStream(new FileInputStream(file), 65536);
-          IOUtils.copy(src, out);
-          src.close();
+          try (BufferedInputStream src = new BufferedInputStream(new FileInputStream(file), 65536)) {
+            IOUtils.copy(src, out);
+          }
           out.flush();
         }
       }
@@ -107,7 +138,6 @@ public class TarFileCreator {
    * Copied from https://raw.githubusercontent.com/kamranzafar/jtar/master/src/test/java/org/kamranzafar/jtar/JTarTest.java
    */
   private static void tarFolder(String parent, String path, TarOutputStream out) throws IOException {
-    BufferedInputStream src = null;
     File f = new File(path);
     String files[] = f.list();
     // is file
@@ -131,12 +161,11 @@ public class TarFileCreator {
         }
         continue;
       }
-      FileInputStream fi = new FileInputStream(fe);
-      src = new BufferedInputStream(fi);
       TarEntry entry = new TarEntry(fe, parent + files[i]);
       out.putNextEntry(entry);
-      IOUtils.copy(src, out);
-      src.close();
+      try (BufferedInputStream src = new BufferedInputStream(new FileInputStream(fe))) {
+        IOUtils.copy(src, out);
+      }
       out.flush();
     }
   }
@@ -20,6 +20,7 @@ import com.streamsets.datacollector.event.handler.EventHandlerTask;
 import com.streamsets.datacollector.event.handler.NoOpEventHandlerTask;
 import com.streamsets.datacollector.event.handler.remote.RemoteDataCollector;
 import com.streamsets.datacollector.event.handler.remote.RemoteEventHandlerTask;
+import com.streamsets.datacollector.http.SharedHttpClient;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.stagelibrary.StageLibraryTask;
 import com.streamsets.datacollector.util.Configuration;
@@ -58,8 +59,14 @@ public class EventHandlerModule {
           RemoteSSOService.DPM_BASE_URL_DEFAULT));
       String targetURL = remoteBaseURL + "messaging/rest/v1/events";
       eventHandlerTask =
-          new RemoteEventHandlerTask(remoteDataCollector, new EventClientImpl(targetURL), eventHandlerExecutor,
-              stageLibraryTask, runtimeInfo, conf);
+          new RemoteEventHandlerTask(
+              remoteDataCollector,
+              new EventClientImpl(targetURL, SharedHttpClient.get(runtimeInfo.getMetrics(), conf).getClient()),
+              eventHandlerExecutor,
+              stageLibraryTask,
+              runtimeInfo,
+              conf
+          );
     } else {
       eventHandlerTask = new NoOpEventHandlerTask();
     }
@@ -60,6 +60,14 @@ public interface PipelineStateStore {
 
   public void deleteHistory(String name, String rev);
 
+  // notified after the state of a pipeline has been persisted, and with a null state after it has been deleted
+  public interface StateChangeListener {
+    void onStateChange(String name, String rev, PipelineState state);
+  }
+
+  public default void addStateChangeListener(StateChangeListener listener) {
+  }
+
   public void init();
 
   public void destroy();
@@ -15,6 +15,7 @@
  */
 package com.streamsets.datacollector.execution;
 
+import com.streamsets.datacollector.execution.snapshot.common.SnapshotRecords;
 import com.streamsets.datacollector.util.PipelineException;
 
 import java.io.Closeable;
@@ -22,8 +23,20 @@ import java.io.InputStream;
 
 public interface Snapshot extends Closeable {
 
+  // pseudo lane names to retrieve the error and event records of a stage with getRecords()
+  String ERROR_RECORDS_LANE = "errorRecords";
+  String EVENT_RECORDS_LANE = "eventRecords";
+
   SnapshotInfo getInfo();
 
   public InputStream getOutput() throws PipelineException;
 
+  /**
+   * Returns up to <code>len</code> records, starting at <code>offset</code>, that the given stage produced on the given
+   * lane for the given captured batch. Use {@link #ERROR_RECORDS_LANE} and {@link #EVENT_RECORDS_LANE} to retrieve
+   * the error and event records of the stage. Returns null if the snapshot has no data.
+   */
+  SnapshotRecords getRecords(int batch, String stageInstanceName, String lane, int offset, int len)
+      throws PipelineException;
+
 }
@@ -44,6 +44,7 @@ import com.streamsets.datacollector.store.PipelineStoreException;
 import com.streamsets.datacollector.store.PipelineStoreTask;
 import com.streamsets.datacollector.task.AbstractTask;
 import com.streamsets.datacollector.usagestats.StatsCollector;
+import com.streamsets.datacollector.runner.production.OffsetJournal;
 import com.streamsets.datacollector.util.Configuration;
 import com.streamsets.datacollector.util.ContainerError;
 import com.streamsets.datacollector.util.PipelineException;
@@ -59,6 +60,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -97,6 +99,7 @@ public class StandaloneAndClusterPipelineManager extends AbstractTask implements
   private final long runnerExpiryInterval;
   private final long runnerExpiryInitialDelay;
   private ScheduledFuture<?> runnerExpiryFuture;
+  private OffsetJournal offsetJournal;
   private static final String NAME_AND_REV_SEPARATOR = "::";
 
   public StandaloneAndClusterPipelineManager(ObjectGraph objectGraph) {
@@ -224,6 +227,13 @@ public class StandaloneAndClusterPipelineManager extends AbstractTask implements
       CacheBuilder.newBuilder().build())
     ;
 
+    // Offsets left in the journal by a previous run must be recovered before any pipeline reads its offset
+    try {
+      offsetJournal = OffsetJournal.openIfEnabled(runtimeInfo, configuration);
+    } catch (IOException ex) {
+      throw new RuntimeException("Cannot open the offset journal", ex);
+    }
+
     // On SDC start up we will try by default start all pipelines that were running at the time SDC was shut down. This
     // can however be disabled via sdc.properties config. Especially helpful when starting all pipeline at once could
     // lead to troubles.
@@ -329,6 +339,13 @@ public class StandaloneAndClusterPipelineManager extends AbstractTask implements
     }
     previewerCache.invalidateAll();
     runnerExpiryFuture.cancel(true);
+    if (offsetJournal != null) {
+      try {
+        offsetJournal.close();
+      } catch (IOException e) {
+        LOG.warn("Failed to close the offset journal due to: {}", e.toString(), e);
+      }
+    }
     LOG.info("Stopped Production Pipeline Manager");
   }
 
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Tracks the metrics last published to Control Hub so that subsequent publishes only carry the metrics that
+ * changed since. Works on the JSON tree of a metric registry: every entry of the gauges, counters, histograms, meters
+ * and timers sections is compared with its last published value, while any other field is always sent.
+ *
+ * The first publish, and the first one after a failed publish, carries the full snapshot.
+ */
+class MetricsDeltaTracker {
+  private static final String[] SECTIONS = {"gauges", "counters", "histograms", "meters", "timers"};
+
+  private Map<String, JsonNode> published;
+  private Map<String, JsonNode> pending;
+
+  /**
+   * @return true if the next call to {@link #delta(ObjectNode)} returns the full snapshot
+   */
+  boolean isNextFull() {
+    return published == null;
+  }
+
+  /**
+   * Removes from the given metrics tree every metric that did not change since the last successful publish.
+   *
+   * @param metrics JSON tree of a metric registry, modified in place
+   * @return the given tree
+   */
+  ObjectNode delta(ObjectNode metrics) {
+    pending = new HashMap<>();
+    for (String section : SECTIONS) {
+      JsonNode sectionNode = metrics.get(section);
+      if (sectionNode == null || !sectionNode.isObject()) {
+        continue;
+      }
+      Iterator<Map.Entry<String, JsonNode>> entries = sectionNode.fields();
+      while (entries.hasNext()) {
+        Map.Entry<String, JsonNode> entry = entries.next();
+        String key = section + "/" + entry.getKey();
+        pending.put(key, entry.getValue());
+        if (published != null && entry.getValue().equals(published.get(key))) {
+          entries.remove();
+        }
+      }
+    }
+    return metrics;
+  }
+
+  /**
+   * Records the metrics of the last {@link #delta(ObjectNode)} call as published.
+   */
+  void onPublished() {
+    if (pending != null) {
+      published = pending;
+      pending = null;
+    }
+  }
+
+  /**
+   * Forgets the published metrics so that the next publish carries the full snapshot.
+   */
+  void reset() {
+    published = null;
+    pending = null;
+  }
+}
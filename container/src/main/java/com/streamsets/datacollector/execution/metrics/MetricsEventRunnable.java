@@ -17,6 +17,7 @@ package com.streamsets.datacollector.execution.metrics;
 
 import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 import com.streamsets.datacollector.callback.CallbackInfo;
@@ -32,6 +33,7 @@ import com.streamsets.datacollector.execution.PipelineStateStore;
 import com.streamsets.datacollector.execution.runner.cluster.SlaveCallbackManager;
 import com.streamsets.datacollector.execution.runner.common.ThreadHealthReporter;
 import com.streamsets.datacollector.execution.runner.standalone.StandaloneRunner;
+import com.streamsets.datacollector.http.SharedHttpClient;
 import com.streamsets.datacollector.http.SnappyWriterInterceptor;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
@@ -45,14 +47,11 @@ import com.streamsets.datacollector.util.Configuration;
 import com.streamsets.pipeline.api.ExecutionMode;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.impl.Utils;
-import org.glassfish.jersey.client.filter.CsrfProtectionFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Named;
-import javax.ws.rs.client.Client;
-import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.Response;
@@ -73,6 +72,9 @@ public class MetricsEventRunnable implements Runnable {
 
   public static final String REFRESH_INTERVAL_PROPERTY = "ui.refresh.interval.ms";
   public static final int REFRESH_INTERVAL_PROPERTY_DEFAULT = 2000;
+  public static final String DPM_METRICS_DELTA_ENABLED = "dpm.metrics.delta.enabled";
+  public static final boolean DPM_METRICS_DELTA_ENABLED_DEFAULT = false;
+  static final String DPM_METRICS_DELTA = "dpm.metrics.delta";
   private static final String DPM_PIPELINE_COMMIT_ID = "dpm.pipeline.commitId";
   private static final String DPM_JOB_ID = "dpm.job.id";
   private static final String REMOTE_TIMESERIES_URL = "REMOTE_TIMESERIES_URL";
@@ -111,6 +113,7 @@ public class MetricsEventRunnable implements Runnable {
   private boolean isPipelineStopped = false;
   private WebTarget webTarget;
   private Stopwatch stopwatch = null;
+  private final MetricsDeltaTracker deltaTracker;
 
   @Inject
   public MetricsEventRunnable(
@@ -135,6 +138,11 @@ public class MetricsEventRunnable implements Runnable {
     this.scheduledDelay = configuration.get(REFRESH_INTERVAL_PROPERTY, REFRESH_INTERVAL_PROPERTY_DEFAULT);
     this.configuration = configuration;
     this.runtimeInfo = runtimeInfo;
+    if (configuration.get(DPM_METRICS_DELTA_ENABLED, DPM_METRICS_DELTA_ENABLED_DEFAULT)) {
+      deltaTracker = new MetricsDeltaTracker();
+    } else {
+      deltaTracker = null;
+    }
   }
 
   public void onStopPipeline() {
@@ -173,20 +181,26 @@ public class MetricsEventRunnable implements Runnable {
           (isDPMPipeline && (isWriteStatsToDPMDirectlyEnabled() || isStatAggregationEnabled()))) {
         // compute aggregated metrics in case of cluster mode pipeline
         // get individual pipeline metrics if non cluster mode pipeline
-        String metricsJSONStr;
+        Object metrics;
         if (state.getExecutionMode() == ExecutionMode.CLUSTER_BATCH
           || state.getExecutionMode() == ExecutionMode.CLUSTER_YARN_STREAMING
           || state.getExecutionMode() == ExecutionMode.CLUSTER_MESOS_STREAMING) {
-          MetricRegistryJson metricRegistryJson = getAggregatedMetrics();
-          metricsJSONStr = objectMapper.writer().writeValueAsString(metricRegistryJson);
+          metrics = getAggregatedMetrics();
         } else {
-          metricsJSONStr = objectMapper.writer().writeValueAsString(metricRegistry);
+          metrics = metricRegistry;
         }
+        // The JSON string is only needed by the listeners and the stats aggregator, metrics written directly to
+        // Control Hub are converted without going through a string
+        String metricsJSONStr = null;
         if (hasMetricEventListeners(state)) {
+          metricsJSONStr = objectMapper.writer().writeValueAsString(metrics);
           eventListenerManager.broadcastMetrics(name, metricsJSONStr);
         }
         // don't queue stats record when pipeline is stopped as runner is not going to process any more batches
         if (isStatAggregationEnabled() && !isPipelineStopped) {
+          if (metricsJSONStr == null) {
+            metricsJSONStr = objectMapper.writer().writeValueAsString(metrics);
+          }
           AggregatorUtil.enqueStatsRecord(
             AggregatorUtil.createMetricJsonRecord(
                 runtimeInfo.getId(),
@@ -203,7 +217,7 @@ public class MetricsEventRunnable implements Runnable {
         } else if (isDPMPipeline && isWriteStatsToDPMDirectlyEnabled() &&
             state.getExecutionMode() != ExecutionMode.SLAVE) {
           // Write Stats to Control hub is not supported for slave nodes
-          sendMetricsToDPM(pipelineConfiguration, metricsJSONStr);
+          sendMetricsToDPM(pipelineConfiguration, metrics);
         }
       }
     } catch (IOException ex) {
@@ -331,10 +345,9 @@ public class MetricsEventRunnable implements Runnable {
         }
 
         if (remoteTimeSeriesUrl != null) {
-          Client client = ClientBuilder.newBuilder().build();
-          client.register(new CsrfProtectionFilter("CSRF"));
-          client.register(SnappyWriterInterceptor.class);
-          webTarget = client.target(remoteTimeSeriesUrl);
+          webTarget = SharedHttpClient.get(runtimeInfo.getMetrics(), configuration)
+              .target(remoteTimeSeriesUrl)
+              .register(SnappyWriterInterceptor.class);
         }
       }
     } catch (PipelineStoreException e) {
@@ -344,15 +357,22 @@ public class MetricsEventRunnable implements Runnable {
 
   private void sendMetricsToDPM(
       PipelineConfiguration pipelineConfiguration,
-      String metricsJSONStr
+      Object metrics
   ) throws IOException {
     if (stopwatch == null || stopwatch.elapsed(TimeUnit.MILLISECONDS) > waitTimeBetweenUpdates) {
+      ObjectMapper objectMapper = ObjectMapperFactory.get();
+      ObjectNode metricsTree = objectMapper.valueToTree(metrics);
+      boolean delta = false;
+      if (deltaTracker != null) {
+        delta = !deltaTracker.isNextFull();
+        deltaTracker.delta(metricsTree);
+      }
       SDCMetricsJson sdcMetricsJson = new SDCMetricsJson();
       sdcMetricsJson.setTimestamp(System.currentTimeMillis());
       sdcMetricsJson.setAggregated(false);
       sdcMetricsJson.setSdcId(runtimeInfo.getId());
       sdcMetricsJson.setMasterSdcId(runtimeInfo.getMasterSDCId());
-      sdcMetricsJson.setMetrics(ObjectMapperFactory.get().readValue(metricsJSONStr, MetricRegistryJson.class));
+      sdcMetricsJson.setMetrics(objectMapper.treeToValue(metricsTree, MetricRegistryJson.class));
       Map<String, String> metadata = new HashMap<>();
       if (pipelineConfiguration.getMetadata() != null && !pipelineConfiguration.getMetadata().isEmpty()) {
         for (Map.Entry<String, Object> e : pipelineConfiguration.getMetadata().entrySet()) {
@@ -364,9 +384,20 @@ public class MetricsEventRunnable implements Runnable {
       metadata.put(DPM_PIPELINE_COMMIT_ID, pipelineCommitId);
       metadata.put(DPM_JOB_ID, jobId);
       metadata.put(AggregatorUtil.TIME_SERIES_ANALYSIS, String.valueOf(timeSeriesAnalysis));
+      if (deltaTracker != null) {
+        metadata.put(DPM_METRICS_DELTA, String.valueOf(delta));
+      }
       sdcMetricsJson.setMetadata(metadata);
 
-      sendUpdate(ImmutableList.of(sdcMetricsJson));
+      boolean published = sendUpdate(ImmutableList.of(sdcMetricsJson));
+      if (deltaTracker != null) {
+        // Once a publish is lost Control Hub misses changes, so resynchronize with a full snapshot
+        if (published) {
+          deltaTracker.onPublished();
+        } else {
+          deltaTracker.reset();
+        }
+      }
 
       if (stopwatch == null) {
         stopwatch = Stopwatch.createStarted();
@@ -377,7 +408,7 @@ public class MetricsEventRunnable implements Runnable {
     }
   }
 
-  private void sendUpdate(List<SDCMetricsJson> sdcMetricsJsonList) {
+  private boolean sendUpdate(List<SDCMetricsJson> sdcMetricsJsonList) {
     int delaySecs = 1;
     int attempts = 0;
     while (attempts < retryAttempts || retryAttempts == -1) {
@@ -401,7 +432,7 @@ public class MetricsEventRunnable implements Runnable {
                 )
             );
         if (response.getStatus() == HttpURLConnection.HTTP_OK) {
-          return;
+          return true;
         } else if (response.getStatus() == HttpURLConnection.HTTP_UNAVAILABLE) {
           LOG.warn("Error writing to time-series app: DPM unavailable");
           // retry
@@ -409,7 +440,7 @@ public class MetricsEventRunnable implements Runnable {
           // no retry in this case
           String errorResponseMessage = response.readEntity(String.class);
           LOG.error(Utils.format("Error writing to DPM: {}", errorResponseMessage));
-          return;
+          return false;
         } else {
           String responseMessage = response.readEntity(String.class);
           LOG.error(Utils.format("Error writing to DPM: {}", responseMessage));
@@ -427,6 +458,7 @@ public class MetricsEventRunnable implements Runnable {
 
     // no success after retry
     LOG.warn("Unable to write metrics to DPM after {} attempts", retryAttempts);
+    return false;
   }
 
   public static void sleep(int secs) {
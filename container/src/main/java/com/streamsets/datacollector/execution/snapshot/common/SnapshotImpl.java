@@ -15,16 +15,25 @@
  */
 package com.streamsets.datacollector.execution.snapshot.common;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.streamsets.datacollector.execution.Snapshot;
 import com.streamsets.datacollector.execution.SnapshotInfo;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import com.streamsets.datacollector.restapi.bean.BeanHelper;
+import com.streamsets.datacollector.restapi.bean.RecordJson;
 import com.streamsets.datacollector.runner.PipelineRuntimeException;
 import com.streamsets.datacollector.util.ContainerError;
+import com.streamsets.datacollector.util.PipelineException;
+import com.streamsets.pipeline.api.Record;
 
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 public class SnapshotImpl implements Snapshot, Closeable {
 
@@ -56,6 +65,44 @@ public class SnapshotImpl implements Snapshot, Closeable {
     return null;
   }
 
+  /**
+   * JSON snapshots have no record index, the whole snapshot is parsed to extract the requested page.
+   */
+  @Override
+  public SnapshotRecords getRecords(int batch, String stageInstanceName, String lane, int offset, int len)
+      throws PipelineException {
+    if (snapshotFile == null) {
+      return null;
+    }
+    ObjectMapper json = ObjectMapperFactory.get();
+    JsonNode laneNode = null;
+    try (InputStream in = new FileInputStream(snapshotFile)) {
+      JsonNode stages = json.readTree(in).path("snapshotBatches").path(batch);
+      for (JsonNode stage : stages) {
+        if (stageInstanceName.equals(stage.path("instanceName").asText())) {
+          if (ERROR_RECORDS_LANE.equals(lane) || EVENT_RECORDS_LANE.equals(lane)) {
+            laneNode = stage.get(lane);
+          } else {
+            laneNode = stage.path("output").get(lane);
+          }
+          break;
+        }
+      }
+      if (laneNode == null) {
+        throw new PipelineException(ContainerError.CONTAINER_0606, snapshotInfo.getId(), batch, stageInstanceName,
+            lane);
+      }
+      List<Record> records = new ArrayList<>();
+      for (int i = offset; i < laneNode.size() && records.size() < len; i++) {
+        records.add(BeanHelper.unwrapRecord(json.treeToValue(laneNode.get(i), RecordJson.class)));
+      }
+      return new SnapshotRecords(offset, laneNode.size(), records);
+    } catch (IOException ex) {
+      throw new PipelineRuntimeException(ContainerError.CONTAINER_0600, snapshotInfo.getId(), snapshotInfo.getName(),
+          snapshotInfo.getRev(), ex.toString(), ex);
+    }
+  }
+
   @Override
   public void close() throws IOException {
     snapshotInfo = null;
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.snapshot.common;
+
+import com.streamsets.pipeline.api.Record;
+
+import java.util.List;
+
+/**
+ * A page of the records captured in a snapshot for a single stage lane.
+ */
+public class SnapshotRecords {
+  private final int offset;
+  private final int totalCount;
+  private final List<Record> records;
+
+  public SnapshotRecords(int offset, int totalCount, List<Record> records) {
+    this.offset = offset;
+    this.totalCount = totalCount;
+    this.records = records;
+  }
+
+  public int getOffset() {
+    return offset;
+  }
+
+  public int getTotalCount() {
+    return totalCount;
+  }
+
+  public List<Record> getRecords() {
+    return records;
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.snapshot.file;
+
+import com.streamsets.datacollector.execution.Snapshot;
+import com.streamsets.datacollector.execution.SnapshotInfo;
+import com.streamsets.datacollector.execution.snapshot.common.SnapshotRecords;
+import com.streamsets.datacollector.runner.PipelineRuntimeException;
+import com.streamsets.datacollector.util.ContainerError;
+import com.streamsets.datacollector.util.PipelineException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Snapshot stored as a Kryo records file plus index. The JSON representation is only generated when the whole
+ * snapshot is requested, and it is discarded when the snapshot is closed.
+ */
+class FileSnapshot implements Snapshot {
+  private final FileSnapshotStore store;
+  private SnapshotInfo snapshotInfo;
+  private final List<InputStream> outputs = new ArrayList<>();
+
+  FileSnapshot(FileSnapshotStore store, SnapshotInfo snapshotInfo) {
+    this.store = store;
+    this.snapshotInfo = snapshotInfo;
+  }
+
+  @Override
+  public SnapshotInfo getInfo() {
+    return snapshotInfo;
+  }
+
+  @Override
+  public InputStream getOutput() throws PipelineException {
+    if (snapshotInfo == null) {
+      return null;
+    }
+    try {
+      InputStream output = store.openJsonData(snapshotInfo);
+      outputs.add(output);
+      return output;
+    } catch (IOException ex) {
+      throw new PipelineRuntimeException(ContainerError.CONTAINER_0600, snapshotInfo.getId(), snapshotInfo.getName(),
+          snapshotInfo.getRev(), ex.toString(), ex);
+    }
+  }
+
+  @Override
+  public SnapshotRecords getRecords(int batch, String stageInstanceName, String lane, int offset, int len)
+      throws PipelineException {
+    if (snapshotInfo == null) {
+      return null;
+    }
+    return store.getRecords(snapshotInfo, batch, stageInstanceName, lane, offset, len);
+  }
+
+  @Override
+  public void close() throws IOException {
+    snapshotInfo = null;
+    for (InputStream output : outputs) {
+      output.close();
+    }
+    outputs.clear();
+  }
+}
@@ -15,17 +15,23 @@
  */
 package com.streamsets.datacollector.execution.snapshot.file;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.streamsets.datacollector.execution.Snapshot;
 import com.streamsets.datacollector.execution.SnapshotInfo;
 import com.streamsets.datacollector.execution.SnapshotStore;
-import com.streamsets.datacollector.execution.snapshot.common.SnapshotData;
 import com.streamsets.datacollector.execution.snapshot.common.SnapshotImpl;
 import com.streamsets.datacollector.execution.snapshot.common.SnapshotInfoImpl;
+import com.streamsets.datacollector.execution.snapshot.common.SnapshotRecords;
 import com.streamsets.datacollector.io.DataStore;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
-import com.streamsets.datacollector.restapi.bean.SnapshotDataJson;
+import com.streamsets.datacollector.record.io.KryoRecordReader;
+import com.streamsets.datacollector.record.io.KryoRecordWriter;
+import com.streamsets.datacollector.restapi.bean.BeanHelper;
+import com.streamsets.datacollector.restapi.bean.ErrorMessageJson;
 import com.streamsets.datacollector.restapi.bean.SnapshotInfoJson;
 import com.streamsets.datacollector.runner.PipelineRuntimeException;
 import com.streamsets.datacollector.runner.StageOutput;
@@ -34,21 +40,34 @@ import com.streamsets.datacollector.util.ContainerError;
 import com.streamsets.datacollector.util.LockCache;
 import com.streamsets.datacollector.util.PipelineDirectoryUtil;
 import com.streamsets.datacollector.util.PipelineException;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.impl.ErrorMessage;
 
 import javax.inject.Inject;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Stores the captured records of a snapshot as a Kryo records file, written stage output by stage output, plus an
+ * index of the records segments. Pages of a stage lane are read straight from the records file; the JSON
+ * representation of the whole snapshot is generated on first request. Snapshots saved by previous versions, which
+ * only have the JSON file, are still served from it.
+ */
 public class FileSnapshotStore implements SnapshotStore {
   private static final String SNAPSHOT_FILE_NAME = "snapshot.json";
+  private static final String RECORDS_FILE_NAME = "snapshot.kryo";
+  private static final String INDEX_FILE_NAME = "snapshot-index.json";
   private static final String INFO_FILE_NAME = "info.json";
   private final LockCache<String> lockCache;
   private final RuntimeInfo runtimeInfo;
@@ -128,6 +147,9 @@ public class FileSnapshotStore implements SnapshotStore {
   public Snapshot get(String name, String rev, String id) throws PipelineException {
     synchronized (lockCache.getLock(name)) {
       SnapshotInfo info = getInfo(name, rev, id);
+      if (info != null && getPipelineSnapshotIndexFile(name, rev, id).exists()) {
+        return new FileSnapshot(this, info);
+      }
       File data = getData(name, rev, id);
       return new SnapshotImpl(info, data);
     }
@@ -204,6 +226,14 @@ public class FileSnapshotStore implements SnapshotStore {
       SNAPSHOT_FILE_NAME);
   }
 
+  private File getPipelineSnapshotRecordsFile(String name, String rev, String id) {
+    return new File(PipelineDirectoryUtil.getPipelineSnapshotDir(runtimeInfo, name, rev, id), RECORDS_FILE_NAME);
+  }
+
+  private File getPipelineSnapshotIndexFile(String name, String rev, String id) {
+    return new File(PipelineDirectoryUtil.getPipelineSnapshotDir(runtimeInfo, name, rev, id), INDEX_FILE_NAME);
+  }
+
   private File getPipelineSnapshotInfoFile(String name, String rev, String id) {
     return new File(PipelineDirectoryUtil.getPipelineSnapshotDir(runtimeInfo, name, rev, id),
       INFO_FILE_NAME);
@@ -225,15 +255,190 @@ public class FileSnapshotStore implements SnapshotStore {
 
   private void persistSnapshot(String name, String rev, String id, List<List<StageOutput>> snapshotBatches)
     throws PipelineRuntimeException {
-    DataStore dataStore = new DataStore(getPipelineSnapshotFile(name, rev, id));
-    try (OutputStream out = dataStore.getOutputStream()) {
-      json.writeValue(out, new SnapshotDataJson(new SnapshotData(snapshotBatches)));
-      dataStore.commit(out);
+    SnapshotIndex index = new SnapshotIndex();
+    DataStore recordsStore = new DataStore(getPipelineSnapshotRecordsFile(name, rev, id));
+    try (OutputStream out = recordsStore.getOutputStream()) {
+      KryoRecordWriter writer = new KryoRecordWriter(out);
+      for (List<StageOutput> stageOutputs : snapshotBatches) {
+        List<SnapshotIndex.StageEntry> stages = new ArrayList<>(stageOutputs.size());
+        for (StageOutput stageOutput : stageOutputs) {
+          stages.add(writeStageOutput(writer, stageOutput));
+        }
+        index.batches.add(stages);
+      }
+      writer.flush();
+      recordsStore.commit(out);
     } catch (IOException e) {
       throw new PipelineRuntimeException(ContainerError.CONTAINER_0603, id, name, rev, e.toString(), e);
     } finally {
-      dataStore.release();
+      recordsStore.release();
+    }
+
+    DataStore indexStore = new DataStore(getPipelineSnapshotIndexFile(name, rev, id));
+    try (OutputStream out = indexStore.getOutputStream()) {
+      json.writeValue(out, index);
+      indexStore.commit(out);
+    } catch (IOException e) {
+      throw new PipelineRuntimeException(ContainerError.CONTAINER_0603, id, name, rev, e.toString(), e);
+    } finally {
+      indexStore.release();
+    }
+
+    // the JSON representation of a previous save, if any, is stale now
+    try {
+      new DataStore(getPipelineSnapshotFile(name, rev, id)).delete();
+    } catch (IOException e) {
+      throw new PipelineRuntimeException(ContainerError.CONTAINER_0603, id, name, rev, e.toString(), e);
+    }
+  }
+
+  private SnapshotIndex.StageEntry writeStageOutput(KryoRecordWriter writer, StageOutput stageOutput)
+      throws IOException {
+    SnapshotIndex.StageEntry stage = new SnapshotIndex.StageEntry();
+    stage.instanceName = stageOutput.getInstanceName();
+    if (stageOutput.getOutput() != null) {
+      for (Map.Entry<String, List<Record>> entry : stageOutput.getOutput().entrySet()) {
+        stage.output.put(entry.getKey(), SnapshotIndex.Segment.write(writer, entry.getValue()));
+      }
+    }
+    stage.errorRecords = SnapshotIndex.Segment.write(writer, stageOutput.getErrorRecords());
+    stage.eventRecords = SnapshotIndex.Segment.write(writer, stageOutput.getEventRecords());
+    if (stageOutput.getStageErrors() != null) {
+      stage.stageErrors = new ArrayList<>(stageOutput.getStageErrors().size());
+      for (ErrorMessage errorMessage : stageOutput.getStageErrors()) {
+        stage.stageErrors.add(json.valueToTree(new ErrorMessageJson(errorMessage)));
+      }
+    }
+    return stage;
+  }
+
+  private SnapshotIndex readIndex(SnapshotInfo info) throws IOException {
+    DataStore indexStore = new DataStore(getPipelineSnapshotIndexFile(info.getName(), info.getRev(), info.getId()));
+    try (InputStream in = indexStore.getInputStream()) {
+      return json.readValue(in, SnapshotIndex.class);
+    }
+  }
+
+  SnapshotRecords getRecords(SnapshotInfo info, int batch, String stageInstanceName, String lane, int offset, int len)
+      throws PipelineException {
+    synchronized (lockCache.getLock(info.getName())) {
+      try {
+        SnapshotIndex index = readIndex(info);
+        SnapshotIndex.StageEntry stage = index.getStage(batch, stageInstanceName);
+        if (stage == null || !(stage.output.containsKey(lane) || Snapshot.ERROR_RECORDS_LANE.equals(lane) ||
+            Snapshot.EVENT_RECORDS_LANE.equals(lane))) {
+          throw new PipelineException(ContainerError.CONTAINER_0606, info.getId(), batch, stageInstanceName, lane);
+        }
+        SnapshotIndex.Segment segment;
+        if (Snapshot.ERROR_RECORDS_LANE.equals(lane)) {
+          segment = stage.errorRecords;
+        } else if (Snapshot.EVENT_RECORDS_LANE.equals(lane)) {
+          segment = stage.eventRecords;
+        } else {
+          segment = stage.output.get(lane);
+        }
+        int count = (segment == null) ? 0 : segment.count;
+        int first = Math.max(offset, 0);
+        List<Record> records = new ArrayList<>();
+        if (first < count && len > 0) {
+          int checkpoint = first / SnapshotIndex.CHECKPOINT_INTERVAL;
+          File recordsFile = getPipelineSnapshotRecordsFile(info.getName(), info.getRev(), info.getId());
+          try (InputStream in = new FileInputStream(recordsFile)) {
+            KryoRecordReader reader = new KryoRecordReader(in, segment.checkpoints.get(checkpoint));
+            for (int i = checkpoint * SnapshotIndex.CHECKPOINT_INTERVAL; i < first; i++) {
+              reader.readRecord();
+            }
+            for (int i = first; i < count && records.size() < len; i++) {
+              records.add(reader.readRecord());
+            }
+          }
+        }
+        return new SnapshotRecords(first, count, records);
+      } catch (IOException e) {
+        throw new PipelineRuntimeException(ContainerError.CONTAINER_0600, info.getId(), info.getName(), info.getRev(),
+            e.toString(), e);
+      }
+    }
+  }
+
+  /**
+   * Returns the JSON representation of the snapshot, generated from the records file into a temporary file that is
+   * deleted once the returned stream is closed. It is not kept next to the records file: it can be several times
+   * larger and the records file remains the only copy of the snapshot.
+   */
+  InputStream openJsonData(SnapshotInfo info) throws IOException {
+    synchronized (lockCache.getLock(info.getName())) {
+      SnapshotIndex index = readIndex(info);
+      File recordsFile = getPipelineSnapshotRecordsFile(info.getName(), info.getRev(), info.getId());
+      File jsonFile = Files.createTempFile("sdc-snapshot-", ".json").toFile();
+      // records are flushed by the generator once they are all written, not after each one of them
+      ObjectWriter writer = json.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+      try (
+          OutputStream out = new FileOutputStream(jsonFile);
+          InputStream in = new FileInputStream(recordsFile)
+      ) {
+        KryoRecordReader reader = new KryoRecordReader(in, 0);
+        JsonGenerator generator = json.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("snapshotBatches");
+        for (List<SnapshotIndex.StageEntry> stages : index.batches) {
+          generator.writeStartArray();
+          for (SnapshotIndex.StageEntry stage : stages) {
+            generator.writeStartObject();
+            generator.writeStringField("instanceName", stage.instanceName);
+            generator.writeObjectFieldStart("output");
+            for (Map.Entry<String, SnapshotIndex.Segment> entry : stage.output.entrySet()) {
+              generator.writeFieldName(entry.getKey());
+              writeJsonRecords(generator, writer, reader, entry.getValue());
+            }
+            generator.writeEndObject();
+            generator.writeFieldName("errorRecords");
+            writeJsonRecords(generator, writer, reader, stage.errorRecords);
+            generator.writeFieldName("stageErrors");
+            writer.writeValue(generator, stage.stageErrors);
+            generator.writeFieldName("eventRecords");
+            writeJsonRecords(generator, writer, reader, stage.eventRecords);
+            generator.writeEndObject();
+          }
+          generator.writeEndArray();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.close();
+      } catch (IOException | RuntimeException e) {
+        Files.deleteIfExists(jsonFile.toPath());
+        throw e;
+      }
+      return new FileInputStream(jsonFile) {
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            Files.deleteIfExists(jsonFile.toPath());
+          }
+        }
+      };
+    }
+  }
+
+  // segments are read in the same order they were written, so a single sequential reader serves the whole snapshot
+  private void writeJsonRecords(
+      JsonGenerator generator,
+      ObjectWriter writer,
+      KryoRecordReader reader,
+      SnapshotIndex.Segment segment
+  ) throws IOException {
+    if (segment == null) {
+      generator.writeNull();
+      return;
+    }
+    generator.writeStartArray();
+    for (int i = 0; i < segment.count; i++) {
+      writer.writeValue(generator, BeanHelper.wrapRecord(reader.readRecord()));
     }
+    generator.writeEndArray();
   }
 
 }
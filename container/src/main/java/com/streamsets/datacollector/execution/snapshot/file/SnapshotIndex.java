@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.snapshot.file;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.streamsets.datacollector.record.io.KryoRecordWriter;
+import com.streamsets.pipeline.api.Record;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of a snapshot records file. The records of every captured batch are written stage by stage, each lane as a
+ * contiguous segment of Kryo encoded records, in the order output lanes, error records, event records.
+ */
+class SnapshotIndex {
+  // a segment keeps the byte position of every CHECKPOINT_INTERVAL-th record so pages can be read without decoding
+  // the records that precede them in the segment
+  static final int CHECKPOINT_INTERVAL = 100;
+
+  public List<List<StageEntry>> batches = new ArrayList<>();
+
+  StageEntry getStage(int batch, String instanceName) {
+    if (batch >= 0 && batch < batches.size()) {
+      for (StageEntry stage : batches.get(batch)) {
+        if (stage.instanceName.equals(instanceName)) {
+          return stage;
+        }
+      }
+    }
+    return null;
+  }
+
+  static class StageEntry {
+    public String instanceName;
+    public Map<String, Segment> output = new LinkedHashMap<>();
+    public Segment errorRecords;
+    public Segment eventRecords;
+    public List<JsonNode> stageErrors;
+  }
+
+  static class Segment {
+    public int count;
+    public List<Long> checkpoints = new ArrayList<>();
+
+    static Segment write(KryoRecordWriter writer, List<Record> records) throws IOException {
+      if (records == null) {
+        return null;
+      }
+      Segment segment = new Segment();
+      for (Record record : records) {
+        if (segment.count % CHECKPOINT_INTERVAL == 0) {
+          segment.checkpoints.add(writer.getPosition());
+        }
+        writer.write(record);
+        segment.count++;
+      }
+      return segment;
+    }
+  }
+}
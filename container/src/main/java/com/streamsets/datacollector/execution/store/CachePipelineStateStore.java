@@ -69,6 +69,11 @@ public class CachePipelineStateStore implements PipelineStateStore {
     pipelineStateStore.init();
   }
 
+  @Override
+  public void addStateChangeListener(StateChangeListener listener) {
+    pipelineStateStore.addStateChangeListener(listener);
+  }
+
   @Override
   public void destroy() {
     pipelineStateCache.invalidateAll();
@@ -54,6 +54,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class FilePipelineStateStore implements PipelineStateStore {
   private final RuntimeInfo runtimeInfo;
@@ -62,6 +63,7 @@ public class FilePipelineStateStore implements PipelineStateStore {
   public static final String STATE_FILE_HISTORY = "pipelineStateHistory.json";
   public static final String STATE = "state";
   private static final Logger LOG = LoggerFactory.getLogger(FilePipelineStateStore.class);
+  private final List<StateChangeListener> stateChangeListeners = new CopyOnWriteArrayList<>();
 
   @Inject
   public FilePipelineStateStore(RuntimeInfo runtimeInfo, Configuration conf) {
@@ -73,6 +75,11 @@ public class FilePipelineStateStore implements PipelineStateStore {
     }
   }
 
+  @Override
+  public void addStateChangeListener(StateChangeListener listener) {
+    stateChangeListeners.add(listener);
+  }
+
   @Override
   public void init() {
   }
@@ -113,6 +120,7 @@ public class FilePipelineStateStore implements PipelineStateStore {
   public void delete(String name, String rev) {
     File pipelineStateFile = getPipelineStateFile(name, rev);
     FileUtils.deleteQuietly(pipelineStateFile);
+    notifyStateChange(name, rev, null);
   }
 
   @Override
@@ -224,6 +232,17 @@ public class FilePipelineStateStore implements PipelineStateStore {
     // In addition, append the state of the pipeline to the pipelineState.json present in the directory of that
     // pipeline
     LogUtil.log(pipelineState.getPipelineId(), pipelineState.getRev(), STATE, pipelineString);
+    notifyStateChange(pipelineState.getPipelineId(), pipelineState.getRev(), pipelineState);
+  }
+
+  private void notifyStateChange(String name, String rev, PipelineState pipelineState) {
+    for (StateChangeListener listener : stateChangeListeners) {
+      try {
+        listener.onStateChange(name, rev, pipelineState);
+      } catch (RuntimeException ex) {
+        LOG.warn("State change listener failed for pipeline '{}::{}': {}", name, rev, ex.toString(), ex);
+      }
+    }
   }
 
   private File[] getHistoryStateFiles(String pipelineName, String rev) {
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.http;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.streamsets.datacollector.metrics.MetricsConfigurator;
+import com.streamsets.datacollector.util.Configuration;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.filter.CsrfProtectionFilter;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+import javax.ws.rs.client.WebTarget;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP client shared by the internal calls of the data collector, Control Hub events and metrics, so that they reuse
+ * persistent connections instead of creating a client, and connecting, for every pipeline or every call.
+ * <p/>
+ * The client uses the JDK connector, connections are kept alive and pooled per host by the JDK, up to the
+ * <code>http.maxConnections</code> system property (5 by default) idle connections per host. Responses must be
+ * closed for their connection to return to the pool.
+ * <p/>
+ * Request counts and times are exposed in the <code>http-client.shared</code> runtime gauge, available via JMX.
+ * Requests without a response are either in flight or failed to connect.
+ */
+public class SharedHttpClient {
+
+  public static final String CONNECT_TIMEOUT_KEY = "http.client.connect.timeout.ms";
+  public static final int CONNECT_TIMEOUT_DEFAULT = 10000;
+  public static final String READ_TIMEOUT_KEY = "http.client.read.timeout.ms";
+  public static final int READ_TIMEOUT_DEFAULT = 10000;
+
+  static final String KEY_REQUESTS = "requests";
+  static final String KEY_RESPONSES = "responses";
+  static final String KEY_ERROR_RESPONSES = "errorResponses";
+  static final String KEY_RESPONSE_TIME = "totalResponseTimeMs";
+  static final String KEY_MAX_IDLE_CONNECTIONS = "maxIdleConnectionsPerHost";
+
+  private static final String START_TIME_PROPERTY = SharedHttpClient.class.getName() + ".startTime";
+
+  private static SharedHttpClient instance;
+
+  private final Client client;
+  private final Map<String, Object> gaugeMap;
+
+  private SharedHttpClient(MetricRegistry metrics, Configuration conf) {
+    gaugeMap = MetricsConfigurator.createFrameworkGauge(metrics, "http-client.shared", "runtime", null).getValue();
+    gaugeMap.put(KEY_REQUESTS, new AtomicLong());
+    gaugeMap.put(KEY_RESPONSES, new AtomicLong());
+    gaugeMap.put(KEY_ERROR_RESPONSES, new AtomicLong());
+    gaugeMap.put(KEY_RESPONSE_TIME, new AtomicLong());
+    gaugeMap.put(KEY_MAX_IDLE_CONNECTIONS, Integer.getInteger("http.maxConnections", 5));
+
+    ClientConfig clientConfig = new ClientConfig()
+        .property(ClientProperties.CONNECT_TIMEOUT, conf.get(CONNECT_TIMEOUT_KEY, CONNECT_TIMEOUT_DEFAULT))
+        .property(ClientProperties.READ_TIMEOUT, conf.get(READ_TIMEOUT_KEY, READ_TIMEOUT_DEFAULT));
+    client = ClientBuilder.newClient(clientConfig);
+    client.register(new CsrfProtectionFilter("CSRF"));
+    client.register(new MetricsFilter());
+  }
+
+  /**
+   * Returns the shared HTTP client, creating it on first use.
+   *
+   * @param metrics runtime metric registry to register the client gauge in.
+   * @param conf data collector configuration, for the client timeouts.
+   * @return the shared HTTP client.
+   */
+  public static synchronized SharedHttpClient get(MetricRegistry metrics, Configuration conf) {
+    if (instance == null) {
+      instance = new SharedHttpClient(metrics, conf);
+    }
+    return instance;
+  }
+
+  @VisibleForTesting
+  static synchronized void reset() {
+    if (instance != null) {
+      instance.client.close();
+      instance = null;
+    }
+  }
+
+  /**
+   * Returns the underlying JAX-RS client. It must not be closed, and per call configuration, like compression, must
+   * be registered in the {@link WebTarget} instead of the client.
+   */
+  public Client getClient() {
+    return client;
+  }
+
+  public WebTarget target(String url) {
+    return client.target(url);
+  }
+
+  @VisibleForTesting
+  Map<String, Object> getGaugeMap() {
+    return gaugeMap;
+  }
+
+  private class MetricsFilter implements ClientRequestFilter, ClientResponseFilter {
+
+    @Override
+    public void filter(ClientRequestContext requestContext) {
+      ((AtomicLong) gaugeMap.get(KEY_REQUESTS)).incrementAndGet();
+      requestContext.setProperty(START_TIME_PROPERTY, System.currentTimeMillis());
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) {
+      ((AtomicLong) gaugeMap.get(KEY_RESPONSES)).incrementAndGet();
+      if (responseContext.getStatus() >= 400) {
+        ((AtomicLong) gaugeMap.get(KEY_ERROR_RESPONSES)).incrementAndGet();
+      }
+      Object startTime = requestContext.getProperty(START_TIME_PROPERTY);
+      if (startTime != null) {
+        ((AtomicLong) gaugeMap.get(KEY_RESPONSE_TIME)).addAndGet(System.currentTimeMillis() - (Long) startTime);
+      }
+    }
+  }
+
+}
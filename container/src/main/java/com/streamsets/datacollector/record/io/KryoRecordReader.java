@@ -32,6 +32,7 @@ public class KryoRecordReader implements RecordReader {
 
   public KryoRecordReader(InputStream inputStream, long initialPosition) throws IOException {
     kryo = new Kryo();
+    ZonedDateTimeSerializer.register(kryo);
     IOUtils.skipFully(inputStream, initialPosition);
     input = new Input(inputStream);
     input.setTotal(initialPosition);
@@ -31,6 +31,7 @@ public class KryoRecordWriter implements RecordWriter {
 
   public KryoRecordWriter(OutputStream outputStream) throws IOException {
     kryo = new Kryo();
+    ZonedDateTimeSerializer.register(kryo);
     output = new Output(outputStream);
   }
 
@@ -39,6 +40,13 @@ public class KryoRecordWriter implements RecordWriter {
     return RecordEncoding.KRYO1.name();
   }
 
+  /**
+   * Returns the number of bytes written so far, including those still buffered.
+   */
+  public long getPosition() {
+    return output.total();
+  }
+
   @Override
   public void write(Record record) throws IOException {
     if (closed) {
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.record.io;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Kryo 3 has no serializer for java.time types and its field serializer cannot rebuild them, so ZONED_DATETIME
+ * field values are written as their ISO-8601 representation, which keeps the zone id.
+ */
+class ZonedDateTimeSerializer extends Serializer<ZonedDateTime> {
+
+  static void register(Kryo kryo) {
+    kryo.addDefaultSerializer(ZonedDateTime.class, new ZonedDateTimeSerializer());
+  }
+
+  ZonedDateTimeSerializer() {
+    setImmutable(true);
+  }
+
+  @Override
+  public void write(Kryo kryo, Output output, ZonedDateTime dateTime) {
+    output.writeString(dateTime.format(DateTimeFormatter.ISO_ZONED_DATE_TIME));
+  }
+
+  @Override
+  public ZonedDateTime read(Kryo kryo, Input input, Class<ZonedDateTime> type) {
+    return ZonedDateTime.parse(input.readString(), DateTimeFormatter.ISO_ZONED_DATE_TIME);
+  }
+}
@@ -16,7 +16,6 @@
 package com.streamsets.datacollector.restapi;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.BaseEncoding;
@@ -35,10 +34,8 @@ import com.streamsets.datacollector.config.StageDefinition;
 import com.streamsets.datacollector.creation.PipelineBeanCreator;
 import com.streamsets.datacollector.creation.PipelineConfigBean;
 import com.streamsets.datacollector.creation.RuleDefinitionsConfigBean;
-import com.streamsets.datacollector.event.handler.remote.RemoteDataCollector;
 import com.streamsets.datacollector.execution.Manager;
 import com.streamsets.datacollector.execution.PipelineState;
-import com.streamsets.datacollector.execution.PipelineStatus;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.main.UserGroupManager;
@@ -61,6 +58,7 @@ import com.streamsets.datacollector.restapi.bean.StageDefinitionJson;
 import com.streamsets.datacollector.restapi.bean.UserJson;
 import com.streamsets.datacollector.stagelibrary.StageLibraryTask;
 import com.streamsets.datacollector.store.AclStoreTask;
+import com.streamsets.datacollector.store.PipelineCatalog;
 import com.streamsets.datacollector.store.PipelineInfo;
 import com.streamsets.datacollector.store.PipelineStoreException;
 import com.streamsets.datacollector.store.PipelineStoreTask;
@@ -113,7 +111,6 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.Principal;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -158,22 +155,21 @@ public class PipelineStoreResource {
   private static final String MEMORY_LIMIt_METRIC_ID = "pipeline.memoryConsumed.counter";
   private static final String MEMORY_LIMIt_CONDITION = "${value() > (jvm:maxMemoryMB() * 0.65)}";
 
-  private static final String DPM_PIPELINE_ID = "dpm.pipeline.id";
 
   private static final String DATA_COLLECTOR_EDGE = "DATA_COLLECTOR_EDGE";
   private static final String MICROSERVICE = "MICROSERVICE";
 
-  private static final String SYSTEM_ALL_PIPELINES = "system:allPipelines";
-  private static final String SYSTEM_EDGE_PIPELINES = "system:edgePipelines";
-  private static final String SYSTEM_MICROSERVICE_PIPELINES = "system:microServicePipelines";
-  private static final String SYSTEM_PUBLISHED_PIPELINES = "system:publishedPipelines";
-  private static final String SYSTEM_DPM_CONTROLLED_PIPELINES = "system:dpmControlledPipelines";
-  private static final String SYSTEM_LOCAL_PIPELINES = "system:localPipelines";
-  private static final String SYSTEM_RUNNING_PIPELINES = "system:runningPipelines";
-  private static final String SYSTEM_NON_RUNNING_PIPELINES = "system:nonRunningPipelines";
-  private static final String SYSTEM_INVALID_PIPELINES = "system:invalidPipelines";
-  private static final String SYSTEM_ERROR_PIPELINES = "system:errorPipelines";
-  private static final String SHARED_WITH_ME_PIPELINES = "system:sharedWithMePipelines";
+  private static final String SYSTEM_ALL_PIPELINES = PipelineCatalog.SYSTEM_ALL_PIPELINES;
+  private static final String SYSTEM_EDGE_PIPELINES = PipelineCatalog.SYSTEM_EDGE_PIPELINES;
+  private static final String SYSTEM_MICROSERVICE_PIPELINES = PipelineCatalog.SYSTEM_MICROSERVICE_PIPELINES;
+  private static final String SYSTEM_PUBLISHED_PIPELINES = PipelineCatalog.SYSTEM_PUBLISHED_PIPELINES;
+  private static final String SYSTEM_DPM_CONTROLLED_PIPELINES = PipelineCatalog.SYSTEM_DPM_CONTROLLED_PIPELINES;
+  private static final String SYSTEM_LOCAL_PIPELINES = PipelineCatalog.SYSTEM_LOCAL_PIPELINES;
+  private static final String SYSTEM_RUNNING_PIPELINES = PipelineCatalog.SYSTEM_RUNNING_PIPELINES;
+  private static final String SYSTEM_NON_RUNNING_PIPELINES = PipelineCatalog.SYSTEM_NON_RUNNING_PIPELINES;
+  private static final String SYSTEM_INVALID_PIPELINES = PipelineCatalog.SYSTEM_INVALID_PIPELINES;
+  private static final String SYSTEM_ERROR_PIPELINES = PipelineCatalog.SYSTEM_ERROR_PIPELINES;
+  private static final String SHARED_WITH_ME_PIPELINES = PipelineCatalog.SHARED_WITH_ME_PIPELINES;
 
   public static final String SAMPLE_MICROSERVICE_PIPELINE = "sampleMicroservicePipeline.json";
 
@@ -305,176 +301,50 @@ public class PipelineStoreResource {
       @QueryParam("len") @DefaultValue("-1") int len,
       @QueryParam("orderBy") @DefaultValue("NAME") final PipelineOrderByFields orderBy,
       @QueryParam("order") @DefaultValue("ASC") final Order order,
-      @QueryParam("includeStatus") @DefaultValue("false") boolean includeStatus
+      @QueryParam("includeStatus") @DefaultValue("false") boolean includeStatus,
+      @QueryParam("cursor") final String cursor
   ) throws PipelineException {
     RestAPIUtils.injectPipelineInMDC("*");
 
-    final List<PipelineInfo> pipelineInfoList = store.getPipelines();
-    final Map<String, PipelineState> pipelineStateCache = new HashMap<>();
-
-    Collection<PipelineInfo> filteredCollection = Collections2.filter(pipelineInfoList, pipelineInfo -> {
-      String title = pipelineInfo.getTitle() != null ? pipelineInfo.getTitle() : pipelineInfo.getPipelineId();
-      if (filterText != null && !title.toLowerCase().contains(filterText.toLowerCase())) {
-        return false;
-      }
-      if (label != null) {
-        try {
-          Map<String, Object> metadata = pipelineInfo.getMetadata();
-          switch (label) {
-            case SYSTEM_ALL_PIPELINES:
-              return true;
-            case SYSTEM_EDGE_PIPELINES:
-              PipelineState state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
-              pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
-              return state.getExecutionMode().equals(ExecutionMode.EDGE);
-            case SYSTEM_MICROSERVICE_PIPELINES:
-              return metadata != null && metadata.containsKey(MICROSERVICE);
-            case SYSTEM_RUNNING_PIPELINES:
-              state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
-              pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
-              return state.getStatus().isActive();
-            case SYSTEM_NON_RUNNING_PIPELINES:
-              state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
-              pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
-              return !state.getStatus().isActive();
-            case SYSTEM_INVALID_PIPELINES:
-              return !pipelineInfo.isValid();
-            case SYSTEM_ERROR_PIPELINES:
-              state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
-              pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
-              PipelineStatus status = state.getStatus();
-              return status == PipelineStatus.START_ERROR ||
-                  status == PipelineStatus.RUNNING_ERROR ||
-                  status == PipelineStatus.RUN_ERROR ||
-                  status == PipelineStatus.CONNECT_ERROR;
-            case SYSTEM_PUBLISHED_PIPELINES:
-              state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
-              pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
-              return !isRemotePipeline(state) && metadata != null && metadata.containsKey(DPM_PIPELINE_ID);
-            case SYSTEM_DPM_CONTROLLED_PIPELINES:
-              state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
-              pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
-              return isRemotePipeline(state);
-            case SYSTEM_LOCAL_PIPELINES:
-              return metadata == null || !metadata.containsKey(DPM_PIPELINE_ID);
-            case SHARED_WITH_ME_PIPELINES:
-              return !pipelineInfo.getCreator().equals(user);
-            default:
-              if (metadata != null && metadata.containsKey("labels")) {
-                List<String> labels = (List<String>) metadata.get("labels");
-                if (!labels.contains(label)) {
-                  return false;
-                }
-              } else {
-                return false;
-              }
-          }
-        } catch (PipelineException e) {
-          e.printStackTrace();
-        }
-      }
-      return true;
-    });
-
-    List<PipelineInfo> filteredList = new ArrayList<>(filteredCollection);
-
-    filteredList.sort((p1, p2) -> {
-      if (order.equals(Order.DESC)) {
-        PipelineInfo tmp = p1;
-        p1 = p2;
-        p2 = tmp;
-      }
-
-      if (orderBy.equals(PipelineOrderByFields.NAME)) {
-        return p1.getPipelineId().compareTo(p2.getPipelineId());
-      }
-
-      if (orderBy.equals(PipelineOrderByFields.TITLE)) {
-        String p1Title = p1.getTitle() != null ? p1.getTitle() : p1.getPipelineId();
-        String p2Title = p2.getTitle() != null ? p2.getTitle() : p2.getPipelineId();
-        return p1Title.compareTo(p2Title);
-      }
-
-      if (orderBy.equals(PipelineOrderByFields.LAST_MODIFIED)) {
-        return p2.getLastModified().compareTo(p1.getLastModified());
-      }
-
-      if (orderBy.equals(PipelineOrderByFields.CREATED)) {
-        return p2.getCreated().compareTo(p1.getCreated());
-      }
-
-      if (orderBy.equals(PipelineOrderByFields.CREATOR)) {
-        return p1.getCreator().compareTo(p2.getCreator());
-      }
-
-      if (orderBy.equals(PipelineOrderByFields.STATUS)) {
-        try {
-          PipelineState p1State = null;
-          PipelineState p2State = null;
-
-          if (pipelineStateCache.containsKey(p1.getPipelineId())) {
-            p1State = pipelineStateCache.get(p1.getPipelineId());
-          } else {
-            p1State = manager.getPipelineState(p1.getPipelineId(), p1.getLastRev());
-            pipelineStateCache.put(p1.getPipelineId(), p1State);
-          }
-
-          if (pipelineStateCache.containsKey(p2.getPipelineId())) {
-            p2State = pipelineStateCache.get(p2.getPipelineId());
-          } else {
-            p2State = manager.getPipelineState(p2.getPipelineId(), p2.getLastRev());
-            pipelineStateCache.put(p2.getPipelineId(), p2State);
-          }
-
-          if (p1State != null && p2State != null) {
-            return p1State.getStatus().compareTo(p2State.getStatus());
-          }
-
-        } catch (PipelineException e) {
-          LOG.debug("Failed to get Pipeline State - " + e.getLocalizedMessage());
-        }
-      }
+    PipelineCatalog.Page page = store.queryPipelines(new PipelineCatalog.Query()
+        .filterText(filterText)
+        .label(label)
+        .user(user)
+        .orderBy(orderBy)
+        .order(order)
+        .offset(offset)
+        .len(len)
+        .cursor(cursor)
+    );
 
-      return 0;
-    });
+    List<PipelineInfo> pipelineInfoList = new ArrayList<>(page.getEntries().size());
+    for (PipelineCatalog.Entry entry : page.getEntries()) {
+      pipelineInfoList.add(entry.getInfo());
+    }
+    List<PipelineInfoJson> subList = BeanHelper.wrapPipelineInfo(pipelineInfoList);
 
     Object responseData;
-
-    if (filteredList.size() > 0) {
-      int endIndex = offset + len;
-      if (len == -1 || endIndex > filteredList.size()) {
-        endIndex = filteredList.size();
-      }
-      List<PipelineInfoJson> subList = BeanHelper.wrapPipelineInfo(filteredList.subList(offset, endIndex));
-      if (includeStatus) {
-        List<PipelineStateJson> statusList = new ArrayList<>(subList.size());
-        for (PipelineInfoJson pipelineInfoJson: subList) {
-          PipelineState state = pipelineStateCache.get(pipelineInfoJson.getPipelineId());
-          if (state == null) {
-            state = manager.getPipelineState(pipelineInfoJson.getPipelineId(), pipelineInfoJson.getLastRev());
-          }
-          if(state != null) {
-            statusList.add(BeanHelper.wrapPipelineState(state, true));
-          }
+    if (includeStatus) {
+      List<PipelineStateJson> statusList = new ArrayList<>(subList.size());
+      for (PipelineInfoJson pipelineInfoJson: subList) {
+        PipelineState state = manager.getPipelineState(pipelineInfoJson.getPipelineId(), pipelineInfoJson.getLastRev());
+        if(state != null) {
+          statusList.add(BeanHelper.wrapPipelineState(state, true));
         }
-        responseData = ImmutableList.of(subList, statusList);
-      } else {
-        responseData = subList;
       }
-
+      responseData = ImmutableList.of(subList, statusList);
     } else {
-      if (includeStatus) {
-        responseData = ImmutableList.of(Collections.emptyList(), Collections.emptyList());
-      } else {
-        responseData = Collections.emptyList();
-      }
+      responseData = subList;
     }
 
-    return Response.ok()
+    Response.ResponseBuilder response = Response.ok()
         .type(MediaType.APPLICATION_JSON)
         .entity(responseData)
-        .header("TOTAL_COUNT", filteredList.size())
-        .build();
+        .header("TOTAL_COUNT", page.getTotalCount());
+    if (page.getNextCursor() != null) {
+      response.header("NEXT_CURSOR", page.getNextCursor());
+    }
+    return response.build();
   }
 
   @Path("/pipelines/delete")
@@ -1469,11 +1339,6 @@ public class PipelineStoreResource {
         .entity(new MultiStatusResponseJson<>(successEntities, errorMessages)).build();
   }
 
-  private boolean isRemotePipeline(PipelineState state) {
-    Object isRemote = state.getAttributes().get(RemoteDataCollector.IS_REMOTE_PIPELINE);
-    return isRemote != null && (boolean) isRemote;
-  }
-
   @GET
   @Path("/pipelines/executable")
   @Produces(MediaType.APPLICATION_OCTET_STREAM)
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.restapi.bean;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.streamsets.datacollector.execution.snapshot.common.SnapshotRecords;
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.util.List;
+
+public class SnapshotRecordsJson {
+
+  private final SnapshotRecords snapshotRecords;
+
+  public SnapshotRecordsJson(SnapshotRecords snapshotRecords) {
+    Utils.checkNotNull(snapshotRecords, "snapshotRecords");
+    this.snapshotRecords = snapshotRecords;
+  }
+
+  public int getOffset() {
+    return snapshotRecords.getOffset();
+  }
+
+  public int getTotalCount() {
+    return snapshotRecords.getTotalCount();
+  }
+
+  public List<RecordJson> getRecords() {
+    return BeanHelper.wrapRecords(snapshotRecords.getRecords());
+  }
+
+  @JsonIgnore
+  public SnapshotRecords getSnapshotRecords() {
+    return snapshotRecords;
+  }
+}
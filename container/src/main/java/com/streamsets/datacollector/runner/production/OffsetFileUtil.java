@@ -47,6 +47,10 @@ public class OffsetFileUtil {
   }
 
   public static Map<String, String> saveIfEmpty(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
+    SourceOffset journaled = getJournaledOffset(runtimeInfo, pipelineName, rev);
+    if (journaled != null) {
+      return journaled.getOffsets();
+    }
     File pipelineOffsetFile =  getPipelineOffsetFile(runtimeInfo, pipelineName, rev);
     SourceOffset sourceOffset;
     DataStore ds = new DataStore(pipelineOffsetFile);
@@ -71,27 +75,53 @@ public class OffsetFileUtil {
   public static void saveOffsets(RuntimeInfo runtimeInfo, String pipelineName, String rev, Map<String, String> offset) {
     LOG.debug("Saving offset {} for pipeline {}", offset, pipelineName);
     SourceOffset sourceOffset = new SourceOffset(SourceOffset.CURRENT_VERSION, offset);
-    DataStore dataStore = new DataStore(OffsetFileUtil.getPipelineOffsetFile(runtimeInfo, pipelineName, rev));
-    try (OutputStream os = dataStore.getOutputStream()) {
-      ObjectMapperFactory.get().writeValue(os, BeanHelper.wrapSourceOffset(sourceOffset));
-      dataStore.commit(os);
+    try {
+      save(runtimeInfo, pipelineName, rev, sourceOffset);
     } catch (IOException e) {
       LOG.error("Failed to save offset={}. Reason {}", sourceOffset.getOffsets(), e.toString(), e);
       throw new IllegalStateException(e);
-    } finally {
-      dataStore.release();
     }
   }
   public static void saveSourceOffset(RuntimeInfo runtimeInfo, String pipelineName, String rev, SourceOffset offset) {
     // Assumes that the argument offset confirms to the format on disk. hence just writes it to offset file
     LOG.debug("Saving offset {} for pipeline {}", offset, pipelineName);
-    DataStore dataStore = new DataStore(OffsetFileUtil.getPipelineOffsetFile(runtimeInfo, pipelineName, rev));
-    try (OutputStream os = dataStore.getOutputStream()) {
-      ObjectMapperFactory.get().writeValue(os, offset);
-      dataStore.commit(os);
+    try {
+      save(runtimeInfo, pipelineName, rev, offset);
     } catch (IOException e) {
       LOG.error("Failed to save offset={}. Reason {}", offset, e.toString(), e);
       throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Drops any offset of a deleted pipeline still held by the offset journal.
+   */
+  public static void discardOffsets(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
+    OffsetJournal journal = OffsetJournal.get(runtimeInfo);
+    if (journal != null) {
+      try {
+        journal.discard(pipelineName, rev);
+      } catch (IOException e) {
+        LOG.warn("Failed to discard offset of pipeline {}. Reason {}", pipelineName, e.toString(), e);
+      }
+    }
+  }
+
+  private static void save(RuntimeInfo runtimeInfo, String pipelineName, String rev, SourceOffset offset)
+      throws IOException {
+    OffsetJournal journal = OffsetJournal.get(runtimeInfo);
+    if (journal != null) {
+      journal.append(pipelineName, rev, offset);
+    } else {
+      writeOffsetFile(getPipelineOffsetFile(runtimeInfo, pipelineName, rev), offset);
+    }
+  }
+
+  static void writeOffsetFile(File offsetFile, SourceOffset offset) throws IOException {
+    DataStore dataStore = new DataStore(offsetFile);
+    try (OutputStream os = dataStore.getOutputStream()) {
+      ObjectMapperFactory.get().writeValue(os, BeanHelper.wrapSourceOffset(offset));
+      dataStore.commit(os);
     } finally {
       dataStore.release();
     }
@@ -126,6 +156,10 @@ public class OffsetFileUtil {
   }
 
   public static SourceOffset getOffset(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
+    SourceOffset journaled = getJournaledOffset(runtimeInfo, pipelineName, rev);
+    if (journaled != null) {
+      return journaled;
+    }
     int retries = 0;
     while (retries < MAX_RETRIES) {
       try {
@@ -147,6 +181,14 @@ public class OffsetFileUtil {
     throw new IllegalStateException(Utils.format("Retrieving offset failed for last attempt {}", retries));
   }
 
+  /**
+   * Offsets committed through the offset journal are newer than the offset file until the journal is compacted.
+   */
+  private static SourceOffset getJournaledOffset(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
+    OffsetJournal journal = OffsetJournal.get(runtimeInfo);
+    return journal == null ? null : journal.getLatest(pipelineName, rev);
+  }
+
   private static SourceOffset readSourceOffsetFromDataStore(DataStore ds) throws IOException {
     try (InputStream is = ds.getInputStream()) {
       SourceOffsetJson sourceOffsetJson = ObjectMapperFactory.get().readValue(is, SourceOffsetJson.class);
@@ -0,0 +1,430 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner.production;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.annotations.VisibleForTesting;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import com.streamsets.datacollector.main.RuntimeInfo;
+import com.streamsets.datacollector.restapi.bean.BeanHelper;
+import com.streamsets.datacollector.restapi.bean.SourceOffsetJson;
+import com.streamsets.datacollector.util.Configuration;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of source offsets shared by all pipelines of a data collector.
+ *
+ * Offset commits from all pipelines are queued and written by a single writer thread. The writer appends every
+ * commit it finds in the queue and syncs the journal once for the whole group, so concurrent pipelines share the
+ * cost of a sync rather than each rewriting its own offset file. The journal is periodically compacted by writing
+ * the latest offset of every pipeline to its regular offset file and truncating the journal, so the offset files
+ * stay the source of truth whenever the journal is empty.
+ *
+ * Each journal record is a 4 byte length, an 8 byte CRC32 of the payload and the JSON payload itself. On open,
+ * records are replayed into the offset files up to the first torn or corrupted record.
+ */
+public class OffsetJournal implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(OffsetJournal.class);
+
+  public static final String RUNTIME_INFO_ATTRIBUTE = "offsetJournal";
+
+  public static final String ENABLED_KEY = "offsets.journal.enabled";
+  public static final boolean ENABLED_DEFAULT = false;
+  public static final String COMPACTION_INTERVAL_KEY = "offsets.journal.compaction.interval.ms";
+  public static final long COMPACTION_INTERVAL_DEFAULT = 60 * 1000;
+  public static final String MAX_SIZE_KEY = "offsets.journal.max.size.bytes";
+  public static final long MAX_SIZE_DEFAULT = 16 * 1024 * 1024;
+
+  static final String JOURNAL_FILE = "offsets.journal";
+
+  private static final int RECORD_HEADER_SIZE = 4 + 8;
+  // Upper bound on how long a commit waits for the writer, so that a stuck sync does not hang the pipeline forever
+  private static final long WRITE_TIMEOUT_SECS = 60;
+  private static final String PIPELINE = "pipeline";
+  private static final String REV = "rev";
+  private static final String OFFSET = "offset";
+
+  private static class PendingWrite {
+    final String pipelineName;
+    final String rev;
+    // null for a discarded pipeline
+    final SourceOffset offset;
+    final byte[] payload;
+    final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    PendingWrite(String pipelineName, String rev, SourceOffset offset, byte[] payload) {
+      this.pipelineName = pipelineName;
+      this.rev = rev;
+      this.offset = offset;
+      this.payload = payload;
+    }
+  }
+
+  private final RuntimeInfo runtimeInfo;
+  private final File journalFile;
+  private final long compactionIntervalMillis;
+  private final long maxSize;
+  private final ObjectMapper objectMapper = ObjectMapperFactory.get();
+  private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+  private final Map<String, SourceOffset> latest = new ConcurrentHashMap<>();
+  // Only accessed by the writer thread
+  private final Map<String, PendingWrite> dirty = new HashMap<>();
+  private final Thread writer;
+  private FileChannel channel;
+  private long lastCompaction;
+  private volatile boolean running;
+  // Set once the writer thread has exited, normally or not; guarded by the queue
+  private boolean writerStopped;
+
+  @VisibleForTesting
+  OffsetJournal(RuntimeInfo runtimeInfo, long compactionIntervalMillis, long maxSize) {
+    this.runtimeInfo = runtimeInfo;
+    this.journalFile = new File(runtimeInfo.getDataDir(), JOURNAL_FILE);
+    this.compactionIntervalMillis = compactionIntervalMillis;
+    this.maxSize = maxSize;
+    this.writer = new Thread(this::runWriter, "OffsetJournalWriter");
+    this.writer.setDaemon(true);
+  }
+
+  /**
+   * Opens the journal of the data collector if enabled in the configuration, replaying any records left by a
+   * previous run, and registers it in the runtime info so that {@link OffsetFileUtil} starts using it.
+   *
+   * @return the journal, or null if the journal is disabled
+   */
+  public static OffsetJournal openIfEnabled(RuntimeInfo runtimeInfo, Configuration configuration) throws IOException {
+    if (!configuration.get(ENABLED_KEY, ENABLED_DEFAULT)) {
+      return null;
+    }
+    OffsetJournal journal = new OffsetJournal(
+        runtimeInfo,
+        configuration.get(COMPACTION_INTERVAL_KEY, COMPACTION_INTERVAL_DEFAULT),
+        configuration.get(MAX_SIZE_KEY, MAX_SIZE_DEFAULT)
+    );
+    journal.open();
+    runtimeInfo.setAttribute(RUNTIME_INFO_ATTRIBUTE, journal);
+    return journal;
+  }
+
+  /**
+   * @return the journal registered in the runtime info, or null if offsets are written directly to offset files
+   */
+  static OffsetJournal get(RuntimeInfo runtimeInfo) {
+    return runtimeInfo.getAttribute(RUNTIME_INFO_ATTRIBUTE);
+  }
+
+  @VisibleForTesting
+  void open() throws IOException {
+    channel = FileChannel.open(
+        journalFile.toPath(),
+        StandardOpenOption.CREATE,
+        StandardOpenOption.READ,
+        StandardOpenOption.WRITE
+    );
+    recover();
+    lastCompaction = System.currentTimeMillis();
+    running = true;
+    writer.start();
+    LOG.info("Offset journal '{}' opened", journalFile);
+  }
+
+  private void recover() throws IOException {
+    Map<String, JsonNode> records = new HashMap<>();
+    long position = 0;
+    long size = channel.size();
+    ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+    while (position + RECORD_HEADER_SIZE <= size) {
+      header.clear();
+      channel.read(header, position);
+      header.flip();
+      int length = header.getInt();
+      long checksum = header.getLong();
+      if (length <= 0 || position + RECORD_HEADER_SIZE + length > size) {
+        LOG.warn("Offset journal '{}' has a torn record at position {}, ignoring it", journalFile, position);
+        break;
+      }
+      ByteBuffer payload = ByteBuffer.allocate(length);
+      channel.read(payload, position + RECORD_HEADER_SIZE);
+      CRC32 crc = new CRC32();
+      crc.update(payload.array());
+      if (crc.getValue() != checksum) {
+        LOG.warn("Offset journal '{}' has a corrupted record at position {}, ignoring it", journalFile, position);
+        break;
+      }
+      JsonNode record = objectMapper.readTree(payload.array());
+      records.put(getKey(record.get(PIPELINE).asText(), record.get(REV).asText()), record);
+      position += RECORD_HEADER_SIZE + length;
+    }
+
+    for (JsonNode record : records.values()) {
+      String pipelineName = record.get(PIPELINE).asText();
+      String rev = record.get(REV).asText();
+      JsonNode offset = record.get(OFFSET);
+      if (offset == null || offset.isNull()) {
+        continue;
+      }
+      File offsetFile = OffsetFileUtil.getPipelineOffsetFile(runtimeInfo, pipelineName, rev);
+      if (!offsetFile.getParentFile().exists()) {
+        LOG.debug("Pipeline '{}::{}' no longer exists, not recovering its offset", pipelineName, rev);
+        continue;
+      }
+      SourceOffset sourceOffset = BeanHelper.unwrapSourceOffset(objectMapper.treeToValue(offset, SourceOffsetJson.class));
+      OffsetFileUtil.writeOffsetFile(offsetFile, sourceOffset);
+      LOG.info("Recovered offset of pipeline '{}::{}' from offset journal", pipelineName, rev);
+    }
+    truncate();
+  }
+
+  /**
+   * Records the offset of a pipeline, blocking until it is durable.
+   */
+  void append(String pipelineName, String rev, SourceOffset offset) throws IOException {
+    ObjectNode record = objectMapper.createObjectNode();
+    record.put(PIPELINE, pipelineName);
+    record.put(REV, rev);
+    record.set(OFFSET, objectMapper.valueToTree(BeanHelper.wrapSourceOffset(offset)));
+    SourceOffset copy = new SourceOffset(offset.getVersion(), copyOf(offset.getOffsets()));
+    copy.setOffset(offset.getOffset());
+    SourceOffsetUpgrader.upgrade(copy);
+    submit(new PendingWrite(pipelineName, rev, copy, objectMapper.writeValueAsBytes(record)));
+  }
+
+  /**
+   * Forgets the offset of a deleted pipeline so that it is neither served nor compacted into its offset file.
+   */
+  void discard(String pipelineName, String rev) throws IOException {
+    ObjectNode record = objectMapper.createObjectNode();
+    record.put(PIPELINE, pipelineName);
+    record.put(REV, rev);
+    record.putNull(OFFSET);
+    submit(new PendingWrite(pipelineName, rev, null, objectMapper.writeValueAsBytes(record)));
+  }
+
+  /**
+   * @return the latest offset of the pipeline recorded through the journal, or null if it has not committed any
+   * offset since the journal was opened, in which case its offset file is up to date
+   */
+  SourceOffset getLatest(String pipelineName, String rev) {
+    return latest.get(getKey(pipelineName, rev));
+  }
+
+  private void submit(PendingWrite write) throws IOException {
+    // Guarded so that no write is queued after close() has let the writer drain the queue
+    synchronized (queue) {
+      Utils.checkState(running, Utils.format("Offset journal '{}' is closed", journalFile));
+      if (writerStopped) {
+        throw new IOException(Utils.format("Offset journal '{}' writer has stopped", journalFile));
+      }
+      queue.add(write);
+    }
+    try {
+      write.done.get(WRITE_TIMEOUT_SECS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    } catch (ExecutionException e) {
+      throw new IOException(e.getCause());
+    } catch (TimeoutException e) {
+      throw new IOException(Utils.format(
+          "Offset journal '{}' did not write the offset within {} seconds",
+          journalFile,
+          WRITE_TIMEOUT_SECS
+      ), e);
+    }
+  }
+
+  private void runWriter() {
+    List<PendingWrite> group = new ArrayList<>();
+    Throwable failure = null;
+    try {
+      while (running || !queue.isEmpty()) {
+        try {
+          PendingWrite first = queue.poll(Math.min(compactionIntervalMillis, 1000), TimeUnit.MILLISECONDS);
+          if (first != null) {
+            group.add(first);
+            queue.drainTo(group);
+            writeGroup(group);
+            group.clear();
+          }
+          if (!dirty.isEmpty() &&
+              (channel.size() >= maxSize || System.currentTimeMillis() - lastCompaction >= compactionIntervalMillis)) {
+            compact();
+          }
+        } catch (IOException e) {
+          LOG.error("Offset journal '{}' error: {}", journalFile, e.toString(), e);
+        }
+      }
+    } catch (InterruptedException e) {
+      LOG.warn("Offset journal '{}' writer interrupted", journalFile);
+      Thread.currentThread().interrupt();
+      failure = e;
+    } catch (RuntimeException | Error e) {
+      LOG.error("Offset journal '{}' writer failed: {}", journalFile, e.toString(), e);
+      failure = e;
+    } finally {
+      stopWriter(group, failure);
+    }
+  }
+
+  /**
+   * Fails the writes of the group being written and of the queue, and makes further commits fail right away
+   * instead of waiting for a writer that is gone.
+   */
+  private void stopWriter(List<PendingWrite> group, Throwable failure) {
+    synchronized (queue) {
+      writerStopped = true;
+      queue.drainTo(group);
+    }
+    if (group.isEmpty()) {
+      return;
+    }
+    IOException error = new IOException(Utils.format("Offset journal '{}' writer has stopped", journalFile), failure);
+    for (PendingWrite write : group) {
+      // no-op for the writes of the group that were already completed
+      write.done.completeExceptionally(error);
+    }
+  }
+
+  private void writeGroup(List<PendingWrite> group) {
+    try {
+      for (PendingWrite write : group) {
+        CRC32 crc = new CRC32();
+        crc.update(write.payload);
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + write.payload.length);
+        buffer.putInt(write.payload.length).putLong(crc.getValue()).put(write.payload);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          channel.write(buffer, channel.size());
+        }
+      }
+      channel.force(false);
+    } catch (IOException e) {
+      LOG.error("Failed to write {} offsets to journal '{}': {}", group.size(), journalFile, e.toString(), e);
+      for (PendingWrite write : group) {
+        write.done.completeExceptionally(e);
+      }
+      return;
+    }
+    for (PendingWrite write : group) {
+      String key = getKey(write.pipelineName, write.rev);
+      if (write.offset == null) {
+        latest.remove(key);
+      } else {
+        latest.put(key, write.offset);
+      }
+      dirty.put(key, write);
+      write.done.complete(null);
+    }
+  }
+
+  /**
+   * Writes the latest offset of every pipeline committed since the last compaction to its offset file, then
+   * truncates the journal. Runs on the writer thread, so no record is appended while compacting.
+   */
+  private void compact() throws IOException {
+    LOG.debug("Compacting offset journal '{}' with {} pipelines", journalFile, dirty.size());
+    for (PendingWrite write : dirty.values()) {
+      if (write.offset == null) {
+        continue;
+      }
+      File offsetFile = OffsetFileUtil.getPipelineOffsetFile(runtimeInfo, write.pipelineName, write.rev);
+      if (!offsetFile.getParentFile().exists()) {
+        LOG.debug("Pipeline '{}::{}' no longer exists, dropping its offset", write.pipelineName, write.rev);
+        latest.remove(getKey(write.pipelineName, write.rev), write.offset);
+        continue;
+      }
+      OffsetFileUtil.writeOffsetFile(offsetFile, write.offset);
+    }
+    truncate();
+    dirty.clear();
+    lastCompaction = System.currentTimeMillis();
+  }
+
+  private void truncate() throws IOException {
+    channel.truncate(0);
+    channel.force(true);
+  }
+
+  /**
+   * Stops accepting offsets, writes the queued ones and compacts the journal into the offset files.
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (queue) {
+      if (!running) {
+        return;
+      }
+      running = false;
+    }
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    for (PendingWrite write : queue) {
+      write.done.completeExceptionally(new IOException(Utils.format("Offset journal '{}' is closed", journalFile)));
+    }
+    try {
+      compact();
+    } finally {
+      channel.close();
+      runtimeInfo.removeAttribute(RUNTIME_INFO_ATTRIBUTE);
+      LOG.info("Offset journal '{}' closed", journalFile);
+    }
+  }
+
+  @VisibleForTesting
+  File getJournalFile() {
+    return journalFile;
+  }
+
+  @VisibleForTesting
+  Thread getWriter() {
+    return writer;
+  }
+
+  private static Map<String, String> copyOf(Map<String, String> offsets) {
+    return offsets == null ? null : Collections.unmodifiableMap(new HashMap<>(offsets));
+  }
+
+  private static String getKey(String pipelineName, String rev) {
+    return pipelineName + "::" + rev;
+  }
+}
@@ -0,0 +1,491 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.store;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.streamsets.datacollector.event.handler.remote.RemoteDataCollector;
+import com.streamsets.datacollector.execution.PipelineState;
+import com.streamsets.datacollector.execution.PipelineStatus;
+import com.streamsets.datacollector.io.DataStore;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import com.streamsets.datacollector.restapi.Order;
+import com.streamsets.datacollector.restapi.PipelineOrderByFields;
+import com.streamsets.datacollector.restapi.bean.BeanHelper;
+import com.streamsets.datacollector.restapi.bean.PipelineInfoJson;
+import com.streamsets.datacollector.util.ContainerError;
+import com.streamsets.pipeline.api.ExecutionMode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+/**
+ * Index of the pipelines in the store with the attributes the pipeline listing filters and sorts on, including
+ * the status and execution mode of the pipeline, so listing pipelines needs neither the pipeline files nor the
+ * pipeline state store.
+ * <p/>
+ * The catalog can be persisted so that it does not have to be rebuilt from the pipeline files on start up.
+ */
+public class PipelineCatalog {
+  public static final String SYSTEM_ALL_PIPELINES = "system:allPipelines";
+  public static final String SYSTEM_EDGE_PIPELINES = "system:edgePipelines";
+  public static final String SYSTEM_MICROSERVICE_PIPELINES = "system:microServicePipelines";
+  public static final String SYSTEM_PUBLISHED_PIPELINES = "system:publishedPipelines";
+  public static final String SYSTEM_DPM_CONTROLLED_PIPELINES = "system:dpmControlledPipelines";
+  public static final String SYSTEM_LOCAL_PIPELINES = "system:localPipelines";
+  public static final String SYSTEM_RUNNING_PIPELINES = "system:runningPipelines";
+  public static final String SYSTEM_NON_RUNNING_PIPELINES = "system:nonRunningPipelines";
+  public static final String SYSTEM_INVALID_PIPELINES = "system:invalidPipelines";
+  public static final String SYSTEM_ERROR_PIPELINES = "system:errorPipelines";
+  public static final String SHARED_WITH_ME_PIPELINES = "system:sharedWithMePipelines";
+
+  public static final String DPM_PIPELINE_ID = "dpm.pipeline.id";
+  public static final String MICROSERVICE = "MICROSERVICE";
+  private static final String LABELS = "labels";
+
+  private static final int FORMAT_VERSION = 1;
+
+  /**
+   * Catalog entry of a single pipeline.
+   */
+  public static class Entry {
+    private final PipelineInfo info;
+    private final long infoModified;
+    private final PipelineStatus status;
+    private final ExecutionMode executionMode;
+    private final boolean remote;
+
+    public Entry(
+        PipelineInfo info,
+        long infoModified,
+        PipelineStatus status,
+        ExecutionMode executionMode,
+        boolean remote
+    ) {
+      this.info = info;
+      this.infoModified = infoModified;
+      this.status = status;
+      this.executionMode = executionMode;
+      this.remote = remote;
+    }
+
+    public PipelineInfo getInfo() {
+      return info;
+    }
+
+    public String getPipelineId() {
+      return info.getPipelineId();
+    }
+
+    public long getInfoModified() {
+      return infoModified;
+    }
+
+    // null if the pipeline has no state yet
+    public PipelineStatus getStatus() {
+      return status;
+    }
+
+    public ExecutionMode getExecutionMode() {
+      return executionMode;
+    }
+
+    public boolean isRemote() {
+      return remote;
+    }
+  }
+
+  /**
+   * Filtering, sorting and paging of a pipeline listing. Paging is either by offset or, for stable paging while
+   * pipelines are added and removed, by the cursor returned with the previous page.
+   */
+  public static class Query {
+    private String filterText;
+    private String label;
+    private String user;
+    private PipelineOrderByFields orderBy = PipelineOrderByFields.NAME;
+    private Order order = Order.ASC;
+    private int offset;
+    private int len = -1;
+    private String cursor;
+    private Predicate<PipelineInfo> visible = info -> true;
+
+    public Query filterText(String filterText) {
+      this.filterText = (filterText == null || filterText.isEmpty()) ? null : filterText.toLowerCase();
+      return this;
+    }
+
+    public Query label(String label) {
+      this.label = label;
+      return this;
+    }
+
+    // user the SHARED_WITH_ME_PIPELINES label is evaluated for
+    public Query user(String user) {
+      this.user = user;
+      return this;
+    }
+
+    public Query orderBy(PipelineOrderByFields orderBy) {
+      this.orderBy = orderBy;
+      return this;
+    }
+
+    public Query order(Order order) {
+      this.order = order;
+      return this;
+    }
+
+    public Query offset(int offset) {
+      this.offset = Math.max(0, offset);
+      return this;
+    }
+
+    // -1 for all the pipelines
+    public Query len(int len) {
+      this.len = len;
+      return this;
+    }
+
+    public Query cursor(String cursor) {
+      this.cursor = (cursor == null || cursor.isEmpty()) ? null : cursor;
+      return this;
+    }
+
+    // further restricts the listing, for example to the pipelines a user has access to
+    public Query restrictTo(Predicate<PipelineInfo> predicate) {
+      visible = visible.and(predicate);
+      return this;
+    }
+
+    boolean matches(Entry entry) {
+      PipelineInfo info = entry.getInfo();
+      String title = info.getTitle() != null ? info.getTitle() : info.getPipelineId();
+      if (filterText != null && !title.toLowerCase().contains(filterText)) {
+        return false;
+      }
+      return (label == null || matchesLabel(entry)) && visible.test(info);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean matchesLabel(Entry entry) {
+      PipelineInfo info = entry.getInfo();
+      Map<String, Object> metadata = info.getMetadata();
+      PipelineStatus status = entry.getStatus();
+      switch (label) {
+        case SYSTEM_ALL_PIPELINES:
+          return true;
+        case SYSTEM_EDGE_PIPELINES:
+          return entry.getExecutionMode() == ExecutionMode.EDGE;
+        case SYSTEM_MICROSERVICE_PIPELINES:
+          return metadata != null && metadata.containsKey(MICROSERVICE);
+        case SYSTEM_RUNNING_PIPELINES:
+          return status != null && status.isActive();
+        case SYSTEM_NON_RUNNING_PIPELINES:
+          return status == null || !status.isActive();
+        case SYSTEM_INVALID_PIPELINES:
+          return !info.isValid();
+        case SYSTEM_ERROR_PIPELINES:
+          return status == PipelineStatus.START_ERROR ||
+              status == PipelineStatus.RUNNING_ERROR ||
+              status == PipelineStatus.RUN_ERROR ||
+              status == PipelineStatus.CONNECT_ERROR;
+        case SYSTEM_PUBLISHED_PIPELINES:
+          return !entry.isRemote() && metadata != null && metadata.containsKey(DPM_PIPELINE_ID);
+        case SYSTEM_DPM_CONTROLLED_PIPELINES:
+          return entry.isRemote();
+        case SYSTEM_LOCAL_PIPELINES:
+          return metadata == null || !metadata.containsKey(DPM_PIPELINE_ID);
+        case SHARED_WITH_ME_PIPELINES:
+          return !info.getCreator().equals(user);
+        default:
+          return metadata != null && metadata.containsKey(LABELS) &&
+              ((List<String>) metadata.get(LABELS)).contains(label);
+      }
+    }
+  }
+
+  /**
+   * A page of a pipeline listing.
+   */
+  public static class Page {
+    private final List<Entry> entries;
+    private final int totalCount;
+    private final String nextCursor;
+
+    Page(List<Entry> entries, int totalCount, String nextCursor) {
+      this.entries = entries;
+      this.totalCount = totalCount;
+      this.nextCursor = nextCursor;
+    }
+
+    public List<Entry> getEntries() {
+      return entries;
+    }
+
+    // number of pipelines matching the query across all pages
+    public int getTotalCount() {
+      return totalCount;
+    }
+
+    // null if this is the last page
+    public String getNextCursor() {
+      return nextCursor;
+    }
+  }
+
+  private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  public void put(Entry entry) {
+    entries.put(entry.getPipelineId(), entry);
+  }
+
+  /**
+   * Adds or updates the info of a pipeline, keeping its last known state.
+   */
+  public void put(PipelineInfo info, long infoModified) {
+    entries.compute(info.getPipelineId(), (name, entry) -> entry == null
+        ? new Entry(info, infoModified, null, null, false)
+        : new Entry(info, infoModified, entry.getStatus(), entry.getExecutionMode(), entry.isRemote())
+    );
+  }
+
+  /**
+   * Records the new state of a pipeline, states of pipelines that are not in the catalog are ignored.
+   */
+  public void updateState(String name, PipelineState state) {
+    if (state == null) {
+      return;
+    }
+    Object remote = state.getAttributes() == null
+        ? null
+        : state.getAttributes().get(RemoteDataCollector.IS_REMOTE_PIPELINE);
+    entries.computeIfPresent(name, (key, entry) -> new Entry(
+        entry.getInfo(),
+        entry.getInfoModified(),
+        state.getStatus(),
+        state.getExecutionMode(),
+        remote != null && (boolean) remote
+    ));
+  }
+
+  public void remove(String name) {
+    entries.remove(name);
+  }
+
+  public void clear() {
+    entries.clear();
+  }
+
+  public Entry get(String name) {
+    return entries.get(name);
+  }
+
+  public Collection<Entry> getEntries() {
+    return Collections.unmodifiableCollection(entries.values());
+  }
+
+  public List<PipelineInfo> getPipelines() {
+    List<PipelineInfo> infos = new ArrayList<>(entries.size());
+    for (Entry entry : entries.values()) {
+      infos.add(entry.getInfo());
+    }
+    return Collections.unmodifiableList(infos);
+  }
+
+  public Page query(Query query) throws PipelineStoreException {
+    boolean descending = (query.order == Order.DESC) ^
+        (query.orderBy == PipelineOrderByFields.LAST_MODIFIED || query.orderBy == PipelineOrderByFields.CREATED);
+    List<SortKey> matches = new ArrayList<>();
+    for (Entry entry : entries.values()) {
+      if (query.matches(entry)) {
+        matches.add(new SortKey(entry, sortValue(entry, query.orderBy), descending));
+      }
+    }
+    Collections.sort(matches);
+
+    int start = Math.min(query.offset, matches.size());
+    if (query.cursor != null) {
+      SortKey after = decodeCursor(query, descending);
+      start = 0;
+      while (start < matches.size() && matches.get(start).compareTo(after) <= 0) {
+        start++;
+      }
+    }
+    int end = (query.len < 0) ? matches.size() : Math.min(matches.size(), start + query.len);
+    List<Entry> page = new ArrayList<>(end - start);
+    for (int i = start; i < end; i++) {
+      page.add(matches.get(i).entry);
+    }
+    String nextCursor = (end > start && end < matches.size()) ? encodeCursor(query, matches.get(end - 1)) : null;
+    return new Page(page, matches.size(), nextCursor);
+  }
+
+  private static Comparable sortValue(Entry entry, PipelineOrderByFields orderBy) {
+    PipelineInfo info = entry.getInfo();
+    switch (orderBy) {
+      case TITLE:
+        return info.getTitle() != null ? info.getTitle() : info.getPipelineId();
+      case LAST_MODIFIED:
+        return info.getLastModified() != null ? info.getLastModified().getTime() : 0L;
+      case CREATED:
+        return info.getCreated() != null ? info.getCreated().getTime() : 0L;
+      case CREATOR:
+        return info.getCreator() != null ? info.getCreator() : "";
+      case STATUS:
+        // pipelines without a known state go last
+        return entry.getStatus() != null ? entry.getStatus().ordinal() : Integer.MAX_VALUE;
+      case NAME:
+      default:
+        return info.getPipelineId();
+    }
+  }
+
+  private static String encodeCursor(Query query, SortKey key) {
+    String cursor = query.orderBy.name() + "\n" + query.order.name() + "\n" + key.id + "\n" + key.value;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static SortKey decodeCursor(Query query, boolean descending) throws PipelineStoreException {
+    try {
+      String[] parts = new String(Base64.getUrlDecoder().decode(query.cursor), StandardCharsets.UTF_8)
+          .split("\n", 4);
+      if (parts.length != 4 ||
+          !parts[0].equals(query.orderBy.name()) ||
+          !parts[1].equals(query.order.name())) {
+        throw new PipelineStoreException(ContainerError.CONTAINER_0215, query.cursor);
+      }
+      Comparable value;
+      switch (query.orderBy) {
+        case LAST_MODIFIED:
+        case CREATED:
+          value = Long.parseLong(parts[3]);
+          break;
+        case STATUS:
+          value = Integer.parseInt(parts[3]);
+          break;
+        default:
+          value = parts[3];
+      }
+      return new SortKey(null, value, parts[2], descending);
+    } catch (IllegalArgumentException ex) {
+      throw new PipelineStoreException(ContainerError.CONTAINER_0215, query.cursor, ex);
+    }
+  }
+
+  private static final class SortKey implements Comparable<SortKey> {
+    private final Entry entry;
+    private final Comparable value;
+    private final String id;
+    private final boolean descending;
+
+    SortKey(Entry entry, Comparable value, boolean descending) {
+      this(entry, value, entry.getPipelineId(), descending);
+    }
+
+    SortKey(Entry entry, Comparable value, String id, boolean descending) {
+      this.entry = entry;
+      this.value = value;
+      this.id = id;
+      this.descending = descending;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int compareTo(SortKey other) {
+      int result = value.compareTo(other.value);
+      if (result == 0) {
+        result = id.compareTo(other.id);
+      }
+      return descending ? -result : result;
+    }
+  }
+
+  /**
+   * Writes the catalog to the given file, replacing it atomically.
+   */
+  public void save(File file) throws IOException {
+    ObjectMapper json = ObjectMapperFactory.get();
+    ObjectNode root = json.createObjectNode();
+    root.put("version", FORMAT_VERSION);
+    ArrayNode pipelines = root.putArray("pipelines");
+    for (Entry entry : entries.values()) {
+      ObjectNode node = pipelines.addObject();
+      node.set("info", json.valueToTree(BeanHelper.wrapPipelineInfo(entry.getInfo())));
+      node.put("infoModified", entry.getInfoModified());
+      if (entry.getStatus() != null) {
+        node.put("status", entry.getStatus().name());
+      }
+      if (entry.getExecutionMode() != null) {
+        node.put("executionMode", entry.getExecutionMode().name());
+      }
+      node.put("remote", entry.isRemote());
+    }
+    DataStore dataStore = new DataStore(file);
+    try (OutputStream os = dataStore.getOutputStream()) {
+      json.writeValue(os, root);
+      dataStore.commit(os);
+    } finally {
+      dataStore.release();
+    }
+  }
+
+  /**
+   * Reads the entries of a catalog written by {@link #save(File)}, returns an empty map if there is none or it
+   * was written by an incompatible version.
+   */
+  public static Map<String, Entry> load(File file) throws IOException {
+    Map<String, Entry> loaded = new HashMap<>();
+    DataStore dataStore = new DataStore(file);
+    if (!dataStore.exists()) {
+      return loaded;
+    }
+    ObjectMapper json = ObjectMapperFactory.get();
+    JsonNode root;
+    try (InputStream is = dataStore.getInputStream()) {
+      root = json.readTree(is);
+    }
+    if (root == null || root.path("version").asInt() != FORMAT_VERSION) {
+      return loaded;
+    }
+    for (JsonNode node : root.path("pipelines")) {
+      PipelineInfo info = json.treeToValue(node.get("info"), PipelineInfoJson.class).getPipelineInfo();
+      loaded.put(info.getPipelineId(), new Entry(
+          info,
+          node.path("infoModified").asLong(),
+          node.hasNonNull("status") ? PipelineStatus.valueOf(node.get("status").asText()) : null,
+          node.hasNonNull("executionMode") ? ExecutionMode.valueOf(node.get("executionMode").asText()) : null,
+          node.path("remote").asBoolean()
+      ));
+    }
+    return loaded;
+  }
+}
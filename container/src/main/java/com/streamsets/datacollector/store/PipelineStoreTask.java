@@ -44,6 +44,8 @@ public interface PipelineStoreTask extends Task {
 
   List<PipelineInfo> getPipelines() throws PipelineStoreException;
 
+  PipelineCatalog.Page queryPipelines(PipelineCatalog.Query query) throws PipelineStoreException;
+
   PipelineInfo getInfo(String name) throws PipelineException;
 
   List<PipelineRevInfo> getHistory(String name) throws PipelineException;
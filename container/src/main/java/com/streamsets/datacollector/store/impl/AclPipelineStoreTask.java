@@ -16,7 +16,6 @@
 package com.streamsets.datacollector.store.impl;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Predicate;
 import com.google.common.collect.Collections2;
 import com.streamsets.datacollector.config.PipelineConfiguration;
 import com.streamsets.datacollector.config.PipelineFragmentConfiguration;
@@ -24,6 +23,7 @@ import com.streamsets.datacollector.config.RuleDefinitions;
 import com.streamsets.datacollector.execution.StateEventListener;
 import com.streamsets.datacollector.restapi.bean.UserJson;
 import com.streamsets.datacollector.store.AclStoreTask;
+import com.streamsets.datacollector.store.PipelineCatalog;
 import com.streamsets.datacollector.store.PipelineInfo;
 import com.streamsets.datacollector.store.PipelineRevInfo;
 import com.streamsets.datacollector.store.PipelineStoreException;
@@ -113,6 +113,11 @@ public class AclPipelineStoreTask implements PipelineStoreTask {
     return new ArrayList<>(filterPipelineBasedOnReadAcl());
   }
 
+  @Override
+  public PipelineCatalog.Page queryPipelines(PipelineCatalog.Query query) throws PipelineStoreException {
+    return pipelineStore.queryPipelines(query.restrictTo(this::isReadPermissionGranted));
+  }
+
   @Override
   public PipelineInfo getInfo(String name) throws PipelineException {
     aclStore.validateReadPermission(name, currentUser);
@@ -205,17 +210,16 @@ public class AclPipelineStoreTask implements PipelineStoreTask {
   }
 
   private Collection<PipelineInfo> filterPipelineBasedOnReadAcl() throws PipelineStoreException {
-    return Collections2.filter(pipelineStore.getPipelines(), new Predicate<PipelineInfo>() {
-      @Override
-      public boolean apply(PipelineInfo pipelineInfo) {
-        try {
-          return aclStore.isPermissionGranted(pipelineInfo.getPipelineId(), EnumSet.of(Action.READ), currentUser);
-        } catch (PipelineException e) {
-          LOG.warn("Failed to validate ACL");
-        }
-        return false;
-      }
-    });
+    return Collections2.filter(pipelineStore.getPipelines(), this::isReadPermissionGranted);
+  }
+
+  private boolean isReadPermissionGranted(PipelineInfo pipelineInfo) {
+    try {
+      return aclStore.isPermissionGranted(pipelineInfo.getPipelineId(), EnumSet.of(Action.READ), currentUser);
+    } catch (PipelineException e) {
+      LOG.warn("Failed to validate ACL");
+    }
+    return false;
   }
 
   @Override
@@ -20,6 +20,7 @@ import com.streamsets.datacollector.config.PipelineConfiguration;
 import com.streamsets.datacollector.config.PipelineFragmentConfiguration;
 import com.streamsets.datacollector.config.RuleDefinitions;
 import com.streamsets.datacollector.execution.StateEventListener;
+import com.streamsets.datacollector.store.PipelineCatalog;
 import com.streamsets.datacollector.store.PipelineInfo;
 import com.streamsets.datacollector.store.PipelineRevInfo;
 import com.streamsets.datacollector.store.PipelineStoreException;
@@ -120,6 +121,11 @@ public class CachePipelineStoreTask implements PipelineStoreTask {
     return Collections.unmodifiableList(new ArrayList<>(pipelineInfoMap.values()));
   }
 
+  @Override
+  public PipelineCatalog.Page queryPipelines(PipelineCatalog.Query query) throws PipelineStoreException {
+    return pipelineStore.queryPipelines(query);
+  }
+
   @Override
   public PipelineInfo getInfo(String name) throws PipelineStoreException {
     PipelineInfo pipelineInfo = pipelineInfoMap.get(name);
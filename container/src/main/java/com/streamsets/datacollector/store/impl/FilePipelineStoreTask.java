@@ -43,6 +43,7 @@ import com.streamsets.datacollector.restapi.bean.PipelineInfoJson;
 import com.streamsets.datacollector.restapi.bean.RuleDefinitionsJson;
 import com.streamsets.datacollector.runner.production.OffsetFileUtil;
 import com.streamsets.datacollector.stagelibrary.StageLibraryTask;
+import com.streamsets.datacollector.store.PipelineCatalog;
 import com.streamsets.datacollector.store.PipelineInfo;
 import com.streamsets.datacollector.store.PipelineRevInfo;
 import com.streamsets.datacollector.store.PipelineStoreException;
@@ -62,6 +63,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -89,6 +91,8 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
   private static final String UI_INFO_FILE = "uiinfo.json";
   public static final String RULES_FILE = "rules.json";
   private static final String STATE = "state";
+  @VisibleForTesting
+  static final String CATALOG_FILE = ".catalog.json";
 
   private final StageLibraryTask stageLibrary;
   private final RuntimeInfo runtimeInfo;
@@ -98,6 +102,8 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
   private final PipelineStateStore pipelineStateStore;
   private final ConcurrentMap<String, RuleDefinitions> pipelineToRuleDefinitionMap;
   private StateEventListener stateEventListener;
+  private final PipelineCatalog catalog;
+  private boolean catalogListenerRegistered;
 
   @Inject
   public FilePipelineStoreTask(RuntimeInfo runtimeInfo, StageLibraryTask stageLibrary,
@@ -110,6 +116,7 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
     this.pipelineStateStore = pipelineStateStore;
     this.lockCache = lockCache;
     buildInfo = new DataCollectorBuildInfo();
+    catalog = new PipelineCatalog();
   }
 
   @VisibleForTesting
@@ -134,10 +141,73 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
     if (pipelineStateStore != null) {
       pipelineStateStore.init();
     }
+    loadCatalog();
+  }
+
+  private void loadCatalog() {
+    File catalogFile = storeDir.resolve(CATALOG_FILE).toFile();
+    catalog.clear();
+    Map<String, PipelineCatalog.Entry> persisted = Collections.emptyMap();
+    try {
+      persisted = PipelineCatalog.load(catalogFile);
+      // the persisted catalog is only trusted after a clean stop, when it is written again
+      new DataStore(catalogFile).delete();
+    } catch (Exception ex) {
+      LOG.warn("Could not read pipeline catalog '{}', rebuilding it: {}", catalogFile, ex.toString(), ex);
+    }
+    int reused = 0;
+    try {
+      for (String name : getPipelineNames()) {
+        long infoModified = getInfoModified(name);
+        PipelineCatalog.Entry entry = persisted.get(name);
+        if (entry != null && entry.getInfoModified() == infoModified) {
+          catalog.put(entry);
+          reused++;
+          continue;
+        }
+        PipelineInfo info = readInfo(name);
+        catalog.put(info, infoModified);
+        if (pipelineStateStore != null) {
+          try {
+            catalog.updateState(info.getPipelineId(), pipelineStateStore.getState(info.getPipelineId(), REV));
+          } catch (PipelineStoreException | RuntimeException ex) {
+            LOG.debug("Could not read state of pipeline '{}': {}", name, ex.toString(), ex);
+          }
+        }
+      }
+    } catch (PipelineStoreException ex) {
+      throw new RuntimeException(Utils.format("Could not load pipeline catalog: '{}'", ex), ex);
+    }
+    LOG.info("Loaded {} pipelines into the catalog, {} of them from '{}'", catalog.getEntries().size(), reused,
+        catalogFile);
+    if (pipelineStateStore != null && !catalogListenerRegistered) {
+      pipelineStateStore.addStateChangeListener((name, rev, state) -> {
+        if (REV.equals(rev)) {
+          catalog.updateState(name, state);
+        }
+      });
+      catalogListenerRegistered = true;
+    }
+  }
+
+  private long getInfoModified(String name) {
+    try {
+      return Files.getLastModifiedTime(getInfoFile(name)).toMillis();
+    } catch (IOException ex) {
+      return -1;
+    }
   }
 
   @Override
   public void stopTask() {
+    if (storeDir != null) {
+      File catalogFile = storeDir.resolve(CATALOG_FILE).toFile();
+      try {
+        catalog.save(catalogFile);
+      } catch (IOException ex) {
+        LOG.warn("Could not save pipeline catalog '{}': {}", catalogFile, ex.toString(), ex);
+      }
+    }
     if (pipelineStateStore != null) {
       pipelineStateStore.destroy();
     }
@@ -243,6 +313,7 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
         } catch (Exception ex) {
           throw new PipelineStoreException(ContainerError.CONTAINER_0202, pipelineId, ex.toString(), ex);
         }
+        catalog.put(info, getInfoModified(pipelineId));
         if (pipelineStateStore != null) {
           pipelineStateStore.edited(user, pipelineId, REV, ExecutionMode.STANDALONE, isRemote);
         }
@@ -279,6 +350,8 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
         if (!cleanUp(name)) {
           throw new PipelineStoreException(ContainerError.CONTAINER_0203, name);
         }
+        catalog.remove(name);
+        OffsetFileUtil.discardOffsets(runtimeInfo, name, REV);
         PipelineState latestState = new PipelineStateImpl(
             currentState.getUser(),
             currentState.getPipelineId(),
@@ -306,10 +379,7 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
 
   private DirectoryStream.Filter<Path> filterHiddenFiles = path -> !path.getFileName().toString().startsWith(".");
 
-  @Override
-  public List<PipelineInfo> getPipelines() throws PipelineStoreException {
-    List<PipelineInfo> pipelineInfoList = new ArrayList<>();
-
+  private List<String> getPipelineNames() throws PipelineStoreException {
     List<String> fileNames = new ArrayList<>();
     try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(storeDir, filterHiddenFiles)) {
       for (Path path : directoryStream) {
@@ -318,17 +388,25 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
     } catch (IOException ex) {
       throw new PipelineStoreException(ContainerError.CONTAINER_0213, storeDir, ex);
     }
+    return fileNames;
+  }
 
-    for (String name : fileNames) {
-      PipelineInfoJson pipelineInfoJsonBean;
-      try (InputStream infoFile = Files.newInputStream(getInfoFile(name))){
-        pipelineInfoJsonBean = json.readValue(infoFile, PipelineInfoJson.class);
-      } catch (IOException e) {
-        throw new PipelineStoreException(ContainerError.CONTAINER_0206, name, e);
-      }
-      pipelineInfoList.add(pipelineInfoJsonBean.getPipelineInfo());
+  private PipelineInfo readInfo(String name) throws PipelineStoreException {
+    try (InputStream infoFile = Files.newInputStream(getInfoFile(name))){
+      return json.readValue(infoFile, PipelineInfoJson.class).getPipelineInfo();
+    } catch (IOException e) {
+      throw new PipelineStoreException(ContainerError.CONTAINER_0206, name, e);
     }
-    return Collections.unmodifiableList(pipelineInfoList);
+  }
+
+  @Override
+  public List<PipelineInfo> getPipelines() throws PipelineStoreException {
+    return catalog.getPipelines();
+  }
+
+  @Override
+  public PipelineCatalog.Page queryPipelines(PipelineCatalog.Query query) throws PipelineStoreException {
+    return catalog.query(query);
   }
 
   @Override
@@ -389,6 +467,7 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
         pipeline.setUuid(uuid);
         json.writeValue(infoFile, BeanHelper.wrapPipelineInfo(info));
         json.writeValue(pipelineFile, BeanHelper.wrapPipelineConfiguration(pipeline));
+        catalog.put(info, getInfoModified(name));
         if (pipelineStateStore != null) {
           List<Issue> errors = new ArrayList<>();
           PipelineBeanCreator.get().create(pipeline, errors, null);
@@ -603,6 +682,7 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
       ) {
         json.writeValue(infoFile, BeanHelper.wrapPipelineInfo(updatedInfo));
         json.writeValue(pipelineFile, BeanHelper.wrapPipelineConfiguration(savedPipeline));
+        catalog.put(updatedInfo, getInfoModified(name));
       } catch (Exception ex) {
         throw new PipelineStoreException(ContainerError.CONTAINER_0204, name, ex.toString(), ex);
       }
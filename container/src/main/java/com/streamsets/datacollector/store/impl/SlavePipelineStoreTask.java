@@ -19,6 +19,7 @@ import com.streamsets.datacollector.config.PipelineConfiguration;
 import com.streamsets.datacollector.config.PipelineFragmentConfiguration;
 import com.streamsets.datacollector.config.RuleDefinitions;
 import com.streamsets.datacollector.execution.StateEventListener;
+import com.streamsets.datacollector.store.PipelineCatalog;
 import com.streamsets.datacollector.store.PipelineInfo;
 import com.streamsets.datacollector.store.PipelineRevInfo;
 import com.streamsets.datacollector.store.PipelineStoreException;
@@ -58,6 +59,11 @@ public class SlavePipelineStoreTask  implements PipelineStoreTask {
     return pipelineStore.getPipelines();
   }
 
+  @Override
+  public PipelineCatalog.Page queryPipelines(PipelineCatalog.Query query) throws PipelineStoreException {
+    return pipelineStore.queryPipelines(query);
+  }
+
   @Override
   public PipelineInfo getInfo(String name) throws PipelineException {
     return pipelineStore.getInfo(name);
@@ -98,6 +98,7 @@ public enum ContainerError implements ErrorCode {
     + "pipeline '{}::{}'"),
   CONTAINER_0213("Could not retrieve pipelines from Pipeline Store. See stacktrace for additional details: '{}'"),
   CONTAINER_0214("Can't store new pipeline state: {}"),
+  CONTAINER_0215("Invalid pipeline listing cursor '{}'"),
 
   //Previewr
   CONTAINER_0250("Cannot create previewer: '{}'"),
@@ -123,6 +124,7 @@ public enum ContainerError implements ErrorCode {
   CONTAINER_0603("Error persisting snapshot '{}' for pipeline with name '{}' and revision '{}' : '{}'"),
   CONTAINER_0604("Error retrieving snapshot info '{}' for pipeline with name '{}' and revision '{}' : '{}'"),
   CONTAINER_0605("Snapshot must be created before saving"),
+  CONTAINER_0606("Snapshot '{}' has no records for batch '{}', stage '{}' and lane '{}'"),
 
   CONTAINER_0700("Error stage initialization error: {}"),
   CONTAINER_0701("Stage '{}' initialization error: {}"),
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.cluster;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestClusterArchiveCache {
+  private File tempDir;
+  private File cacheDir;
+
+  @Before
+  public void setup() {
+    tempDir = Files.createTempDir();
+    cacheDir = new File(tempDir, ClusterArchiveCache.CACHE_DIR);
+  }
+
+  @After
+  public void tearDown() {
+    FileUtils.deleteQuietly(tempDir);
+  }
+
+  private ClusterArchiveCache.ArchiveBuilder builder(String content, AtomicInteger builds) {
+    return outputFile -> {
+      builds.incrementAndGet();
+      FileUtils.writeStringToFile(outputFile, content, StandardCharsets.UTF_8);
+    };
+  }
+
+  @Test
+  public void testReuse() throws Exception {
+    ClusterArchiveCache cache = new ClusterArchiveCache(cacheDir, true, 2, 1);
+    AtomicInteger builds = new AtomicInteger();
+    File first = new File(tempDir, "first.tar.gz");
+    File second = new File(tempDir, "second.tar.gz");
+
+    Assert.assertFalse(cache.materialize("libs", "abc", first, builder("a", builds)));
+    Assert.assertTrue(cache.materialize("libs", "abc", second, builder("b", builds)));
+
+    Assert.assertEquals(1, builds.get());
+    Assert.assertEquals("a", FileUtils.readFileToString(first, StandardCharsets.UTF_8));
+    Assert.assertEquals("a", FileUtils.readFileToString(second, StandardCharsets.UTF_8));
+    Assert.assertTrue(new File(cacheDir, "libs-abc" + ClusterArchiveCache.ARCHIVE_SUFFIX).isFile());
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    ClusterArchiveCache cache = new ClusterArchiveCache(cacheDir, true, 2, 1);
+    AtomicInteger builds = new AtomicInteger();
+    File target = new File(tempDir, "libs.tar.gz");
+    cache.materialize("libs", "1", target, builder("1", builds));
+    new File(cacheDir, "libs-1" + ClusterArchiveCache.ARCHIVE_SUFFIX).setLastModified(1000);
+    cache.materialize("libs", "2", target, builder("2", builds));
+    cache.materialize("resources", "1", target, builder("r", builds));
+    cache.materialize("libs", "3", target, builder("3", builds));
+
+    Assert.assertFalse(new File(cacheDir, "libs-1" + ClusterArchiveCache.ARCHIVE_SUFFIX).exists());
+    Assert.assertTrue(new File(cacheDir, "libs-2" + ClusterArchiveCache.ARCHIVE_SUFFIX).exists());
+    Assert.assertTrue(new File(cacheDir, "libs-3" + ClusterArchiveCache.ARCHIVE_SUFFIX).exists());
+    Assert.assertTrue(new File(cacheDir, "resources-1" + ClusterArchiveCache.ARCHIVE_SUFFIX).exists());
+    Assert.assertEquals(4, builds.get());
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    ClusterArchiveCache cache = new ClusterArchiveCache(cacheDir, false, 2, 1);
+    AtomicInteger builds = new AtomicInteger();
+    File target = new File(tempDir, "libs.tar.gz");
+    Assert.assertFalse(cache.materialize("libs", "abc", target, builder("a", builds)));
+    Assert.assertFalse(cache.materialize("libs", "abc", target, builder("a", builds)));
+    Assert.assertEquals(2, builds.get());
+    Assert.assertFalse(cacheDir.exists());
+  }
+
+  @Test
+  public void testDigestDirectory() throws Exception {
+    File dir = new File(tempDir, "resources");
+    Assert.assertTrue(new File(dir, "sub").mkdirs());
+    FileUtils.writeStringToFile(new File(dir, "sub/a.txt"), "a", StandardCharsets.UTF_8);
+    String digest = ClusterArchiveCache.digestDirectory(dir);
+    Assert.assertEquals(digest, ClusterArchiveCache.digestDirectory(dir));
+
+    FileUtils.writeStringToFile(new File(dir, "sub/a.txt"), "b", StandardCharsets.UTF_8);
+    String changed = ClusterArchiveCache.digestDirectory(dir);
+    Assert.assertNotEquals(digest, changed);
+
+    Assert.assertTrue(new File(dir, "empty").mkdir());
+    Assert.assertNotEquals(changed, ClusterArchiveCache.digestDirectory(dir));
+  }
+
+  @Test
+  public void testDigestLibs() throws Exception {
+    File staticWebDir = new File(tempDir, "static");
+    Assert.assertTrue(staticWebDir.mkdir());
+    File jar = new File(tempDir, "a.jar");
+    FileUtils.writeStringToFile(jar, "jar", StandardCharsets.UTF_8);
+    List<URL> cp = ImmutableList.of(jar.toURI().toURL());
+
+    String digest = ClusterArchiveCache.digestLibs(cp, cp, Collections.emptyMap(), Collections.emptyMap(), staticWebDir);
+    Assert.assertEquals(
+        digest,
+        ClusterArchiveCache.digestLibs(cp, cp, Collections.emptyMap(), Collections.emptyMap(), staticWebDir)
+    );
+    Assert.assertNotEquals(
+        digest,
+        ClusterArchiveCache.digestLibs(cp, cp, Collections.singletonMap("lib", cp), Collections.emptyMap(), staticWebDir)
+    );
+
+    FileUtils.writeStringToFile(jar, "jar with more bytes", StandardCharsets.UTF_8);
+    Assert.assertNotEquals(
+        digest,
+        ClusterArchiveCache.digestLibs(cp, cp, Collections.emptyMap(), Collections.emptyMap(), staticWebDir)
+    );
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.cluster;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+public class TestParallelGzipOutputStream {
+
+  private static byte[] gunzip(byte[] data) throws IOException {
+    try (GZIPInputStream is = new GZIPInputStream(new ByteArrayInputStream(data))) {
+      return IOUtils.toByteArray(is);
+    }
+  }
+
+  @Test
+  public void testMultipleBlocks() throws Exception {
+    byte[] data = new byte[10_000];
+    new Random(0).nextBytes(data);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ParallelGzipOutputStream out = new ParallelGzipOutputStream(bytes, 3, 1000)) {
+      out.write(data, 0, 1500);
+      out.flush();
+      for (int i = 1500; i < 1600; i++) {
+        out.write(data[i]);
+      }
+      out.write(data, 1600, data.length - 1600);
+    }
+    Assert.assertArrayEquals(data, gunzip(bytes.toByteArray()));
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new ParallelGzipOutputStream(bytes, 2).close();
+    Assert.assertEquals(0, gunzip(bytes.toByteArray()).length);
+  }
+
+  @Test(expected = IOException.class)
+  public void testWriteAfterClose() throws Exception {
+    ParallelGzipOutputStream out = new ParallelGzipOutputStream(new ByteArrayOutputStream(), 2);
+    out.close();
+    out.write(1);
+  }
+}
@@ -92,6 +92,38 @@ public class TestTarFileCreator {
     readJar(tis);
   }
 
+  @Test
+  public void testCompressorIsClosedOnFailure() throws Exception {
+    File missingJar = new File(tempDir, "missing.jar");
+    File staticWebDir = new File(tempDir, "static-web-dir");
+    Assert.assertTrue(staticWebDir.mkdir());
+    File tarFile = new File(tempDir, "libs.tar.gz");
+    try {
+      TarFileCreator.createLibsTarGz(
+          ImmutableList.of(missingJar.toURI().toURL()),
+          ImmutableList.<URL>of(),
+          new LinkedHashMap<>(),
+          new LinkedHashMap<>(),
+          staticWebDir,
+          tarFile,
+          2
+      );
+      Assert.fail("Archiving a missing jar should fail");
+    } catch (IOException ex) {
+      // expected
+    }
+    long deadline = System.currentTimeMillis() + 5000;
+    while (hasCompressorThreads() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assert.assertFalse(hasCompressorThreads());
+  }
+
+  private static boolean hasCompressorThreads() {
+    return Thread.getAllStackTraces().keySet().stream()
+        .anyMatch(thread -> thread.isAlive() && thread.getName().startsWith("archive-compressor-"));
+  }
+
   @Test
   public void testCreateLibsTarGz() throws Exception {
     File apiLibDir = new File(tempDir, "api-lib");
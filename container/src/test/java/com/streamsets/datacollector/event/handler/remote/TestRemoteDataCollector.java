@@ -51,6 +51,7 @@ import com.streamsets.datacollector.runner.production.SourceOffset;
 import com.streamsets.datacollector.runner.production.SourceOffsetUpgrader;
 import com.streamsets.datacollector.stagelibrary.StageLibraryTask;
 import com.streamsets.datacollector.store.AclStoreTask;
+import com.streamsets.datacollector.store.PipelineCatalog;
 import com.streamsets.datacollector.store.PipelineInfo;
 import com.streamsets.datacollector.store.PipelineRevInfo;
 import com.streamsets.datacollector.store.PipelineStoreException;
@@ -767,6 +768,11 @@ public class TestRemoteDataCollector {
       return null;
     }
 
+    @Override
+    public PipelineCatalog.Page queryPipelines(PipelineCatalog.Query query) throws PipelineStoreException {
+      return null;
+    }
+
     @Override
     public PipelineInfo getInfo(String name) throws PipelineStoreException {
       return new PipelineInfo(name, "title", null, null, null, null, null, null, null, false, null, null, null);
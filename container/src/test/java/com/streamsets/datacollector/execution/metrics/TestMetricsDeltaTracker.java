@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import com.streamsets.datacollector.restapi.bean.MetricRegistryJson;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestMetricsDeltaTracker {
+
+  @Test
+  public void testOnlyChangedMetricsArePublished() throws Exception {
+    ObjectMapper objectMapper = ObjectMapperFactory.get();
+    MetricRegistry registry = new MetricRegistry();
+    Counter c1 = registry.counter("c1");
+    Counter c2 = registry.counter("c2");
+    Meter meter = registry.meter("m");
+    c1.inc();
+    c2.inc();
+
+    MetricsDeltaTracker tracker = new MetricsDeltaTracker();
+    Assert.assertTrue(tracker.isNextFull());
+    ObjectNode tree = tracker.delta(objectMapper.valueToTree(registry));
+    MetricRegistryJson json = objectMapper.treeToValue(tree, MetricRegistryJson.class);
+    Assert.assertEquals(2, json.getCounters().size());
+    Assert.assertEquals(1, json.getMeters().size());
+    tracker.onPublished();
+
+    Assert.assertFalse(tracker.isNextFull());
+    c2.inc();
+    tree = tracker.delta(objectMapper.valueToTree(registry));
+    json = objectMapper.treeToValue(tree, MetricRegistryJson.class);
+    Assert.assertEquals(1, json.getCounters().size());
+    Assert.assertEquals(2, json.getCounters().get("c2").getCount());
+    Assert.assertTrue(json.getMeters().isEmpty());
+    Assert.assertNotNull(json.getVersion());
+
+    // The change was never published, so it is sent again
+    tree = tracker.delta(objectMapper.valueToTree(registry));
+    Assert.assertEquals(1, tree.get("counters").size());
+    tracker.onPublished();
+
+    tree = tracker.delta(objectMapper.valueToTree(registry));
+    Assert.assertEquals(0, tree.get("counters").size());
+  }
+
+  @Test
+  public void testResetSendsFullSnapshot() throws Exception {
+    ObjectMapper objectMapper = ObjectMapperFactory.get();
+    MetricRegistry registry = new MetricRegistry();
+    registry.counter("c1").inc();
+
+    MetricsDeltaTracker tracker = new MetricsDeltaTracker();
+    tracker.delta(objectMapper.valueToTree(registry));
+    tracker.onPublished();
+    tracker.reset();
+
+    Assert.assertTrue(tracker.isNextFull());
+    ObjectNode tree = tracker.delta(objectMapper.valueToTree(registry));
+    Assert.assertEquals(1, tree.get("counters").size());
+  }
+}
@@ -15,11 +15,22 @@
  */
 package com.streamsets.datacollector.execution.snapshot;
 
+import com.streamsets.datacollector.execution.Snapshot;
+import com.streamsets.datacollector.execution.snapshot.common.SnapshotRecords;
 import com.streamsets.datacollector.execution.snapshot.file.FileSnapshotStore;
 import com.streamsets.datacollector.execution.snapshot.file.dagger.FileSnapshotStoreModule;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.main.RuntimeModule;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.datacollector.runner.ErrorSink;
+import com.streamsets.datacollector.runner.EventSink;
+import com.streamsets.datacollector.runner.StageOutput;
+import com.streamsets.datacollector.util.PipelineException;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import org.junit.BeforeClass;
 
 import dagger.ObjectGraph;
@@ -33,6 +44,11 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 public class TestFileSnapshotStore extends TestSnapshotStore {
 
@@ -64,4 +80,65 @@ public class TestFileSnapshotStore extends TestSnapshotStore {
     Assert.assertTrue(snapshotStore instanceof FileSnapshotStore);
   }
 
+  @Test
+  public void testGetRecordsPages() throws PipelineException, IOException {
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 250; i++) {
+      Record record = new RecordImpl("s", "s:" + i, null, null);
+      record.set(Field.create(i));
+      records.add(record);
+    }
+    List<StageOutput> batch = new ArrayList<>();
+    batch.add(new StageOutput("source", Collections.singletonMap("lane", records), new ErrorSink(), new EventSink()));
+
+    snapshotStore.create("user", "pipeline", "0", "snapshot", "label");
+    snapshotStore.save("pipeline", "0", "snapshot", 0, Collections.singletonList(batch));
+
+    try (Snapshot snapshot = snapshotStore.get("pipeline", "0", "snapshot")) {
+      for (int offset : new int[] {0, 99, 100, 199, 230}) {
+        SnapshotRecords page = snapshot.getRecords(0, "source", "lane", offset, 30);
+        Assert.assertEquals(250, page.getTotalCount());
+        Assert.assertEquals(Math.min(30, 250 - offset), page.getRecords().size());
+        for (int i = 0; i < page.getRecords().size(); i++) {
+          Assert.assertEquals("s:" + (offset + i), page.getRecords().get(i).getHeader().getSourceId());
+          Assert.assertEquals(offset + i, page.getRecords().get(i).get().getValueAsInteger());
+        }
+      }
+      Assert.assertTrue(snapshot.getRecords(0, "source", "lane", 250, 30).getRecords().isEmpty());
+    }
+  }
+
+  @Test
+  public void testZonedDateTimeRecords() throws PipelineException, IOException {
+    ZonedDateTime zonedDateTime = ZonedDateTime.of(2018, 6, 1, 10, 15, 30, 0, ZoneId.of("America/Los_Angeles"));
+    Record record = new RecordImpl("s", "s:0", null, null);
+    record.set(Field.create(Field.Type.ZONED_DATETIME, zonedDateTime));
+    List<StageOutput> batch = new ArrayList<>();
+    batch.add(new StageOutput(
+        "source",
+        Collections.singletonMap("lane", Collections.singletonList(record)),
+        new ErrorSink(),
+        new EventSink()
+    ));
+
+    snapshotStore.create("user", "pipeline", "0", "snapshot", "label");
+    snapshotStore.save("pipeline", "0", "snapshot", 0, Collections.singletonList(batch));
+
+    try (Snapshot snapshot = snapshotStore.get("pipeline", "0", "snapshot")) {
+      Record read = snapshot.getRecords(0, "source", "lane", 0, 10).getRecords().get(0);
+      Assert.assertEquals(Field.Type.ZONED_DATETIME, read.get().getType());
+      Assert.assertEquals(zonedDateTime, read.get().getValueAsZonedDateTime());
+
+      JsonNode value = ObjectMapperFactory.get().readTree(snapshot.getOutput())
+          .get("snapshotBatches").get(0).get(0).get("output").get("lane").get(0).get("value");
+      Assert.assertEquals(Field.Type.ZONED_DATETIME.name(), value.get("type").asText());
+    }
+
+    // the JSON representation is not kept once the snapshot is closed
+    File dataDir = new File(System.getProperty(RuntimeModule.SDC_PROPERTY_PREFIX + RuntimeInfo.DATA_DIR));
+    for (File file : FileUtils.listFiles(dataDir, null, true)) {
+      Assert.assertNotEquals("snapshot.json", file.getName());
+    }
+  }
+
 }
@@ -18,6 +18,8 @@ package com.streamsets.datacollector.execution.snapshot;
 import com.streamsets.datacollector.execution.Snapshot;
 import com.streamsets.datacollector.execution.SnapshotInfo;
 import com.streamsets.datacollector.execution.SnapshotStore;
+import com.streamsets.datacollector.execution.snapshot.common.SnapshotRecords;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.record.RecordImpl;
 import com.streamsets.datacollector.runner.ErrorSink;
 import com.streamsets.datacollector.runner.EventSink;
@@ -26,6 +28,7 @@ import com.streamsets.datacollector.util.PipelineException;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -216,6 +219,52 @@ public abstract class TestSnapshotStore {
 
   }
 
+  @Test
+  public void testGetRecords() throws PipelineException, IOException {
+    snapshotStore.create(USER, PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, SNAPSHOT_LABEL);
+    snapshotStore.save(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, 0, getSnapshotData());
+
+    try (Snapshot snapshot = snapshotStore.get(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID)) {
+      SnapshotRecords records = snapshot.getRecords(1, "source", "lane", 1, 10);
+      Assert.assertEquals(2, records.getTotalCount());
+      Assert.assertEquals(1, records.getOffset());
+      Assert.assertEquals(1, records.getRecords().size());
+      Assert.assertEquals("s:2", records.getRecords().get(0).getHeader().getSourceId());
+      Assert.assertEquals(2, records.getRecords().get(0).get().getValueAsInteger());
+
+      records = snapshot.getRecords(0, "processor", "lane", 0, 10);
+      Assert.assertEquals(1, records.getTotalCount());
+      Assert.assertEquals("s:3", records.getRecords().get(0).getHeader().getSourceId());
+
+      records = snapshot.getRecords(0, "processor", Snapshot.ERROR_RECORDS_LANE, 0, 10);
+      Assert.assertEquals(0, records.getTotalCount());
+      Assert.assertTrue(records.getRecords().isEmpty());
+
+      try {
+        snapshot.getRecords(0, "unknown", "lane", 0, 10);
+        Assert.fail();
+      } catch (PipelineException ex) {
+        //expected
+      }
+    }
+  }
+
+  @Test
+  public void testGetOutputAfterSave() throws PipelineException, IOException {
+    snapshotStore.create(USER, PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, SNAPSHOT_LABEL);
+    snapshotStore.save(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, 0, getSnapshotData());
+
+    for (int i = 0; i < 2; i++) {
+      try (Snapshot snapshot = snapshotStore.get(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID)) {
+        JsonNode batches = ObjectMapperFactory.get().readTree(snapshot.getOutput()).get("snapshotBatches");
+        Assert.assertEquals(2, batches.size());
+        Assert.assertEquals("source", batches.get(0).get(0).get("instanceName").asText());
+        Assert.assertEquals(2, batches.get(0).get(0).get("output").get("lane").size());
+        Assert.assertEquals(1, batches.get(1).get(1).get("output").get("lane").size());
+      }
+    }
+  }
+
   private List<List<StageOutput>> getSnapshotData() {
     List<List<StageOutput>> snapshotBatches = new ArrayList<>();
     snapshotBatches.add(createSnapshotData());
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.http;
+
+import com.codahale.metrics.MetricRegistry;
+import com.streamsets.datacollector.util.Configuration;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TestSharedHttpClient {
+  private Server server;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new Server(0);
+    ServletContextHandler context = new ServletContextHandler();
+    context.addServlet(new ServletHolder(new HttpServlet() {
+      @Override
+      protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        if (req.getHeader("X-Requested-By") == null) {
+          resp.sendError(HttpServletResponse.SC_FORBIDDEN);
+        } else {
+          resp.setStatus(HttpServletResponse.SC_OK);
+          resp.getWriter().write("ok");
+        }
+      }
+    }), "/ok");
+    context.setContextPath("/");
+    server.setHandler(context);
+    server.start();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    SharedHttpClient.reset();
+    server.stop();
+  }
+
+  @Test
+  public void testSharedClient() throws Exception {
+    MetricRegistry metrics = new MetricRegistry();
+    Configuration conf = new Configuration();
+    SharedHttpClient client = SharedHttpClient.get(metrics, conf);
+    Assert.assertSame(client, SharedHttpClient.get(new MetricRegistry(), conf));
+
+    String url = "http://localhost:" + server.getURI().getPort();
+    for (int i = 0; i < 3; i++) {
+      Response response = client.target(url + "/ok").request().post(Entity.text("data"));
+      try {
+        Assert.assertEquals(200, response.getStatus());
+      } finally {
+        response.close();
+      }
+    }
+    Response response = client.target(url + "/missing").request().post(Entity.text("data"));
+    Assert.assertEquals(404, response.getStatus());
+    response.close();
+
+    Map<String, Object> gaugeMap = client.getGaugeMap();
+    Assert.assertEquals(4L, ((AtomicLong) gaugeMap.get(SharedHttpClient.KEY_REQUESTS)).get());
+    Assert.assertEquals(4L, ((AtomicLong) gaugeMap.get(SharedHttpClient.KEY_RESPONSES)).get());
+    Assert.assertEquals(1L, ((AtomicLong) gaugeMap.get(SharedHttpClient.KEY_ERROR_RESPONSES)).get());
+    Assert.assertEquals(1, metrics.getGauges().size());
+  }
+
+}
@@ -35,6 +35,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -270,4 +272,31 @@ public  class TestRecordWriterReaderFactory {
     Assert.assertEquals(Field.Type.DATETIME, record.get("/dt").getType());
     Assert.assertEquals(date, record.get("/dt").getValueAsDatetime());
   }
+
+  @Test
+  public void testKryoZonedDateTime() throws IOException {
+    ZonedDateTime zonedDateTime = ZonedDateTime.of(2018, 3, 25, 2, 30, 15, 123456789, ZoneId.of("Europe/Paris"));
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    RecordWriter writer = RecordWriterReaderFactory.createRecordWriter(RecordEncoding.KRYO1, os);
+    RecordImpl record1 = new RecordImpl("stage", "source", null, null);
+    Map<String, Field> map = new HashMap<>();
+    map.put("zdt", Field.create(Field.Type.ZONED_DATETIME, zonedDateTime));
+    map.put("null", Field.create(Field.Type.ZONED_DATETIME, null));
+    record1.set(Field.create(map));
+    writer.write(record1);
+    writer.close();
+
+    InputStream is = new ByteArrayInputStream(os.toByteArray());
+    RecordReader reader = RecordWriterReaderFactory.createRecordReader(is, 0, 1000);
+    Assert.assertEquals(RecordEncoding.KRYO1.name(), reader.getEncoding());
+    Record record = reader.readRecord();
+
+    Assert.assertEquals(Field.Type.ZONED_DATETIME, record.get("/zdt").getType());
+    Assert.assertEquals(zonedDateTime, record.get("/zdt").getValueAsZonedDateTime());
+    Assert.assertEquals(zonedDateTime.getZone(), record.get("/zdt").getValueAsZonedDateTime().getZone());
+    Assert.assertEquals(Field.Type.ZONED_DATETIME, record.get("/null").getType());
+    Assert.assertNull(record.get("/null").getValue());
+    Assert.assertNull(reader.readRecord());
+  }
 }
@@ -43,6 +43,7 @@ import com.streamsets.datacollector.restapi.bean.ThresholdTypeJson;
 import com.streamsets.datacollector.runner.MockStages;
 import com.streamsets.datacollector.stagelibrary.StageLibraryTask;
 import com.streamsets.datacollector.store.AclStoreTask;
+import com.streamsets.datacollector.store.PipelineCatalog;
 import com.streamsets.datacollector.store.PipelineInfo;
 import com.streamsets.datacollector.store.PipelineStoreException;
 import com.streamsets.datacollector.store.PipelineStoreTask;
@@ -623,6 +624,14 @@ public class TestPipelineStoreResource extends JerseyTest {
                 readWriteExecute,
                 noPerm
             ));
+        Mockito.when(pipelineStore.queryPipelines(Mockito.any())).thenAnswer(invocation -> {
+          PipelineCatalog catalog = new PipelineCatalog();
+          for (PipelineInfo info : pipelineStore.getPipelines()) {
+            catalog.put(info, 0);
+            catalog.updateState(info.getPipelineId(), manager.getPipelineState(info.getPipelineId(), info.getLastRev()));
+          }
+          return catalog.query((PipelineCatalog.Query) invocation.getArguments()[0]);
+        });
 
         Mockito.when(pipelineStore.getInfo(Matchers.matches("xyz|myPipeline|newFromImport"))).thenReturn(
             new PipelineInfo(
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner.production;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.datacollector.main.RuntimeInfo;
+import com.streamsets.datacollector.main.RuntimeModule;
+import com.streamsets.datacollector.main.StandaloneRuntimeInfo;
+import com.streamsets.datacollector.util.PipelineDirectoryUtil;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TestOffsetJournal {
+  private static final String DATA_DIR = "./target/var-offset-journal";
+  private static final String REV = "0";
+
+  private RuntimeInfo runtimeInfo;
+
+  @BeforeClass
+  public static void beforeClass() {
+    System.setProperty(RuntimeModule.SDC_PROPERTY_PREFIX + RuntimeInfo.DATA_DIR, DATA_DIR);
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    System.getProperties().remove(RuntimeModule.SDC_PROPERTY_PREFIX + RuntimeInfo.DATA_DIR);
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    FileUtils.deleteQuietly(new File(DATA_DIR));
+    runtimeInfo = new StandaloneRuntimeInfo(
+        RuntimeModule.SDC_PROPERTY_PREFIX,
+        new MetricRegistry(),
+        Arrays.asList(TestOffsetJournal.class.getClassLoader())
+    );
+    for (String pipeline : Arrays.asList("p1", "p2", "p3", "p4")) {
+      Files.createDirectories(PipelineDirectoryUtil.getPipelineDir(runtimeInfo, pipeline, REV).toPath());
+      OffsetFileUtil.resetOffsets(runtimeInfo, pipeline, REV);
+    }
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    OffsetJournal journal = OffsetJournal.get(runtimeInfo);
+    if (journal != null) {
+      journal.close();
+    }
+  }
+
+  private OffsetJournal openJournal(long compactionIntervalMillis) throws Exception {
+    OffsetJournal journal = new OffsetJournal(runtimeInfo, compactionIntervalMillis, Long.MAX_VALUE);
+    journal.open();
+    runtimeInfo.setAttribute(OffsetJournal.RUNTIME_INFO_ATTRIBUTE, journal);
+    return journal;
+  }
+
+  private Map<String, String> readOffsetFile(String pipeline) throws Exception {
+    OffsetJournal journal = OffsetJournal.get(runtimeInfo);
+    runtimeInfo.removeAttribute(OffsetJournal.RUNTIME_INFO_ATTRIBUTE);
+    try {
+      return OffsetFileUtil.getOffsets(runtimeInfo, pipeline, REV);
+    } finally {
+      if (journal != null) {
+        runtimeInfo.setAttribute(OffsetJournal.RUNTIME_INFO_ATTRIBUTE, journal);
+      }
+    }
+  }
+
+  @Test
+  public void testCommitsAreServedFromJournalAndCompactedOnClose() throws Exception {
+    OffsetJournal journal = openJournal(Long.MAX_VALUE);
+
+    OffsetFileUtil.saveOffsets(runtimeInfo, "p1", REV, ImmutableMap.of("e", "1"));
+    OffsetFileUtil.saveOffsets(runtimeInfo, "p1", REV, ImmutableMap.of("e", "2"));
+    OffsetFileUtil.saveOffsets(runtimeInfo, "p2", REV, ImmutableMap.of("e", "3"));
+
+    Assert.assertEquals(ImmutableMap.of("e", "2"), OffsetFileUtil.getOffsets(runtimeInfo, "p1", REV));
+    Assert.assertEquals(ImmutableMap.of("e", "3"), OffsetFileUtil.getOffsets(runtimeInfo, "p2", REV));
+    Assert.assertTrue(journal.getJournalFile().length() > 0);
+    // Offset files are only rewritten on compaction
+    Assert.assertEquals(Collections.emptyMap(), readOffsetFile("p1"));
+
+    journal.close();
+    Assert.assertNull(OffsetJournal.get(runtimeInfo));
+    Assert.assertEquals(0, journal.getJournalFile().length());
+    Assert.assertEquals(ImmutableMap.of("e", "2"), OffsetFileUtil.getOffsets(runtimeInfo, "p1", REV));
+    Assert.assertEquals(ImmutableMap.of("e", "3"), OffsetFileUtil.getOffsets(runtimeInfo, "p2", REV));
+  }
+
+  @Test
+  public void testCommitsFailOnceWriterStopped() throws Exception {
+    OffsetJournal journal = openJournal(Long.MAX_VALUE);
+    journal.append("p1", REV, new SourceOffset(SourceOffset.CURRENT_VERSION, ImmutableMap.of("e", "1")));
+
+    journal.getWriter().interrupt();
+    journal.getWriter().join(10000);
+    Assert.assertFalse(journal.getWriter().isAlive());
+
+    try {
+      journal.append("p1", REV, new SourceOffset(SourceOffset.CURRENT_VERSION, ImmutableMap.of("e", "2")));
+      Assert.fail("Commit should fail once the writer has stopped");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("writer has stopped"));
+    }
+    Assert.assertEquals(ImmutableMap.of("e", "1"), journal.getLatest("p1", REV).getOffsets());
+
+    // the offsets written before the writer stopped are still compacted on close
+    journal.close();
+    Assert.assertEquals(ImmutableMap.of("e", "1"), OffsetFileUtil.getOffsets(runtimeInfo, "p1", REV));
+  }
+
+  @Test
+  public void testPeriodicCompaction() throws Exception {
+    OffsetJournal journal = openJournal(10);
+    OffsetFileUtil.saveOffsets(runtimeInfo, "p1", REV, ImmutableMap.of("e", "1"));
+
+    long deadline = System.currentTimeMillis() + 10000;
+    while (journal.getJournalFile().length() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assert.assertEquals(0, journal.getJournalFile().length());
+    Assert.assertEquals(ImmutableMap.of("e", "1"), readOffsetFile("p1"));
+  }
+
+  @Test
+  public void testRecoveryIgnoresTornRecord() throws Exception {
+    OffsetJournal journal = openJournal(Long.MAX_VALUE);
+    OffsetFileUtil.saveOffsets(runtimeInfo, "p1", REV, ImmutableMap.of("e", "1"));
+    OffsetFileUtil.saveOffsets(runtimeInfo, "p2", REV, ImmutableMap.of("e", "2"));
+    OffsetFileUtil.discardOffsets(runtimeInfo, "p2", REV);
+    byte[] journalContent = Files.readAllBytes(journal.getJournalFile().toPath());
+    journal.close();
+
+    // Simulate a crash: the offset files were never compacted and the last record was only partially written
+    OffsetFileUtil.resetOffsets(runtimeInfo, "p1", REV);
+    OffsetFileUtil.resetOffsets(runtimeInfo, "p2", REV);
+    Files.write(journal.getJournalFile().toPath(), journalContent);
+    Files.write(journal.getJournalFile().toPath(), new byte[] {0, 0, 1, 0, 1, 2}, StandardOpenOption.APPEND);
+
+    journal = openJournal(Long.MAX_VALUE);
+    Assert.assertEquals(0, journal.getJournalFile().length());
+    Assert.assertEquals(ImmutableMap.of("e", "1"), readOffsetFile("p1"));
+    // The discarded offset is not recovered
+    Assert.assertEquals(Collections.emptyMap(), readOffsetFile("p2"));
+  }
+
+  @Test
+  public void testConcurrentCommits() throws Exception {
+    openJournal(Long.MAX_VALUE);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (String pipeline : Arrays.asList("p1", "p2", "p3", "p4")) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i <= 100; i++) {
+            OffsetFileUtil.saveOffsets(runtimeInfo, pipeline, REV, ImmutableMap.of("e", String.valueOf(i)));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    OffsetJournal.get(runtimeInfo).close();
+    for (String pipeline : Arrays.asList("p1", "p2", "p3", "p4")) {
+      Assert.assertEquals(ImmutableMap.of("e", "100"), OffsetFileUtil.getOffsets(runtimeInfo, pipeline, REV));
+    }
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.store;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Files;
+import com.streamsets.datacollector.event.handler.remote.RemoteDataCollector;
+import com.streamsets.datacollector.execution.PipelineStatus;
+import com.streamsets.datacollector.execution.manager.PipelineStateImpl;
+import com.streamsets.datacollector.restapi.Order;
+import com.streamsets.datacollector.restapi.PipelineOrderByFields;
+import com.streamsets.pipeline.api.ExecutionMode;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class TestPipelineCatalog {
+  private PipelineCatalog catalog;
+
+  private static PipelineInfo info(String id, String title, long lastModified, Map<String, Object> metadata) {
+    return new PipelineInfo(id, title, "", new Date(0), new Date(lastModified), "creator", "modifier", "0",
+        UUID.randomUUID(), true, metadata, "x", "y");
+  }
+
+  private void state(String id, PipelineStatus status, ExecutionMode executionMode, boolean remote) {
+    catalog.updateState(id, new PipelineStateImpl("user", id, "0", status, "", 0,
+        ImmutableMap.of(RemoteDataCollector.IS_REMOTE_PIPELINE, remote), executionMode, null, 0, 0));
+  }
+
+  private static List<String> ids(PipelineCatalog.Page page) {
+    List<String> ids = new ArrayList<>();
+    for (PipelineCatalog.Entry entry : page.getEntries()) {
+      ids.add(entry.getPipelineId());
+    }
+    return ids;
+  }
+
+  @Before
+  public void setUp() {
+    catalog = new PipelineCatalog();
+    catalog.put(info("a", "Alpha", 3, ImmutableMap.of("labels", ImmutableList.of("prod"))), 1);
+    catalog.put(info("b", "Beta", 1, null), 1);
+    catalog.put(info("c", "Gamma", 2, ImmutableMap.of(PipelineCatalog.DPM_PIPELINE_ID, "c:1")), 1);
+    catalog.put(info("d", null, 4, null), 1);
+    state("a", PipelineStatus.RUNNING, ExecutionMode.STANDALONE, false);
+    state("b", PipelineStatus.RUN_ERROR, ExecutionMode.EDGE, false);
+    state("c", PipelineStatus.EDITED, ExecutionMode.STANDALONE, true);
+  }
+
+  @Test
+  public void testFilters() throws Exception {
+    Assert.assertEquals(ImmutableList.of("a", "b", "c", "d"), ids(catalog.query(new PipelineCatalog.Query())));
+    Assert.assertEquals(
+        ImmutableList.of("a", "b", "c"),
+        ids(catalog.query(new PipelineCatalog.Query().filterText("A")))
+    );
+    Assert.assertEquals(ImmutableList.of("a"), ids(catalog.query(new PipelineCatalog.Query().label("prod"))));
+    Assert.assertEquals(
+        ImmutableList.of("a"),
+        ids(catalog.query(new PipelineCatalog.Query().label(PipelineCatalog.SYSTEM_RUNNING_PIPELINES)))
+    );
+    Assert.assertEquals(
+        ImmutableList.of("b", "c", "d"),
+        ids(catalog.query(new PipelineCatalog.Query().label(PipelineCatalog.SYSTEM_NON_RUNNING_PIPELINES)))
+    );
+    Assert.assertEquals(
+        ImmutableList.of("b"),
+        ids(catalog.query(new PipelineCatalog.Query().label(PipelineCatalog.SYSTEM_ERROR_PIPELINES)))
+    );
+    Assert.assertEquals(
+        ImmutableList.of("b"),
+        ids(catalog.query(new PipelineCatalog.Query().label(PipelineCatalog.SYSTEM_EDGE_PIPELINES)))
+    );
+    Assert.assertEquals(
+        ImmutableList.of("c"),
+        ids(catalog.query(new PipelineCatalog.Query().label(PipelineCatalog.SYSTEM_DPM_CONTROLLED_PIPELINES)))
+    );
+    Assert.assertEquals(
+        ImmutableList.of("a", "b", "d"),
+        ids(catalog.query(new PipelineCatalog.Query().label(PipelineCatalog.SYSTEM_LOCAL_PIPELINES)))
+    );
+    Assert.assertEquals(
+        ImmutableList.of("a", "d"),
+        ids(catalog.query(new PipelineCatalog.Query().restrictTo(info -> !info.getPipelineId().matches("b|c"))))
+    );
+  }
+
+  @Test
+  public void testSorting() throws Exception {
+    PipelineCatalog.Query query = new PipelineCatalog.Query().orderBy(PipelineOrderByFields.TITLE).order(Order.DESC);
+    Assert.assertEquals(ImmutableList.of("d", "c", "b", "a"), ids(catalog.query(query)));
+
+    // most recently modified first
+    query = new PipelineCatalog.Query().orderBy(PipelineOrderByFields.LAST_MODIFIED);
+    Assert.assertEquals(ImmutableList.of("d", "a", "c", "b"), ids(catalog.query(query)));
+
+    // pipelines without state last
+    query = new PipelineCatalog.Query().orderBy(PipelineOrderByFields.STATUS);
+    Assert.assertEquals(ImmutableList.of("c", "a", "b", "d"), ids(catalog.query(query)));
+  }
+
+  @Test
+  public void testPaging() throws Exception {
+    PipelineCatalog.Page page = catalog.query(new PipelineCatalog.Query().offset(1).len(2));
+    Assert.assertEquals(ImmutableList.of("b", "c"), ids(page));
+    Assert.assertEquals(4, page.getTotalCount());
+
+    PipelineCatalog.Query query = new PipelineCatalog.Query().orderBy(PipelineOrderByFields.STATUS).len(2);
+    page = catalog.query(query);
+    Assert.assertEquals(ImmutableList.of("c", "a"), ids(page));
+    Assert.assertNotNull(page.getNextCursor());
+
+    // a pipeline added before the cursor does not shift the next page
+    catalog.put(info("0", "Zero", 0, null), 1);
+    state("0", PipelineStatus.EDITED, ExecutionMode.STANDALONE, false);
+    page = catalog.query(query.cursor(page.getNextCursor()));
+    Assert.assertEquals(ImmutableList.of("b", "d"), ids(page));
+    Assert.assertEquals(5, page.getTotalCount());
+    Assert.assertNull(page.getNextCursor());
+  }
+
+  @Test(expected = PipelineStoreException.class)
+  public void testCursorForDifferentOrder() throws Exception {
+    PipelineCatalog.Page page = catalog.query(new PipelineCatalog.Query().len(1));
+    catalog.query(new PipelineCatalog.Query().order(Order.DESC).cursor(page.getNextCursor()));
+  }
+
+  @Test
+  public void testSaveLoad() throws Exception {
+    File dir = Files.createTempDir();
+    try {
+      File file = new File(dir, "catalog.json");
+      catalog.save(file);
+      Map<String, PipelineCatalog.Entry> loaded = PipelineCatalog.load(file);
+      Assert.assertEquals(4, loaded.size());
+      Assert.assertEquals("Alpha", loaded.get("a").getInfo().getTitle());
+      Assert.assertEquals(PipelineStatus.RUNNING, loaded.get("a").getStatus());
+      Assert.assertEquals(ExecutionMode.EDGE, loaded.get("b").getExecutionMode());
+      Assert.assertTrue(loaded.get("c").isRemote());
+      Assert.assertNull(loaded.get("d").getStatus());
+      Assert.assertEquals(1, loaded.get("d").getInfoModified());
+
+      Assert.assertTrue(PipelineCatalog.load(new File(dir, "missing.json")).isEmpty());
+    } finally {
+      FileUtils.deleteQuietly(dir);
+    }
+  }
+}
@@ -30,6 +30,7 @@ import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.runner.MockStages;
 import com.streamsets.datacollector.runner.preview.StageConfigurationBuilder;
 import com.streamsets.datacollector.stagelibrary.StageLibraryTask;
+import com.streamsets.datacollector.store.PipelineCatalog;
 import com.streamsets.datacollector.store.PipelineInfo;
 import com.streamsets.datacollector.store.PipelineStoreException;
 import com.streamsets.datacollector.store.PipelineStoreTask;
@@ -47,6 +48,7 @@ import org.mockito.Mockito;
 
 import javax.annotation.Nullable;
 import javax.inject.Singleton;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -148,6 +150,36 @@ public class TestFilePipelineStoreTask {
     }
   }
 
+  @Test
+  public void testCatalog() throws Exception {
+    FilePipelineStoreTask fileStore = (FilePipelineStoreTask) ((CachePipelineStoreTask) store).getActualStore();
+    PipelineCatalog.Page page;
+    try {
+      store.init();
+      store.create("foo", "a", "Alpha", "A", false, false);
+      store.create("foo", "b", "Beta", "B", false, false);
+      page = store.queryPipelines(new PipelineCatalog.Query().filterText("bet"));
+      Assert.assertEquals(1, page.getTotalCount());
+      Assert.assertEquals("b", page.getEntries().get(0).getPipelineId());
+    } finally {
+      store.stop();
+    }
+    File catalogFile = fileStore.getStoreDir().resolve(FilePipelineStoreTask.CATALOG_FILE).toFile();
+    Assert.assertTrue(catalogFile.exists());
+    try {
+      store.init();
+      // the persisted catalog is only valid until the next clean stop
+      Assert.assertFalse(catalogFile.exists());
+      Assert.assertEquals(2, store.queryPipelines(new PipelineCatalog.Query()).getTotalCount());
+
+      store.save("foo2", "a", "A", "", store.load("a", "0"));
+      page = store.queryPipelines(new PipelineCatalog.Query().filterText("alpha"));
+      Assert.assertEquals("foo2", page.getEntries().get(0).getInfo().getLastModifier());
+    } finally {
+      store.stop();
+    }
+  }
+
   @Test(expected = PipelineStoreException.class)
   public void testCreateExistingPipeline() throws Exception {
     try {
@@ -56,6 +56,9 @@ public class DirectorySpooler {
   private final Comparator<WrappedFile> pathComparator;
   private final boolean processSubdirectories;
   private final long spoolingPeriodSec;
+  private final FileDiscoveryMode discoveryMode;
+  private final long reconciliationPeriodSec;
+  private final String catalogDir;
   private final WrappedFileSystem fs;
   private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
 
@@ -81,6 +84,9 @@ public class DirectorySpooler {
     private boolean useLastModifiedTimestamp;
     private boolean processSubdirectories;
     private long spoolingPeriodSec = 5;
+    private FileDiscoveryMode discoveryMode = FileDiscoveryMode.SCAN;
+    private long reconciliationPeriodSec = 300;
+    private String catalogDir;
     private WrappedFileSystem fs;
 
     private Builder() {
@@ -167,6 +173,23 @@ public class DirectorySpooler {
       return this;
     }
 
+    public Builder setDiscoveryMode(FileDiscoveryMode discoveryMode) {
+      this.discoveryMode = Preconditions.checkNotNull(discoveryMode, "discovery mode cannot be null");
+      return this;
+    }
+
+    public Builder setReconciliationPeriodSec(long reconciliationPeriodSec) {
+      Preconditions.checkArgument(reconciliationPeriodSec > 0, "reconciliation period must be greater than zero");
+      this.reconciliationPeriodSec = reconciliationPeriodSec;
+      return this;
+    }
+
+    public Builder setCatalogDir(String dir) {
+      this.catalogDir = Preconditions.checkNotNull(dir, "dir cannot be null");
+      Preconditions.checkArgument(new File(dir).isAbsolute(), Utils.formatL("dir '{}' must be an absolute path", dir));
+      return this;
+    }
+
     public Builder setWrappedFileSystem(WrappedFileSystem fs) {
       this.fs = fs;
       return this;
@@ -195,6 +218,9 @@ public class DirectorySpooler {
           useLastModifiedTimestamp,
           processSubdirectories,
           spoolingPeriodSec,
+          discoveryMode,
+          reconciliationPeriodSec,
+          catalogDir,
           fs
       );
     }
@@ -227,6 +253,9 @@ public class DirectorySpooler {
         false,
         processSubdirectories,
         5,
+        FileDiscoveryMode.SCAN,
+        300,
+        null,
         null
     );
   }
@@ -245,6 +274,9 @@ public class DirectorySpooler {
       final boolean useLastModified,
       boolean processSubdirectories,
       long spoolingPeriodSec,
+      FileDiscoveryMode discoveryMode,
+      long reconciliationPeriodSec,
+      String catalogDir,
       WrappedFileSystem fs
   ) {
     this.context = context;
@@ -260,6 +292,9 @@ public class DirectorySpooler {
     this.useLastModified = useLastModified;
     this.processSubdirectories = processSubdirectories;
     this.spoolingPeriodSec = spoolingPeriodSec;
+    this.discoveryMode = discoveryMode;
+    this.reconciliationPeriodSec = reconciliationPeriodSec;
+    this.catalogDir = catalogDir;
     this.fs = fs;
 
     pathComparator = fs.getComparator(useLastModified);
@@ -275,6 +310,8 @@ public class DirectorySpooler {
   private Set<WrappedFile> filesSet;
   private WrappedFile previousFile;
   private ScheduledExecutorService scheduledExecutor;
+  private DirectoryWatcher watcher;
+  private FileCatalog catalog;
   private boolean waitForPathAppearance;
 
   private Meter spoolQueueMeter;
@@ -337,6 +374,10 @@ public class DirectorySpooler {
 
       pendingFilesCounter = context.createCounter(PENDING_FILES);
 
+      if (catalogDir != null && !context.isPreview()) {
+        catalog = new FileCatalog(catalogDir);
+      }
+
       if (!waitForPathAppearance) {
         startSpooling(currentFile);
       }
@@ -354,12 +395,33 @@ public class DirectorySpooler {
       handleOlderFiles(currentFile);
     }
 
-    scheduledExecutor = new SafeScheduledExecutorService(1, "directory-dirspooler");
+    long scanPeriodSec = spoolingPeriodSec;
+    if (discoveryMode == FileDiscoveryMode.WATCH) {
+      if (fs.supportsWatchService()) {
+        // start watching before the initial scan, so that no file created in between is missed
+        watcher = new DirectoryWatcher(
+            spoolDir,
+            processSubdirectories && useLastModified,
+            this::queueWatchedFile,
+            this::reconcile
+        );
+        scanPeriodSec = reconciliationPeriodSec;
+      } else {
+        LOG.warn("File system of '{}' does not support notifications, scanning it every '{}' seconds", spoolDir,
+            spoolingPeriodSec
+        );
+      }
+    }
+
+    scheduledExecutor = new SafeScheduledExecutorService(watcher == null ? 1 : 2, "directory-dirspooler");
 
     findAndQueueFiles(true, false);
 
     finder = new FileFinder();
-    scheduledExecutor.scheduleAtFixedRate(finder, spoolingPeriodSec, spoolingPeriodSec, TimeUnit.SECONDS);
+    scheduledExecutor.scheduleAtFixedRate(finder, scanPeriodSec, scanPeriodSec, TimeUnit.SECONDS);
+    if (watcher != null) {
+      scheduledExecutor.submit(watcher);
+    }
 
     if (postProcessing == FilePostProcessing.ARCHIVE && archiveRetentionMillis > 0) {
       // create and schedule file purger only if the retention time is > 0
@@ -368,8 +430,31 @@ public class DirectorySpooler {
     }
   }
 
+  private void reconcile() {
+    ScheduledExecutorService executor = scheduledExecutor;
+    if (running && executor != null && finder != null) {
+      executor.submit(finder);
+    }
+  }
+
   public void destroy() {
     running = false;
+    try {
+      if (watcher != null) {
+        watcher.close();
+        watcher = null;
+      }
+    } catch (IOException ex) {
+      LOG.warn("Error while closing the directory watcher, {}", ex.toString(), ex);
+    }
+    try {
+      if (catalog != null) {
+        catalog.close();
+        catalog = null;
+      }
+    } catch (IOException ex) {
+      LOG.warn("Error while closing the file catalog, {}", ex.toString(), ex);
+    }
     try {
       if (scheduledExecutor != null) {
         scheduledExecutor.shutdownNow();
@@ -412,12 +497,14 @@ public class DirectorySpooler {
     switch (postProcessing) {
       case NONE:
         LOG.debug("Previous file '{}' remains in spool directory", file);
+        addToCatalog(file);
         break;
       case DELETE:
         try {
           if (fs.exists(file)) {
             LOG.debug("Deleting file '{}'", file);
             fs.delete(file);
+            removeFromCatalog(file);
           } else {
             LOG.error("failed to delete file '{}'", file);
           }
@@ -431,6 +518,7 @@ public class DirectorySpooler {
           if (fs.exists(file)) {
             LOG.debug("Archiving file '{}'", file);
             moveIt(file, archiveDirPath);
+            removeFromCatalog(file);
           } else {
             LOG.error("failed to Archive file '{}'", file);
           }
@@ -452,7 +540,9 @@ public class DirectorySpooler {
         LOG.warn("File cannot be added to the queue: " + file.toString());
       }
     }
-    if (!filesSet.contains(file)) {
+    if (isInCatalog(file)) {
+      LOG.debug("File '{}' already processed, ignoring", file);
+    } else if (!filesSet.contains(file)) {
       filesQueue.add(file);
       filesSet.add(file);
       spoolQueueMeter.mark(filesQueue.size());
@@ -487,14 +577,18 @@ public class DirectorySpooler {
 
     WrappedFile next = null;
 
-    LOG.debug("Polling for file, waiting '{}' ms", TimeUnit.MILLISECONDS.convert(wait, timeUnit));
+    long waitMillis = TimeUnit.MILLISECONDS.convert(wait, timeUnit);
+    LOG.debug("Polling for file, waiting '{}' ms", waitMillis);
 
     long initial = System.currentTimeMillis();
 
-    while (!context.isStopped() && System.currentTimeMillis() - initial < wait && next == null) {
+    while (!context.isStopped() && System.currentTimeMillis() - initial < waitMillis && next == null) {
+      // block on the queue instead of sleeping, so that files found by the watcher or the finder are picked up
+      // as soon as they are queued
+      long remaining = waitMillis - (System.currentTimeMillis() - initial);
+      next = filesQueue.poll(Math.max(0, Math.min(intervalMillis, remaining)), TimeUnit.MILLISECONDS);
       closeLock.readLock().lock();
       try {
-        next = filesQueue.poll();
         if (next != null) {
           filesSet.remove(next);
           break;
@@ -509,10 +603,6 @@ public class DirectorySpooler {
 
         closeLock.readLock().unlock();
       }
-
-      if (next == null) {
-        Thread.sleep(intervalMillis);
-      }
     }
 
     pendingFilesCounter.inc(filesQueue.size() - pendingFilesCounter.getCount());
@@ -520,17 +610,94 @@ public class DirectorySpooler {
   }
 
   public void handleCurrentFileAsError() throws IOException {
-    if (errorArchiveDirPath != null && !context.isPreview()) {
-      WrappedFile current = previousFile;//spoolDirPath.resolve(previousFile);
-      LOG.error("Archiving file in error '{}' in error archive directory '{}'", previousFile, errorArchiveDirPath);
-      moveIt(current, errorArchiveDirPath);
+    if (handleFileAsError(previousFile)) {
       // we need to set the currentFile to null because we just moved to error.
       previousFile = null;
+    }
+  }
+
+  /**
+   * Moves the given file to the error archive directory if there is one, returns true if the file was moved.
+   */
+  public boolean handleFileAsError(WrappedFile file) throws IOException {
+    if (errorArchiveDirPath != null && !context.isPreview()) {
+      LOG.error("Archiving file in error '{}' in error archive directory '{}'", file, errorArchiveDirPath);
+      moveIt(file, errorArchiveDirPath);
+      removeFromCatalog(file);
+      return true;
     } else {
-      LOG.error("Leaving file in error '{}' in spool directory", currentFile);
+      LOG.error("Leaving file in error '{}' in spool directory", file);
+      if (!context.isPreview()) {
+        addToCatalog(file);
+      }
+      return false;
+    }
+  }
+
+  private void addToCatalog(WrappedFile file) {
+    FileCatalog catalog = this.catalog;
+    if (catalog != null && file != null) {
+      try {
+        catalog.markProcessed(file.getAbsolutePath(), fs.getLastModifiedTime(file));
+      } catch (IOException ex) {
+        LOG.warn("Could not add file '{}' to the file catalog, {}", file, ex.toString(), ex);
+      }
+    }
+  }
+
+  /**
+   * Drops a file that is not in the spool directory anymore from the catalog, a new file with the same name is not
+   * skipped even if it has the same last modified time.
+   */
+  private void removeFromCatalog(WrappedFile file) {
+    FileCatalog catalog = this.catalog;
+    if (catalog != null) {
+      try {
+        catalog.forget(file.getAbsolutePath());
+      } catch (IOException ex) {
+        LOG.warn("Could not remove file '{}' from the file catalog, {}", file, ex.toString(), ex);
+      }
+    }
+  }
+
+  private boolean isInCatalog(WrappedFile file) {
+    FileCatalog catalog = this.catalog;
+    if (catalog == null) {
+      return false;
+    }
+    try {
+      return catalog.isProcessed(file.getAbsolutePath(), fs.getLastModifiedTime(file));
+    } catch (IOException ex) {
+      LOG.debug("Could not read the last modified time of file '{}', {}", file, ex.toString());
+      return false;
     }
   }
 
+  /**
+   * Queues a file reported by the directory watcher, applying the same checks as the directory scans.
+   */
+  private void queueWatchedFile(String path) {
+    WrappedFile file = fs.getFile(path);
+    if (!running || !fs.patternMatches(file.getFileName()) || !fs.exists(file) || fs.isDirectory(file)) {
+      return;
+    }
+    closeLock.writeLock().lock();
+    try {
+      if (currentFile != null && !StringUtils.isEmpty(currentFile.toString())
+          && fs.compare(file, currentFile, useLastModified) <= 0) {
+        LOG.debug("Ignoring file '{}' that is older than the current file '{}'", file, currentFile);
+        return;
+      }
+      LOG.trace("Watcher found file '{}'", file);
+      addFileToQueue(file, false);
+    } catch (RuntimeException ex) {
+      LOG.warn("Could not queue file '{}', relying on directory scans: {}", file, ex.toString(), ex);
+    } finally {
+      closeLock.writeLock().unlock();
+    }
+    pendingFilesCounter.inc(filesQueue.size() - pendingFilesCounter.getCount());
+  }
+
   private void moveIt(WrappedFile file, WrappedFile destinationRoot) throws IOException {
     // wipe out base of the path - leave subdirectory portion in place.
     String f = file.toString().replaceFirst(spoolDirPath.toString(), "");
@@ -635,6 +802,7 @@ public class DirectorySpooler {
             if (fs.patternMatches(p.getFileName())) {
               if (fs.exists(p)) {
                 fs.delete(p);
+                removeFromCatalog(p);
                 LOG.debug("Deleting old file '{}'", p);
               } else {
                 LOG.debug("The old file '{}' does not exist", p);
@@ -647,6 +815,7 @@ public class DirectorySpooler {
             if (fs.patternMatches(p.getFileName())) {
               if (fs.exists(p)) {
                 moveIt(p, archiveDirPath);
+                removeFromCatalog(p);
                 LOG.debug("Archiving old file '{}'", p);
               } else {
                 LOG.debug("The old file '{}' does not exist", p);
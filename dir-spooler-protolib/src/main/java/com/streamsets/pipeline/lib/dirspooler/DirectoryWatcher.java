@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.dirspooler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches the spool directory (and its subdirectories when requested) for created and modified files.
+ *
+ * A file is reported once no event has been received for it during {@link #SETTLE_MILLIS}, so that files that are
+ * still being written are not picked up half way. Directories created while watching are registered and walked, as
+ * files may have been written into them before the registration. When the watch service overflows, events have been
+ * lost and the overflow callback is expected to run a full directory scan.
+ */
+class DirectoryWatcher implements Runnable, Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(DirectoryWatcher.class);
+
+  static final long SETTLE_MILLIS = 200;
+
+  private final Path root;
+  private final boolean recursive;
+  private final Consumer<String> onFile;
+  private final Runnable onOverflow;
+  private final WatchService watchService;
+  private final Map<WatchKey, Path> directories = new HashMap<>();
+  private final Map<Path, Long> pending = new LinkedHashMap<>();
+
+  private volatile boolean running;
+
+  DirectoryWatcher(String root, boolean recursive, Consumer<String> onFile, Runnable onOverflow) throws IOException {
+    this.root = Paths.get(root);
+    this.recursive = recursive;
+    this.onFile = onFile;
+    this.onOverflow = onOverflow;
+    this.watchService = FileSystems.getDefault().newWatchService();
+    register(this.root, false);
+  }
+
+  @Override
+  public void run() {
+    running = true;
+    LOG.debug("Watching directory '{}' for new files", root);
+    try {
+      while (running) {
+        WatchKey key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+        while (key != null) {
+          handleEvents(key);
+          key = watchService.poll();
+        }
+        reportSettledFiles();
+      }
+    } catch (InterruptedException | ClosedWatchServiceException ex) {
+      LOG.debug("Stopped watching directory '{}'", root);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    running = false;
+    watchService.close();
+  }
+
+  private void handleEvents(WatchKey key) {
+    Path dir = directories.get(key);
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+        LOG.warn("Lost file system events while watching directory '{}', scanning it", root);
+        onOverflow.run();
+        continue;
+      }
+      if (dir == null) {
+        continue;
+      }
+      Path path = dir.resolve((Path) event.context());
+      if (Files.isDirectory(path)) {
+        if (recursive && event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+          try {
+            register(path, true);
+          } catch (IOException ex) {
+            LOG.warn("Error while watching new directory '{}', relying on directory scans: {}", path, ex.toString(), ex);
+          }
+        }
+      } else {
+        pending.put(path, System.currentTimeMillis());
+      }
+    }
+    if (!key.reset()) {
+      directories.remove(key);
+    }
+  }
+
+  private void reportSettledFiles() {
+    long threshold = System.currentTimeMillis() - SETTLE_MILLIS;
+    Iterator<Map.Entry<Path, Long>> it = pending.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<Path, Long> entry = it.next();
+      if (entry.getValue() < threshold) {
+        it.remove();
+        onFile.accept(entry.getKey().toString());
+      }
+    }
+  }
+
+  private void register(Path dir, boolean reportFiles) throws IOException {
+    if (!recursive) {
+      directories.put(watch(dir), dir);
+      return;
+    }
+    Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes attributes) throws IOException {
+        directories.put(watch(path), path);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFile(Path path, BasicFileAttributes attributes) {
+        if (reportFiles) {
+          pending.put(path, System.currentTimeMillis());
+        }
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  private WatchKey watch(Path dir) throws IOException {
+    return dir.register(
+        watchService,
+        StandardWatchEventKinds.ENTRY_CREATE,
+        StandardWatchEventKinds.ENTRY_MODIFY
+    );
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.dirspooler;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * On-disk catalog of the files that have been processed and left in the spool directory, with the last modified
+ * time they had when they were processed.
+ *
+ * The catalog is an append-only journal with one line per change ({@code +<mtime> <path>} when a file is processed,
+ * {@code -0 <path>} when it is deleted or moved out of the spool directory) that is replayed on startup and rewritten,
+ * dropping the files that no longer exist, once it holds too many obsolete lines. Changes after {@link #close()} fail.
+ */
+public class FileCatalog implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(FileCatalog.class);
+
+  static final String CATALOG_FILE = "file-catalog.log";
+  static final int MIN_LINES_TO_COMPACT = 1000;
+
+  private final Path journal;
+  private final Map<String, Long> processed = new HashMap<>();
+  private BufferedWriter writer;
+  private int lines;
+  private boolean closed;
+
+  public FileCatalog(String catalogDir) throws IOException {
+    this.journal = Paths.get(catalogDir, CATALOG_FILE);
+    load();
+    compact();
+  }
+
+  /**
+   * Tells whether or not the file was already processed with the given last modified time.
+   */
+  public synchronized boolean isProcessed(String path, long lastModified) {
+    Long mtime = processed.get(path);
+    return mtime != null && mtime == lastModified;
+  }
+
+  public synchronized void markProcessed(String path, long lastModified) throws IOException {
+    checkOpen();
+    processed.put(path, lastModified);
+    append('+', lastModified, path);
+  }
+
+  public synchronized void forget(String path) throws IOException {
+    checkOpen();
+    if (processed.remove(path) != null) {
+      append('-', 0, path);
+    }
+  }
+
+  @VisibleForTesting
+  synchronized int size() {
+    return processed.size();
+  }
+
+  @VisibleForTesting
+  synchronized int lines() {
+    return lines;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    closed = true;
+    closeWriter();
+  }
+
+  private void checkOpen() throws IOException {
+    if (closed) {
+      throw new IOException("File catalog '" + journal + "' is closed");
+    }
+  }
+
+  private void closeWriter() throws IOException {
+    if (writer != null) {
+      writer.close();
+      writer = null;
+    }
+  }
+
+  private void load() throws IOException {
+    if (!Files.exists(journal)) {
+      return;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        int separator = line.indexOf(' ');
+        try {
+          String path = line.substring(separator + 1);
+          long lastModified = Long.parseLong(line.substring(1, separator));
+          if (line.charAt(0) == '+') {
+            processed.put(path, lastModified);
+          } else {
+            processed.remove(path);
+          }
+          lines++;
+        } catch (IndexOutOfBoundsException | NumberFormatException ex) {
+          // Partially written last line, the change was never acknowledged.
+          LOG.warn("Ignoring invalid line '{}' in file catalog '{}'", line, journal);
+        }
+      }
+    }
+    LOG.debug("Loaded {} processed files from file catalog '{}'", processed.size(), journal);
+  }
+
+  private void append(char operation, long lastModified, String path) throws IOException {
+    if (lines >= MIN_LINES_TO_COMPACT && lines > 2 * processed.size()) {
+      compact();
+    }
+    writer.write(operation);
+    writer.write(Long.toString(lastModified));
+    writer.write(' ');
+    writer.write(path);
+    writer.newLine();
+    writer.flush();
+    lines++;
+  }
+
+  /**
+   * Rewrites the journal with one line per processed file that still exists.
+   */
+  private void compact() throws IOException {
+    closeWriter();
+    processed.keySet().removeIf(path -> !Files.exists(Paths.get(path)));
+    Path tmp = journal.resolveSibling(CATALOG_FILE + ".tmp");
+    try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+      for (Map.Entry<String, Long> entry : processed.entrySet()) {
+        out.write('+');
+        out.write(Long.toString(entry.getValue()));
+        out.write(' ');
+        out.write(entry.getKey());
+        out.newLine();
+      }
+    }
+    Files.move(tmp, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    lines = processed.size();
+    writer = Files.newBufferedWriter(journal, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+  }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.dirspooler;
+
+import com.streamsets.pipeline.lib.parser.DataParser;
+import com.streamsets.pipeline.lib.parser.DataParserException;
+import com.streamsets.pipeline.lib.parser.DataParserFactory;
+import org.apache.commons.io.input.BoundedInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Large line-delimited file divided into byte ranges that start right after a line separator, so that the ranges
+ * can be parsed concurrently by the origin's threads.
+ *
+ * The progress of all the ranges is committed as the offset of the file, in the form
+ * {@code split:<start>-<end>=<offset>,...}, where the offset is the parser offset within the range, or -1 once the
+ * range has been fully read. As parser offsets are relative to their range, the ID of the records of a range is
+ * {@code <file name>::<range start>::<offset>} so that records of different ranges do not share IDs.
+ */
+public class SplitFile {
+  static final String SPLIT_PREFIX = "split:";
+  private static final String MINUS_ONE = "-1";
+  private static final String ZERO = "0";
+
+  private final WrappedFile file;
+  private final String key;
+  private final List<Range> ranges;
+
+  private boolean failed;
+  private boolean finished;
+  private long recordCount;
+  private long errorCount;
+
+  private SplitFile(WrappedFile file, String key, List<Range> ranges) {
+    this.file = file;
+    this.key = key;
+    this.ranges = ranges;
+  }
+
+  public static boolean isSplitOffset(String offset) {
+    return offset != null && offset.startsWith(SPLIT_PREFIX);
+  }
+
+  /**
+   * Tells whether or not the given offset is the offset of a split file whose ranges have all been read.
+   */
+  public static boolean isFinished(String offset) {
+    if (!isSplitOffset(offset)) {
+      return false;
+    }
+    for (String range : offset.substring(SPLIT_PREFIX.length()).split(",")) {
+      if (!range.endsWith("=" + MINUS_ONE)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Divides the file in ranges of about the given size, each range ending right after a line separator.
+   */
+  static SplitFile plan(WrappedFile file, String key, long rangeSize) throws IOException {
+    long size = file.getSize();
+    List<Range> ranges = new ArrayList<>();
+    try (InputStream is = new BufferedInputStream(file.getInputStream())) {
+      long position = 0;
+      long start = 0;
+      while (start < size) {
+        long nominalEnd = start + rangeSize;
+        if (nominalEnd >= size) {
+          ranges.add(new Range(start, size, ZERO));
+          break;
+        }
+        position += skipFully(is, nominalEnd - 1 - position);
+        int b;
+        while ((b = is.read()) != -1) {
+          position++;
+          if (b == '\n') {
+            break;
+          }
+        }
+        ranges.add(new Range(start, Math.min(position, size), ZERO));
+        start = position;
+      }
+    }
+    return attach(new SplitFile(file, key, ranges));
+  }
+
+  /**
+   * Rebuilds the ranges and their progress from the committed offset of the file.
+   */
+  static SplitFile restore(WrappedFile file, String key, String offset) {
+    List<Range> ranges = new ArrayList<>();
+    for (String range : offset.substring(SPLIT_PREFIX.length()).split(",")) {
+      int dash = range.indexOf('-');
+      int equals = range.indexOf('=');
+      ranges.add(new Range(
+          Long.parseLong(range.substring(0, dash)),
+          Long.parseLong(range.substring(dash + 1, equals)),
+          range.substring(equals + 1)
+      ));
+    }
+    return attach(new SplitFile(file, key, ranges));
+  }
+
+  private static SplitFile attach(SplitFile splitFile) {
+    for (Range range : splitFile.ranges) {
+      range.splitFile = splitFile;
+    }
+    return splitFile;
+  }
+
+  public WrappedFile getFile() {
+    return file;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public List<Range> getRanges() {
+    return Collections.unmodifiableList(ranges);
+  }
+
+  public synchronized boolean isFailed() {
+    return failed;
+  }
+
+  public synchronized long getRecordCount() {
+    return recordCount;
+  }
+
+  public synchronized long getErrorCount() {
+    return errorCount;
+  }
+
+  /**
+   * Returns a range that is neither fully read nor being read by another thread, null if there is none.
+   */
+  synchronized Range claim() {
+    if (failed) {
+      return null;
+    }
+    for (Range range : ranges) {
+      if (!range.claimed && !MINUS_ONE.equals(range.offset)) {
+        range.claimed = true;
+        return range;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the composite offset of the file.
+   */
+  public synchronized String getOffset() {
+    return getOffset(null, null);
+  }
+
+  /**
+   * Returns the composite offset of the file, with the given offset for the given range and the committed offsets
+   * for the others.
+   */
+  public synchronized String getOffset(Range range, String rangeOffset) {
+    StringBuilder sb = new StringBuilder(SPLIT_PREFIX);
+    for (int i = 0; i < ranges.size(); i++) {
+      Range r = ranges.get(i);
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append(r.start).append('-').append(r.end).append('=').append(r == range ? rangeOffset : r.offset);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Records the progress of a range once its batch has been processed. Returns true if the file has been fully read
+   * with this call, in which case the caller is the one finishing the file.
+   */
+  public synchronized boolean commit(Range range, String rangeOffset, long records, long errors) {
+    range.offset = rangeOffset;
+    recordCount += records;
+    errorCount += errors;
+    if (MINUS_ONE.equals(rangeOffset)) {
+      range.claimed = false;
+    }
+    return checkFinished();
+  }
+
+  /**
+   * Marks the file as failed, no more ranges are handed out. Returns true if no other thread is reading the file.
+   */
+  public synchronized boolean fail(Range range) {
+    failed = true;
+    return release(range);
+  }
+
+  /**
+   * Gives up the given range. Returns true if the file has failed and no other thread is reading it.
+   */
+  public synchronized boolean release(Range range) {
+    range.claimed = false;
+    return checkFinished();
+  }
+
+  private boolean checkFinished() {
+    if (finished) {
+      return false;
+    }
+    for (Range range : ranges) {
+      if (failed ? range.claimed : !MINUS_ONE.equals(range.offset)) {
+        return false;
+      }
+    }
+    finished = true;
+    return true;
+  }
+
+  /**
+   * Returns a parser that reads the given range from the given parser offset within the range. The range start is
+   * part of the reader ID, hence of the record IDs, as the parser offsets of each range start at zero.
+   */
+  DataParser openParser(DataParserFactory parserFactory, Range range, String offset)
+      throws IOException, DataParserException {
+    InputStream is = file.getInputStream();
+    try {
+      skipFully(is, range.start);
+    } catch (IOException ex) {
+      is.close();
+      throw ex;
+    }
+    return parserFactory.getParser(
+        getReaderId(range),
+        new BoundedInputStream(is, range.end - range.start),
+        offset
+    );
+  }
+
+  private String getReaderId(Range range) {
+    return file.getFileName() + "::" + range.start;
+  }
+
+  private static long skipFully(InputStream is, long bytes) throws IOException {
+    long remaining = bytes;
+    while (remaining > 0) {
+      long skipped = is.skip(remaining);
+      if (skipped <= 0) {
+        if (is.read() == -1) {
+          throw new EOFException("Unexpected end of file while skipping to the start of the range");
+        }
+        skipped = 1;
+      }
+      remaining -= skipped;
+    }
+    return bytes;
+  }
+
+  /**
+   * Byte range of the file, from a line start (inclusive) to a line start or the end of the file (exclusive).
+   */
+  public static class Range {
+    private final long start;
+    private final long end;
+    private SplitFile splitFile;
+    private String offset;
+    private boolean claimed;
+
+    private Range(long start, long end, String offset) {
+      this.start = start;
+      this.end = end;
+      this.offset = offset;
+    }
+
+    public SplitFile getSplitFile() {
+      return splitFile;
+    }
+
+    public long getStart() {
+      return start;
+    }
+
+    public long getEnd() {
+      return end;
+    }
+
+    public String getOffset() {
+      synchronized (splitFile) {
+        return offset;
+      }
+    }
+
+    @Override
+    public String toString() {
+      return start + "-" + end;
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.dirspooler;
+
+import com.streamsets.pipeline.config.Compression;
+import com.streamsets.pipeline.config.CsvHeader;
+import com.streamsets.pipeline.config.DataFormat;
+import com.streamsets.pipeline.config.JsonMode;
+import com.streamsets.pipeline.config.OnParseError;
+import com.streamsets.pipeline.stage.origin.lib.DataParserFormatConfig;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Split files being read by the origin's threads. A thread that needs a new file first claims a range of a split
+ * file, and only polls the directory spooler when there is none left.
+ */
+public class SplitFileQueue {
+  // ranges per thread, so that threads busy with other files don't leave the split file waiting for one big range
+  private static final int RANGES_PER_THREAD = 4;
+  private static final String ZERO = "0";
+
+  private final long splitSize;
+  private final int numberOfThreads;
+  private final List<SplitFile> splitFiles = new ArrayList<>();
+  private String lastFinishedKey;
+
+  public SplitFileQueue(long splitSize, int numberOfThreads) {
+    this.splitSize = splitSize;
+    this.numberOfThreads = numberOfThreads;
+  }
+
+  /**
+   * Returns the reason why files with the given data format configuration can't be split, null if they can.
+   */
+  public static String getUnsupportedReason(DataFormat dataFormat, DataParserFormatConfig dataFormatConfig) {
+    if (dataFormatConfig.compression != Compression.NONE) {
+      return "compressed files can't be split";
+    }
+    switch (dataFormat) {
+      case TEXT:
+        break;
+      case JSON:
+        if (dataFormatConfig.jsonContent != JsonMode.MULTIPLE_OBJECTS) {
+          return "JSON content must be multiple JSON objects";
+        }
+        break;
+      case DELIMITED:
+        if (dataFormatConfig.csvHeader != CsvHeader.NO_HEADER || dataFormatConfig.csvSkipStartLines > 0) {
+          return "delimited files must have no header line";
+        }
+        break;
+      case LOG:
+        if (dataFormatConfig.onParseError == OnParseError.INCLUDE_AS_STACK_TRACE) {
+          return "log lines can't be included as stack traces";
+        }
+        break;
+      default:
+        return "only text, JSON objects, delimited and log files can be split";
+    }
+    Charset charset = Charset.forName(dataFormatConfig.charset);
+    if (!charset.equals(StandardCharsets.UTF_8) && charset.newEncoder().maxBytesPerChar() > 1) {
+      return "line separators can't be found in the bytes of charset " + charset.name();
+    }
+    return null;
+  }
+
+  /**
+   * Registers the file as a split file if it is resumed from a split offset, or if it is read from the beginning and
+   * is large enough to be split. Returns null if the file has to be read as a whole.
+   */
+  public SplitFile split(WrappedFile file, String key, String offset) throws IOException {
+    SplitFile splitFile;
+    if (SplitFile.isSplitOffset(offset)) {
+      splitFile = SplitFile.restore(file, key, offset);
+    } else if (splitSize > 0 && ZERO.equals(offset) && file.getSize() > splitSize) {
+      long rangeSize = Math.max(splitSize, file.getSize() / (RANGES_PER_THREAD * numberOfThreads));
+      splitFile = SplitFile.plan(file, key, rangeSize);
+      if (splitFile.getRanges().size() < 2) {
+        return null;
+      }
+    } else {
+      return null;
+    }
+    synchronized (this) {
+      splitFiles.add(splitFile);
+    }
+    return splitFile;
+  }
+
+  /**
+   * Returns a range of a split file that nobody is reading, null if there is none.
+   */
+  public synchronized SplitFile.Range claim() {
+    for (SplitFile splitFile : splitFiles) {
+      SplitFile.Range range = splitFile.claim();
+      if (range != null) {
+        return range;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Removes a finished split file. Returns the key of the previously finished split file, whose offset is no longer
+   * needed, or null.
+   */
+  public synchronized String finish(SplitFile splitFile) {
+    splitFiles.remove(splitFile);
+    String previous = lastFinishedKey;
+    lastFinishedKey = splitFile.getKey();
+    return previous == null || previous.equals(lastFinishedKey) ? null : previous;
+  }
+}
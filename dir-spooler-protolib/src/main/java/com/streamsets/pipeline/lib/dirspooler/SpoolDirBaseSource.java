@@ -53,6 +53,7 @@ public abstract class SpoolDirBaseSource extends BasePushSource {
   private int numberOfThreads;
   private ExecutorService executorService;
   private WrappedFileSystem fs;
+  private SplitFileQueue splitFiles;
 
   abstract public WrappedFileSystem getFs();
 
@@ -122,6 +123,27 @@ public abstract class SpoolDirBaseSource extends BasePushSource {
 
     validateInitialFileToProcess(issues);
 
+    if (conf.splitSizeMB > 0) {
+      String reason = SplitFileQueue.getUnsupportedReason(conf.dataFormat, conf.dataFormatConfig);
+      if (reason != null) {
+        issues.add(getContext().createConfigIssue(
+            GROUP_FILE_CONFIG_NAME,
+            SPOOLDIR_CONFIG_BEAN_PREFIX + "splitSizeMB",
+            Errors.SPOOLDIR_36,
+            reason
+        ));
+      }
+    }
+
+    if (conf.catalogDir != null && !conf.catalogDir.isEmpty()) {
+      validateDir(conf.catalogDir,
+          GROUP_FILE_CONFIG_NAME,
+          SPOOLDIR_CONFIG_BEAN_PREFIX + "catalogDir",
+          issues,
+          true
+      );
+    }
+
     if (conf.errorArchiveDir != null && !conf.errorArchiveDir.isEmpty()) {
       validateDir(conf.errorArchiveDir,
           GROUPS_POST_PROCESSING_CONFIG_NAME,
@@ -177,7 +199,9 @@ public abstract class SpoolDirBaseSource extends BasePushSource {
           .setPostProcessing(DirectorySpooler.FilePostProcessing.valueOf(conf.postProcessing.name()))
           .waitForPathAppearance(waitForPathToBePresent)
           .processSubdirectories(conf.processSubdirectories)
-          .setSpoolingPeriodSec(conf.spoolingPeriod);
+          .setSpoolingPeriodSec(conf.spoolingPeriod)
+          .setDiscoveryMode(conf.discoveryMode)
+          .setReconciliationPeriodSec(conf.reconciliationPeriod);
 
       if (conf.postProcessing == PostProcessingOptions.ARCHIVE) {
         builder.setArchiveDir(conf.archiveDir);
@@ -186,12 +210,17 @@ public abstract class SpoolDirBaseSource extends BasePushSource {
       if (conf.errorArchiveDir != null && !conf.errorArchiveDir.isEmpty()) {
         builder.setErrorArchiveDir(conf.errorArchiveDir);
       }
+      if (conf.catalogDir != null && !conf.catalogDir.isEmpty()) {
+        builder.setCatalogDir(conf.catalogDir);
+      }
       builder.setPathMatcherMode(conf.pathMatcherMode);
       builder.setContext(getContext());
       this.useLastModified = conf.useLastModified == FileOrdering.TIMESTAMP;
       builder.setUseLastModifiedTimestamp(useLastModified);
       spooler = builder.build();
       spooler.init(conf.initialFileToProcess);
+      // always created, files resumed from a split offset are read as split files even if splitting was disabled
+      splitFiles = new SplitFileQueue(conf.splitSizeMB * 1024L * 1024L, numberOfThreads);
     }
 
     return issues;
@@ -364,6 +393,7 @@ public abstract class SpoolDirBaseSource extends BasePushSource {
         .spooler(getSpooler())
         .conf(conf)
         .wrappedFileSystem(getFs())
+        .splitFiles(splitFiles)
         .build();
   }
 }
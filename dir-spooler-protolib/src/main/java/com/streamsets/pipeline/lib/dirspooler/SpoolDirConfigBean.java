@@ -61,6 +61,20 @@ public class SpoolDirConfigBean {
   )
   public int numberOfThreads = 1;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "0",
+      label = "Split Files Larger Than (MB)",
+      description = "Reads uncompressed text, JSON objects, delimited and log files larger than this size with " +
+          "multiple threads, each thread reading a range of lines. Records must not span multiple lines. " +
+          "A value of zero reads each file with a single thread.",
+      displayPosition = 12,
+      group = "FILES",
+      min = 0
+  )
+  public int splitSizeMB = 0;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.MODEL,
@@ -186,6 +200,45 @@ public class SpoolDirConfigBean {
   )
   public long spoolingPeriod = 5;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.MODEL,
+      defaultValue = "SCAN",
+      label = "File Discovery",
+      description = "How new files are discovered. File system notifications pick up new files as soon as they are " +
+          "written and fall back to periodic scans when the file system does not support them.",
+      displayPosition = 62,
+      group = "FILES"
+  )
+  @ValueChooserModel(FileDiscoveryModeChooserValues.class)
+  public FileDiscoveryMode discoveryMode = FileDiscoveryMode.SCAN;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "300",
+      label = "Reconciliation Period (secs)",
+      description = "Time between full directory scans that pick up files missed by the file system notifications",
+      displayPosition = 63,
+      group = "FILES",
+      dependsOn = "discoveryMode",
+      triggeredByValue = "WATCH",
+      min = 1,
+      max = Integer.MAX_VALUE
+  )
+  public long reconciliationPeriod = 300;
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.STRING,
+      label = "File Catalog Directory",
+      description = "Directory where the origin keeps the catalog of processed files, so that directory scans and " +
+          "restarts skip them. Use a different directory for each pipeline. Leave empty to not keep a catalog.",
+      displayPosition = 64,
+      group = "FILES"
+  )
+  public String catalogDir;
+
   @ConfigDef(
       required = false,
       type = ConfigDef.Type.STRING,
@@ -76,6 +76,7 @@ public class SpoolDirRunnable implements Runnable {
   private final Map<String, Object> gaugeMap;
   private final boolean useLastModified;
   private final WrappedFileSystem fs;
+  private final SplitFileQueue splitFiles;
 
   private DataParser parser;
   private SpoolDirConfigBean conf;
@@ -96,6 +97,7 @@ public class SpoolDirRunnable implements Runnable {
   private ErrorRecordHandler errorRecordHandler;
 
   private WrappedFile currentFile;
+  private SplitFile.Range splitRange;
 
   public SpoolDirRunnable(
       PushSource.Context context,
@@ -106,6 +108,20 @@ public class SpoolDirRunnable implements Runnable {
       DirectorySpooler spooler,
       SpoolDirConfigBean conf,
       WrappedFileSystem fs
+  ) {
+    this(context, threadNumber, batchSize, offsets, lastSourcFileName, spooler, conf, fs, null);
+  }
+
+  public SpoolDirRunnable(
+      PushSource.Context context,
+      int threadNumber,
+      int batchSize,
+      Map<String, Offset> offsets,
+      String lastSourcFileName,
+      DirectorySpooler spooler,
+      SpoolDirConfigBean conf,
+      WrappedFileSystem fs,
+      SplitFileQueue splitFiles
   ) {
     this.context = context;
     this.threadNumber = threadNumber;
@@ -120,6 +136,7 @@ public class SpoolDirRunnable implements Runnable {
     this.rateLimitElVars = context.createELVars();
     this.useLastModified = conf.useLastModified == FileOrdering.TIMESTAMP;
     this.fs = fs;
+    this.splitFiles = splitFiles;
 
     // Metrics
     this.gaugeMap = context.createGauge(SPOOL_DIR_METRICS + threadNumber).getValue();
@@ -146,6 +163,25 @@ public class SpoolDirRunnable implements Runnable {
   }
 
   private Offset produce(Offset lastSourceOffset, BatchContext batchContext) throws StageException {
+    if (SplitFile.isSplitOffset(lastSourceOffset.getOffset())) {
+      // all the threads start from the last offset, the ranges of a split file are handed out by the split file queue
+      lastSourceOffset = new Offset(Offset.VERSION_ONE, null, ZERO);
+    }
+
+    if (splitFiles != null && splitRange == null) {
+      try {
+        if (hasToFetchNextFileFromSpooler(lastSourceOffset.getRawFile(), lastSourceOffset.getOffset())) {
+          splitRange = splitFiles.claim();
+        }
+      } catch (IOException ex) {
+        LOG.error(ex.toString(), ex);
+      }
+    }
+    if (splitRange != null) {
+      // help reading a split file before picking a new file, the offset of our last file is kept as is
+      produceRange(batchContext);
+      return lastSourceOffset;
+    }
 
     // if lastSourceOffset is NULL (beginning of source) it returns NULL
     String file = lastSourceOffset.getRawFile();
@@ -215,6 +251,9 @@ public class SpoolDirRunnable implements Runnable {
               } else {
                 offset = ZERO;
               }
+              if (SplitFile.isFinished(offset)) {
+                offset = MINUS_ONE;
+              }
             }
           }
 
@@ -224,6 +263,11 @@ public class SpoolDirRunnable implements Runnable {
             SpoolDirEvents.NEW_FILE.create(context, batchContext).with("filepath", currentFile.getAbsolutePath()).createAndSend();
             noMoreDataFileCount++;
             totalFiles++;
+
+            Offset splitOffset = startSplit(batchContext, file, offset, lastSourceFile);
+            if (splitOffset != null) {
+              return splitOffset;
+            }
           }
 
         } catch (InterruptedException ex) {
@@ -252,14 +296,7 @@ public class SpoolDirRunnable implements Runnable {
               .with("record-count", perFileRecordCount)
               .createAndSend();
 
-          LineageEvent event = context.createLineageEvent(LineageEventType.ENTITY_READ);
-          event.setSpecificAttribute(LineageSpecificAttribute.ENTITY_NAME, currentFile.getAbsolutePath());
-          event.setSpecificAttribute(LineageSpecificAttribute.ENDPOINT_TYPE, EndPointType.LOCAL_FS.name());
-          event.setSpecificAttribute(LineageSpecificAttribute.DESCRIPTION, conf.filePattern);
-          Map<String, String> props = new HashMap<>();
-          props.put("Record Count", Long.toString(perFileRecordCount));
-          event.setProperties(props);
-          context.publishLineageEvent(event);
+          publishLineageEvent(currentFile, perFileRecordCount);
         }
       } catch (BadSpoolFileException ex) {
         LOG.error(Errors.SPOOLDIR_01.getMessage(), ex.getFile(), ex.getPos(), ex.toString(), ex);
@@ -311,6 +348,136 @@ public class SpoolDirRunnable implements Runnable {
     return newOffset;
   }
 
+  /**
+   * Registers the file as a split file if it has to be read in ranges and commits its composite offset. Returns the
+   * offset to continue from, or null if the file has to be read as a whole.
+   */
+  private Offset startSplit(
+      BatchContext batchContext,
+      String file,
+      String offset,
+      String lastSourceFile
+  ) throws IOException, StageException {
+    if (splitFiles == null) {
+      return null;
+    }
+    SplitFile split = splitFiles.split(currentFile, file, offset);
+    if (split == null) {
+      return null;
+    }
+    LOG.info("Reading file '{}' in {} ranges", currentFile.getAbsolutePath(), split.getRanges().size());
+
+    context.processBatch(batchContext, file, new Offset(Offset.VERSION_ONE, file, split.getOffset()).getOffsetString());
+    if (lastSourceFile != null && !lastSourceFile.equals(file)) {
+      context.commitOffset(lastSourceFile, null);
+    }
+    currentFile = null;
+    updateGauge(Status.BATCH_GENERATED, null);
+
+    // the ranges are claimed from the split file queue on the next invocations, by this thread and the others
+    return new Offset(Offset.VERSION_ONE, null, ZERO);
+  }
+
+  /**
+   * Reads a batch from the claimed range of a split file and commits the composite offset of the file.
+   */
+  private void produceRange(BatchContext batchContext) throws StageException {
+    SplitFile split = splitRange.getSplitFile();
+    boolean finished;
+
+    if (split.isFailed()) {
+      // another thread sent the file to error, give up the range
+      IOUtils.closeQuietly(parser);
+      parser = null;
+      finished = split.release(splitRange);
+      splitRange = null;
+      context.processBatch(batchContext);
+    } else {
+      perFileRecordCount = 0;
+      perFileErrorCount = 0;
+      String offset = splitRange.getOffset();
+      updateGauge(Status.READING, split.getFile(), getRecordOffset(splitRange, offset));
+      try {
+        offset = generateBatch(split.getFile(), splitRange, offset, batchSize, batchContext.getBatchMaker());
+        context.processBatch(batchContext);
+        synchronized (split) {
+          // committed while holding the split file so that the offsets of the ranges are committed in order
+          finished = split.commit(splitRange, offset, perFileRecordCount, perFileErrorCount);
+          context.commitOffset(
+              split.getKey(),
+              new Offset(Offset.VERSION_ONE, split.getKey(), split.getOffset()).getOffsetString()
+          );
+        }
+        updateGauge(Status.BATCH_GENERATED, split.getFile(), getRecordOffset(splitRange, offset));
+        if (MINUS_ONE.equals(offset)) {
+          splitRange = null;
+        }
+      } catch (BadSpoolFileException ex) {
+        LOG.error(Errors.SPOOLDIR_01.getMessage(), ex.getFile(), ex.getPos(), ex.toString(), ex);
+        context.reportError(Errors.SPOOLDIR_01, ex.getFile(), ex.getPos(), ex.toString(), ex);
+        finished = split.fail(splitRange);
+        splitRange = null;
+        context.processBatch(batchContext);
+      }
+    }
+
+    if (finished) {
+      finishSplit(split);
+    }
+  }
+
+  /**
+   * Sends the events of a split file whose ranges have all been read, or sends it to error if one range failed.
+   */
+  private void finishSplit(SplitFile split) throws StageException {
+    BatchContext batchContext = context.startBatch();
+    WrappedFile file = split.getFile();
+    if (split.isFailed()) {
+      try {
+        spooler.handleFileAsError(file);
+      } catch (IOException ex) {
+        throw new StageException(Errors.SPOOLDIR_00, file, ex.toString(), ex);
+      }
+    } else {
+      SpoolDirEvents.FINISHED_FILE.create(context, batchContext)
+          .with("filepath", file.getAbsolutePath())
+          .with("error-count", split.getErrorCount())
+          .with("record-count", split.getRecordCount())
+          .createAndSend();
+
+      publishLineageEvent(file, split.getRecordCount());
+    }
+
+    context.processBatch(
+        batchContext,
+        split.getKey(),
+        new Offset(Offset.VERSION_ONE, split.getKey(), MINUS_ONE).getOffsetString()
+    );
+    if (!split.isFailed()) {
+      spooler.doPostProcessing(file);
+    }
+
+    String finishedKey = splitFiles.finish(split);
+    if (finishedKey != null) {
+      context.commitOffset(finishedKey, null);
+    }
+  }
+
+  private void publishLineageEvent(WrappedFile file, long recordCount) {
+    LineageEvent event = context.createLineageEvent(LineageEventType.ENTITY_READ);
+    event.setSpecificAttribute(LineageSpecificAttribute.ENTITY_NAME, file.getAbsolutePath());
+    event.setSpecificAttribute(LineageSpecificAttribute.ENDPOINT_TYPE, EndPointType.LOCAL_FS.name());
+    event.setSpecificAttribute(LineageSpecificAttribute.DESCRIPTION, conf.filePattern);
+    Map<String, String> props = new HashMap<>();
+    props.put("Record Count", Long.toString(recordCount));
+    event.setProperties(props);
+    context.publishLineageEvent(event);
+  }
+
+  private static String getRecordOffset(SplitFile.Range range, String offset) {
+    return range == null ? offset : range + "=" + offset;
+  }
+
   /**
    * Processes a batch from the specified file and offset up to a maximum batch size. If the file is fully processed
    * it must return -1, otherwise it must return the offset to continue from next invocation.
@@ -318,12 +485,28 @@ public class SpoolDirRunnable implements Runnable {
   public String generateBatch(WrappedFile file, String offset, int maxBatchSize, BatchMaker batchMaker) throws
       StageException,
       BadSpoolFileException {
+    return generateBatch(file, null, offset, maxBatchSize, batchMaker);
+  }
+
+  /**
+   * Same as {@link #generateBatch(WrappedFile, String, int, BatchMaker)}, reading only the given range of a split
+   * file when the range is not null, the offset being relative to the start of the range.
+   */
+  private String generateBatch(
+      WrappedFile file,
+      SplitFile.Range range,
+      String offset,
+      int maxBatchSize,
+      BatchMaker batchMaker
+  ) throws StageException, BadSpoolFileException {
     if (offset == null) {
       offset = "0";
     }
     String sourceFile = file.getFileName();
     try {
-      if (parser == null) {
+      if (parser == null && range != null) {
+        parser = range.getSplitFile().openParser(parserFactory, range, offset);
+      } else if (parser == null) {
         parser = SpoolDirUtil.getParser(
             fs,
             file,
@@ -348,7 +531,7 @@ public class SpoolDirRunnable implements Runnable {
           } catch(RecoverableDataParserException ex) {
             // Propagate partially parsed record to error stream
             record = ex.getUnparsedRecord();
-            recordHeaderAttr.put(HeaderAttributeConstants.OFFSET, offset);
+            recordHeaderAttr.put(HeaderAttributeConstants.OFFSET, getRecordOffset(range, offset));
             setHeaders(record, recordHeaderAttr);
 
             errorRecordHandler.onError(new OnRecordErrorException(record, ex.getErrorCode(), ex.getParams()));
@@ -359,7 +542,7 @@ public class SpoolDirRunnable implements Runnable {
           }
 
           if (record != null) {
-            recordHeaderAttr.put(HeaderAttributeConstants.OFFSET, offset);
+            recordHeaderAttr.put(HeaderAttributeConstants.OFFSET, getRecordOffset(range, offset));
             setHeaders(record, recordHeaderAttr);
             batchMaker.addRecord(record);
             offset = parser.getOffset();
@@ -461,7 +644,7 @@ public class SpoolDirRunnable implements Runnable {
     String fileName = spoolerFile.toString().replaceFirst(spooler.getSpoolDir() + FILE_SEPARATOR, "");
     if (offsets.containsKey(fileName)) {
       offsetInFile = offsets.get(fileName).getOffset();
-      if (offsetInFile.equals(MINUS_ONE)) {
+      if (offsetInFile.equals(MINUS_ONE) || SplitFile.isFinished(offsetInFile)) {
         return false;
       }
     } else {
@@ -535,10 +718,14 @@ public class SpoolDirRunnable implements Runnable {
   }
 
   private void updateGauge(Status status, String offset) {
+    updateGauge(status, currentFile, offset);
+  }
+
+  private void updateGauge(Status status, WrappedFile file, String offset) {
     gaugeMap.put(STATUS, status.name());
     gaugeMap.put(
         CURRENT_FILE,
-        currentFile == null ? "" : currentFile.getFileName()
+        file == null ? "" : file.getFileName()
     );
     gaugeMap.put(
         OFFSET,
@@ -162,6 +162,15 @@ public interface WrappedFileSystem {
    */
   boolean findDirectoryPathCreationWatcher(List<WrappedFile> spoolDirPath);
 
+  /**
+   * Tells whether or not the file system delivers change notifications through a {@link java.nio.file.WatchService}.
+   *
+   * @return  {@code true} if, and only if, the directories can be watched
+   */
+  default boolean supportsWatchService() {
+    return false;
+  }
+
   /**
    * Returns the FileRef Builder for whole file data format
    *
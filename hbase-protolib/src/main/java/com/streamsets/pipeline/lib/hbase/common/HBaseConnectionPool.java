@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.hbase.common;
+
+import com.streamsets.pipeline.api.impl.Utils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reference counted HBase connections shared by all HBase stages (destination and lookup) that point to the same
+ * cluster with the same user. Creating a connection is expensive (ZooKeeper session, meta lookups, region location
+ * cache), so stages acquire one in init() and release it in destroy() instead of opening a table per batch.
+ *
+ * Callers are expected to run acquire() inside the stage's UGI doAs() block.
+ */
+public final class HBaseConnectionPool {
+  private static final Logger LOG = LoggerFactory.getLogger(HBaseConnectionPool.class);
+
+  private static final Map<String, SharedConnection> CONNECTIONS = new HashMap<>();
+
+  private HBaseConnectionPool() {
+  }
+
+  public static String getKey(HBaseConnectionConfig conf) {
+    return Utils.format(
+        "{}:{}{}|{}|{}|{}|{}",
+        conf.zookeeperQuorum,
+        conf.clientPort,
+        conf.zookeeperParentZNode,
+        conf.hbaseUser,
+        conf.kerberosAuth,
+        conf.hbaseConfDir,
+        conf.hbaseConfigs == null ? "" : new TreeMap<>(conf.hbaseConfigs)
+    );
+  }
+
+  public static synchronized Connection acquire(String key, Configuration hbaseConf) throws IOException {
+    SharedConnection shared = CONNECTIONS.get(key);
+    if (shared == null || shared.connection.isClosed()) {
+      LOG.debug("Creating HBase connection for '{}'", key);
+      shared = new SharedConnection(ConnectionFactory.createConnection(hbaseConf));
+      CONNECTIONS.put(key, shared);
+    }
+    shared.references++;
+    return shared.connection;
+  }
+
+  public static synchronized void release(String key) {
+    SharedConnection shared = CONNECTIONS.get(key);
+    if (shared == null) {
+      return;
+    }
+    shared.references--;
+    if (shared.references <= 0) {
+      CONNECTIONS.remove(key);
+      LOG.debug("Closing HBase connection for '{}'", key);
+      try {
+        shared.connection.close();
+      } catch (IOException e) {
+        LOG.warn("Error while closing HBase connection: {}", e.toString(), e);
+      }
+    }
+  }
+
+  private static class SharedConnection {
+    private final Connection connection;
+    private int references;
+
+    private SharedConnection(Connection connection) {
+      this.connection = connection;
+    }
+  }
+}
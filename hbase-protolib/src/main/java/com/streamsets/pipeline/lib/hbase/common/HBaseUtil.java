@@ -318,6 +318,30 @@ public final class HBaseUtil {
     }
   }
 
+  /**
+   * Inspects the failed mutations reported by a BufferedMutator. Records whose mutation failed because of a missing
+   * column family are sent to error, any other failure is considered a stage error.
+   */
+  public static void handleHBaseMutatorException(
+      RetriesExhaustedWithDetailsException rex,
+      Map<Row, Record> rowToRecord,
+      ErrorRecordHandler errorRecordHandler
+  ) throws StageException {
+    for (int i = 0; i < rex.getNumExceptions(); i++) {
+      Throwable cause = rex.getCause(i);
+      Record record = rowToRecord.get(rex.getRow(i));
+      if (cause instanceof NoSuchColumnFamilyException && record != null) {
+        errorRecordHandler.onError(new OnRecordErrorException(
+            record,
+            Errors.HBASE_10,
+            getErrorDescription(cause, rex.getRow(i), rex.getHostnamePort(i))
+        ));
+      } else {
+        throw new StageException(Errors.HBASE_02, rex);
+      }
+    }
+  }
+
   public static void setIfNotNull(Configuration conf, String property, String value) {
     if(value != null) {
       conf.set(property, value);
@@ -327,7 +351,11 @@ public final class HBaseUtil {
   private static String getErrorDescription(Throwable t, Row row, String server) {
     StringWriter errorWriter = new StringWriter();
     PrintWriter pw = new PrintWriter(errorWriter);
-    pw.append("Exception from ").append(server).append(" for ").append(Bytes.toStringBinary(row.getRow()));
+    pw.append("Exception");
+    if (server != null) {
+      pw.append(" from ").append(server);
+    }
+    pw.append(" for ").append(Bytes.toStringBinary(row.getRow()));
     if (t != null) {
       pw.println();
       t.printStackTrace(pw);
@@ -40,6 +40,7 @@ import com.streamsets.pipeline.lib.hbase.common.Errors;
 import com.streamsets.pipeline.lib.hbase.common.FieldConversionException;
 import com.streamsets.pipeline.lib.hbase.common.HBaseColumn;
 import com.streamsets.pipeline.lib.hbase.common.HBaseConnectionConfig;
+import com.streamsets.pipeline.lib.hbase.common.HBaseConnectionPool;
 import com.streamsets.pipeline.lib.hbase.common.HBaseUtil;
 import com.streamsets.pipeline.lib.util.JsonUtil;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
@@ -49,20 +50,23 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.HTableDescriptor;
 import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.HBaseAdmin;
-import org.apache.hadoop.hbase.client.HTable;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Row;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.InterruptedIOException;
 import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -82,6 +86,9 @@ public class HBaseTarget extends BaseTarget {
   private final String timeDriver;
   private final HBaseConnectionConfig conf;
   private Configuration hbaseConf;
+  private String connectionKey;
+  private Connection connection;
+  private BufferedMutator mutator;
   private ErrorRecordHandler errorRecordHandler;
   private ELEval timeDriverElEval;
   private Date batchTime;
@@ -167,6 +174,22 @@ public class HBaseTarget extends BaseTarget {
       }
     }
 
+    if (issues.isEmpty() && hTableDescriptor != null) {
+      // The connection (and its region location cache) is kept for the lifetime of the pipeline and shared with
+      // other HBase stages connecting to the same cluster, the mutator groups the puts by region server.
+      try {
+        connectionKey = HBaseConnectionPool.getKey(conf);
+        HBaseUtil.getUGI().doAs((PrivilegedExceptionAction<Void>) () -> {
+          connection = HBaseConnectionPool.acquire(connectionKey, hbaseConf);
+          mutator = connection.getBufferedMutator(TableName.valueOf(conf.tableName));
+          return null;
+        });
+      } catch (InterruptedException | IOException e) {
+        LOG.error(Errors.HBASE_06.getMessage(), e.toString(), e);
+        issues.add(getContext().createConfigIssue(Groups.HBASE.name(), null, Errors.HBASE_06, e.toString(), e));
+      }
+    }
+
     validateStorageTypes(issues);
     if (issues.isEmpty() && hTableDescriptor != null) {
       for (HBaseFieldMappingConfig column : hbaseFieldColumnMapping) {
@@ -204,6 +227,23 @@ public class HBaseTarget extends BaseTarget {
     return issues;
   }
 
+  @Override
+  public void destroy() {
+    if (mutator != null) {
+      try {
+        mutator.close();
+      } catch (IOException e) {
+        LOG.warn("Error while closing mutator for table '{}': {}", conf.tableName, e.toString(), e);
+      }
+      mutator = null;
+    }
+    if (connection != null) {
+      HBaseConnectionPool.release(connectionKey);
+      connection = null;
+    }
+    super.destroy();
+  }
+
   protected void validateQuorumConfigs(List<ConfigIssue> issues) {
     HBaseUtil.validateQuorumConfigs(issues, getContext(), Groups.HBASE.name(), conf.zookeeperQuorum,
         conf.zookeeperParentZNode, conf.clientPort);
@@ -386,53 +426,45 @@ public class HBaseTarget extends BaseTarget {
 
   private void writeBatch(Batch batch) throws StageException {
     Iterator<Record> it = batch.getRecords();
-    Map<String, Record> rowKeyToRecord = new HashMap<>();
-    try (HTable hTable = new HTable(hbaseConf, conf.tableName)) {
-      // Disable auto-flush to increase performance by reducing the number of RPCs.
-      // HTable is deprecated as of HBase 1.0 and replaced by Table which does not use autoFlush
-      hTable.setAutoFlushTo(false);
-      while (it.hasNext()) {
-        Record record = it.next();
-        doPut(rowKeyToRecord, hTable, record);
+    List<Put> puts = new ArrayList<>();
+    // The mutator reports the failed Put instances themselves, several records may share a row key
+    Map<Row, Record> putToRecord = new IdentityHashMap<>();
+    while (it.hasNext()) {
+      Record record = it.next();
+      try {
+        byte[] rowKeyBytes = getBytesForRowKey(record);
+        Put put = getHBasePut(record, rowKeyBytes);
+        puts.add(put);
+        putToRecord.put(put, record);
+      } catch (OnRecordErrorException ex) {
+        LOG.debug("Got exception while writing to HBase", ex);
+        errorRecordHandler.onError(ex);
       }
-      // This will flush the internal buffer
-      hTable.flushCommits();
-    } catch (RetriesExhaustedWithDetailsException rex) {
-      LOG.debug("Got exception while flushing commits to HBase", rex);
-      HBaseUtil.handleHBaseException(rex, null, rowKeyToRecord, errorRecordHandler);
-    } catch (OnRecordErrorException ex) {
-      LOG.debug("Got exception while writing to HBase", ex);
-      errorRecordHandler.onError(ex);
-    } catch (IOException ex) {
-      LOG.debug("Got exception while flushing commits to HBase", ex);
-      throw new StageException(Errors.HBASE_02, ex);
     }
-  }
 
-  private void doPut(Map<String, Record> rowKeyToRecord, HTable hTable, Record record) throws
-      InterruptedIOException,
-      StageException {
-    try {
-      byte[] rowKeyBytes = getBytesForRowKey(record);
-      // Map hbase rows to sdc records.
-      Put p = getHBasePut(record, rowKeyBytes);
-      rowKeyToRecord.put(Bytes.toString(rowKeyBytes), record);
-      performPut(hTable, record, p);
-    } catch (OnRecordErrorException ex) {
-      LOG.debug("Got exception while writing to HBase", ex);
-      errorRecordHandler.onError(ex);
+    if (puts.isEmpty()) {
+      return;
     }
-  }
 
-  private void performPut(HTable hTable, Record record, Put p) throws InterruptedIOException, StageException {
+    // mutate() buffers all the puts before it starts flushing, so when it fails the remaining puts are still sent
+    // by the flush() below. Only the failed puts are reported back.
     try {
-      // HTable internally keeps a buffer, a put() will keep on buffering till the buffer
-      // limit is reached
-      // Once it hits the buffer limit or autoflush is set to true, commit will happen
-      hTable.put(p);
+      mutator.mutate(puts);
     } catch (RetriesExhaustedWithDetailsException rex) {
-      // There may be more than one row which failed to persist
-      HBaseUtil.handleHBaseException(rex, record, null, errorRecordHandler);
+      LOG.debug("Got exception while writing batch to HBase", rex);
+      HBaseUtil.handleHBaseMutatorException(rex, putToRecord, errorRecordHandler);
+    } catch (IOException ex) {
+      LOG.debug("Got exception while writing batch to HBase", ex);
+      throw new StageException(Errors.HBASE_02, ex);
+    }
+    try {
+      mutator.flush();
+    } catch (RetriesExhaustedWithDetailsException rex) {
+      LOG.debug("Got exception while writing batch to HBase", rex);
+      HBaseUtil.handleHBaseMutatorException(rex, putToRecord, errorRecordHandler);
+    } catch (IOException ex) {
+      LOG.debug("Got exception while writing batch to HBase", ex);
+      throw new StageException(Errors.HBASE_02, ex);
     }
   }
 
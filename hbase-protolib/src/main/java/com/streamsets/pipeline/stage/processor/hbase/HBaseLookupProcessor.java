@@ -37,9 +37,11 @@ import com.streamsets.pipeline.lib.el.ELUtils;
 import com.streamsets.pipeline.lib.el.RecordEL;
 import com.streamsets.pipeline.lib.hbase.common.Errors;
 import com.streamsets.pipeline.lib.hbase.common.HBaseColumn;
+import com.streamsets.pipeline.lib.hbase.common.HBaseConnectionPool;
 import com.streamsets.pipeline.lib.hbase.common.HBaseUtil;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import com.streamsets.pipeline.stage.processor.kv.BatchLookupStats;
 import com.streamsets.pipeline.stage.processor.kv.LookupMode;
 import com.streamsets.pipeline.stage.processor.kv.LookupUtils;
 import org.apache.commons.lang3.tuple.Pair;
@@ -47,6 +49,7 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.HTableDescriptor;
 import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
@@ -75,9 +78,12 @@ public class HBaseLookupProcessor extends BaseProcessor {
   private ELEval keyExprEval;
   private ELEval columnExprEval;
   private ELEval timestampExprEval;
+  private String connectionKey;
+  private Connection connection;
   private HBaseStore store;
   private LoadingCache<Pair<String, HBaseColumn>, Optional<String>> cache;
   private CacheCleaner cacheCleaner;
+  private BatchLookupStats batchLookupStats;
 
   public HBaseLookupProcessor(HBaseLookupConfig conf) {
     if (null != conf.hBaseConnectionConfig.zookeeperQuorum) {
@@ -212,7 +218,9 @@ public class HBaseLookupProcessor extends BaseProcessor {
       try {
         HBaseUtil.getUGI().doAs((PrivilegedExceptionAction<Void>) () -> {
           keyExprEval = getContext().createELEval("rowExpr");
-          store = new HBaseStore(conf, hbaseConf);
+          connectionKey = HBaseConnectionPool.getKey(conf.hBaseConnectionConfig);
+          connection = HBaseConnectionPool.acquire(connectionKey, hbaseConf);
+          store = new HBaseStore(conf, connection);
           return null;
         });
       } catch (Exception e) {
@@ -228,6 +236,9 @@ public class HBaseLookupProcessor extends BaseProcessor {
       cache = LookupUtils.buildCache(store, conf.cache);
 
       cacheCleaner = new CacheCleaner(cache, "HBaseLookupProcessor", 10 * 60 * 1000);
+      if (conf.mode == LookupMode.BATCH) {
+        batchLookupStats = new BatchLookupStats(getContext());
+      }
     }
     return issues;
   }
@@ -263,6 +274,10 @@ public class HBaseLookupProcessor extends BaseProcessor {
         throw new RuntimeException(e);
       }
     }
+    if (connection != null) {
+      HBaseConnectionPool.release(connectionKey);
+      connection = null;
+    }
   }
 
   private void doRecordLookup(Batch batch, BatchMaker batchMaker) throws StageException {
@@ -301,7 +316,9 @@ public class HBaseLookupProcessor extends BaseProcessor {
 
     try {
       Map<Pair<String, HBaseColumn>, Optional<String>> values = HBaseUtil.getUGI()
-        .doAs((PrivilegedExceptionAction<ImmutableMap<Pair<String, HBaseColumn>, Optional<String>>>) () -> cache.getAll(keys));
+        .doAs((PrivilegedExceptionAction<ImmutableMap<Pair<String, HBaseColumn>, Optional<String>>>) () ->
+            batchLookupStats.getAll(cache, keys)
+        );
       Record record;
       while (records.hasNext()) {
         record = records.next();
@@ -309,7 +326,11 @@ public class HBaseLookupProcessor extends BaseProcessor {
           Pair<String, HBaseColumn> key = getKey(record, parameter);
 
           if (key != null && !key.getKey().trim().isEmpty()) {
-            Optional<String> value = HBaseUtil.getUGI().doAs((PrivilegedExceptionAction<Optional<String>>) () -> cache.getUnchecked(key));
+            // Use the values of the multi-get, the cache might not retain them (e.g. when it's disabled)
+            Optional<String> value = values.get(key);
+            if (value == null) {
+              value = HBaseUtil.getUGI().doAs((PrivilegedExceptionAction<Optional<String>>) () -> cache.getUnchecked(key));
+            }
             updateRecord(record, parameter, key, value);
           } else {
             handleEmptyKey(record, key);
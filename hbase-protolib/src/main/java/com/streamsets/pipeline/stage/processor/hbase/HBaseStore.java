@@ -21,10 +21,11 @@ import com.google.common.collect.Lists;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.lib.hbase.common.Errors;
 import com.streamsets.pipeline.lib.hbase.common.HBaseColumn;
-import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.Get;
-import org.apache.hadoop.hbase.client.HTable;
 import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Table;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.commons.lang3.tuple.Pair;
 import org.codehaus.jettison.json.JSONObject;
@@ -41,11 +42,11 @@ import java.util.NavigableMap;
 
 public class HBaseStore extends CacheLoader<Pair<String, HBaseColumn>, Optional<String>> {
   private static final Logger LOG = LoggerFactory.getLogger(HBaseStore.class);
-  private HTable hTable;
+  private Table hTable;
 
-  public HBaseStore(HBaseLookupConfig config, Configuration hbaseConf) throws Exception {
+  public HBaseStore(HBaseLookupConfig config, Connection connection) throws Exception {
     try {
-      hTable = new HTable(hbaseConf, config.hBaseConnectionConfig.tableName);
+      hTable = connection.getTable(TableName.valueOf(config.hBaseConnectionConfig.tableName));
     } catch (IOException e) {
       LOG.debug("Got exception while reading batch from HBase", e);
       throw new StageException(Errors.HBASE_36, e);
@@ -20,20 +20,32 @@ import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.Target;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.sdk.RecordCreator;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Row;
+import org.apache.hadoop.hbase.regionserver.NoSuchColumnFamilyException;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.lang.reflect.UndeclaredThrowableException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class HBaseUtilTest {
@@ -86,4 +98,51 @@ public class HBaseUtilTest {
     }
   }
 
+  @Test
+  public void handleHBaseMutatorException() throws Exception {
+    ErrorRecordHandler errorRecordHandler = mock(ErrorRecordHandler.class);
+
+    List<Record> records = new ArrayList<>();
+    List<Put> puts = new ArrayList<>();
+    Map<Row, Record> rowToRecord = new IdentityHashMap<>();
+    for (int i = 0; i < 2; i++) {
+      Record record = RecordCreator.create();
+      record.set(Field.create(i));
+      records.add(record);
+      // same row key for both records, the failed put must still map to its own record
+      Put put = new Put(Bytes.toBytes("row"));
+      puts.add(put);
+      rowToRecord.put(put, record);
+    }
+
+    RetriesExhaustedWithDetailsException rex = new RetriesExhaustedWithDetailsException(
+        Collections.singletonList(new NoSuchColumnFamilyException("cf")),
+        Collections.singletonList(puts.get(1)),
+        Collections.singletonList("localhost:16020")
+    );
+    HBaseUtil.handleHBaseMutatorException(rex, rowToRecord, errorRecordHandler);
+
+    ArgumentCaptor<OnRecordErrorException> captor = ArgumentCaptor.forClass(OnRecordErrorException.class);
+    verify(errorRecordHandler, times(1)).onError(captor.capture());
+    assertEquals(Errors.HBASE_10, captor.getValue().getErrorCode());
+    assertEquals(records.get(1), captor.getValue().getRecord());
+  }
+
+  @Test(expected = StageException.class)
+  public void handleHBaseMutatorExceptionWithFatalError() throws Exception {
+    ErrorRecordHandler errorRecordHandler = mock(ErrorRecordHandler.class);
+
+    Record record = RecordCreator.create();
+    record.set(Field.create("abc"));
+    Put put = new Put(Bytes.toBytes("abc"));
+    Map<Row, Record> rowToRecord = new IdentityHashMap<>();
+    rowToRecord.put(put, record);
+
+    RetriesExhaustedWithDetailsException rex = new RetriesExhaustedWithDetailsException(
+        Collections.singletonList(new IOException("region server unavailable")),
+        Collections.singletonList(put),
+        Collections.singletonList("localhost:16020")
+    );
+    HBaseUtil.handleHBaseMutatorException(rex, rowToRecord, errorRecordHandler);
+  }
 }
@@ -45,6 +45,10 @@ import static com.streamsets.pipeline.config.OriginAvroSchemaSource.SOURCE;
 @ConfigGroups(Groups.class)
 @HideConfigs(value = {
     "conf.allowLateDirectory",
+    "conf.discoveryMode",
+    "conf.reconciliationPeriod",
+    "conf.catalogDir",
+    "conf.splitSizeMB",
     "conf.dataFormatConfig.verifyChecksum",
     "conf.dataFormatConfig.avroSchemaSource"
 })
@@ -111,11 +111,18 @@ public enum JdbcErrors implements ErrorCode {
   JDBC_86("Redo log files for the current session window are no longer available"),
   JDBC_87("Interrupted while waiting to read data"),
   JDBC_88("'{}' is not a valid decimal number"),
+  JDBC_89("Reference table query does not return column '{}'"),
+  JDBC_90("Failed to load reference table: {}"),
+  JDBC_91("No results for key: '{}'"),
 
   JDBC_100("Could not enable partitioning for table {}: {}"),
   JDBC_101("Invalid partition size for table {}: {}"),
   JDBC_102("Invalid max number of partitions ({}) for table {}; this must be negative (for default behavior) or" +
       " greater than 1 to ensure progress"),
+  JDBC_103("A partition column is required to partition a query when incremental mode is disabled"),
+  JDBC_104("Max Pool Size '{}' should be at least the Number of Partitions '{}'"),
+  JDBC_105("Partitioned queries cannot be used with a Transaction ID Column"),
+  JDBC_106("Partition column '{}' has type {}, which cannot be split into ranges"),
   JDBC_200("Tables are not change tracking enabled: {}"),
   JDBC_201("Invalid Change Tracking Current Version: {}"),
   JDBC_202("Error while getting min valid version: {}"),
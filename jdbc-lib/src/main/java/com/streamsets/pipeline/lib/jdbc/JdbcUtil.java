@@ -125,6 +125,29 @@ public class JdbcUtil {
    */
   private static final int MIN_OFFSET_VALUE_QUERY_RESULT_SET_INDEX = 1;
 
+  /**
+   * The query to scan the values of a particular offset column, in order, when sampling split points
+   */
+  public static final String SPLIT_POINT_SAMPLE_QUERY = "SELECT %s FROM %s WHERE %s IS NOT NULL ORDER BY %s";
+
+  /**
+   * The fetch size used while scanning an offset column for split points
+   */
+  private static final int SPLIT_POINT_SAMPLE_FETCH_SIZE = 10000;
+
+  /**
+   * The maximum number of split points sampled for a table; this bounds the sampling scan to
+   * {@code rowsPerPartition * MAX_SPLIT_POINTS} rows, and keeps the split point list within the IN list limits of
+   * the common databases (ex: 1000 for Oracle)
+   */
+  public static final int MAX_SPLIT_POINTS = 999;
+
+  /**
+   * The query to find the first split point after an offset that is not itself a split point, so that the database
+   * collation (rather than the Java ordering of strings) decides where the offset falls
+   */
+  public static final String NEXT_SPLIT_POINT_QUERY = "SELECT MIN(%s) FROM %s WHERE %s > ? AND %s IN (%s)";
+
   public static final int NANOS_TO_MILLIS_ADJUSTMENT = 1_000_000;
   public static final String FIELD_ATTRIBUTE_NANOSECONDS = "nanoSeconds";
 
@@ -332,6 +355,121 @@ public class JdbcUtil {
     return minOffsetValues;
   }
 
+  /**
+   * Samples balanced split points for an offset column that cannot be partitioned arithmetically (ex: a VARCHAR
+   * holding UUIDs).  The column is scanned in the database's own ordering, and every {@code rowsPerPartition}-th
+   * distinct value is taken as the start of a new partition, so that each resulting range covers roughly the same
+   * number of rows regardless of how the key values are distributed.  The scan stops after {@link #MAX_SPLIT_POINTS}
+   * split points; the rows beyond the last one are all covered by the final, unbounded, partition.
+   *
+   * @param connection An open JDBC connection
+   * @param schema the schema of the table
+   * @param tableName the table name
+   * @param quoteChar the quote character to use for the table name
+   * @param offsetColumn the offset column to sample
+   * @param rowsPerPartition the (approximate) number of rows that each partition should cover
+   * @return the split points in ascending order, excluding the minimum value; empty if the table fits in one partition
+   * @throws SQLException
+   */
+  public static List<String> getSplitPointOffsetValues(
+      Connection connection,
+      String schema,
+      String tableName,
+      QuoteChar quoteChar,
+      String offsetColumn,
+      long rowsPerPartition
+  ) throws SQLException {
+    final List<String> splitPoints = new ArrayList<>();
+    final String qualifiedName = TableContextUtil.getQuotedQualifiedTableName(
+        schema,
+        tableName,
+        quoteChar.getQuoteCharacter()
+    );
+    final String sampleQuery = String.format(
+        SPLIT_POINT_SAMPLE_QUERY,
+        offsetColumn,
+        qualifiedName,
+        offsetColumn,
+        offsetColumn
+    );
+    try (Statement st = connection.createStatement()) {
+      st.setFetchSize(SPLIT_POINT_SAMPLE_FETCH_SIZE);
+      st.setMaxRows((int) Math.min(Integer.MAX_VALUE, rowsPerPartition * (MAX_SPLIT_POINTS + 1)));
+      try (ResultSet rs = st.executeQuery(sampleQuery)) {
+        long row = 0;
+        String previous = null;
+        boolean splitDue = false;
+        while (splitPoints.size() < MAX_SPLIT_POINTS && rs.next()) {
+          final String value = rs.getString(1);
+          if (row > 0 && row % rowsPerPartition == 0) {
+            splitDue = true;
+          }
+          // a split point must be strictly greater than the previous one, so runs of equal values stay together
+          if (splitDue && !value.equals(previous)) {
+            splitPoints.add(value);
+            splitDue = false;
+          }
+          previous = value;
+          row++;
+        }
+        LOG.debug("Sampled {} split points over {} rows using query {}", splitPoints.size(), row, sampleQuery);
+      }
+    }
+    return splitPoints;
+  }
+
+  /**
+   * Finds the first of the given split points that is greater than an offset, according to the ordering of the
+   * database.  Split points no longer present in the table are skipped, which only merges their range into the
+   * previous one.
+   *
+   * @param connection An open JDBC connection
+   * @param schema the schema of the table
+   * @param tableName the table name
+   * @param quoteChar the quote character to use for the table name
+   * @param offsetColumn the split point partitioned offset column
+   * @param offset the offset to place
+   * @param splitPoints the candidate split points
+   * @return the first split point after the offset, or null if there is none
+   * @throws SQLException
+   */
+  public static String getNextSplitPoint(
+      Connection connection,
+      String schema,
+      String tableName,
+      QuoteChar quoteChar,
+      String offsetColumn,
+      String offset,
+      List<String> splitPoints
+  ) throws SQLException {
+    if (splitPoints.isEmpty()) {
+      return null;
+    }
+    final String qualifiedName = TableContextUtil.getQuotedQualifiedTableName(
+        schema,
+        tableName,
+        quoteChar.getQuoteCharacter()
+    );
+    final String nextSplitPointQuery = String.format(
+        NEXT_SPLIT_POINT_QUERY,
+        offsetColumn,
+        qualifiedName,
+        offsetColumn,
+        offsetColumn,
+        String.join(",", Collections.nCopies(splitPoints.size(), "?"))
+    );
+    try (PreparedStatement ps = connection.prepareStatement(nextSplitPointQuery)) {
+      int paramIdx = 1;
+      ps.setString(paramIdx++, offset);
+      for (String splitPoint : splitPoints) {
+        ps.setString(paramIdx++, splitPoint);
+      }
+      try (ResultSet rs = ps.executeQuery()) {
+        return rs.next() ? rs.getString(1) : null;
+      }
+    }
+  }
+
   /**
    * Wrapper for {@link java.sql.DatabaseMetaData#getImportedKeys(String, String, String)}
    *
@@ -467,123 +605,132 @@ public class JdbcUtil {
       DataType userSpecifiedType,
       UnknownTypeAction unknownTypeAction
   ) throws SQLException, IOException, StageException {
-      Field field;
-      if (userSpecifiedType != DataType.USE_COLUMN_TYPE) {
-        // If user specifies the data type, overwrite the column type returned by database.
-        field = Field.create(Field.Type.valueOf(userSpecifiedType.getLabel()), rs.getObject(columnIndex));
-      } else {
-        // All types as of JDBC 2.0 are here:
-        // https://docs.oracle.com/javase/8/docs/api/constant-values.html#java.sql.Types.ARRAY
-        // Good source of recommended mappings is here:
-        // http://www.cs.mun.ca/java-api-1.5/guide/jdbc/getstart/mapping.html
-        switch (md.getColumnType(columnIndex)) {
-          case Types.BIGINT:
-            field = Field.create(Field.Type.LONG, rs.getObject(columnIndex));
-            break;
-          case Types.BINARY:
-          case Types.LONGVARBINARY:
-          case Types.VARBINARY:
-            field = Field.create(Field.Type.BYTE_ARRAY, rs.getBytes(columnIndex));
-            break;
-          case Types.BIT:
-          case Types.BOOLEAN:
-            field = Field.create(Field.Type.BOOLEAN, rs.getObject(columnIndex));
-            break;
-          case Types.CHAR:
-          case Types.LONGNVARCHAR:
-          case Types.LONGVARCHAR:
-          case Types.NCHAR:
-          case Types.NVARCHAR:
-          case Types.VARCHAR:
-            field = Field.create(Field.Type.STRING, rs.getObject(columnIndex));
-            break;
-          case Types.CLOB:
-          case Types.NCLOB:
-            field = Field.create(Field.Type.STRING, getClobString(rs.getClob(columnIndex), maxClobSize));
-            break;
-          case Types.BLOB:
-            field = Field.create(Field.Type.BYTE_ARRAY, getBlobBytes(rs.getBlob(columnIndex), maxBlobSize));
-            break;
-          case Types.DATE:
-            field = Field.create(Field.Type.DATE, rs.getDate(columnIndex));
-            break;
-          case Types.DECIMAL:
-          case Types.NUMERIC:
-            field = Field.create(Field.Type.DECIMAL, rs.getBigDecimal(columnIndex));
-            field.setAttribute(HeaderAttributeConstants.ATTR_SCALE, String.valueOf(rs.getMetaData().getScale(columnIndex)));
-            field.setAttribute(HeaderAttributeConstants.ATTR_PRECISION, String.valueOf(rs.getMetaData().getPrecision(columnIndex)));
-            break;
-          case Types.DOUBLE:
-            field = Field.create(Field.Type.DOUBLE, rs.getObject(columnIndex));
-            break;
-          case Types.FLOAT:
-          case Types.REAL:
-            field = Field.create(Field.Type.FLOAT, rs.getObject(columnIndex));
-            break;
-          case Types.INTEGER:
-            field = Field.create(Field.Type.INTEGER, rs.getObject(columnIndex));
-            break;
-          case Types.ROWID:
-            field = Field.create(Field.Type.STRING, rs.getRowId(columnIndex).toString());
-            break;
-          case Types.SMALLINT:
-          case Types.TINYINT:
-            field = Field.create(Field.Type.SHORT, rs.getObject(columnIndex));
-            break;
-          case Types.TIME:
-            field = Field.create(Field.Type.TIME, rs.getObject(columnIndex));
-            break;
-          case Types.TIMESTAMP:
-            final Timestamp timestamp = rs.getTimestamp(columnIndex);
-            field = Field.create(Field.Type.DATETIME, timestamp);
-            if (timestamp != null) {
-              final long actualNanos = timestamp.getNanos() % NANOS_TO_MILLIS_ADJUSTMENT;
-              if (actualNanos > 0) {
-                field.setAttribute(FIELD_ATTRIBUTE_NANOSECONDS, String.valueOf(actualNanos));
-              }
+    return createColumnReader(md, columnIndex, maxClobSize, maxBlobSize, userSpecifiedType, unknownTypeAction)
+        .read(rs);
+  }
+
+  /**
+   * Returns the converter for the given column, chosen once from the column type so that it can be applied to all
+   * the rows of the result set.
+   */
+  public static ResultSetRowReader.ColumnReader createColumnReader(
+      ResultSetMetaData md,
+      int columnIndex,
+      int maxClobSize,
+      int maxBlobSize,
+      DataType userSpecifiedType,
+      UnknownTypeAction unknownTypeAction
+  ) throws SQLException {
+    if (userSpecifiedType != DataType.USE_COLUMN_TYPE) {
+      // If user specifies the data type, overwrite the column type returned by database.
+      Field.Type type = Field.Type.valueOf(userSpecifiedType.getLabel());
+      return rs -> Field.create(type, rs.getObject(columnIndex));
+    }
+    // All types as of JDBC 2.0 are here:
+    // https://docs.oracle.com/javase/8/docs/api/constant-values.html#java.sql.Types.ARRAY
+    // Good source of recommended mappings is here:
+    // http://www.cs.mun.ca/java-api-1.5/guide/jdbc/getstart/mapping.html
+    int columnType = md.getColumnType(columnIndex);
+    switch (columnType) {
+      case Types.BIGINT:
+        return rs -> Field.create(Field.Type.LONG, rs.getObject(columnIndex));
+      case Types.BINARY:
+      case Types.LONGVARBINARY:
+      case Types.VARBINARY:
+        return rs -> Field.create(Field.Type.BYTE_ARRAY, rs.getBytes(columnIndex));
+      case Types.BIT:
+      case Types.BOOLEAN:
+        return rs -> Field.create(Field.Type.BOOLEAN, rs.getObject(columnIndex));
+      case Types.CHAR:
+      case Types.LONGNVARCHAR:
+      case Types.LONGVARCHAR:
+      case Types.NCHAR:
+      case Types.NVARCHAR:
+      case Types.VARCHAR:
+        return rs -> Field.create(Field.Type.STRING, rs.getObject(columnIndex));
+      case Types.CLOB:
+      case Types.NCLOB:
+        return rs -> Field.create(Field.Type.STRING, getClobString(rs.getClob(columnIndex), maxClobSize));
+      case Types.BLOB:
+        return rs -> Field.create(Field.Type.BYTE_ARRAY, getBlobBytes(rs.getBlob(columnIndex), maxBlobSize));
+      case Types.DATE:
+        return rs -> Field.create(Field.Type.DATE, rs.getDate(columnIndex));
+      case Types.DECIMAL:
+      case Types.NUMERIC:
+        final String scale = String.valueOf(md.getScale(columnIndex));
+        final String precision = String.valueOf(md.getPrecision(columnIndex));
+        return rs -> {
+          Field field = Field.create(Field.Type.DECIMAL, rs.getBigDecimal(columnIndex));
+          field.setAttribute(HeaderAttributeConstants.ATTR_SCALE, scale);
+          field.setAttribute(HeaderAttributeConstants.ATTR_PRECISION, precision);
+          return field;
+        };
+      case Types.DOUBLE:
+        return rs -> Field.create(Field.Type.DOUBLE, rs.getObject(columnIndex));
+      case Types.FLOAT:
+      case Types.REAL:
+        return rs -> Field.create(Field.Type.FLOAT, rs.getObject(columnIndex));
+      case Types.INTEGER:
+        return rs -> Field.create(Field.Type.INTEGER, rs.getObject(columnIndex));
+      case Types.ROWID:
+        return rs -> Field.create(Field.Type.STRING, rs.getRowId(columnIndex).toString());
+      case Types.SMALLINT:
+      case Types.TINYINT:
+        return rs -> Field.create(Field.Type.SHORT, rs.getObject(columnIndex));
+      case Types.TIME:
+        return rs -> Field.create(Field.Type.TIME, rs.getObject(columnIndex));
+      case Types.TIMESTAMP:
+        return rs -> {
+          final Timestamp timestamp = rs.getTimestamp(columnIndex);
+          Field field = Field.create(Field.Type.DATETIME, timestamp);
+          if (timestamp != null) {
+            final long actualNanos = timestamp.getNanos() % NANOS_TO_MILLIS_ADJUSTMENT;
+            if (actualNanos > 0) {
+              field.setAttribute(FIELD_ATTRIBUTE_NANOSECONDS, String.valueOf(actualNanos));
+            }
+          }
+          return field;
+        };
+      // Ugly hack until we can support LocalTime, LocalDate, LocalDateTime, etc.
+      case Types.TIME_WITH_TIMEZONE:
+        return rs -> {
+          OffsetTime offsetTime = rs.getObject(columnIndex, OffsetTime.class);
+          return Field.create(Field.Type.TIME, Date.from(offsetTime.atDate(LocalDate.MIN).toInstant()));
+        };
+      case Types.TIMESTAMP_WITH_TIMEZONE:
+        return rs -> {
+          OffsetDateTime offsetDateTime = rs.getObject(columnIndex, OffsetDateTime.class);
+          return Field.create(Field.Type.ZONED_DATETIME, offsetDateTime.toZonedDateTime());
+        };
+      //case Types.REF_CURSOR: // JDK8 only
+      case Types.SQLXML:
+      case Types.STRUCT:
+      case Types.ARRAY:
+      case Types.DATALINK:
+      case Types.DISTINCT:
+      case Types.JAVA_OBJECT:
+      case Types.NULL:
+      case Types.OTHER:
+      case Types.REF:
+      default:
+        if(unknownTypeAction == null) {
+          return rs -> null;
         }
-            break;
-          // Ugly hack until we can support LocalTime, LocalDate, LocalDateTime, etc.
-          case Types.TIME_WITH_TIMEZONE:
-            OffsetTime offsetTime = rs.getObject(columnIndex, OffsetTime.class);
-            field = Field.create(Field.Type.TIME, Date.from(offsetTime.atDate(LocalDate.MIN).toInstant()));
-            break;
-          case Types.TIMESTAMP_WITH_TIMEZONE:
-            OffsetDateTime offsetDateTime = rs.getObject(columnIndex, OffsetDateTime.class);
-            field = Field.create(Field.Type.ZONED_DATETIME, offsetDateTime.toZonedDateTime());
-            break;
-          //case Types.REF_CURSOR: // JDK8 only
-          case Types.SQLXML:
-          case Types.STRUCT:
-          case Types.ARRAY:
-          case Types.DATALINK:
-          case Types.DISTINCT:
-          case Types.JAVA_OBJECT:
-          case Types.NULL:
-          case Types.OTHER:
-          case Types.REF:
+        switch (unknownTypeAction) {
+          case STOP_PIPELINE:
+            final String columnLabel = md.getColumnLabel(columnIndex);
+            return rs -> {
+              throw new StageException(JdbcErrors.JDBC_37, columnType, columnLabel);
+            };
+          case CONVERT_TO_STRING:
+            return rs -> {
+              Object value = rs.getObject(columnIndex);
+              return Field.create(Field.Type.STRING, value != null ? value.toString() : null);
+            };
           default:
-            if(unknownTypeAction == null) {
-              return null;
-            }
-            switch (unknownTypeAction) {
-              case STOP_PIPELINE:
-                throw new StageException(JdbcErrors.JDBC_37, md.getColumnType(columnIndex), md.getColumnLabel(columnIndex));
-              case CONVERT_TO_STRING:
-                Object value = rs.getObject(columnIndex);
-                if(value != null) {
-                  field = Field.create(Field.Type.STRING, rs.getObject(columnIndex).toString());
-                } else {
-                  field = Field.create(Field.Type.STRING, null);
-                }
-                break;
-              default:
-                throw new IllegalStateException("Unknown action: " + unknownTypeAction);
-            }
+            throw new IllegalStateException("Unknown action: " + unknownTypeAction);
         }
-      }
-
-      return field;
+    }
   }
 
   public static LinkedHashMap<String, Field> resultSetToFields(
@@ -651,32 +798,16 @@ public class JdbcUtil {
       UnknownTypeAction unknownTypeAction,
       Set<String> recordHeader
   ) throws SQLException, StageException {
-    ResultSetMetaData md = rs.getMetaData();
-    LinkedHashMap<String, Field> fields = new LinkedHashMap<>(md.getColumnCount());
-
-    for (int i = 1; i <= md.getColumnCount(); i++) {
-      try {
-        if (recordHeader == null || !recordHeader.contains(md.getColumnName(i))) {
-          DataType dataType = columnsToTypes.get(md.getColumnName(i));
-          Field field = resultToField(
-              md,
-              rs,
-              i,
-              maxClobSize,
-              maxBlobSize,
-              dataType == null ? DataType.USE_COLUMN_TYPE : dataType,
-              unknownTypeAction
-          );
-          fields.put(md.getColumnLabel(i), field);
-        }
-      } catch (SQLException e) {
-        errorRecordHandler.onError(JdbcErrors.JDBC_13, e.getMessage(), e);
-      } catch (IOException e) {
-        errorRecordHandler.onError(JdbcErrors.JDBC_03, md.getColumnName(i), rs.getObject(i), e);
-      }
-    }
-
-    return fields;
+    // plan for a single row, readers of many rows of the same result set should keep a ResultSetRowReader instead
+    ResultSetRowReader rowReader = new ResultSetRowReader(
+        rs.getMetaData(),
+        maxClobSize,
+        maxBlobSize,
+        columnsToTypes,
+        unknownTypeAction,
+        recordHeader
+    );
+    return rowReader.readRow(rs, errorRecordHandler);
   }
 
   private static HikariConfig createDataSourceConfig(
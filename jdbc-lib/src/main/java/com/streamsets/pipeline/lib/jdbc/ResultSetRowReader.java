@@ -0,0 +1,209 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc;
+
+import com.google.common.base.Joiner;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Row reader plan built once from the {@link ResultSetMetaData} of a query: every column is bound to the converter of
+ * its type, so that the rows of the result set are converted to fields without looking up the metadata again.
+ */
+public class ResultSetRowReader {
+
+  /**
+   * Converts the value of one column of the current row to a field.
+   */
+  @FunctionalInterface
+  public interface ColumnReader {
+    Field read(ResultSet rs) throws SQLException, IOException, StageException;
+  }
+
+  private final ResultSetMetaData md;
+  private final int columnCount;
+  private final int[] indexes;
+  private final String[] names;
+  private final String[] labels;
+  private final ColumnReader[] readers;
+  private final int mapCapacity;
+
+  // column specific headers, captured on first use
+  private String[] headerNames;
+  private String[] headerValues;
+  private Set<String> tableNames;
+
+  public ResultSetRowReader(
+      ResultSetMetaData md,
+      int maxClobSize,
+      int maxBlobSize,
+      UnknownTypeAction unknownTypeAction
+  ) throws SQLException {
+    this(md, maxClobSize, maxBlobSize, Collections.emptyMap(), unknownTypeAction, null);
+  }
+
+  public ResultSetRowReader(
+      ResultSetMetaData md,
+      int maxClobSize,
+      int maxBlobSize,
+      UnknownTypeAction unknownTypeAction,
+      Set<String> recordHeader
+  ) throws SQLException {
+    this(md, maxClobSize, maxBlobSize, Collections.emptyMap(), unknownTypeAction, recordHeader);
+  }
+
+  /**
+   * @param columnsToTypes user specified types overriding the column types, by column name
+   * @param recordHeader names of the columns that are not read as fields, null to read all the columns
+   */
+  public ResultSetRowReader(
+      ResultSetMetaData md,
+      int maxClobSize,
+      int maxBlobSize,
+      Map<String, DataType> columnsToTypes,
+      UnknownTypeAction unknownTypeAction,
+      Set<String> recordHeader
+  ) throws SQLException {
+    this.md = md;
+    columnCount = md.getColumnCount();
+
+    int fieldCount = 0;
+    int[] fieldIndexes = new int[columnCount];
+    for (int i = 1; i <= columnCount; i++) {
+      if (recordHeader == null || !recordHeader.contains(md.getColumnName(i))) {
+        fieldIndexes[fieldCount++] = i;
+      }
+    }
+
+    indexes = new int[fieldCount];
+    names = new String[fieldCount];
+    labels = new String[fieldCount];
+    readers = new ColumnReader[fieldCount];
+    for (int f = 0; f < fieldCount; f++) {
+      int i = fieldIndexes[f];
+      indexes[f] = i;
+      names[f] = md.getColumnName(i);
+      labels[f] = md.getColumnLabel(i);
+      DataType dataType = columnsToTypes.get(names[f]);
+      readers[f] = JdbcUtil.createColumnReader(
+          md,
+          i,
+          maxClobSize,
+          maxBlobSize,
+          dataType == null ? DataType.USE_COLUMN_TYPE : dataType,
+          unknownTypeAction
+      );
+    }
+    // sized so that the map never resizes
+    mapCapacity = (int) (fieldCount / 0.75f) + 1;
+  }
+
+  /**
+   * Number of columns of the result set, including the ones that are not read as fields.
+   */
+  public int getColumnCount() {
+    return columnCount;
+  }
+
+  /**
+   * Converts the current row of the result set to fields by column label.
+   */
+  public LinkedHashMap<String, Field> readRow(
+      ResultSet rs,
+      ErrorRecordHandler errorRecordHandler
+  ) throws SQLException, StageException {
+    LinkedHashMap<String, Field> fields = new LinkedHashMap<>(mapCapacity);
+    for (int f = 0; f < readers.length; f++) {
+      try {
+        fields.put(labels[f], readers[f].read(rs));
+      } catch (SQLException e) {
+        errorRecordHandler.onError(JdbcErrors.JDBC_13, e.getMessage(), e);
+      } catch (IOException e) {
+        errorRecordHandler.onError(JdbcErrors.JDBC_03, names[f], rs.getObject(indexes[f]), e);
+      }
+    }
+    return fields;
+  }
+
+  /**
+   * Same as {@link JdbcUtil#setColumnSpecificHeaders(Record, Set, ResultSetMetaData, String)}, with the metadata
+   * looked up once for all the rows.
+   */
+  public void setColumnSpecificHeaders(
+      Record record,
+      Set<String> knownTableNames,
+      String jdbcNameSpacePrefix
+  ) throws SQLException {
+    if (headerNames == null) {
+      captureColumnSpecificHeaders(jdbcNameSpacePrefix);
+    }
+    Record.Header header = record.getHeader();
+    for (int i = 0; i < headerNames.length; i++) {
+      header.setAttribute(headerNames[i], headerValues[i]);
+    }
+    header.setAttribute(
+        jdbcNameSpacePrefix + "tables",
+        Joiner.on(",").join(tableNames.isEmpty() ? knownTableNames : tableNames)
+    );
+  }
+
+  /**
+   * Looks up the metadata of the column specific headers now, ex: when the records are created after the result set
+   * is closed, or on another thread.
+   */
+  public void captureColumnSpecificHeaders(String jdbcNameSpacePrefix) throws SQLException {
+    List<String> names = new ArrayList<>();
+    List<String> values = new ArrayList<>();
+    Set<String> tables = new HashSet<>();
+    for (int i = 1; i <= columnCount; i++) {
+      String prefix = jdbcNameSpacePrefix + md.getColumnLabel(i);
+      names.add(prefix + ".jdbcType");
+      values.add(String.valueOf(md.getColumnType(i)));
+      switch (md.getColumnType(i)) {
+        case Types.DECIMAL:
+        case Types.NUMERIC:
+          names.add(prefix + ".scale");
+          values.add(String.valueOf(md.getScale(i)));
+          names.add(prefix + ".precision");
+          values.add(String.valueOf(md.getPrecision(i)));
+          break;
+      }
+      String tableName = md.getTableName(i);
+      if (StringUtils.isNotEmpty(tableName)) {
+        tables.add(tableName);
+      }
+    }
+    headerValues = values.toArray(new String[values.size()]);
+    tableNames = tables;
+    headerNames = names.toArray(new String[names.size()]);
+  }
+}
@@ -25,8 +25,8 @@ import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
-import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
 import com.streamsets.pipeline.lib.jdbc.MSOperationCode;
+import com.streamsets.pipeline.lib.jdbc.ResultSetRowReader;
 import com.streamsets.pipeline.lib.jdbc.multithread.util.MSQueryUtil;
 import com.streamsets.pipeline.lib.jdbc.multithread.util.OffsetQueryUtil;
 import com.streamsets.pipeline.lib.operation.OperationType;
@@ -86,22 +86,26 @@ public class CDCJdbcRunnable extends JdbcBaseRunnable {
     );
   }
 
+  @Override
+  protected ResultSetRowReader createRowReader(ResultSetMetaData md) throws SQLException {
+    return new ResultSetRowReader(
+        md,
+        commonSourceConfigBean.maxClobSize,
+        commonSourceConfigBean.maxBlobSize,
+        tableJdbcConfigBean.unknownTypeAction,
+        recordHeader
+    );
+  }
+
   @Override
   public void createAndAddRecord(
       ResultSet rs,
       TableRuntimeContext tableRuntimeContext,
       BatchContext batchContext
   ) throws SQLException, StageException {
-    ResultSetMetaData md = rs.getMetaData();
+    ResultSetRowReader rowReader = getRowReader(rs);
 
-    LinkedHashMap<String, Field> fields = JdbcUtil.resultSetToFields(
-        rs,
-        commonSourceConfigBean.maxClobSize,
-        commonSourceConfigBean.maxBlobSize,
-        errorRecordHandler,
-        tableJdbcConfigBean.unknownTypeAction,
-        recordHeader
-    );
+    LinkedHashMap<String, Field> fields = rowReader.readRow(rs, errorRecordHandler);
 
     Map<String, String> columnOffsets = new HashMap<>();
 
@@ -116,10 +120,9 @@ public class CDCJdbcRunnable extends JdbcBaseRunnable {
     record.set(Field.createListMap(fields));
 
     //Set Column Headers
-    JdbcUtil.setColumnSpecificHeaders(
+    rowReader.setColumnSpecificHeaders(
         record,
         Collections.singleton(tableRuntimeContext.getSourceTableContext().getTableName()),
-        md,
         JDBC_NAMESPACE_HEADER
     );
 
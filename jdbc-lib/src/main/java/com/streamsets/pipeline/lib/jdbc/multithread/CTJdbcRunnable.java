@@ -24,8 +24,8 @@ import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
-import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
 import com.streamsets.pipeline.lib.jdbc.MSOperationCode;
+import com.streamsets.pipeline.lib.jdbc.ResultSetRowReader;
 import com.streamsets.pipeline.lib.jdbc.multithread.util.OffsetQueryUtil;
 import com.streamsets.pipeline.lib.operation.OperationType;
 import com.streamsets.pipeline.stage.origin.jdbc.CommonSourceConfigBean;
@@ -88,6 +88,17 @@ public final class CTJdbcRunnable extends JdbcBaseRunnable {
     );
   }
 
+  @Override
+  protected ResultSetRowReader createRowReader(ResultSetMetaData md) throws SQLException {
+    return new ResultSetRowReader(
+        md,
+        commonSourceConfigBean.maxClobSize,
+        commonSourceConfigBean.maxBlobSize,
+        tableJdbcConfigBean.unknownTypeAction,
+        recordHeader
+    );
+  }
+
   /**
    * Create record and add it to {@link com.streamsets.pipeline.api.BatchMaker}
    */
@@ -97,16 +108,9 @@ public final class CTJdbcRunnable extends JdbcBaseRunnable {
       TableRuntimeContext tableRuntimeContext,
       BatchContext batchContext
   ) throws SQLException, StageException {
-    ResultSetMetaData md = rs.getMetaData();
+    ResultSetRowReader rowReader = getRowReader(rs);
 
-    LinkedHashMap<String, Field> fields = JdbcUtil.resultSetToFields(
-        rs,
-        commonSourceConfigBean.maxClobSize,
-        commonSourceConfigBean.maxBlobSize,
-        errorRecordHandler,
-        tableJdbcConfigBean.unknownTypeAction,
-        recordHeader
-    );
+    LinkedHashMap<String, Field> fields = rowReader.readRow(rs, errorRecordHandler);
 
     Map<String, String> columnOffsets = new HashMap<>();
 
@@ -124,10 +128,9 @@ public final class CTJdbcRunnable extends JdbcBaseRunnable {
     record.set(Field.createListMap(fields));
 
     //Set Column Headers
-    JdbcUtil.setColumnSpecificHeaders(
+    rowReader.setColumnSpecificHeaders(
         record,
         Collections.singleton(tableRuntimeContext.getSourceTableContext().getTableName()),
-        md,
         JDBC_NAMESPACE_HEADER
     );
 
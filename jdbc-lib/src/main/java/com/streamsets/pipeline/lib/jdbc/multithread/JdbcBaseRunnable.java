@@ -28,6 +28,7 @@ import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.ToErrorContext;
 import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
 import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
+import com.streamsets.pipeline.lib.jdbc.ResultSetRowReader;
 import com.streamsets.pipeline.lib.jdbc.multithread.cache.JdbcTableReadContextInvalidationListener;
 import com.streamsets.pipeline.lib.jdbc.multithread.cache.JdbcTableReadContextLoader;
 import com.streamsets.pipeline.lib.jdbc.multithread.util.OffsetQueryUtil;
@@ -41,6 +42,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.time.ZoneId;
 import java.util.Calendar;
@@ -132,6 +134,28 @@ public abstract class JdbcBaseRunnable implements Runnable, JdbcRunnable {
     this.queryRateLimiter = queryRateLimiter;
   }
 
+  /**
+   * Returns the row reader plan of the result set of the current table, built from its metadata when its first row is
+   * read and reused for the following rows and batches.
+   */
+  protected ResultSetRowReader getRowReader(ResultSet rs) throws SQLException {
+    ResultSetRowReader rowReader = tableReadContext.getRowReader();
+    if (rowReader == null) {
+      rowReader = createRowReader(rs.getMetaData());
+      tableReadContext.setRowReader(rowReader);
+    }
+    return rowReader;
+  }
+
+  protected ResultSetRowReader createRowReader(ResultSetMetaData md) throws SQLException {
+    return new ResultSetRowReader(
+        md,
+        commonSourceConfigBean.maxClobSize,
+        commonSourceConfigBean.maxBlobSize,
+        tableJdbcConfigBean.unknownTypeAction
+    );
+  }
+
   public LoadingCache<TableRuntimeContext, TableReadContext> getTableReadContextCache() {
     return tableReadContextCache;
   }
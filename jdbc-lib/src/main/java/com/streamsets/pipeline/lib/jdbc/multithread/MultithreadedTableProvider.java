@@ -226,7 +226,9 @@ public final class MultithreadedTableProvider {
         lastPartition.getStartingPartitionOffsets().forEach(
             (col, off) -> {
               String basedOnStartOffset = lastPartition.generateNextPartitionOffset(col, off);
-              nextStartingOffsets.put(col, basedOnStartOffset);
+              if (basedOnStartOffset != null) {
+                nextStartingOffsets.put(col, basedOnStartOffset);
+              }
             }
         );
 
@@ -240,7 +242,12 @@ public final class MultithreadedTableProvider {
         );
 
         nextStartingOffsets.forEach(
-            (col, off) -> nextMaxOffsets.put(col, lastPartition.generateNextPartitionOffset(col, off))
+            (col, off) -> {
+              String max = lastPartition.generateNextPartitionOffset(col, off);
+              if (max != null) {
+                nextMaxOffsets.put(col, max);
+              }
+            }
         );
 
         if (!reconstructedPartitions.remove(sourceTableContext, lastPartition)) {
@@ -475,7 +482,9 @@ public final class MultithreadedTableProvider {
     }
 
     final int maxPartitionWithData = getMaxPartitionWithData(tableContext);
-    if (partition.getPartitionSequence() - maxPartitionWithData > maxNumActivePartitions(tableContext)) {
+    // split point partitions cover a fixed set of ranges, so keep creating them even across empty ones
+    if (!tableContext.isSplitPointPartitioned()
+        && partition.getPartitionSequence() - maxPartitionWithData > maxNumActivePartitions(tableContext)) {
       if (LOG.isDebugEnabled()) {
         LOG.debug(
             "Cannot create new partition for ({}) because there has been no data seen since partition {}",
@@ -553,9 +562,11 @@ public final class MultithreadedTableProvider {
               // no currently active partitions for the table
               numActivePartitions == 0
               // and the number of partitions since we last saw data
-              && partition.getPartitionSequence() - maxPartitionWithData
+              && (partition.getPartitionSequence() - maxPartitionWithData
               // is greater than or equal to the max number of active partitions minus 1
-              >= (maxNumActivePartitions(partition.getSourceTableContext()) - 1);
+              >= (maxNumActivePartitions(partition.getSourceTableContext()) - 1)
+              // or this partition covers the remainder of a split point partitioned table
+              || partition.isFinalSplitPointPartition());
           if (!activeContextIter.hasNext() && thisPartition.isMarkedNoMoreData()
               && (!partition.isPartitioned() || lastPartition)) {
             // this is the last partition, and was already marked no more data once
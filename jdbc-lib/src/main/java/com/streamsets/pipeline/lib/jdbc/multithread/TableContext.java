@@ -20,6 +20,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.JDBCType;
+import java.sql.SQLException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -38,12 +39,14 @@ public class TableContext {
   private final LinkedHashMap<String, Integer> offsetColumnToType = new LinkedHashMap<>();
   private final Map<String, String> offsetColumnToPartitionOffsetAdjustments = new HashMap<>();
   private final Map<String, String> offsetColumnToMinValues = new HashMap<>();
+  private final Map<String, List<String>> offsetColumnToSplitPoints = new HashMap<>();
   private final boolean enableNonIncremental;
   private final PartitioningMode partitioningMode;
   private final int maxNumActivePartitions;
   private final String extraOffsetColumnConditions;
   private final boolean partitionable;
   private Map<String, String> offsetColumnToStartOffset = new HashMap<>();
+  private SplitPointLocator splitPointLocator;
   // optionally store all column labels and types
   private Map<String, Integer> columnToType = new LinkedHashMap<>();
 
@@ -58,6 +61,34 @@ public class TableContext {
       PartitioningMode partitioningMode,
       int maxNumActivePartitions,
       String extraOffsetColumnConditions
+  ) {
+    this(
+        schema,
+        tableName,
+        offsetColumnToType,
+        offsetColumnToStartOffset,
+        offsetColumnToPartitionOffsetAdjustments,
+        offsetColumnToMinValues,
+        null,
+        enableNonIncremental,
+        partitioningMode,
+        maxNumActivePartitions,
+        extraOffsetColumnConditions
+    );
+  }
+
+  public TableContext(
+      String schema,
+      String tableName,
+      LinkedHashMap<String, Integer> offsetColumnToType,
+      Map<String, String> offsetColumnToStartOffset,
+      Map<String, String> offsetColumnToPartitionOffsetAdjustments,
+      Map<String, String> offsetColumnToMinValues,
+      Map<String, List<String>> offsetColumnToSplitPoints,
+      boolean enableNonIncremental,
+      PartitioningMode partitioningMode,
+      int maxNumActivePartitions,
+      String extraOffsetColumnConditions
   ) {
     this.schema = schema;
     this.tableName = tableName;
@@ -70,6 +101,11 @@ public class TableContext {
     if (offsetColumnToMinValues != null) {
       this.offsetColumnToMinValues.putAll(offsetColumnToMinValues);
     }
+    if (offsetColumnToSplitPoints != null) {
+      offsetColumnToSplitPoints.forEach(
+          (col, splitPoints) -> this.offsetColumnToSplitPoints.put(col, Collections.unmodifiableList(splitPoints))
+      );
+    }
     this.extraOffsetColumnConditions = extraOffsetColumnConditions;
     this.enableNonIncremental = enableNonIncremental;
     this.partitioningMode = partitioningMode;
@@ -120,6 +156,30 @@ public class TableContext {
     return Collections.unmodifiableMap(offsetColumnToMinValues);
   }
 
+  /**
+   * Returns the sampled split points for offset columns that are partitioned by split points rather than by adding
+   * the partition size to the previous offset.  Each list is in ascending order and excludes the minimum value.
+   */
+  public Map<String, List<String>> getOffsetColumnToSplitPoints() {
+    return Collections.unmodifiableMap(offsetColumnToSplitPoints);
+  }
+
+  public boolean isSplitPointPartitioned() {
+    return !offsetColumnToSplitPoints.isEmpty();
+  }
+
+  /**
+   * Returns the locator used to place offsets that are not split points, or null if there is none (in which case
+   * partitions starting at such offsets are unbounded).
+   */
+  public SplitPointLocator getSplitPointLocator() {
+    return splitPointLocator;
+  }
+
+  public void setSplitPointLocator(SplitPointLocator splitPointLocator) {
+    this.splitPointLocator = splitPointLocator;
+  }
+
   public boolean isNonIncrementalLoadRequired() {
     return isEnableNonIncremental() && getOffsetColumns().isEmpty();
   }
@@ -174,7 +234,9 @@ public class TableContext {
 
     for (Map.Entry<String, Integer> offsetColToType : sourceTableContext.getOffsetColumnToType().entrySet()) {
       final int type = offsetColToType.getValue();
-      if (!TableContextUtil.PARTITIONABLE_TYPES.contains(type)) {
+      final boolean splitPointPartitionable = TableContextUtil.SPLIT_POINT_PARTITIONABLE_TYPES.contains(type)
+          && sourceTableContext.getOffsetColumnToSplitPoints().containsKey(offsetColToType.getKey());
+      if (!TableContextUtil.PARTITIONABLE_TYPES.contains(type) && !splitPointPartitionable) {
         reasons.add(String.format(
             "Table %s is not partitionable because %s column (type %s) is not partitionable",
             tableName,
@@ -242,4 +304,13 @@ public class TableContext {
   public Map<String, Integer> getColumnToType() {
     return this.columnToType;
   }
+
+  /**
+   * Finds the first split point after an offset that is not itself a split point, according to the ordering of the
+   * database holding the table.
+   */
+  @FunctionalInterface
+  public interface SplitPointLocator {
+    String getNextSplitPoint(String column, String offset, List<String> splitPoints) throws SQLException;
+  }
 }
@@ -15,10 +15,12 @@
  */
 package com.streamsets.pipeline.lib.jdbc.multithread;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import com.google.common.primitives.Longs;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.Stage;
@@ -50,6 +52,7 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -86,6 +89,17 @@ public final class TableContextUtil {
     .add(Types.NUMERIC)
     .build();
 
+  /**
+   * Offset column types that cannot be partitioned by adding the partition size to an offset, but that can be
+   * partitioned by sampling split points from the table (the partition size is then the number of rows per partition)
+   */
+  public static final Set<Integer> SPLIT_POINT_PARTITIONABLE_TYPES = ImmutableSet.<Integer>builder()
+    .add(Types.CHAR)
+    .add(Types.VARCHAR)
+    .add(Types.NCHAR)
+    .add(Types.NVARCHAR)
+    .build();
+
 
   private TableContextUtil() {}
 
@@ -205,6 +219,30 @@ public final class TableContextUtil {
       ));
     }
 
+    final Map<String, List<String>> offsetColumnSplitPoints = new HashMap<>();
+    if (tableConfigBean.partitioningMode != PartitioningMode.DISABLED
+        && tableConfigBean.partitionCharacterOffsets
+        && offsetColumnToType.size() == 1) {
+      final Map.Entry<String, Integer> offsetColumn = offsetColumnToType.entrySet().iterator().next();
+      if (SPLIT_POINT_PARTITIONABLE_TYPES.contains(offsetColumn.getValue())
+          && offsetColumnMinValues.containsKey(offsetColumn.getKey())) {
+        final Long rowsPerPartition = Longs.tryParse(Strings.nullToEmpty(tableConfigBean.partitionSize));
+        if (rowsPerPartition != null && rowsPerPartition > 0) {
+          offsetColumnSplitPoints.put(offsetColumn.getKey(), JdbcUtil.getSplitPointOffsetValues(
+              connection,
+              schemaName,
+              tableName,
+              quoteChar,
+              offsetColumn.getKey(),
+              rowsPerPartition
+          ));
+        } else {
+          // leave the column partitionable so that the invalid partition size is reported during validation
+          offsetColumnSplitPoints.put(offsetColumn.getKey(), Collections.emptyList());
+        }
+      }
+    }
+
     //Initial offset should exist for all partition columns or none at all.
     if (!tableConfigBean.offsetColumnToInitialOffsetValue.isEmpty()) {
       Set<String> missingColumns =
@@ -249,6 +287,7 @@ public final class TableContextUtil {
         offsetColumnToStartOffset,
         offsetAdjustments,
         offsetColumnMinValues,
+        offsetColumnSplitPoints,
         tableConfigBean.enableNonIncremental,
         tableConfigBean.partitioningMode,
         tableConfigBean.maxNumActivePartitions,
@@ -426,6 +465,11 @@ public final class TableContextUtil {
       case Types.TIME:
       case Types.DATE:
       case Types.TIMESTAMP:
+        // for split point partitioned columns, the partition size is the number of rows per partition
+      case Types.CHAR:
+      case Types.VARCHAR:
+      case Types.NCHAR:
+      case Types.NVARCHAR:
         try {
           long longVal = Long.parseLong(partitionSize);
           if (longVal <= 0) {
@@ -511,6 +555,10 @@ public final class TableContextUtil {
       String column,
       String offset
   ) {
+    final List<String> splitPoints = tableContext.getOffsetColumnToSplitPoints().get(column);
+    if (splitPoints != null) {
+      return getNextSplitPoint(tableContext, column, splitPoints, offset);
+    }
     final String partitionSize = tableContext.getOffsetColumnToPartitionOffsetAdjustments().get(column);
     switch (tableContext.getOffsetColumnToType().get(column)) {
       case Types.TINYINT:
@@ -549,6 +597,42 @@ public final class TableContextUtil {
     return null;
   }
 
+  /**
+   * Returns the first split point after the given offset, or null if the offset is at or beyond the last split point
+   * (meaning the partition starting at that offset is unbounded).  Offsets are normally the minimum value or one of
+   * the split points themselves; an offset from a previous sampling (ex: restored from stored offsets) is placed by
+   * the table's {@link TableContext.SplitPointLocator}, so that the database collation decides the ordering.  Without
+   * a locator, or if it fails, the partition starting at such an offset is left unbounded.
+   *
+   * @param tableContext the table context
+   * @param column the split point partitioned offset column
+   * @param splitPoints the split points, in ascending order
+   * @param offset the starting offset of a partition
+   * @return the next split point, or null if there is none
+   */
+  @VisibleForTesting
+  static String getNextSplitPoint(TableContext tableContext, String column, List<String> splitPoints, String offset) {
+    final int index = splitPoints.indexOf(offset);
+    if (index >= 0) {
+      return index + 1 < splitPoints.size() ? splitPoints.get(index + 1) : null;
+    }
+    final TableContext.SplitPointLocator locator = tableContext.getSplitPointLocator();
+    if (locator == null) {
+      return null;
+    }
+    try {
+      return locator.getNextSplitPoint(column, offset, splitPoints);
+    } catch (SQLException e) {
+      LOG.warn(
+          "Error locating the split point after offset {} of table {}; leaving the partition unbounded",
+          offset,
+          tableContext.getQualifiedName(),
+          e
+      );
+      return null;
+    }
+  }
+
   public static String getOffsetValueForTimestamp(Timestamp timestamp) {
     return getOffsetValueForTimestampParts(timestamp.getTime(), timestamp.getNanos());
   }
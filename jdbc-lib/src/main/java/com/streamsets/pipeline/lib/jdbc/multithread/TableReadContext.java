@@ -19,6 +19,7 @@ import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
+import com.streamsets.pipeline.lib.jdbc.ResultSetRowReader;
 import com.streamsets.pipeline.lib.jdbc.multithread.util.OffsetQueryUtil;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
@@ -40,6 +41,7 @@ public final class TableReadContext {
   private final ResultSet rs;
   private final boolean neverEvict;
   private int numberOfBatches;
+  private ResultSetRowReader rowReader;
 
   public TableReadContext(
       Connection connection,
@@ -130,6 +132,17 @@ public final class TableReadContext {
     this.numberOfBatches = numberOfBatches;
   }
 
+  /**
+   * Row reader plan of the result set, null until the first row is read.
+   */
+  public ResultSetRowReader getRowReader() {
+    return rowReader;
+  }
+
+  public void setRowReader(ResultSetRowReader rowReader) {
+    this.rowReader = rowReader;
+  }
+
   public boolean isNeverEvict() {
     return neverEvict;
   }
@@ -147,10 +147,13 @@ public class TableRuntimeContext {
       // we can use the min values to populate the starting and max partition offsets
 
       this.startingPartitionOffsets.putAll(minOffsetValues);
-      this.startingPartitionOffsets.forEach((col, offset) -> this.maxPartitionOffsets.put(
-          col,
-          TableContextUtil.generateNextPartitionOffset(sourceTableContext, col, offset)
-      ));
+      this.startingPartitionOffsets.forEach((col, offset) -> {
+        final String max = TableContextUtil.generateNextPartitionOffset(sourceTableContext, col, offset);
+        // a split point partitioned table with no split points has a single, unbounded partition
+        if (max != null) {
+          this.maxPartitionOffsets.put(col, max);
+        }
+      });
     }
 
     if (LOG.isDebugEnabled()) {
@@ -475,15 +478,34 @@ public class TableRuntimeContext {
 
     final int newPartitionSequence = lastPartition.partitionSequence > 0 ? lastPartition.partitionSequence + 1 : 1;
 
-    lastPartition.startingPartitionOffsets.forEach(
-        (col, off) -> {
-          String basedOnStartOffset = lastPartition.generateNextPartitionOffset(col, off);
-          nextStartingOffsets.put(col, basedOnStartOffset);
+    if (lastPartition.getSourceTableContext().isSplitPointPartitioned()) {
+      if (lastPartition.isFinalSplitPointPartition()) {
+        if (LOG.isTraceEnabled()) {
+          LOG.trace(
+              "Cannot create next partition after {} since it is the last split point partition",
+              lastPartition.getPartitionSequence()
+          );
         }
-    );
+        return null;
+      }
+      // split point partitions are contiguous, so the next one always starts where the last one ended
+      nextStartingOffsets.putAll(lastPartition.maxPartitionOffsets);
+    } else {
+      lastPartition.startingPartitionOffsets.forEach(
+          (col, off) -> {
+            String basedOnStartOffset = lastPartition.generateNextPartitionOffset(col, off);
+            nextStartingOffsets.put(col, basedOnStartOffset);
+          }
+      );
+    }
 
     nextStartingOffsets.forEach(
-        (col, off) -> nextMaxOffsets.put(col, lastPartition.generateNextPartitionOffset(col, off))
+        (col, off) -> {
+          String max = lastPartition.generateNextPartitionOffset(col, off);
+          if (max != null) {
+            nextMaxOffsets.put(col, max);
+          }
+        }
     );
 
 
@@ -499,6 +521,17 @@ public class TableRuntimeContext {
     return nextPartition;
   }
 
+  /**
+   * Returns whether this is the last partition of a split point partitioned table, which has no max offsets since it
+   * covers every value from the last split point onwards (including rows inserted after the split points were sampled)
+   */
+  public boolean isFinalSplitPointPartition() {
+    return partitioned
+        && sourceTableContext.isSplitPointPartitioned()
+        && !startingPartitionOffsets.isEmpty()
+        && maxPartitionOffsets.isEmpty();
+  }
+
   public String generateNextPartitionOffset(String column, String offset) {
     return TableContextUtil.generateNextPartitionOffset(
         sourceTableContext,
@@ -564,7 +597,9 @@ public class TableRuntimeContext {
           startingPartitionOffsets.put(column, offset);
           if (partitioned) {
             final String max = generateNextPartitionOffset(column, offset);
-            maxPartitionOffsets.put(column, max);
+            if (max != null) {
+              maxPartitionOffsets.put(column, max);
+            }
           }
         }
       }
@@ -32,7 +32,7 @@ import com.streamsets.pipeline.lib.jdbc.UnknownTypeAction;
 import com.streamsets.pipeline.lib.jdbc.UnknownTypeActionChooserValues;
 
 @StageDef(
-    version = 10,
+    version = 11,
     label = "JDBC Query Consumer",
     description = "Reads data from a JDBC source using a query.",
     icon = "rdbms.png",
@@ -99,6 +99,31 @@ public class JdbcDSource extends DSource {
   )
   public String offsetColumn;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Number of Partitions",
+      description = "Number of ranges of the partition column to read concurrently, each on its own connection from" +
+          " the pool. In incremental mode, the offset column is the partition column. Use 1 to disable partitioning.",
+      displayPosition = 60,
+      group = "JDBC",
+      min = 1
+  )
+  public int numPartitions = 1;
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.STRING,
+      label = "Partition Column",
+      description = "Numeric, date or timestamp column returned by the query whose values are split into ranges.",
+      displayPosition = 65,
+      group = "JDBC",
+      dependsOn = "isIncrementalMode",
+      triggeredByValue = "false"
+  )
+  public String partitionColumn;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.MODEL,
@@ -213,7 +238,9 @@ public class JdbcDSource extends DSource {
         jdbcNsHeaderPrefix,
         hikariConfigBean,
         unknownTypeAction,
-        queryInterval
+        queryInterval,
+        numPartitions,
+        partitionColumn
       );
   }
 }
@@ -0,0 +1,482 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.streamsets.pipeline.api.ErrorCode;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
+import com.streamsets.pipeline.lib.jdbc.ResultSetRowReader;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.JDBCType;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One execution of the JDBC Query Consumer's query in partitioned mode.  The values of the partition column returned
+ * by the query are split into contiguous ranges, and each range is read concurrently on its own pooled connection
+ * by wrapping the query in a derived table that bounds the partition column.  The readers only convert the rows to
+ * fields; the rows flow back to the producing thread through a bounded queue, and records are created (and conversion
+ * errors reported) there.  The offset reported for the query is the low water mark of the ranges (every row at or
+ * before it has been handed out), so it can be substituted for ${OFFSET} exactly as before.
+ */
+final class JdbcPartitionedQuery implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(JdbcPartitionedQuery.class);
+
+  static final String BOUNDS_QUERY = "SELECT MIN(%s), MAX(%s) FROM (%s) SDC_BOUNDS";
+  static final String RANGE_QUERY = "SELECT * FROM (%s) SDC_PARTITION WHERE %s ORDER BY %s";
+
+  private static final Pattern TRAILING_SEMICOLON = Pattern.compile("(?s)\\s*;\\s*$");
+  // a final ORDER BY clause (not inside parentheses or quotes, and without row limiting) is applied outside instead
+  private static final Pattern TRAILING_ORDER_BY = Pattern.compile(
+      "(?is)\\s+ORDER\\s+BY\\s+(?:(?!\\b(?:LIMIT|FETCH|OFFSET|ROWS|TOP)\\b)[^()'])*$"
+  );
+  private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+  /**
+   * Reports a conversion error of a row to the error record handler of the producing thread.
+   */
+  @FunctionalInterface
+  private interface RowError {
+    void report(ErrorRecordHandler errorRecordHandler) throws StageException;
+  }
+
+  /**
+   * Creates the reader used for the rows of a range, once per range.
+   */
+  @FunctionalInterface
+  interface RowReaderFactory {
+    ResultSetRowReader create(ResultSetMetaData metaData) throws SQLException;
+  }
+
+  /**
+   * A contiguous range of partition column values, read by a single statement.
+   */
+  static final class Range {
+    private final int index;
+    private final Object lowerBound;
+    private final boolean lowerInclusive;
+    private final Object upperBound;
+    private volatile boolean finished;
+    private String lastOffset;
+
+    Range(int index, Object lowerBound, boolean lowerInclusive, Object upperBound) {
+      this.index = index;
+      this.lowerBound = lowerBound;
+      this.lowerInclusive = lowerInclusive;
+      this.upperBound = upperBound;
+    }
+
+    int getIndex() {
+      return index;
+    }
+
+    Object getLowerBound() {
+      return lowerBound;
+    }
+
+    boolean isLowerInclusive() {
+      return lowerInclusive;
+    }
+
+    Object getUpperBound() {
+      return upperBound;
+    }
+
+    String getCondition(String column) {
+      StringBuilder condition = new StringBuilder()
+          .append(column)
+          .append(lowerInclusive ? " >= ?" : " > ?");
+      if (upperBound != null) {
+        condition.append(" AND ").append(column).append(" <= ?");
+      }
+      return condition.toString();
+    }
+
+    boolean isFinished() {
+      return finished;
+    }
+
+    String getLastOffset() {
+      return lastOffset;
+    }
+  }
+
+  /**
+   * A row read by a range reader, converted to fields.  Conversion errors are kept with the row rather than reported
+   * on the reader thread, so that the producing thread reports them along with the row.
+   */
+  static final class Row implements ErrorRecordHandler {
+    private final Range range;
+    private final ResultSetRowReader rowReader;
+    private final long rowCount;
+    private final String offset;
+    private final List<RowError> errors = new ArrayList<>();
+    private LinkedHashMap<String, Field> fields;
+
+    private Row(Range range, ResultSetRowReader rowReader, long rowCount, String offset) {
+      this.range = range;
+      this.rowReader = rowReader;
+      this.rowCount = rowCount;
+      this.offset = offset;
+    }
+
+    Range getRange() {
+      return range;
+    }
+
+    ResultSetRowReader getRowReader() {
+      return rowReader;
+    }
+
+    /**
+     * Position of the row within its range.
+     */
+    long getRowCount() {
+      return rowCount;
+    }
+
+    String getOffset() {
+      return offset;
+    }
+
+    LinkedHashMap<String, Field> getFields() {
+      return fields;
+    }
+
+    /**
+     * Reports the conversion errors of the row, to be called by the producing thread.
+     */
+    void reportErrors(ErrorRecordHandler errorRecordHandler) throws StageException {
+      for (RowError error : errors) {
+        error.report(errorRecordHandler);
+      }
+    }
+
+    @Override
+    public void onError(ErrorCode errorCode, Object... params) {
+      errors.add(handler -> handler.onError(errorCode, params));
+    }
+
+    @Override
+    public void onError(OnRecordErrorException error) {
+      errors.add(handler -> handler.onError(error));
+    }
+
+    @Override
+    public void onError(List<Record> batch, StageException error) {
+      errors.add(handler -> handler.onError(batch, error));
+    }
+  }
+
+  /**
+   * An element of the queue between the range readers and the producing thread: a row, the end of a range, or
+   * the failure of a range.
+   */
+  static final class Result {
+    private final Range range;
+    private final Row row;
+    private final Exception error;
+
+    private Result(Range range, Row row, Exception error) {
+      this.range = range;
+      this.row = row;
+      this.error = error;
+    }
+
+    Range getRange() {
+      return range;
+    }
+
+    Row getRow() {
+      return row;
+    }
+
+    Exception getError() {
+      return error;
+    }
+
+    boolean isEndOfRange() {
+      return row == null && error == null;
+    }
+  }
+
+  private final DataSource dataSource;
+  private final ExecutorService executor;
+  private final String query;
+  private final String partitionColumn;
+  private final String offsetColumn;
+  private final int numPartitions;
+  private final int fetchSize;
+  private final RowReaderFactory rowReaderFactory;
+  private final BlockingQueue<Result> results;
+  private final List<Range> ranges = new ArrayList<>();
+
+  private volatile boolean closed = false;
+  private String committedOffset;
+  private int finishedRanges = 0;
+
+  JdbcPartitionedQuery(
+      DataSource dataSource,
+      ExecutorService executor,
+      String preparedQuery,
+      String partitionColumn,
+      String offsetColumn,
+      String startingOffset,
+      int numPartitions,
+      int fetchSize,
+      int queueCapacity,
+      RowReaderFactory rowReaderFactory
+  ) {
+    this.dataSource = dataSource;
+    this.executor = executor;
+    this.query = getInnerQuery(preparedQuery);
+    this.partitionColumn = partitionColumn;
+    this.offsetColumn = offsetColumn;
+    this.committedOffset = startingOffset;
+    this.numPartitions = numPartitions;
+    this.fetchSize = fetchSize;
+    this.rowReaderFactory = rowReaderFactory;
+    this.results = new ArrayBlockingQueue<>(queueCapacity);
+  }
+
+  /**
+   * Strips what can't appear inside a derived table from the end of the query: a statement terminator, and a final
+   * ORDER BY clause (the ranges are ordered by the partition column instead).
+   */
+  @VisibleForTesting
+  static String getInnerQuery(String query) {
+    String inner = TRAILING_SEMICOLON.matcher(query).replaceFirst("");
+    Matcher orderBy = TRAILING_ORDER_BY.matcher(inner);
+    return orderBy.find() ? inner.substring(0, orderBy.start()) : inner;
+  }
+
+  /**
+   * Looks up the bounds of the partition column, then submits one reader per range.
+   */
+  void start() throws SQLException, StageException {
+    final String boundsQuery = String.format(BOUNDS_QUERY, partitionColumn, partitionColumn, query);
+    LOG.debug("Looking up partition bounds with query: {}", boundsQuery);
+    try (
+        Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet rs = statement.executeQuery(boundsQuery)
+    ) {
+      if (rs.next()) {
+        ranges.addAll(createRanges(rs, partitionColumn, numPartitions));
+      }
+    }
+    LOG.debug("Reading {} ranges of partition column {}", ranges.size(), partitionColumn);
+    for (Range range : ranges) {
+      executor.submit(() -> read(range));
+    }
+  }
+
+  @VisibleForTesting
+  static List<Range> createRanges(ResultSet bounds, String partitionColumn, int numPartitions) throws SQLException,
+      StageException {
+    final int type = bounds.getMetaData().getColumnType(2);
+    final List<Object> splits = new ArrayList<>();
+    switch (type) {
+      case Types.TINYINT:
+      case Types.SMALLINT:
+      case Types.INTEGER:
+      case Types.BIGINT:
+      case Types.FLOAT:
+      case Types.REAL:
+      case Types.DOUBLE:
+      case Types.NUMERIC:
+      case Types.DECIMAL:
+        final BigDecimal min = bounds.getBigDecimal(1);
+        final BigDecimal max = bounds.getBigDecimal(2);
+        if (min == null || max == null) {
+          return Collections.emptyList();
+        }
+        final int scale = Math.max(min.scale(), max.scale());
+        // at least one unit of the column's scale, or with fewer distinct values than partitions all splits are equal
+        final BigDecimal step = max.subtract(min)
+            .divide(BigDecimal.valueOf(numPartitions), scale, RoundingMode.FLOOR)
+            .max(BigDecimal.ONE.movePointLeft(scale));
+        splits.add(min);
+        for (int i = 1; i < numPartitions; i++) {
+          final BigDecimal split = min.add(step.multiply(BigDecimal.valueOf(i)));
+          if (split.compareTo(max) > 0) {
+            break;
+          }
+          splits.add(split);
+        }
+        break;
+      case Types.DATE:
+      case Types.TIME:
+      case Types.TIMESTAMP:
+        final Timestamp minTime = bounds.getTimestamp(1);
+        final Timestamp maxTime = bounds.getTimestamp(2);
+        if (minTime == null || maxTime == null) {
+          return Collections.emptyList();
+        }
+        final long stepMillis = Math.max(1, (maxTime.getTime() - minTime.getTime()) / numPartitions);
+        splits.add(minTime);
+        for (int i = 1; i < numPartitions; i++) {
+          final long splitMillis = minTime.getTime() + stepMillis * i;
+          if (splitMillis > maxTime.getTime()) {
+            break;
+          }
+          splits.add(new Timestamp(splitMillis));
+        }
+        break;
+      default:
+        throw new StageException(JdbcErrors.JDBC_106, partitionColumn, JDBCType.valueOf(type).getName());
+    }
+
+    // ranges are (split i, split i + 1], except the first which includes the minimum, and the last which is unbounded
+    // so that nothing after the last split is missed (ex: to nanosecond precision, or rows inserted since); when an
+    // empty range is skipped, the range that takes its place as the first one still includes the minimum
+    final List<Range> ranges = new ArrayList<>();
+    for (int i = 0; i < splits.size(); i++) {
+      Object lower = splits.get(i);
+      Object upper = i + 1 < splits.size() ? splits.get(i + 1) : null;
+      if (upper != null && upper.equals(lower)) {
+        // fewer distinct values than partitions
+        continue;
+      }
+      ranges.add(new Range(ranges.size(), lower, ranges.isEmpty(), upper));
+    }
+    return ranges;
+  }
+
+  private void read(Range range) {
+    final String rangeQuery = String.format(RANGE_QUERY, query, range.getCondition(partitionColumn), partitionColumn);
+    try (
+        Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(
+            rangeQuery,
+            ResultSet.TYPE_FORWARD_ONLY,
+            ResultSet.CONCUR_READ_ONLY
+        )
+    ) {
+      statement.setFetchSize(fetchSize);
+      statement.setObject(1, range.getLowerBound());
+      if (range.getUpperBound() != null) {
+        statement.setObject(2, range.getUpperBound());
+      }
+      LOG.trace("Reading range {} with query: {}", range.getIndex(), rangeQuery);
+      try (ResultSet rs = statement.executeQuery()) {
+        ResultSetRowReader rowReader = null;
+        long rowCount = 0;
+        while (!closed && rs.next()) {
+          if (rowReader == null) {
+            rowReader = rowReaderFactory.create(rs.getMetaData());
+          }
+          Row row = new Row(range, rowReader, rowCount++, offsetColumn == null ? null : rs.getString(offsetColumn));
+          row.fields = rowReader.readRow(rs, row);
+          offer(new Result(range, row, null));
+        }
+      }
+      offer(new Result(range, null, null));
+    } catch (Exception e) {
+      LOG.debug("Failed to read range {}: {}", range.getIndex(), e.toString(), e);
+      offer(new Result(range, null, e));
+    }
+  }
+
+  private void offer(Result result) {
+    try {
+      while (!closed && !results.offer(result, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+        LOG.trace("Waiting for room in the partitioned query queue");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Returns the next result, waiting up to the given time if none is available yet.
+   */
+  Result poll(long timeout, TimeUnit unit) throws InterruptedException {
+    Result result = results.poll(timeout, unit);
+    if (result != null && result.getError() == null) {
+      final Range range = result.getRange();
+      if (result.isEndOfRange()) {
+        range.finished = true;
+        finishedRanges++;
+        updateCommittedOffset();
+      } else if (result.getRow().getOffset() != null) {
+        range.lastOffset = result.getRow().getOffset();
+        updateCommittedOffset();
+      }
+    }
+    return result;
+  }
+
+  private void updateCommittedOffset() {
+    // every earlier range is complete, so all rows up to the last offset of the first incomplete range are handed out
+    for (Range range : ranges) {
+      if (range.getLastOffset() != null) {
+        committedOffset = range.getLastOffset();
+      }
+      if (!range.isFinished()) {
+        break;
+      }
+    }
+  }
+
+  /**
+   * Returns the offset to substitute for ${OFFSET} if the query was to be started again now.
+   */
+  String getCommittedOffset() {
+    return committedOffset;
+  }
+
+  boolean isFinished() {
+    return finishedRanges == ranges.size();
+  }
+
+  @VisibleForTesting
+  List<Range> getRanges() {
+    return Collections.unmodifiableList(ranges);
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    results.clear();
+  }
+}
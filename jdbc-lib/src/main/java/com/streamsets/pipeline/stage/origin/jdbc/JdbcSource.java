@@ -20,6 +20,7 @@ import com.google.common.base.Charsets;
 import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.pipeline.api.BatchMaker;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
@@ -36,6 +37,7 @@ import com.streamsets.pipeline.lib.jdbc.HikariPoolConfigBean;
 import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
 import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
 import com.streamsets.pipeline.lib.jdbc.MSOperationCode;
+import com.streamsets.pipeline.lib.jdbc.ResultSetRowReader;
 import com.streamsets.pipeline.lib.jdbc.UnknownTypeAction;
 import com.streamsets.pipeline.lib.util.ThreadUtil;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
@@ -60,6 +62,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 public class JdbcSource extends BaseSource {
@@ -78,6 +83,9 @@ public class JdbcSource extends BaseSource {
   private static final String TXN_ID_COLUMN_NAME = "txnIdColumnName";
   private static final String TXN_MAX_SIZE = "txnMaxSize";
   private static final String JDBC_NS_HEADER_PREFIX = "jdbcNsHeaderPrefix";
+  private static final String NUM_PARTITIONS = "numPartitions";
+  private static final String PARTITION_COLUMN = "partitionColumn";
+  private static final long PARTITION_POLL_TIMEOUT_MILLIS = 1000;
   private static final HashFunction HF = Hashing.sha256();
   private static final EventCreator QUERY_SUCCESS = new EventCreator.Builder("jdbc-query-success", 1)
       .withRequiredField(QUERY)
@@ -106,12 +114,15 @@ public class JdbcSource extends BaseSource {
   private final String jdbcNsHeaderPrefix;
   private final boolean disableValidation;
   private final UnknownTypeAction unknownTypeAction;
+  private final int numPartitions;
+  private final String partitionColumn;
 
   private ErrorRecordHandler errorRecordHandler;
   private long queryIntervalMillis = Long.MIN_VALUE;
   private HikariDataSource dataSource = null;
   private Connection connection = null;
   private ResultSet resultSet = null;
+  private ResultSetRowReader rowReader = null;
   private long lastQueryCompletedTime = 0L;
   private String preparedQuery;
   private String hashedQuery;
@@ -122,6 +133,8 @@ public class JdbcSource extends BaseSource {
   private String tableNames;
   private boolean shouldFire = true;
   private boolean firstTime = true;
+  private ExecutorService partitionExecutor = null;
+  private JdbcPartitionedQuery partitionedQuery = null;
 
   public JdbcSource(
       boolean isIncrementalMode,
@@ -138,6 +151,44 @@ public class JdbcSource extends BaseSource {
       HikariPoolConfigBean hikariConfigBean,
       UnknownTypeAction unknownTypeAction,
       long queryInterval
+  ) {
+    this(
+        isIncrementalMode,
+        query,
+        initialOffset,
+        offsetColumn,
+        disableValidation,
+        txnColumnName,
+        txnMaxSize,
+        jdbcRecordType,
+        commonSourceConfigBean,
+        createJDBCNsHeaders,
+        jdbcNsHeaderPrefix,
+        hikariConfigBean,
+        unknownTypeAction,
+        queryInterval,
+        1,
+        null
+    );
+  }
+
+  public JdbcSource(
+      boolean isIncrementalMode,
+      String query,
+      String initialOffset,
+      String offsetColumn,
+      boolean disableValidation,
+      String txnColumnName,
+      int txnMaxSize,
+      JdbcRecordType jdbcRecordType,
+      CommonSourceConfigBean commonSourceConfigBean,
+      boolean createJDBCNsHeaders,
+      String jdbcNsHeaderPrefix,
+      HikariPoolConfigBean hikariConfigBean,
+      UnknownTypeAction unknownTypeAction,
+      long queryInterval,
+      int numPartitions,
+      String partitionColumn
   ) {
     this.isIncrementalMode = isIncrementalMode;
     this.query = query;
@@ -153,6 +204,8 @@ public class JdbcSource extends BaseSource {
     this.createJDBCNsHeaders = createJDBCNsHeaders;
     this.jdbcNsHeaderPrefix = jdbcNsHeaderPrefix;
     this.unknownTypeAction = unknownTypeAction;
+    this.numPartitions = numPartitions;
+    this.partitionColumn = partitionColumn;
   }
 
   @Override
@@ -213,6 +266,24 @@ public class JdbcSource extends BaseSource {
       issues.add(context.createConfigIssue(Groups.ADVANCED.name(), JDBC_NS_HEADER_PREFIX, JdbcErrors.JDBC_15));
     }
 
+    if (numPartitions > 1) {
+      if (!txnColumnName.isEmpty()) {
+        issues.add(context.createConfigIssue(Groups.JDBC.name(), NUM_PARTITIONS, JdbcErrors.JDBC_105));
+      }
+      if (!isIncrementalMode && StringUtils.isEmpty(partitionColumn)) {
+        issues.add(context.createConfigIssue(Groups.JDBC.name(), PARTITION_COLUMN, JdbcErrors.JDBC_103));
+      }
+      if (hikariConfigBean.maximumPoolSize < numPartitions) {
+        issues.add(context.createConfigIssue(
+            Groups.ADVANCED.name(),
+            HIKARI_CONFIG_PREFIX + HikariPoolConfigBean.MAX_POOL_SIZE_NAME,
+            JdbcErrors.JDBC_104,
+            hikariConfigBean.maximumPoolSize,
+            numPartitions
+        ));
+      }
+    }
+
     Properties driverProps = new Properties();
     try {
       driverProps = hikariConfigBean.getDriverProperties();
@@ -276,6 +347,13 @@ public class JdbcSource extends BaseSource {
     shouldFire = true;
     firstTime = true;
 
+    if (numPartitions > 1 && issues.isEmpty()) {
+      partitionExecutor = Executors.newFixedThreadPool(
+          numPartitions,
+          new ThreadFactoryBuilder().setNameFormat("jdbc-query-partition-%d").setDaemon(true).build()
+      );
+    }
+
     return issues;
   }
 
@@ -333,6 +411,10 @@ public class JdbcSource extends BaseSource {
 
   @Override
   public void destroy() {
+    closeQuietly(partitionedQuery);
+    if (partitionExecutor != null) {
+      partitionExecutor.shutdownNow();
+    }
     closeQuietly(resultSet);
     closeQuietly(connection);
     closeQuietly(dataSource);
@@ -342,6 +424,9 @@ public class JdbcSource extends BaseSource {
   @Override
   public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
     int batchSize = Math.min(this.commonSourceConfigBean.maxBatchSize, maxBatchSize);
+    if (numPartitions > 1 && !getContext().isPreview()) {
+      return producePartitioned(lastSourceOffset, batchSize, batchMaker);
+    }
     String nextSourceOffset = lastSourceOffset == null ? initialOffset : lastSourceOffset;
 
     long now = System.currentTimeMillis();
@@ -385,6 +470,7 @@ public class JdbcSource extends BaseSource {
           hashedQuery = hasher.putString(preparedQuery, Charsets.UTF_8).hash().toString();
           LOG.debug("Executing query: " + hashedQuery);
           resultSet = statement.executeQuery(preparedQuery);
+          rowReader = null;
           queryRowCount = 0;
           numQueryErrors = 0;
           firstQueryException = null;
@@ -506,6 +592,144 @@ public class JdbcSource extends BaseSource {
     return nextSourceOffset;
   }
 
+  /**
+   * Partitioned counterpart of {@link #produce(String, int, BatchMaker)}: the query is read as concurrent ranges of
+   * the partition column, and the offset returned is the low water mark of those ranges.
+   */
+  private String producePartitioned(
+      String lastSourceOffset,
+      int batchSize,
+      BatchMaker batchMaker
+  ) throws StageException {
+    String nextSourceOffset = lastSourceOffset == null ? initialOffset : lastSourceOffset;
+    try {
+      if (partitionedQuery == null) {
+        long delay = Math.max(0, (lastQueryCompletedTime + queryIntervalMillis) - System.currentTimeMillis());
+        if (delay > 0) {
+          // Sleep in one second increments so we don't tie up the app.
+          LOG.debug("{}ms remaining until next fetch.", delay);
+          ThreadUtil.sleep(Math.min(delay, 1000));
+          return nextSourceOffset;
+        }
+        preparedQuery = prepareQuery(query, lastSourceOffset);
+        LOG.trace("Executing partitioned query: " + preparedQuery);
+        hashedQuery = HF.newHasher().putString(preparedQuery, Charsets.UTF_8).hash().toString();
+        LOG.debug("Executing partitioned query: " + hashedQuery);
+        partitionedQuery = new JdbcPartitionedQuery(
+            dataSource,
+            partitionExecutor,
+            preparedQuery,
+            isIncrementalMode ? offsetColumn : partitionColumn,
+            isIncrementalMode ? offsetColumn : null,
+            nextSourceOffset,
+            numPartitions,
+            batchSize,
+            batchSize * numPartitions,
+            this::createPartitionRowReader
+        );
+        partitionedQuery.start();
+        queryRowCount = 0;
+        numQueryErrors = 0;
+        firstQueryException = null;
+      }
+
+      int rowCount = 0;
+      while (rowCount < batchSize && !partitionedQuery.isFinished()) {
+        JdbcPartitionedQuery.Result result = partitionedQuery.poll(
+            rowCount == 0 ? PARTITION_POLL_TIMEOUT_MILLIS : 0,
+            TimeUnit.MILLISECONDS
+        );
+        if (result == null) {
+          break;
+        }
+        if (result.getError() instanceof SQLException) {
+          throw (SQLException) result.getError();
+        } else if (result.getError() instanceof StageException) {
+          throw (StageException) result.getError();
+        } else if (result.getError() != null) {
+          throw new StageException(JdbcErrors.JDBC_75, result.getError().toString(), result.getError());
+        }
+        if (result.getRow() == null) {
+          continue;
+        }
+        final Record record = processRow(result.getRow());
+        if (record != null) {
+          batchMaker.addRecord(record);
+          ++rowCount;
+          ++queryRowCount;
+          ++noMoreDataRecordCount;
+          shouldFire = true;
+        }
+      }
+      LOG.debug("Processed rows: " + rowCount);
+      nextSourceOffset = isIncrementalMode ? partitionedQuery.getCommittedOffset() : initialOffset;
+
+      if (partitionedQuery.isFinished()) {
+        closeQuietly(partitionedQuery);
+        partitionedQuery = null;
+        lastQueryCompletedTime = System.currentTimeMillis();
+        LOG.debug("Query completed at: {}", lastQueryCompletedTime);
+        QUERY_SUCCESS.create(getContext())
+            .with(QUERY, preparedQuery)
+            .with(TIMESTAMP, lastQueryCompletedTime)
+            .with(ROW_COUNT, queryRowCount)
+            .with(SOURCE_OFFSET, nextSourceOffset)
+            .createAndSend();
+
+        if (!isIncrementalMode) {
+          generateNoMoreDataEvent();
+        } else if (rowCount == 0 && shouldFire && !firstTime) {
+          generateNoMoreDataEvent();
+          shouldFire = false;
+        }
+      }
+      firstTime = false;
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      if (partitionedQuery != null) {
+        nextSourceOffset = isIncrementalMode ? partitionedQuery.getCommittedOffset() : initialOffset;
+      }
+      closeQuietly(partitionedQuery);
+      partitionedQuery = null;
+    } catch (StageException e) {
+      closeQuietly(partitionedQuery);
+      partitionedQuery = null;
+      throw e;
+    } catch (SQLException e) {
+      if (++numQueryErrors == 1) {
+        firstQueryException = e;
+      }
+      String formattedError = JdbcUtil.formatSqlException(e);
+      LOG.error(formattedError, e);
+      if (partitionedQuery != null) {
+        // keep the progress of the ranges that were already handed out
+        nextSourceOffset = isIncrementalMode ? partitionedQuery.getCommittedOffset() : initialOffset;
+      }
+      closeQuietly(partitionedQuery);
+      partitionedQuery = null;
+      lastQueryCompletedTime = System.currentTimeMillis();
+      QUERY_FAILURE.create(getContext())
+          .with(QUERY, preparedQuery)
+          .with(TIMESTAMP, lastQueryCompletedTime)
+          .with(ERROR, formattedError)
+          .with(ROW_COUNT, queryRowCount)
+          .with(SOURCE_OFFSET, nextSourceOffset)
+          .createAndSend();
+      LOG.debug("Query '{}' failed at: {}; {} errors so far", preparedQuery, lastQueryCompletedTime, numQueryErrors);
+      if (numQueryErrors > commonSourceConfigBean.numSQLErrorRetries) {
+        throw new StageException(
+            JdbcErrors.JDBC_77,
+            e.getClass().getSimpleName(),
+            preparedQuery,
+            numQueryErrors,
+            JdbcUtil.formatSqlException(firstQueryException)
+        );
+      } // else allow nextSourceOffset to be returned, to retry
+    }
+    return nextSourceOffset;
+  }
+
   private void generateNoMoreDataEvent() {
     CommonEvents.NO_MORE_DATA.create(getContext())
       .with("record-count", noMoreDataRecordCount)
@@ -538,25 +762,76 @@ public class JdbcSource extends BaseSource {
   }
 
   private Record processRow(ResultSet resultSet, long rowCount) throws SQLException, StageException {
-    Source.Context context = getContext();
-    ResultSetMetaData md = resultSet.getMetaData();
-    int numColumns = md.getColumnCount();
+    if (rowReader == null) {
+      // built once per query, from the metadata of the result set
+      rowReader = createRowReader(resultSet.getMetaData());
+    }
+    return processRow(resultSet, rowReader, rowCount);
+  }
 
-    LinkedHashMap<String, Field> fields = JdbcUtil.resultSetToFields(
-        resultSet,
+  private ResultSetRowReader createRowReader(ResultSetMetaData metaData) throws SQLException {
+    return new ResultSetRowReader(
+        metaData,
         commonSourceConfigBean.maxClobSize,
         commonSourceConfigBean.maxBlobSize,
-        errorRecordHandler,
-        unknownTypeAction,
-        null
+        unknownTypeAction
     );
+  }
+
+  /**
+   * Row reader of a range of a partitioned query, with the headers looked up while its result set is open.
+   */
+  private ResultSetRowReader createPartitionRowReader(ResultSetMetaData metaData) throws SQLException {
+    ResultSetRowReader partitionRowReader = createRowReader(metaData);
+    if (createJDBCNsHeaders) {
+      partitionRowReader.captureColumnSpecificHeaders(jdbcNsHeaderPrefix);
+    }
+    return partitionRowReader;
+  }
+
+  /**
+   * Creates a record from the current row.
+   */
+  private Record processRow(
+      ResultSet resultSet,
+      ResultSetRowReader rowReader,
+      long rowCount
+  ) throws SQLException, StageException {
+    LinkedHashMap<String, Field> fields = rowReader.readRow(resultSet, errorRecordHandler);
+    final String recordContext = getRecordContextPrefix() + "::rowCount:" + rowCount + (StringUtils.isEmpty(offsetColumn) ? "" : ":" + resultSet.getString(offsetColumn));
+    return createRecord(fields, rowReader, recordContext);
+  }
+
+  /**
+   * Creates a record from a row read by a range of a partitioned query, reporting its conversion errors.  In
+   * non-incremental mode the row counts restart with each range, so the range is part of the record id.
+   */
+  private Record processRow(JdbcPartitionedQuery.Row row) throws SQLException, StageException {
+    row.reportErrors(errorRecordHandler);
+    final String recordContext = getRecordContextPrefix()
+        + (isIncrementalMode ? "" : "::range:" + row.getRange().getIndex())
+        + "::rowCount:" + row.getRowCount()
+        + (row.getOffset() == null ? "" : ":" + row.getOffset());
+    return createRecord(row.getFields(), row.getRowReader(), recordContext);
+  }
+
+  private String getRecordContextPrefix() {
+    return StringUtils.substring(query.replaceAll("[\n\r]", ""), 0, 100);
+  }
+
+  private Record createRecord(
+      LinkedHashMap<String, Field> fields,
+      ResultSetRowReader rowReader,
+      String recordContext
+  ) throws SQLException, StageException {
+    Source.Context context = getContext();
+    int numColumns = rowReader.getColumnCount();
 
     if (fields.size() != numColumns) {
       errorRecordHandler.onError(JdbcErrors.JDBC_35, fields.size(), numColumns);
       return null; // Don't output this record.
     }
 
-    final String recordContext = StringUtils.substring(query.replaceAll("[\n\r]", ""), 0, 100) + "::rowCount:" + rowCount + (StringUtils.isEmpty(offsetColumn) ? "" : ":" + resultSet.getString(offsetColumn));
     Record record = context.createRecord(recordContext);
     if (jdbcRecordType == JdbcRecordType.LIST_MAP) {
       record.set(Field.createListMap(fields));
@@ -574,7 +849,7 @@ public class JdbcSource extends BaseSource {
       record.set(Field.create(row));
     }
     if (createJDBCNsHeaders) {
-      JdbcUtil.setColumnSpecificHeaders(record, Collections.<String>emptySet(), md, jdbcNsHeaderPrefix);
+      rowReader.setColumnSpecificHeaders(record, Collections.<String>emptySet(), jdbcNsHeaderPrefix);
     }
     // We will add cdc operation type to record header even if createJDBCNsHeaders is false
     // we currently support CDC on only MS SQL.
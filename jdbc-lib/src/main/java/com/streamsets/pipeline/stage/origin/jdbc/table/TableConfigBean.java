@@ -39,6 +39,9 @@ public final class TableConfigBean {
       PARTITIONING_MODE_DEFAULT_VALUE_STR
   );
 
+  public static final String PARTITION_CHARACTER_OFFSETS_FIELD = "partitionCharacterOffsets";
+  public static final boolean PARTITION_CHARACTER_OFFSETS_DEFAULT_VALUE = false;
+
   public static final String ENABLE_NON_INCREMENTAL_FIELD = "enableNonIncremental";
   public static final boolean ENABLE_NON_INCREMENTAL_DEFAULT_VALUE = false;
 
@@ -150,12 +153,26 @@ public final class TableConfigBean {
   @ValueChooserModel(PartitioningModeChooserValues.class)
   public PartitioningMode partitioningMode = PARTITIONING_MODE_DEFAULT_VALUE;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Partition Character Offset Columns",
+      description = "Partitions tables with a single character offset column (ex: a VARCHAR key) by sampling split" +
+          " points, which scans the offset column in order when the pipeline starts.",
+      displayPosition = 85,
+      defaultValue = "" + PARTITION_CHARACTER_OFFSETS_DEFAULT_VALUE,
+      group = "TABLE",
+      dependsOn = "partitioningMode",
+      triggeredByValue = {"BEST_EFFORT", "REQUIRED"}
+  )
+  public boolean partitionCharacterOffsets = PARTITION_CHARACTER_OFFSETS_DEFAULT_VALUE;
+
   @ConfigDef(
       required = false,
       type = ConfigDef.Type.STRING,
       label = "Partition Size",
       description = "Controls the size of partitions.  This value represents the range of values that will be covered" +
-          " by a single partition.",
+          " by a single partition.  For character offset columns, it is the approximate number of rows per partition.",
       displayPosition = 90,
       defaultValue = DEFAULT_PARTITION_SIZE,
       group = "TABLE",
@@ -24,6 +24,7 @@ import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.lib.jdbc.HikariPoolConfigBean;
 import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
+import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
 import com.streamsets.pipeline.lib.jdbc.multithread.ConnectionManager;
 import com.streamsets.pipeline.lib.jdbc.multithread.TableContext;
 import com.streamsets.pipeline.lib.jdbc.multithread.TableContextUtil;
@@ -113,6 +114,21 @@ public class TableJdbcSource extends AbstractTableJdbcSource {
       ));
     }
 
+    // offsets that are not split points are placed by the database, on the connection of the calling thread
+    for (TableContext tableContext : allTableContexts.values()) {
+      if (tableContext.isSplitPointPartitioned()) {
+        tableContext.setSplitPointLocator((column, offset, splitPoints) -> JdbcUtil.getNextSplitPoint(
+            connectionManager.getConnection(),
+            tableContext.getSchema(),
+            tableContext.getTableName(),
+            tableJdbcConfigBean.quoteChar,
+            column,
+            offset,
+            splitPoints
+        ));
+      }
+    }
+
     return allTableContexts;
   }
 
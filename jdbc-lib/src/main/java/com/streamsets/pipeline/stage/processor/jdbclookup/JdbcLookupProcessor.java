@@ -75,9 +75,12 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
   private static final String HIKARI_CONFIG_PREFIX = "hikariConfigBean.";
   private static final String CONNECTION_STRING = HIKARI_CONFIG_PREFIX + "connectionString";
   private static final String COLUMN_MAPPINGS = "columnMappings";
+  private static final String TABLE_QUERY = "tableConfig.tableQuery";
   private final CacheConfig cacheConfig;
+  private final JdbcLookupTableConfig tableConfig;
 
   private ELEval queryEval;
+  private ELEval keyEval;
 
   private final String query;
   private final List<JdbcFieldColumnMapping> columnMappings;
@@ -95,6 +98,7 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
   private LoadingCache<String, Optional<List<Map<String, Field>>>> cache;
   private Optional<List<Map<String, Field>>> defaultValue;
   private CacheCleaner cacheCleaner;
+  private JdbcLookupTable table;
   private final MissingValuesBehavior missingValuesBehavior;
 
   private List<ExecutorService> generationExecutors = new ArrayList<>();
@@ -108,7 +112,8 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
       int maxClobSize,
       int maxBlobSize,
       HikariPoolConfigBean hikariConfigBean,
-      CacheConfig cacheConfig
+      CacheConfig cacheConfig,
+      JdbcLookupTableConfig tableConfig
   ) {
     this.query = query;
     this.columnMappings = columnMappings;
@@ -118,6 +123,7 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     this.maxBlobSize = maxBlobSize;
     this.hikariConfigBean = hikariConfigBean;
     this.cacheConfig = cacheConfig;
+    this.tableConfig = tableConfig;
   }
 
   /** {@inheritDoc} */
@@ -133,7 +139,11 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
 
     issues = hikariConfigBean.validateConfigs(context, issues);
 
-    if (issues.isEmpty() && null == dataSource) {
+    if (tableConfig.enabled) {
+      keyEval = getContext().createELEval("keyExpr");
+    }
+
+    if (issues.isEmpty() && !tableConfig.enabled && null == dataSource) {
       try {
         dataSource = JdbcUtil.createDataSourceForRead(hikariConfigBean);
       } catch (StageException e) {
@@ -145,7 +155,13 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
       this.defaultValue = calculateDefault(context, issues);
     }
 
-    if (issues.isEmpty()) {
+    if (issues.isEmpty() && tableConfig.enabled) {
+      try {
+        table = JdbcLookupTable.acquire(hikariConfigBean, tableConfig, columnsToTypes, maxClobSize, maxBlobSize);
+      } catch (StageException e) {
+        issues.add(context.createConfigIssue(Groups.JDBC.name(), TABLE_QUERY, JdbcErrors.JDBC_90, e.toString()));
+      }
+    } else if (issues.isEmpty()) {
       cache = buildCache();
       cacheCleaner = new CacheCleaner(cache, "JdbcLookupProcessor", 10 * 60 * 1000);
       if (cacheConfig.enabled) {
@@ -232,6 +248,10 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
   /** {@inheritDoc} */
   @Override
   public void destroy() {
+    if (table != null) {
+      table.release();
+      table = null;
+    }
     closeQuietly(dataSource);
     for (ExecutorService generationExecutor : generationExecutors) {
       generationExecutor.shutdown();
@@ -285,7 +305,7 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
 
   @Override
   public void process(Batch batch, SingleLaneBatchMaker batchMaker) throws StageException {
-    if (!batch.getRecords().hasNext()) {
+    if (!batch.getRecords().hasNext() && cacheCleaner != null) {
       // No records - take the opportunity to clean up the cache so that we don't hold on to memory indefinitely
       cacheCleaner.periodicCleanUp();
     }
@@ -300,45 +320,16 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
   /** {@inheritDoc} */
   @Override
   protected void process(Record record, SingleLaneBatchMaker batchMaker) throws StageException {
+    if (table != null) {
+      processWithTable(record, batchMaker);
+      return;
+    }
     try {
       ELVars elVars = getContext().createELVars();
       RecordEL.setRecordInContext(elVars, record);
       String preparedQuery = queryEval.eval(elVars, query, String.class);
       Optional<List<Map<String, Field>>> entry = cache.get(preparedQuery);
-
-      if (!entry.isPresent()) {
-        // No results
-        switch (missingValuesBehavior) {
-          case SEND_TO_ERROR:
-            LOG.error(JdbcErrors.JDBC_04.getMessage(), preparedQuery);
-            errorRecordHandler.onError(new OnRecordErrorException(record, JdbcErrors.JDBC_04, preparedQuery));
-            break;
-          case PASS_RECORD_ON:
-            batchMaker.addRecord(record);
-            break;
-          default:
-            throw new IllegalStateException("Unknown missing value behavior: " + missingValuesBehavior);
-        }
-      } else {
-        List<Map<String, Field>> values = entry.get();
-        switch (multipleValuesBehavior) {
-          case FIRST_ONLY:
-            setFieldsInRecord(record, values.get(0));
-            batchMaker.addRecord(record);
-            break;
-          case SPLIT_INTO_MULTIPLE_RECORDS:
-            for(Map<String, Field> lookupItem : values) {
-              Record newRecord = getContext().cloneRecord(record);
-              setFieldsInRecord(newRecord, lookupItem);
-              batchMaker.addRecord(newRecord);
-            }
-            break;
-          default:
-            throw new IllegalStateException("Unknown multiple value behavior: " + multipleValuesBehavior);
-        }
-
-      }
-
+      addLookupResult(record, batchMaker, entry, JdbcErrors.JDBC_04, preparedQuery);
     } catch (ELEvalException e) {
       LOG.error(JdbcErrors.JDBC_01.getMessage(), query, e);
       throw new OnRecordErrorException(record, JdbcErrors.JDBC_01, query);
@@ -350,6 +341,62 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     }
   }
 
+  private void processWithTable(Record record, SingleLaneBatchMaker batchMaker) throws StageException {
+    try {
+      ELVars elVars = getContext().createELVars();
+      RecordEL.setRecordInContext(elVars, record);
+      String key = keyEval.eval(elVars, tableConfig.keyExpr, String.class);
+      Optional<List<Map<String, Field>>> entry = table.lookup(key);
+      if (!entry.isPresent()) {
+        entry = defaultValue;
+      }
+      addLookupResult(record, batchMaker, entry, JdbcErrors.JDBC_91, key);
+    } catch (ELEvalException e) {
+      LOG.error(JdbcErrors.JDBC_01.getMessage(), tableConfig.keyExpr, e);
+      throw new OnRecordErrorException(record, JdbcErrors.JDBC_01, tableConfig.keyExpr);
+    }
+  }
+
+  private void addLookupResult(
+      Record record,
+      SingleLaneBatchMaker batchMaker,
+      Optional<List<Map<String, Field>>> entry,
+      JdbcErrors missingError,
+      String lookup
+  ) throws StageException {
+    if (!entry.isPresent()) {
+      // No results
+      switch (missingValuesBehavior) {
+        case SEND_TO_ERROR:
+          LOG.error(missingError.getMessage(), lookup);
+          errorRecordHandler.onError(new OnRecordErrorException(record, missingError, lookup));
+          break;
+        case PASS_RECORD_ON:
+          batchMaker.addRecord(record);
+          break;
+        default:
+          throw new IllegalStateException("Unknown missing value behavior: " + missingValuesBehavior);
+      }
+    } else {
+      List<Map<String, Field>> values = entry.get();
+      switch (multipleValuesBehavior) {
+        case FIRST_ONLY:
+          setFieldsInRecord(record, values.get(0));
+          batchMaker.addRecord(record);
+          break;
+        case SPLIT_INTO_MULTIPLE_RECORDS:
+          for(Map<String, Field> lookupItem : values) {
+            Record newRecord = getContext().cloneRecord(record);
+            setFieldsInRecord(newRecord, lookupItem);
+            batchMaker.addRecord(newRecord);
+          }
+          break;
+        default:
+          throw new IllegalStateException("Unknown multiple value behavior: " + multipleValuesBehavior);
+      }
+    }
+  }
+
   private void setFieldsInRecord(Record record, Map<String, Field>fields) {
     for (Map.Entry<String, Field> entry : fields.entrySet()) {
       String columnName = entry.getKey();
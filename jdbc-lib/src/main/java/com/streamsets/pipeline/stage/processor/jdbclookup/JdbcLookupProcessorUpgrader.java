@@ -27,6 +27,7 @@ import java.util.concurrent.TimeUnit;
 
 public class JdbcLookupProcessorUpgrader implements StageUpgrader {
   private static final String CACHE_CONFIG = "cacheConfig";
+  private static final String TABLE_CONFIG = "tableConfig";
 
   @Override
   public List<Config> upgrade(
@@ -40,9 +41,18 @@ public class JdbcLookupProcessorUpgrader implements StageUpgrader {
     switch (fromVersion) {
       case 1:
         upgradeV1ToV2(configs);
-        break;
+        if (toVersion == 2) {
+          break;
+        }
+        // fall through
       case 2:
         upgradeV2ToV3(configs);
+        if (toVersion == 3) {
+          break;
+        }
+        // fall through
+      case 3:
+        upgradeV3ToV4(configs);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", fromVersion));
@@ -62,4 +72,15 @@ public class JdbcLookupProcessorUpgrader implements StageUpgrader {
   private static void upgradeV2ToV3(List<Config> configs) {
     configs.add(new Config("missingValuesBehavior", MissingValuesBehavior.SEND_TO_ERROR));
   }
+
+  private static void upgradeV3ToV4(List<Config> configs) {
+    Joiner p = Joiner.on(".");
+    configs.add(new Config(p.join(TABLE_CONFIG, "enabled"), false));
+    configs.add(new Config(p.join(TABLE_CONFIG, "tableQuery"), ""));
+    configs.add(new Config(p.join(TABLE_CONFIG, "keyColumn"), ""));
+    configs.add(new Config(p.join(TABLE_CONFIG, "keyExpr"), ""));
+    configs.add(new Config(p.join(TABLE_CONFIG, "refreshMode"), TableRefreshMode.FULL_RELOAD));
+    configs.add(new Config(p.join(TABLE_CONFIG, "modificationColumn"), ""));
+    configs.add(new Config(p.join(TABLE_CONFIG, "refreshIntervalSecs"), 3600));
+  }
 }
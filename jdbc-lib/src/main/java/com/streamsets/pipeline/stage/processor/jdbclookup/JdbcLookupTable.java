@@ -0,0 +1,401 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.jdbclookup;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.streamsets.pipeline.api.ErrorCode;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.jdbc.DataType;
+import com.streamsets.pipeline.lib.jdbc.HikariPoolConfigBean;
+import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
+import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
+import com.streamsets.pipeline.lib.jdbc.UnknownTypeAction;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.streamsets.pipeline.lib.jdbc.JdbcUtil.closeQuietly;
+
+/**
+ * Reference table fully loaded in memory for the JDBC Lookup processor.
+ *
+ * Rows are kept as arrays of fields indexed by key, with the column names shared by all rows, instead of one map per
+ * row. Tables are reference counted and shared by every processor instance (pipeline runner) with the same
+ * configuration. A background thread refreshes the table, either by loading it again and atomically swapping the
+ * index, or by merging the rows whose modification column increased since the last refresh.
+ */
+public class JdbcLookupTable {
+  private static final Logger LOG = LoggerFactory.getLogger(JdbcLookupTable.class);
+  private static final String INCREMENTAL_QUERY = "SELECT * FROM (%s) SDC_REF WHERE %s > ?";
+  private static final String KEYS_QUERY = "SELECT * FROM (%s) SDC_REF WHERE %s IN (%s)";
+  private static final int MAX_KEYS_PER_QUERY = 500;
+
+  private static final Map<String, JdbcLookupTable> TABLES = new HashMap<>();
+
+  private final String name;
+  private final HikariPoolConfigBean hikariConfigBean;
+  // completed once the first load finished, processors sharing the table wait on it outside of the global lock
+  private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+  private final JdbcLookupTableConfig config;
+  private final Map<String, DataType> columnsToTypes;
+  private final int maxClobSize;
+  private final int maxBlobSize;
+  private final ErrorRecordHandler errorRecordHandler = new FailingErrorRecordHandler();
+
+  private HikariDataSource dataSource;
+  private ScheduledExecutorService refreshExecutor;
+  private volatile Index index;
+  private Object lastModification;
+  private int references;
+
+  private JdbcLookupTable(
+      String name,
+      HikariPoolConfigBean hikariConfigBean,
+      JdbcLookupTableConfig config,
+      Map<String, DataType> columnsToTypes,
+      int maxClobSize,
+      int maxBlobSize
+  ) {
+    this.name = name;
+    this.hikariConfigBean = hikariConfigBean;
+    this.config = config;
+    this.columnsToTypes = columnsToTypes;
+    this.maxClobSize = maxClobSize;
+    this.maxBlobSize = maxBlobSize;
+  }
+
+  /**
+   * Returns the table for the given configuration, loading it if no other processor instance did already. The load
+   * runs outside of the lock shared by all tables, processors acquiring the same table wait for it to complete.
+   */
+  public static JdbcLookupTable acquire(
+      HikariPoolConfigBean hikariConfigBean,
+      JdbcLookupTableConfig config,
+      Map<String, DataType> columnsToTypes,
+      int maxClobSize,
+      int maxBlobSize
+  ) throws StageException {
+    String name = Utils.format(
+        "{}|{}|{}|{}|{}|{}|{}|{}|{}",
+        hikariConfigBean.connectionString,
+        hikariConfigBean.useCredentials ? hikariConfigBean.username.get() : "",
+        config.tableQuery,
+        config.keyColumn,
+        config.refreshMode,
+        config.modificationColumn,
+        config.refreshIntervalSecs,
+        new TreeMap<>(columnsToTypes),
+        maxClobSize + "/" + maxBlobSize
+    );
+    JdbcLookupTable table;
+    boolean loader = false;
+    synchronized (JdbcLookupTable.class) {
+      table = TABLES.get(name);
+      if (table == null) {
+        table = new JdbcLookupTable(name, hikariConfigBean, config, columnsToTypes, maxClobSize, maxBlobSize);
+        TABLES.put(name, table);
+        loader = true;
+      }
+      table.references++;
+    }
+
+    if (loader) {
+      table.initialize();
+    } else {
+      table.awaitLoaded();
+    }
+    return table;
+  }
+
+  private void initialize() throws StageException {
+    try {
+      dataSource = JdbcUtil.createDataSourceForRead(hikariConfigBean);
+      load();
+      startRefresh();
+      loaded.complete(null);
+    } catch (StageException | RuntimeException e) {
+      // the next processor acquiring the table tries to load it again
+      synchronized (JdbcLookupTable.class) {
+        TABLES.remove(name, this);
+      }
+      loaded.completeExceptionally(e);
+      release();
+      throw e;
+    }
+  }
+
+  private void awaitLoaded() throws StageException {
+    try {
+      loaded.get();
+    } catch (InterruptedException e) {
+      release();
+      Thread.currentThread().interrupt();
+      throw new StageException(JdbcErrors.JDBC_90, e.toString(), e);
+    } catch (ExecutionException e) {
+      release();
+      if (e.getCause() instanceof StageException) {
+        throw (StageException) e.getCause();
+      }
+      throw new StageException(JdbcErrors.JDBC_90, e.getCause().toString(), e.getCause());
+    }
+  }
+
+  public void release() {
+    synchronized (JdbcLookupTable.class) {
+      references--;
+      if (references > 0) {
+        return;
+      }
+      TABLES.remove(name, this);
+    }
+    if (refreshExecutor != null) {
+      refreshExecutor.shutdownNow();
+    }
+    if (dataSource != null) {
+      closeQuietly(dataSource);
+    }
+  }
+
+  /**
+   * Returns the rows for the given key, as column name to field maps in the column order of the query.
+   */
+  public Optional<List<Map<String, Field>>> lookup(String key) {
+    Index current = index;
+    List<Field[]> rows = key == null ? null : current.rows.get(key);
+    if (rows == null || rows.isEmpty()) {
+      return Optional.empty();
+    }
+    List<Map<String, Field>> values = new ArrayList<>(rows.size());
+    for (Field[] row : rows) {
+      Map<String, Field> fields = new LinkedHashMap<>(current.columns.length * 2);
+      for (int i = 0; i < current.columns.length; i++) {
+        fields.put(current.columns[i], row[i]);
+      }
+      values.add(fields);
+    }
+    return Optional.of(values);
+  }
+
+  @VisibleForTesting
+  int size() {
+    return index.rows.size();
+  }
+
+  @VisibleForTesting
+  void refresh() throws StageException {
+    if (config.refreshMode == TableRefreshMode.INCREMENTAL && lastModification != null) {
+      loadIncremental();
+    } else {
+      load();
+    }
+  }
+
+  private void startRefresh() {
+    if (config.refreshIntervalSecs <= 0) {
+      return;
+    }
+    refreshExecutor = new ScheduledThreadPoolExecutor(
+        1,
+        new ThreadFactoryBuilder().setNameFormat("JDBC Lookup Table Refresher").setDaemon(true).build()
+    );
+    refreshExecutor.scheduleWithFixedDelay(() -> {
+      try {
+        refresh();
+      } catch (Throwable e) {
+        // Keep serving the current table, the next refresh may succeed.
+        LOG.error(JdbcErrors.JDBC_90.getMessage(), e.toString(), e);
+      }
+    }, config.refreshIntervalSecs, config.refreshIntervalSecs, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Loads the whole table into a new index and swaps it with the current one.
+   */
+  private void load() throws StageException {
+    long start = System.currentTimeMillis();
+    try (
+        Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(config.tableQuery)
+    ) {
+      Index newIndex = new Index();
+      Object maxModification = readRows(statement, newIndex, null);
+      index = newIndex;
+      lastModification = maxModification;
+    } catch (SQLException e) {
+      LOG.error(JdbcErrors.JDBC_02.getMessage(), config.tableQuery, e.toString(), e);
+      throw new StageException(JdbcErrors.JDBC_90, e.toString(), e);
+    }
+    LOG.info("Loaded {} keys from reference table in {} ms", index.rows.size(), System.currentTimeMillis() - start);
+  }
+
+  /**
+   * Reads the rows modified since the last refresh and reloads all the rows of their keys. A key can have several
+   * rows and only some of them may have changed, so the rows of a changed key are replaced by all its current rows.
+   */
+  private void loadIncremental() throws StageException {
+    String query = String.format(INCREMENTAL_QUERY, config.tableQuery, config.modificationColumn);
+    try (Connection connection = dataSource.getConnection()) {
+      Index changes = new Index();
+      Object maxModification;
+      try (PreparedStatement statement = connection.prepareStatement(query)) {
+        statement.setObject(1, lastModification);
+        maxModification = readRows(statement, changes, lastModification);
+      }
+
+      Index current = index;
+      // bind the original key values, the index is keyed by their string form
+      Map<String, Object> changedKeys = new LinkedHashMap<>();
+      if (!changes.rows.isEmpty()) {
+        int keyIndex = indexOf(changes.columns, config.keyColumn);
+        changes.rows.forEach((key, rows) -> changedKeys.put(key, rows.get(0)[keyIndex].getValue()));
+      }
+      List<String> keyStrings = new ArrayList<>(changedKeys.keySet());
+      for (int start = 0; start < keyStrings.size(); start += MAX_KEYS_PER_QUERY) {
+        List<String> keys = keyStrings.subList(start, Math.min(start + MAX_KEYS_PER_QUERY, keyStrings.size()));
+        query = String.format(
+            KEYS_QUERY,
+            config.tableQuery,
+            config.keyColumn,
+            String.join(", ", Collections.nCopies(keys.size(), "?"))
+        );
+        Index keyRows = new Index();
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+          for (int i = 0; i < keys.size(); i++) {
+            statement.setObject(i + 1, changedKeys.get(keys.get(i)));
+          }
+          readRows(statement, keyRows, null);
+        }
+        for (String key : keys) {
+          List<Field[]> rows = keyRows.rows.get(key);
+          if (rows == null) {
+            current.rows.remove(key);
+          } else {
+            current.rows.put(key, rows);
+          }
+        }
+      }
+      lastModification = maxModification;
+      LOG.debug("Refreshed {} keys of reference table", changedKeys.size());
+    } catch (SQLException e) {
+      LOG.error(JdbcErrors.JDBC_02.getMessage(), query, e.toString(), e);
+      throw new StageException(JdbcErrors.JDBC_90, e.toString(), e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Object readRows(PreparedStatement statement, Index target, Object maxModification)
+      throws SQLException, StageException {
+    Object max = maxModification;
+    try (ResultSet resultSet = statement.executeQuery()) {
+      int keyIndex = -1;
+      int modificationIndex = -1;
+      while (resultSet.next()) {
+        LinkedHashMap<String, Field> fields = JdbcUtil.resultSetToFields(
+            resultSet,
+            maxClobSize,
+            maxBlobSize,
+            columnsToTypes,
+            errorRecordHandler,
+            UnknownTypeAction.STOP_PIPELINE
+        );
+        if (target.columns == null) {
+          target.columns = fields.keySet().toArray(new String[fields.size()]);
+          keyIndex = indexOf(target.columns, config.keyColumn);
+          if (config.refreshMode == TableRefreshMode.INCREMENTAL) {
+            modificationIndex = indexOf(target.columns, config.modificationColumn);
+          }
+        }
+        Field[] row = fields.values().toArray(new Field[fields.size()]);
+        Field key = row[keyIndex];
+        if (key == null || key.getValue() == null) {
+          continue;
+        }
+        target.rows.computeIfAbsent(key.getValueAsString(), k -> new ArrayList<>(1)).add(row);
+
+        if (modificationIndex >= 0 && row[modificationIndex].getValue() != null) {
+          Object modification = row[modificationIndex].getValue();
+          if (max == null || ((Comparable<Object>) modification).compareTo(max) > 0) {
+            max = modification;
+          }
+        }
+      }
+    }
+    if (target.columns == null) {
+      target.columns = new String[0];
+    }
+    return max;
+  }
+
+  private static int indexOf(String[] columns, String column) throws StageException {
+    for (int i = 0; i < columns.length; i++) {
+      if (columns[i].equalsIgnoreCase(column)) {
+        return i;
+      }
+    }
+    throw new StageException(JdbcErrors.JDBC_89, column);
+  }
+
+  private static class Index {
+    private String[] columns;
+    private final Map<String, List<Field[]>> rows = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * The table is shared and refreshed in the background, so conversion errors can't be attributed to a record and
+   * fail the load instead.
+   */
+  private static class FailingErrorRecordHandler implements ErrorRecordHandler {
+    @Override
+    public void onError(ErrorCode errorCode, Object... params) throws StageException {
+      throw new StageException(errorCode, params);
+    }
+
+    @Override
+    public void onError(OnRecordErrorException error) throws StageException {
+      throw error;
+    }
+
+    @Override
+    public void onError(List<Record> batch, StageException error) throws StageException {
+      throw error;
+    }
+  }
+}
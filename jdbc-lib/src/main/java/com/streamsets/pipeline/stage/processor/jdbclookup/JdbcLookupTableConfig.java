@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.jdbclookup;
+
+import com.streamsets.pipeline.api.ConfigDef;
+import com.streamsets.pipeline.api.ValueChooserModel;
+import com.streamsets.pipeline.lib.el.RecordEL;
+
+public class JdbcLookupTableConfig {
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Load Reference Table in Memory",
+      description = "Loads the whole reference table in memory once and looks up records against it instead of " +
+          "running the SQL query for each record. The table is shared by all pipeline runners.",
+      defaultValue = "false",
+      displayPosition = 200,
+      group = "#0"
+  )
+  public boolean enabled = false;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.TEXT,
+      mode = ConfigDef.Mode.SQL,
+      label = "Reference Table Query",
+      description = "SELECT <key column>, <column>, ... FROM <table name>",
+      dependsOn = "enabled",
+      triggeredByValue = "true",
+      displayPosition = 210,
+      group = "#0"
+  )
+  public String tableQuery = "";
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.STRING,
+      label = "Key Column",
+      description = "Column of the reference table query that records are looked up by",
+      dependsOn = "enabled",
+      triggeredByValue = "true",
+      displayPosition = 220,
+      group = "#0"
+  )
+  public String keyColumn = "";
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.STRING,
+      label = "Key Expression",
+      description = "Expression evaluated for each record that must match the value of the key column",
+      elDefs = {RecordEL.class},
+      evaluation = ConfigDef.Evaluation.EXPLICIT,
+      dependsOn = "enabled",
+      triggeredByValue = "true",
+      displayPosition = 230,
+      group = "#0"
+  )
+  public String keyExpr = "";
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.MODEL,
+      label = "Refresh Mode",
+      description = "Full reload rebuilds the table and swaps it atomically. Incremental only reads rows whose " +
+          "modification column is greater than the last one seen and does not detect deleted rows.",
+      defaultValue = "FULL_RELOAD",
+      dependsOn = "enabled",
+      triggeredByValue = "true",
+      displayPosition = 240,
+      group = "#0"
+  )
+  @ValueChooserModel(TableRefreshModeChooserValues.class)
+  public TableRefreshMode refreshMode = TableRefreshMode.FULL_RELOAD;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.STRING,
+      label = "Modification Column",
+      description = "Column of the reference table query holding the last modification time or version of the row",
+      dependsOn = "refreshMode",
+      triggeredByValue = "INCREMENTAL",
+      displayPosition = 250,
+      group = "#0"
+  )
+  public String modificationColumn = "";
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      label = "Refresh Interval (secs)",
+      description = "How often to refresh the table. Use 0 to never refresh it while the pipeline runs.",
+      defaultValue = "3600",
+      min = 0,
+      dependsOn = "enabled",
+      triggeredByValue = "true",
+      displayPosition = 260,
+      group = "#0"
+  )
+  public long refreshIntervalSecs = 3600;
+}
@@ -31,12 +31,16 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.Matchers.hasEntry;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -190,6 +194,46 @@ public class TestJdbcUtil {
     }
   }
 
+  @Test
+  public void testRowReader() throws Exception {
+    try (Statement stmt = connection.createStatement()) {
+      stmt.execute("INSERT INTO " + schema + "." + tableName + " VALUES (1, 'a'), (2, NULL), (3, 'c')");
+      try (ResultSet resultSet = stmt.executeQuery("SELECT P_ID, MSG FROM " + schema + "." + tableName)) {
+        ResultSetRowReader rowReader = new ResultSetRowReader(
+            resultSet.getMetaData(),
+            0,
+            0,
+            UnknownTypeAction.STOP_PIPELINE,
+            Collections.singleton("MSG")
+        );
+        assertEquals(2, rowReader.getColumnCount());
+        ResultSetRowReader allColumns = new ResultSetRowReader(
+            resultSet.getMetaData(),
+            0,
+            0,
+            UnknownTypeAction.STOP_PIPELINE
+        );
+
+        int rows = 0;
+        while (resultSet.next()) {
+          rows++;
+          Map<String, Field> fields = rowReader.readRow(resultSet, null);
+          assertEquals(1, fields.size());
+          assertEquals(Field.create(rows), fields.get("P_ID"));
+
+          // same fields, in the same order, as the per row conversion
+          Map<String, Field> expected =
+              JdbcUtil.resultSetToFields(resultSet, 0, 0, null, UnknownTypeAction.STOP_PIPELINE);
+          assertEquals(
+              new ArrayList<>(expected.entrySet()),
+              new ArrayList<>(allColumns.readRow(resultSet, null).entrySet())
+          );
+        }
+        assertEquals(3, rows);
+      }
+    }
+  }
+
   @Test
   public void testGetMinValues() throws Exception {
     HikariPoolConfigBean config = createConfigBean();
@@ -217,4 +261,42 @@ public class TestJdbcUtil {
     assertThat(typedTableMin, hasEntry("P_ID", "1"));
   }
 
+  @Test
+  public void testGetSplitPointValues() throws Exception {
+    try (Statement stmt = connection.createStatement()) {
+      stmt.execute(
+          "INSERT INTO " + schema + "." + tableName + " VALUES (1, 'a'), (2, 'b'), (3, 'b'), (4, 'b'), (5, 'c')," +
+              " (6, 'd'), (7, 'e'), (8, 'f'), (9, 'g'), (10, 'h'), (11, NULL)"
+      );
+    }
+
+    // every third row starts a new partition, but runs of equal values are never split
+    assertEquals(
+        Arrays.asList("c", "e", "h"),
+        JdbcUtil.getSplitPointOffsetValues(connection, schema, tableName, QuoteChar.NONE, "MSG", 3)
+    );
+    assertEquals(
+        Collections.emptyList(),
+        JdbcUtil.getSplitPointOffsetValues(connection, schema, tableName, QuoteChar.NONE, "MSG", 100)
+    );
+  }
+
+  @Test
+  public void testGetNextSplitPoint() throws Exception {
+    try (Statement stmt = connection.createStatement()) {
+      stmt.execute(
+          "INSERT INTO " + schema + "." + tableName + " VALUES (1, 'a'), (2, 'c'), (3, 'e'), (4, 'h')"
+      );
+    }
+
+    final List<String> splitPoints = Arrays.asList("c", "e", "h");
+    assertEquals("c", JdbcUtil.getNextSplitPoint(connection, schema, tableName, QuoteChar.NONE, "MSG", "b", splitPoints));
+    assertEquals("e", JdbcUtil.getNextSplitPoint(connection, schema, tableName, QuoteChar.NONE, "MSG", "c", splitPoints));
+    assertEquals("h", JdbcUtil.getNextSplitPoint(connection, schema, tableName, QuoteChar.NONE, "MSG", "f", splitPoints));
+    assertNull(JdbcUtil.getNextSplitPoint(connection, schema, tableName, QuoteChar.NONE, "MSG", "x", splitPoints));
+    assertNull(
+        JdbcUtil.getNextSplitPoint(connection, schema, tableName, QuoteChar.NONE, "MSG", "b", Collections.emptyList())
+    );
+  }
+
 }
@@ -30,6 +30,7 @@ import org.hamcrest.Matcher;
 import org.jetbrains.annotations.NotNull;
 import org.junit.Test;
 
+import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -818,6 +819,107 @@ public class TestMultithreadedTableProvider {
     assertThat(reasons.get(0), containsString("did not have a minimum value available"));
   }
 
+  @Test
+  public void splitPointPartitioning() throws InterruptedException {
+    final String offsetCol = "id";
+    final LinkedHashMap<String, Integer> offsetColumnToType = new LinkedHashMap<>();
+    offsetColumnToType.put(offsetCol, Types.VARCHAR);
+
+    TableContext table = new TableContext(
+        "db",
+        "uuids",
+        offsetColumnToType,
+        Collections.emptyMap(),
+        Collections.singletonMap(offsetCol, "1000"),
+        Collections.singletonMap(offsetCol, "a"),
+        Collections.singletonMap(offsetCol, Arrays.asList("g", "n", "t")),
+        false,
+        PartitioningMode.REQUIRED,
+        10,
+        null
+    );
+    assertTrue(table.isPartitionable());
+    assertTrue(table.isSplitPointPartitioned());
+
+    MultithreadedTableProvider provider = createTableProvider(1, table, BatchTableStrategy.SWITCH_TABLES);
+    TableRuntimeContext part1 = provider.nextTable(0);
+    validatePartition(part1, 1, table, false, false, true, false, offsetCol, null, true,
+        Collections.singletonMap(offsetCol, "a"), Collections.singletonMap(offsetCol, "g"));
+
+    // all split point partitions are created up front, the last one covering everything from the last split point
+    List<TableRuntimeContext> partitions = new ArrayList<>(provider.getActiveRuntimeContexts().get(table));
+    assertThat(partitions, hasSize(4));
+    validatePartition(partitions.get(1), 2, table, false, false, true, false, offsetCol, null, true,
+        Collections.singletonMap(offsetCol, "g"), Collections.singletonMap(offsetCol, "n"));
+    validatePartition(partitions.get(2), 3, table, false, false, true, false, offsetCol, null, true,
+        Collections.singletonMap(offsetCol, "n"), Collections.singletonMap(offsetCol, "t"));
+    final TableRuntimeContext lastPartition = partitions.get(3);
+    validatePartition(lastPartition, 4, table, false, false, true, false, offsetCol, null, true,
+        Collections.singletonMap(offsetCol, "t"), Collections.emptyMap());
+    assertTrue(lastPartition.isFinalSplitPointPartition());
+    assertFalse(partitions.get(2).isFinalSplitPointPartition());
+    assertThat(provider.createNextPartition(lastPartition), nullValue());
+
+    // a character offset column without sampled split points cannot be partitioned
+    TableContext unsampled = new TableContext(
+        "db",
+        "unsampled",
+        offsetColumnToType,
+        Collections.emptyMap(),
+        Collections.singletonMap(offsetCol, "1000"),
+        Collections.singletonMap(offsetCol, "a"),
+        false,
+        PartitioningMode.BEST_EFFORT,
+        10,
+        null
+    );
+    assertFalse(unsampled.isPartitionable());
+  }
+
+  @Test
+  public void nextSplitPoint() {
+    final String offsetCol = "id";
+    final LinkedHashMap<String, Integer> offsetColumnToType = new LinkedHashMap<>();
+    offsetColumnToType.put(offsetCol, Types.VARCHAR);
+    final List<String> splitPoints = Arrays.asList("g", "n", "t");
+    TableContext table = new TableContext(
+        "db",
+        "uuids",
+        offsetColumnToType,
+        Collections.emptyMap(),
+        Collections.singletonMap(offsetCol, "1000"),
+        Collections.singletonMap(offsetCol, "a"),
+        Collections.singletonMap(offsetCol, splitPoints),
+        false,
+        PartitioningMode.REQUIRED,
+        10,
+        null
+    );
+
+    assertThat(TableContextUtil.getNextSplitPoint(table, offsetCol, splitPoints, "g"), equalTo("n"));
+    assertThat(TableContextUtil.getNextSplitPoint(table, offsetCol, splitPoints, "t"), nullValue());
+    // without a locator, offsets from a previous sampling start an unbounded partition
+    assertThat(TableContextUtil.getNextSplitPoint(table, offsetCol, splitPoints, "h"), nullValue());
+
+    // with a locator, the database decides where such offsets fall; split points themselves never reach it
+    final List<String> located = new LinkedList<>();
+    table.setSplitPointLocator((column, offset, candidates) -> {
+      located.add(offset);
+      assertThat(column, equalTo(offsetCol));
+      assertThat(candidates, equalTo(splitPoints));
+      return "t";
+    });
+    assertThat(TableContextUtil.getNextSplitPoint(table, offsetCol, splitPoints, "n"), equalTo("t"));
+    assertThat(TableContextUtil.getNextSplitPoint(table, offsetCol, splitPoints, "H"), equalTo("t"));
+    assertThat(located, contains("H"));
+
+    table.setSplitPointLocator((column, offset, candidates) -> {
+      throw new SQLException("connection lost");
+    });
+    assertThat(TableContextUtil.getNextSplitPoint(table, offsetCol, splitPoints, "h"), nullValue());
+    assertThat(TableContextUtil.getNextSplitPoint(table, offsetCol, Collections.emptyList(), "a"), nullValue());
+  }
+
   private void assertLoadedPartitions(
       Map<TableRuntimeContext, Map<String, String>> partitionsAndOffsets,
       MultithreadedTableProvider provider
@@ -48,8 +48,13 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -338,6 +343,161 @@ public class TestJdbcSource {
     }
   }
 
+  @Test
+  public void testPartitionedIncrementalMode() throws Exception {
+    HikariPoolConfigBean poolConfigBean = createConfigBean(h2ConnectionString, username, password);
+    poolConfigBean.maximumPoolSize = 2;
+    JdbcSource origin = new JdbcSource(
+        true,
+        "SELECT * FROM TEST.TEST_TABLE WHERE P_ID > ${offset} ORDER BY P_ID ASC;",
+        initialOffset,
+        "P_ID",
+        false,
+        "",
+        1000,
+        JdbcRecordType.LIST_MAP,
+        new CommonSourceConfigBean(queriesPerSecond, BATCH_SIZE, CLOB_SIZE, CLOB_SIZE),
+        false,
+        "",
+        poolConfigBean,
+        UnknownTypeAction.STOP_PIPELINE,
+        queryInterval,
+        2,
+        null
+    );
+    SourceRunner runner = new SourceRunner.Builder(JdbcDSource.class, origin)
+        .addOutputLane("lane")
+        .build();
+
+    runner.runInit();
+
+    try {
+      // the ranges are read concurrently, so the rows may be spread over several batches
+      List<Integer> ids = new ArrayList<>();
+      String offset = null;
+      for (int i = 0; i < 10 && !"4".equals(offset); i++) {
+        StageRunner.Output output = runner.runProduce(offset, 100);
+        for (Record record : output.getRecords().get("lane")) {
+          ids.add(record.get("/P_ID").getValueAsInteger());
+        }
+        offset = output.getNewOffset();
+      }
+      Collections.sort(ids);
+      assertEquals(Arrays.asList(1, 2, 3, 4), ids);
+      assertEquals("4", offset);
+
+      // Check that new rows are loaded.
+      runInsertNewRows();
+      ids.clear();
+      for (int i = 0; i < 10 && !"10".equals(offset); i++) {
+        StageRunner.Output output = runner.runProduce(offset, 100);
+        for (Record record : output.getRecords().get("lane")) {
+          ids.add(record.get("/P_ID").getValueAsInteger());
+        }
+        offset = output.getNewOffset();
+      }
+      Collections.sort(ids);
+      assertEquals(Arrays.asList(9, 10), ids);
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testPartitionedQueryRangesWithFewerValuesThanPartitions() throws Exception {
+    try (
+        Connection connection = DriverManager.getConnection(h2ConnectionString, username, password);
+        Statement statement = connection.createStatement();
+        ResultSet bounds = statement.executeQuery("SELECT MIN(P_ID), MAX(P_ID) FROM TEST.TEST_TABLE")
+    ) {
+      assertTrue(bounds.next());
+      List<JdbcPartitionedQuery.Range> ranges = JdbcPartitionedQuery.createRanges(bounds, "P_ID", 8);
+      assertTrue(ranges.size() <= 4);
+      // every value is covered by exactly one range
+      for (int id = 1; id <= 4; id++) {
+        int matches = 0;
+        for (JdbcPartitionedQuery.Range range : ranges) {
+          if (isInRange(range, BigDecimal.valueOf(id))) {
+            matches++;
+          }
+        }
+        assertEquals("Ranges covering " + id, 1, matches);
+      }
+    }
+  }
+
+  private static boolean isInRange(JdbcPartitionedQuery.Range range, BigDecimal value) {
+    int lower = value.compareTo((BigDecimal) range.getLowerBound());
+    if (lower < 0 || (lower == 0 && !range.isLowerInclusive())) {
+      return false;
+    }
+    return range.getUpperBound() == null || value.compareTo((BigDecimal) range.getUpperBound()) <= 0;
+  }
+
+  @Test
+  public void testPartitionedNonIncrementalModeRecordIds() throws Exception {
+    HikariPoolConfigBean poolConfigBean = createConfigBean(h2ConnectionString, username, password);
+    poolConfigBean.maximumPoolSize = 3;
+    JdbcSource origin = new JdbcSource(
+        false,
+        "SELECT * FROM TEST.TEST_TABLE",
+        initialOffset,
+        "P_ID",
+        false,
+        "",
+        1000,
+        JdbcRecordType.LIST_MAP,
+        new CommonSourceConfigBean(queriesPerSecond, BATCH_SIZE, CLOB_SIZE, CLOB_SIZE),
+        false,
+        "",
+        poolConfigBean,
+        UnknownTypeAction.STOP_PIPELINE,
+        queryInterval,
+        2,
+        "P_ID"
+    );
+    SourceRunner runner = new SourceRunner.Builder(JdbcDSource.class, origin)
+        .addOutputLane("lane")
+        .build();
+
+    runner.runInit();
+
+    try {
+      List<Integer> ids = new ArrayList<>();
+      Set<String> recordIds = new HashSet<>();
+      for (int i = 0; i < 10 && ids.size() < 4; i++) {
+        StageRunner.Output output = runner.runProduce(null, 100);
+        for (Record record : output.getRecords().get("lane")) {
+          ids.add(record.get("/P_ID").getValueAsInteger());
+          recordIds.add(record.getHeader().getSourceId());
+        }
+      }
+      Collections.sort(ids);
+      assertEquals(Arrays.asList(1, 2, 3, 4), ids);
+      // row counts restart with each range, so the range keeps the record ids unique
+      assertEquals(4, recordIds.size());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testPartitionedQueryInnerQuery() {
+    assertEquals(
+        "SELECT * FROM T WHERE P_ID > 0",
+        JdbcPartitionedQuery.getInnerQuery("SELECT * FROM T WHERE P_ID > 0 ORDER BY P_ID ASC;")
+    );
+    // row limiting clauses must stay with their ORDER BY
+    assertEquals(
+        "SELECT * FROM T WHERE P_ID > 0 ORDER BY P_ID LIMIT 10",
+        JdbcPartitionedQuery.getInnerQuery("SELECT * FROM T WHERE P_ID > 0 ORDER BY P_ID LIMIT 10")
+    );
+    assertEquals(
+        "SELECT * FROM (SELECT * FROM T ORDER BY P_ID) X",
+        JdbcPartitionedQuery.getInnerQuery("SELECT * FROM (SELECT * FROM T ORDER BY P_ID) X")
+    );
+  }
+
   private void runInsertNewRows() throws SQLException {
     try (Connection connection = DriverManager.getConnection(h2ConnectionString, username, password)) {
       try (Statement statement = connection.createStatement()) {
@@ -44,4 +44,15 @@ public class TestJdbcSourceUpgrader {
     UpgraderTestUtils.assertExists(configs, "queryInterval", queryInterval);
   }
 
+  @Test
+  public void testUpgradeV10toV11() throws StageException {
+    List<Config> configs = new ArrayList<>();
+
+    JdbcSourceUpgrader upgrader = new JdbcSourceUpgrader();
+    List<Config> upgradedConfigs = upgrader.upgrade("lib", "stage", "stageInst", 10, 11, configs);
+
+    UpgraderTestUtils.assertExists(upgradedConfigs, "numPartitions", 1);
+    UpgraderTestUtils.assertExists(upgradedConfigs, "partitionColumn", "");
+  }
+
 }
@@ -250,6 +250,7 @@ public class TableJdbcSourceTestBuilder {
     private PartitioningMode partitioningMode;
     private String partitionSize;
     private int maxNumActivePartitions;
+    private boolean partitionCharacterOffsets;
     private boolean enableNonIncremental;
 
     public TableConfigBeanTestBuilder() {
@@ -327,6 +328,11 @@ public class TableJdbcSourceTestBuilder {
       return this;
     }
 
+    public TableConfigBeanTestBuilder partitionCharacterOffsets(boolean partitionCharacterOffsets) {
+      this.partitionCharacterOffsets = partitionCharacterOffsets;
+      return this;
+    }
+
     public TableConfigBean build() {
       TableConfigBean tableConfigBean = new TableConfigBean();
       tableConfigBean.schema = schema;
@@ -341,6 +347,7 @@ public class TableJdbcSourceTestBuilder {
       tableConfigBean.enableNonIncremental = enableNonIncremental;
       tableConfigBean.partitionSize = partitionSize;
       tableConfigBean.maxNumActivePartitions = maxNumActivePartitions;
+      tableConfigBean.partitionCharacterOffsets = partitionCharacterOffsets;
       return tableConfigBean;
     }
   }
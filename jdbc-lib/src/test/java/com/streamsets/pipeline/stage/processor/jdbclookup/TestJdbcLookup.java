@@ -46,9 +46,12 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
 
@@ -725,4 +728,98 @@ public class TestJdbcLookup {
       processorRunner.runDestroy();
     }
   }
+
+  @Test
+  public void testReferenceTable() throws Exception {
+    List<JdbcFieldColumnMapping> columnMappings = ImmutableList.of(
+        new JdbcFieldColumnMapping("FIRST_NAME", "/first_name"),
+        new JdbcFieldColumnMapping("LAST_NAME", "/last_name")
+    );
+
+    JdbcLookupDProcessor processor = createProcessor();
+    processor.tableConfig.enabled = true;
+    processor.tableConfig.tableQuery = "SELECT P_ID, FIRST_NAME, LAST_NAME FROM TEST.TEST_TABLE";
+    processor.tableConfig.keyColumn = "P_ID";
+    processor.tableConfig.keyExpr = "${record:value('/id')}";
+    processor.tableConfig.refreshIntervalSecs = 0;
+
+    ProcessorRunner processorRunner = new ProcessorRunner.Builder(JdbcLookupDProcessor.class, processor)
+        .addConfiguration("query", "")
+        .addConfiguration("columnMappings", columnMappings)
+        .addConfiguration("multipleValuesBehavior", MultipleValuesBehavior.FIRST_ONLY)
+        .addConfiguration("missingValuesBehavior", MissingValuesBehavior.SEND_TO_ERROR)
+        .addConfiguration("maxClobSize", 1000)
+        .addConfiguration("maxBlobSize", 1000)
+        .setOnRecordError(OnRecordError.TO_ERROR)
+        .addOutputLane("lane")
+        .build();
+
+    Record found = RecordCreator.create();
+    LinkedHashMap<String, Field> fields = new LinkedHashMap<>();
+    fields.put("id", Field.create(2));
+    found.set(Field.createListMap(fields));
+
+    Record missing = RecordCreator.create();
+    fields = new LinkedHashMap<>();
+    fields.put("id", Field.create(42));
+    missing.set(Field.createListMap(fields));
+
+    processorRunner.runInit();
+    try {
+      StageRunner.Output output = processorRunner.runProcess(ImmutableList.of(found, missing));
+      List<Record> records = output.getRecords().get("lane");
+      assertEquals(1, records.size());
+      assertEquals("Jon", records.get(0).get("/first_name").getValueAsString());
+      assertEquals("Natkins", records.get(0).get("/last_name").getValueAsString());
+      assertEquals(1, processorRunner.getErrorRecords().size());
+    } finally {
+      processorRunner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testReferenceTableIncrementalRefreshKeepsUnchangedRows() throws Exception {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE TEST.REF_TABLE (R_ID INT NOT NULL PRIMARY KEY, NAME VARCHAR(255), MODIFIED INT)");
+      statement.execute("INSERT INTO TEST.REF_TABLE VALUES (1, 'Jon', 1), (2, 'Jon', 1), (3, 'Adam', 1)");
+    }
+
+    JdbcLookupDProcessor processor = createProcessor();
+    JdbcLookupTableConfig config = new JdbcLookupTableConfig();
+    config.enabled = true;
+    config.tableQuery = "SELECT * FROM TEST.REF_TABLE";
+    config.keyColumn = "NAME";
+    config.refreshMode = TableRefreshMode.INCREMENTAL;
+    config.modificationColumn = "MODIFIED";
+
+    JdbcLookupTable table = JdbcLookupTable.acquire(
+        processor.hikariConfigBean,
+        config,
+        Collections.emptyMap(),
+        1000,
+        1000
+    );
+    try {
+      assertEquals(2, table.lookup("Jon").get().size());
+
+      // only one of the two rows of the key changes, another key moves away
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("UPDATE TEST.REF_TABLE SET MODIFIED = 2 WHERE R_ID = 2");
+        statement.execute("UPDATE TEST.REF_TABLE SET NAME = 'Eve', MODIFIED = 2 WHERE R_ID = 3");
+      }
+      table.refresh();
+
+      Optional<List<Map<String, Field>>> rows = table.lookup("Jon");
+      Assert.assertTrue(rows.isPresent());
+      assertEquals(2, rows.get().size());
+      assertEquals(1, table.lookup("Eve").get().size());
+      // the old key of the moved row is only dropped by a full reload
+      Assert.assertTrue(table.lookup("Adam").isPresent());
+    } finally {
+      table.release();
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("DROP TABLE TEST.REF_TABLE");
+      }
+    }
+  }
 }
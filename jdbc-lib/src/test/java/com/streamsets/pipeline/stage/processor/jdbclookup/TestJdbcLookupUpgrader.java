@@ -56,4 +56,22 @@ public class TestJdbcLookupUpgrader {
 
     UpgraderTestUtils.assertExists(upgradedConfigs, "missingValuesBehavior", MissingValuesBehavior.SEND_TO_ERROR);
   }
+
+  @Test
+  public void testUpgradeV3toV4() throws StageException {
+    List<Config> configs = new ArrayList<>();
+
+    JdbcLookupProcessorUpgrader upgrader = new JdbcLookupProcessorUpgrader();
+    List<Config> upgradedConfigs = upgrader.upgrade("lib", "stage", "stageInst", 3, 4, configs);
+
+    UpgraderTestUtils.assertExists(upgradedConfigs, "tableConfig.enabled", false);
+    UpgraderTestUtils.assertExists(upgradedConfigs, "tableConfig.refreshMode", TableRefreshMode.FULL_RELOAD);
+    UpgraderTestUtils.assertExists(upgradedConfigs, "tableConfig.refreshIntervalSecs", 3600);
+    UpgraderTestUtils.assertAllExist(upgradedConfigs,
+        "tableConfig.tableQuery",
+        "tableConfig.keyColumn",
+        "tableConfig.keyExpr",
+        "tableConfig.modificationColumn"
+    );
+  }
 }
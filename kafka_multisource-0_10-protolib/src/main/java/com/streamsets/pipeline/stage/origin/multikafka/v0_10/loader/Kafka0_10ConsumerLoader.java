@@ -17,10 +17,14 @@ package com.streamsets.pipeline.stage.origin.multikafka.v0_10.loader;
 
 import com.streamsets.pipeline.stage.origin.multikafka.MultiSdcKafkaConsumer;
 import com.streamsets.pipeline.stage.origin.multikafka.loader.KafkaConsumerLoader;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 public class Kafka0_10ConsumerLoader extends KafkaConsumerLoader {
@@ -46,11 +50,36 @@ public class Kafka0_10ConsumerLoader extends KafkaConsumerLoader {
       delegate.subscribe(topics);
     }
 
+    @Override
+    public void subscribe(List topics, ConsumerRebalanceListener listener) {
+      delegate.subscribe(topics, listener);
+    }
+
     @Override
     public ConsumerRecords poll(long timeout) {
       return delegate.poll(timeout);
     }
 
+    @Override
+    public void pause(Collection partitions) {
+      delegate.pause(partitions);
+    }
+
+    @Override
+    public void resume(Collection partitions) {
+      delegate.resume(partitions);
+    }
+
+    @Override
+    public void commitSync(Map offsets) {
+      delegate.commitSync(offsets);
+    }
+
+    @Override
+    public void commitAsync(Map offsets, OffsetCommitCallback callback) {
+      delegate.commitAsync(offsets, callback);
+    }
+
     @Override
     public void unsubscribe() {
       delegate.unsubscribe();
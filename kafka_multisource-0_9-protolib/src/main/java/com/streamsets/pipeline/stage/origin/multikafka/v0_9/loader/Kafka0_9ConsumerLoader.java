@@ -17,10 +17,15 @@ package com.streamsets.pipeline.stage.origin.multikafka.v0_9.loader;
 
 import com.streamsets.pipeline.stage.origin.multikafka.MultiSdcKafkaConsumer;
 import com.streamsets.pipeline.stage.origin.multikafka.loader.KafkaConsumerLoader;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.common.TopicPartition;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 public class Kafka0_9ConsumerLoader extends KafkaConsumerLoader {
@@ -46,11 +51,37 @@ public class Kafka0_9ConsumerLoader extends KafkaConsumerLoader {
       delegate.subscribe(topics);
     }
 
+    @Override
+    public void subscribe(List topics, ConsumerRebalanceListener listener) {
+      delegate.subscribe(topics, listener);
+    }
+
     @Override
     public ConsumerRecords poll(long timeout) {
       return delegate.poll(timeout);
     }
 
+    @Override
+    public void pause(Collection partitions) {
+      // Kafka 0.9 takes the partitions as varargs
+      delegate.pause((TopicPartition[]) partitions.toArray(new TopicPartition[partitions.size()]));
+    }
+
+    @Override
+    public void resume(Collection partitions) {
+      delegate.resume((TopicPartition[]) partitions.toArray(new TopicPartition[partitions.size()]));
+    }
+
+    @Override
+    public void commitSync(Map offsets) {
+      delegate.commitSync(offsets);
+    }
+
+    @Override
+    public void commitAsync(Map offsets, OffsetCommitCallback callback) {
+      delegate.commitAsync(offsets, callback);
+    }
+
     @Override
     public void unsubscribe() {
       delegate.unsubscribe();
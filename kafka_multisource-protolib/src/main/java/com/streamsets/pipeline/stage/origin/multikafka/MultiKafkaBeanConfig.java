@@ -96,6 +96,47 @@ public class MultiKafkaBeanConfig {
   )
   public int numberOfThreads;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Decouple Polling from Processing",
+      description = "Consumer threads keep prefetching messages and hand them, in partition order, to the processing " +
+          "threads. Offsets are committed once the batches with the messages are processed.",
+      displayPosition = 52,
+      group = "KAFKA"
+  )
+  public boolean decoupledPolling;
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Number of Consumers",
+      description = "Number of Kafka consumers polling messages for the processing threads",
+      displayPosition = 54,
+      group = "KAFKA",
+      dependsOn = "decoupledPolling",
+      triggeredByValue = "true",
+      min = 1
+  )
+  public int numberOfConsumers = 1;
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "4",
+      label = "Prefetched Chunks per Thread",
+      description = "Maximum number of partition chunks waiting for each processing thread. Partitions whose chunks " +
+          "cannot be handed off are paused until the processing thread catches up.",
+      displayPosition = 56,
+      group = "KAFKA",
+      dependsOn = "decoupledPolling",
+      triggeredByValue = "true",
+      min = 1
+  )
+  public int prefetchChunks = 4;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.NUMBER,
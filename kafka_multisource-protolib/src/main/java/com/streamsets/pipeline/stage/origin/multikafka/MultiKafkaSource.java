@@ -40,21 +40,38 @@ import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
 import com.streamsets.pipeline.stage.origin.multikafka.loader.KafkaConsumerLoader;
 import org.apache.commons.lang.StringUtils;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -62,6 +79,8 @@ public class MultiKafkaSource extends BasePushSource {
   private static final Logger LOG = LoggerFactory.getLogger(MultiKafkaSource.class);
 
   private static final String MULTI_KAFKA_DATA_FORMAT_CONFIG_PREFIX = "dataFormatConfig.";
+  private static final long BACKLOG_POLL_INTERVAL_MS = 100;
+  private static final long PROCESSING_DONE_TIMEOUT_SECS = 30;
 
   private final MultiKafkaBeanConfig conf;
   private AtomicBoolean shutdownCalled = new AtomicBoolean(false);
@@ -69,6 +88,8 @@ public class MultiKafkaSource extends BasePushSource {
 
   private DataParserFactory parserFactory;
   private ExecutorService executor;
+  // decoupled mode only, parses the chunks while they wait for their processing thread
+  private ExecutorService parseExecutor;
 
   public MultiKafkaSource(MultiKafkaBeanConfig conf) {
     this.conf = conf;
@@ -141,59 +162,411 @@ public class MultiKafkaSource extends BasePushSource {
       return messagesProcessed;
     }
 
-    private List<Record> createRecord(
-      ErrorRecordHandler errorRecordHandler,
-      String topic,
-      int partition,
-      long offset,
-      byte[] payload
-    ) throws StageException {
-      String messageId = getMessageId(topic, partition, offset);
-      List<Record> records = new ArrayList<>();
-      try(DataParser parser = Utils.checkNotNull(parserFactory, "Initialization failed").getParser(messageId, payload)) {
-        Record record = parser.parse();
-        while (record != null) {
-          record.getHeader().setAttribute(HeaderAttributeConstants.TOPIC, topic);
-          record.getHeader().setAttribute(HeaderAttributeConstants.PARTITION, String.valueOf(partition));
-          record.getHeader().setAttribute(HeaderAttributeConstants.OFFSET, String.valueOf(offset));
-
-          records.add(record);
-          record = parser.parse();
+  }
+
+  /**
+   * Consecutive messages of a single partition, handed by a consumer thread to a processing thread.
+   */
+  private static class Chunk {
+    private final PartitionConsumerCallable consumer;
+    private final TopicPartition partition;
+    private final long generation;
+    private final List<ConsumerRecord<String, byte[]>> messages;
+    private CompletableFuture<List<ParsedMessage>> parsed;
+
+    private Chunk(
+        PartitionConsumerCallable consumer,
+        TopicPartition partition,
+        long generation,
+        List<ConsumerRecord<String, byte[]>> messages
+    ) {
+      this.consumer = consumer;
+      this.partition = partition;
+      this.generation = generation;
+      this.messages = messages;
+    }
+
+    private long getNextOffset() {
+      return messages.get(messages.size() - 1).offset() + 1;
+    }
+  }
+
+  /**
+   * Consumer thread of the decoupled mode. It keeps polling while the processing threads run the batches, hands the
+   * messages of each partition, in order, to the processing thread that owns the partition and commits the offsets
+   * of the messages once their batches are processed. Partitions whose chunks cannot be handed off because the
+   * processing thread is behind are paused, so the consumer keeps its group membership alive without buffering more.
+   */
+  public class PartitionConsumerCallable implements Callable<Long>, ConsumerRebalanceListener {
+    private final MultiSdcKafkaConsumer<String, byte[]> consumer;
+    private final long threadID;
+    private final List<String> topicList;
+    private final CountDownLatch startProcessingGate;
+    private final CountDownLatch processingDone;
+    private final List<ProcessingCallable> processors;
+    private final Map<TopicPartition, Deque<Chunk>> backlog = new LinkedHashMap<>();
+    private final Set<TopicPartition> paused = new HashSet<>();
+    // assignment generation of each assigned partition, chunks of a previous assignment of the partition are not
+    // committed. Guards the updates of completed against the revocation of the partitions
+    private final Map<TopicPartition, Long> generations = new HashMap<>();
+    private long generation;
+    // next offset to commit per partition, updated by the processing threads
+    private final ConcurrentMap<TopicPartition, Long> completed = new ConcurrentHashMap<>();
+
+    public PartitionConsumerCallable(
+        long threadID,
+        List<String> topicList,
+        MultiSdcKafkaConsumer<String, byte[]> consumer,
+        CountDownLatch startProcessingGate,
+        CountDownLatch processingDone,
+        List<ProcessingCallable> processors
+    ) {
+      this.consumer = consumer;
+      this.threadID = threadID;
+      this.topicList = topicList;
+      this.startProcessingGate = startProcessingGate;
+      this.processingDone = processingDone;
+      this.processors = processors;
+    }
+
+    @Override
+    public Long call() throws Exception {
+      Thread.currentThread().setName("kafkaConsumerThread-" + threadID);
+      long messagesPolled = 0;
+
+      LOG.debug("Thread {} waiting on other threads to start up", Thread.currentThread().getName());
+      startProcessingGate.await();
+
+      LOG.debug("Starting poll loop in thread {}", Thread.currentThread().getName());
+      try {
+        consumer.subscribe(topicList, this);
+
+        while(!getContext().isStopped() && !Thread.interrupted()) {
+          commit(false);
+          handOff();
+          ConsumerRecords<String, byte[]> messages = consumer.poll(
+              backlog.isEmpty() ? conf.batchWaitTime : BACKLOG_POLL_INTERVAL_MS
+          );
+          for (TopicPartition partition : messages.partitions()) {
+            List<ConsumerRecord<String, byte[]>> partitionMessages = messages.records(partition);
+            if (!partitionMessages.isEmpty()) {
+              backlog.computeIfAbsent(partition, p -> new ArrayDeque<>())
+                  .add(new Chunk(this, partition, getGeneration(partition), partitionMessages));
+              messagesPolled += partitionMessages.size();
+            }
+          }
+          handOff();
+          updatePaused();
         }
-      } catch (DataParserException | IOException e) {
-        Record record = getContext().createRecord(messageId);
-        record.set(Field.create(payload));
-        errorRecordHandler.onError(
-            new OnRecordErrorException(
-                record,
-                KafkaErrors.KAFKA_37,
-                messageId,
-                e.toString(),
-                e
-            )
-        );
+      } catch (Exception e) {
+        LOG.error("Encountered error in multi kafka consumer thread {} during read {}", threadID, e);
+        handleException(KafkaErrors.KAFKA_29, e);
+      } finally {
+        try {
+          // let the processing threads finish their last batches so that their offsets are committed as well
+          processingDone.await(PROCESSING_DONE_TIMEOUT_SECS, TimeUnit.SECONDS);
+          commit(true);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } catch (Exception e) {
+          LOG.warn("Could not commit offsets on consumer thread {} exit: {}", threadID, e.toString(), e);
+        }
+        consumer.unsubscribe();
+        consumer.close();
       }
-      if(conf.produceSingleRecordPerMessage) {
-        List<Field> list = new ArrayList<>();
-        for (Record record : records) {
-          list.add(record.get());
+
+      LOG.info("multi kafka consumer thread {} polled {} messages", threadID, messagesPolled);
+      return messagesPolled;
+    }
+
+    /**
+     * Called by the processing threads once the batch with the chunk has been processed.
+     */
+    void completed(Chunk chunk) {
+      synchronized (generations) {
+        // the partition may have been revoked, and even assigned again, while the chunk was processed
+        if (Long.valueOf(chunk.generation).equals(generations.get(chunk.partition))) {
+          completed.merge(chunk.partition, chunk.getNextOffset(), Math::max);
         }
-        Record record = records.get(0);
-        record.set(Field.create(list));
-        records.clear();
-        records.add(record);
       }
+    }
+
+    private long getGeneration(TopicPartition partition) {
+      synchronized (generations) {
+        return generations.getOrDefault(partition, -1L);
+      }
+    }
 
-      return records;
+    private void handOff() {
+      Iterator<Map.Entry<TopicPartition, Deque<Chunk>>> partitions = backlog.entrySet().iterator();
+      while (partitions.hasNext()) {
+        Map.Entry<TopicPartition, Deque<Chunk>> entry = partitions.next();
+        // a partition always goes to the same processing thread to keep its messages in order
+        ProcessingCallable processor = processors.get(Math.floorMod(entry.getKey().hashCode(), processors.size()));
+        Deque<Chunk> chunks = entry.getValue();
+        while (!chunks.isEmpty() && processor.offer(chunks.peek())) {
+          chunks.poll();
+        }
+        if (chunks.isEmpty()) {
+          partitions.remove();
+        }
+      }
+    }
+
+    private void updatePaused() {
+      List<TopicPartition> toPause = new ArrayList<>();
+      for (TopicPartition partition : backlog.keySet()) {
+        if (paused.add(partition)) {
+          toPause.add(partition);
+        }
+      }
+      if (!toPause.isEmpty()) {
+        LOG.debug("Pausing partitions {}, their processing threads are behind", toPause);
+        consumer.pause(toPause);
+      }
+      List<TopicPartition> toResume = new ArrayList<>();
+      Iterator<TopicPartition> iterator = paused.iterator();
+      while (iterator.hasNext()) {
+        TopicPartition partition = iterator.next();
+        if (!backlog.containsKey(partition)) {
+          iterator.remove();
+          toResume.add(partition);
+        }
+      }
+      if (!toResume.isEmpty()) {
+        consumer.resume(toResume);
+      }
     }
 
-    private void handleException(KafkaErrors error, Object... args) throws StageException {
-      // all threads should halt when an error is encountered
-      shutdown();
-      throw new StageException(error, args);
+    private void commit(boolean sync) {
+      Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+      for (Map.Entry<TopicPartition, Long> entry : completed.entrySet()) {
+        // remove only if unchanged, a newer offset is committed on the next round
+        if (completed.remove(entry.getKey(), entry.getValue())) {
+          offsets.put(entry.getKey(), new OffsetAndMetadata(entry.getValue()));
+        }
+      }
+      if (!offsets.isEmpty()) {
+        if (sync) {
+          consumer.commitSync(offsets);
+        } else {
+          consumer.commitAsync(offsets, (committed, exception) -> {
+            if (exception != null) {
+              LOG.warn("Could not commit offsets {}: {}", committed, exception.toString(), exception);
+            }
+          });
+        }
+      }
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+      // commit what has been processed, chunks of the revoked partitions still waiting or being processed will be
+      // consumed again by the new owner of the partitions
+      commit(true);
+      synchronized (generations) {
+        generations.keySet().removeAll(partitions);
+        // offsets completed after the commit above must not be committed if the partitions are assigned again
+        completed.keySet().removeAll(partitions);
+      }
+      for (TopicPartition partition : partitions) {
+        backlog.remove(partition);
+        paused.remove(partition);
+      }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+      synchronized (generations) {
+        for (TopicPartition partition : partitions) {
+          generations.put(partition, ++generation);
+        }
+      }
     }
   }
 
+  /**
+   * Processing thread of the decoupled mode, one per pipeline runner. The chunks handed to it by the consumer threads
+   * are parsed by the parser threads while they wait in its queue. It builds the batches from the parsed chunks, in the
+   * order they were handed, and runs the batches through the pipeline.
+   */
+  public class ProcessingCallable implements Callable<Long> {
+    private final long threadID;
+    private final BlockingQueue<Chunk> chunks;
+    private final CountDownLatch startProcessingGate;
+    private final CountDownLatch processingDone;
+
+    public ProcessingCallable(long threadID, CountDownLatch startProcessingGate, CountDownLatch processingDone) {
+      this.threadID = threadID;
+      this.chunks = new ArrayBlockingQueue<>(conf.prefetchChunks);
+      this.startProcessingGate = startProcessingGate;
+      this.processingDone = processingDone;
+    }
+
+    boolean offer(Chunk chunk) {
+      CompletableFuture<List<ParsedMessage>> parsed = new CompletableFuture<>();
+      chunk.parsed = parsed;
+      if (!chunks.offer(chunk)) {
+        return false;
+      }
+      // chunks are parsed in any order, the processing thread waits for each of them in the order they were handed
+      try {
+        parseExecutor.execute(() -> {
+          try {
+            parsed.complete(parseChunk(chunk));
+          } catch (Throwable t) {
+            parsed.completeExceptionally(t);
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        parsed.completeExceptionally(e);
+      }
+      return true;
+    }
+
+    @Override
+    public Long call() throws Exception {
+      Thread.currentThread().setName("kafkaProcessingThread-" + threadID);
+      long messagesProcessed = 0;
+
+      startProcessingGate.await();
+
+      try {
+        List<Chunk> batchChunks = new ArrayList<>();
+        while(!getContext().isStopped() && !Thread.interrupted()) {
+          Chunk chunk = chunks.poll(BACKLOG_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+          if (chunk == null) {
+            continue;
+          }
+          // fill the batch with the chunks already waiting, up to the batch size
+          int messages = chunk.messages.size();
+          batchChunks.add(chunk);
+          while (chunks.peek() != null && messages + chunks.peek().messages.size() <= batchSize) {
+            chunk = chunks.poll();
+            messages += chunk.messages.size();
+            batchChunks.add(chunk);
+          }
+
+          BatchContext batchContext = getContext().startBatch();
+          ErrorRecordHandler errorRecordHandler = new DefaultErrorRecordHandler(getContext(), batchContext);
+          for (Chunk batchChunk : batchChunks) {
+            for (ParsedMessage message : batchChunk.parsed.get()) {
+              getRecords(errorRecordHandler, message).forEach(batchContext.getBatchMaker()::addRecord);
+            }
+          }
+          getContext().processBatch(batchContext);
+
+          for (Chunk batchChunk : batchChunks) {
+            batchChunk.consumer.completed(batchChunk);
+          }
+          batchChunks.clear();
+          messagesProcessed += messages;
+          LOG.trace("Kafka processing thread {} finished processing {} messages", threadID, messages);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (Exception e) {
+        LOG.error("Encountered error in multi kafka processing thread {} {}", threadID, e);
+        handleException(KafkaErrors.KAFKA_29, e);
+      } finally {
+        processingDone.countDown();
+      }
+
+      LOG.info("multi kafka processing thread {} processed {} messages", threadID, messagesProcessed);
+      return messagesProcessed;
+    }
+  }
+
+  /**
+   * Records parsed from a message, and the error that stopped the parsing if any.
+   */
+  private static class ParsedMessage {
+    private final String messageId;
+    private final byte[] payload;
+    private final List<Record> records;
+    private final Exception error;
+
+    private ParsedMessage(String messageId, byte[] payload, List<Record> records, Exception error) {
+      this.messageId = messageId;
+      this.payload = payload;
+      this.records = records;
+      this.error = error;
+    }
+  }
+
+  private List<ParsedMessage> parseChunk(Chunk chunk) {
+    List<ParsedMessage> parsed = new ArrayList<>(chunk.messages.size());
+    for (ConsumerRecord<String, byte[]> message : chunk.messages) {
+      parsed.add(parseMessage(message.topic(), message.partition(), message.offset(), message.value()));
+    }
+    return parsed;
+  }
+
+  private List<Record> createRecord(
+    ErrorRecordHandler errorRecordHandler,
+    String topic,
+    int partition,
+    long offset,
+    byte[] payload
+  ) throws StageException {
+    return getRecords(errorRecordHandler, parseMessage(topic, partition, offset, payload));
+  }
+
+  private ParsedMessage parseMessage(String topic, int partition, long offset, byte[] payload) {
+    String messageId = getMessageId(topic, partition, offset);
+    List<Record> records = new ArrayList<>();
+    Exception error = null;
+    try(DataParser parser = Utils.checkNotNull(parserFactory, "Initialization failed").getReusableParser(messageId, payload)) {
+      Record record = parser.parse();
+      while (record != null) {
+        record.getHeader().setAttribute(HeaderAttributeConstants.TOPIC, topic);
+        record.getHeader().setAttribute(HeaderAttributeConstants.PARTITION, String.valueOf(partition));
+        record.getHeader().setAttribute(HeaderAttributeConstants.OFFSET, String.valueOf(offset));
+
+        records.add(record);
+        record = parser.parse();
+      }
+    } catch (DataParserException | IOException e) {
+      error = e;
+    }
+    if(conf.produceSingleRecordPerMessage) {
+      List<Field> list = new ArrayList<>();
+      for (Record record : records) {
+        list.add(record.get());
+      }
+      Record record = records.get(0);
+      record.set(Field.create(list));
+      records.clear();
+      records.add(record);
+    }
+
+    return new ParsedMessage(messageId, payload, records, error);
+  }
+
+  private List<Record> getRecords(ErrorRecordHandler errorRecordHandler, ParsedMessage message)
+      throws StageException {
+    if (message.error != null) {
+      Record record = getContext().createRecord(message.messageId);
+      record.set(Field.create(message.payload));
+      errorRecordHandler.onError(
+          new OnRecordErrorException(
+              record,
+              KafkaErrors.KAFKA_37,
+              message.messageId,
+              message.error.toString(),
+              message.error
+          )
+      );
+    }
+    return message.records;
+  }
+
+  private void handleException(KafkaErrors error, Object... args) throws StageException {
+    // all threads should halt when an error is encountered
+    shutdown();
+    throw new StageException(error, args);
+  }
+
   @Override
   public List<ConfigIssue> init() {
     List<ConfigIssue> issues = super.init();
@@ -224,7 +597,13 @@ public class MultiKafkaSource extends BasePushSource {
       );
     }
 
-    executor = Executors.newFixedThreadPool(getNumberOfThreads());
+    // decoupled polling runs the consumer threads next to the processing threads
+    executor = Executors.newFixedThreadPool(
+        conf.decoupledPolling ? getNumberOfThreads() + conf.numberOfConsumers : getNumberOfThreads()
+    );
+    if (conf.decoupledPolling) {
+      parseExecutor = Executors.newFixedThreadPool(getNumberOfThreads());
+    }
     for (String topic: conf.topicList) {
       LineageEvent event = getContext().createLineageEvent(LineageEventType.ENTITY_READ);
       event.setSpecificAttribute(LineageSpecificAttribute.ENDPOINT_TYPE, EndPointType.KAFKA.name());
@@ -246,22 +625,27 @@ public class MultiKafkaSource extends BasePushSource {
     batchSize = Math.min(maxBatchSize, conf.maxBatchSize);
     int numThreads = getNumberOfThreads();
     List<Future<Long>> futures = new ArrayList<>(numThreads);
-    CountDownLatch startProcessingGate = new CountDownLatch(numThreads);
 
-    // Run all the threads
-    for(int i = 0; i < numThreads; i++) {
-      try {
-        futures.add(executor.submit(new MultiTopicCallable(i,
-            conf.topicList,
-            KafkaConsumerLoader.createConsumer(getKafkaProperties(getContext())),
-            startProcessingGate
-        )));
-      } catch (Exception e) {
-        LOG.error("Error while initializing Kafka consumer: {}", e.toString(), e);
-        Throwables.propagateIfPossible(e.getCause(), StageException.class);
-        Throwables.propagate(e);
+    if (conf.decoupledPolling) {
+      runDecoupled(futures);
+    } else {
+      CountDownLatch startProcessingGate = new CountDownLatch(numThreads);
+
+      // Run all the threads
+      for(int i = 0; i < numThreads; i++) {
+        try {
+          futures.add(executor.submit(new MultiTopicCallable(i,
+              conf.topicList,
+              KafkaConsumerLoader.createConsumer(getKafkaProperties(getContext())),
+              startProcessingGate
+          )));
+        } catch (Exception e) {
+          LOG.error("Error while initializing Kafka consumer: {}", e.toString(), e);
+          Throwables.propagateIfPossible(e.getCause(), StageException.class);
+          Throwables.propagate(e);
+        }
+        startProcessingGate.countDown();
       }
-      startProcessingGate.countDown();
     }
 
     // Wait for proper execution completion
@@ -285,6 +669,37 @@ public class MultiKafkaSource extends BasePushSource {
     executor.shutdown();
   }
 
+  private void runDecoupled(List<Future<Long>> futures) {
+    int numThreads = getNumberOfThreads();
+    CountDownLatch startProcessingGate = new CountDownLatch(numThreads + conf.numberOfConsumers);
+    CountDownLatch processingDone = new CountDownLatch(numThreads);
+
+    List<ProcessingCallable> processors = new ArrayList<>(numThreads);
+    for (int i = 0; i < numThreads; i++) {
+      ProcessingCallable processor = new ProcessingCallable(i, startProcessingGate, processingDone);
+      processors.add(processor);
+      futures.add(executor.submit(processor));
+      startProcessingGate.countDown();
+    }
+
+    for (int i = 0; i < conf.numberOfConsumers; i++) {
+      try {
+        futures.add(executor.submit(new PartitionConsumerCallable(i,
+            conf.topicList,
+            KafkaConsumerLoader.createConsumer(getKafkaProperties(getContext())),
+            startProcessingGate,
+            processingDone,
+            processors
+        )));
+      } catch (Exception e) {
+        LOG.error("Error while initializing Kafka consumer: {}", e.toString(), e);
+        Throwables.propagateIfPossible(e.getCause(), StageException.class);
+        Throwables.propagate(e);
+      }
+      startProcessingGate.countDown();
+    }
+  }
+
   //no trespassing...
   private Properties getKafkaProperties(Stage.Context context) {
     Properties props = new Properties();
@@ -293,8 +708,13 @@ public class MultiKafkaSource extends BasePushSource {
     props.setProperty("bootstrap.servers", conf.brokerURI);
     props.setProperty("group.id", conf.consumerGroup);
     props.setProperty("max.poll.records", String.valueOf(batchSize));
-    props.setProperty("enable.auto.commit", "true");
-    props.setProperty("auto.commit.interval.ms", "1000");
+    if (conf.decoupledPolling) {
+      // offsets are committed once the batches holding the messages are processed
+      props.setProperty("enable.auto.commit", "false");
+    } else {
+      props.setProperty("enable.auto.commit", "true");
+      props.setProperty("auto.commit.interval.ms", "1000");
+    }
     props.setProperty(KafkaConstants.KEY_DESERIALIZER_CLASS_CONFIG, conf.keyDeserializer.getKeyClass());
     props.setProperty(KafkaConstants.VALUE_DESERIALIZER_CLASS_CONFIG, conf.valueDeserializer.getValueClass());
     props.setProperty(KafkaConstants.CONFLUENT_SCHEMA_REGISTRY_URL_CONFIG, StringUtils.join(conf.dataFormatConfig.schemaRegistryUrls, ","));
@@ -327,12 +747,21 @@ public class MultiKafkaSource extends BasePushSource {
   @Override
   public void destroy() {
     executor.shutdownNow();
+    if (parseExecutor != null) {
+      parseExecutor.shutdownNow();
+    }
+    if (parserFactory != null) {
+      parserFactory.closeIdleParsers();
+    }
     super.destroy();
   }
 
   private void shutdown() {
     if (!shutdownCalled.getAndSet(true)) {
       executor.shutdownNow();
+      if (parseExecutor != null) {
+        parseExecutor.shutdownNow();
+      }
     }
   }
 }
@@ -15,9 +15,15 @@
  */
 package com.streamsets.pipeline.stage.origin.multikafka;
 
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.common.TopicPartition;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This is very thin wrapper on top of KafkaConsumer (Kafka native class) that is abstracting method calls that
@@ -28,8 +34,18 @@ public interface MultiSdcKafkaConsumer<K, V> {
 
   public void subscribe(List<String> topics);
 
+  public void subscribe(List<String> topics, ConsumerRebalanceListener listener);
+
   public ConsumerRecords<K, V> poll(long timeout);
 
+  public void pause(Collection<TopicPartition> partitions);
+
+  public void resume(Collection<TopicPartition> partitions);
+
+  public void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets);
+
+  public void commitAsync(Map<TopicPartition, OffsetAndMetadata> offsets, OffsetCommitCallback callback);
+
   public void unsubscribe();
 
   public void close();
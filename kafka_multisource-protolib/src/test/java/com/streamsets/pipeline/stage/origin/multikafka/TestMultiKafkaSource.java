@@ -25,28 +25,37 @@ import com.streamsets.pipeline.config.DataFormat;
 import com.streamsets.pipeline.lib.kafka.KafkaErrors;
 import com.streamsets.pipeline.sdk.PushSourceRunner;
 import com.streamsets.pipeline.sdk.StageRunner;
+import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
 import com.streamsets.pipeline.stage.origin.multikafka.loader.KafkaConsumerLoader;
 import com.streamsets.pipeline.stage.origin.multikafka.loader.MockKafkaConsumerLoader;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
 import org.apache.kafka.common.TopicPartition;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class TestMultiKafkaSource {
   @Before
@@ -291,15 +300,335 @@ public class TestMultiKafkaSource {
     Assert.fail();
   }
 
+  @Test
+  public void testDecoupledPolling() throws StageException, InterruptedException {
+    MultiKafkaBeanConfig conf = getConfig();
+    conf.topicList = Collections.singletonList("topic");
+    conf.numberOfThreads = 2;
+    conf.decoupledPolling = true;
+    conf.numberOfConsumers = 1;
+    conf.prefetchChunks = 4;
+
+    // both partitions come in a single poll, each one is handed to its own processing thread
+    Map<TopicPartition, List<ConsumerRecord<String, byte[]>>> recordsMap = new HashMap<>();
+    recordsMap.put(new TopicPartition("topic", 0), generateRecordList(5, "topic", 0));
+    recordsMap.put(new TopicPartition("topic", 1), generateRecordList(5, "topic", 1));
+    ConsumerRecords<String, byte[]> consumerRecords = new ConsumerRecords<>(recordsMap);
+    ConsumerRecords<String, byte[]> emptyRecords = generateConsumerRecords(0, "topic", 0);
+
+    KafkaConsumer mockConsumer = Mockito.mock(KafkaConsumer.class);
+    List<KafkaConsumer> consumerList = Collections.singletonList(mockConsumer);
+    Mockito.when(mockConsumer.poll(Mockito.anyLong())).thenReturn(consumerRecords).thenReturn(emptyRecords);
+    Mockito.doAnswer(invocation -> {
+      ((ConsumerRebalanceListener) invocation.getArguments()[1]).onPartitionsAssigned(recordsMap.keySet());
+      return null;
+    }).when(mockConsumer).subscribe(Mockito.anyList(), Mockito.any(ConsumerRebalanceListener.class));
+
+    MockKafkaConsumerLoader.consumers = consumerList.iterator();
+    MultiKafkaSource source = new MultiKafkaSource(conf);
+    PushSourceRunner sourceRunner = new PushSourceRunner.Builder(MultiKafkaDSource.class, source)
+        .addOutputLane("lane")
+        .build();
+    sourceRunner.runInit();
+
+    MultiKafkaPushSourceTestCallback callback = new MultiKafkaPushSourceTestCallback(sourceRunner, 2);
+    try {
+      sourceRunner.runProduce(new HashMap<>(), 5, callback);
+      int records = callback.waitForAllBatches();
+
+      source.await();
+      Assert.assertEquals(10, records);
+      Assert.assertFalse(source.isRunning());
+
+      // processed offsets are committed by the consumer thread, the last ones synchronously before it leaves, the
+      // committed offset is the offset of the next message to consume
+      Map<TopicPartition, OffsetAndMetadata> committed = getCommittedOffsets(mockConsumer);
+      Assert.assertEquals(5, committed.get(new TopicPartition("topic", 0)).offset());
+      Assert.assertEquals(5, committed.get(new TopicPartition("topic", 1)).offset());
+      Mockito.verify(mockConsumer, Mockito.never()).pause(Mockito.anyCollection());
+    } catch (Exception e) {
+      Assert.fail(e.getMessage());
+      throw e;
+    } finally {
+      sourceRunner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testDecoupledPollingPauseAndResume() throws Exception {
+    MultiKafkaBeanConfig conf = getConfig();
+    conf.topicList = Collections.singletonList("topic");
+    conf.numberOfThreads = 1;
+    conf.decoupledPolling = true;
+    conf.numberOfConsumers = 1;
+    conf.prefetchChunks = 1;
+
+    TopicPartition partition = new TopicPartition("topic", 0);
+    KafkaConsumer mockConsumer = Mockito.mock(KafkaConsumer.class);
+    mockSubscribe(mockConsumer, Collections.singletonList(partition), new AtomicReference<>());
+
+    MultiKafkaSource source = new MultiKafkaSource(conf);
+    PushSourceRunner sourceRunner = new PushSourceRunner.Builder(MultiKafkaDSource.class, source)
+        .addOutputLane("lane")
+        .build();
+    BlockingFirstBatchCallback callback = new BlockingFirstBatchCallback(sourceRunner, 3);
+
+    // the first chunk is being processed and the second one fills the processing thread queue, so the third one
+    // stays in the consumer until the first batch is done
+    AtomicInteger polls = new AtomicInteger();
+    Mockito.when(mockConsumer.poll(Mockito.anyLong())).thenAnswer(invocation -> {
+      switch (polls.getAndIncrement()) {
+        case 0:
+          return generateConsumerRecords(5, "topic", 0, 0);
+        case 1:
+          Assert.assertTrue(callback.firstBatchStarted.await(10, TimeUnit.SECONDS));
+          return generateConsumerRecords(5, "topic", 0, 5);
+        case 2:
+          return generateConsumerRecords(5, "topic", 0, 10);
+        case 3:
+          Mockito.verify(mockConsumer).pause(Collections.singletonList(partition));
+          Mockito.verify(mockConsumer, Mockito.never()).resume(Mockito.anyCollection());
+          callback.releaseFirstBatch.countDown();
+          return generateConsumerRecords(0, "topic", 0);
+        default:
+          return generateConsumerRecords(0, "topic", 0);
+      }
+    });
+
+    MockKafkaConsumerLoader.consumers = Collections.singletonList(mockConsumer).iterator();
+    sourceRunner.runInit();
+    try {
+      sourceRunner.runProduce(new HashMap<>(), 5, callback);
+      Assert.assertEquals(15, callback.waitForAllBatches());
+      source.await();
+
+      // the partition is resumed once its chunk is handed off, the messages are processed in order
+      Mockito.verify(mockConsumer).resume(Collections.singletonList(partition));
+      List<String> expected = new ArrayList<>();
+      for (int i = 0; i < 15; i++) {
+        expected.add("0:" + i);
+      }
+      Assert.assertEquals(expected, callback.messages);
+      Assert.assertEquals(15, getCommittedOffsets(mockConsumer).get(partition).offset());
+    } finally {
+      sourceRunner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testDecoupledPollingRevokedPartition() throws Exception {
+    MultiKafkaBeanConfig conf = getConfig();
+    conf.topicList = Collections.singletonList("topic");
+    conf.numberOfThreads = 1;
+    conf.decoupledPolling = true;
+    conf.numberOfConsumers = 1;
+    conf.prefetchChunks = 1;
+
+    TopicPartition partition0 = new TopicPartition("topic", 0);
+    TopicPartition partition1 = new TopicPartition("topic", 1);
+    KafkaConsumer mockConsumer = Mockito.mock(KafkaConsumer.class);
+    AtomicReference<ConsumerRebalanceListener> listener = new AtomicReference<>();
+    mockSubscribe(mockConsumer, Arrays.asList(partition0, partition1), listener);
+
+    MultiKafkaSource source = new MultiKafkaSource(conf);
+    PushSourceRunner sourceRunner = new PushSourceRunner.Builder(MultiKafkaDSource.class, source)
+        .addOutputLane("lane")
+        .build();
+    BlockingFirstBatchCallback callback = new BlockingFirstBatchCallback(sourceRunner, 2);
+
+    // the chunk of partition 1 waits in the consumer, behind the chunks of partition 0, when partition 1 is revoked
+    AtomicInteger polls = new AtomicInteger();
+    Mockito.when(mockConsumer.poll(Mockito.anyLong())).thenAnswer(invocation -> {
+      switch (polls.getAndIncrement()) {
+        case 0:
+          return generateConsumerRecords(5, "topic", 0, 0);
+        case 1:
+          Assert.assertTrue(callback.firstBatchStarted.await(10, TimeUnit.SECONDS));
+          return generateConsumerRecords(5, "topic", 0, 5);
+        case 2:
+          return generateConsumerRecords(5, "topic", 1, 0);
+        case 3:
+          Mockito.verify(mockConsumer).pause(Collections.singletonList(partition1));
+          listener.get().onPartitionsRevoked(Collections.singletonList(partition1));
+          callback.releaseFirstBatch.countDown();
+          return generateConsumerRecords(0, "topic", 0);
+        default:
+          return generateConsumerRecords(0, "topic", 0);
+      }
+    });
+
+    MockKafkaConsumerLoader.consumers = Collections.singletonList(mockConsumer).iterator();
+    sourceRunner.runInit();
+    try {
+      sourceRunner.runProduce(new HashMap<>(), 5, callback);
+      Assert.assertEquals(10, callback.waitForAllBatches());
+      source.await();
+
+      // the chunk of the revoked partition is dropped, its new owner consumes it again, so it is neither processed
+      // nor committed, and the partition is not resumed
+      for (String message : callback.messages) {
+        Assert.assertTrue(message, message.startsWith("0:"));
+      }
+      Mockito.verify(mockConsumer, Mockito.never()).resume(Mockito.anyCollection());
+      Map<TopicPartition, OffsetAndMetadata> committed = getCommittedOffsets(mockConsumer);
+      Assert.assertEquals(10, committed.get(partition0).offset());
+      Assert.assertFalse(committed.containsKey(partition1));
+    } finally {
+      sourceRunner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testDecoupledPollingReassignedPartition() throws Exception {
+    MultiKafkaBeanConfig conf = getConfig();
+    conf.topicList = Collections.singletonList("topic");
+    conf.numberOfThreads = 1;
+    conf.decoupledPolling = true;
+    conf.numberOfConsumers = 1;
+    conf.prefetchChunks = 1;
+
+    TopicPartition partition0 = new TopicPartition("topic", 0);
+    KafkaConsumer mockConsumer = Mockito.mock(KafkaConsumer.class);
+    AtomicReference<ConsumerRebalanceListener> listener = new AtomicReference<>();
+    mockSubscribe(mockConsumer, Collections.singletonList(partition0), listener);
+
+    MultiKafkaSource source = new MultiKafkaSource(conf);
+    PushSourceRunner sourceRunner = new PushSourceRunner.Builder(MultiKafkaDSource.class, source)
+        .addOutputLane("lane")
+        .build();
+    BlockingFirstBatchCallback callback = new BlockingFirstBatchCallback(sourceRunner, 2);
+
+    // the partition is revoked and assigned again to the same consumer while its first chunk is processed
+    AtomicInteger polls = new AtomicInteger();
+    Mockito.when(mockConsumer.poll(Mockito.anyLong())).thenAnswer(invocation -> {
+      switch (polls.getAndIncrement()) {
+        case 0:
+          return generateConsumerRecords(5, "topic", 0, 0);
+        case 1:
+          Assert.assertTrue(callback.firstBatchStarted.await(10, TimeUnit.SECONDS));
+          listener.get().onPartitionsRevoked(Collections.singletonList(partition0));
+          listener.get().onPartitionsAssigned(Collections.singletonList(partition0));
+          callback.releaseFirstBatch.countDown();
+          return generateConsumerRecords(5, "topic", 0, 5);
+        default:
+          return generateConsumerRecords(0, "topic", 0);
+      }
+    });
+
+    MockKafkaConsumerLoader.consumers = Collections.singletonList(mockConsumer).iterator();
+    sourceRunner.runInit();
+    try {
+      sourceRunner.runProduce(new HashMap<>(), 5, callback);
+      Assert.assertEquals(10, callback.waitForAllBatches());
+      source.await();
+
+      // the offset of the chunk of the previous assignment is never committed, it could rewind the partition
+      ArgumentCaptor<Map> syncOffsets = ArgumentCaptor.forClass(Map.class);
+      ArgumentCaptor<Map> asyncOffsets = ArgumentCaptor.forClass(Map.class);
+      Mockito.verify(mockConsumer, Mockito.atLeast(0)).commitSync(syncOffsets.capture());
+      Mockito.verify(mockConsumer, Mockito.atLeast(0))
+          .commitAsync(asyncOffsets.capture(), Mockito.any(OffsetCommitCallback.class));
+      List<Map> commits = new ArrayList<>(syncOffsets.getAllValues());
+      commits.addAll(asyncOffsets.getAllValues());
+      for (Map offsets : commits) {
+        if (offsets.containsKey(partition0)) {
+          Assert.assertEquals(new OffsetAndMetadata(10), offsets.get(partition0));
+        }
+      }
+      Assert.assertEquals(10, getCommittedOffsets(mockConsumer).get(partition0).offset());
+    } finally {
+      sourceRunner.runDestroy();
+    }
+  }
+
+  private void mockSubscribe(
+      KafkaConsumer mockConsumer,
+      List<TopicPartition> partitions,
+      AtomicReference<ConsumerRebalanceListener> listener
+  ) {
+    Mockito.doAnswer(invocation -> {
+      listener.set((ConsumerRebalanceListener) invocation.getArguments()[1]);
+      listener.get().onPartitionsAssigned(partitions);
+      return null;
+    }).when(mockConsumer).subscribe(Mockito.anyList(), Mockito.any(ConsumerRebalanceListener.class));
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<TopicPartition, OffsetAndMetadata> getCommittedOffsets(KafkaConsumer mockConsumer) {
+    ArgumentCaptor<Map> asyncOffsets = ArgumentCaptor.forClass(Map.class);
+    ArgumentCaptor<Map> syncOffsets = ArgumentCaptor.forClass(Map.class);
+    Mockito.verify(mockConsumer, Mockito.atLeast(0))
+        .commitAsync(asyncOffsets.capture(), Mockito.any(OffsetCommitCallback.class));
+    Mockito.verify(mockConsumer, Mockito.atLeast(0)).commitSync(syncOffsets.capture());
+    Map<TopicPartition, OffsetAndMetadata> committed = new HashMap<>();
+    asyncOffsets.getAllValues().forEach(committed::putAll);
+    syncOffsets.getAllValues().forEach(committed::putAll);
+    return committed;
+  }
+
   private ConsumerRecords<String, byte[]> generateConsumerRecords(int count, String topic, int partition) {
+    return generateConsumerRecords(count, topic, partition, 0);
+  }
+
+  private ConsumerRecords<String, byte[]> generateConsumerRecords(
+      int count,
+      String topic,
+      int partition,
+      long firstOffset
+  ) {
+    Map<TopicPartition, List<ConsumerRecord<String, byte[]>>> recordsMap = new HashMap<>();
+    recordsMap.put(new TopicPartition(topic, partition), generateRecordList(count, topic, partition, firstOffset));
+    return new ConsumerRecords<>(recordsMap);
+  }
+
+  private List<ConsumerRecord<String, byte[]>> generateRecordList(int count, String topic, int partition) {
+    return generateRecordList(count, topic, partition, 0);
+  }
+
+  private List<ConsumerRecord<String, byte[]>> generateRecordList(
+      int count,
+      String topic,
+      int partition,
+      long firstOffset
+  ) {
     List<ConsumerRecord<String, byte[]>> consumerRecordsList = new ArrayList<>();
     for(int i=0; i<count; i++) {
-      consumerRecordsList.add(new ConsumerRecord<>(topic, partition, 0, "key" + i, ("value" + i).getBytes()));
+      consumerRecordsList.add(
+          new ConsumerRecord<>(topic, partition, firstOffset + i, "key" + i, ("value" + i).getBytes())
+      );
     }
+    return consumerRecordsList;
+  }
 
-    Map<TopicPartition, List<ConsumerRecord<String, byte[]>>> recordsMap = new HashMap<>();
-    recordsMap.put(new TopicPartition(topic, partition), consumerRecordsList);
-    return new ConsumerRecords<>(recordsMap);
+  /**
+   * Callback that holds the first batch until released, and keeps the partition and offset of every message
+   * processed, in order.
+   */
+  static class BlockingFirstBatchCallback extends MultiKafkaPushSourceTestCallback {
+    private final CountDownLatch firstBatchStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+    private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+
+    BlockingFirstBatchCallback(PushSourceRunner pushSourceRunner, int numberOfBatches) {
+      super(pushSourceRunner, numberOfBatches);
+    }
+
+    @Override
+    public void processBatch(StageRunner.Output output) {
+      if (firstBatchStarted.getCount() > 0) {
+        firstBatchStarted.countDown();
+        try {
+          Assert.assertTrue(releaseFirstBatch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+          throw Throwables.propagate(e);
+        }
+      }
+      for (Record record : output.getRecords().get("lane")) {
+        messages.add(record.getHeader().getAttribute(HeaderAttributeConstants.PARTITION) + ":" +
+            record.getHeader().getAttribute(HeaderAttributeConstants.OFFSET));
+      }
+      super.processBatch(output);
+    }
   }
 
   static class MultiKafkaPushSourceTestCallback implements PushSourceRunner.Callback {
@@ -16,11 +16,15 @@
 package com.streamsets.pipeline.stage.origin.multikafka.loader;
 
 import com.streamsets.pipeline.stage.origin.multikafka.MultiSdcKafkaConsumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -59,11 +63,36 @@ public class MockKafkaConsumerLoader extends KafkaConsumerLoader {
       delegate.subscribe(topics);
     }
 
+    @Override
+    public void subscribe(List topics, ConsumerRebalanceListener listener) {
+      delegate.subscribe(topics, listener);
+    }
+
     @Override
     public ConsumerRecords poll(long timeout) {
       return delegate.poll(timeout);
     }
 
+    @Override
+    public void pause(Collection partitions) {
+      delegate.pause(partitions);
+    }
+
+    @Override
+    public void resume(Collection partitions) {
+      delegate.resume(partitions);
+    }
+
+    @Override
+    public void commitSync(Map offsets) {
+      delegate.commitSync(offsets);
+    }
+
+    @Override
+    public void commitAsync(Map offsets, OffsetCommitCallback callback) {
+      delegate.commitAsync(offsets, callback);
+    }
+
     @Override
     public void unsubscribe() {
       delegate.unsubscribe();
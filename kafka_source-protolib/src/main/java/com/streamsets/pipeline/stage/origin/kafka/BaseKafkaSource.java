@@ -215,6 +215,14 @@ public abstract class BaseKafkaSource extends BaseSource implements OffsetCommit
     return originParallelism;
   }
 
+  @Override
+  public void destroy() {
+    if (parserFactory != null) {
+      parserFactory.closeIdleParsers();
+    }
+    super.destroy();
+  }
+
   protected List<Record> processKafkaMessageDefault(String partition, long offset, String messageId, byte[] payload)
     throws StageException {
     List<Record> records = new ArrayList<>();
@@ -230,7 +238,7 @@ public abstract class BaseKafkaSource extends BaseSource implements OffsetCommit
       );
       return records;
     }
-    try (DataParser parser = Utils.checkNotNull(parserFactory, "Initialization failed").getParser(messageId, payload)) {
+    try (DataParser parser = Utils.checkNotNull(parserFactory, "Initialization failed").getReusableParser(messageId, payload)) {
       Record record = parser.parse();
       while (record != null) {
         record.getHeader().setAttribute(HeaderAttributeConstants.TOPIC, conf.topic);
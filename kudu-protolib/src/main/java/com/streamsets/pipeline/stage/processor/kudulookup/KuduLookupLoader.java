@@ -28,6 +28,7 @@ import com.streamsets.pipeline.stage.common.MissingValuesBehavior;
 import com.streamsets.pipeline.stage.lib.kudu.Errors;
 import com.streamsets.pipeline.stage.lib.kudu.KuduUtils;
 import com.streamsets.pipeline.api.impl.Utils;
+import com.stumbleupon.async.Deferred;
 import org.apache.kudu.ColumnSchema;
 import org.apache.kudu.Type;
 import org.apache.kudu.Schema;
@@ -44,12 +45,17 @@ import org.slf4j.LoggerFactory;
 import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.concurrent.ExecutionException;
 
 public class KuduLookupLoader extends CacheLoader<KuduLookupKey, List<Map<String, Field>>> {
   private static final Logger LOG = LoggerFactory.getLogger(KuduLookupLoader.class);
+  // Upper bound of the scans of a batch in flight at the same time
+  private static final int MAX_CONCURRENT_SCANS = 32;
 
   private final AsyncKuduClient kuduClient;
   private final Meter selectMeter;
@@ -104,10 +110,55 @@ public class KuduLookupLoader extends CacheLoader<KuduLookupKey, List<Map<String
 
   @Override
   public List<Map<String, Field>> load(KuduLookupKey key) throws Exception {
-    List<Map<String, Field>> lookupItems = new ArrayList<>();
-    AsyncKuduScanner scanner = null;
     Timer.Context t = selectTimer.time();
+    Scan scan = null;
+    try {
+      scan = startScan(key);
+      return readRows(scan);
+    } finally {
+      if (scan != null) {
+        scan.scanner.close();
+      }
+      t.stop();
+      selectMeter.mark();
+    }
+  }
+
+  /**
+   * Keeps up to {@link #MAX_CONCURRENT_SCANS} scans in flight, starting the scan of the next key as soon as one is
+   * read, so that the lookups of a whole batch are sent to the tablet servers concurrently instead of waiting for one
+   * round trip per key, without opening one scanner per key of a large batch at once.
+   */
+  @Override
+  public Map<KuduLookupKey, List<Map<String, Field>>> loadAll(Iterable<? extends KuduLookupKey> keys)
+      throws Exception {
+    Timer.Context t = selectTimer.time();
+    Iterator<? extends KuduLookupKey> iterator = keys.iterator();
+    Deque<Scan> scans = new ArrayDeque<>(MAX_CONCURRENT_SCANS);
+    Map<KuduLookupKey, List<Map<String, Field>>> values = new HashMap<>();
+    try {
+      while (scans.size() < MAX_CONCURRENT_SCANS && iterator.hasNext()) {
+        scans.add(startScan(iterator.next()));
+      }
+      while (!scans.isEmpty()) {
+        Scan scan = scans.peek();
+        values.put(scan.key, readRows(scan));
+        scans.poll().scanner.close();
+        if (iterator.hasNext()) {
+          scans.add(startScan(iterator.next()));
+        }
+      }
+      return values;
+    } finally {
+      for (Scan scan : scans) {
+        scan.scanner.close();
+      }
+      t.stop();
+      selectMeter.mark(values.size());
+    }
+  }
 
+  private Scan startScan(KuduLookupKey key) throws StageException {
     KuduTable kuduTable = null;
     try {
       kuduTable = tableCache.get(key.tableName);
@@ -118,22 +169,31 @@ public class KuduLookupLoader extends CacheLoader<KuduLookupKey, List<Map<String
     // Scanner is not reusable. Need to build per record.
     AsyncKuduScanner.AsyncKuduScannerBuilder scannerBuilder = kuduClient.newScannerBuilder(kuduTable)
         .setProjectedColumnNames(projectColumns);
+    // Set key columns to scanner if specified in Key Column Mapping.
+    // We removed the restriction that requires primary keys here.
+    for (String keyColumn : keyColumns) {
+      addPredicate(key.columns.get(keyColumn), scannerBuilder, kuduTable, keyColumn);
+    }
+    AsyncKuduScanner scanner;
     try {
-      Schema schema = kuduTable.getSchema();
-      // Set key columns to scanner if specified in Key Column Mapping.
-      // We removed the restriction that requires primary keys here.
-      for (String keyColumn : keyColumns) {
-        addPredicate(key.columns.get(keyColumn), scannerBuilder, kuduTable, keyColumn);
-      }
-      try {
-        scanner = scannerBuilder.build();
-      } catch (IllegalArgumentException ex) {
-        // Thrown here if mapping config has columns that don't exist in the table. Worth stopping pipeline
-        throw new StageException(Errors.KUDU_02, ex);
-      }
+      scanner = scannerBuilder.build();
+    } catch (IllegalArgumentException ex) {
+      // Thrown here if mapping config has columns that don't exist in the table. Worth stopping pipeline
+      throw new StageException(Errors.KUDU_02, ex);
+    }
+    // Send the first scan request right away, its response is read in readRows()
+    Deferred<RowResultIterator> pending = scanner.hasMoreRows() ? scanner.nextRows() : null;
+    return new Scan(key, kuduTable.getSchema(), scanner, pending);
+  }
 
-      while (scanner.hasMoreRows()) {
-        RowResultIterator results = scanner.nextRows().join();
+  private List<Map<String, Field>> readRows(Scan scan) throws Exception {
+    List<Map<String, Field>> lookupItems = new ArrayList<>();
+    Schema schema = scan.schema;
+    try {
+      Deferred<RowResultIterator> pending = scan.pending;
+      while (pending != null) {
+        RowResultIterator results = pending.join();
+        pending = scan.scanner.hasMoreRows() ? scan.scanner.nextRows() : null;
         while (results.hasNext()) {
           RowResult result = results.next();
           if (LOG.isDebugEnabled()) {
@@ -189,15 +249,6 @@ public class KuduLookupLoader extends CacheLoader<KuduLookupKey, List<Map<String
       // Exception executing query
       LOG.error(Errors.KUDU_03.getMessage(), e.toString(), e);
       throw new StageException(Errors.KUDU_03, e.toString(), e);
-    } finally {
-      if (scanner != null) {
-        scanner.close();
-      }
-      // If the timer wasn't stopped due to exception yet, stop it now
-      if(t != null) {
-        t.stop();
-      }
-      selectMeter.mark();
     }
     return lookupItems;
   }
@@ -252,4 +303,18 @@ public class KuduLookupLoader extends CacheLoader<KuduLookupKey, List<Map<String
     }
     scannerBuilder.addPredicate(predicate);
   }
+
+  private static class Scan {
+    private final KuduLookupKey key;
+    private final Schema schema;
+    private final AsyncKuduScanner scanner;
+    private final Deferred<RowResultIterator> pending;
+
+    private Scan(KuduLookupKey key, Schema schema, AsyncKuduScanner scanner, Deferred<RowResultIterator> pending) {
+      this.key = key;
+      this.schema = schema;
+      this.scanner = scanner;
+      this.pending = pending;
+    }
+  }
 }
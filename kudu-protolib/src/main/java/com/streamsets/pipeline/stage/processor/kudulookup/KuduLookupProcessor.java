@@ -17,6 +17,7 @@ package com.streamsets.pipeline.stage.processor.kudulookup;
 
 import com.google.common.base.Throwables;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
@@ -35,6 +36,7 @@ import com.streamsets.pipeline.stage.common.MissingValuesBehavior;
 import com.streamsets.pipeline.stage.lib.kudu.Errors;
 import com.streamsets.pipeline.stage.lib.kudu.KuduFieldMappingConfig;
 import com.streamsets.pipeline.stage.lib.kudu.KuduUtils;
+import com.streamsets.pipeline.stage.processor.kv.BatchLookupStats;
 import com.streamsets.pipeline.stage.processor.kv.LookupUtils;
 import org.apache.kudu.client.AsyncKuduClient;
 import org.apache.kudu.client.AsyncKuduSession;
@@ -43,10 +45,14 @@ import org.apache.kudu.client.OperationResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.HashMap;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 public class KuduLookupProcessor extends SingleLaneRecordProcessor {
@@ -73,6 +79,8 @@ public class KuduLookupProcessor extends SingleLaneRecordProcessor {
 
   private LoadingCache<KuduLookupKey, List<Map<String, Field>>> cache;
   private CacheCleaner cacheCleaner;
+  private BatchLookupStats batchLookupStats;
+  private Map<KuduLookupKey, List<Map<String, Field>>> batchValues = Collections.emptyMap();
 
   public KuduLookupProcessor(KuduLookupConfig conf) {
     this.conf = conf;
@@ -191,6 +199,7 @@ public class KuduLookupProcessor extends SingleLaneRecordProcessor {
       store = new KuduLookupLoader(getContext(), kuduClient, keyColumns, columnToField, conf);
       cache = LookupUtils.buildCache(store, conf.cache);
       cacheCleaner = new CacheCleaner(cache, "KuduLookupProcessor", 10 * 60 * 1000);
+      batchLookupStats = new BatchLookupStats(getContext());
     }
     return issues;
   }
@@ -229,23 +238,50 @@ public class KuduLookupProcessor extends SingleLaneRecordProcessor {
       // No records - take the opportunity to clean up the cache so that we don't hold on to memory indefinitely
       cacheCleaner.periodicCleanUp();
     }
-    super.process(batch, batchMaker);
+    prefetch(batch);
+    try {
+      super.process(batch, batchMaker);
+    } finally {
+      batchValues = Collections.emptyMap();
+    }
+  }
+
+  /**
+   * Looks up the distinct keys of the whole batch at once so that the cache misses are scanned concurrently. Records
+   * whose key can't be generated, or a batch whose lookup fails, are looked up again record by record so that errors
+   * are reported against the right record.
+   */
+  private void prefetch(Batch batch) {
+    Set<KuduLookupKey> keys = new HashSet<>();
+    Iterator<Record> records = batch.getRecords();
+    while (records.hasNext()) {
+      try {
+        keys.add(generateLookupKey(records.next()));
+      } catch (StageException e) { // NOSONAR
+        // Reported when the record is processed
+      }
+    }
+    if (keys.isEmpty()) {
+      return;
+    }
+    try {
+      batchValues = batchLookupStats.getAll(cache, keys);
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      LOG.debug("Batch lookup failed, looking up records one by one: {}", e.toString(), e);
+    }
   }
 
   /** {@inheritDoc} */
   @Override
   protected void process(Record record, SingleLaneProcessor.SingleLaneBatchMaker batchMaker) throws StageException {
-    RecordEL.setRecordInContext(tableNameVars, record);
-    String tableName = tableNameEval.eval(tableNameVars, conf.kuduTableTemplate, String.class);
-    if (!conf.caseSensitive) {
-      tableName = tableName.toLowerCase();
-    }
-    LOG.trace("Processing record:{}  TableName={}", record.toString(), tableName);
-
     try {
       try {
-        KuduLookupKey key = generateLookupKey(record, tableName);
-        List<Map<String, Field>> values = cache.get(key);
+        KuduLookupKey key = generateLookupKey(record);
+        LOG.trace("Processing record:{}  TableName={}", record.toString(), key.tableName);
+        List<Map<String, Field>> values = batchValues.get(key);
+        if (values == null) {
+          values = cache.get(key);
+        }
         if (values.isEmpty()) {
           // No record found
           if (conf.missingLookupBehavior == MissingValuesBehavior.SEND_TO_ERROR) {
@@ -315,9 +351,14 @@ public class KuduLookupProcessor extends SingleLaneRecordProcessor {
    * Create a map of keyColumn - value to lookup in cache.
    * @param record
    * @return Map of keyColumn - value
-   * @throws OnRecordErrorException
+   * @throws StageException
    */
-  private KuduLookupKey generateLookupKey(final Record record, final String tableName) throws OnRecordErrorException{
+  private KuduLookupKey generateLookupKey(final Record record) throws StageException {
+    RecordEL.setRecordInContext(tableNameVars, record);
+    String tableName = tableNameEval.eval(tableNameVars, conf.kuduTableTemplate, String.class);
+    if (!conf.caseSensitive) {
+      tableName = tableName.toLowerCase();
+    }
     Map<String, Field> keyList = new HashMap<>();
     for (Map.Entry<String, String> key : columnToField.entrySet()){
       String fieldName = key.getValue();
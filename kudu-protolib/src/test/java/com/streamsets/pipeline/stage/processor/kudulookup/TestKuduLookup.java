@@ -15,6 +15,8 @@
  */
 package com.streamsets.pipeline.stage.processor.kudulookup;
 
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.OnRecordError;
@@ -105,6 +107,19 @@ public class TestKuduLookup {
     }
   }
 
+  @Test
+  public void testLookupKeyEquality() {
+    KuduLookupKey key = new KuduLookupKey(tableName, ImmutableMap.of("key", Field.create(1)));
+    KuduLookupKey sameKey = new KuduLookupKey(tableName, ImmutableMap.of("key", Field.create(1)));
+    KuduLookupKey otherKey = new KuduLookupKey(tableName, ImmutableMap.of("key", Field.create(2)));
+    KuduLookupKey otherTable = new KuduLookupKey("other", ImmutableMap.of("key", Field.create(1)));
+
+    Assert.assertEquals(key, sameKey);
+    Assert.assertEquals(key.hashCode(), sameKey.hashCode());
+    Assert.assertNotEquals(key, otherKey);
+    Assert.assertNotEquals(key, otherTable);
+  }
+
   private ProcessorRunner getProcessorRunner(String tableName) {
     KuduLookupProcessor processor = getKuduLookupConfig(tableName);
     return getProcessorRunner(processor);
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv;
+
+import com.codahale.metrics.Counter;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Stage;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Fetches all the keys of a batch with a single LoadingCache.getAll() call, so that the cache misses are resolved by
+ * one CacheLoader.loadAll() call (pipelined or multi-get request) instead of one request per key, and reports the
+ * cache hit rate and the number of round trips saved.
+ */
+public class BatchLookupStats {
+  private static final String GAUGE_NAME = "Batch Lookup";
+  private static final String KEYS = "Keys in Last Batch";
+  private static final String HIT_RATE = "Cache Hit Rate in Last Batch (%)";
+  private static final String ROUND_TRIPS = "Round Trips in Last Batch";
+  private static final String ROUND_TRIPS_SAVED = "Round Trips Saved in Last Batch";
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter roundTripsSaved;
+  private final Map<String, Object> gaugeMap;
+
+  public BatchLookupStats(Stage.Context context) {
+    this.hits = context.createCounter("Lookup Cache Hits");
+    this.misses = context.createCounter("Lookup Cache Misses");
+    this.roundTripsSaved = context.createCounter("Lookup Round Trips Saved");
+    this.gaugeMap = context.createGauge(GAUGE_NAME).getValue();
+  }
+
+  public <Key, Value> ImmutableMap<Key, Value> getAll(
+      LoadingCache<Key, Value> cache,
+      Collection<? extends Key> keys
+  ) throws ExecutionException {
+    int present = cache.getAllPresent(keys).size();
+    ImmutableMap<Key, Value> values = cache.getAll(keys);
+    update(keys.size(), keys.size() - present);
+    return values;
+  }
+
+  /**
+   * Records the lookup of a batch with the given number of distinct keys, out of which the given number were not in
+   * the cache and were loaded together in one round trip.
+   */
+  public void update(int keys, int loaded) {
+    int roundTrips = loaded > 0 ? 1 : 0;
+    hits.inc(keys - loaded);
+    misses.inc(loaded);
+    roundTripsSaved.inc(loaded - roundTrips);
+
+    gaugeMap.put(KEYS, keys);
+    gaugeMap.put(HIT_RATE, keys == 0 ? 0 : (keys - loaded) * 100 / keys);
+    gaugeMap.put(ROUND_TRIPS, roundTrips);
+    gaugeMap.put(ROUND_TRIPS_SAVED, loaded - roundTrips);
+  }
+}
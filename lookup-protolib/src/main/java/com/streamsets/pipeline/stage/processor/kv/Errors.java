@@ -22,7 +22,8 @@ import com.streamsets.pipeline.api.GenerateResourceBundle;
 public enum Errors implements ErrorCode {
   LOOKUP_01("Failed to evaluate expression: '{}'"),
   LOOKUP_02("Failed to fetch values for batch: '{}'"),
-  LOOKUP_03("Empty static store values")
+  LOOKUP_03("Empty static store values"),
+  LOOKUP_04("Failed to open lookup table file '{}': {}"),
   ;
 
   private final String msg;
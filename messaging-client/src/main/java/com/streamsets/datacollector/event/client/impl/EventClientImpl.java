@@ -41,12 +41,25 @@ public class EventClientImpl implements EventClient {
   private final Client client;
 
   public EventClientImpl(String targetURL) {
+    this(targetURL, createClient());
+  }
+
+  /**
+   * Creates an event client that submits events with the given, possibly shared, client. The client is not modified,
+   * compression is registered in the target of each submission.
+   */
+  public EventClientImpl(String targetURL, Client client) {
+    this.targetURL = targetURL;
+    this.client = client;
+  }
+
+  private static Client createClient() {
     ClientConfig clientConfig = new ClientConfig()
         .property(ClientProperties.CONNECT_TIMEOUT, 10000)
         .property(ClientProperties.READ_TIMEOUT, 10000);
-    this.targetURL = targetURL;
-    this.client = ClientBuilder.newClient(clientConfig);
+    Client client = ClientBuilder.newClient(clientConfig);
     client.register(new CsrfProtectionFilter("CSRF"));
+    return client;
   }
 
   @Override
@@ -57,11 +70,10 @@ public class EventClientImpl implements EventClient {
     boolean compression,
     List<ClientEventJson> clientEventJson) throws EventException {
 
+    WebTarget target = client.target(targetURL + path);
     if (compression) {
-      client.register(GZipEncoder.class);
-      client.register(EncodingFilter.class);
+      target = target.register(GZipEncoder.class).register(EncodingFilter.class);
     }
-    WebTarget target = client.target(targetURL + path);
 
     for (Map.Entry<String, String> entry : queryParams.entrySet()) {
       target = target.queryParam(entry.getKey(), entry.getValue());
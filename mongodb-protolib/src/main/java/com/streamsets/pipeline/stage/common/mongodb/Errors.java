@@ -42,6 +42,7 @@ public enum Errors implements ErrorCode {
   MONGODB_19("Initial Offset is required when the offset field is ObjectId type"),
   MONGODB_20("Unknown Offset type : {}"),
   MONGODB_21("Error parsing {} to Date"),
+  MONGODB_22("Record '{}' root field type '{}' is not a MAP or LIST_MAP"),
 
   MONGODB_30("Oplog Document Missing the follow mandatory fields '{}'"),
   MONGODB_31("Oplog Offset Invalid, Cannot parse offset '{}'," +
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.mongodb;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.lib.util.CommonError;
+import com.streamsets.pipeline.stage.common.mongodb.Errors;
+import org.bson.BsonArray;
+import org.bson.BsonBinary;
+import org.bson.BsonBoolean;
+import org.bson.BsonDateTime;
+import org.bson.BsonDecimal128;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonNull;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.types.Decimal128;
+
+import java.math.BigDecimal;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes SDC field trees directly into BSON values.
+ *
+ * By default the values get the same BSON types the destination produced when it converted records to JSON and
+ * parsed them back: dates as epoch milliseconds, decimals as doubles, bytes and byte arrays as base64 strings. With
+ * native types, dates, decimals and byte arrays keep their native BSON types (date, decimal128, binary) instead.
+ */
+public final class BsonFieldEncoder {
+  private static final Base64.Encoder BASE64 = Base64.getEncoder();
+
+  private final boolean nativeTypes;
+
+  public BsonFieldEncoder(boolean nativeTypes) {
+    this.nativeTypes = nativeTypes;
+  }
+
+  public BsonDocument encodeRecord(Record record) throws StageException {
+    Field root = record.get();
+    if (root == null || (root.getType() != Field.Type.MAP && root.getType() != Field.Type.LIST_MAP)) {
+      throw new StageException(
+          Errors.MONGODB_22,
+          record.getHeader().getSourceId(),
+          root == null ? null : root.getType()
+      );
+    }
+    return encodeMap(record, root.getValueAsMap());
+  }
+
+  public BsonValue encode(Record record, Field field) throws StageException {
+    if (field.getValue() == null) {
+      return BsonNull.VALUE;
+    }
+    switch (field.getType()) {
+      case BOOLEAN:
+        return new BsonBoolean(field.getValueAsBoolean());
+      case CHAR:
+      case STRING:
+      case ZONED_DATETIME:
+        return new BsonString(field.getValueAsString());
+      case BYTE:
+        return nativeTypes ?
+            new BsonInt32(field.getValueAsByte()) :
+            new BsonString(BASE64.encodeToString(new byte[] {field.getValueAsByte()}));
+      case SHORT:
+      case INTEGER:
+        return new BsonInt32(field.getValueAsInteger());
+      case LONG:
+        return nativeTypes ? new BsonInt64(field.getValueAsLong()) : toNumber(field.getValueAsLong());
+      case FLOAT:
+        // through its decimal representation, widening the float itself would add spurious digits
+        return toDouble(Float.toString(field.getValueAsFloat()));
+      case DOUBLE:
+        return toDouble(Double.toString(field.getValueAsDouble()));
+      case DECIMAL:
+        return nativeTypes ?
+            new BsonDecimal128(new Decimal128(field.getValueAsDecimal())) :
+            toNumber(field.getValueAsDecimal());
+      case DATE:
+      case TIME:
+      case DATETIME:
+        return nativeTypes ?
+            new BsonDateTime(field.getValueAsDatetime().getTime()) :
+            toNumber(field.getValueAsDatetime().getTime());
+      case BYTE_ARRAY:
+        return nativeTypes ?
+            new BsonBinary(field.getValueAsByteArray()) :
+            new BsonString(BASE64.encodeToString(field.getValueAsByteArray()));
+      case LIST:
+        List<Field> list = field.getValueAsList();
+        BsonArray array = new BsonArray();
+        for (Field element : list) {
+          array.add(encode(record, element));
+        }
+        return array;
+      case MAP:
+      case LIST_MAP:
+        return encodeMap(record, field.getValueAsMap());
+      default:
+        throw new StageException(
+            CommonError.CMN_0100,
+            field.getType(),
+            field.getValue(),
+            record.getHeader().getSourceId()
+        );
+    }
+  }
+
+  private BsonDocument encodeMap(Record record, Map<String, Field> map) throws StageException {
+    BsonDocument document = new BsonDocument();
+    for (Map.Entry<String, Field> entry : map.entrySet()) {
+      document.put(entry.getKey(), encode(record, entry.getValue()));
+    }
+    return document;
+  }
+
+  // JSON integers are read back as int32 when they fit, as int64 otherwise
+  private static BsonValue toNumber(long value) {
+    if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+      return new BsonInt32((int) value);
+    }
+    return new BsonInt64(value);
+  }
+
+  private static BsonValue toNumber(BigDecimal value) {
+    if (value.scale() == 0 && value.unscaledValue().bitLength() < Long.SIZE) {
+      return toNumber(value.longValue());
+    }
+    return new BsonDouble(value.doubleValue());
+  }
+
+  private BsonValue toDouble(String value) {
+    double number = Double.parseDouble(value);
+    if (!nativeTypes && (Double.isNaN(number) || Double.isInfinite(number))) {
+      // non finite numbers were written as quoted JSON strings
+      return new BsonString(value);
+    }
+    return new BsonDouble(number);
+  }
+}
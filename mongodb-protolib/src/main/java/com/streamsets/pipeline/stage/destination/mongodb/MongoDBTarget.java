@@ -15,10 +15,15 @@
  */
 package com.streamsets.pipeline.stage.destination.mongodb;
 
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoClient;
 import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.DeleteOneModel;
 import com.mongodb.client.model.InsertOneModel;
 import com.mongodb.client.model.ReplaceOneModel;
@@ -30,40 +35,37 @@ import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.base.BaseTarget;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
-import com.streamsets.pipeline.api.ext.json.Mode;
 import com.streamsets.pipeline.api.impl.Utils;
-import com.streamsets.pipeline.config.DataFormat;
-import com.streamsets.pipeline.lib.generator.DataGenerator;
-import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
-import com.streamsets.pipeline.lib.generator.DataGeneratorFactoryBuilder;
 import com.streamsets.pipeline.lib.operation.OperationType;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.mongodb.Errors;
 import org.apache.commons.io.IOUtils;
-import org.bson.Document;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 
 public class MongoDBTarget extends BaseTarget {
   private static final Logger LOG = LoggerFactory.getLogger(MongoDBTarget.class);
 
-  public static final int DEFAULT_CAPACITY = 1024;
-
   private final MongoTargetConfigBean mongoTargetConfigBean;
   private MongoClient mongoClient;
-  private MongoCollection<Document> mongoCollection;
+  private MongoCollection<BsonDocument> mongoCollection;
   private ErrorRecordHandler errorRecordHandler;
-  private DataGeneratorFactory generatorFactory;
+  private BulkWriteOptions bulkWriteOptions;
+  private ExecutorService bulkWriteExecutor;
+  private BsonFieldEncoder fieldEncoder;
 
   public MongoDBTarget(MongoTargetConfigBean mongoTargetConfigBean) {
     this.mongoTargetConfigBean = mongoTargetConfigBean;
@@ -88,21 +90,26 @@ public class MongoDBTarget extends BaseTarget {
     // since no issue was found in validation, the followings must not be null at this point.
     Utils.checkNotNull(mongoTargetConfigBean.mongoConfig.getMongoDatabase(), "MongoDatabase");
     mongoClient = Utils.checkNotNull(mongoTargetConfigBean.mongoConfig.getMongoClient(), "MongoClient");
-    mongoCollection = Utils.checkNotNull(mongoTargetConfigBean.mongoConfig.getMongoCollection(), "MongoCollection");
+    mongoCollection = Utils.checkNotNull(mongoTargetConfigBean.mongoConfig.getMongoCollection(), "MongoCollection")
+        .withDocumentClass(BsonDocument.class);
 
-    DataGeneratorFactoryBuilder builder = new DataGeneratorFactoryBuilder(
-        getContext(),
-        DataFormat.JSON.getGeneratorFormat()
-    );
-    builder.setCharset(StandardCharsets.UTF_8);
-    builder.setMode(Mode.MULTIPLE_OBJECTS);
-    generatorFactory = builder.build();
+    fieldEncoder = new BsonFieldEncoder(mongoTargetConfigBean.nativeBsonTypes);
+    bulkWriteOptions = new BulkWriteOptions().ordered(!mongoTargetConfigBean.unorderedWrites);
+    if (mongoTargetConfigBean.unorderedWrites && mongoTargetConfigBean.bulkWriteThreads > 1) {
+      bulkWriteExecutor = Executors.newFixedThreadPool(
+          mongoTargetConfigBean.bulkWriteThreads,
+          new ThreadFactoryBuilder().setNameFormat("MongoDB Bulk Writer - %d").setDaemon(true).build()
+      );
+    }
 
     return issues;
   }
 
   @Override
   public void destroy() {
+    if (bulkWriteExecutor != null) {
+      bulkWriteExecutor.shutdownNow();
+    }
     IOUtils.closeQuietly(mongoClient);
     super.destroy();
   }
@@ -110,16 +117,12 @@ public class MongoDBTarget extends BaseTarget {
   @Override
   public void write(Batch batch) throws StageException {
     Iterator<Record> records = batch.getRecords();
-    List<WriteModel<Document>> documentList = new ArrayList<>();
+    List<WriteModel<BsonDocument>> documentList = new ArrayList<>();
     List<Record> recordList = new ArrayList<>();
     while (records.hasNext()) {
       Record record = records.next();
       try {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream(DEFAULT_CAPACITY);
-        DataGenerator generator = generatorFactory.getGenerator(baos);
-        generator.write(record);
-        generator.close();
-        Document document = Document.parse(new String(baos.toByteArray()));
+        BsonDocument document = fieldEncoder.encodeRecord(record);
 
         // create a write model based on record header
         if (isNullOrEmpty(record.getHeader().getAttribute(OperationType.SDC_OPERATION_TYPE))) {
@@ -147,9 +150,9 @@ public class MongoDBTarget extends BaseTarget {
             recordList.add(record);
             documentList.add(
                 new ReplaceOneModel<>(
-                    new Document(
+                    new BsonDocument(
                         removeLeadingSlash(mongoTargetConfigBean.uniqueKeyField),
-                        record.get(mongoTargetConfigBean.uniqueKeyField).getValueAsString()
+                        new BsonString(record.get(mongoTargetConfigBean.uniqueKeyField).getValueAsString())
                     ),
                     document,
                     new UpdateOptions().upsert(mongoTargetConfigBean.isUpsert)
@@ -161,11 +164,11 @@ public class MongoDBTarget extends BaseTarget {
             recordList.add(record);
             documentList.add(
                 new UpdateOneModel<>(
-                    new Document(
+                    new BsonDocument(
                         removeLeadingSlash(mongoTargetConfigBean.uniqueKeyField),
-                        record.get(mongoTargetConfigBean.uniqueKeyField).getValueAsString()
+                        new BsonString(record.get(mongoTargetConfigBean.uniqueKeyField).getValueAsString())
                     ),
-                    new Document("$set", document),
+                    new BsonDocument("$set", document),
                     new UpdateOptions().upsert(mongoTargetConfigBean.isUpsert)
                 )
             );
@@ -178,7 +181,7 @@ public class MongoDBTarget extends BaseTarget {
             LOG.error(Errors.MONGODB_14.getMessage(), operation, record.getHeader().getSourceId());
             throw new StageException(Errors.MONGODB_14, operation, record.getHeader().getSourceId());
         }
-      } catch (IOException | StageException | NumberFormatException e) {
+      } catch (StageException | NumberFormatException e) {
         errorRecordHandler.onError(
             new OnRecordErrorException(
                 record,
@@ -190,30 +193,83 @@ public class MongoDBTarget extends BaseTarget {
       }
     }
 
-    if (!documentList.isEmpty()) {
-      try {
-        BulkWriteResult bulkWriteResult = mongoCollection.bulkWrite(documentList);
-        if (bulkWriteResult.wasAcknowledged()) {
-          LOG.trace(
-              "Wrote batch with {} inserts, {} updates and {} deletes",
-              bulkWriteResult.getInsertedCount(),
-              bulkWriteResult.getModifiedCount(),
-              bulkWriteResult.getDeletedCount()
-          );
+    if (documentList.isEmpty()) {
+      return;
+    }
+
+    List<FailedWrite> failedWrites = new ArrayList<>();
+    if (bulkWriteExecutor == null) {
+      failedWrites.addAll(bulkWrite(documentList, recordList));
+    } else {
+      // Unordered writes are independent of each other, so the batch can be split in chunks written concurrently,
+      // letting a sharded cluster apply them on several shards at the same time.
+      int chunkSize = (documentList.size() + mongoTargetConfigBean.bulkWriteThreads - 1) /
+          mongoTargetConfigBean.bulkWriteThreads;
+      List<List<WriteModel<BsonDocument>>> documentChunks = Lists.partition(documentList, chunkSize);
+      List<List<Record>> recordChunks = Lists.partition(recordList, chunkSize);
+      List<Future<List<FailedWrite>>> futures = new ArrayList<>(documentChunks.size());
+      for (int i = 0; i < documentChunks.size(); i++) {
+        final List<WriteModel<BsonDocument>> documents = documentChunks.get(i);
+        final List<Record> chunkRecords = recordChunks.get(i);
+        futures.add(bulkWriteExecutor.submit(() -> bulkWrite(documents, chunkRecords)));
+      }
+      for (Future<List<FailedWrite>> future : futures) {
+        try {
+          failedWrites.addAll(future.get());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new StageException(Errors.MONGODB_12, e.toString(), e);
+        } catch (ExecutionException e) {
+          throw new StageException(Errors.MONGODB_12, e.getCause().toString(), e.getCause());
         }
-      } catch (MongoException e) {
-        for (Record record : recordList) {
-          errorRecordHandler.onError(
-              new OnRecordErrorException(
-                  record,
-                  Errors.MONGODB_17,
-                  e.toString(),
-                  e
-              )
-          );
+      }
+    }
+
+    for (FailedWrite failedWrite : failedWrites) {
+      errorRecordHandler.onError(
+          new OnRecordErrorException(
+              failedWrite.record,
+              Errors.MONGODB_17,
+              failedWrite.exception.toString(),
+              failedWrite.exception
+          )
+      );
+    }
+  }
+
+  /**
+   * Writes the given models in a single bulk write and returns the records that could not be written. Ordered bulk
+   * writes stop at the first failure, so every record of the chunk is reported as failed. Unordered bulk writes
+   * report each failed write individually.
+   */
+  private List<FailedWrite> bulkWrite(List<WriteModel<BsonDocument>> documents, List<Record> records) {
+    List<FailedWrite> failedWrites = new ArrayList<>();
+    try {
+      BulkWriteResult bulkWriteResult = mongoCollection.bulkWrite(documents, bulkWriteOptions);
+      if (bulkWriteResult.wasAcknowledged()) {
+        LOG.trace(
+            "Wrote batch with {} inserts, {} updates and {} deletes",
+            bulkWriteResult.getInsertedCount(),
+            bulkWriteResult.getModifiedCount(),
+            bulkWriteResult.getDeletedCount()
+        );
+      }
+    } catch (MongoBulkWriteException e) {
+      if (mongoTargetConfigBean.unorderedWrites) {
+        for (BulkWriteError error : e.getWriteErrors()) {
+          failedWrites.add(new FailedWrite(records.get(error.getIndex()), e));
         }
+      } else {
+        for (Record record : records) {
+          failedWrites.add(new FailedWrite(record, e));
+        }
+      }
+    } catch (MongoException e) {
+      for (Record record : records) {
+        failedWrites.add(new FailedWrite(record, e));
       }
     }
+    return failedWrites;
   }
 
   private void validateUniqueKey(String operation, Record record) throws OnRecordErrorException {
@@ -248,4 +304,14 @@ public class MongoDBTarget extends BaseTarget {
     }
     return uniqueKeyField;
   }
+
+  private static class FailedWrite {
+    private final Record record;
+    private final MongoException exception;
+
+    private FailedWrite(Record record, MongoException exception) {
+      this.record = record;
+      this.exception = exception;
+    }
+  }
 }
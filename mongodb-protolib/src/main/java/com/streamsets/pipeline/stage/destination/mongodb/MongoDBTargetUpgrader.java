@@ -44,9 +44,18 @@ public class MongoDBTargetUpgrader implements StageUpgrader {
         // fall through
       case 2:
         upgradeV2toV3(configs);
+        if (toVersion == 3) {
+          break;
+        }
         // fall through
       case 3:
         upgradeV3toV4(configs);
+        if (toVersion == 4) {
+          break;
+        }
+        // fall through
+      case 4:
+        upgradeV4toV5(configs);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", fromVersion));
@@ -116,9 +125,15 @@ public class MongoDBTargetUpgrader implements StageUpgrader {
 
   private void upgradeV2toV3(List<Config> configs) {
     configs.add(new Config(MongoDBConfig.CONFIG_PREFIX + "isUpsert", false));
+    configs.add(new Config(MongoDBConfig.MONGO_CONFIG_PREFIX + "authSource", ""));
   }
 
   private void upgradeV3toV4(List<Config> configs) {
-    configs.add(new Config(MongoDBConfig.MONGO_CONFIG_PREFIX + "authSource", ""));
+    configs.add(new Config(MongoDBConfig.CONFIG_PREFIX + "unorderedWrites", false));
+    configs.add(new Config(MongoDBConfig.CONFIG_PREFIX + "bulkWriteThreads", 1));
+  }
+
+  private void upgradeV4toV5(List<Config> configs) {
+    configs.add(new Config(MongoDBConfig.CONFIG_PREFIX + "nativeBsonTypes", false));
   }
 }
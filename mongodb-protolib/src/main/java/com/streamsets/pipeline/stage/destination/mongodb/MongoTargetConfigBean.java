@@ -60,4 +60,42 @@ public class MongoTargetConfigBean {
   @ValueChooserModel(WriteConcernChooserValues.class)
   public WriteConcernLabel writeConcern = WriteConcernLabel.JOURNALED;
 
+  @ConfigDef(
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Unordered Bulk Writes",
+      defaultValue = "false",
+      description = "Lets MongoDB apply the writes of a batch in any order and continue after a failed write. " +
+          "Do not enable if a batch can contain several operations on the same document.",
+      required = false,
+      displayPosition = 1030,
+      group = "MONGODB"
+  )
+  public boolean unorderedWrites;
+
+  @ConfigDef(
+      type = ConfigDef.Type.NUMBER,
+      label = "Bulk Write Threads",
+      defaultValue = "1",
+      description = "Number of chunks each batch is split into and written in parallel",
+      required = true,
+      min = 1,
+      displayPosition = 1040,
+      group = "MONGODB",
+      dependsOn = "unorderedWrites",
+      triggeredByValue = "true"
+  )
+  public int bulkWriteThreads = 1;
+
+  @ConfigDef(
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Native BSON Types",
+      defaultValue = "false",
+      description = "Writes dates as BSON dates, decimals as Decimal128 and byte arrays as BSON binary instead of " +
+          "epoch milliseconds, doubles and base64 strings. Changes the document schema of existing collections.",
+      required = false,
+      displayPosition = 1050,
+      group = "MONGODB"
+  )
+  public boolean nativeBsonTypes;
+
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.mongodb;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import org.bson.BsonBinary;
+import org.bson.BsonBoolean;
+import org.bson.BsonDateTime;
+import org.bson.BsonDecimal128;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.types.Decimal128;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.LinkedHashMap;
+
+public class TestBsonFieldEncoder {
+
+  private static BsonValue encode(boolean nativeTypes, Field field) throws StageException {
+    return new BsonFieldEncoder(nativeTypes).encode(RecordCreator.create(), field);
+  }
+
+  @Test
+  public void testEncodeRecord() throws Exception {
+    Date now = new Date();
+    LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+    map.put("string", Field.create("abc"));
+    map.put("int", Field.create(1));
+    map.put("long", Field.create(Long.MAX_VALUE));
+    map.put("double", Field.create(1.5));
+    map.put("bool", Field.create(true));
+    map.put("decimal", Field.create(new BigDecimal("12345.6789")));
+    map.put("datetime", Field.createDatetime(now));
+    map.put("bytes", Field.create(new byte[] {1, 2, 3}));
+    map.put("null", Field.create(Field.Type.STRING, null));
+    map.put("list", Field.create(ImmutableList.of(Field.create(1), Field.create("two"))));
+    map.put("nested", Field.createListMap(new LinkedHashMap<>(ImmutableMap.of("a", Field.create(2)))));
+
+    Record record = RecordCreator.create();
+    record.set(Field.createListMap(map));
+
+    BsonDocument document = new BsonFieldEncoder(true).encodeRecord(record);
+
+    Assert.assertEquals("abc", document.getString("string").getValue());
+    Assert.assertEquals(1, document.getInt32("int").getValue());
+    Assert.assertEquals(Long.MAX_VALUE, document.getInt64("long").getValue());
+    Assert.assertEquals(1.5, document.getDouble("double").getValue(), 0);
+    Assert.assertTrue(document.getBoolean("bool").getValue());
+    Assert.assertEquals(new Decimal128(new BigDecimal("12345.6789")), document.getDecimal128("decimal").getValue());
+    Assert.assertEquals(now.getTime(), document.getDateTime("datetime").getValue());
+    Assert.assertArrayEquals(new byte[] {1, 2, 3}, document.getBinary("bytes").getData());
+    Assert.assertTrue(document.get("null").isNull());
+    Assert.assertEquals(2, document.getArray("list").size());
+    Assert.assertEquals("two", document.getArray("list").get(1).asString().getValue());
+    Assert.assertEquals(2, document.getDocument("nested").getInt32("a").getValue());
+    Assert.assertEquals(
+        ImmutableList.copyOf(map.keySet()),
+        ImmutableList.copyOf(document.keySet())
+    );
+  }
+
+  @Test
+  public void testJsonCompatibleTypes() throws Exception {
+    // same BSON types as the JSON generator output parsed with Document.parse
+    Date date = new Date(1500000000000L);
+    ZonedDateTime zoned = ZonedDateTime.of(2018, 1, 2, 3, 4, 5, 0, ZoneId.of("UTC"));
+
+    Assert.assertEquals(new BsonBoolean(true), encode(false, Field.create(true)));
+    Assert.assertEquals(new BsonString("c"), encode(false, Field.create('c')));
+    Assert.assertEquals(new BsonString("abc"), encode(false, Field.create("abc")));
+    Assert.assertEquals(new BsonString("Bw=="), encode(false, Field.create((byte) 7)));
+    Assert.assertEquals(new BsonInt32(3), encode(false, Field.create((short) 3)));
+    Assert.assertEquals(new BsonInt32(4), encode(false, Field.create(4)));
+    Assert.assertEquals(new BsonInt32(5), encode(false, Field.create(5L)));
+    Assert.assertEquals(new BsonInt64(Long.MAX_VALUE), encode(false, Field.create(Long.MAX_VALUE)));
+    Assert.assertEquals(new BsonDouble(1.1), encode(false, Field.create(1.1f)));
+    Assert.assertEquals(new BsonDouble(2.5), encode(false, Field.create(2.5d)));
+    Assert.assertEquals(new BsonString("NaN"), encode(false, Field.create(Double.NaN)));
+    Assert.assertEquals(new BsonDouble(12.5), encode(false, Field.create(new BigDecimal("12.50"))));
+    Assert.assertEquals(new BsonInt32(12), encode(false, Field.create(new BigDecimal("12"))));
+    Assert.assertEquals(new BsonInt64(date.getTime()), encode(false, Field.createDate(date)));
+    Assert.assertEquals(new BsonInt64(date.getTime()), encode(false, Field.createDatetime(date)));
+    Assert.assertEquals(new BsonInt32(1000), encode(false, Field.createTime(new Date(1000))));
+    Assert.assertEquals(new BsonString("AQID"), encode(false, Field.create(new byte[] {1, 2, 3})));
+    Assert.assertEquals(
+        new BsonString(Field.createZonedDateTime(zoned).getValueAsString()),
+        encode(false, Field.createZonedDateTime(zoned))
+    );
+  }
+
+  @Test
+  public void testNativeTypes() throws Exception {
+    Date date = new Date(1500000000000L);
+    ZonedDateTime zoned = ZonedDateTime.of(2018, 1, 2, 3, 4, 5, 0, ZoneId.of("UTC"));
+
+    Assert.assertEquals(new BsonBoolean(true), encode(true, Field.create(true)));
+    Assert.assertEquals(new BsonString("c"), encode(true, Field.create('c')));
+    Assert.assertEquals(new BsonString("abc"), encode(true, Field.create("abc")));
+    Assert.assertEquals(new BsonInt32(7), encode(true, Field.create((byte) 7)));
+    Assert.assertEquals(new BsonInt32(3), encode(true, Field.create((short) 3)));
+    Assert.assertEquals(new BsonInt32(4), encode(true, Field.create(4)));
+    Assert.assertEquals(new BsonInt64(5), encode(true, Field.create(5L)));
+    Assert.assertEquals(new BsonDouble(1.1), encode(true, Field.create(1.1f)));
+    Assert.assertEquals(new BsonDouble(2.5), encode(true, Field.create(2.5d)));
+    Assert.assertEquals(
+        new BsonDecimal128(new Decimal128(new BigDecimal("12.50"))),
+        encode(true, Field.create(new BigDecimal("12.50")))
+    );
+    Assert.assertEquals(new BsonDateTime(date.getTime()), encode(true, Field.createDate(date)));
+    Assert.assertEquals(new BsonDateTime(date.getTime()), encode(true, Field.createDatetime(date)));
+    Assert.assertEquals(new BsonDateTime(1000), encode(true, Field.createTime(new Date(1000))));
+    Assert.assertEquals(new BsonBinary(new byte[] {1, 2, 3}), encode(true, Field.create(new byte[] {1, 2, 3})));
+    Assert.assertEquals(
+        new BsonString(Field.createZonedDateTime(zoned).getValueAsString()),
+        encode(true, Field.createZonedDateTime(zoned))
+    );
+  }
+
+  @Test(expected = StageException.class)
+  public void testNonMapRoot() throws Exception {
+    Record record = RecordCreator.create();
+    record.set(Field.create("abc"));
+    new BsonFieldEncoder(false).encodeRecord(record);
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.mongodb;
+
+import com.streamsets.pipeline.api.Config;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestMongoDBTargetUpgrader {
+
+  @Test
+  public void testUpgradeV4toV5() throws Exception {
+    List<Config> configs = new ArrayList<>();
+    new MongoDBTargetUpgrader().upgrade("a", "b", "c", 4, 5, configs);
+
+    Assert.assertEquals(1, configs.size());
+    Assert.assertEquals("configBean.nativeBsonTypes", configs.get(0).getName());
+    Assert.assertEquals(false, configs.get(0).getValue());
+  }
+
+  @Test
+  public void testUpgradeV3toV5() throws Exception {
+    List<Config> configs = new ArrayList<>();
+    new MongoDBTargetUpgrader().upgrade("a", "b", "c", 3, 5, configs);
+
+    Assert.assertEquals(3, configs.size());
+    Assert.assertEquals("configBean.unorderedWrites", configs.get(0).getName());
+    Assert.assertEquals("configBean.bulkWriteThreads", configs.get(1).getName());
+    Assert.assertEquals("configBean.nativeBsonTypes", configs.get(2).getName());
+  }
+}
@@ -31,6 +31,8 @@ public enum Errors implements ErrorCode {
   NETFLOW_14("Error parsing IPV4 address from bytes {}: {}"),
   NETFLOW_15("Max template cache size must be a positive number, or -1 to indicate unlimited"),
   NETFLOW_16("Template cache timeout (ms) be a positive number, or -1 to indicate unlimited"),
+  NETFLOW_17("Unrecognized IPFIX set ID of {} (less than 256, but not 2 [template] or 3 [options template])"),
+  NETFLOW_18("IPFIX message length {} is shorter than its {} byte header"),
   ;
 
   private final String msg;
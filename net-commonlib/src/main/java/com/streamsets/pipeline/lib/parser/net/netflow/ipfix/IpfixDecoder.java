@@ -0,0 +1,249 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.net.netflow.ipfix;
+
+import com.google.common.cache.Cache;
+import com.google.common.primitives.Ints;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.parser.net.netflow.Errors;
+import com.streamsets.pipeline.lib.parser.net.netflow.OutputValuesMode;
+import com.streamsets.pipeline.lib.parser.net.netflow.VersionSpecificNetflowDecoder;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowKind;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowSetTemplate;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowSetTemplateCacheKey;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Field;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9FieldTemplate;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9TemplateCacheProvider;
+import io.netty.buffer.ByteBuf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes IPFIX messages, as specified by <a href="https://tools.ietf.org/html/rfc7011">RFC 7011</a>.
+ *
+ * Templates are cached in the same template cache as Netflow v9 templates, keyed by the exporter address and the
+ * observation domain ID, and data records are decoded in place by their {@link FlowSetTemplate}.
+ *
+ * Unlike the v9 decoder, this decoder keeps no state between calls and never checkpoints within a message: when the
+ * replaying decoder runs out of bytes the whole message is decoded again once more bytes arrive, which is harmless
+ * since storing a template again has no further effect.
+ */
+public class IpfixDecoder implements VersionSpecificNetflowDecoder<IpfixMessage> {
+  private static final Logger LOG = LoggerFactory.getLogger(IpfixDecoder.class);
+
+  public static final int IPFIX_VERSION = 10;
+  // including the two byte version read by the parent decoder
+  private static final int HEADER_SIZE = 16;
+  private static final int SET_HEADER_SIZE = 4;
+  private static final int TEMPLATE_HEADER_SIZE = 4;
+  private static final int FIELD_SPECIFIER_SIZE = 4;
+  private static final int TEMPLATE_SET_ID = 2;
+  private static final int OPTIONS_TEMPLATE_SET_ID = 3;
+  private static final int MIN_DATA_SET_ID = 256;
+  private static final int ENTERPRISE_BIT = 0x8000;
+
+  private final OutputValuesMode outputValuesMode;
+  private final Cache<FlowSetTemplateCacheKey, FlowSetTemplate> flowSetTemplateCache;
+
+  public IpfixDecoder(OutputValuesMode outputValuesMode, NetflowV9TemplateCacheProvider templateCacheProvider) {
+    this.outputValuesMode = outputValuesMode;
+    this.flowSetTemplateCache = templateCacheProvider.getFlowSetTemplateCache();
+  }
+
+  @Override
+  public List<IpfixMessage> parse(
+      int netflowVersion,
+      int packetLength,
+      boolean packetLengthCheck,
+      ByteBuf buf,
+      InetSocketAddress sender,
+      InetSocketAddress recipient
+  ) throws OnRecordErrorException {
+    final int messageLength = buf.readUnsignedShort();
+    if (messageLength < HEADER_SIZE) {
+      throw new OnRecordErrorException(Errors.NETFLOW_18, messageLength, HEADER_SIZE);
+    }
+    if (packetLengthCheck && messageLength > packetLength) {
+      throw new OnRecordErrorException(
+          Errors.NETFLOW_01,
+          Utils.format("Message length {} is larger than the packet length {}", messageLength, packetLength)
+      );
+    }
+    final long exportTime = buf.readUnsignedInt();
+    final long sequenceNumber = buf.readUnsignedInt();
+    final byte[] observationDomainIdBytes = new byte[4];
+    buf.readBytes(observationDomainIdBytes);
+    final long observationDomainId = Ints.fromByteArray(observationDomainIdBytes) & 0xFFFFFFFFL;
+
+    final List<IpfixMessage> messages = new ArrayList<>();
+    int remaining = messageLength - HEADER_SIZE;
+    while (remaining >= SET_HEADER_SIZE) {
+      final int setId = buf.readUnsignedShort();
+      final int setLength = buf.readUnsignedShort();
+      if (setLength < SET_HEADER_SIZE || setLength > remaining) {
+        throw new OnRecordErrorException(
+            Errors.NETFLOW_01,
+            Utils.format("Set {} has length {}, but {} bytes remain in the message", setId, setLength, remaining)
+        );
+      }
+      final int setEnd = buf.readerIndex() + setLength - SET_HEADER_SIZE;
+      if (setId == TEMPLATE_SET_ID || setId == OPTIONS_TEMPLATE_SET_ID) {
+        readTemplates(
+            buf,
+            setEnd,
+            setId == OPTIONS_TEMPLATE_SET_ID ? FlowKind.OPTIONS : FlowKind.FLOWSET,
+            observationDomainIdBytes,
+            sender
+        );
+      } else if (setId >= MIN_DATA_SET_ID) {
+        final FlowSetTemplate template = getTemplate(setId, observationDomainIdBytes, sender);
+        // records must be at least one byte long, or a template without fields would never finish the set
+        final int minRecordLength = Math.max(1, template.getTotalFieldsLength());
+        while (setEnd - buf.readerIndex() >= minRecordLength) {
+          final List<NetflowV9Field> fields = new ArrayList<>(template.getFieldTemplates().size());
+          buf.skipBytes(template.decodeRecord(buf, outputValuesMode, fields));
+          if (buf.readerIndex() > setEnd) {
+            throw new OnRecordErrorException(
+                Errors.NETFLOW_01,
+                Utils.format("Record of template {} extends past the end of its set", setId)
+            );
+          }
+
+          final IpfixMessage msg = new IpfixMessage();
+          msg.setSender(sender);
+          msg.setRecipient(recipient);
+          msg.setFlowKind(template.getTemplateKind());
+          msg.setOutputValuesMode(outputValuesMode);
+          msg.setMessageLength(messageLength);
+          msg.setUnixSeconds(exportTime);
+          msg.setSequenceNumber(sequenceNumber);
+          msg.setSourceId(observationDomainId);
+          msg.setSourceIdBytes(observationDomainIdBytes);
+          msg.setFields(fields);
+          msg.setFlowTemplateId(setId);
+          messages.add(msg);
+        }
+      } else {
+        throw new OnRecordErrorException(Errors.NETFLOW_17, setId);
+      }
+      // skip the set padding
+      buf.skipBytes(setEnd - buf.readerIndex());
+      remaining -= setLength;
+    }
+    if (remaining > 0) {
+      buf.skipBytes(remaining);
+    }
+    return messages;
+  }
+
+  private void readTemplates(
+      ByteBuf buf,
+      int setEnd,
+      FlowKind templateKind,
+      byte[] observationDomainIdBytes,
+      InetSocketAddress sender
+  ) throws OnRecordErrorException {
+    // anything shorter than a template record header is padding
+    while (setEnd - buf.readerIndex() >= TEMPLATE_HEADER_SIZE) {
+      final int templateId = buf.readUnsignedShort();
+      final int fieldCount = buf.readUnsignedShort();
+      final FlowSetTemplateCacheKey cacheKey = new FlowSetTemplateCacheKey(
+          templateKind,
+          observationDomainIdBytes,
+          sender,
+          templateId
+      );
+      if (fieldCount == 0) {
+        // template withdrawal
+        flowSetTemplateCache.invalidate(cacheKey);
+        continue;
+      }
+      if (templateKind == FlowKind.OPTIONS) {
+        checkTemplateBytes(buf, setEnd, 2, templateId);
+        // scope fields are regular information elements in IPFIX, so their count is not needed for decoding
+        buf.readUnsignedShort();
+      }
+      final List<NetflowV9FieldTemplate> fieldTemplates = new ArrayList<>(fieldCount);
+      for (int i = 0; i < fieldCount; i++) {
+        checkTemplateBytes(buf, setEnd, FIELD_SPECIFIER_SIZE, templateId);
+        final int elementId = buf.readUnsignedShort();
+        final int fieldLength = buf.readUnsignedShort();
+        if ((elementId & ENTERPRISE_BIT) != 0) {
+          checkTemplateBytes(buf, setEnd, 4, templateId);
+          final long enterpriseNumber = buf.readUnsignedInt();
+          fieldTemplates.add(NetflowV9FieldTemplate.getEnterpriseFieldTemplate(
+              enterpriseNumber,
+              elementId & ~ENTERPRISE_BIT,
+              fieldLength
+          ));
+        } else {
+          fieldTemplates.add(new NetflowV9FieldTemplate(elementId, fieldLength));
+        }
+      }
+      flowSetTemplateCache.put(cacheKey, new FlowSetTemplate(templateKind, templateId, fieldTemplates));
+      if (LOG.isTraceEnabled()) {
+        LOG.trace("Cached new IPFIX template {} with {} fields", cacheKey, fieldCount);
+      }
+    }
+  }
+
+  /**
+   * Checks that the next {@code length} bytes of a template record are within its set, a malformed template would
+   * otherwise be read from the following sets.
+   */
+  private static void checkTemplateBytes(
+      ByteBuf buf,
+      int setEnd,
+      int length,
+      int templateId
+  ) throws OnRecordErrorException {
+    if (setEnd - buf.readerIndex() < length) {
+      throw new OnRecordErrorException(
+          Errors.NETFLOW_01,
+          Utils.format("Template {} extends past the end of its set", templateId)
+      );
+    }
+  }
+
+  private FlowSetTemplate getTemplate(
+      int templateId,
+      byte[] observationDomainIdBytes,
+      InetSocketAddress sender
+  ) throws OnRecordErrorException {
+    FlowSetTemplate template = flowSetTemplateCache.getIfPresent(
+        new FlowSetTemplateCacheKey(FlowKind.FLOWSET, observationDomainIdBytes, sender, templateId)
+    );
+    if (template == null) {
+      template = flowSetTemplateCache.getIfPresent(
+          new FlowSetTemplateCacheKey(FlowKind.OPTIONS, observationDomainIdBytes, sender, templateId)
+      );
+    }
+    if (template == null) {
+      throw new OnRecordErrorException(Errors.NETFLOW_11, templateId);
+    }
+    return template;
+  }
+
+  @Override
+  public void resetState() {
+    // no state is kept between messages
+  }
+}
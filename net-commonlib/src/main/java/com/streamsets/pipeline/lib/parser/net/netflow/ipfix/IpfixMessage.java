@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.net.netflow.ipfix;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Message;
+
+import java.util.LinkedHashMap;
+
+/**
+ * A data record of an IPFIX (RFC 7011) message. Records have the same layout as Netflow v9 records; only the
+ * message header differs. The export time is kept as the unix seconds and the observation domain ID as the source
+ * ID of the v9 message.
+ */
+public class IpfixMessage extends NetflowV9Message {
+
+  public static final String FIELD_MESSAGE_LENGTH = "messageLength";
+  public static final String FIELD_EXPORT_TIME = "exportTime";
+  public static final String FIELD_OBSERVATION_DOMAIN_ID = "observationDomainId";
+
+  private int messageLength;
+
+  public int getMessageLength() {
+    return messageLength;
+  }
+
+  public void setMessageLength(int messageLength) {
+    this.messageLength = messageLength;
+  }
+
+  @Override
+  protected LinkedHashMap<String, Field> createHeaderFields() {
+    LinkedHashMap<String, Field> headerFields = new LinkedHashMap<>();
+    headerFields.put(FIELD_VERSION, Field.create(getNetflowVersion()));
+    headerFields.put(FIELD_MESSAGE_LENGTH, Field.create(getMessageLength()));
+    headerFields.put(FIELD_EXPORT_TIME, Field.create(getUnixSeconds()));
+    headerFields.put(FIELD_SEQUENCE_NUMBER, Field.create(getSequenceNumber()));
+    headerFields.put(FIELD_OBSERVATION_DOMAIN_ID, Field.create(getSourceId()));
+    return headerFields;
+  }
+
+  @Override
+  public int getNetflowVersion() {
+    return 10;
+  }
+}
@@ -16,14 +16,23 @@
 
 package com.streamsets.pipeline.lib.parser.net.netflow.v9;
 
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.parser.net.netflow.OutputValuesMode;
+import io.netty.buffer.ByteBuf;
+
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * A template received from an exporter. Each field already carries the decoder for its type, so decoding a
+ * record only walks a fixed array of field templates and reads each value in place from the buffer.
+ */
 public class FlowSetTemplate {
 
   private final FlowKind templateKind;
   private final int templateId;
   private final List<NetflowV9FieldTemplate> fieldTemplates = new ArrayList<>();
+  private final NetflowV9FieldTemplate[] compiledFields;
   private final int totalFieldsLength;
 
   public FlowSetTemplate(FlowKind templateKind, int templateId, List<NetflowV9FieldTemplate> fieldTemplates) {
@@ -33,10 +42,16 @@ public class FlowSetTemplate {
     if (fieldTemplates != null) {
       this.fieldTemplates.addAll(fieldTemplates);
       for (NetflowV9FieldTemplate template : fieldTemplates) {
-        totalLength += template.getLength();
+        // a variable length field takes at least its one byte length prefix
+        totalLength += template.isVariableLength() ? 1 : template.getLength();
       }
     }
     totalFieldsLength = totalLength;
+    compiledFields = this.fieldTemplates.toArray(new NetflowV9FieldTemplate[0]);
+  }
+
+  public FlowKind getTemplateKind() {
+    return templateKind;
   }
 
   public int getTemplateId() {
@@ -47,7 +62,46 @@ public class FlowSetTemplate {
     return fieldTemplates;
   }
 
+  /**
+   * Returns the length of a record of this template, or its minimum length if the template has variable length
+   * fields.
+   */
   public int getTotalFieldsLength() {
     return totalFieldsLength;
   }
+
+  /**
+   * Decodes the record that starts at the reader index of the buffer into {@code fields}, without moving the reader
+   * index. Raw values are only copied when the output values mode includes them, and interpreted values are only
+   * created when it includes those.
+   *
+   * @return the length of the record in bytes
+   */
+  public int decodeRecord(
+      ByteBuf buf,
+      OutputValuesMode outputValuesMode,
+      List<NetflowV9Field> fields
+  ) throws OnRecordErrorException {
+    final boolean rawValues = outputValuesMode != OutputValuesMode.INTERPRETED_ONLY;
+    final boolean interpretedValues = outputValuesMode != OutputValuesMode.RAW_ONLY;
+    final int start = buf.readerIndex();
+    int index = start;
+    for (NetflowV9FieldTemplate fieldTemplate : compiledFields) {
+      int length = fieldTemplate.getLength();
+      if (fieldTemplate.isVariableLength()) {
+        length = buf.getUnsignedByte(index++);
+        if (length == 255) {
+          length = buf.getUnsignedShort(index);
+          index += 2;
+        }
+      }
+      fields.add(new NetflowV9Field(
+          fieldTemplate,
+          rawValues ? NetflowV9FieldDecoder.getBytes(buf, index, length) : null,
+          interpretedValues ? fieldTemplate.getDecoder().decode(buf, index, length, fieldTemplate.getTypeId()) : null
+      ));
+      index += length;
+    }
+    return index - start;
+  }
 }
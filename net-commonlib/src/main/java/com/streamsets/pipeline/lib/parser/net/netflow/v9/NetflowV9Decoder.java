@@ -16,11 +16,9 @@
 
 package com.streamsets.pipeline.lib.parser.net.netflow.v9;
 
-import com.google.common.base.Charsets;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.primitives.Ints;
-import com.google.common.primitives.Shorts;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.api.impl.Utils;
@@ -32,12 +30,11 @@ import io.netty.buffer.ByteBuf;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
 import java.net.Inet6Address;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.UUID;
@@ -98,8 +95,6 @@ public class NetflowV9Decoder implements VersionSpecificNetflowDecoder<NetflowV9
 
   private Integer currentDataFlowLength = null;
   private Integer currentDataFlowBytesToRead = null;
-  private int currentDataFlowFieldInd = -1;
-  private List<NetflowV9Field> currentDataFlowFields = null;
 
   // vars for reading an options template flowset
   private List<NetflowV9FieldTemplate> currentOptionsTemplateFields = null;
@@ -363,28 +358,17 @@ public class NetflowV9Decoder implements VersionSpecificNetflowDecoder<NetflowV9
           currentDataFlowBytesToRead = currentDataFlowLength - 4;
         }
         while (currentDataFlowBytesToRead > 0) {
-          if (currentDataFlowFieldInd < 0 && currentDataFlowBytesToRead < template.getTotalFieldsLength()) {
-            // we aren't in the middle of parsing a field (currentDataFlowFieldInd < 0)
-            // AND there isn't enough data left for a complete record (2nd clause)
-            // so this must be padding; just skip it
+          if (currentDataFlowBytesToRead < template.getTotalFieldsLength()) {
+            // there isn't enough data left for a complete record, so this must be padding; just skip it
             readBytesAndCheckpoint(buf, currentDataFlowBytesToRead);
             break;
           }
-          if (currentDataFlowFields == null) {
-            currentDataFlowFields = new LinkedList<>();
-            currentDataFlowFieldInd = 0;
-          }
 
-          final List<NetflowV9FieldTemplate> fieldTemplates = template.getFieldTemplates();
-          final int numDataFlowFields = fieldTemplates.size();
-          while (currentDataFlowFieldInd < numDataFlowFields) {
-            NetflowV9FieldTemplate fieldTemplate = fieldTemplates.get(currentDataFlowFieldInd);
-            NetflowV9Field field = decodeField(buf, fieldTemplate, outputValuesMode);
-            currentDataFlowFields.add(field);
-            currentDataFlowBytesToRead -= fieldTemplate.getLength();
-            // done reading a single field
-            currentDataFlowFieldInd++;
-          }
+          // the whole record is decoded in place and consumed at once, so a replay restarts at this record
+          final List<NetflowV9Field> dataFlowFields = new ArrayList<>(template.getFieldTemplates().size());
+          final int recordLength = template.decodeRecord(buf, outputValuesMode, dataFlowFields);
+          buf.skipBytes(recordLength);
+          currentDataFlowBytesToRead -= recordLength;
           // done reading a flow record
 
           NetflowV9Message msg = new NetflowV9Message();
@@ -402,13 +386,12 @@ public class NetflowV9Decoder implements VersionSpecificNetflowDecoder<NetflowV9
           msg.setSourceIdBytes(sourceIdBytes);
 
           // data fields
-          msg.setFields(currentDataFlowFields);
+          msg.setFields(dataFlowFields);
           msg.setFlowTemplateId(templateId);
 
           result.add(msg);
           readIndex++;
-          currentDataFlowFields = null;
-          currentDataFlowFieldInd = -1;
+          parentDecoder.doCheckpoint();
 
         }
         // done reading all flow records
@@ -452,244 +435,6 @@ public class NetflowV9Decoder implements VersionSpecificNetflowDecoder<NetflowV9
     return currentRawBytes;
   }
 
-  public NetflowV9Field decodeField(
-      ByteBuf byteBuf,
-      NetflowV9FieldTemplate fieldTemplate,
-      OutputValuesMode outputValuesMode) throws OnRecordErrorException {
-
-    NetflowV9FieldType type = fieldTemplate.getType();
-    int length = fieldTemplate.getLength();
-
-    byte[] rawBytes = readBytesAndCheckpoint(byteBuf, length);
-
-    Field interpretedValueField = null;
-
-    if (outputValuesMode != OutputValuesMode.RAW_ONLY) {
-      if (type == null) {
-        // just use raw bytes if unable to recognize a known type
-        interpretedValueField = getRawBytes(rawBytes);
-      } else {
-        switch (type) {
-          case IN_BYTES:
-          case IN_PKTS:
-          case FLOWS:
-            interpretedValueField = getArbitraryLengthPositiveIntegralFromBytes(rawBytes);
-            break;
-          case PROTOCOL:
-          case SRC_TOS:
-          case TCP_FLAGS:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case L4_SRC_PORT:
-          case L4_DST_PORT:
-            interpretedValueField = getUnsignedShortField(rawBytes);
-            break;
-          case SRC_MASK:
-          case DST_MASK:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case INPUT_SNMP:
-          case OUTPUT_SNMP:
-            interpretedValueField = getArbitraryLengthPositiveIntegralFromBytes(rawBytes);
-            break;
-          case IPV4_SRC_ADDR:
-          case IPV4_DST_ADDR:
-          case IPV4_NEXT_HOP:
-          case BGP_IPV4_NEXT_HOP:
-            interpretedValueField = Field.create(NetflowCommonDecoder.getIpV4Address(rawBytes));
-            break;
-          case SRC_AS:
-          case DST_AS:
-            interpretedValueField = getArbitraryLengthPositiveIntegralFromBytes(rawBytes);
-            break;
-          case MUL_DST_PKTS:
-          case MUL_DST_BYTES:
-            interpretedValueField = getArbitraryLengthPositiveIntegralFromBytes(rawBytes);
-            break;
-          case LAST_SWITCHED:
-          case FIRST_SWITCHED:
-            interpretedValueField = getUnsignedIntField(rawBytes);
-            break;
-          case OUT_BYTES:
-          case OUT_PKTS:
-            interpretedValueField = getArbitraryLengthPositiveIntegralFromBytes(rawBytes);
-            break;
-          case MIN_PKT_LNGTH:
-          case MAX_PKT_LNGTH:
-            interpretedValueField = getUnsignedShortField(rawBytes);
-            break;
-          case IPV6_SRC_ADDR:
-          case IPV6_DST_ADDR:
-          case IPV6_NEXT_HOP:
-          case BGP_IPV6_NEXT_HOP:
-            interpretedValueField = getIPV6AddressAsString(rawBytes);
-            break;
-          case IPV6_SRC_MASK:
-          case IPV6_DST_MASK:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case IPV6_FLOW_LABEL:
-            interpretedValueField = getRawBytes(rawBytes);
-            break;
-          case ICMP_TYPE:
-            interpretedValueField = getUnsignedShortField(rawBytes);
-            break;
-          case MUL_IGMP_TYPE:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case SAMPLING_INTERVAL:
-            interpretedValueField = getUnsignedIntField(rawBytes);
-            break;
-          case SAMPLING_ALGORITHM:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case FLOW_ACTIVE_TIMEOUT:
-          case FLOW_INACTIVE_TIMEOUT:
-            interpretedValueField = getUnsignedShortField(rawBytes);
-            break;
-          case ENGINE_TYPE:
-          case ENGINE_ID:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case TOTAL_BYTES_EXP:
-          case TOTAL_PKTS_EXP:
-          case TOTAL_FLOWS_EXP:
-            interpretedValueField = getArbitraryLengthPositiveIntegralFromBytes(rawBytes);
-            break;
-          case IPV4_SRC_PREFIX:
-          case IPV4_DST_PREFIX:
-            interpretedValueField = getUnsignedIntField(rawBytes);
-            break;
-          case MPLS_TOP_LABEL_TYPE:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case MPLS_TOP_LABEL_IP_ADDR:
-            interpretedValueField = getUnsignedIntField(rawBytes);
-            break;
-          case FLOW_SAMPLER_ID:
-          case FLOW_SAMPLER_MODE:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case FLOW_SAMPLER_RANDOM_INTERVAL:
-            interpretedValueField = getUnsignedIntField(rawBytes);
-            break;
-          case MIN_TTL:
-          case MAX_TTL:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case IPV4_IDENT:
-            interpretedValueField = getUnsignedShortField(rawBytes);
-            break;
-          case DST_TOS:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case IN_SRC_MAC:
-          case OUT_DST_MAC:
-          case IN_DST_MAC:
-          case OUT_SRC_MAC:
-            interpretedValueField = getMacAddress(rawBytes);
-            break;
-          case SRC_VLAN:
-          case DST_VLAN:
-            interpretedValueField = getUnsignedShortField(rawBytes);
-            break;
-          case IP_PROTOCOL_VERSION:
-          case DIRECTION:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case IPV6_OPTION_HEADERS:
-            interpretedValueField = getUnsignedIntField(rawBytes);
-            break;
-          case MPLS_LABEL_1:
-          case MPLS_LABEL_2:
-          case MPLS_LABEL_3:
-          case MPLS_LABEL_4:
-          case MPLS_LABEL_5:
-          case MPLS_LABEL_6:
-          case MPLS_LABEL_7:
-          case MPLS_LABEL_8:
-          case MPLS_LABEL_9:
-          case MPLS_LABEL_10:
-            interpretedValueField = getRawBytes(rawBytes);
-            break;
-          case IF_NAME:
-          case IF_DESC:
-          case SAMPLER_NAME:
-            interpretedValueField = getString(rawBytes);
-            break;
-          case IN_PERMANENT_BYTES:
-          case IN_PERMANENT_PKTS:
-            interpretedValueField = getArbitraryLengthPositiveIntegralFromBytes(rawBytes);
-            break;
-          case FRAGMENT_OFFSET:
-            interpretedValueField = getUnsignedShortField(rawBytes);
-            break;
-          case FORWARDING_STATUS:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case MPLS_PAL_RD:
-            interpretedValueField = getRawBytes(rawBytes);
-            break;
-          case MPLS_PREFIX_LEN:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case SRC_TRAFFIC_INDEX:
-          case DST_TRAFFIC_INDEX:
-            interpretedValueField = getUnsignedIntField(rawBytes);
-            break;
-          case APPLICATION_DESCRIPTION:
-            interpretedValueField = getString(rawBytes);
-            break;
-          case APPLICATION_TAG:
-            interpretedValueField = getRawBytes(rawBytes);
-            break;
-          case APPLICATION_NAME:
-            interpretedValueField = getString(rawBytes);
-            break;
-          case POSTIP_DIFF_SERV_CODE_POINTS:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case REPLICATION_FACTOR:
-            interpretedValueField = getUnsignedIntField(rawBytes);
-            break;
-          case LAYER2_PACKET_SECTION_OFFSET:
-          case LAYER2_PACKET_SECTION_SIZE:
-          case LAYER2_PACKET_SECTION_DATA:
-            interpretedValueField = getRawBytes(rawBytes);
-            break;
-          default:
-            LOG.error("Type {} missing from switch in NetflowV9Decoder decodeField method", type.name());
-            interpretedValueField = getRawBytes(rawBytes);
-            break;
-        }
-      }
-    }
-
-    return new NetflowV9Field(fieldTemplate, rawBytes, interpretedValueField);
-  }
-
-  public static Field getArbitraryLengthPositiveIntegralFromBytes(byte[] bytes) {
-    final BigInteger bigInt = new BigInteger(1, bytes);
-    return Field.create(new BigDecimal(bigInt));
-  }
-
-  public static Field getUnsignedByteField(int typeId, byte[] bytes) throws OnRecordErrorException {
-    if (bytes.length != 1) {
-      throw new OnRecordErrorException(Errors.NETFLOW_12, typeId, bytes.length);
-    }
-
-    return Field.create(getUnsignedByte(bytes[0]));
-  }
-
-  /**
-   * Adapted from https://stackoverflow.com/a/4266881/375670
-   * @param b the single Java byte (signed)
-   * @return the unsigned equivaent, as an int
-   */
-  public static int getUnsignedByte(byte b) {
-    return b & 0xFF;
-  }
-
   public static Field getIPV6AddressAsString(byte[] bytes) throws OnRecordErrorException {
     try {
       InetAddress addr = Inet6Address.getByAddress(bytes);
@@ -699,55 +444,6 @@ public class NetflowV9Decoder implements VersionSpecificNetflowDecoder<NetflowV9
     }
   }
 
-  public static Field getUnsignedIntField(byte[] bytes) {
-    Utils.checkState(bytes.length == 4, "4 bytes required to parse an unsigned int");
-    return Field.create(getUnsignedInt(bytes));
-  }
-
-  /**
-   * Adapted from https://stackoverflow.com/a/7932774/375670
-   * @param bytes the raw bytes to interpret as an unsigned short
-   * @return an INTEGER field with the unsigned short value
-   */
-  public static Field getUnsignedShortField(byte[] bytes) {
-    Utils.checkState(bytes.length == 2, "2 bytes required to parse an unsigned short");
-    final short shortVal = Shorts.fromByteArray(bytes);
-    int intVal = shortVal >= 0 ? shortVal : 0x10000 + shortVal;
-    return Field.create(intVal);
-  }
-
-  /**
-   * Adapted from https://stackoverflow.com/a/1576404/375670
-   *
-   * @param bytes
-   * @return
-   */
-  private static long getUnsignedInt(byte[] bytes) {
-    final int intVal = Ints.fromByteArray(bytes);
-    return intVal & 0xFFFFFFFFL;
-  }
-
-  public static Field getMacAddress(byte[] bytes) {
-    StringBuilder sb = new StringBuilder();
-    for (int i = 0; i < bytes.length; i++) {
-      sb.append(String.format("%02X", bytes[i]));
-      if (i < bytes.length - 1) {
-        sb.append(":");
-      }
-    }
-    return Field.create(sb.toString());
-  }
-
-  public static Field getString(byte[] bytes) {
-    // the character for these fields is not discussed in any known documentation; we use UTF-8 (which handles
-    // single byte ASCII encoding transparently) until proven inadequate
-    return Field.create(new String(bytes, Charsets.UTF_8));
-  }
-
-  public static Field getRawBytes(byte[] bytes) {
-    return Field.create(bytes);
-  }
-
   @Override
   public void resetState() {
     readHeader = false;
@@ -778,8 +474,6 @@ public class NetflowV9Decoder implements VersionSpecificNetflowDecoder<NetflowV9
     currentFieldLength = null;
     currentDataFlowLength = null;
     currentDataFlowBytesToRead = null;
-    currentDataFlowFieldInd = -1;
-    currentDataFlowFields = null;
 
     currentOptionsTemplateFields = null;
     optionsTemplateScopeLength = null;
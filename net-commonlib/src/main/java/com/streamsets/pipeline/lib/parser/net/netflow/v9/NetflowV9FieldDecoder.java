@@ -0,0 +1,227 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.net.netflow.v9;
+
+import com.google.common.base.Charsets;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.parser.net.netflow.Errors;
+import com.streamsets.pipeline.lib.parser.net.netflow.NetflowCommonDecoder;
+import io.netty.buffer.ByteBuf;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Interprets a single field value of a flow record. The decoder for a field is chosen once, when its template is
+ * received, and reads the value in place from the {@link ByteBuf} using absolute indexes, so interpreting a field
+ * neither moves the reader index nor copies the bytes unless the resulting {@link Field} needs them.
+ */
+public enum NetflowV9FieldDecoder {
+  POSITIVE_INTEGRAL {
+    @Override
+    public Field decode(ByteBuf buf, int index, int length, int typeId) {
+      if (length < 8 || (length == 8 && buf.getByte(index) >= 0)) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+          value = (value << 8) | buf.getUnsignedByte(index + i);
+        }
+        return Field.create(BigDecimal.valueOf(value));
+      }
+      return Field.create(new BigDecimal(new BigInteger(1, getBytes(buf, index, length))));
+    }
+  },
+  UNSIGNED_BYTE {
+    @Override
+    public Field decode(ByteBuf buf, int index, int length, int typeId) throws OnRecordErrorException {
+      if (length != 1) {
+        throw new OnRecordErrorException(Errors.NETFLOW_12, typeId, length);
+      }
+      return Field.create((int) buf.getUnsignedByte(index));
+    }
+  },
+  UNSIGNED_SHORT {
+    @Override
+    public Field decode(ByteBuf buf, int index, int length, int typeId) {
+      Utils.checkState(length == 2, "2 bytes required to parse an unsigned short");
+      return Field.create(buf.getUnsignedShort(index));
+    }
+  },
+  UNSIGNED_INT {
+    @Override
+    public Field decode(ByteBuf buf, int index, int length, int typeId) {
+      Utils.checkState(length == 4, "4 bytes required to parse an unsigned int");
+      return Field.create(buf.getUnsignedInt(index));
+    }
+  },
+  IPV4_ADDRESS {
+    @Override
+    public Field decode(ByteBuf buf, int index, int length, int typeId) throws OnRecordErrorException {
+      if (length == 4) {
+        return Field.create(NetflowCommonDecoder.ipV4ToString(buf.getInt(index)));
+      }
+      return Field.create(NetflowCommonDecoder.getIpV4Address(getBytes(buf, index, length)));
+    }
+  },
+  IPV6_ADDRESS {
+    @Override
+    public Field decode(ByteBuf buf, int index, int length, int typeId) throws OnRecordErrorException {
+      return NetflowV9Decoder.getIPV6AddressAsString(getBytes(buf, index, length));
+    }
+  },
+  MAC_ADDRESS {
+    @Override
+    public Field decode(ByteBuf buf, int index, int length, int typeId) {
+      char[] chars = new char[Math.max(0, length * 3 - 1)];
+      for (int i = 0; i < length; i++) {
+        int b = buf.getUnsignedByte(index + i);
+        chars[i * 3] = HEX_DIGITS[b >>> 4];
+        chars[i * 3 + 1] = HEX_DIGITS[b & 0x0F];
+        if (i < length - 1) {
+          chars[i * 3 + 2] = ':';
+        }
+      }
+      return Field.create(new String(chars));
+    }
+  },
+  STRING {
+    @Override
+    public Field decode(ByteBuf buf, int index, int length, int typeId) {
+      // the character for these fields is not discussed in any known documentation; we use UTF-8 (which handles
+      // single byte ASCII encoding transparently) until proven inadequate
+      return Field.create(buf.toString(index, length, Charsets.UTF_8));
+    }
+  },
+  RAW_BYTES {
+    @Override
+    public Field decode(ByteBuf buf, int index, int length, int typeId) {
+      return Field.create(getBytes(buf, index, length));
+    }
+  },
+  ;
+
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  /**
+   * Interprets the value of {@code length} bytes starting at the absolute {@code index} of the buffer.
+   */
+  public abstract Field decode(ByteBuf buf, int index, int length, int typeId) throws OnRecordErrorException;
+
+  public static byte[] getBytes(ByteBuf buf, int index, int length) {
+    byte[] bytes = new byte[length];
+    buf.getBytes(index, bytes);
+    return bytes;
+  }
+
+  /**
+   * Returns the decoder for fields of the given type; fields of unknown types are kept as raw bytes.
+   */
+  public static NetflowV9FieldDecoder forType(NetflowV9FieldType type) {
+    if (type == null) {
+      return RAW_BYTES;
+    }
+    switch (type) {
+      case IN_BYTES:
+      case IN_PKTS:
+      case FLOWS:
+      case INPUT_SNMP:
+      case OUTPUT_SNMP:
+      case SRC_AS:
+      case DST_AS:
+      case MUL_DST_PKTS:
+      case MUL_DST_BYTES:
+      case OUT_BYTES:
+      case OUT_PKTS:
+      case TOTAL_BYTES_EXP:
+      case TOTAL_PKTS_EXP:
+      case TOTAL_FLOWS_EXP:
+      case IN_PERMANENT_BYTES:
+      case IN_PERMANENT_PKTS:
+        return POSITIVE_INTEGRAL;
+      case PROTOCOL:
+      case SRC_TOS:
+      case TCP_FLAGS:
+      case SRC_MASK:
+      case DST_MASK:
+      case IPV6_SRC_MASK:
+      case IPV6_DST_MASK:
+      case MUL_IGMP_TYPE:
+      case SAMPLING_ALGORITHM:
+      case ENGINE_TYPE:
+      case ENGINE_ID:
+      case MPLS_TOP_LABEL_TYPE:
+      case FLOW_SAMPLER_ID:
+      case FLOW_SAMPLER_MODE:
+      case MIN_TTL:
+      case MAX_TTL:
+      case DST_TOS:
+      case IP_PROTOCOL_VERSION:
+      case DIRECTION:
+      case FORWARDING_STATUS:
+      case MPLS_PREFIX_LEN:
+      case POSTIP_DIFF_SERV_CODE_POINTS:
+        return UNSIGNED_BYTE;
+      case L4_SRC_PORT:
+      case L4_DST_PORT:
+      case MIN_PKT_LNGTH:
+      case MAX_PKT_LNGTH:
+      case ICMP_TYPE:
+      case FLOW_ACTIVE_TIMEOUT:
+      case FLOW_INACTIVE_TIMEOUT:
+      case IPV4_IDENT:
+      case SRC_VLAN:
+      case DST_VLAN:
+      case FRAGMENT_OFFSET:
+        return UNSIGNED_SHORT;
+      case LAST_SWITCHED:
+      case FIRST_SWITCHED:
+      case SAMPLING_INTERVAL:
+      case IPV4_SRC_PREFIX:
+      case IPV4_DST_PREFIX:
+      case MPLS_TOP_LABEL_IP_ADDR:
+      case FLOW_SAMPLER_RANDOM_INTERVAL:
+      case IPV6_OPTION_HEADERS:
+      case SRC_TRAFFIC_INDEX:
+      case DST_TRAFFIC_INDEX:
+      case REPLICATION_FACTOR:
+        return UNSIGNED_INT;
+      case IPV4_SRC_ADDR:
+      case IPV4_DST_ADDR:
+      case IPV4_NEXT_HOP:
+      case BGP_IPV4_NEXT_HOP:
+        return IPV4_ADDRESS;
+      case IPV6_SRC_ADDR:
+      case IPV6_DST_ADDR:
+      case IPV6_NEXT_HOP:
+      case BGP_IPV6_NEXT_HOP:
+        return IPV6_ADDRESS;
+      case IN_SRC_MAC:
+      case OUT_DST_MAC:
+      case IN_DST_MAC:
+      case OUT_SRC_MAC:
+        return MAC_ADDRESS;
+      case IF_NAME:
+      case IF_DESC:
+      case SAMPLER_NAME:
+      case APPLICATION_DESCRIPTION:
+      case APPLICATION_NAME:
+        return STRING;
+      default:
+        return RAW_BYTES;
+    }
+  }
+}
@@ -18,10 +18,17 @@ package com.streamsets.pipeline.lib.parser.net.netflow.v9;
 
 public class NetflowV9FieldTemplate {
 
+  /**
+   * Field length that IPFIX templates use for variable length fields, whose actual length precedes each value.
+   */
+  public static final int VARIABLE_LENGTH = 0xFFFF;
+
   private final NetflowV9FieldType type;
 
   private final int typeId;
   private final int length;
+  private final long enterpriseNumber;
+  private final NetflowV9FieldDecoder decoder;
 
   public NetflowV9FieldTemplate(int typeId, int length) {
     this(NetflowV9FieldType.getTypeForId(typeId), typeId, length);
@@ -31,10 +38,24 @@ public class NetflowV9FieldTemplate {
     return new NetflowV9FieldTemplate(NetflowV9FieldType.getScopeTypeForId(scopeTypeId), scopeTypeId, length);
   }
 
+  /**
+   * Creates the template for an IPFIX enterprise specific information element, whose type ID is only meaningful
+   * together with the enterprise number. Its values are kept as raw bytes.
+   */
+  public static NetflowV9FieldTemplate getEnterpriseFieldTemplate(long enterpriseNumber, int typeId, int length) {
+    return new NetflowV9FieldTemplate(null, typeId, length, enterpriseNumber);
+  }
+
   public NetflowV9FieldTemplate(NetflowV9FieldType type, int typeId, int length) {
+    this(type, typeId, length, 0);
+  }
+
+  private NetflowV9FieldTemplate(NetflowV9FieldType type, int typeId, int length, long enterpriseNumber) {
     this.type = type;
     this.typeId = typeId;
     this.length = length;
+    this.enterpriseNumber = enterpriseNumber;
+    this.decoder = NetflowV9FieldDecoder.forType(type);
   }
 
   public NetflowV9FieldType getType() {
@@ -48,4 +69,16 @@ public class NetflowV9FieldTemplate {
   public int getLength() {
     return length;
   }
+
+  public boolean isVariableLength() {
+    return length == VARIABLE_LENGTH;
+  }
+
+  public long getEnterpriseNumber() {
+    return enterpriseNumber;
+  }
+
+  public NetflowV9FieldDecoder getDecoder() {
+    return decoder;
+  }
 }
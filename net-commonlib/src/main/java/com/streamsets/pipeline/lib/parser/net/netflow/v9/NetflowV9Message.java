@@ -151,15 +151,7 @@ public class NetflowV9Message extends BaseNetflowMessage {
       rootMap.put(FIELD_RECIPIENT, Field.create(getRecipient().toString()));
     }
 
-    LinkedHashMap<String, Field> headerFields = new LinkedHashMap<>();
-    headerFields.put(FIELD_VERSION, Field.create(getNetflowVersion()));
-    headerFields.put(FIELD_FLOW_RECORD_COUNT, Field.create(getFlowRecordCount()));
-    headerFields.put(FIELD_SYS_UPTIME_MS, Field.create(getSystemUptimeMs()));
-    headerFields.put(FIELD_UNIX_SECONDS, Field.create(getUnixSeconds()));
-    headerFields.put(FIELD_SEQUENCE_NUMBER, Field.create(getSequenceNumber()));
-    headerFields.put(FIELD_SOURCE_ID, Field.create(getSourceId()));
-    headerFields.put(FIELD_SOURCE_ID_RAW, Field.create(getSourceIdBytes()));
-    rootMap.put(FIELD_PACKET_HEADER, Field.createListMap(headerFields));
+    rootMap.put(FIELD_PACKET_HEADER, Field.createListMap(createHeaderFields()));
     rootMap.put(FIELD_FLOW_TEMPLATE_ID, Field.create(getFlowTemplateId()));
 
     switch (outputValuesMode) {
@@ -178,6 +170,18 @@ public class NetflowV9Message extends BaseNetflowMessage {
     record.set(Field.createListMap(rootMap));
   }
 
+  protected LinkedHashMap<String, Field> createHeaderFields() {
+    LinkedHashMap<String, Field> headerFields = new LinkedHashMap<>();
+    headerFields.put(FIELD_VERSION, Field.create(getNetflowVersion()));
+    headerFields.put(FIELD_FLOW_RECORD_COUNT, Field.create(getFlowRecordCount()));
+    headerFields.put(FIELD_SYS_UPTIME_MS, Field.create(getSystemUptimeMs()));
+    headerFields.put(FIELD_UNIX_SECONDS, Field.create(getUnixSeconds()));
+    headerFields.put(FIELD_SEQUENCE_NUMBER, Field.create(getSequenceNumber()));
+    headerFields.put(FIELD_SOURCE_ID, Field.create(getSourceId()));
+    headerFields.put(FIELD_SOURCE_ID_RAW, Field.create(getSourceIdBytes()));
+    return headerFields;
+  }
+
   public LinkedHashMap<String, Field> createFieldsMap(boolean rawValues) {
     LinkedHashMap<String, Field> fields = new LinkedHashMap<>();
     getFields().forEach(field -> fields.put(
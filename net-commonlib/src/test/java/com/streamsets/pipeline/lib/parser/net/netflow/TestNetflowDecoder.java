@@ -21,6 +21,7 @@ import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.lib.parser.net.NetTestUtils;
+import com.streamsets.pipeline.lib.parser.net.netflow.ipfix.IpfixMessage;
 import com.streamsets.pipeline.lib.parser.net.netflow.v5.NetflowV5Message;
 import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowKind;
 import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Field;
@@ -29,6 +30,7 @@ import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Message;
 import com.streamsets.pipeline.sdk.RecordCreator;
 import com.streamsets.testing.RandomTestUtils;
 import com.streamsets.testing.ValueAccessor;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.embedded.EmbeddedChannel;
 import org.apache.commons.lang3.RandomUtils;
@@ -38,6 +40,7 @@ import org.junit.Test;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -540,4 +543,103 @@ public class TestNetflowDecoder {
     assertThat(record.get("/" + NetflowV9Message.FIELD_RECIPIENT), fieldWithValue(recipientAddr.toString()));
   }
 
+  private static ByteBuf getIpfixMessageBytes() {
+    final ByteBuf buf = Unpooled.buffer();
+    // message header
+    buf.writeShort(10);
+    buf.writeShort(96);
+    buf.writeInt(1500000000);
+    buf.writeInt(7);
+    buf.writeInt(42);
+
+    // template set with a variable length field and an enterprise specific field
+    buf.writeShort(2);
+    buf.writeShort(32);
+    buf.writeShort(256);
+    buf.writeShort(5);
+    // IPV4_SRC_ADDR, L4_SRC_PORT, IN_BYTES and IF_NAME
+    buf.writeShort(8).writeShort(4);
+    buf.writeShort(7).writeShort(2);
+    buf.writeShort(1).writeShort(8);
+    buf.writeShort(82).writeShort(0xFFFF);
+    buf.writeShort(0x8000 | 5).writeShort(2).writeInt(9);
+
+    // data set with two records and two bytes of padding
+    buf.writeShort(256);
+    buf.writeShort(48);
+    for (int i = 1; i <= 2; i++) {
+      buf.writeBytes(new byte[] {10, 0, 0, (byte) i});
+      buf.writeShort(80 + i);
+      buf.writeLong(300L * i);
+      buf.writeByte(4).writeBytes(("eth" + i).getBytes(StandardCharsets.UTF_8));
+      buf.writeBytes(new byte[] {1, 2});
+    }
+    buf.writeZero(2);
+    return buf;
+  }
+
+  @Test
+  public void ipfixTemplateAndDataSets() throws Exception {
+    final NetflowCommonDecoder decoder = makeNetflowDecoder();
+    final List<BaseNetflowMessage> messages = new LinkedList<>();
+    final InetSocketAddress senderAddr = InetSocketAddress.createUnresolved("hostA", 1234);
+    decoder.decodeStandaloneBuffer(getIpfixMessageBytes(), messages, senderAddr, null);
+
+    assertThat(messages, hasSize(2));
+    for (int i = 1; i <= 2; i++) {
+      assertThat(messages.get(i - 1), instanceOf(IpfixMessage.class));
+      final IpfixMessage message = (IpfixMessage) messages.get(i - 1);
+      assertThat(message.getFlowKind(), equalTo(FlowKind.FLOWSET));
+      assertThat(message.getFlowTemplateId(), equalTo(256));
+      assertThat(message.getSourceId(), equalTo(42L));
+
+      final Record record = RecordCreator.create();
+      message.populateRecord(record);
+      final Field header = record.get("/" + NetflowV9Message.FIELD_PACKET_HEADER);
+      assertThat(header, mapFieldWithEntry(NetflowV9Message.FIELD_VERSION, 10));
+      assertThat(header, mapFieldWithEntry(IpfixMessage.FIELD_EXPORT_TIME, 1500000000L));
+      assertThat(header, mapFieldWithEntry(NetflowV9Message.FIELD_SEQUENCE_NUMBER, 7L));
+      assertThat(header, mapFieldWithEntry(IpfixMessage.FIELD_OBSERVATION_DOMAIN_ID, 42L));
+
+      final Field values = record.get("/" + NetflowV9Message.FIELD_INTERPRETED_VALUES);
+      assertThat(values, mapFieldWithEntry(NetflowV9FieldType.IPV4_SRC_ADDR.name(), "10.0.0." + i));
+      assertThat(values, mapFieldWithEntry(NetflowV9FieldType.L4_SRC_PORT.name(), 80 + i));
+      assertThat(values, mapFieldWithEntry(NetflowV9FieldType.IN_BYTES.name(), new BigDecimal(300 * i)));
+      assertThat(values, mapFieldWithEntry(NetflowV9FieldType.IF_NAME.name(), "eth" + i));
+      assertTrue(record.has("/" + NetflowV9Message.FIELD_RAW_VALUES + "/type_9_5"));
+      assertArrayEquals(
+          new byte[] {1, 2},
+          record.get("/" + NetflowV9Message.FIELD_RAW_VALUES + "/type_9_5").getValueAsByteArray()
+      );
+    }
+  }
+
+  @Test
+  public void ipfixDataSetWithoutTemplate() throws Exception {
+    final ByteBuf buf = Unpooled.buffer();
+    buf.writeShort(10).writeShort(24).writeInt(0).writeInt(0).writeInt(1);
+    buf.writeShort(300).writeShort(8).writeInt(0);
+    try {
+      makeNetflowDecoder().decodeStandaloneBuffer(buf, new LinkedList<>(), null, null);
+      fail("Expected an error for a data set without a template");
+    } catch (OnRecordErrorException ex) {
+      assertEquals(Errors.NETFLOW_11, ex.getErrorCode());
+    }
+  }
+
+  @Test
+  public void ipfixTemplatePastSetEnd() throws Exception {
+    final ByteBuf buf = Unpooled.buffer();
+    buf.writeShort(10).writeShort(36).writeInt(0).writeInt(0).writeInt(1);
+    // template set declaring three fields, but with room for only one of them
+    buf.writeShort(2).writeShort(12).writeShort(256).writeShort(3);
+    buf.writeShort(8).writeShort(4);
+    buf.writeShort(256).writeShort(8).writeInt(0);
+    try {
+      makeNetflowDecoder().decodeStandaloneBuffer(buf, new LinkedList<>(), null, null);
+      fail("Expected an error for a template extending past the end of its set");
+    } catch (OnRecordErrorException ex) {
+      assertEquals(Errors.NETFLOW_01, ex.getErrorCode());
+    }
+  }
 }
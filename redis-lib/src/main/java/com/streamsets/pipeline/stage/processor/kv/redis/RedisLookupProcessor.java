@@ -34,6 +34,7 @@ import com.streamsets.pipeline.lib.el.RecordEL;
 import com.streamsets.pipeline.lib.redis.DataType;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import com.streamsets.pipeline.stage.processor.kv.BatchLookupStats;
 import com.streamsets.pipeline.stage.processor.kv.LookupUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
@@ -67,6 +68,7 @@ public class RedisLookupProcessor extends BaseProcessor {
 
   private RedisStore store;
   private CacheCleaner cacheCleaner;
+  private BatchLookupStats batchLookupStats;
 
   public RedisLookupProcessor(RedisLookupConfig conf) {
     this.conf = conf;
@@ -105,6 +107,9 @@ public class RedisLookupProcessor extends BaseProcessor {
       cache = LookupUtils.buildCache(store, conf.cache);
 
       cacheCleaner = new CacheCleaner(cache, "RedisLookupProcessor", 10 * 60 * 1000);
+      if (conf.mode == BATCH) {
+        batchLookupStats = new BatchLookupStats(getContext());
+      }
     }
 
     return issues;
@@ -175,7 +180,7 @@ public class RedisLookupProcessor extends BaseProcessor {
     try {
       List<Map<String, Pair<String, DataType>>> mapList = getMap(batch);
       Set<Pair<String, DataType>> keys = getKeys(mapList);
-      Map<Pair<String, DataType>, LookupValue> values = cache.getAll(keys);
+      Map<Pair<String, DataType>, LookupValue> values = batchLookupStats.getAll(cache, keys);
 
       records = batch.getRecords();
       Record record;
@@ -22,6 +22,8 @@ import org.apache.commons.lang3.tuple.Pair;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 
 import java.net.URI;
 import java.util.ArrayList;
@@ -92,10 +94,41 @@ public class RedisStore extends CacheLoader<Pair<String, DataType>, LookupValue>
     return values;
   }
 
+  /**
+   * Looks up all the keys with a single pipelined request on one connection.
+   */
   public List<LookupValue> get(List<Pair<String, DataType>> keys) {
-    List<LookupValue> result = new ArrayList<>();
-    for(Pair<String, DataType> key : keys) {
-      result.add(get(key));
+    List<Response<?>> responses = new ArrayList<>(keys.size());
+    Jedis jedis = pool.getResource();
+    try {
+      Pipeline pipeline = jedis.pipelined();
+      for (Pair<String, DataType> key : keys) {
+        switch (key.getRight()) {
+          case STRING:
+            responses.add(pipeline.get(key.getLeft()));
+            break;
+          case LIST:
+            responses.add(pipeline.lrange(key.getLeft(), 0, -1));
+            break;
+          case HASH:
+            responses.add(pipeline.hgetAll(key.getLeft()));
+            break;
+          case SET:
+            responses.add(pipeline.smembers(key.getLeft()));
+            break;
+          default:
+            responses.add(null);
+        }
+      }
+      pipeline.sync();
+    } finally {
+      jedis.close();
+    }
+
+    List<LookupValue> result = new ArrayList<>(keys.size());
+    for (int i = 0; i < keys.size(); i++) {
+      Response<?> response = responses.get(i);
+      result.add(response == null ? null : new LookupValue(response.get(), keys.get(i).getRight()));
     }
     return result;
   }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv.redis;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.streamsets.pipeline.lib.redis.DataType;
+import com.streamsets.pipeline.stage.origin.redis.RandomPortFinder;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import redis.clients.jedis.Jedis;
+import redis.embedded.RedisServer;
+
+import java.util.List;
+import java.util.Map;
+
+public class TestRedisStore {
+  private RedisServer redisServer;
+  private RedisStore store;
+
+  @Before
+  public void setUp() throws Exception {
+    int port = RandomPortFinder.find();
+    redisServer = new RedisServer(port);
+    redisServer.start();
+
+    try (Jedis jedis = new Jedis("localhost", port)) {
+      jedis.mset("key1", "value1", "key2", "value2");
+      jedis.rpush("lkey1", "lvalue1_1", "lvalue1_2", "lvalue1_3");
+      jedis.hmset("hkey1", ImmutableMap.of("hfield1", "hvalue1", "hfield2", "hvalue2"));
+      jedis.sadd("skey1", "svalue1_1", "svalue1_2");
+    }
+
+    RedisLookupConfig conf = new RedisLookupConfig();
+    conf.uri = "redis://localhost:" + port;
+    store = new RedisStore(conf);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    store.close();
+    redisServer.stop();
+  }
+
+  @Test
+  public void testPipelinedGetMatchesSingleGets() throws Exception {
+    List<Pair<String, DataType>> keys = ImmutableList.of(
+        Pair.of("key2", DataType.STRING),
+        Pair.of("lkey1", DataType.LIST),
+        Pair.of("missing", DataType.STRING),
+        Pair.of("hkey1", DataType.HASH),
+        Pair.of("skey1", DataType.SET),
+        Pair.of("key1", DataType.STRING)
+    );
+
+    List<LookupValue> values = store.get(keys);
+
+    Assert.assertEquals(keys.size(), values.size());
+    for (int i = 0; i < keys.size(); i++) {
+      Assert.assertEquals(keys.get(i).getLeft(), store.get(keys.get(i)), values.get(i));
+    }
+    Assert.assertEquals("value2", values.get(0).getValue());
+    Assert.assertEquals(ImmutableList.of("lvalue1_1", "lvalue1_2", "lvalue1_3"), values.get(1).getValue());
+    Assert.assertNull(values.get(2).getValue());
+    Assert.assertEquals(ImmutableMap.of("hfield1", "hvalue1", "hfield2", "hvalue2"), values.get(3).getValue());
+    Assert.assertEquals(ImmutableSet.of("svalue1_1", "svalue1_2"), values.get(4).getValue());
+    Assert.assertEquals("value1", values.get(5).getValue());
+  }
+
+  @Test
+  public void testLoadAllMapsValuesToTheirKeys() throws Exception {
+    List<Pair<String, DataType>> keys = ImmutableList.of(
+        Pair.of("key1", DataType.STRING),
+        Pair.of("hkey1", DataType.HASH),
+        Pair.of("key2", DataType.STRING)
+    );
+
+    Map<Pair<String, DataType>, LookupValue> values = store.loadAll(keys);
+
+    Assert.assertEquals(3, values.size());
+    Assert.assertEquals(new LookupValue("value1", DataType.STRING), values.get(keys.get(0)));
+    Assert.assertEquals(
+        new LookupValue(ImmutableMap.of("hfield1", "hvalue1", "hfield2", "hvalue2"), DataType.HASH),
+        values.get(keys.get(1))
+    );
+    Assert.assertEquals(new LookupValue("value2", DataType.STRING), values.get(keys.get(2)));
+  }
+}